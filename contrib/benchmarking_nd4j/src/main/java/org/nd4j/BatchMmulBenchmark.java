@@ -0,0 +1,63 @@
+package org.nd4j;
+
+import org.nd4j.linalg.api.buffer.DataType;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Many small matrix multiplications (e.g., per-head attention): one mmul call per matrix vs. a single
+ * batched mmul call over a rank 3 stack of matrices
+ */
+public class BatchMmulBenchmark {
+
+    @State(Scope.Thread)
+    public static class SetupState {
+        @Param({"256", "4096"})
+        public int batchSize;
+
+        @Param({"8", "32"})
+        public int size;
+
+        public INDArray a;
+        public INDArray b;
+        public INDArray[] as;
+        public INDArray[] bs;
+
+        @Setup
+        public void setup() {
+            a = Nd4j.rand(DataType.FLOAT, batchSize, size, size);
+            b = Nd4j.rand(DataType.FLOAT, batchSize, size, size);
+            as = new INDArray[batchSize];
+            bs = new INDArray[batchSize];
+            for (int i = 0; i < batchSize; i++) {
+                as[i] = a.tensorAlongDimension(i, 1, 2).dup();
+                bs[i] = b.tensorAlongDimension(i, 1, 2).dup();
+            }
+        }
+    }
+
+    @Benchmark @BenchmarkMode(Mode.AverageTime) @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void loopMmul(SetupState state) {
+        for (int i = 0; i < state.batchSize; i++) {
+            state.as[i].mmul(state.bs[i]);
+        }
+    }
+
+    @Benchmark @BenchmarkMode(Mode.AverageTime) @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void batchMmulList(SetupState state) {
+        Nd4j.batchMmul(state.as, state.bs, false, false);
+    }
+
+    @Benchmark @BenchmarkMode(Mode.AverageTime) @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void batchMmulStack(SetupState state) {
+        Nd4j.batchMmul(state.a, state.b);
+    }
+
+    @Benchmark @BenchmarkMode(Mode.AverageTime) @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void matmulRank3(SetupState state) {
+        Nd4j.matmul(state.a, state.b);
+    }
+}
@@ -0,0 +1,87 @@
+package org.nd4j;
+
+import org.nd4j.linalg.api.buffer.DataType;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.api.ops.executioner.PreparedOp;
+import org.nd4j.linalg.api.ops.impl.reduce.Mmul;
+import org.nd4j.linalg.api.ops.impl.transforms.custom.SoftMax;
+import org.nd4j.linalg.api.ops.impl.transforms.pairwise.arithmetic.AddOp;
+import org.nd4j.linalg.factory.Nd4j;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-call overhead of small custom ops: regular execution (new OpContext, argument transfer and output shape
+ * calculation on every call) vs. execution via a pre-bound {@link PreparedOp}
+ */
+public class PreparedOpBenchmark {
+
+    @State(Scope.Thread)
+    public static class SetupState {
+        public INDArray x = Nd4j.rand(DataType.FLOAT, 32, 32);
+        public INDArray y = Nd4j.rand(DataType.FLOAT, 32, 32);
+        public INDArray z = Nd4j.create(DataType.FLOAT, 32, 32);
+
+        public PreparedOp add;
+        public PreparedOp addAllocating;
+        public PreparedOp mmul;
+        public PreparedOp softmax;
+
+        @Setup
+        public void setup() {
+            add = Nd4j.getExecutioner().prepare(new AddOp(x, y, z));
+            addAllocating = Nd4j.getExecutioner().prepare(new AddOp());
+            mmul = Nd4j.getExecutioner().prepare(new Mmul(x, y, z, null));
+            softmax = Nd4j.getExecutioner().prepare(new SoftMax(x, z, -1));
+        }
+
+        @TearDown
+        public void tearDown() {
+            add.close();
+            addAllocating.close();
+            mmul.close();
+            softmax.close();
+        }
+    }
+
+    @Benchmark @BenchmarkMode(Mode.AverageTime) @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public void add(SetupState state) {
+        Nd4j.exec(new AddOp(state.x, state.y, state.z));
+    }
+
+    @Benchmark @BenchmarkMode(Mode.AverageTime) @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public void addPrepared(SetupState state) {
+        state.add.exec();
+    }
+
+    @Benchmark @BenchmarkMode(Mode.AverageTime) @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public void addAllocating(SetupState state) {
+        Nd4j.exec(new AddOp(state.x, state.y));
+    }
+
+    @Benchmark @BenchmarkMode(Mode.AverageTime) @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public void addAllocatingPrepared(SetupState state) {
+        state.addAllocating.exec(state.x, state.y);
+    }
+
+    @Benchmark @BenchmarkMode(Mode.AverageTime) @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public void mmul32(SetupState state) {
+        Nd4j.exec(new Mmul(state.x, state.y, state.z, null));
+    }
+
+    @Benchmark @BenchmarkMode(Mode.AverageTime) @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public void mmul32Prepared(SetupState state) {
+        state.mmul.exec();
+    }
+
+    @Benchmark @BenchmarkMode(Mode.AverageTime) @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public void softmax(SetupState state) {
+        Nd4j.exec(new SoftMax(state.x, state.z, -1));
+    }
+
+    @Benchmark @BenchmarkMode(Mode.AverageTime) @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public void softmaxPrepared(SetupState state) {
+        state.softmax.exec();
+    }
+}
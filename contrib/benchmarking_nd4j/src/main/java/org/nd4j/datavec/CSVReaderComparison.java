@@ -0,0 +1,118 @@
+package org.nd4j.datavec;
+
+import org.datavec.api.records.reader.RecordReader;
+import org.datavec.api.records.reader.impl.csv.CSVRecordReader;
+import org.datavec.api.records.reader.impl.csv.ParallelCSVRecordReader;
+import org.datavec.api.split.FileSplit;
+import org.datavec.api.transform.schema.Schema;
+import org.datavec.api.writable.Writable;
+import org.datavec.api.writable.batch.PrimitiveColumnarRecordBatch;
+import org.nd4j.linalg.api.buffer.DataType;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares CSVRecordReader with ParallelCSVRecordReader, reading a numeric CSV file of the specified size into
+ * minibatch arrays. The file is generated once per trial, in java.io.tmpdir (or -Dcsv.benchmark.dir).<br>
+ * For GB-scale files, run with fewer iterations, for example:<br>
+ * java -jar target/benchmarks.jar CSVReaderComparison -f1 -wi 1 -i 3 -p sizeMB=1024,4096
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class CSVReaderComparison {
+
+    @Param({"1024"})
+    public int sizeMB;
+
+    @Param({"10"})
+    public int numColumns;
+
+    @Param({"256"})
+    public int batchSize;
+
+    private File file;
+    private Schema schema;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        File dir = new File(System.getProperty("csv.benchmark.dir", System.getProperty("java.io.tmpdir")));
+        file = new File(dir, "csv_benchmark_" + sizeMB + "mb_" + numColumns + "cols.csv");
+        long targetBytes = sizeMB * 1024L * 1024L;
+        if (!file.exists() || file.length() < targetBytes) {
+            Random r = new Random(12345);
+            try (BufferedWriter bw = new BufferedWriter(new FileWriter(file), 1 << 20)) {
+                long written = 0;
+                StringBuilder sb = new StringBuilder();
+                while (written < targetBytes) {
+                    sb.setLength(0);
+                    for (int j = 0; j < numColumns; j++) {
+                        if (j > 0) {
+                            sb.append(',');
+                        }
+                        sb.append(r.nextGaussian());
+                    }
+                    sb.append('\n');
+                    bw.write(sb.toString());
+                    written += sb.length();
+                }
+            }
+        }
+
+        Schema.Builder sb = new Schema.Builder();
+        for (int j = 0; j < numColumns; j++) {
+            sb.addColumnDouble("col" + j);
+        }
+        schema = sb.build();
+    }
+
+    @Benchmark
+    public void csvRecordReader(Blackhole bh) throws Exception {
+        RecordReader rr = new CSVRecordReader();
+        rr.initialize(new FileSplit(file));
+        double[] values = new double[batchSize * numColumns];
+        while (rr.hasNext()) {
+            List<List<Writable>> batch = rr.next(batchSize);
+            int i = 0;
+            for (List<Writable> l : batch) {
+                for (Writable w : l) {
+                    values[i++] = w.toDouble();
+                }
+            }
+            bh.consume(values);
+        }
+        rr.close();
+    }
+
+    @Benchmark
+    public void parallelCsvRecordReader(Blackhole bh) throws Exception {
+        RecordReader rr = new ParallelCSVRecordReader(schema);
+        rr.initialize(new FileSplit(file));
+        while (rr.hasNext()) {
+            PrimitiveColumnarRecordBatch batch = (PrimitiveColumnarRecordBatch) rr.next(batchSize);
+            for (int j = 0; j < numColumns; j++) {
+                bh.consume(batch.getColumnData(j));
+            }
+        }
+        rr.close();
+    }
+
+    @Benchmark
+    public void parallelCsvRecordReaderToArray(Blackhole bh) throws Exception {
+        RecordReader rr = new ParallelCSVRecordReader(schema);
+        rr.initialize(new FileSplit(file));
+        while (rr.hasNext()) {
+            PrimitiveColumnarRecordBatch batch = (PrimitiveColumnarRecordBatch) rr.next(batchSize);
+            bh.consume(batch.toArray(DataType.FLOAT));
+        }
+        rr.close();
+    }
+}
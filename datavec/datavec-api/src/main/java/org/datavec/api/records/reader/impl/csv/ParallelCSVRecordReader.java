@@ -0,0 +1,820 @@
+/*
+ *  ******************************************************************************
+ *  *
+ *  *
+ *  * This program and the accompanying materials are made available under the
+ *  * terms of the Apache License, Version 2.0 which is available at
+ *  * https://www.apache.org/licenses/LICENSE-2.0.
+ *  *
+ *  *  See the NOTICE file distributed with this work for additional
+ *  *  information regarding copyright ownership.
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ *  * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ *  * License for the specific language governing permissions and limitations
+ *  * under the License.
+ *  *
+ *  * SPDX-License-Identifier: Apache-2.0
+ *  *****************************************************************************
+ */
+
+package org.datavec.api.records.reader.impl.csv;
+
+import lombok.NonNull;
+import org.apache.commons.io.IOUtils;
+import org.datavec.api.conf.Configuration;
+import org.datavec.api.records.Record;
+import org.datavec.api.records.metadata.RecordMetaData;
+import org.datavec.api.records.metadata.RecordMetaDataLine;
+import org.datavec.api.records.reader.BaseRecordReader;
+import org.datavec.api.split.InputSplit;
+import org.datavec.api.transform.ColumnType;
+import org.datavec.api.transform.schema.Schema;
+import org.datavec.api.writable.Text;
+import org.datavec.api.writable.Writable;
+import org.datavec.api.writable.batch.PrimitiveColumnarRecordBatch;
+import org.nd4j.common.base.Preconditions;
+
+import java.io.*;
+import java.lang.reflect.Array;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A high-throughput CSV record reader, for large files with a known {@link Schema}.<br>
+ * Compared to {@link CSVRecordReader}, this reader:<br>
+ * - Reads local files through a memory map, rather than line by line through a Reader<br>
+ * - Splits each file into byte ranges (chunks) that are parsed in parallel, on a fixed size thread pool. Records are
+ * still returned in file order<br>
+ * - Parses numeric fields directly from bytes into primitive column arrays, without creating intermediate Strings or
+ * Text writables. Batches returned by {@link #next(int)} are {@link PrimitiveColumnarRecordBatch} instances, which can be
+ * transformed and converted to INDArrays column at a time (see
+ * {@link org.datavec.api.transform.TransformProcess#executeColumnar(org.datavec.api.writable.batch.ColumnarRecordBatch)})<br>
+ * <br>
+ * Values are parsed according to the column types in the schema: Double, Float, Integer, Long and Time columns are
+ * parsed as numbers, Boolean columns via {@link Boolean#parseBoolean(String)}, and all other columns are kept as Strings
+ * (or Text, for non-String/Categorical columns).<br>
+ * Limitations: the input must be UTF-8 (or ASCII) encoded; quoted values may contain delimiters and (doubled) quote
+ * characters, but not line breaks; empty lines are skipped. Inputs that are not local files (for example, streams from
+ * a {@link org.datavec.api.split.StreamInputSplit}) are read fully into memory and parsed as a single chunk.
+ */
+public class ParallelCSVRecordReader extends BaseRecordReader {
+    public static final int DEFAULT_CHUNK_SIZE_BYTES = 32 * 1024 * 1024;
+    public static final String NUM_THREADS = NAME_SPACE + ".numthreads";
+    public static final String CHUNK_SIZE_BYTES = NAME_SPACE + ".chunksizebytes";
+
+    //Initial number of bytes mapped past the end of each range, for the last line of the range. Extended as required
+    private static final int MAP_TAIL_BYTES = 64 * 1024;
+
+    private static final double[] POW10 = {1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14,
+            1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22};
+    private static final float[] POW10_F = {1e0f, 1e1f, 1e2f, 1e3f, 1e4f, 1e5f, 1e6f, 1e7f, 1e8f, 1e9f, 1e10f};
+
+    private final Schema schema;
+    private int skipNumLines;
+    private char delimiter;
+    private char quote;
+    private int numThreads;
+    private int chunkSizeBytes;
+
+    private Configuration conf;
+    private URI[] locations;
+
+    private transient ExecutorService executor;
+    private transient Iterator<Range> ranges;
+    private transient Deque<Future<Chunk>> pending;
+    private transient Chunk current;
+    private transient int cursor;
+    private transient int lineOffset;
+
+    /**
+     * Create a reader with the default delimiter and quote characters, no lines skipped, and one thread per core
+     *
+     * @param schema Schema of the CSV data
+     */
+    public ParallelCSVRecordReader(@NonNull Schema schema) {
+        this(schema, 0, CSVRecordReader.DEFAULT_DELIMITER);
+    }
+
+    /**
+     * @param schema       Schema of the CSV data
+     * @param skipNumLines Number of lines to skip at the start of each file (header lines, for example)
+     * @param delimiter    Delimiter character
+     */
+    public ParallelCSVRecordReader(@NonNull Schema schema, int skipNumLines, char delimiter) {
+        this(schema, skipNumLines, delimiter, CSVRecordReader.DEFAULT_QUOTE, Runtime.getRuntime().availableProcessors(),
+                DEFAULT_CHUNK_SIZE_BYTES);
+    }
+
+    /**
+     * @param schema         Schema of the CSV data
+     * @param skipNumLines   Number of lines to skip at the start of each file (header lines, for example)
+     * @param delimiter      Delimiter character
+     * @param quote          Quote character
+     * @param numThreads     Number of threads to use for parsing
+     * @param chunkSizeBytes Size, in bytes, of the ranges files are split into for parallel parsing. Each chunk is
+     *                       parsed into a single batch, hence this also (approximately) controls memory use
+     */
+    public ParallelCSVRecordReader(@NonNull Schema schema, int skipNumLines, char delimiter, char quote, int numThreads,
+                                   int chunkSizeBytes) {
+        Preconditions.checkArgument(skipNumLines >= 0, "Number of lines to skip must be >= 0, got %s", skipNumLines);
+        Preconditions.checkArgument(numThreads > 0, "Number of threads must be > 0, got %s", numThreads);
+        Preconditions.checkArgument(chunkSizeBytes > 0, "Chunk size must be > 0, got %s", chunkSizeBytes);
+        Preconditions.checkArgument(delimiter != quote, "Delimiter and quote characters must differ, got '%s'", delimiter);
+        Preconditions.checkArgument(delimiter < 128 && quote < 128, "Only ASCII delimiter and quote characters are " +
+                "supported, got '%s' and '%s'", delimiter, quote);
+        this.schema = schema;
+        this.skipNumLines = skipNumLines;
+        this.delimiter = delimiter;
+        this.quote = quote;
+        this.numThreads = numThreads;
+        this.chunkSizeBytes = chunkSizeBytes;
+    }
+
+    @Override
+    public void initialize(InputSplit split) throws IOException, InterruptedException {
+        super.initialize(split);
+        this.locations = split.locations();
+        if (locations == null) {
+            locations = new URI[0];
+        }
+        start();
+    }
+
+    @Override
+    public void initialize(Configuration conf, InputSplit split) throws IOException, InterruptedException {
+        setConf(conf);
+        this.skipNumLines = conf.getInt(CSVRecordReader.SKIP_NUM_LINES, skipNumLines);
+        this.delimiter = conf.getChar(CSVRecordReader.DELIMITER, delimiter);
+        this.quote = conf.getChar(CSVRecordReader.QUOTE, quote);
+        this.numThreads = conf.getInt(NUM_THREADS, numThreads);
+        this.chunkSizeBytes = conf.getInt(CHUNK_SIZE_BYTES, chunkSizeBytes);
+        initialize(split);
+    }
+
+    /**
+     * @return The schema of the CSV data
+     */
+    public Schema getSchema() {
+        return schema;
+    }
+
+    @Override
+    public boolean batchesSupported() {
+        return true;
+    }
+
+    @Override
+    public List<List<Writable>> next(int num) {
+        if (!hasNext()) {
+            throw new NoSuchElementException("No next element");
+        }
+
+        if (cursor == 0 && current.batch.size() == num) {
+            //Common case when chunk size aligns with the minibatch size: no copy required
+            cursor = num;
+            return current.batch;
+        }
+
+        PrimitiveColumnarRecordBatch out = PrimitiveColumnarRecordBatch.allocate(schema, num);
+        int count = 0;
+        while (count < num && hasNext()) {
+            int n = Math.min(num - count, current.batch.size() - cursor);
+            out.copyRows(current.batch, cursor, count, n);
+            cursor += n;
+            count += n;
+        }
+        out.setSize(count);
+        return out;
+    }
+
+    @Override
+    public List<Writable> next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException("No next element");
+        }
+        List<Writable> out = current.batch.get(cursor++);
+        invokeListeners(out);
+        return out;
+    }
+
+    @Override
+    public boolean hasNext() {
+        Preconditions.checkState(ranges != null, "RecordReader has not been initialized before use");
+        while (current == null || cursor >= current.batch.size()) {
+            Chunk next = nextChunk();
+            if (next == null) {
+                return false;
+            }
+            if (current != null && current.location == next.location) {
+                lineOffset += current.numLines;
+            } else {
+                lineOffset = next.linesBefore;
+            }
+            current = next;
+            cursor = 0;
+        }
+        return true;
+    }
+
+    @Override
+    public List<String> getLabels() {
+        return null;
+    }
+
+    @Override
+    public void reset() {
+        Preconditions.checkState(inputSplit != null, "Cannot reset without first initializing");
+        inputSplit.reset();
+        try {
+            initialize(inputSplit);
+        } catch (Exception e) {
+            throw new RuntimeException("Error during ParallelCSVRecordReader reset", e);
+        }
+    }
+
+    @Override
+    public boolean resetSupported() {
+        return inputSplit == null || inputSplit.resetSupported();
+    }
+
+    @Override
+    public List<Writable> record(URI uri, DataInputStream dataInputStream) throws IOException {
+        BufferedReader br = new BufferedReader(new InputStreamReader(dataInputStream, StandardCharsets.UTF_8));
+        for (int i = 0; i < skipNumLines; i++) {
+            br.readLine();
+        }
+        return parseSingleLine(br.readLine(), uri, skipNumLines);
+    }
+
+    @Override
+    public Record nextRecord() {
+        List<Writable> next = next();
+        int line = lineOffset + current.lineNumbers[cursor - 1];
+        RecordMetaData meta = new RecordMetaDataLine(line, locations[current.location], ParallelCSVRecordReader.class);
+        return new org.datavec.api.records.impl.Record(next, meta);
+    }
+
+    @Override
+    public Record loadFromMetaData(RecordMetaData recordMetaData) throws IOException {
+        return loadFromMetaData(Collections.singletonList(recordMetaData)).get(0);
+    }
+
+    @Override
+    public List<Record> loadFromMetaData(List<RecordMetaData> recordMetaDatas) throws IOException {
+        List<Record> out = new ArrayList<>(recordMetaDatas.size());
+        for (RecordMetaData m : recordMetaDatas) {
+            Preconditions.checkArgument(m instanceof RecordMetaDataLine, "Expected RecordMetaDataLine, got %s",
+                    (m == null ? null : m.getClass()));
+            RecordMetaDataLine l = (RecordMetaDataLine) m;
+            try (BufferedReader br = new BufferedReader(new InputStreamReader(streamCreatorFn.apply(l.getURI()), StandardCharsets.UTF_8))) {
+                String line = null;
+                for (int i = 0; i <= l.getLineNumber(); i++) {
+                    line = br.readLine();
+                }
+                out.add(new org.datavec.api.records.impl.Record(parseSingleLine(line, l.getURI(), l.getLineNumber()), m));
+            }
+        }
+        return out;
+    }
+
+    @Override
+    public void close() throws IOException {
+        cancelPending();
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+    }
+
+    @Override
+    public void setConf(Configuration conf) {
+        this.conf = conf;
+    }
+
+    @Override
+    public Configuration getConf() {
+        return conf;
+    }
+
+    private void start() throws IOException {
+        cancelPending();
+        if (executor == null) {
+            final AtomicInteger threadCount = new AtomicInteger();
+            executor = Executors.newFixedThreadPool(numThreads, r -> {
+                Thread t = new Thread(r, "ParallelCSVRecordReader-" + threadCount.getAndIncrement());
+                t.setDaemon(true);
+                return t;
+            });
+        }
+
+        List<Range> l = new ArrayList<>();
+        for (int i = 0; i < locations.length; i++) {
+            URI uri = locations[i];
+            if ("file".equalsIgnoreCase(uri.getScheme())) {
+                File f = new File(uri);
+                long length = f.length();
+                //Lines to skip are found up front, as the line number at the start of each range isn't known until
+                //all previous ranges have been parsed
+                long start = 0;
+                int skipped = 0;
+                if (skipNumLines > 0) {
+                    try (InputStream is = new BufferedInputStream(new FileInputStream(f))) {
+                        int b;
+                        while (skipped < skipNumLines && (b = is.read()) != -1) {
+                            start++;
+                            if (b == '\n') {
+                                skipped++;
+                            }
+                        }
+                    }
+                }
+                boolean first = true;
+                do {
+                    long end = Math.min(length, start + chunkSizeBytes);
+                    l.add(new Range(i, start, end, length, first, first ? skipped : 0, 0));
+                    start = end;
+                    first = false;
+                } while (start < length);
+            } else {
+                //Not a local file: can't map it, or determine the length up front. Read it as a single chunk
+                l.add(new Range(i, 0, -1, -1, true, 0, skipNumLines));
+            }
+        }
+        ranges = l.iterator();
+        pending = new ArrayDeque<>();
+        current = null;
+        cursor = 0;
+        lineOffset = 0;
+    }
+
+    private void cancelPending() {
+        if (pending != null) {
+            for (Future<Chunk> f : pending) {
+                f.cancel(true);
+            }
+            pending.clear();
+        }
+    }
+
+    private Chunk nextChunk() {
+        //Keep a bounded number of chunks in flight: enough to keep all threads busy, without reading the entire
+        //input into memory ahead of the consumer
+        while (pending.size() < 2 * numThreads && ranges.hasNext()) {
+            final Range r = ranges.next();
+            pending.add(executor.submit(() -> parseRange(r)));
+        }
+        if (pending.isEmpty()) {
+            return null;
+        }
+
+        try {
+            return pending.poll().get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for CSV chunk to be parsed", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new RuntimeException("Error parsing CSV data", e.getCause());
+        }
+    }
+
+    private Chunk parseRange(Range r) throws IOException {
+        URI uri = locations[r.location];
+        ByteBuffer buffer;
+        int from;
+        int to;
+        boolean endOfInput;
+        if (r.end < 0) {
+            try (InputStream is = streamCreatorFn.apply(uri)) {
+                buffer = ByteBuffer.wrap(IOUtils.toByteArray(is));
+            }
+            from = 0;
+            to = buffer.limit();
+            endOfInput = true;
+        } else {
+            //Map from one byte before the range, to detect whether the range starts at the beginning of a line.
+            //The mapping extends a bounded tail past the end of the range, so that the last line (which may cross the
+            //range end) can be parsed entirely. The tail is only extended if the last line doesn't fit in it
+            long mapStart = Math.max(0, r.start - 1);
+            long tail = MAP_TAIL_BYTES;
+            while (true) {
+                long mapLength = Math.min(Math.min(r.end + tail, r.fileLength) - mapStart, Integer.MAX_VALUE);
+                try (FileChannel fc = FileChannel.open(Paths.get(uri), StandardOpenOption.READ)) {
+                    buffer = fc.map(FileChannel.MapMode.READ_ONLY, mapStart, mapLength);
+                }
+                from = (int) (r.start - mapStart);
+                to = (int) (r.end - mapStart);
+                endOfInput = mapStart + mapLength == r.fileLength;
+
+                ChunkParser p = new ChunkParser(buffer, uri, r.location, initialCapacity(from, to));
+                if (p.parse(from, to, endOfInput, r.lineStart, r.skipLines)) {
+                    return p.toChunk(r.linesBefore);
+                }
+                if (mapLength == Integer.MAX_VALUE) {
+                    throw new IllegalStateException("Line at end of byte range [" + r.start + ", " + r.end + ") of " + uri
+                            + " exceeds the maximum supported line length");
+                }
+                tail *= 8;
+            }
+        }
+
+        ChunkParser p = new ChunkParser(buffer, uri, r.location, initialCapacity(from, to));
+        p.parse(from, to, endOfInput, r.lineStart, r.skipLines);
+        return p.toChunk(r.linesBefore);
+    }
+
+    private static int initialCapacity(int from, int to) {
+        return (int) Math.min(Integer.MAX_VALUE - 8, Math.max(16, (to - from) / 32));
+    }
+
+    private List<Writable> parseSingleLine(String line, URI uri, int lineNumber) {
+        Preconditions.checkState(line != null, "No line %s found in %s", lineNumber, uri);
+        ChunkParser p = new ChunkParser(ByteBuffer.wrap(line.getBytes(StandardCharsets.UTF_8)), uri, 0, 1);
+        p.parseLine(0, p.buf.limit(), lineNumber);
+        return p.toChunk(0).batch.get(0);
+    }
+
+    private static class Range {
+        private final int location;
+        private final long start;
+        private final long end;
+        private final long fileLength;
+        private final boolean lineStart;    //True if the range is known to start at the beginning of a line
+        private final int linesBefore;      //Number of lines (skipped) before the start of the range, if first range
+        private final int skipLines;        //Number of lines to skip at the start of the range
+
+        private Range(int location, long start, long end, long fileLength, boolean lineStart, int linesBefore, int skipLines) {
+            this.location = location;
+            this.start = start;
+            this.end = end;
+            this.fileLength = fileLength;
+            this.lineStart = lineStart;
+            this.linesBefore = linesBefore;
+            this.skipLines = skipLines;
+        }
+    }
+
+    private static class Chunk {
+        private final int location;
+        private final PrimitiveColumnarRecordBatch batch;
+        private final int[] lineNumbers;    //Line number of each record, relative to the start of the chunk
+        private final int numLines;         //Number of lines starting in this chunk, including skipped/empty lines
+        private final int linesBefore;      //Number of lines skipped before the start of this chunk
+
+        private Chunk(int location, PrimitiveColumnarRecordBatch batch, int[] lineNumbers, int numLines, int linesBefore) {
+            this.location = location;
+            this.batch = batch;
+            this.lineNumbers = lineNumbers;
+            this.numLines = numLines;
+            this.linesBefore = linesBefore;
+        }
+    }
+
+    /**
+     * Parses the lines of one range of the input directly into primitive column arrays
+     */
+    private class ChunkParser {
+        private final ByteBuffer buf;
+        private final URI uri;
+        private final int location;
+        private final ColumnType[] types;
+        private final byte delim = (byte) delimiter;
+        private final byte quoteChar = (byte) quote;
+        private Object[] columns;
+        private int[] lineNumbers;
+        private int rows;
+        private int numLines;
+
+        private ChunkParser(ByteBuffer buf, URI uri, int location, int initialCapacity) {
+            this.buf = buf;
+            this.uri = uri;
+            this.location = location;
+            this.types = new ColumnType[schema.numColumns()];
+            this.columns = new Object[types.length];
+            for (int i = 0; i < types.length; i++) {
+                types[i] = schema.getType(i);
+                columns[i] = PrimitiveColumnarRecordBatch.allocateColumn(types[i], initialCapacity);
+            }
+            this.lineNumbers = new int[initialCapacity];
+        }
+
+        /**
+         * Parse all lines that start within [from, to)
+         *
+         * @return False if the last line extends past the end of the buffer (and the buffer doesn't end at the end of
+         * the input): the range must then be parsed again, with a longer buffer
+         */
+        private boolean parse(int from, int to, boolean endOfInput, boolean lineStart, int skipLines) {
+            int limit = buf.limit();
+            int pos = from;
+            if (!lineStart && buf.get(pos - 1) != '\n') {
+                //Range starts part way through a line: that line belongs to the previous range
+                pos = indexOfNewLine(pos, limit);
+                if (pos < 0) {
+                    //No line starts within the range
+                    return true;
+                }
+                pos++;
+            }
+
+            while (pos < to) {
+                int eol = indexOfNewLine(pos, limit);
+                if (eol < 0 && !endOfInput) {
+                    return false;
+                }
+                int lineEnd = (eol < 0 ? limit : eol);
+                int end = lineEnd;
+                if (end > pos && buf.get(end - 1) == '\r') {
+                    end--;
+                }
+
+                if (numLines >= skipLines && end > pos) {
+                    parseLine(pos, end, numLines);
+                }
+                numLines++;
+                pos = lineEnd + 1;
+            }
+            return true;
+        }
+
+        private int indexOfNewLine(int from, int limit) {
+            for (int i = from; i < limit; i++) {
+                if (buf.get(i) == '\n') {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        private void parseLine(int start, int end, int lineNumber) {
+            if (rows == lineNumbers.length) {
+                grow();
+            }
+
+            int pos = start;
+            for (int col = 0; col < types.length; col++) {
+                int fieldStart;
+                int fieldEnd;
+                boolean escapedQuotes = false;
+                if (pos < end && buf.get(pos) == quoteChar) {
+                    int q = pos + 1;
+                    while (true) {
+                        if (q >= end) {
+                            throw parseError(lineNumber, "unterminated quoted value in column " + col, null);
+                        }
+                        if (buf.get(q) == quoteChar) {
+                            if (q + 1 < end && buf.get(q + 1) == quoteChar) {
+                                escapedQuotes = true;
+                                q += 2;
+                                continue;
+                            }
+                            break;
+                        }
+                        q++;
+                    }
+                    fieldStart = pos + 1;
+                    fieldEnd = q;
+                    pos = q + 1;
+                    if (pos < end && buf.get(pos) != delim) {
+                        throw parseError(lineNumber, "unexpected character after closing quote in column " + col, null);
+                    }
+                } else {
+                    int q = pos;
+                    while (q < end && buf.get(q) != delim) {
+                        q++;
+                    }
+                    fieldStart = pos;
+                    fieldEnd = q;
+                    pos = q;
+                }
+
+                setValue(col, fieldStart, fieldEnd, escapedQuotes, lineNumber);
+
+                if (col < types.length - 1) {
+                    if (pos >= end) {
+                        throw parseError(lineNumber, "expected " + types.length + " values, found " + (col + 1), null);
+                    }
+                    pos++;  //Skip delimiter
+                } else if (pos != end) {
+                    throw parseError(lineNumber, "expected " + types.length + " values, found more", null);
+                }
+            }
+
+            lineNumbers[rows++] = lineNumber;
+        }
+
+        private void setValue(int col, int start, int end, boolean escapedQuotes, int lineNumber) {
+            Object c = columns[col];
+            try {
+                switch (types[col]) {
+                    case Double:
+                        ((double[]) c)[rows] = parseDouble(start, end);
+                        break;
+                    case Float:
+                        ((float[]) c)[rows] = parseFloat(start, end);
+                        break;
+                    case Integer:
+                        long l = parseLong(start, end);
+                        if (l < Integer.MIN_VALUE || l > Integer.MAX_VALUE) {
+                            throw new NumberFormatException("Value out of range for integer column: " + l);
+                        }
+                        ((int[]) c)[rows] = (int) l;
+                        break;
+                    case Long:
+                    case Time:
+                        ((long[]) c)[rows] = parseLong(start, end);
+                        break;
+                    case Boolean:
+                        ((boolean[]) c)[rows] = Boolean.parseBoolean(string(start, end, escapedQuotes).trim());
+                        break;
+                    case String:
+                    case Categorical:
+                        ((String[]) c)[rows] = string(start, end, escapedQuotes);
+                        break;
+                    default:
+                        ((Writable[]) c)[rows] = new Text(string(start, end, escapedQuotes));
+                }
+            } catch (NumberFormatException e) {
+                throw parseError(lineNumber, "could not parse value \"" + string(start, end, escapedQuotes) +
+                        "\" for column " + col + " (\"" + schema.getName(col) + "\", type " + types[col] + ")", e);
+            }
+        }
+
+        private String string(int start, int end, boolean escapedQuotes) {
+            byte[] b = new byte[end - start];
+            for (int i = 0; i < b.length; i++) {
+                b[i] = buf.get(start + i);
+            }
+            String s = new String(b, StandardCharsets.UTF_8);
+            if (escapedQuotes) {
+                String q = String.valueOf(quote);
+                s = s.replace(q + q, q);
+            }
+            return s;
+        }
+
+        private long parseLong(int start, int end) {
+            while (start < end && isWhitespace(buf.get(start))) start++;
+            while (end > start && isWhitespace(buf.get(end - 1))) end--;
+            int pos = start;
+            boolean negative = false;
+            if (pos < end && (buf.get(pos) == '-' || buf.get(pos) == '+')) {
+                negative = buf.get(pos) == '-';
+                pos++;
+            }
+            int numDigits = end - pos;
+            if (numDigits <= 0 || numDigits > 18) {
+                //Empty, or potential overflow: use the JDK implementation for validation/error handling
+                return Long.parseLong(string(start, end, false));
+            }
+            long v = 0;
+            for (; pos < end; pos++) {
+                int d = buf.get(pos) - '0';
+                if (d < 0 || d > 9) {
+                    return Long.parseLong(string(start, end, false));
+                }
+                v = 10 * v + d;
+            }
+            return negative ? -v : v;
+        }
+
+        private double parseDouble(int start, int end) {
+            while (start < end && isWhitespace(buf.get(start))) start++;
+            while (end > start && isWhitespace(buf.get(end - 1))) end--;
+            long[] parsed = parseDecimal(start, end);
+            if (parsed != null) {
+                long mantissa = parsed[0];
+                int exp = (int) parsed[1];
+                //Fast path: mantissa and power of 10 are both exactly representable, hence the result of a single
+                //multiplication/division is correctly rounded
+                if (mantissa <= (1L << 53) && exp >= -22 && exp <= 22) {
+                    double d = (exp >= 0 ? mantissa * POW10[exp] : mantissa / POW10[-exp]);
+                    return parsed[2] != 0 ? -d : d;
+                }
+            }
+            return Double.parseDouble(string(start, end, false));
+        }
+
+        private float parseFloat(int start, int end) {
+            while (start < end && isWhitespace(buf.get(start))) start++;
+            while (end > start && isWhitespace(buf.get(end - 1))) end--;
+            long[] parsed = parseDecimal(start, end);
+            if (parsed != null) {
+                long mantissa = parsed[0];
+                int exp = (int) parsed[1];
+                if (mantissa <= (1L << 24) && exp >= -10 && exp <= 10) {
+                    float f = (exp >= 0 ? mantissa * POW10_F[exp] : mantissa / POW10_F[-exp]);
+                    return parsed[2] != 0 ? -f : f;
+                }
+            }
+            return Float.parseFloat(string(start, end, false));
+        }
+
+        /**
+         * Parse a plain decimal number ([sign]digits[.digits][e[sign]digits]) as mantissa * 10^exponent.
+         *
+         * @return [mantissa, exponent, negative ? 1 : 0], or null if the value is not in this format or has too many
+         * significant digits to represent the mantissa exactly
+         */
+        private long[] parseDecimal(int start, int end) {
+            int pos = start;
+            boolean negative = false;
+            if (pos < end && (buf.get(pos) == '-' || buf.get(pos) == '+')) {
+                negative = buf.get(pos) == '-';
+                pos++;
+            }
+
+            long mantissa = 0;
+            int significantDigits = 0;
+            int exp = 0;
+            boolean anyDigits = false;
+            boolean afterPoint = false;
+            for (; pos < end; pos++) {
+                byte b = buf.get(pos);
+                if (b >= '0' && b <= '9') {
+                    anyDigits = true;
+                    if (mantissa != 0 || b != '0') {
+                        if (++significantDigits > 18) {
+                            return null;
+                        }
+                        mantissa = 10 * mantissa + (b - '0');
+                    }
+                    if (afterPoint) {
+                        exp--;
+                    }
+                } else if (b == '.' && !afterPoint) {
+                    afterPoint = true;
+                } else {
+                    break;
+                }
+            }
+            if (!anyDigits) {
+                return null;
+            }
+
+            if (pos < end) {
+                byte b = buf.get(pos);
+                if (b != 'e' && b != 'E') {
+                    return null;
+                }
+                pos++;
+                boolean negExp = false;
+                if (pos < end && (buf.get(pos) == '-' || buf.get(pos) == '+')) {
+                    negExp = buf.get(pos) == '-';
+                    pos++;
+                }
+                if (pos >= end || end - pos > 4) {
+                    return null;
+                }
+                int e = 0;
+                for (; pos < end; pos++) {
+                    int d = buf.get(pos) - '0';
+                    if (d < 0 || d > 9) {
+                        return null;
+                    }
+                    e = 10 * e + d;
+                }
+                exp += (negExp ? -e : e);
+            }
+
+            if (mantissa == 0) {
+                exp = 0;
+            }
+            return new long[]{mantissa, exp, negative ? 1 : 0};
+        }
+
+        private boolean isWhitespace(byte b) {
+            return b == ' ' || b == '\t';
+        }
+
+        private void grow() {
+            int newCapacity = (int) Math.min(Integer.MAX_VALUE - 8, 2L * lineNumbers.length);
+            Preconditions.checkState(newCapacity > lineNumbers.length, "Too many records in chunk of %s: reduce chunk size", uri);
+            for (int i = 0; i < columns.length; i++) {
+                Object n = Array.newInstance(columns[i].getClass().getComponentType(), newCapacity);
+                System.arraycopy(columns[i], 0, n, 0, rows);
+                columns[i] = n;
+            }
+            lineNumbers = Arrays.copyOf(lineNumbers, newCapacity);
+        }
+
+        private IllegalStateException parseError(int lineNumber, String message, Throwable cause) {
+            return new IllegalStateException("Error parsing CSV line " + lineNumber + " (relative to the start of the " +
+                    "chunk) of " + uri + ": " + message, cause);
+        }
+
+        private Chunk toChunk(int linesBefore) {
+            return new Chunk(location, new PrimitiveColumnarRecordBatch(schema, columns, rows), lineNumbers, numLines, linesBefore);
+        }
+    }
+}
@@ -26,8 +26,10 @@ import org.datavec.api.records.listener.RecordListener;
 import org.datavec.api.records.metadata.RecordMetaData;
 import org.datavec.api.records.reader.RecordReader;
 import org.datavec.api.split.InputSplit;
+import org.datavec.api.transform.CompiledTransformProcess;
 import org.datavec.api.transform.TransformProcess;
 import org.datavec.api.writable.Writable;
+import org.datavec.api.writable.batch.ColumnarRecordBatch;
 
 import java.io.DataInputStream;
 import java.io.IOException;
@@ -40,6 +42,9 @@ import java.util.NoSuchElementException;
 public class TransformProcessRecordReader implements RecordReader {
     protected RecordReader recordReader;
     protected TransformProcess transformProcess;
+    //Compiled form of the transform process, created on first use. Null if the process can't be compiled
+    protected transient CompiledTransformProcess compiledTransformProcess;
+    protected transient boolean compileAttempted;
 
     //Cached/prefetched values, in case of filtering
     protected Record next;
@@ -81,6 +86,32 @@ public class TransformProcessRecordReader implements RecordReader {
 
     @Override
     public List<List<Writable>> next(int num) {
+        if(next == null && recordReader.batchesSupported() && recordReader.hasNext()) {
+            //No prefetched record pending: pass the whole batch through the transform process at once.
+            //Columnar batches are transformed column-at-a-time, without materializing the records
+            List<List<Writable>> batch = recordReader.next(num);
+            if(batch instanceof ColumnarRecordBatch) {
+                ColumnarRecordBatch out = executeColumnar((ColumnarRecordBatch) batch);
+                if(!out.isEmpty() || !hasNext()) {
+                    return out;
+                }
+                return next(num);
+            }
+
+            List<List<Writable>> out = new ArrayList<>(num);
+            for(List<Writable> l : batch) {
+                List<Writable> temp = execute(l);
+                if(temp != null) {
+                    out.add(temp);
+                }
+            }
+            //Top up any records removed by filters, to return num records where possible
+            while(out.size() < num && hasNext()) {
+                out.add(next());
+            }
+            return out;
+        }
+
         if(!hasNext())
             throw new NoSuchElementException("No next element");
 
@@ -123,7 +154,7 @@ public class TransformProcessRecordReader implements RecordReader {
         //Prefetch, until we find one that isn't filtered out - or we run out of data
         while(next == null && recordReader.hasNext()){
             Record r = recordReader.nextRecord();
-            List<Writable> temp = transformProcess.execute(r.getRecord());
+            List<Writable> temp = execute(r.getRecord());
             if(temp == null){
                 continue;
             }
@@ -170,7 +201,7 @@ public class TransformProcessRecordReader implements RecordReader {
      */
     @Override
     public List<Writable> record(URI uri, DataInputStream dataInputStream) throws IOException {
-        return transformProcess.execute(recordReader.record(uri, dataInputStream));
+        return execute(recordReader.record(uri, dataInputStream));
     }
 
     /**
@@ -279,4 +310,24 @@ public class TransformProcessRecordReader implements RecordReader {
     public Configuration getConf() {
         return recordReader.getConf();
     }
+
+    private CompiledTransformProcess compiled() {
+        if(!compileAttempted) {
+            if(CompiledTransformProcess.canCompile(transformProcess.getActionList())) {
+                compiledTransformProcess = transformProcess.compile();
+            }
+            compileAttempted = true;
+        }
+        return compiledTransformProcess;
+    }
+
+    private List<Writable> execute(List<Writable> record) {
+        CompiledTransformProcess c = compiled();
+        return c != null ? c.execute(record) : transformProcess.execute(record);
+    }
+
+    private ColumnarRecordBatch executeColumnar(ColumnarRecordBatch batch) {
+        CompiledTransformProcess c = compiled();
+        return c != null ? c.executeColumnar(batch) : transformProcess.executeColumnar(batch);
+    }
 }
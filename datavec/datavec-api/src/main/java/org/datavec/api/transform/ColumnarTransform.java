@@ -0,0 +1,41 @@
+/*
+ *  ******************************************************************************
+ *  *
+ *  *
+ *  * This program and the accompanying materials are made available under the
+ *  * terms of the Apache License, Version 2.0 which is available at
+ *  * https://www.apache.org/licenses/LICENSE-2.0.
+ *  *
+ *  *  See the NOTICE file distributed with this work for additional
+ *  *  information regarding copyright ownership.
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ *  * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ *  * License for the specific language governing permissions and limitations
+ *  * under the License.
+ *  *
+ *  * SPDX-License-Identifier: Apache-2.0
+ *  *****************************************************************************
+ */
+
+package org.datavec.api.transform;
+
+import org.datavec.api.writable.batch.PrimitiveColumnarRecordBatch;
+
+/**
+ * A {@link Transform} that can also be applied column-at-a-time to a {@link PrimitiveColumnarRecordBatch}, without
+ * creating a Writable object per value. Used by {@link TransformProcess#executeColumnar(org.datavec.api.writable.batch.ColumnarRecordBatch)};
+ * transforms that don't implement this interface are executed row-by-row instead.
+ */
+public interface ColumnarTransform extends Transform {
+
+    /**
+     * Apply the transform to all rows of the batch. The input batch must not be modified; however, unchanged column
+     * arrays may be shared between the input and output batches.
+     *
+     * @param batch Input batch, with the input schema of this transform
+     * @return Output batch, with the output schema of this transform
+     */
+    PrimitiveColumnarRecordBatch mapColumnar(PrimitiveColumnarRecordBatch batch);
+
+}
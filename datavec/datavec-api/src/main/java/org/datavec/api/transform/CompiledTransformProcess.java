@@ -0,0 +1,472 @@
+/*
+ *  ******************************************************************************
+ *  *
+ *  *
+ *  * This program and the accompanying materials are made available under the
+ *  * terms of the Apache License, Version 2.0 which is available at
+ *  * https://www.apache.org/licenses/LICENSE-2.0.
+ *  *
+ *  *  See the NOTICE file distributed with this work for additional
+ *  *  information regarding copyright ownership.
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ *  * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ *  * License for the specific language governing permissions and limitations
+ *  * under the License.
+ *  *
+ *  * SPDX-License-Identifier: Apache-2.0
+ *  *****************************************************************************
+ */
+package org.datavec.api.transform;
+
+import lombok.Getter;
+import lombok.NonNull;
+import org.datavec.api.transform.filter.Filter;
+import org.datavec.api.transform.schema.Schema;
+import org.datavec.api.transform.transform.BaseColumnTransform;
+import org.datavec.api.transform.transform.column.*;
+import org.datavec.api.writable.Writable;
+import org.datavec.api.writable.batch.ColumnarRecordBatch;
+import org.datavec.api.writable.batch.PrimitiveColumnarRecordBatch;
+
+import java.io.Serializable;
+import java.util.*;
+
+/**
+ * A compiled form of the (non-sequence) transform and filter steps of a {@link TransformProcess}.<br>
+ * Compilation is done once, and resolves the steps to a fused execution plan:
+ * - Steps that only remove, reorder, rename or duplicate columns are converted to a column index projection;
+ *   consecutive projections are merged into one, and identity projections (such as renaming) are removed<br>
+ * - Consecutive single-column transforms (subclasses of {@link BaseColumnTransform}) are applied in place on one copy of
+ *   the record, instead of creating a new record for each transform<br>
+ * - Single-column transforms whose output column is removed by the following projection are removed<br>
+ * Column indices for all steps are resolved at compile time. The output is the same as {@link TransformProcess#execute(List)}
+ * and {@link TransformProcess#executeColumnar(ColumnarRecordBatch)}.<br>
+ * Use {@link TransformProcess#compile()} to compile an entire TransformProcess, or {@link #compile(List)} to compile
+ * a subset of its steps.
+ */
+public class CompiledTransformProcess implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Getter
+    private final Schema inputSchema;
+    @Getter
+    private final Schema finalSchema;
+    private final Step[] steps;
+
+    private CompiledTransformProcess(Schema inputSchema, Schema finalSchema, List<Step> steps) {
+        this.inputSchema = inputSchema;
+        this.finalSchema = finalSchema;
+        this.steps = steps.toArray(new Step[0]);
+    }
+
+    /**
+     * @param actions Data actions to check
+     * @return True if all actions can be compiled - i.e., they are all transforms or filters
+     */
+    public static boolean canCompile(@NonNull List<DataAction> actions) {
+        for (DataAction d : actions) {
+            if (d.getTransform() == null && d.getFilter() == null)
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Compile the specified steps. All steps must be transforms or filters, as returned by {@link TransformProcess#getActionList()}
+     *
+     * @param actions Steps to compile (must not be empty)
+     * @return Compiled steps
+     */
+    public static CompiledTransformProcess compile(@NonNull List<DataAction> actions) {
+        if (actions.isEmpty())
+            throw new IllegalArgumentException("Cannot compile: no actions provided");
+        DataAction first = actions.get(0);
+        ColumnOp op = (first.getTransform() != null ? first.getTransform() : first.getFilter());
+        if (op == null)
+            throw new IllegalStateException("Cannot compile action: only Transform and Filter actions are supported. Got: " + first);
+        return compile(op.getInputSchema(), actions);
+    }
+
+    /**
+     * Compile the specified steps. All steps must be transforms or filters, as returned by {@link TransformProcess#getActionList()}
+     *
+     * @param inputSchema Schema of the input to the first step
+     * @param actions     Steps to compile
+     * @return Compiled steps
+     */
+    public static CompiledTransformProcess compile(@NonNull Schema inputSchema, @NonNull List<DataAction> actions) {
+        List<Step> steps = new ArrayList<>();
+        Schema curr = inputSchema;
+        for (DataAction d : actions) {
+            if (d.getTransform() != null) {
+                Transform t = d.getTransform();
+                Schema out = t.transform(curr);
+                steps.add(toStep(t, curr, out));
+                curr = out;
+            } else if (d.getFilter() != null) {
+                steps.add(new FilterStep(d.getFilter(), curr));
+            } else {
+                throw new IllegalStateException("Cannot compile action: only Transform and Filter actions are supported. Got: " + d);
+            }
+        }
+
+        //Optimize until no more changes are possible: removing one step can allow another to be merged, etc
+        boolean changed = true;
+        while (changed) {
+            changed = removeDeadColumnTransforms(steps);
+            changed |= mergeAdjacent(steps);
+            changed |= removeIdentityProjections(steps);
+        }
+
+        return new CompiledTransformProcess(inputSchema, curr, steps);
+    }
+
+    /**
+     * @return Number of steps in the compiled execution plan
+     */
+    public int numSteps() {
+        return steps.length;
+    }
+
+    /**
+     * Execute the compiled steps on a single record. Equivalent to {@link TransformProcess#execute(List)}
+     *
+     * @param input Input record
+     * @return Output record, or null if the record was filtered out
+     */
+    public List<Writable> execute(List<Writable> input) {
+        List<Writable> curr = input;
+        for (Step s : steps) {
+            curr = s.map(curr);
+            if (curr == null)
+                return null;
+        }
+        return curr;
+    }
+
+    /**
+     * Execute the compiled steps on a batch of records in columnar format. Equivalent to
+     * {@link TransformProcess#executeColumnar(ColumnarRecordBatch)}
+     *
+     * @param input Input batch
+     * @return Output batch. Filtered examples are removed
+     */
+    public ColumnarRecordBatch executeColumnar(@NonNull ColumnarRecordBatch input) {
+        PrimitiveColumnarRecordBatch curr = input.asPrimitiveBatch();
+        for (Step s : steps) {
+            curr = s.mapColumnar(curr);
+        }
+        //Column names may differ from the final schema, due to removed rename steps
+        Object[] columns = new Object[curr.numColumns()];
+        for (int i = 0; i < columns.length; i++) {
+            columns[i] = curr.getColumnData(i);
+        }
+        return new PrimitiveColumnarRecordBatch(finalSchema, columns, curr.size());
+    }
+
+    @Override
+    public String toString() {
+        return "CompiledTransformProcess(steps=" + Arrays.toString(steps) + ")";
+    }
+
+    private static Step toStep(Transform t, Schema in, Schema out) {
+        if (t instanceof RenameColumnsTransform) {
+            //Only the schema changes
+            return new ProjectionStep(identity(in.numColumns()), in, out);
+        } else if (t instanceof RemoveColumnsTransform || t instanceof RemoveAllColumnsExceptForTransform
+                || t instanceof ReorderColumnsTransform) {
+            //Output columns are a subset or permutation of the input columns, with the same names
+            int[] idx = new int[out.numColumns()];
+            for (int i = 0; i < idx.length; i++) {
+                idx[i] = in.getIndexOfColumn(out.getName(i));
+            }
+            return new ProjectionStep(idx, in, out);
+        } else if (t instanceof DuplicateColumnsTransform) {
+            //Duplicated columns are inserted directly after the original column
+            Set<String> toDuplicate = new HashSet<>(((DuplicateColumnsTransform) t).getColumnsToDuplicate());
+            int[] idx = new int[out.numColumns()];
+            int j = 0;
+            for (int i = 0; i < in.numColumns(); i++) {
+                idx[j++] = i;
+                if (toDuplicate.contains(in.getName(i)))
+                    idx[j++] = i;
+            }
+            return new ProjectionStep(idx, in, out);
+        } else if (isInPlaceColumnTransform(t)) {
+            return new ColumnMapStep(Collections.singletonList((BaseColumnTransform) t), in, out);
+        }
+        return new TransformStep(t, in, out);
+    }
+
+    /**
+     * @return True if the transform only replaces the value of a single column, without changing the other columns
+     */
+    private static boolean isInPlaceColumnTransform(Transform t) {
+        if (!(t instanceof BaseColumnTransform))
+            return false;
+        try {
+            //Subclasses that override the default record/schema mapping may do more than replace one column value
+            return t.getClass().getMethod("map", List.class).getDeclaringClass() == BaseColumnTransform.class
+                    && t.getClass().getMethod("transform", Schema.class).getDeclaringClass() == BaseColumnTransform.class;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    private static int[] identity(int n) {
+        int[] idx = new int[n];
+        for (int i = 0; i < n; i++) {
+            idx[i] = i;
+        }
+        return idx;
+    }
+
+    private static boolean removeDeadColumnTransforms(List<Step> steps) {
+        boolean changed = false;
+        for (int i = 0; i < steps.size() - 1; i++) {
+            if (!(steps.get(i) instanceof ColumnMapStep) || !(steps.get(i + 1) instanceof ProjectionStep))
+                continue;
+            ColumnMapStep cm = (ColumnMapStep) steps.get(i);
+            ProjectionStep p = (ProjectionStep) steps.get(i + 1);
+            boolean[] used = new boolean[cm.in.numColumns()];
+            for (int idx : p.idx) {
+                used[idx] = true;
+            }
+            List<BaseColumnTransform> live = new ArrayList<>();
+            for (BaseColumnTransform t : cm.transforms) {
+                if (used[t.getColumnNumber()])
+                    live.add(t);
+            }
+            if (live.size() == cm.transforms.length)
+                continue;
+
+            changed = true;
+            if (live.isEmpty()) {
+                steps.remove(i);
+                steps.set(i, new ProjectionStep(p.idx, cm.in, p.out));
+            } else {
+                Schema out = cm.in;
+                for (BaseColumnTransform t : live) {
+                    out = t.transform(out);
+                }
+                steps.set(i, new ColumnMapStep(live, cm.in, out));
+                steps.set(i + 1, new ProjectionStep(p.idx, out, p.out));
+            }
+        }
+        return changed;
+    }
+
+    private static boolean mergeAdjacent(List<Step> steps) {
+        boolean changed = false;
+        for (int i = 0; i < steps.size() - 1; ) {
+            Step s1 = steps.get(i);
+            Step s2 = steps.get(i + 1);
+            Step merged = null;
+            if (s1 instanceof ProjectionStep && s2 instanceof ProjectionStep) {
+                int[] idx1 = ((ProjectionStep) s1).idx;
+                int[] idx2 = ((ProjectionStep) s2).idx;
+                int[] idx = new int[idx2.length];
+                for (int j = 0; j < idx.length; j++) {
+                    idx[j] = idx1[idx2[j]];
+                }
+                merged = new ProjectionStep(idx, s1.in, s2.out);
+            } else if (s1 instanceof ColumnMapStep && s2 instanceof ColumnMapStep) {
+                List<BaseColumnTransform> l = new ArrayList<>();
+                Collections.addAll(l, ((ColumnMapStep) s1).transforms);
+                Collections.addAll(l, ((ColumnMapStep) s2).transforms);
+                merged = new ColumnMapStep(l, s1.in, s2.out);
+            }
+
+            if (merged != null) {
+                steps.set(i, merged);
+                steps.remove(i + 1);
+                changed = true;
+            } else {
+                i++;
+            }
+        }
+        return changed;
+    }
+
+    private static boolean removeIdentityProjections(List<Step> steps) {
+        boolean changed = false;
+        Iterator<Step> iter = steps.iterator();
+        while (iter.hasNext()) {
+            Step s = iter.next();
+            //Identity projection: rename only, which doesn't change the values
+            if (s instanceof ProjectionStep && Arrays.equals(((ProjectionStep) s).idx, identity(s.in.numColumns()))) {
+                iter.remove();
+                changed = true;
+            }
+        }
+        return changed;
+    }
+
+    private abstract static class Step implements Serializable {
+        protected final Schema in;
+        protected final Schema out;
+
+        protected Step(Schema in, Schema out) {
+            this.in = in;
+            this.out = out;
+        }
+
+        abstract List<Writable> map(List<Writable> record);
+
+        abstract PrimitiveColumnarRecordBatch mapColumnar(PrimitiveColumnarRecordBatch batch);
+
+        protected void validate(List<Writable> record) {
+            if (record.size() != in.numColumns()) {
+                throw new IllegalStateException("Cannot execute transform: input writables list length (" + record.size()
+                        + ") does not " + "match expected number of elements (schema: " + in.numColumns()
+                        + "). Step = " + toString());
+            }
+        }
+    }
+
+    private static class ProjectionStep extends Step {
+        private final int[] idx;
+
+        private ProjectionStep(int[] idx, Schema in, Schema out) {
+            super(in, out);
+            this.idx = idx;
+        }
+
+        @Override
+        List<Writable> map(List<Writable> record) {
+            validate(record);
+            List<Writable> ret = new ArrayList<>(idx.length);
+            for (int i : idx) {
+                ret.add(record.get(i));
+            }
+            return ret;
+        }
+
+        @Override
+        PrimitiveColumnarRecordBatch mapColumnar(PrimitiveColumnarRecordBatch batch) {
+            Object[] columns = new Object[idx.length];
+            for (int i = 0; i < idx.length; i++) {
+                columns[i] = batch.getColumnData(idx[i]);
+            }
+            return new PrimitiveColumnarRecordBatch(out, columns, batch.size());
+        }
+
+        @Override
+        public String toString() {
+            return "Projection(" + Arrays.toString(idx) + ")";
+        }
+    }
+
+    private static class ColumnMapStep extends Step {
+        private final BaseColumnTransform[] transforms;
+        private final int[] columns;
+        private final boolean allColumnar;
+
+        private ColumnMapStep(List<BaseColumnTransform> transforms, Schema in, Schema out) {
+            super(in, out);
+            this.transforms = transforms.toArray(new BaseColumnTransform[0]);
+            this.columns = new int[this.transforms.length];
+            boolean allColumnar = true;
+            for (int i = 0; i < columns.length; i++) {
+                columns[i] = this.transforms[i].getColumnNumber();
+                allColumnar &= this.transforms[i] instanceof ColumnarTransform;
+            }
+            this.allColumnar = allColumnar;
+        }
+
+        @Override
+        List<Writable> map(List<Writable> record) {
+            validate(record);
+            List<Writable> ret = new ArrayList<>(record);
+            for (int i = 0; i < transforms.length; i++) {
+                ret.set(columns[i], transforms[i].map(ret.get(columns[i])));
+            }
+            return ret;
+        }
+
+        @Override
+        PrimitiveColumnarRecordBatch mapColumnar(PrimitiveColumnarRecordBatch batch) {
+            if (allColumnar) {
+                PrimitiveColumnarRecordBatch curr = batch;
+                for (BaseColumnTransform t : transforms) {
+                    curr = ((ColumnarTransform) t).mapColumnar(curr);
+                }
+                return curr;
+            }
+            List<List<Writable>> records = new ArrayList<>(batch.size());
+            for (List<Writable> l : batch) {
+                records.add(map(l));
+            }
+            return PrimitiveColumnarRecordBatch.fromRecords(out, records);
+        }
+
+        @Override
+        public String toString() {
+            return "ColumnMap(" + Arrays.toString(transforms) + ")";
+        }
+    }
+
+    private static class TransformStep extends Step {
+        private final Transform transform;
+
+        private TransformStep(Transform transform, Schema in, Schema out) {
+            super(in, out);
+            this.transform = transform;
+        }
+
+        @Override
+        List<Writable> map(List<Writable> record) {
+            return transform.map(record);
+        }
+
+        @Override
+        PrimitiveColumnarRecordBatch mapColumnar(PrimitiveColumnarRecordBatch batch) {
+            if (transform instanceof ColumnarTransform) {
+                return ((ColumnarTransform) transform).mapColumnar(batch);
+            }
+            List<List<Writable>> records = new ArrayList<>(batch.size());
+            for (List<Writable> l : batch) {
+                records.add(transform.map(l));
+            }
+            return PrimitiveColumnarRecordBatch.fromRecords(out, records);
+        }
+
+        @Override
+        public String toString() {
+            return "Transform(" + transform + ")";
+        }
+    }
+
+    private static class FilterStep extends Step {
+        private final Filter filter;
+
+        private FilterStep(Filter filter, Schema schema) {
+            super(schema, schema);
+            this.filter = filter;
+        }
+
+        @Override
+        List<Writable> map(List<Writable> record) {
+            return filter.removeExample(record) ? null : record;
+        }
+
+        @Override
+        PrimitiveColumnarRecordBatch mapColumnar(PrimitiveColumnarRecordBatch batch) {
+            List<List<Writable>> records = new ArrayList<>(batch.size());
+            for (List<Writable> l : batch) {
+                if (!filter.removeExample(l))
+                    records.add(l);
+            }
+            if (records.size() == batch.size())
+                return batch;
+            return PrimitiveColumnarRecordBatch.fromRecords(batch.getSchema(), records);
+        }
+
+        @Override
+        public String toString() {
+            return "Filter(" + filter + ")";
+        }
+    }
+}
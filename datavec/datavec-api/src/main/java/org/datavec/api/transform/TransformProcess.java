@@ -66,6 +66,8 @@ import org.datavec.api.transform.transform.string.*;
 import org.datavec.api.transform.transform.time.StringToTimeTransform;
 import org.datavec.api.transform.transform.time.TimeMathOpTransform;
 import org.datavec.api.writable.*;
+import org.datavec.api.writable.batch.ColumnarRecordBatch;
+import org.datavec.api.writable.batch.PrimitiveColumnarRecordBatch;
 import org.datavec.api.writable.comparator.WritableComparator;
 import org.joda.time.DateTimeZone;
 import org.nd4j.common.primitives.Pair;
@@ -241,6 +243,71 @@ public class TransformProcess implements Serializable {
         return currValues;
     }
 
+    /**
+     * Execute the full sequence of transformations for a batch of examples stored in columnar format. Transforms
+     * that implement {@link ColumnarTransform} are applied column-at-a-time; other transforms and filters are applied
+     * row-by-row, with the result converted back to columnar format.<br>
+     * As with {@link #execute(List)}, sequence operations (ConvertToSequence etc) are not supported.
+     *
+     * @param input Input batch, with the initial schema of this TransformProcess
+     * @return Output batch, with the final schema of this TransformProcess. Filtered examples are removed
+     */
+    public ColumnarRecordBatch executeColumnar(@NonNull ColumnarRecordBatch input) {
+        PrimitiveColumnarRecordBatch curr = input.asPrimitiveBatch();
+
+        Schema currSchema = initialSchema;
+        for (DataAction d : actionList) {
+            if (d.getTransform() != null) {
+                Transform t = d.getTransform();
+                currSchema = t.transform(currSchema);
+                if (t instanceof ColumnarTransform) {
+                    curr = ((ColumnarTransform) t).mapColumnar(curr);
+                } else {
+                    List<List<Writable>> out = new ArrayList<>(curr.size());
+                    for (List<Writable> l : curr) {
+                        out.add(t.map(l));
+                    }
+                    curr = PrimitiveColumnarRecordBatch.fromRecords(currSchema, out);
+                }
+            } else if (d.getFilter() != null) {
+                Filter f = d.getFilter();
+                List<List<Writable>> out = new ArrayList<>(curr.size());
+                for (List<Writable> l : curr) {
+                    if (!f.removeExample(l))
+                        out.add(l);
+                }
+                if (out.size() != curr.size()) {
+                    curr = PrimitiveColumnarRecordBatch.fromRecords(currSchema, out);
+                }
+            } else if (d.getConvertToSequence() != null) {
+                throw new RuntimeException(
+                        "Cannot execute examples individually: TransformProcess contains a ConvertToSequence operation");
+            } else if (d.getConvertFromSequence() != null) {
+                throw new RuntimeException(
+                        "Unexpected operation: TransformProcess contains a ConvertFromSequence operation");
+            } else if (d.getSequenceSplit() != null) {
+                throw new RuntimeException(
+                        "Cannot execute examples individually: TransformProcess contains a SequenceSplit operation");
+            } else {
+                throw new RuntimeException("Unknown action: " + d);
+            }
+        }
+
+        return curr;
+    }
+
+    /**
+     * Compile this TransformProcess to a fused execution plan, with column indices resolved once and redundant steps
+     * removed. See {@link CompiledTransformProcess} for details.<br>
+     * Only TransformProcesses that can be executed on individual examples (i.e., containing only transforms and filters)
+     * can be compiled.
+     *
+     * @return Compiled TransformProcess
+     */
+    public CompiledTransformProcess compile() {
+        return CompiledTransformProcess.compile(initialSchema, actionList);
+    }
+
     /**
      *
      * @param input
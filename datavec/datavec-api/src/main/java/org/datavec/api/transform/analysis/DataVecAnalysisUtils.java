@@ -20,6 +20,7 @@
 
 package org.datavec.api.transform.analysis;
 
+import com.tdunning.math.stats.TDigest;
 import org.datavec.api.transform.ColumnType;
 import org.datavec.api.transform.analysis.columns.*;
 import org.datavec.api.transform.analysis.counter.*;
@@ -64,6 +65,81 @@ public class DataVecAnalysisUtils {
     }
 
 
+    /**
+     * Set the approximate distinct counts and histograms (derived from the t-digest sketches, without a second pass
+     * over the data) on the column analysis objects.
+     *
+     * @param columnAnalysis      Column analysis, as returned by {@link #convertCounters(List, double[][], List)}
+     * @param sketches            Sketch counters, one per column
+     * @param minsMaxes           Column minimums and maximums, as populated by {@link #convertCounters(List, double[][], List)}
+     * @param maxHistogramBuckets Number of histogram buckets
+     */
+    public static void mergeSketches(List<ColumnAnalysis> columnAnalysis, List<ColumnSketchCounter> sketches,
+                                     double[][] minsMaxes, int maxHistogramBuckets) {
+        for (int i = 0; i < columnAnalysis.size(); i++) {
+            ColumnAnalysis ca = columnAnalysis.get(i);
+            ColumnSketchCounter sketch = sketches.get(i);
+            double min = minsMaxes[i][0];
+            double max = minsMaxes[i][1];
+            if (ca instanceof NumericalColumnAnalysis) {
+                NumericalColumnAnalysis nca = (NumericalColumnAnalysis) ca;
+                nca.setCountUnique(sketch.getCountUnique());
+                if (nca.getDigest() != null) {
+                    nca.setHistogramBuckets(histogramBins(min, max, maxHistogramBuckets));
+                    nca.setHistogramBucketCounts(approxHistogramCounts(nca.getDigest(), min, max, nca.getCountTotal(), maxHistogramBuckets));
+                }
+            } else if (ca instanceof StringAnalysis) {
+                StringAnalysis sa = (StringAnalysis) ca;
+                sa.setCountUnique(sketch.getCountUnique());
+                sa.setHistogramBuckets(histogramBins(min, max, maxHistogramBuckets));
+                sa.setHistogramBucketCounts(approxHistogramCounts(sketch.getLengthDigest(), min, max, sa.getCountTotal(), maxHistogramBuckets));
+            }
+        }
+    }
+
+    /**
+     * Histogram bin edges, as used by {@link org.datavec.api.transform.analysis.histogram.DoubleHistogramCounter}
+     */
+    public static double[] histogramBins(double min, double max, int nBins) {
+        double[] bins = new double[nBins + 1];
+        double step = (max - min) / nBins;
+        for (int i = 0; i < nBins; i++) {
+            bins[i] = min + i * step;
+        }
+        bins[nBins] = max;
+        return bins;
+    }
+
+    /**
+     * Approximate histogram counts from a t-digest, for bins as defined by {@link #histogramBins(double, double, int)}.
+     * Counts always sum to the total count
+     */
+    public static long[] approxHistogramCounts(TDigest digest, double min, double max, long count, int nBins) {
+        long[] counts = new long[nBins];
+        if (count == 0)
+            return counts;
+        if (min >= max || Double.isNaN(min) || Double.isNaN(max) || Double.isInfinite(max - min)) {
+            //All values are the same (or range isn't usable): all values are in the last bin, as per DoubleHistogramCounter
+            counts[nBins - 1] = count;
+            return counts;
+        }
+
+        double[] bins = histogramBins(min, max, nBins);
+        long prev = 0;
+        for (int i = 0; i < nBins; i++) {
+            long cum;
+            if (i == nBins - 1) {
+                cum = count;
+            } else {
+                cum = Math.round(count * digest.cdf(bins[i + 1]));
+                cum = Math.max(prev, Math.min(count, cum));
+            }
+            counts[i] = cum - prev;
+            prev = cum;
+        }
+        return counts;
+    }
+
     public static List<ColumnAnalysis> convertCounters(List<AnalysisCounter> counters, double[][] minsMaxes, List<ColumnType> columnTypes){
         int nColumns = columnTypes.size();
 
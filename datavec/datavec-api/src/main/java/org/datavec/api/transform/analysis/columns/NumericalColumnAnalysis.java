@@ -29,7 +29,7 @@ import org.nd4j.shade.jackson.databind.annotation.JsonDeserialize;
 import org.nd4j.shade.jackson.databind.annotation.JsonSerialize;
 
 @Data
-@EqualsAndHashCode(exclude = {"digest"})
+@EqualsAndHashCode(exclude = {"digest", "countUnique"})
 public abstract class NumericalColumnAnalysis implements ColumnAnalysis {
 
     protected double mean;
@@ -46,6 +46,10 @@ public abstract class NumericalColumnAnalysis implements ColumnAnalysis {
     @JsonSerialize(using = TDigestSerializer.class)
     @JsonDeserialize(using = TDigestDeserializer.class)
     protected TDigest digest;
+    /**
+     * Approximate number of distinct values, from a HyperLogLog sketch. Null if not computed
+     */
+    protected Long countUnique;
 
     protected NumericalColumnAnalysis(Builder builder) {
         this.mean = builder.mean;
@@ -82,7 +86,7 @@ public abstract class NumericalColumnAnalysis implements ColumnAnalysis {
         return "mean=" + mean + ",sampleStDev=" + sampleStdev + ",sampleVariance=" + sampleVariance + ",countZero="
                         + countZero + ",countNegative=" + countNegative + ",countPositive=" + countPositive
                         + ",countMinValue=" + countMinValue + ",countMaxValue=" + countMaxValue + ",count="
-                        + countTotal + q;
+                        + countTotal + (countUnique == null ? "" : ",countUniqueApprox=" + countUnique) + q;
     }
 
     public abstract double getMinDouble();
@@ -22,10 +22,12 @@ package org.datavec.api.transform.analysis.columns;
 
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
 import org.datavec.api.transform.ColumnType;
 
 @Data
+@EqualsAndHashCode(exclude = {"countUnique"})
 @AllArgsConstructor
 @NoArgsConstructor //For Jackson deserialization
 public class StringAnalysis implements ColumnAnalysis {
@@ -37,6 +39,10 @@ public class StringAnalysis implements ColumnAnalysis {
     private long countTotal;
     private double[] histogramBuckets;
     private long[] histogramBucketCounts;
+    /**
+     * Approximate number of distinct values, from a HyperLogLog sketch. Null if not computed
+     */
+    private Long countUnique;
 
     private StringAnalysis(Builder builder) {
         this.minLength = builder.minLength;
@@ -53,7 +59,7 @@ public class StringAnalysis implements ColumnAnalysis {
     public String toString() {
         return "StringAnalysis(minLen=" + minLength + ",maxLen=" + maxLength + ",meanLen=" + meanLength
                         + ",sampleStDevLen=" + sampleStdevLength + ",sampleVarianceLen=" + sampleVarianceLength
-                        + ",count=" + countTotal + ")";
+                        + ",count=" + countTotal + (countUnique == null ? "" : ",countUniqueApprox=" + countUnique) + ")";
     }
 
     @Override
@@ -0,0 +1,141 @@
+/*
+ *  ******************************************************************************
+ *  *
+ *  *
+ *  * This program and the accompanying materials are made available under the
+ *  * terms of the Apache License, Version 2.0 which is available at
+ *  * https://www.apache.org/licenses/LICENSE-2.0.
+ *  *
+ *  *  See the NOTICE file distributed with this work for additional
+ *  *  information regarding copyright ownership.
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ *  * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ *  * License for the specific language governing permissions and limitations
+ *  * under the License.
+ *  *
+ *  * SPDX-License-Identifier: Apache-2.0
+ *  *****************************************************************************
+ */
+package org.datavec.api.transform.analysis.counter;
+
+import com.clearspring.analytics.stream.cardinality.CardinalityMergeException;
+import com.clearspring.analytics.stream.cardinality.HyperLogLogPlus;
+import com.tdunning.math.stats.TDigest;
+import lombok.Getter;
+import org.datavec.api.transform.ColumnType;
+import org.datavec.api.transform.analysis.AnalysisCounter;
+import org.datavec.api.writable.Writable;
+
+/**
+ * Mergeable sketches for a single column, used for single-pass (and parallel/distributed) analysis:<br>
+ * - A HyperLogLog sketch for the approximate number of distinct values (numerical and String columns)<br>
+ * - A t-digest of String lengths, from which an approximate histogram can be derived without a second pass.
+ * (Numerical columns don't need this, as their analysis counters already include a t-digest.)<br>
+ * Sketches for other column types are no-ops.
+ */
+public class ColumnSketchCounter implements AnalysisCounter<ColumnSketchCounter> {
+
+    /**
+     * Default HyperLogLog precision: 2^14 registers, for a relative standard error of about 1%
+     */
+    public static final int DEFAULT_HLL_PRECISION = 14;
+
+    @Getter
+    private final ColumnType columnType;
+    @Getter
+    private final HyperLogLogPlus hll;
+    @Getter
+    private final TDigest lengthDigest;
+
+    public ColumnSketchCounter(ColumnType columnType) {
+        this(columnType, DEFAULT_HLL_PRECISION);
+    }
+
+    public ColumnSketchCounter(ColumnType columnType, int hllPrecision) {
+        this.columnType = columnType;
+        this.hll = supportsCountUnique(columnType) ? new HyperLogLogPlus(hllPrecision, 0) : null;
+        this.lengthDigest = columnType == ColumnType.String ? TDigest.createDigest(100) : null;
+    }
+
+    /**
+     * @return True if an approximate distinct count is computed for columns of the specified type
+     */
+    public static boolean supportsCountUnique(ColumnType columnType) {
+        switch (columnType) {
+            case String:
+            case Integer:
+            case Long:
+            case Time:
+            case Double:
+            case Float:
+            case Boolean:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    @Override
+    public ColumnSketchCounter add(Writable writable) {
+        switch (columnType) {
+            case String:
+                String s = writable.toString();
+                hll.offer(s);
+                lengthDigest.add(s.length());
+                break;
+            case Integer:
+            case Long:
+            case Time:
+            case Boolean:
+                hll.offerHashed(mix(writable.toLong()));
+                break;
+            case Double:
+            case Float:
+                double d = writable.toDouble();
+                //Normalize -0.0 and NaNs, so equal values hash equally
+                hll.offerHashed(mix(d == 0.0 ? 0L : Double.doubleToLongBits(d)));
+                break;
+            default:
+                //No sketches for other column types
+        }
+        return this;
+    }
+
+    @Override
+    public ColumnSketchCounter merge(ColumnSketchCounter other) {
+        if (other == null)
+            return this;
+        if (other.columnType != columnType)
+            throw new IllegalStateException("Cannot merge sketches for different column types: " + columnType + " vs. "
+                    + other.columnType);
+        if (hll != null) {
+            try {
+                hll.addAll(other.hll);
+            } catch (CardinalityMergeException e) {
+                throw new IllegalStateException("Error merging HyperLogLog sketches", e);
+            }
+        }
+        if (lengthDigest != null) {
+            lengthDigest.add(other.lengthDigest);
+        }
+        return this;
+    }
+
+    /**
+     * @return Approximate number of distinct values, or null if not computed for this column type
+     */
+    public Long getCountUnique() {
+        return hll == null ? null : hll.cardinality();
+    }
+
+    //MurmurHash3 64-bit finalizer: HyperLogLog requires well distributed hashes
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
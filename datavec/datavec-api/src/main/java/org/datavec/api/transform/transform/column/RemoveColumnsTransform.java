@@ -23,10 +23,12 @@ package org.datavec.api.transform.transform.column;
 import lombok.Data;
 import org.apache.commons.lang3.StringUtils;
 import org.datavec.api.transform.ColumnOp;
+import org.datavec.api.transform.ColumnarTransform;
 import org.datavec.api.transform.metadata.ColumnMetaData;
 import org.datavec.api.transform.schema.Schema;
 import org.datavec.api.transform.transform.BaseTransform;
 import org.datavec.api.writable.Writable;
+import org.datavec.api.writable.batch.PrimitiveColumnarRecordBatch;
 import org.nd4j.shade.jackson.annotation.JsonIgnoreProperties;
 import org.nd4j.shade.jackson.annotation.JsonProperty;
 
@@ -34,7 +36,7 @@ import java.util.*;
 
 @JsonIgnoreProperties({"inputSchema", "columnsToRemoveIdx", "indicesToRemove"})
 @Data
-public class RemoveColumnsTransform extends BaseTransform implements ColumnOp {
+public class RemoveColumnsTransform extends BaseTransform implements ColumnOp, ColumnarTransform {
 
     private int[] columnsToRemoveIdx;
     private String[] columnsToRemove;
@@ -137,6 +139,17 @@ public class RemoveColumnsTransform extends BaseTransform implements ColumnOp {
         return outList;
     }
 
+    @Override
+    public PrimitiveColumnarRecordBatch mapColumnar(PrimitiveColumnarRecordBatch batch) {
+        int[] keep = new int[batch.numColumns() - indicesToRemove.size()];
+        int j = 0;
+        for (int i = 0; i < batch.numColumns(); i++) {
+            if (!indicesToRemove.contains(i))
+                keep[j++] = i;
+        }
+        return batch.selectColumns(keep);
+    }
+
     /**
      * Transform an object
      * in to another object
@@ -23,10 +23,13 @@ package org.datavec.api.transform.transform.doubletransform;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import org.datavec.api.transform.ColumnarTransform;
 import org.datavec.api.transform.metadata.ColumnMetaData;
 import org.datavec.api.transform.metadata.DoubleMetaData;
 import org.datavec.api.transform.transform.BaseColumnTransform;
+import org.datavec.api.writable.DoubleWritable;
 import org.datavec.api.writable.Writable;
+import org.datavec.api.writable.batch.PrimitiveColumnarRecordBatch;
 
 /**
  *
@@ -34,7 +37,7 @@ import org.datavec.api.writable.Writable;
 @EqualsAndHashCode(callSuper = true)
 @Data
 @NoArgsConstructor
-public abstract class BaseDoubleTransform extends BaseColumnTransform {
+public abstract class BaseDoubleTransform extends BaseColumnTransform implements ColumnarTransform {
 
     public BaseDoubleTransform(String column) {
         super(column);
@@ -42,6 +45,26 @@ public abstract class BaseDoubleTransform extends BaseColumnTransform {
 
     public abstract Writable map(Writable writable);
 
+    /**
+     * Apply the transform to a single value, for columnar execution. The default implementation delegates to
+     * {@link #map(Writable)}; subclasses should override this to avoid creating Writable objects per value.
+     */
+    protected double mapDouble(double value) {
+        return map(new DoubleWritable(value)).toDouble();
+    }
+
+    @Override
+    public PrimitiveColumnarRecordBatch mapColumnar(PrimitiveColumnarRecordBatch batch) {
+        double[] in = batch.getColumnAsDoubles(columnNumber);
+        int n = batch.size();
+        double[] out = new double[n];
+        for (int i = 0; i < n; i++) {
+            out[i] = mapDouble(in[i]);
+        }
+        ColumnMetaData oldMeta = batch.getSchema().getMetaData(columnNumber);
+        return batch.withColumn(columnNumber, getNewColumnMetaData(oldMeta.getName(), oldMeta), out);
+    }
+
     @Override
     public ColumnMetaData getNewColumnMetaData(String newColumnName, ColumnMetaData oldColumnMeta) {
         if (oldColumnMeta instanceof DoubleMetaData) {
@@ -21,19 +21,21 @@
 package org.datavec.api.transform.transform.doubletransform;
 
 import lombok.Data;
+import org.datavec.api.transform.ColumnarTransform;
 import org.datavec.api.transform.MathOp;
 import org.datavec.api.transform.metadata.ColumnMetaData;
 import org.datavec.api.transform.metadata.DoubleMetaData;
 import org.datavec.api.transform.transform.BaseColumnTransform;
 import org.datavec.api.writable.DoubleWritable;
 import org.datavec.api.writable.Writable;
+import org.datavec.api.writable.batch.PrimitiveColumnarRecordBatch;
 import org.nd4j.shade.jackson.annotation.JsonProperty;
 
 import java.util.ArrayList;
 import java.util.List;
 
 @Data
-public class DoubleMathOpTransform extends BaseColumnTransform {
+public class DoubleMathOpTransform extends BaseColumnTransform implements ColumnarTransform {
 
     private final MathOp mathOp;
     private final double scalar;
@@ -97,6 +99,18 @@ public class DoubleMathOpTransform extends BaseColumnTransform {
         return new DoubleWritable(doOp(columnWritable.toDouble()));
     }
 
+    @Override
+    public PrimitiveColumnarRecordBatch mapColumnar(PrimitiveColumnarRecordBatch batch) {
+        double[] in = batch.getColumnAsDoubles(columnNumber);
+        int n = batch.size();
+        double[] out = new double[n];
+        for (int i = 0; i < n; i++) {
+            out[i] = doOp(in[i]);
+        }
+        ColumnMetaData oldMeta = batch.getSchema().getMetaData(columnNumber);
+        return batch.withColumn(columnNumber, getNewColumnMetaData(oldMeta.getName(), oldMeta), out);
+    }
+
     @Override
     public String toString() {
         return "DoubleMathOpTransform(mathOp=" + mathOp + ",scalar=" + scalar + ")";
@@ -53,6 +53,13 @@ public class Log2Normalizer extends BaseDoubleTransform {
         return new DoubleWritable(normMean(val));
     }
 
+    @Override
+    protected double mapDouble(double value) {
+        if (Double.isNaN(value))
+            return 0;
+        return normMean(value);
+    }
+
     private double log2(double x) {
         return Math.log(x) / log2;
     }
@@ -61,6 +61,13 @@ public class MinMaxNormalizer extends BaseDoubleTransform {
         return new DoubleWritable(ratio * (val - min) + newMin);
     }
 
+    @Override
+    protected double mapDouble(double value) {
+        if (Double.isNaN(value))
+            return 0;
+        return ratio * (value - min) + newMin;
+    }
+
     @Override
     public ColumnMetaData getNewColumnMetaData(String newColumnName, ColumnMetaData oldColumnMeta) {
         return new DoubleMetaData(newColumnName, newMin, newMax);
@@ -45,6 +45,11 @@ public class StandardizeNormalizer extends BaseDoubleTransform {
         return new DoubleWritable((val - mean) / stdev);
     }
 
+    @Override
+    protected double mapDouble(double value) {
+        return (value - mean) / stdev;
+    }
+
     @Override
     public String toString() {
         return "StandardizeNormalizer(mean=" + mean + ",stdev=" + stdev + ")";
@@ -40,6 +40,11 @@ public class SubtractMeanNormalizer extends BaseDoubleTransform {
         return new DoubleWritable(writable.toDouble() - mean);
     }
 
+    @Override
+    protected double mapDouble(double value) {
+        return value - mean;
+    }
+
     @Override
     public String toString() {
         return "SubstractMeanNormalizer(mean=" + mean + ")";
@@ -0,0 +1,66 @@
+/*
+ *  ******************************************************************************
+ *  *
+ *  *
+ *  * This program and the accompanying materials are made available under the
+ *  * terms of the Apache License, Version 2.0 which is available at
+ *  * https://www.apache.org/licenses/LICENSE-2.0.
+ *  *
+ *  *  See the NOTICE file distributed with this work for additional
+ *  *  information regarding copyright ownership.
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ *  * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ *  * License for the specific language governing permissions and limitations
+ *  * under the License.
+ *  *
+ *  * SPDX-License-Identifier: Apache-2.0
+ *  *****************************************************************************
+ */
+
+package org.datavec.api.writable.batch;
+
+import org.datavec.api.transform.schema.Schema;
+import org.datavec.api.writable.Writable;
+import org.nd4j.linalg.api.buffer.DataType;
+import org.nd4j.linalg.api.ndarray.INDArray;
+
+import java.util.List;
+
+/**
+ * A batch of records stored column-by-column, rather than as one {@code List<Writable>} per record.<br>
+ * Columnar batches still implement {@code List<List<Writable>>} (materializing Writables per row on access) so they can
+ * be used anywhere a standard batch is expected, but consumers that are aware of them - such as
+ * {@link org.datavec.api.transform.TransformProcess#executeColumnar(ColumnarRecordBatch)} and
+ * RecordReaderMultiDataSetIterator - can process them without creating a Writable object per value.
+ *
+ * @see PrimitiveColumnarRecordBatch
+ */
+public interface ColumnarRecordBatch extends List<List<Writable>> {
+
+    /**
+     * @return Schema for the batch
+     */
+    Schema getSchema();
+
+    /**
+     * @return Number of columns in the batch
+     */
+    int numColumns();
+
+    /**
+     * Convert the specified columns to a 2d array with shape [size(), columns.length], with a single copy of the data.
+     * Column types must be numerical, boolean (0 or 1) or String (values parsed as numbers).
+     *
+     * @param dataType Data type for the returned array
+     * @param columns  Indices of the columns to convert. If none are specified, all columns are converted
+     * @return Array with shape [size(), numColumns]
+     */
+    INDArray toArray(DataType dataType, int... columns);
+
+    /**
+     * Get this batch as a {@link PrimitiveColumnarRecordBatch}, converting only if necessary
+     */
+    PrimitiveColumnarRecordBatch asPrimitiveBatch();
+
+}
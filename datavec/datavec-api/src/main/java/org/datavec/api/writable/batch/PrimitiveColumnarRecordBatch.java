@@ -0,0 +1,387 @@
+/*
+ *  ******************************************************************************
+ *  *
+ *  *
+ *  * This program and the accompanying materials are made available under the
+ *  * terms of the Apache License, Version 2.0 which is available at
+ *  * https://www.apache.org/licenses/LICENSE-2.0.
+ *  *
+ *  *  See the NOTICE file distributed with this work for additional
+ *  *  information regarding copyright ownership.
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ *  * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ *  * License for the specific language governing permissions and limitations
+ *  * under the License.
+ *  *
+ *  * SPDX-License-Identifier: Apache-2.0
+ *  *****************************************************************************
+ */
+
+package org.datavec.api.writable.batch;
+
+import lombok.NonNull;
+import org.datavec.api.transform.ColumnType;
+import org.datavec.api.transform.metadata.ColumnMetaData;
+import org.datavec.api.transform.schema.Schema;
+import org.datavec.api.writable.*;
+import org.nd4j.common.base.Preconditions;
+import org.nd4j.linalg.api.buffer.DataType;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+import org.nd4j.linalg.indexing.NDArrayIndex;
+
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A {@link ColumnarRecordBatch} backed by one primitive array per column. Column storage depends on the column type:<br>
+ * - Double: double[]<br>
+ * - Float: float[]<br>
+ * - Integer: int[]<br>
+ * - Long, Time: long[]<br>
+ * - Boolean: boolean[]<br>
+ * - String, Categorical: String[]<br>
+ * - All other types: Writable[]<br>
+ * Column arrays may be longer than the number of rows in the batch (i.e., the batch capacity may exceed its size),
+ * which allows readers to allocate a batch once with {@link #allocate(Schema, int)}, fill the column arrays directly and
+ * then call {@link #setSize(int)}.<br>
+ * Null values are not supported for primitive column types.
+ */
+public class PrimitiveColumnarRecordBatch extends AbstractWritableRecordBatch implements ColumnarRecordBatch {
+
+    private final Schema schema;
+    private final Object[] columns;
+    private int size;
+
+    /**
+     * @param schema  Schema for the batch
+     * @param columns Column data - one array per column, of the type described in the class javadoc
+     * @param size    Number of rows in the batch. Must not exceed the length of any of the column arrays
+     */
+    public PrimitiveColumnarRecordBatch(@NonNull Schema schema, @NonNull Object[] columns, int size) {
+        Preconditions.checkArgument(schema.numColumns() == columns.length, "Number of column arrays (%s) does not match " +
+                "number of columns in schema (%s)", columns.length, schema.numColumns());
+        for (int i = 0; i < columns.length; i++) {
+            Class<?> expected = columnClass(schema.getType(i));
+            Preconditions.checkArgument(columns[i] != null && columns[i].getClass() == expected, "Invalid data for column %s" +
+                    " (\"%s\", type %s): expected %s, got %s", i, schema.getName(i), schema.getType(i), expected.getSimpleName(),
+                    columns[i] == null ? null : columns[i].getClass().getSimpleName());
+            Preconditions.checkArgument(Array.getLength(columns[i]) >= size, "Column %s (\"%s\") has " +
+                    "length %s, less than batch size %s", i, schema.getName(i), Array.getLength(columns[i]), size);
+        }
+        this.schema = schema;
+        this.columns = columns;
+        this.size = size;
+    }
+
+    /**
+     * Allocate an empty batch (size 0) with the specified capacity, to be filled via the column arrays
+     *
+     * @param schema   Schema for the batch
+     * @param capacity Capacity (number of rows) of each column array
+     */
+    public static PrimitiveColumnarRecordBatch allocate(@NonNull Schema schema, int capacity) {
+        Object[] columns = new Object[schema.numColumns()];
+        for (int i = 0; i < columns.length; i++) {
+            columns[i] = allocateColumn(schema.getType(i), capacity);
+        }
+        return new PrimitiveColumnarRecordBatch(schema, columns, 0);
+    }
+
+    /**
+     * Convert a standard row-wise batch to a columnar batch
+     *
+     * @param schema  Schema for the records
+     * @param records Records to convert
+     */
+    public static PrimitiveColumnarRecordBatch fromRecords(@NonNull Schema schema, @NonNull List<List<Writable>> records) {
+        if (records instanceof ColumnarRecordBatch) {
+            return ((ColumnarRecordBatch) records).asPrimitiveBatch();
+        }
+        PrimitiveColumnarRecordBatch out = allocate(schema, records.size());
+        int row = 0;
+        for (List<Writable> record : records) {
+            Preconditions.checkArgument(record.size() == schema.numColumns(), "Record %s has %s values, but schema has %s columns",
+                    row, record.size(), schema.numColumns());
+            for (int col = 0; col < record.size(); col++) {
+                out.set(row, col, record.get(col));
+            }
+            row++;
+        }
+        out.size = row;
+        return out;
+    }
+
+    /**
+     * Allocate the storage array for a column of the specified type
+     */
+    public static Object allocateColumn(@NonNull ColumnType type, int capacity) {
+        switch (type) {
+            case Double:
+                return new double[capacity];
+            case Float:
+                return new float[capacity];
+            case Integer:
+                return new int[capacity];
+            case Long:
+            case Time:
+                return new long[capacity];
+            case Boolean:
+                return new boolean[capacity];
+            case String:
+            case Categorical:
+                return new String[capacity];
+            default:
+                return new Writable[capacity];
+        }
+    }
+
+    private static Class<?> columnClass(ColumnType type) {
+        return allocateColumn(type, 0).getClass();
+    }
+
+    @Override
+    public Schema getSchema() {
+        return schema;
+    }
+
+    @Override
+    public int numColumns() {
+        return columns.length;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Set the number of rows in the batch. Must not exceed {@link #capacity()}
+     */
+    public void setSize(int size) {
+        Preconditions.checkArgument(size >= 0 && size <= capacity(), "Invalid size %s: must be between 0 and capacity %s",
+                size, capacity());
+        this.size = size;
+    }
+
+    /**
+     * @return Maximum number of rows that can be stored without reallocating the column arrays
+     */
+    public int capacity() {
+        int min = Integer.MAX_VALUE;
+        for (Object c : columns) {
+            min = Math.min(min, Array.getLength(c));
+        }
+        return min;
+    }
+
+    /**
+     * Get the underlying storage for the specified column. The type of the array depends on the column type (see
+     * class javadoc), and its length may exceed {@link #size()}
+     */
+    public Object getColumnData(int column) {
+        return columns[column];
+    }
+
+    /**
+     * Get the values of a column as doubles. For double columns, the underlying storage is returned without copying
+     * (hence may be longer than {@link #size()}, and should not be modified); other types are converted
+     */
+    public double[] getColumnAsDoubles(int column) {
+        Object c = columns[column];
+        if (c instanceof double[]) {
+            return (double[]) c;
+        }
+        double[] out = new double[size];
+        for (int i = 0; i < size; i++) {
+            out[i] = getDouble(i, column);
+        }
+        return out;
+    }
+
+    /**
+     * Get the value at the specified row and column as a double
+     */
+    public double getDouble(int row, int column) {
+        Object c = columns[column];
+        if (c instanceof double[]) {
+            return ((double[]) c)[row];
+        } else if (c instanceof float[]) {
+            return ((float[]) c)[row];
+        } else if (c instanceof int[]) {
+            return ((int[]) c)[row];
+        } else if (c instanceof long[]) {
+            return ((long[]) c)[row];
+        } else if (c instanceof boolean[]) {
+            return ((boolean[]) c)[row] ? 1.0 : 0.0;
+        } else if (c instanceof String[]) {
+            return Double.parseDouble(((String[]) c)[row]);
+        } else {
+            return ((Writable[]) c)[row].toDouble();
+        }
+    }
+
+    /**
+     * Set the value at the specified row and column, converting from the Writable to the column storage type
+     */
+    public void set(int row, int column, @NonNull Writable value) {
+        Object c = columns[column];
+        if (c instanceof double[]) {
+            ((double[]) c)[row] = value.toDouble();
+        } else if (c instanceof float[]) {
+            ((float[]) c)[row] = value.toFloat();
+        } else if (c instanceof int[]) {
+            ((int[]) c)[row] = value.toInt();
+        } else if (c instanceof long[]) {
+            ((long[]) c)[row] = value.toLong();
+        } else if (c instanceof boolean[]) {
+            boolean b;
+            if (value instanceof BooleanWritable) {
+                b = ((BooleanWritable) value).get();
+            } else if (value instanceof Text) {
+                b = Boolean.parseBoolean(value.toString());
+            } else {
+                b = value.toDouble() != 0.0;
+            }
+            ((boolean[]) c)[row] = b;
+        } else if (c instanceof String[]) {
+            ((String[]) c)[row] = value.toString();
+        } else {
+            ((Writable[]) c)[row] = value;
+        }
+    }
+
+    @Override
+    public List<Writable> get(int row) {
+        Preconditions.checkArgument(row >= 0 && row < size, "Invalid index: %s, size = %s", row, size);
+        List<Writable> out = new ArrayList<>(columns.length);
+        for (Object c : columns) {
+            if (c instanceof double[]) {
+                out.add(new DoubleWritable(((double[]) c)[row]));
+            } else if (c instanceof float[]) {
+                out.add(new FloatWritable(((float[]) c)[row]));
+            } else if (c instanceof int[]) {
+                out.add(new IntWritable(((int[]) c)[row]));
+            } else if (c instanceof long[]) {
+                out.add(new LongWritable(((long[]) c)[row]));
+            } else if (c instanceof boolean[]) {
+                out.add(new BooleanWritable(((boolean[]) c)[row]));
+            } else if (c instanceof String[]) {
+                out.add(new Text(((String[]) c)[row]));
+            } else {
+                Writable w = ((Writable[]) c)[row];
+                out.add(w == null ? NullWritable.INSTANCE : w);
+            }
+        }
+        return out;
+    }
+
+    /**
+     * Return a new batch with the specified column replaced. Other columns are shared with this batch, not copied
+     *
+     * @param column     Index of the column to replace
+     * @param columnMeta Metadata for the new column
+     * @param data       Storage for the new column - see class javadoc for the required type
+     */
+    public PrimitiveColumnarRecordBatch withColumn(int column, @NonNull ColumnMetaData columnMeta, @NonNull Object data) {
+        List<ColumnMetaData> meta = new ArrayList<>(schema.getColumnMetaData());
+        meta.set(column, columnMeta);
+        Object[] newColumns = Arrays.copyOf(columns, columns.length);
+        newColumns[column] = data;
+        return new PrimitiveColumnarRecordBatch(schema.newSchema(meta), newColumns, size);
+    }
+
+    /**
+     * Return a new batch containing only the specified columns, in the specified order. Column data is shared with
+     * this batch, not copied
+     *
+     * @param columnIndices Indices of the columns to keep
+     */
+    public PrimitiveColumnarRecordBatch selectColumns(@NonNull int... columnIndices) {
+        List<ColumnMetaData> meta = new ArrayList<>(columnIndices.length);
+        Object[] newColumns = new Object[columnIndices.length];
+        for (int i = 0; i < columnIndices.length; i++) {
+            meta.add(schema.getMetaData(columnIndices[i]));
+            newColumns[i] = columns[columnIndices[i]];
+        }
+        return new PrimitiveColumnarRecordBatch(schema.newSchema(meta), newColumns, size);
+    }
+
+    /**
+     * Copy rows from another batch (with the same column types) into this batch. The size of this batch is not
+     * modified; use {@link #setSize(int)} after copying.
+     *
+     * @param src     Batch to copy rows from
+     * @param srcRow  First row to copy in the source batch
+     * @param destRow First row to copy to in this batch
+     * @param count   Number of rows to copy
+     */
+    public void copyRows(@NonNull PrimitiveColumnarRecordBatch src, int srcRow, int destRow, int count) {
+        Preconditions.checkArgument(src.numColumns() == columns.length, "Number of columns differs: source batch has %s," +
+                " this batch has %s", src.numColumns(), columns.length);
+        Preconditions.checkArgument(srcRow >= 0 && srcRow + count <= src.size, "Invalid source rows: %s to %s, source " +
+                "size = %s", srcRow, srcRow + count, src.size);
+        Preconditions.checkArgument(destRow >= 0 && destRow + count <= capacity(), "Invalid destination rows: %s to %s, " +
+                "capacity = %s", destRow, destRow + count, capacity());
+        for (int i = 0; i < columns.length; i++) {
+            System.arraycopy(src.columns[i], srcRow, columns[i], destRow, count);
+        }
+    }
+
+    @Override
+    public INDArray toArray(@NonNull DataType dataType, int... columnIndices) {
+        if (columnIndices == null || columnIndices.length == 0) {
+            columnIndices = new int[columns.length];
+            for (int i = 0; i < columnIndices.length; i++) {
+                columnIndices[i] = i;
+            }
+        }
+
+        //'f' order means each column is contiguous: one bulk copy (and type conversion) per column
+        INDArray out = Nd4j.createUninitialized(dataType, new long[]{size, columnIndices.length}, 'f');
+        if (size == 0) {
+            return out;
+        }
+        for (int j = 0; j < columnIndices.length; j++) {
+            out.getColumn(j).assign(columnArray(columnIndices[j]));
+        }
+        return out;
+    }
+
+    /**
+     * Get the first {@link #size()} values of the specified column as a vector, copying the backing array in bulk
+     */
+    private INDArray columnArray(int col) {
+        Object c = columns[col];
+        INDArray arr;
+        if (c instanceof double[]) {
+            arr = Nd4j.createFromArray((double[]) c);
+        } else if (c instanceof float[]) {
+            arr = Nd4j.createFromArray((float[]) c);
+        } else if (c instanceof int[]) {
+            arr = Nd4j.createFromArray((int[]) c);
+        } else if (c instanceof long[]) {
+            arr = Nd4j.createFromArray((long[]) c);
+        } else {
+            double[] d = new double[size];
+            for (int i = 0; i < size; i++) {
+                d[i] = getDouble(i, col);
+            }
+            arr = Nd4j.createFromArray(d);
+        }
+        return arr.length() == size ? arr : arr.get(NDArrayIndex.interval(0, size));
+    }
+
+    @Override
+    public PrimitiveColumnarRecordBatch asPrimitiveBatch() {
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return "PrimitiveColumnarRecordBatch(size=" + size + ",columns=" + schema.getColumnNames() + ")";
+    }
+}
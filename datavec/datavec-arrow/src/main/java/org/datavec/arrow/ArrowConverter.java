@@ -22,6 +22,7 @@ package org.datavec.arrow;
 
 import lombok.extern.slf4j.Slf4j;
 import lombok.val;
+import org.apache.arrow.memory.ArrowBuf;
 import org.apache.arrow.memory.BufferAllocator;
 import org.apache.arrow.memory.RootAllocator;
 import org.apache.arrow.vector.*;
@@ -44,8 +45,16 @@ import org.datavec.api.transform.schema.Schema;
 import org.datavec.api.transform.schema.conversion.TypeConversion;
 import org.datavec.api.util.ndarray.RecordConverter;
 import org.datavec.api.writable.*;
+import org.datavec.api.writable.batch.PrimitiveColumnarRecordBatch;
 import org.datavec.arrow.recordreader.ArrowWritableRecordBatch;
 import org.datavec.arrow.recordreader.ArrowWritableRecordTimeSeriesBatch;
+import org.bytedeco.javacpp.BytePointer;
+import org.bytedeco.javacpp.DoublePointer;
+import org.bytedeco.javacpp.FloatPointer;
+import org.bytedeco.javacpp.IntPointer;
+import org.bytedeco.javacpp.LongPointer;
+import org.bytedeco.javacpp.Pointer;
+import org.bytedeco.javacpp.ShortPointer;
 import org.nd4j.common.primitives.Pair;
 import org.nd4j.linalg.api.buffer.DataBuffer;
 import org.nd4j.linalg.api.buffer.DataType;
@@ -61,6 +70,7 @@ import java.io.OutputStream;
 import java.nio.Buffer;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
 
 import static java.nio.channels.Channels.newChannel;
@@ -160,6 +170,213 @@ public class ArrowConverter {
         return arr;
     }
 
+    /**
+     * Convert the specified columns of an {@link ArrowWritableRecordBatch} to a 2d array with shape [rows, columns].
+     * Unlike {@link #toArray(ArrowWritableRecordBatch)}, this respects the row offset of the batch, hence may be used with
+     * batches that are views of a subset of the rows of the underlying vectors.<br>
+     * Fixed width numerical columns without nulls (see {@link #toArrayView(FieldVector, int, int)}) are converted
+     * with a single bulk copy/cast from the Arrow memory; other columns are converted element by element.<br>
+     * The returned array never shares memory with the Arrow vectors: use {@link #toArrayView(ArrowWritableRecordBatch, int)}
+     * to view a single column without copying it.
+     *
+     * @param batch    the batch to convert
+     * @param dataType the data type of the output array
+     * @param columns  the columns to convert. If none are specified, all columns are converted
+     * @return the array, with shape [batch.size(), columns.length]
+     */
+    public static INDArray toArray(ArrowWritableRecordBatch batch, DataType dataType, int... columns) {
+        Schema schema = batch.getSchema();
+        if(columns == null || columns.length == 0) {
+            columns = new int[schema.numColumns()];
+            for(int i = 0; i < columns.length; i++) {
+                columns[i] = i;
+            }
+        }
+
+        int rows = batch.size();
+        int offset = batch.getOffset();
+        INDArray out = Nd4j.createUninitialized(dataType, new long[]{rows, columns.length}, 'f');
+        DataBuffer buffer = out.data();
+        long outOffset = 0;
+        for(int j = 0; j < columns.length; j++) {
+            int col = columns[j];
+            FieldVector v = batch.getList().get(col);
+            INDArray view = toArrayView(v, offset, rows);
+            if(view != null) {
+                out.getColumn(j, true).assign(view);
+                outOffset += rows;
+                continue;
+            }
+
+            ColumnType type = schema.getType(col);
+            for(int i = 0; i < rows; i++) {
+                switch(type) {
+                    case Integer:
+                        buffer.put(outOffset + i, getIntFromFieldVector(offset + i, v));
+                        break;
+                    case Long:
+                    case Time:
+                        buffer.put(outOffset + i, getLongFromFieldVector(offset + i, v));
+                        break;
+                    case Float:
+                        buffer.put(outOffset + i, getFloatFromFieldVector(offset + i, v));
+                        break;
+                    case Double:
+                        buffer.put(outOffset + i, getDoubleFromFieldVector(offset + i, v));
+                        break;
+                    default:
+                        buffer.put(outOffset + i, fromEntry(offset + i, v, type).toDouble());
+                }
+            }
+            outOffset += rows;
+        }
+
+        return out;
+    }
+
+    /**
+     * Create a column vector (shape [batch.size(), 1]) that is a view of the specified column of the batch - i.e.,
+     * without copying the data. See {@link #toArrayView(FieldVector, int, int)}: the returned array must not be
+     * modified, and is only valid while the underlying vectors are.
+     *
+     * @param batch  the batch to view
+     * @param column the column to view
+     * @return the view, or null if the column can't be viewed directly
+     */
+    public static INDArray toArrayView(ArrowWritableRecordBatch batch, int column) {
+        return toArrayView(batch.getList().get(column), batch.getOffset(), batch.size());
+    }
+
+    /**
+     * Create a column vector (shape [rows, 1]) that is a view of the data buffer of the specified Arrow vector - i.e.,
+     * without copying the data.<br>
+     * This is only possible for fixed width integer and floating point vectors (including millisecond timestamps,
+     * as longs), on little endian platforms (the Arrow format is little endian), and when there are no nulls in
+     * the specified rows (Arrow does not define the values of null slots).<br>
+     * The returned array shares memory with the Arrow vector: it is valid only as long as the vector's buffers are,
+     * and modifying it will modify the vector.
+     *
+     * @param fieldVector the vector to view
+     * @param offset      the first row to view
+     * @param rows        the number of rows to view
+     * @return the view, or null if the vector can't be viewed directly
+     */
+    public static INDArray toArrayView(FieldVector fieldVector, int offset, int rows) {
+        if(rows <= 0 || ByteOrder.nativeOrder() != ByteOrder.LITTLE_ENDIAN || !(fieldVector instanceof BaseFixedWidthVector)) {
+            return null;
+        }
+
+        DataType dataType;
+        if(fieldVector instanceof Float8Vector) {
+            dataType = DataType.DOUBLE;
+        } else if(fieldVector instanceof Float4Vector) {
+            dataType = DataType.FLOAT;
+        } else if(fieldVector instanceof BigIntVector || fieldVector instanceof TimeStampMilliVector) {
+            dataType = DataType.LONG;
+        } else if(fieldVector instanceof IntVector) {
+            dataType = DataType.INT;
+        } else if(fieldVector instanceof SmallIntVector) {
+            dataType = DataType.SHORT;
+        } else if(fieldVector instanceof TinyIntVector) {
+            dataType = DataType.BYTE;
+        } else {
+            return null;
+        }
+
+        if(offset < 0 || offset + rows > fieldVector.getValueCount() || hasNulls(fieldVector, offset, rows)) {
+            return null;
+        }
+
+        int width = dataType.width();
+        ArrowBuf arrowBuf = fieldVector.getDataBuffer();
+        ByteBuffer bb = arrowBuf.nioBuffer((long) offset * width, rows * width).order(ByteOrder.LITTLE_ENDIAN);
+        Pointer pointer;
+        switch(dataType) {
+            case DOUBLE:
+                pointer = new DoublePointer(bb.asDoubleBuffer());
+                break;
+            case FLOAT:
+                pointer = new FloatPointer(bb.asFloatBuffer());
+                break;
+            case LONG:
+                pointer = new LongPointer(bb.asLongBuffer());
+                break;
+            case INT:
+                pointer = new IntPointer(bb.asIntBuffer());
+                break;
+            case SHORT:
+                pointer = new ShortPointer(bb.asShortBuffer());
+                break;
+            default:
+                pointer = new BytePointer(bb);
+        }
+
+        //The buffer is owned by Arrow: nd4j won't deallocate it
+        DataBuffer buffer = Nd4j.createBuffer(pointer, rows, dataType);
+        return Nd4j.create(buffer, new long[]{rows, 1}, new long[]{1, rows}, 0, 'f', dataType);
+    }
+
+    private static boolean hasNulls(FieldVector fieldVector, int offset, int rows) {
+        if(fieldVector.getNullCount() == 0) {
+            return false;
+        }
+        for(int i = 0; i < rows; i++) {
+            if(fieldVector.isNull(offset + i)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Convert an {@link ArrowWritableRecordBatch} to a {@link PrimitiveColumnarRecordBatch}, reading the field vectors
+     * directly into primitive arrays. Nulls in primitive columns are converted to 0 (or NaN for floating point columns).
+     *
+     * @param batch the batch to convert
+     * @return the converted batch
+     */
+    public static PrimitiveColumnarRecordBatch toPrimitiveBatch(ArrowWritableRecordBatch batch) {
+        Schema schema = batch.getSchema();
+        int rows = batch.size();
+        int offset = batch.getOffset();
+        Object[] columns = new Object[schema.numColumns()];
+        for(int col = 0; col < columns.length; col++) {
+            FieldVector v = batch.getList().get(col);
+            ColumnType type = schema.getType(col);
+            Object data = PrimitiveColumnarRecordBatch.allocateColumn(type, rows);
+            for(int i = 0; i < rows; i++) {
+                boolean isNull = v.isNull(offset + i);
+                switch(type) {
+                    case Integer:
+                        ((int[]) data)[i] = isNull ? 0 : getIntFromFieldVector(offset + i, v);
+                        break;
+                    case Long:
+                    case Time:
+                        ((long[]) data)[i] = isNull ? 0 : getLongFromFieldVector(offset + i, v);
+                        break;
+                    case Float:
+                        ((float[]) data)[i] = isNull ? Float.NaN : getFloatFromFieldVector(offset + i, v);
+                        break;
+                    case Double:
+                        ((double[]) data)[i] = isNull ? Double.NaN : getDoubleFromFieldVector(offset + i, v);
+                        break;
+                    case Boolean:
+                        ((boolean[]) data)[i] = !isNull && ((BitVector) v).get(offset + i) > 0;
+                        break;
+                    case String:
+                    case Categorical:
+                        ((String[]) data)[i] = isNull ? null : new String(((VarCharVector) v).get(offset + i), StandardCharsets.UTF_8);
+                        break;
+                    default:
+                        ((Writable[]) data)[i] = isNull ? NullWritable.INSTANCE : fromEntry(offset + i, v, type);
+                }
+            }
+            columns[col] = data;
+        }
+
+        return new PrimitiveColumnarRecordBatch(schema, columns, rows);
+    }
+
     /**
      * Convert a field vector to a column vector
      * @param fieldVector the field vector to convert
@@ -22,7 +22,6 @@ package org.datavec.arrow.recordreader;
 
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
-import lombok.val;
 import org.datavec.api.conf.Configuration;
 import org.datavec.api.records.Record;
 import org.datavec.api.records.listener.RecordListener;
@@ -33,15 +32,18 @@ import org.datavec.api.split.FileSplit;
 import org.datavec.api.split.InputSplit;
 import org.datavec.api.transform.schema.Schema;
 import org.datavec.api.writable.Writable;
+import org.nd4j.common.primitives.Pair;
 
 import java.io.DataInputStream;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URI;
 import java.util.*;
 
 import static org.datavec.arrow.ArrowConverter.readFromBytes;
+import static org.datavec.arrow.ArrowConverter.readFromFile;
 
 @Slf4j
 public class ArrowRecordReader implements RecordReader {
@@ -79,23 +81,21 @@ public class ArrowRecordReader implements RecordReader {
     public List<List<Writable>> next(int num) {
         if (currentBatch == null || currIdx >= currentBatch.size()) {
             loadNextBatch();
+            //loadNextBatch() prefetches the first record for next(); batched reads start from the beginning
+            currIdx = 0;
         }
 
-        if(num == currentBatch.getArrowRecordBatch().getLength()) {
-            currIdx += num;
+        if(currIdx == 0 && num >= currentBatch.size()) {
+            currIdx = currentBatch.size();
             return currentBatch;
         }
-        else {
-            List<List<Writable>> ret = new ArrayList<>(num);
-            int numBatches = 0;
-            while(hasNext() && numBatches < num) {
-                ret.add(next());
-            }
-
-            return ret;
-        }
-
 
+        //Return a view of the next rows of the current batch: the vectors are shared, not copied
+        int n = Math.min(num, currentBatch.size() - currIdx);
+        ArrowWritableRecordBatch ret = new ArrowWritableRecordBatch(currentBatch.getList(), currentBatch.getSchema(),
+                currentBatch.getOffset() + currIdx, n);
+        currIdx += n;
+        return ret;
     }
 
     @Override
@@ -113,10 +113,17 @@ public class ArrowRecordReader implements RecordReader {
 
     private void loadNextBatch() {
         String url = pathsIter.next();
-        try (InputStream inputStream = split.openInputStreamFor(url)) {
+        File localFile = localFile(url);
+        try (InputStream inputStream = localFile != null ? new FileInputStream(localFile) : split.openInputStreamFor(url)) {
             currIdx = 0;
-            byte[] arr = org.apache.commons.io.IOUtils.toByteArray(inputStream);
-            val read = readFromBytes(arr);
+            Pair<Schema, ArrowWritableRecordBatch> read;
+            if(inputStream instanceof FileInputStream) {
+                //Local files: read the record batch directly from the file channel into Arrow memory, with no
+                //intermediate byte[] copy. Numerical columns can then be viewed as INDArrays without further copies
+                read = readFromFile((FileInputStream) inputStream);
+            } else {
+                read = readFromBytes(org.apache.commons.io.IOUtils.toByteArray(inputStream));
+            }
             if(this.schema == null) {
                 this.schema = read.getFirst();
             }
@@ -132,6 +139,23 @@ public class ArrowRecordReader implements RecordReader {
     }
 
 
+    private static File localFile(String path) {
+        try {
+            URI uri = URI.create(path);
+            if(uri.getScheme() == null) {
+                File f = new File(path);
+                return f.isFile() ? f : null;
+            }
+            if("file".equals(uri.getScheme())) {
+                File f = new File(uri);
+                return f.isFile() ? f : null;
+            }
+        } catch (IllegalArgumentException e) {
+            //Not a valid URI - fall back to the input split
+        }
+        return null;
+    }
+
     @Override
     public boolean hasNext() {
         return pathsIter.hasNext() || currIdx < this.currentBatch.size();
@@ -31,7 +31,11 @@ import org.datavec.api.transform.schema.Schema;
 import org.datavec.api.writable.NullWritable;
 import org.datavec.api.writable.Writable;
 import org.datavec.api.writable.batch.AbstractWritableRecordBatch;
+import org.datavec.api.writable.batch.ColumnarRecordBatch;
+import org.datavec.api.writable.batch.PrimitiveColumnarRecordBatch;
 import org.datavec.arrow.ArrowConverter;
+import org.nd4j.linalg.api.buffer.DataType;
+import org.nd4j.linalg.api.ndarray.INDArray;
 
 import java.io.Closeable;
 import java.io.IOException;
@@ -42,7 +46,7 @@ import java.util.*;
  */
 @Data
 @AllArgsConstructor
-public class ArrowWritableRecordBatch extends AbstractWritableRecordBatch implements Closeable {
+public class ArrowWritableRecordBatch extends AbstractWritableRecordBatch implements ColumnarRecordBatch, Closeable {
 
     private List<FieldVector> list;
     private int size;
@@ -164,6 +168,21 @@ public class ArrowWritableRecordBatch extends AbstractWritableRecordBatch implem
         return ret;
     }
 
+    @Override
+    public int numColumns() {
+        return schema.numColumns();
+    }
+
+    @Override
+    public INDArray toArray(DataType dataType, int... columns) {
+        return ArrowConverter.toArray(this, dataType, columns);
+    }
+
+    @Override
+    public PrimitiveColumnarRecordBatch asPrimitiveBatch() {
+        return ArrowConverter.toPrimitiveBatch(this);
+    }
+
     @Override
     public List<Writable> set(int i, List<Writable> writable) {
         int rowOffset = offset + i;
@@ -4,6 +4,7 @@ open module datavec.arrow {
     requires slf4j.api;
     requires arrow.memory.core;
     requires arrow.vector;
+    requires org.bytedeco.javacpp;
     requires datavec.api;
     requires nd4j.api;
     requires nd4j.common;
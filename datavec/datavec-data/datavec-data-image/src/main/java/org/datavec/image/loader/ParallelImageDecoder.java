@@ -0,0 +1,290 @@
+/*
+ *  ******************************************************************************
+ *  *
+ *  *
+ *  * This program and the accompanying materials are made available under the
+ *  * terms of the Apache License, Version 2.0 which is available at
+ *  * https://www.apache.org/licenses/LICENSE-2.0.
+ *  *
+ *  *  See the NOTICE file distributed with this work for additional
+ *  *  information regarding copyright ownership.
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ *  * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ *  * License for the specific language governing permissions and limitations
+ *  * under the License.
+ *  *
+ *  * SPDX-License-Identifier: Apache-2.0
+ *  *****************************************************************************
+ */
+package org.datavec.image.loader;
+
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.bytedeco.javacpp.BytePointer;
+import org.bytedeco.javacv.OpenCVFrameConverter;
+import org.bytedeco.leptonica.PIX;
+import org.bytedeco.opencv.opencv_core.Mat;
+import org.datavec.image.data.ImageWritable;
+import org.datavec.image.transform.ImageTransform;
+import org.nd4j.common.base.Preconditions;
+import org.nd4j.common.function.Supplier;
+import org.nd4j.linalg.api.concurrency.AffinityManager;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.bytedeco.leptonica.global.leptonica.pixDestroy;
+import static org.bytedeco.leptonica.global.leptonica.pixReadMem;
+import static org.bytedeco.opencv.global.opencv_core.CV_8UC1;
+import static org.bytedeco.opencv.global.opencv_imgcodecs.*;
+
+/**
+ * Decodes (and optionally transforms/augments) images on a pool of worker threads.<br>
+ * Each worker has its own copy of the provided {@link NativeImageLoader} (with the same height, width, channels, center
+ * cropping and multi-page mode) and frame converter, and reads the encoded image files into a
+ * native buffer that is reused (and grown as required) for subsequent images, instead of allocating a new buffer per
+ * image. Images can be decoded directly into a view of a preallocated batch array, avoiding a per-image copy.<br>
+ * <br>
+ * Image transforms (augmentation) are usually stateful, and hence not thread safe. If an image transform factory is
+ * provided, each worker creates its own transform instance, and transforms are executed in parallel. Otherwise, a
+ * single shared image transform may be provided: decoding, resizing and conversion to an INDArray are still executed
+ * in parallel, but the transform itself is executed by one worker at a time.
+ */
+@Slf4j
+public class ParallelImageDecoder implements Closeable {
+    private static final int MIN_BUFFER_STEP_SIZE = 64 * 1024;
+
+    @Getter
+    private final int numThreads;
+    private final NativeImageLoader loader;
+    private final long height;
+    private final long width;
+    private final long channels;
+    private final ImageTransform sharedTransform;
+    private final Supplier<ImageTransform> transformFactory;
+    private final ExecutorService executor;
+    private final List<Worker> workers = Collections.synchronizedList(new ArrayList<Worker>());
+    private final ThreadLocal<Worker> worker = new ThreadLocal<Worker>() {
+        @Override
+        protected Worker initialValue() {
+            Worker w = new Worker();
+            workers.add(w);
+            return w;
+        }
+    };
+
+    /**
+     * @param numThreads       Number of worker threads
+     * @param loader           Image loader to copy the configuration of, for each worker. Its image transform (if any)
+     *                         is shared between all workers, and executed by one worker at a time
+     * @param transformFactory Factory used to create one image transform per worker. May be null. If non-null, the
+     *                         loader's image transform is not used
+     */
+    public ParallelImageDecoder(int numThreads, @NonNull NativeImageLoader loader, Supplier<ImageTransform> transformFactory) {
+        Preconditions.checkArgument(numThreads > 0, "Number of threads must be > 0, got %s", numThreads);
+        Preconditions.checkArgument(loader.height > 0 && loader.width > 0 && loader.channels > 0, "Height, width and " +
+                "channels must be positive: got height=%s, width=%s, channels=%s", loader.height, loader.width, loader.channels);
+        this.numThreads = numThreads;
+        this.loader = loader;
+        this.height = loader.height;
+        this.width = loader.width;
+        this.channels = loader.channels;
+        this.sharedTransform = (transformFactory == null ? loader.imageTransform : null);
+        this.transformFactory = transformFactory;
+        this.executor = Executors.newFixedThreadPool(numThreads, new ThreadFactory() {
+            private final AtomicInteger count = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread t = new Thread(r, "ParallelImageDecoder-" + count.getAndIncrement());
+                t.setDaemon(true);
+                return t;
+            }
+        });
+    }
+
+    /**
+     * Asynchronously decode the image file into the provided array
+     *
+     * @param file Image file to decode
+     * @param view Array to decode the image into, with shape [channels, height, width]. Usually a view of a batch array
+     * @return Future, that completes once the image has been decoded
+     */
+    public Future<?> submit(@NonNull final File file, @NonNull final INDArray view) {
+        return executor.submit(new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+                worker.get().decode(file, view);
+                return null;
+            }
+        });
+    }
+
+    /**
+     * Asynchronously decode the image file into a new array
+     *
+     * @param file Image file to decode
+     * @return Future for the decoded image, with shape [1, channels, height, width]
+     */
+    public Future<INDArray> submit(@NonNull final File file) {
+        return executor.submit(new Callable<INDArray>() {
+            @Override
+            public INDArray call() throws Exception {
+                INDArray arr = Nd4j.createUninitialized(new long[]{1, channels, height, width}, 'c');
+                Nd4j.getAffinityManager().tagLocation(arr, AffinityManager.Location.HOST);
+                worker.get().decode(file, arr.tensorAlongDimension(0, 1, 2, 3));
+                return arr;
+            }
+        });
+    }
+
+    /**
+     * Decode all of the images in parallel, directly into the provided batch array, and wait for decoding to complete.
+     * Image i is decoded into features[i, ...]
+     *
+     * @param files    Images to decode
+     * @param features Batch array, with shape [numImages, channels, height, width]
+     */
+    public void decode(@NonNull List<File> files, @NonNull INDArray features) {
+        Preconditions.checkArgument(features.rank() == 4 && features.size(0) >= files.size(), "Expected rank 4 " +
+                "features array with size(0) >= %s, got array with shape %s", files.size(), features.shape());
+        List<Future<?>> futures = new ArrayList<>(files.size());
+        for (int i = 0; i < files.size(); i++) {
+            futures.add(submit(files.get(i), features.tensorAlongDimension(i, 1, 2, 3)));
+        }
+        for (int i = 0; i < futures.size(); i++) {
+            try {
+                get(futures.get(i), files.get(i));
+            } catch (RuntimeException e) {
+                for (Future<?> f : futures) {
+                    f.cancel(false);
+                }
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Wait for a future returned by one of the submit methods, rethrowing any exception during decoding as a
+     * RuntimeException
+     *
+     * @param future Future to wait for
+     * @param file   Image file for the future
+     */
+    public static <T> T get(@NonNull Future<T> future, File file) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while decoding image file: " + file, e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Image file failed during load: " + (file == null ? null : file.getAbsolutePath()), e.getCause());
+        }
+    }
+
+    /**
+     * Stop the worker threads and release the workers' buffers. Pending images are not decoded
+     */
+    @Override
+    public void close() {
+        executor.shutdownNow();
+        try {
+            executor.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (workers) {
+            for (Worker w : workers) {
+                w.close();
+            }
+            workers.clear();
+        }
+    }
+
+    private class Worker {
+        private final NativeImageLoader loader = workerLoader();
+        private final OpenCVFrameConverter.ToMat converter = new OpenCVFrameConverter.ToMat();
+        private final ImageTransform transform = (transformFactory == null ? null : transformFactory.get());
+        private BytePointer buffer;
+
+        private void decode(File file, INDArray view) throws IOException {
+            Mat encoded = read(file);
+            Mat image = imdecode(encoded, IMREAD_ANYDEPTH | IMREAD_ANYCOLOR);
+            if (image == null || image.empty()) {
+                //Not supported by OpenCV: fall back on Leptonica, as per NativeImageLoader
+                PIX pix = pixReadMem(encoded.data(), encoded.cols());
+                if (pix == null) {
+                    encoded.deallocate();
+                    throw new IOException("Could not decode image from file: " + file.getAbsolutePath());
+                }
+                image = NativeImageLoader.convert(pix);
+                pixDestroy(pix);
+            }
+            encoded.deallocate();   //Releases only the Mat header: the buffer is reused for the next image
+
+            Mat toLoad = image;
+            if (transform != null) {
+                toLoad = converter.convert(transform.transform(new ImageWritable(converter.convert(image))).getFrame());
+            } else if (sharedTransform != null) {
+                ImageWritable writable = new ImageWritable(converter.convert(image));
+                synchronized (sharedTransform) {
+                    writable = sharedTransform.transform(writable);
+                }
+                toLoad = converter.convert(writable.getFrame());
+            }
+            loader.asMatrixView(toLoad, view);
+            image.deallocate();
+        }
+
+        private Mat read(File file) throws IOException {
+            long length = file.length();
+            if (length <= 0 || length > Integer.MAX_VALUE) {
+                throw new IOException("Could not decode image from file: file is empty, does not exist or is too " +
+                        "large: " + file.getAbsolutePath());
+            }
+            if (buffer == null || buffer.capacity() < length) {
+                if (buffer != null) {
+                    buffer.deallocate();
+                }
+                buffer = new BytePointer((length / MIN_BUFFER_STEP_SIZE + 1) * MIN_BUFFER_STEP_SIZE);
+            }
+
+            ByteBuffer bb = buffer.position(0).limit(length).asByteBuffer();
+            try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+                while (bb.hasRemaining()) {
+                    if (channel.read(bb) < 0) {
+                        throw new EOFException("Unexpected end of file reading image: " + file.getAbsolutePath());
+                    }
+                }
+            }
+            return new Mat(1, (int) length, CV_8UC1, buffer);
+        }
+
+        private NativeImageLoader workerLoader() {
+            NativeImageLoader l = new NativeImageLoader(ParallelImageDecoder.this.loader);
+            l.imageTransform = null;    //Transforms are applied in decode(), not by the loader
+            return l;
+        }
+
+        private void close() {
+            if (buffer != null) {
+                buffer.deallocate();
+                buffer = null;
+            }
+        }
+    }
+}
@@ -44,14 +44,19 @@ import org.datavec.api.writable.batch.NDArrayRecordBatch;
 import org.datavec.image.loader.BaseImageLoader;
 import org.datavec.image.loader.ImageLoader;
 import org.datavec.image.loader.NativeImageLoader;
+import org.datavec.image.loader.ParallelImageDecoder;
 import org.datavec.image.transform.ImageTransform;
+import org.nd4j.common.function.Supplier;
+import org.nd4j.common.primitives.Pair;
 import org.nd4j.linalg.api.concurrency.AffinityManager;
 import org.nd4j.linalg.api.ndarray.INDArray;
 import org.nd4j.linalg.factory.Nd4j;
+import org.nd4j.linalg.indexing.NDArrayIndex;
 
 import java.io.*;
 import java.net.URI;
 import java.util.*;
+import java.util.concurrent.Future;
 
 @Slf4j
 public abstract class BaseImageRecordReader extends BaseRecordReader {
@@ -78,12 +83,35 @@ public abstract class BaseImageRecordReader extends BaseRecordReader {
     protected boolean logLabelCountOnInit = true;
     @Getter @Setter
     protected boolean nchw_channels_first = true;
+    /**
+     * Number of threads used to decode and transform images. If > 1, images are decoded in parallel, by a
+     * {@link ParallelImageDecoder}. Only used for file-based input splits with a {@link NativeImageLoader}
+     */
+    @Getter
+    protected int numDecodeThreads = 1;
+    /**
+     * Only used when decoding images in parallel, via {@link #next()}: if false, images may be returned in the order
+     * that decoding completes, rather than in the order of the input split. For {@link #next(int)}, images are always
+     * returned in the order of the input split
+     */
+    @Getter @Setter
+    protected boolean orderedOutput = true;
+    /**
+     * Optional factory for image transforms, used when decoding images in parallel: each decoding thread creates its
+     * own transform. If not set, the image transform (if any) is shared, and executed by one thread at a time
+     */
+    @Getter
+    protected Supplier<ImageTransform> imageTransformFactory;
+    protected transient ParallelImageDecoder decoder;
+    protected Deque<Pair<File, Future<INDArray>>> pendingImages = new ArrayDeque<>();
 
     public final static String HEIGHT = NAME_SPACE + ".height";
     public final static String WIDTH = NAME_SPACE + ".width";
     public final static String CHANNELS = NAME_SPACE + ".channels";
     public final static String CROP_IMAGE = NAME_SPACE + ".cropimage";
     public final static String IMAGE_LOADER = NAME_SPACE + ".imageloader";
+    public final static String DECODE_THREADS = NAME_SPACE + ".decodethreads";
+    public final static String ORDERED_OUTPUT = NAME_SPACE + ".orderedoutput";
 
     public BaseImageRecordReader() {}
 
@@ -127,6 +155,7 @@ public abstract class BaseImageRecordReader extends BaseRecordReader {
 
     @Override
     public void initialize(InputSplit split) throws IOException {
+        closeDecoder();
         if (imageLoader == null) {
             imageLoader = new NativeImageLoader(height, width, channels, imageTransform);
         }
@@ -183,6 +212,8 @@ public abstract class BaseImageRecordReader extends BaseRecordReader {
         this.width = conf.getLong(WIDTH, width);
         this.channels = conf.getLong(CHANNELS, channels);
         this.cropImage = conf.getBoolean(CROP_IMAGE, cropImage);
+        this.numDecodeThreads = conf.getInt(DECODE_THREADS, numDecodeThreads);
+        this.orderedOutput = conf.getBoolean(ORDERED_OUTPUT, orderedOutput);
         if ("imageio".equals(conf.get(IMAGE_LOADER))) {
             this.imageLoader = new ImageLoader(height, width, channels, cropImage);
         } else {
@@ -235,6 +266,9 @@ public abstract class BaseImageRecordReader extends BaseRecordReader {
                 log.error("",e);
             }
         }
+        if (iter != null && useParallelDecoder()) {
+            return nextParallel();
+        }
         if (iter != null) {
             List<Writable> ret;
             File image = iter.next();
@@ -245,25 +279,7 @@ public abstract class BaseImageRecordReader extends BaseRecordReader {
             try {
                 invokeListeners(image);
                 INDArray array = imageLoader.asMatrix(image);
-                if(!nchw_channels_first){
-                    array = array.permute(0,2,3,1);     //NCHW to NHWC
-                }
-
-                Nd4j.getAffinityManager().ensureLocation(array, AffinityManager.Location.DEVICE);
-                ret = RecordConverter.toRecord(array);
-                if (appendLabel || writeLabel){
-                    if(labelMultiGenerator != null){
-                        ret.addAll(labelMultiGenerator.getLabels(image.getPath()));
-                    } else {
-                        if (labelGenerator.inferLabelClasses()) {
-                            //Standard classification use case (i.e., handle String -> integer conversion
-                            ret.add(new IntWritable(labels.indexOf(getLabel(image.getPath()))));
-                        } else {
-                            //Regression use cases, and PathLabelGenerator instances that already map to integers
-                            ret.add(labelGenerator.getLabelForPath(image.getPath()));
-                        }
-                    }
-                }
+                ret = toRecord(array, image);
             } catch (Exception e) {
                 throw new RuntimeException(e);
             }
@@ -276,6 +292,113 @@ public abstract class BaseImageRecordReader extends BaseRecordReader {
         throw new IllegalStateException("No more elements");
     }
 
+    protected List<Writable> toRecord(INDArray array, File image) {
+        if(!nchw_channels_first){
+            array = array.permute(0,2,3,1);     //NCHW to NHWC
+        }
+
+        Nd4j.getAffinityManager().ensureLocation(array, AffinityManager.Location.DEVICE);
+        List<Writable> ret = RecordConverter.toRecord(array);
+        if (appendLabel || writeLabel){
+            if(labelMultiGenerator != null){
+                ret.addAll(labelMultiGenerator.getLabels(image.getPath()));
+            } else {
+                if (labelGenerator.inferLabelClasses()) {
+                    //Standard classification use case (i.e., handle String -> integer conversion
+                    ret.add(new IntWritable(labels.indexOf(getLabel(image.getPath()))));
+                } else {
+                    //Regression use cases, and PathLabelGenerator instances that already map to integers
+                    ret.add(labelGenerator.getLabelForPath(image.getPath()));
+                }
+            }
+        }
+        return ret;
+    }
+
+    protected List<Writable> nextParallel() {
+        prefetchImages();
+        if (pendingImages.isEmpty())
+            throw new NoSuchElementException("No more elements");
+
+        Pair<File, Future<INDArray>> p = null;
+        if (!orderedOutput) {
+            //Return any image that has already been decoded; otherwise wait for the oldest
+            for (Iterator<Pair<File, Future<INDArray>>> it = pendingImages.iterator(); it.hasNext(); ) {
+                Pair<File, Future<INDArray>> pending = it.next();
+                if (pending.getSecond().isDone()) {
+                    it.remove();
+                    p = pending;
+                    break;
+                }
+            }
+        }
+        if (p == null)
+            p = pendingImages.poll();
+
+        currentFile = p.getFirst();
+        invokeListeners(currentFile);
+        INDArray array = ParallelImageDecoder.get(p.getSecond(), currentFile);
+        prefetchImages();
+        return toRecord(array, currentFile);
+    }
+
+    /**
+     * Submit images for decoding, so that (where possible) twice as many images as decoding threads are in progress
+     */
+    protected void prefetchImages() {
+        ParallelImageDecoder d = getDecoder();
+        while (pendingImages.size() < 2 * d.getNumThreads() && iter.hasNext()) {
+            File f = iter.next();
+            if (f.isDirectory())
+                continue;
+            pendingImages.add(new Pair<>(f, d.submit(f)));
+        }
+    }
+
+    protected boolean useParallelDecoder() {
+        return numDecodeThreads > 1 && imageLoader instanceof NativeImageLoader;
+    }
+
+    protected ParallelImageDecoder getDecoder() {
+        if (decoder == null) {
+            decoder = new ParallelImageDecoder(numDecodeThreads, (NativeImageLoader) imageLoader, imageTransformFactory);
+        }
+        return decoder;
+    }
+
+    protected void cancelPendingImages() {
+        for (Pair<File, Future<INDArray>> p : pendingImages) {
+            p.getSecond().cancel(false);
+        }
+        pendingImages.clear();
+    }
+
+    protected void closeDecoder() {
+        cancelPendingImages();
+        if (decoder != null) {
+            decoder.close();
+            decoder = null;
+        }
+    }
+
+    /**
+     * Set the number of threads used to decode and transform images. See {@link #getNumDecodeThreads()}
+     */
+    public void setNumDecodeThreads(int numDecodeThreads) {
+        Preconditions.checkArgument(numDecodeThreads > 0, "Number of decode threads must be > 0: got %s", numDecodeThreads);
+        if (numDecodeThreads != this.numDecodeThreads)
+            closeDecoder();
+        this.numDecodeThreads = numDecodeThreads;
+    }
+
+    /**
+     * Set the factory used to create one image transform per decoding thread. See {@link #getImageTransformFactory()}
+     */
+    public void setImageTransformFactory(Supplier<ImageTransform> imageTransformFactory) {
+        closeDecoder();
+        this.imageTransformFactory = imageTransformFactory;
+    }
+
     @Override
     public boolean hasNext() {
         if(inputSplit instanceof InputStreamInputSplit) {
@@ -283,7 +406,7 @@ public abstract class BaseImageRecordReader extends BaseRecordReader {
         }
 
         if (iter != null) {
-            return iter.hasNext();
+            return !pendingImages.isEmpty() || iter.hasNext();
         } else if (record != null) {
             return !hitImage;
         }
@@ -304,6 +427,8 @@ public abstract class BaseImageRecordReader extends BaseRecordReader {
         }
 
         List<File> currBatch = new ArrayList<>();
+        //Images already submitted for decoding by next()
+        List<Future<INDArray>> prefetched = new ArrayList<>();
 
         int cnt = 0;
 
@@ -311,8 +436,14 @@ public abstract class BaseImageRecordReader extends BaseRecordReader {
         List<Integer> currLabels = null;
         List<Writable> currLabelsWritable = null;
         List<List<Writable>> multiGenLabels = null;
-        while (cnt < num && iter.hasNext()) {
-            currentFile = iter.next();
+        while (cnt < num && (!pendingImages.isEmpty() || iter.hasNext())) {
+            if (!pendingImages.isEmpty()) {
+                Pair<File, Future<INDArray>> p = pendingImages.poll();
+                currentFile = p.getFirst();
+                prefetched.add(p.getSecond());
+            } else {
+                currentFile = iter.next();
+            }
             currBatch.add(currentFile);
             invokeListeners(currentFile);
             if (appendLabel || writeLabel) {
@@ -339,13 +470,32 @@ public abstract class BaseImageRecordReader extends BaseRecordReader {
 
         INDArray features = Nd4j.createUninitialized(new long[] {cnt, channels, height, width}, 'c');
         Nd4j.getAffinityManager().tagLocation(features, AffinityManager.Location.HOST);
-        for (int i = 0; i < cnt; i++) {
-            try {
-                ((NativeImageLoader) imageLoader).asMatrixView(currBatch.get(i),
-                        features.tensorAlongDimension(i, 1, 2, 3));
-            } catch (Exception e) {
-                System.out.println("Image file failed during load: " + currBatch.get(i).getAbsolutePath());
-                throw new RuntimeException(e);
+        //Images submitted by next() that have not started decoding yet are decoded directly into the batch array instead
+        List<Future<?>> redirected = new ArrayList<>(prefetched.size());
+        for (int i = 0; i < prefetched.size(); i++) {
+            redirected.add(prefetched.get(i).cancel(false) ?
+                    getDecoder().submit(currBatch.get(i), features.tensorAlongDimension(i, 1, 2, 3)) : null);
+        }
+        if (useParallelDecoder() && cnt > prefetched.size()) {
+            //Decode directly into the batch array, in parallel
+            getDecoder().decode(currBatch.subList(prefetched.size(), cnt),
+                    features.get(NDArrayIndex.interval(prefetched.size(), cnt), NDArrayIndex.all(), NDArrayIndex.all(), NDArrayIndex.all()));
+        } else {
+            for (int i = prefetched.size(); i < cnt; i++) {
+                try {
+                    ((NativeImageLoader) imageLoader).asMatrixView(currBatch.get(i),
+                            features.tensorAlongDimension(i, 1, 2, 3));
+                } catch (Exception e) {
+                    System.out.println("Image file failed during load: " + currBatch.get(i).getAbsolutePath());
+                    throw new RuntimeException(e);
+                }
+            }
+        }
+        for (int i = 0; i < prefetched.size(); i++) {
+            if (redirected.get(i) != null) {
+                ParallelImageDecoder.get(redirected.get(i), currBatch.get(i));
+            } else {
+                features.tensorAlongDimension(i, 1, 2, 3).assign(ParallelImageDecoder.get(prefetched.get(i), currBatch.get(i)));
             }
         }
         if(!nchw_channels_first){
@@ -400,7 +550,7 @@ public abstract class BaseImageRecordReader extends BaseRecordReader {
 
     @Override
     public void close() throws IOException {
-        //No op
+        closeDecoder();
     }
 
     @Override
@@ -469,6 +619,7 @@ public abstract class BaseImageRecordReader extends BaseRecordReader {
         if (inputSplit == null)
             throw new UnsupportedOperationException("Cannot reset without first initializing");
         inputSplit.reset();
+        cancelPendingImages();
         if (iter != null) {
             iter = new FileFromPathIterator(inputSplit.locationsPathIterator());
         } else if (record != null) {
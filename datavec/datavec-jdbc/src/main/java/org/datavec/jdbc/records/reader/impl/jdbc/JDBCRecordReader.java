@@ -26,13 +26,16 @@ import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.sql.Types;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.Properties;
 import javax.sql.DataSource;
 import lombok.Setter;
@@ -45,10 +48,31 @@ import org.datavec.api.records.metadata.RecordMetaData;
 import org.datavec.jdbc.records.metadata.RecordMetaDataJdbc;
 import org.datavec.api.records.reader.BaseRecordReader;
 import org.datavec.api.split.InputSplit;
+import org.datavec.api.transform.schema.Schema;
+import org.datavec.api.writable.batch.PrimitiveColumnarRecordBatch;
+import org.datavec.jdbc.split.JdbcRangeSplit;
 import org.datavec.jdbc.util.JdbcWritableConverter;
 import org.datavec.jdbc.util.ResettableResultSetIterator;
 import org.datavec.api.writable.Writable;
 
+/**
+ * Record reader that iterates over the results of a SQL query.<br>
+ * <br>
+ * Large tables can be streamed, rather than loaded into memory at once, by using a forward only result set
+ * ({@link #setResultSetType(int)} with {@link ResultSet#TYPE_FORWARD_ONLY}) and a fetch size ({@link #setFetchSize(int)}),
+ * which is the number of rows the driver retrieves from the database per round trip. Note that some drivers have
+ * additional requirements for cursor based fetching: for example PostgreSQL only uses a cursor when auto-commit is
+ * disabled on the connection. Forward only result sets can't be reset: create a new reader to read the data again.<br>
+ * <br>
+ * If enabled ({@link #setColumnarBatches(boolean)}, disabled by default), {@link #next(int)} returns columnar batches
+ * ({@link PrimitiveColumnarRecordBatch}), read with the typed getters of the result set, when all columns have a
+ * supported SQL type and the rows of the batch contain no SQL NULLs. Otherwise batches are returned as standard lists
+ * of records.<br>
+ * <br>
+ * Initializing the reader with a {@link JdbcRangeSplit} restricts it to a range of a numeric key column. Combined with
+ * {@link JdbcRangeSplit#partition(DataSource, String, String, int)}, this allows a query to be read in parallel over
+ * several connections, with one reader per partition.
+ */
 public class JDBCRecordReader extends BaseRecordReader {
 
     private final String query;
@@ -62,7 +86,14 @@ public class JDBCRecordReader extends BaseRecordReader {
     @Setter
     private int resultSetType = ResultSet.TYPE_SCROLL_INSENSITIVE;
     @Setter
+    private int fetchSize = 0;
+    @Setter
+    private boolean columnarBatches = false;
+    @Setter
     private DataSource dataSource;
+    private JdbcRangeSplit rangeSplit;
+    private Schema batchSchema;
+    private boolean batchSchemaChecked;
     private final String metadataQuery;
     private final int[] metadataIndices;
 
@@ -72,6 +103,8 @@ public class JDBCRecordReader extends BaseRecordReader {
     public final static String JDBC_USERNAME = NAME_SPACE + ".jdbcUsername";
     public final static String JDBC_PASSWORD = NAME_SPACE + ".jdbcPassword";
     public final static String JDBC_RESULTSET_TYPE = NAME_SPACE + ".resultSetType";
+    public final static String JDBC_FETCH_SIZE = NAME_SPACE + ".fetchSize";
+    public final static String JDBC_COLUMNAR_BATCHES = NAME_SPACE + ".columnarBatches";
 
     /**
      * Build a new JDBCRecordReader with a given query. After constructing the reader in this way, the initialize method
@@ -118,13 +151,14 @@ public class JDBCRecordReader extends BaseRecordReader {
     /**
      * Initialize all required jdbc elements and make the reader ready for iteration.
      *
-     * @param split not handled yet, will be discarded
+     * @param split a {@link JdbcRangeSplit} to read only a range of the query results; other splits are discarded
      */
     @Override
     public void initialize(InputSplit split) throws IOException, InterruptedException {
         if (dataSource == null) {
             throw new IllegalStateException("Cannot initialize : no datasource");
         }
+        this.rangeSplit = split instanceof JdbcRangeSplit ? (JdbcRangeSplit) split : null;
         initializeJdbc();
     }
 
@@ -138,6 +172,10 @@ public class JDBCRecordReader extends BaseRecordReader {
      *     <li>JDBCRecordReader.JDBC_DRIVER_CLASS_NAME : Driver class to use for datasource configuration</li>
      *     <li>JDBCRecordReader.JDBC_USERNAME && JDBC_PASSWORD : Username and password to use for datasource configuration</li>
      *     <li>JDBCRecordReader.JDBC_RESULTSET_TYPE : ResultSet type to use (int value defined in jdbc doc)</li>
+     *     <li>JDBCRecordReader.JDBC_FETCH_SIZE : Number of rows to fetch from the database per round trip. 0 (the
+     *     default) leaves the choice to the driver</li>
+     *     <li>JDBCRecordReader.JDBC_COLUMNAR_BATCHES : Whether {@link #next(int)} returns columnar batches where possible.
+     *     False by default</li>
      * </ol>
      *
      * Url and driver class name are not mandatory. If one of them is specified, the other must be specified as well. If
@@ -145,13 +183,16 @@ public class JDBCRecordReader extends BaseRecordReader {
      * newly created one.
      *
      * @param conf a configuration for initialization
-     * @param split not handled yet, will be discarded
+     * @param split a {@link JdbcRangeSplit} to read only a range of the query results; other splits are discarded
      */
     @Override
     public void initialize(Configuration conf, InputSplit split) throws IOException, InterruptedException {
         this.setConf(conf);
         this.setTrimStrings(conf.getBoolean(TRIM_STRINGS, trimStrings));
         this.setResultSetType(conf.getInt(JDBC_RESULTSET_TYPE, resultSetType));
+        this.setFetchSize(conf.getInt(JDBC_FETCH_SIZE, fetchSize));
+        this.setColumnarBatches(conf.getBoolean(JDBC_COLUMNAR_BATCHES, columnarBatches));
+        this.rangeSplit = split instanceof JdbcRangeSplit ? (JdbcRangeSplit) split : null;
 
         String jdbcUrl = conf.get(JDBC_URL);
         String driverClassName = conf.get(JDBC_DRIVER_CLASS_NAME);
@@ -172,17 +213,37 @@ public class JDBCRecordReader extends BaseRecordReader {
     private void initializeJdbc() {
         try {
             this.conn = dataSource.getConnection();
-            this.statement = conn.createStatement(this.resultSetType, ResultSet.CONCUR_READ_ONLY);
-            this.statement.closeOnCompletion();
-            ResultSet rs = statement.executeQuery(this.query);
+            ResultSet rs;
+            if (rangeSplit != null) {
+                PreparedStatement ps = conn.prepareStatement(rangeSplit.restrict(this.query), this.resultSetType,
+                    ResultSet.CONCUR_READ_ONLY);
+                ps.setLong(1, rangeSplit.getLower());
+                ps.setLong(2, rangeSplit.getUpper());
+                this.statement = ps;
+                setStatementOptions();
+                rs = ps.executeQuery();
+            } else {
+                this.statement = conn.createStatement(this.resultSetType, ResultSet.CONCUR_READ_ONLY);
+                setStatementOptions();
+                rs = statement.executeQuery(this.query);
+            }
             this.meta = rs.getMetaData();
             this.iter = new ResettableResultSetIterator(rs);
+            this.batchSchema = null;
+            this.batchSchemaChecked = false;
         } catch (SQLException e) {
             closeJdbc();
             throw new RuntimeException("Could not connect to the database", e);
         }
     }
 
+    private void setStatementOptions() throws SQLException {
+        this.statement.closeOnCompletion();
+        if (fetchSize > 0) {
+            this.statement.setFetchSize(fetchSize);
+        }
+    }
+
     @Override
     public List<Writable> next() {
         Object[] next = iter.next();
@@ -211,6 +272,156 @@ public class JDBCRecordReader extends BaseRecordReader {
         return ret;
     }
 
+    @Override
+    public boolean batchesSupported() {
+        return columnarBatches;
+    }
+
+    /**
+     * Get the next (up to) num records. If columnar batches are enabled, these are returned where possible as a
+     * {@link PrimitiveColumnarRecordBatch}, read directly from the result set without creating per-value objects - see
+     * class javadoc for details.
+     */
+    @Override
+    public List<List<Writable>> next(int num) {
+        if (!hasNext()) {
+            throw new NoSuchElementException("No next element");
+        }
+        Schema schema = columnarBatches ? batchSchema() : null;
+        if (schema == null) {
+            return nextRows(num, new ArrayList<List<Writable>>(num));
+        }
+
+        PrimitiveColumnarRecordBatch batch = PrimitiveColumnarRecordBatch.allocate(schema, num);
+        int n = 0;
+        while (n < num && iter.hasNext()) {
+            ResultSet rs = iter.nextRow();
+            if (!readRow(rs, batch, n)) {
+                //SQL NULL, which columnar batches can't represent: return this batch row-wise instead
+                batch.setSize(n);
+                List<List<Writable>> out = new ArrayList<>(num);
+                for (int i = 0; i < n; i++) {
+                    List<Writable> record = batch.get(i);
+                    invokeListeners(record);
+                    out.add(record);
+                }
+                out.add(toWritable(ResettableResultSetIterator.currentRow(rs)));
+                return nextRows(num, out);
+            }
+            n++;
+        }
+        batch.setSize(n);
+        if (!listeners.isEmpty()) {
+            for (int i = 0; i < n; i++) {
+                invokeListeners(batch.get(i));
+            }
+        }
+        return batch;
+    }
+
+    private List<List<Writable>> nextRows(int num, List<List<Writable>> out) {
+        while (out.size() < num && iter.hasNext()) {
+            out.add(toWritable(iter.next()));
+        }
+        return out;
+    }
+
+    /**
+     * Read the current row of the result set into the batch
+     *
+     * @return false if the row contains a SQL NULL (in which case the batch row is incomplete)
+     */
+    private boolean readRow(ResultSet rs, PrimitiveColumnarRecordBatch batch, int row) {
+        try {
+            for (int c = 0; c < batch.numColumns(); c++) {
+                Object data = batch.getColumnData(c);
+                int idx = c + 1;
+                if (data instanceof double[]) {
+                    ((double[]) data)[row] = rs.getDouble(idx);
+                } else if (data instanceof float[]) {
+                    ((float[]) data)[row] = rs.getFloat(idx);
+                } else if (data instanceof int[]) {
+                    ((int[]) data)[row] = rs.getInt(idx);
+                } else if (data instanceof long[]) {
+                    ((long[]) data)[row] = rs.getLong(idx);
+                } else if (data instanceof boolean[]) {
+                    ((boolean[]) data)[row] = rs.getBoolean(idx);
+                } else {
+                    Object value = rs.getObject(idx);
+                    if (value != null) {
+                        String str = value.toString();
+                        ((String[]) data)[row] = trimStrings ? str.trim() : str;
+                    }
+                }
+                if (rs.wasNull()) {
+                    return false;
+                }
+            }
+            return true;
+        } catch (SQLException e) {
+            closeJdbc();
+            throw new RuntimeException("Error reading from the database", e);
+        }
+    }
+
+    /**
+     * Schema for columnar batches, derived from the result set metadata. Null if any column has a SQL type that
+     * columnar batches don't support
+     */
+    private Schema batchSchema() {
+        if (batchSchemaChecked) {
+            return batchSchema;
+        }
+        batchSchemaChecked = true;
+        try {
+            Schema.Builder b = new Schema.Builder();
+            for (int i = 1; i <= meta.getColumnCount(); i++) {
+                String name = meta.getColumnLabel(i);
+                switch (meta.getColumnType(i)) {
+                    case Types.BOOLEAN:
+                    case Types.BIT:
+                        b.addColumnBoolean(name);
+                        break;
+                    case Types.FLOAT:
+                    case Types.REAL:
+                        b.addColumnFloat(name);
+                        break;
+                    case Types.DECIMAL:
+                    case Types.NUMERIC:
+                    case Types.DOUBLE:
+                        b.addColumnDouble(name);
+                        break;
+                    case Types.INTEGER:
+                    case Types.SMALLINT:
+                    case Types.TINYINT:
+                        b.addColumnInteger(name);
+                        break;
+                    case Types.BIGINT:
+                        b.addColumnLong(name);
+                        break;
+                    case Types.DATE:
+                    case Types.TIME:
+                    case Types.TIMESTAMP:
+                    case Types.CHAR:
+                    case Types.LONGVARCHAR:
+                    case Types.LONGNVARCHAR:
+                    case Types.NCHAR:
+                    case Types.NVARCHAR:
+                    case Types.VARCHAR:
+                        b.addColumnString(name);
+                        break;
+                    default:
+                        return null;
+                }
+            }
+            batchSchema = b.build();
+        } catch (SQLException e) {
+            closeJdbc();
+            throw new RuntimeException("Error reading database metadata", e);
+        }
+        return batchSchema;
+    }
+
     @Override
     public boolean hasNext() {
         return iter.hasNext();
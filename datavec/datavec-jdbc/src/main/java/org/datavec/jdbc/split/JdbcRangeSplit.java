@@ -0,0 +1,207 @@
+/*
+ *  ******************************************************************************
+ *  *
+ *  *
+ *  * This program and the accompanying materials are made available under the
+ *  * terms of the Apache License, Version 2.0 which is available at
+ *  * https://www.apache.org/licenses/LICENSE-2.0.
+ *  *
+ *  *  See the NOTICE file distributed with this work for additional
+ *  *  information regarding copyright ownership.
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ *  * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ *  * License for the specific language governing permissions and limitations
+ *  * under the License.
+ *  *
+ *  * SPDX-License-Identifier: Apache-2.0
+ *  *****************************************************************************
+ */
+
+package org.datavec.jdbc.split;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collections;
+import java.util.Iterator;
+import javax.sql.DataSource;
+import lombok.Getter;
+import lombok.NonNull;
+import org.datavec.api.split.InputSplit;
+import org.nd4j.common.base.Preconditions;
+
+/**
+ * An {@link InputSplit} describing a range of values of a numeric (integer) key column, for partitioned reads with
+ * {@link org.datavec.jdbc.records.reader.impl.jdbc.JDBCRecordReader}.<br>
+ * When a JDBCRecordReader is initialized with a JdbcRangeSplit, only the rows of its query with
+ * {@code lower <= column < upper} (or {@code lower <= column <= upper} if the upper bound is inclusive) are read.
+ * Rows with a null key are not part of any range.<br>
+ * Use {@link #partition(DataSource, String, String, int)} to split a query into contiguous ranges that can be read in
+ * parallel, with one connection per range - for example with the partitioned builder of
+ * {@code ParallelRecordReaderDataSetIterator}. Ranges are of equal width, so the key should be roughly uniformly
+ * distributed (such as an auto-generated id) for partitions to be balanced.
+ */
+@Getter
+public class JdbcRangeSplit implements InputSplit {
+
+    private final String column;
+    private final long lower;
+    private final long upper;
+    private final boolean upperInclusive;
+
+    /**
+     * @param column         Name of the key column
+     * @param lower          Lower bound (inclusive) of the key
+     * @param upper          Upper bound of the key
+     * @param upperInclusive Whether rows with key == upper are included
+     */
+    public JdbcRangeSplit(@NonNull String column, long lower, long upper, boolean upperInclusive) {
+        Preconditions.checkArgument(lower <= upper, "Lower bound (%s) must not exceed upper bound (%s)", lower, upper);
+        this.column = column;
+        this.lower = lower;
+        this.upper = upper;
+        this.upperInclusive = upperInclusive;
+    }
+
+    /**
+     * Split the specified query into range partitions over the key column. The minimum and maximum values of the key
+     * are looked up with a single aggregate query, and the range between them is split into (up to) numPartitions
+     * contiguous ranges of equal width, the last one being inclusive of the maximum.
+     *
+     * @param dataSource    Data source to query the key bounds with
+     * @param query         Query that will be read by the record readers
+     * @param column        Name of the numeric key column in the query results
+     * @param numPartitions Number of partitions
+     * @return The partitions; a single partition if the query has no rows
+     */
+    public static JdbcRangeSplit[] partition(@NonNull DataSource dataSource, @NonNull String query,
+                                             @NonNull String column, int numPartitions) {
+        Preconditions.checkArgument(numPartitions > 0, "Number of partitions must be positive, got %s", numPartitions);
+        long min;
+        long max;
+        try (Connection conn = dataSource.getConnection();
+             Statement statement = conn.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT MIN(" + column + "), MAX(" + column + ") FROM ("
+                     + query + ") jdbc_bounds")) {
+            rs.next();
+            min = rs.getLong(1);
+            if (rs.wasNull()) {
+                return new JdbcRangeSplit[]{new JdbcRangeSplit(column, Long.MIN_VALUE, Long.MAX_VALUE, true)};
+            }
+            max = rs.getLong(2);
+        } catch (SQLException e) {
+            throw new RuntimeException("Could not query bounds of column \"" + column + "\"", e);
+        }
+        return partition(column, min, max, numPartitions);
+    }
+
+    /**
+     * Split the key range [min, max] into (up to) numPartitions contiguous ranges of equal width, the last one being
+     * inclusive of max. Fewer partitions are returned if the range contains fewer than numPartitions values.
+     */
+    public static JdbcRangeSplit[] partition(@NonNull String column, long min, long max, int numPartitions) {
+        Preconditions.checkArgument(min <= max, "Minimum (%s) must not exceed maximum (%s)", min, max);
+        Preconditions.checkArgument(numPartitions > 0, "Number of partitions must be positive, got %s", numPartitions);
+        //Compute the range as a double to avoid overflow of (max - min) for very wide ranges
+        double range = (double) max - (double) min + 1;
+        int n = (int) Math.min(numPartitions, range);
+        double width = range / n;
+        JdbcRangeSplit[] out = new JdbcRangeSplit[n];
+        long start = min;
+        for (int i = 0; i < n; i++) {
+            long end = (i == n - 1) ? max : Math.max(start, min + (long) Math.floor(width * (i + 1)));
+            out[i] = new JdbcRangeSplit(column, start, end, i == n - 1);
+            start = end;
+        }
+        return out;
+    }
+
+    /**
+     * Wrap the specified query so that only the rows in this range are returned. The bounds are parameters 1 and 2 of
+     * the returned query - see {@link #getLower()} and {@link #getUpper()}
+     */
+    public String restrict(@NonNull String query) {
+        return "SELECT * FROM (" + query + ") jdbc_partition WHERE " + column + " >= ? AND " + column
+                + (upperInclusive ? " <= ?" : " < ?");
+    }
+
+    @Override
+    public boolean canWriteToLocation(URI location) {
+        return false;
+    }
+
+    @Override
+    public String addNewLocation() {
+        return null;
+    }
+
+    @Override
+    public String addNewLocation(String location) {
+        return null;
+    }
+
+    @Override
+    public void updateSplitLocations(boolean reset) {
+
+    }
+
+    @Override
+    public boolean needsBootstrapForWrite() {
+        return false;
+    }
+
+    @Override
+    public void bootStrapForWrite() {
+
+    }
+
+    @Override
+    public OutputStream openOutputStreamFor(String location) throws Exception {
+        return null;
+    }
+
+    @Override
+    public InputStream openInputStreamFor(String location) throws Exception {
+        return null;
+    }
+
+    @Override
+    public long length() {
+        return 0;
+    }
+
+    @Override
+    public URI[] locations() {
+        return new URI[0];
+    }
+
+    @Override
+    public Iterator<URI> locationsIterator() {
+        return Collections.emptyIterator();
+    }
+
+    @Override
+    public Iterator<String> locationsPathIterator() {
+        return Collections.emptyIterator();
+    }
+
+    @Override
+    public void reset() {
+        //No op
+    }
+
+    @Override
+    public boolean resetSupported() {
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return "JdbcRangeSplit(" + column + " in [" + lower + ", " + upper + (upperInclusive ? "])" : "))");
+    }
+}
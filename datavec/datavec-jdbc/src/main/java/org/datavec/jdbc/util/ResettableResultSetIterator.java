@@ -23,21 +23,27 @@ package org.datavec.jdbc.util;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.Iterator;
-import org.apache.commons.dbutils.ResultSetIterator;
+import java.util.NoSuchElementException;
 
+/**
+ * Iterator over the rows of a {@link ResultSet}, as arrays of column values.<br>
+ * Rows are looked up with {@link ResultSet#next()} only, so this works with forward only (streaming) result sets;
+ * {@link #reset()} however requires a scrollable result set.
+ */
 public class ResettableResultSetIterator implements Iterator<Object[]> {
 
     private ResultSet rs;
-    private ResultSetIterator base;
+    //Null if the cursor hasn't been advanced since the last row was returned
+    private Boolean hasNext;
 
     public ResettableResultSetIterator(ResultSet rs) {
         this.rs = rs;
-        this.base = new ResultSetIterator(rs);
     }
 
     public void reset() {
         try {
             this.rs.beforeFirst();
+            this.hasNext = null;
         } catch (SQLException e) {
             throw new RuntimeException("Could not reset ResultSetIterator", e);
         }
@@ -45,16 +51,50 @@ public class ResettableResultSetIterator implements Iterator<Object[]> {
 
     @Override
     public boolean hasNext() {
-        return this.base.hasNext();
+        if (hasNext == null) {
+            try {
+                hasNext = rs.next();
+            } catch (SQLException e) {
+                throw new RuntimeException("Could not advance ResultSet", e);
+            }
+        }
+        return hasNext;
     }
 
     @Override
     public Object[] next() {
-        return base.next();
+        return currentRow(nextRow());
+    }
+
+    /**
+     * Advance to the next row, and return the result set positioned on it. This allows the values of the row to be
+     * read directly with the typed getters of the result set, instead of as objects via {@link #next()}
+     */
+    public ResultSet nextRow() {
+        if (!hasNext()) {
+            throw new NoSuchElementException("No next element");
+        }
+        hasNext = null;
+        return rs;
+    }
+
+    /**
+     * Get the values of the row the result set is currently positioned on
+     */
+    public static Object[] currentRow(ResultSet rs) {
+        try {
+            Object[] out = new Object[rs.getMetaData().getColumnCount()];
+            for (int i = 0; i < out.length; i++) {
+                out[i] = rs.getObject(i + 1);
+            }
+            return out;
+        } catch (SQLException e) {
+            throw new RuntimeException("Could not read ResultSet row", e);
+        }
     }
 
     @Override
     public void remove() {
-        base.remove();
+        throw new UnsupportedOperationException("Removing rows from the ResultSet is not supported");
     }
 }
@@ -27,6 +27,7 @@ import org.datavec.api.transform.analysis.AnalysisCounter;
 import org.datavec.api.transform.analysis.DataAnalysis;
 import org.datavec.api.transform.analysis.DataVecAnalysisUtils;
 import org.datavec.api.transform.analysis.columns.ColumnAnalysis;
+import org.datavec.api.transform.analysis.counter.ColumnSketchCounter;
 import org.datavec.api.transform.analysis.histogram.HistogramCounter;
 import org.datavec.api.transform.analysis.quality.QualityAnalysisAddFunction;
 import org.datavec.api.transform.analysis.quality.QualityAnalysisState;
@@ -35,12 +36,18 @@ import org.datavec.api.transform.quality.columns.ColumnQuality;
 import org.datavec.api.transform.schema.Schema;
 import org.datavec.api.writable.Writable;
 import org.datavec.local.transforms.analysis.aggregate.AnalysisAddFunction;
+import org.datavec.local.transforms.analysis.aggregate.AnalysisCombineFunction;
 import org.datavec.local.transforms.analysis.histogram.HistogramAddFunction;
 
 import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
 public class AnalyzeLocal {
     private static final int DEFAULT_MAX_HISTOGRAM_BUCKETS = 30;
+    private static final int PARALLEL_BATCH_SIZE = 1024;
 
     /**
      * Analyse the specified data - returns a DataAnalysis object with summary information about each column
@@ -89,6 +96,138 @@ public class AnalyzeLocal {
     }
 
 
+    /**
+     * Analyse the specified data in a single pass, using multiple threads. Batches of records are read from the
+     * record reader and analyzed in parallel; the per-thread results are then merged.<br>
+     * Unlike {@link #analyze(Schema, RecordReader, int)}, the histograms are approximate: they are derived from
+     * mergeable t-digest sketches rather than computed exactly in a second pass over the data. The analysis
+     * also includes approximate distinct value counts (from HyperLogLog sketches) for numerical and String columns.
+     * No histograms are computed for NDArray columns.
+     * Quantiles are available for numerical columns via {@link org.datavec.api.transform.analysis.columns.NumericalColumnAnalysis#getDigest()}.<br>
+     * For large CSV files, use this with {@link org.datavec.api.records.reader.impl.csv.ParallelCSVRecordReader} so
+     * that parsing is also done in parallel.
+     *
+     * @param schema              Schema for data
+     * @param rr                  Data to analyze
+     * @param maxHistogramBuckets Number of histogram buckets
+     * @param numThreads          Number of threads to use for analysis
+     * @return DataAnalysis for data
+     */
+    public static DataAnalysis analyze(final Schema schema, RecordReader rr, int maxHistogramBuckets, int numThreads) {
+        if (numThreads <= 0)
+            throw new IllegalArgumentException("Number of threads must be > 0, got " + numThreads);
+
+        final BlockingQueue<List<List<Writable>>> queue = new ArrayBlockingQueue<>(2 * numThreads);
+        final List<List<Writable>> end = new ArrayList<>();
+        final AtomicReference<Throwable> error = new AtomicReference<>();
+        final AnalysisPartition[] partitions = new AnalysisPartition[numThreads];
+        Thread[] threads = new Thread[numThreads];
+        for (int i = 0; i < numThreads; i++) {
+            final AnalysisPartition p = new AnalysisPartition(schema);
+            partitions[i] = p;
+            threads[i] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        List<List<Writable>> batch;
+                        while ((batch = queue.take()) != end) {
+                            for (List<Writable> record : batch) {
+                                p.add(record);
+                            }
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    } catch (Throwable t) {
+                        error.compareAndSet(null, t);
+                    }
+                }
+            }, "AnalyzeLocal-" + i);
+            threads[i].setDaemon(true);
+            threads[i].start();
+        }
+
+        try {
+            while (rr.hasNext() && error.get() == null) {
+                List<List<Writable>> batch;
+                if (rr.batchesSupported()) {
+                    batch = rr.next(PARALLEL_BATCH_SIZE);
+                } else {
+                    batch = new ArrayList<>(PARALLEL_BATCH_SIZE);
+                    for (int i = 0; i < PARALLEL_BATCH_SIZE && rr.hasNext(); i++) {
+                        batch.add(rr.next());
+                    }
+                }
+                //Don't block forever if the workers have failed
+                while (!queue.offer(batch, 100, TimeUnit.MILLISECONDS)) {
+                    if (error.get() != null)
+                        break;
+                }
+            }
+            for (Thread t : threads) {
+                while (t.isAlive() && !queue.offer(end, 100, TimeUnit.MILLISECONDS)) {
+                    //Queue full - workers still processing
+                }
+            }
+            for (Thread t : threads) {
+                t.join();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            for (Thread t : threads) {
+                t.interrupt();
+            }
+            throw new RuntimeException("Interrupted during analysis", e);
+        }
+
+        if (error.get() != null) {
+            throw new RuntimeException("Error during parallel analysis", error.get());
+        }
+
+        AnalysisPartition merged = partitions[0];
+        for (int i = 1; i < numThreads; i++) {
+            merged.merge(partitions[i]);
+        }
+        if (merged.counters == null) {
+            throw new IllegalStateException("Cannot analyze data: no records");
+        }
+
+        double[][] minsMaxes = new double[merged.counters.size()][2];
+        List<ColumnAnalysis> list = DataVecAnalysisUtils.convertCounters(merged.counters, minsMaxes, schema.getColumnTypes());
+        DataVecAnalysisUtils.mergeSketches(list, merged.sketches, minsMaxes, maxHistogramBuckets);
+        return new DataAnalysis(schema, list);
+    }
+
+    /**
+     * Analysis counters and sketches for a subset of the data
+     */
+    private static class AnalysisPartition {
+        private final AnalysisAddFunction addFn;
+        private List<AnalysisCounter> counters;
+        private final List<ColumnSketchCounter> sketches;
+
+        private AnalysisPartition(Schema schema) {
+            this.addFn = new AnalysisAddFunction(schema);
+            this.sketches = new ArrayList<>(schema.numColumns());
+            for (ColumnType ct : schema.getColumnTypes()) {
+                sketches.add(new ColumnSketchCounter(ct));
+            }
+        }
+
+        private void add(List<Writable> record) {
+            counters = addFn.apply(counters, record);
+            for (int i = 0; i < sketches.size(); i++) {
+                sketches.get(i).add(record.get(i));
+            }
+        }
+
+        private void merge(AnalysisPartition other) {
+            counters = new AnalysisCombineFunction().apply(counters, other.counters);
+            for (int i = 0; i < sketches.size(); i++) {
+                sketches.get(i).merge(other.sketches.get(i));
+            }
+        }
+    }
+
     /**
      * Analyze the data quality of sequence data - provides a report on missing values, values that don't comply with schema, etc
      * @param schema Schema for data
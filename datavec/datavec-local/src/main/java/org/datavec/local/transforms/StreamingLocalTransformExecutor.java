@@ -0,0 +1,684 @@
+/*
+ *  ******************************************************************************
+ *  *
+ *  *
+ *  * This program and the accompanying materials are made available under the
+ *  * terms of the Apache License, Version 2.0 which is available at
+ *  * https://www.apache.org/licenses/LICENSE-2.0.
+ *  *
+ *  *  See the NOTICE file distributed with this work for additional
+ *  *  information regarding copyright ownership.
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ *  * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ *  * License for the specific language governing permissions and limitations
+ *  * under the License.
+ *  *
+ *  * SPDX-License-Identifier: Apache-2.0
+ *  *****************************************************************************
+ */
+
+package org.datavec.local.transforms;
+
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.datavec.api.transform.DataAction;
+import org.datavec.api.transform.Transform;
+import org.datavec.api.transform.TransformProcess;
+import org.datavec.api.transform.filter.Filter;
+import org.datavec.api.transform.join.Join;
+import org.datavec.api.transform.ops.IAggregableReduceOp;
+import org.datavec.api.transform.rank.CalculateSortedRank;
+import org.datavec.api.transform.reduce.IAssociativeReducer;
+import org.datavec.api.transform.schema.SequenceSchema;
+import org.datavec.api.transform.sequence.ConvertToSequence;
+import org.datavec.api.writable.Text;
+import org.datavec.api.writable.Writable;
+import org.datavec.local.transforms.join.ExecuteJoinFromCoGroupFlatMapFunction;
+import org.datavec.local.transforms.join.ExtractKeysFunction;
+import org.datavec.local.transforms.rank.UnzipForCalculateSortedRankFunction;
+import org.datavec.local.transforms.reduce.MapToPairForReducerFunction;
+import org.datavec.local.transforms.sequence.*;
+import org.datavec.local.transforms.spill.ExternalSorter;
+import org.datavec.local.transforms.transform.LocalTransformFunction;
+import org.datavec.local.transforms.transform.SequenceSplitFunction;
+import org.datavec.local.transforms.transform.filter.LocalFilterFunction;
+import org.nd4j.common.base.Preconditions;
+import org.nd4j.common.function.Consumer;
+import org.nd4j.common.primitives.Pair;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A streaming alternative to {@link LocalTransformExecutor}, for data sets that do not fit in memory.<br>
+ * Unlike LocalTransformExecutor, which materializes the full data set after every step, this executor:<br>
+ * - Pipelines consecutive stateless steps (transforms, filters, sequence splits, conversions to/from single-step
+ * sequences) record by record, processing minibatches of records in parallel on a thread pool. Record order is
+ * preserved<br>
+ * - Executes stateful steps (reductions, conversion to sequences by key, sorted rank calculation) and joins using an
+ * external sort: data is buffered in memory up to the configured memory limit, then spilled to disk in sorted runs, which
+ * are merged when the step's output is consumed<br>
+ * Peak memory use is approximately {@code maxMemoryBytes} for the sort buffers, plus {@code 2 * numThreads * batchSize}
+ * records in flight in the pipelined steps. Note that all records for a single key (one sequence, or one join key) are
+ * held in memory when grouped.<br>
+ * Output is passed to a {@link Consumer} as it is produced, rather than collected into a list. Unlike
+ * LocalTransformExecutor, the output of reductions and conversions to sequences is ordered by key.
+ */
+@Slf4j
+public class StreamingLocalTransformExecutor {
+    public static final int DEFAULT_BATCH_SIZE = 1024;
+    public static final long DEFAULT_MAX_MEMORY_BYTES = 256L * 1024 * 1024;
+
+    //Order for keys in the external sort. Keys for grouping operations are the String representation of the key columns
+    private static final Comparator<Writable> STRING_KEY_ORDER = new Comparator<Writable>() {
+        @Override
+        public int compare(Writable w1, Writable w2) {
+            return w1.toString().compareTo(w2.toString());
+        }
+    };
+
+    private final int numThreads;
+    private final int batchSize;
+    private final long maxMemoryBytes;
+    private final File spillDirectory;
+
+    private StreamingLocalTransformExecutor(Builder builder) {
+        this.numThreads = builder.numThreads;
+        this.batchSize = builder.batchSize;
+        this.maxMemoryBytes = builder.maxMemoryBytes;
+        this.spillDirectory = builder.spillDirectory;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Execute the specified TransformProcess with the given input data<br>
+     * Note: this method can only be used if the TransformProcess returns non-sequence data. For TransformProcesses
+     * that return a sequence, use {@link #executeToSequence(Iterator, TransformProcess, Consumer)}
+     *
+     * @param input            Input data to process
+     * @param transformProcess TransformProcess to execute
+     * @param output           Consumer for the processed data
+     */
+    public void execute(@NonNull Iterator<List<Writable>> input, @NonNull TransformProcess transformProcess,
+                        @NonNull Consumer<List<Writable>> output) {
+        if (transformProcess.getFinalSchema() instanceof SequenceSchema) {
+            throw new IllegalStateException("Cannot return sequence data with this method");
+        }
+        execute(input, false, transformProcess, output);
+    }
+
+    /**
+     * Execute the specified TransformProcess with the given input data<br>
+     * Note: this method can only be used if the TransformProcess starts with non-sequential data, but returns
+     * <i>sequence</i> data (after grouping or converting to a sequence as one of the steps)
+     *
+     * @param input            Input data to process
+     * @param transformProcess TransformProcess to execute
+     * @param output           Consumer for the processed (sequence) data
+     */
+    public void executeToSequence(@NonNull Iterator<List<Writable>> input, @NonNull TransformProcess transformProcess,
+                                  @NonNull Consumer<List<List<Writable>>> output) {
+        if (!(transformProcess.getFinalSchema() instanceof SequenceSchema)) {
+            throw new IllegalStateException("Cannot return non-sequence data with this method");
+        }
+        execute(input, false, transformProcess, output);
+    }
+
+    /**
+     * Execute the specified TransformProcess with the given <i>sequence</i> input data<br>
+     * Note: this method can only be used if the TransformProcess starts with sequence data, but returns
+     * <i>non-sequential</i> data (after reducing or converting sequential data to individual examples)
+     *
+     * @param input            Input sequence data to process
+     * @param transformProcess TransformProcess to execute
+     * @param output           Consumer for the processed (non-sequential) data
+     */
+    public void executeSequenceToSeparate(@NonNull Iterator<List<List<Writable>>> input,
+                                          @NonNull TransformProcess transformProcess,
+                                          @NonNull Consumer<List<Writable>> output) {
+        if (transformProcess.getFinalSchema() instanceof SequenceSchema) {
+            throw new IllegalStateException("Cannot return sequence data with this method");
+        }
+        execute(input, true, transformProcess, output);
+    }
+
+    /**
+     * Execute the specified TransformProcess with the given <i>sequence</i> input data<br>
+     * Note: this method can only be used if the TransformProcess starts with sequence data, and also returns sequence data
+     *
+     * @param input            Input sequence data to process
+     * @param transformProcess TransformProcess to execute
+     * @param output           Consumer for the processed (sequence) data
+     */
+    public void executeSequenceToSequence(@NonNull Iterator<List<List<Writable>>> input,
+                                          @NonNull TransformProcess transformProcess,
+                                          @NonNull Consumer<List<List<Writable>>> output) {
+        if (!(transformProcess.getFinalSchema() instanceof SequenceSchema)) {
+            throw new IllegalStateException("Cannot return non-sequence data with this method");
+        }
+        execute(input, true, transformProcess, output);
+    }
+
+    /**
+     * Execute a join on the specified data. Both inputs are sorted by key using an external sort (each using up to half
+     * of the configured memory), then merged.
+     *
+     * @param join   Join to execute
+     * @param left   Left data for join
+     * @param right  Right data for join
+     * @param output Consumer for the joined data
+     */
+    public void executeJoin(@NonNull Join join, @NonNull Iterator<List<Writable>> left,
+                            @NonNull Iterator<List<Writable>> right, @NonNull Consumer<List<Writable>> output) {
+        ExtractKeysFunction leftKeys = new ExtractKeysFunction(join.getLeftSchema().getIndexOfColumns(join.getJoinColumnsLeft()));
+        ExtractKeysFunction rightKeys = new ExtractKeysFunction(join.getRightSchema().getIndexOfColumns(join.getJoinColumnsRight()));
+        ExecuteJoinFromCoGroupFlatMapFunction joinFn = new ExecuteJoinFromCoGroupFlatMapFunction(join);
+
+        try (ExternalSorter leftSorter = new ExternalSorter(STRING_KEY_ORDER, Math.max(1, maxMemoryBytes / 2), spillDirectory);
+             ExternalSorter rightSorter = new ExternalSorter(STRING_KEY_ORDER, Math.max(1, maxMemoryBytes / 2), spillDirectory)) {
+            while (left.hasNext()) {
+                Pair<List<Writable>, List<Writable>> p = leftKeys.apply(left.next());
+                leftSorter.add(keyOf(p.getFirst()), p.getSecond());
+            }
+            while (right.hasNext()) {
+                Pair<List<Writable>, List<Writable>> p = rightKeys.apply(right.next());
+                rightSorter.add(keyOf(p.getFirst()), p.getSecond());
+            }
+
+            GroupIterator l = new GroupIterator(leftSorter.sortedIterator(false));
+            GroupIterator r = new GroupIterator(rightSorter.sortedIterator(false));
+            Pair<Writable, List<List<Writable>>> lg = l.hasNext() ? l.next() : null;
+            Pair<Writable, List<List<Writable>>> rg = r.hasNext() ? r.next() : null;
+            while (lg != null || rg != null) {
+                int c = (lg == null ? 1 : rg == null ? -1 : STRING_KEY_ORDER.compare(lg.getFirst(), rg.getFirst()));
+                List<List<Writable>> leftValues = (c <= 0 ? lg.getSecond() : Collections.<List<Writable>>emptyList());
+                List<List<Writable>> rightValues = (c >= 0 ? rg.getSecond() : Collections.<List<Writable>>emptyList());
+                List<Writable> key = Collections.singletonList((c <= 0 ? lg : rg).getFirst());
+                for (List<Writable> joined : joinFn.call(Pair.of(key, Pair.of(leftValues, rightValues)))) {
+                    output.accept(joined);
+                }
+                if (c <= 0) {
+                    lg = l.hasNext() ? l.next() : null;
+                }
+                if (c >= 0) {
+                    rg = r.hasNext() ? r.next() : null;
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error executing join", e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void execute(Iterator<?> input, boolean sequenceInput, TransformProcess tp, Consumer<?> output) {
+        List<DataAction> actions = tp.getActionList();
+        int lastStateful = -1;
+        for (int i = 0; i < actions.size(); i++) {
+            if (!isStateless(actions.get(i))) {
+                lastStateful = i;
+            }
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(numThreads, new ThreadFactory() {
+            private final AtomicInteger count = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread t = new Thread(r, "StreamingLocalTransformExecutor-" + count.getAndIncrement());
+                t.setDaemon(true);
+                return t;
+            }
+        });
+        List<Closeable> resources = new ArrayList<>();
+        try {
+            final int numColumns = tp.getInitialSchema().numColumns();
+            final AtomicLong invalid = new AtomicLong();
+            Stage validate = new Stage() {
+                @Override
+                public void apply(Object in, List<Object> out) {
+                    List<?> l = (List<?>) in;
+                    if (!l.isEmpty() && (l.get(0) instanceof List ? ((List<?>) l.get(0)).size() : l.size()) != numColumns) {
+                        invalid.incrementAndGet();
+                        return;
+                    }
+                    out.add(in);
+                }
+            };
+
+            List<Stage> stateless = new ArrayList<>();
+            stateless.add(validate);
+            Iterator<Object> current = (Iterator<Object>) input;
+            boolean sequence = sequenceInput;
+            for (int i = 0; i < actions.size(); i++) {
+                DataAction d = actions.get(i);
+                if (isStateless(d)) {
+                    stateless.add(statelessStage(d, sequence));
+                    sequence = outputIsSequence(d, sequence);
+                } else {
+                    current = pipeline(current, stateless, executor);
+                    stateless = new ArrayList<>();
+                    current = statefulStage(d, sequence, current, i < lastStateful, resources);
+                    sequence = outputIsSequence(d, sequence);
+                }
+            }
+            current = pipeline(current, stateless, executor);
+
+            Consumer<Object> out = (Consumer<Object>) output;
+            while (current.hasNext()) {
+                out.accept(current.next());
+            }
+
+            if (invalid.get() > 0) {
+                log.warn("Filtered out " + invalid.get() + " values with incorrect number of columns");
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error executing TransformProcess", e);
+        } finally {
+            executor.shutdownNow();
+            for (Closeable c : resources) {
+                try {
+                    c.close();
+                } catch (IOException e) {
+                    log.warn("Error closing resource", e);
+                }
+            }
+        }
+    }
+
+    private static boolean isStateless(DataAction d) {
+        return d.getTransform() != null || d.getFilter() != null || d.getConvertFromSequence() != null
+                || d.getSequenceSplit() != null
+                || (d.getConvertToSequence() != null && d.getConvertToSequence().isSingleStepSequencesMode());
+    }
+
+    private static boolean outputIsSequence(DataAction d, boolean sequenceInput) {
+        if (d.getConvertToSequence() != null) {
+            return true;
+        } else if (d.getConvertFromSequence() != null || d.getReducer() != null || d.getCalculateSortedRank() != null) {
+            return false;
+        }
+        return sequenceInput;
+    }
+
+    /**
+     * A stateless step, applied to one record (or sequence) at a time, producing zero or more outputs
+     */
+    private interface Stage {
+        void apply(Object in, List<Object> out);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Stage statelessStage(DataAction d, boolean sequence) {
+        final boolean tryCatch = LocalTransformExecutor.isTryCatch();
+        if (d.getTransform() != null) {
+            Transform t = d.getTransform();
+            if (!sequence) {
+                final LocalTransformFunction fn = new LocalTransformFunction(t);
+                return new Stage() {
+                    @Override
+                    public void apply(Object in, List<Object> out) {
+                        List<Writable> l = fn.apply((List<Writable>) in);
+                        if (!tryCatch || !l.isEmpty()) {
+                            out.add(l);
+                        }
+                    }
+                };
+            } else {
+                final LocalSequenceTransformFunction fn = new LocalSequenceTransformFunction(t);
+                return new Stage() {
+                    @Override
+                    public void apply(Object in, List<Object> out) {
+                        List<List<Writable>> l = fn.apply((List<List<Writable>>) in);
+                        if (!tryCatch || !l.isEmpty()) {
+                            out.add(l);
+                        }
+                    }
+                };
+            }
+        } else if (d.getFilter() != null) {
+            Filter f = d.getFilter();
+            if (!sequence) {
+                final LocalFilterFunction fn = new LocalFilterFunction(f);
+                return new Stage() {
+                    @Override
+                    public void apply(Object in, List<Object> out) {
+                        if (fn.apply((List<Writable>) in)) {
+                            out.add(in);
+                        }
+                    }
+                };
+            } else {
+                final LocalSequenceFilterFunction fn = new LocalSequenceFilterFunction(f);
+                return new Stage() {
+                    @Override
+                    public void apply(Object in, List<Object> out) {
+                        if (fn.apply((List<List<Writable>>) in)) {
+                            out.add(in);
+                        }
+                    }
+                };
+            }
+        } else if (d.getConvertToSequence() != null) {
+            Preconditions.checkState(!sequence, "Cannot execute ConvertToSequence operation: data is already sequence data");
+            final ConvertToSequenceLengthOne fn = new ConvertToSequenceLengthOne();
+            return new Stage() {
+                @Override
+                public void apply(Object in, List<Object> out) {
+                    out.add(fn.apply((List<Writable>) in));
+                }
+            };
+        } else if (d.getConvertFromSequence() != null) {
+            Preconditions.checkState(sequence, "Cannot execute ConvertFromSequence operation: data is not sequence data");
+            return new Stage() {
+                @Override
+                public void apply(Object in, List<Object> out) {
+                    out.addAll((List<List<Writable>>) in);
+                }
+            };
+        } else {
+            Preconditions.checkState(sequence, "Error during execution of SequenceSplit: data is not sequence data");
+            final SequenceSplitFunction fn = new SequenceSplitFunction(d.getSequenceSplit());
+            return new Stage() {
+                @Override
+                public void apply(Object in, List<Object> out) {
+                    out.addAll(fn.call((List<List<Writable>>) in));
+                }
+            };
+        }
+    }
+
+    /**
+     * Apply the specified stateless stages to the input, in parallel, in minibatches
+     */
+    private Iterator<Object> pipeline(final Iterator<Object> input, final List<Stage> stages, final ExecutorService executor) {
+        if (stages.isEmpty()) {
+            return input;
+        }
+
+        return new Iterator<Object>() {
+            private final Deque<Future<List<Object>>> pending = new ArrayDeque<>();
+            private Iterator<Object> currentBatch = Collections.emptyIterator();
+
+            @Override
+            public boolean hasNext() {
+                while (!currentBatch.hasNext()) {
+                    //Keep a bounded number of batches in flight
+                    while (pending.size() < 2 * numThreads && input.hasNext()) {
+                        final List<Object> batch = new ArrayList<>(batchSize);
+                        while (batch.size() < batchSize && input.hasNext()) {
+                            batch.add(input.next());
+                        }
+                        pending.add(executor.submit(new Callable<List<Object>>() {
+                            @Override
+                            public List<Object> call() {
+                                return applyStages(stages, batch);
+                            }
+                        }));
+                    }
+                    if (pending.isEmpty()) {
+                        return false;
+                    }
+                    currentBatch = get(pending.poll()).iterator();
+                }
+                return true;
+            }
+
+            @Override
+            public Object next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return currentBatch.next();
+            }
+        };
+    }
+
+    private static List<Object> applyStages(List<Stage> stages, List<Object> batch) {
+        List<Object> curr = batch;
+        for (Stage s : stages) {
+            List<Object> next = new ArrayList<>(curr.size());
+            for (Object o : curr) {
+                s.apply(o, next);
+            }
+            curr = next;
+        }
+        return curr;
+    }
+
+    private static List<Object> get(Future<List<Object>> f) {
+        try {
+            return f.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted during execution", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    /**
+     * Execute a stateful step: the input is consumed fully (and sorted externally) before the output iterator is returned
+     */
+    @SuppressWarnings("unchecked")
+    private Iterator<Object> statefulStage(DataAction d, boolean sequence, Iterator<Object> input, boolean moreStateful,
+                                           List<Closeable> resources) throws IOException {
+        //If a later step also sorts, release this step's memory before that step starts buffering
+        boolean keepInMemory = !moreStateful;
+        if (d.getReducer() != null) {
+            final IAssociativeReducer reducer = d.getReducer();
+            if (sequence)
+                throw new IllegalStateException("Error during execution of reduction: current writables are null. "
+                        + "Trying to execute a reduce operation on a sequence?");
+            MapToPairForReducerFunction keyFn = new MapToPairForReducerFunction(reducer);
+            ExternalSorter sorter = newSorter(resources);
+            while (input.hasNext()) {
+                Pair<String, List<Writable>> p = keyFn.apply((List<Writable>) input.next());
+                sorter.add(new Text(p.getFirst()), p.getSecond());
+            }
+
+            final GroupIterator groups = new GroupIterator(sorter.sortedIterator(keepInMemory));
+            return new Iterator<Object>() {
+                @Override
+                public boolean hasNext() {
+                    return groups.hasNext();
+                }
+
+                @Override
+                public Object next() {
+                    IAggregableReduceOp<List<Writable>, List<Writable>> op = reducer.aggregableReducer();
+                    for (List<Writable> l : groups.next().getSecond()) {
+                        op.accept(l);
+                    }
+                    return op.get();
+                }
+            };
+        } else if (d.getCalculateSortedRank() != null) {
+            CalculateSortedRank csr = d.getCalculateSortedRank();
+            if (sequence) {
+                throw new IllegalStateException("Error during execution of CalculateSortedRank: current writables are null. "
+                        + "Trying to execute a CalculateSortedRank operation on a sequence? (not currently supported)");
+            }
+            final Comparator<Writable> comparator = csr.getComparator();
+            final boolean ascending = csr.isAscending();
+            int sortColumnIdx = csr.getInputSchema().getIndexOfColumn(csr.getSortOnColumn());
+            ExternalSorter sorter = newSorter(new Comparator<Writable>() {
+                @Override
+                public int compare(Writable w1, Writable w2) {
+                    int result = comparator.compare(w1, w2);
+                    return ascending ? result : -result;
+                }
+            }, resources);
+            while (input.hasNext()) {
+                List<Writable> l = (List<Writable>) input.next();
+                sorter.add(l.get(sortColumnIdx), l);
+            }
+
+            final Iterator<Pair<Writable, List<Writable>>> sorted = sorter.sortedIterator(keepInMemory);
+            final UnzipForCalculateSortedRankFunction fn = new UnzipForCalculateSortedRankFunction();
+            return new Iterator<Object>() {
+                private long rank = 0;
+
+                @Override
+                public boolean hasNext() {
+                    return sorted.hasNext();
+                }
+
+                @Override
+                public Object next() {
+                    return fn.apply(Pair.of(sorted.next(), rank++));
+                }
+            };
+        } else if (d.getConvertToSequence() != null) {
+            //Standard case: group by key (single step sequence case is stateless)
+            ConvertToSequence cts = d.getConvertToSequence();
+            if (sequence) {
+                throw new IllegalStateException("Cannot execute ConvertToSequence operation: data is already sequence data");
+            }
+            int[] colIdxs = cts.getInputSchema().getIndexOfColumns(cts.getKeyColumns());
+            LocalMapToPairByMultipleColumnsFunction keyFn = new LocalMapToPairByMultipleColumnsFunction(colIdxs);
+            ExternalSorter sorter = newSorter(resources);
+            while (input.hasNext()) {
+                Pair<List<Writable>, List<Writable>> p = keyFn.apply((List<Writable>) input.next());
+                sorter.add(keyOf(p.getFirst()), p.getSecond());
+            }
+
+            final GroupIterator groups = new GroupIterator(sorter.sortedIterator(keepInMemory));
+            final LocalGroupToSequenceFunction fn = new LocalGroupToSequenceFunction(cts.getComparator());
+            return new Iterator<Object>() {
+                @Override
+                public boolean hasNext() {
+                    return groups.hasNext();
+                }
+
+                @Override
+                public Object next() {
+                    return fn.apply(groups.next().getSecond());
+                }
+            };
+        } else {
+            throw new RuntimeException("Unknown/not implemented action: " + d);
+        }
+    }
+
+    private ExternalSorter newSorter(List<Closeable> resources) {
+        return newSorter(STRING_KEY_ORDER, resources);
+    }
+
+    private ExternalSorter newSorter(Comparator<Writable> comparator, List<Closeable> resources) {
+        ExternalSorter sorter = new ExternalSorter(comparator, maxMemoryBytes, spillDirectory);
+        resources.add(sorter);
+        return sorter;
+    }
+
+    private static Writable keyOf(List<Writable> keyValues) {
+        if (keyValues.size() == 1) {
+            return new Text(keyValues.get(0).toString());
+        }
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < keyValues.size(); i++) {
+            if (i > 0) {
+                sb.append('\u001F');    //Unit separator: unlikely to appear in key values
+            }
+            sb.append(keyValues.get(i).toString());
+        }
+        return new Text(sb.toString());
+    }
+
+    /**
+     * Groups consecutive records with equal keys from a sorted iterator. Each group is held in memory
+     */
+    private static class GroupIterator implements Iterator<Pair<Writable, List<List<Writable>>>> {
+        private final Iterator<Pair<Writable, List<Writable>>> sorted;
+        private Pair<Writable, List<Writable>> next;
+
+        private GroupIterator(Iterator<Pair<Writable, List<Writable>>> sorted) {
+            this.sorted = sorted;
+            this.next = sorted.hasNext() ? sorted.next() : null;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public Pair<Writable, List<List<Writable>>> next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            Writable key = next.getFirst();
+            List<List<Writable>> group = new ArrayList<>();
+            group.add(next.getSecond());
+            next = null;
+            while (sorted.hasNext()) {
+                Pair<Writable, List<Writable>> p = sorted.next();
+                if (STRING_KEY_ORDER.compare(key, p.getFirst()) != 0) {
+                    next = p;
+                    break;
+                }
+                group.add(p.getSecond());
+            }
+            return Pair.of(key, group);
+        }
+    }
+
+    public static class Builder {
+        private int numThreads = Runtime.getRuntime().availableProcessors();
+        private int batchSize = DEFAULT_BATCH_SIZE;
+        private long maxMemoryBytes = DEFAULT_MAX_MEMORY_BYTES;
+        private File spillDirectory;
+
+        /**
+         * @param numThreads Number of threads for executing stateless steps. Defaults to the number of processors
+         */
+        public Builder numThreads(int numThreads) {
+            Preconditions.checkArgument(numThreads > 0, "Number of threads must be > 0, got %s", numThreads);
+            this.numThreads = numThreads;
+            return this;
+        }
+
+        /**
+         * @param batchSize Number of records processed together by each thread, for stateless steps. Default: 1024
+         */
+        public Builder batchSize(int batchSize) {
+            Preconditions.checkArgument(batchSize > 0, "Batch size must be > 0, got %s", batchSize);
+            this.batchSize = batchSize;
+            return this;
+        }
+
+        /**
+         * @param maxMemoryBytes Maximum (estimated) memory to use for buffering data in sort operations (group by,
+         *                       reduce, sorted rank, join) before spilling to disk. Default: 256MB
+         */
+        public Builder maxMemoryBytes(long maxMemoryBytes) {
+            Preconditions.checkArgument(maxMemoryBytes > 0, "Max memory bytes must be > 0, got %s", maxMemoryBytes);
+            this.maxMemoryBytes = maxMemoryBytes;
+            return this;
+        }
+
+        /**
+         * @param spillDirectory Directory for temporary spill files. Defaults to java.io.tmpdir
+         */
+        public Builder spillDirectory(File spillDirectory) {
+            this.spillDirectory = spillDirectory;
+            return this;
+        }
+
+        public StreamingLocalTransformExecutor build() {
+            return new StreamingLocalTransformExecutor(this);
+        }
+    }
+}
@@ -0,0 +1,375 @@
+/*
+ *  ******************************************************************************
+ *  *
+ *  *
+ *  * This program and the accompanying materials are made available under the
+ *  * terms of the Apache License, Version 2.0 which is available at
+ *  * https://www.apache.org/licenses/LICENSE-2.0.
+ *  *
+ *  *  See the NOTICE file distributed with this work for additional
+ *  *  information regarding copyright ownership.
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ *  * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ *  * License for the specific language governing permissions and limitations
+ *  * under the License.
+ *  *
+ *  * SPDX-License-Identifier: Apache-2.0
+ *  *****************************************************************************
+ */
+
+package org.datavec.local.transforms.spill;
+
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.datavec.api.writable.*;
+import org.nd4j.common.base.Preconditions;
+import org.nd4j.common.primitives.Pair;
+import org.nd4j.linalg.api.ndarray.INDArray;
+
+import java.io.*;
+import java.util.*;
+
+/**
+ * An external (disk-backed) sorter for (key, record) pairs, with bounded memory use.<br>
+ * Pairs are buffered in memory until the estimated size of the buffer exceeds the memory limit; the buffer is then
+ * sorted and written ("spilled") to a temporary file as a sorted run. Once all pairs have been added,
+ * {@link #sortedIterator(boolean)} merges the runs, returning all pairs in key order.<br>
+ * At most {@code maxMergeFanIn} runs are open at any time: when there are more runs than that, groups of runs are first
+ * merged into longer runs (in as many passes as necessary), so the number of open files stays bounded regardless of
+ * the input size.<br>
+ * The sort is stable: pairs with equal keys are returned in the order they were added.<br>
+ * Spill files are deleted on {@link #close()}.
+ */
+@Slf4j
+public class ExternalSorter implements Closeable {
+    public static final int DEFAULT_MAX_MERGE_FAN_IN = 64;
+
+    private final Comparator<Writable> keyComparator;
+    private final long maxMemoryBytes;
+    private final File spillDirectory;
+    private final int maxMergeFanIn;
+
+    private List<Pair<Writable, List<Writable>>> buffer = new ArrayList<>();
+    private long bufferBytes;
+    //Current sorted runs, in insertion order
+    private final List<File> runs = new ArrayList<>();
+    //All spill files not yet deleted, including intermediate runs
+    private final Set<File> files = new LinkedHashSet<>();
+    private RunMerger merger;
+    private int numSpills;
+    private int numMergePasses;
+    private long count;
+    private boolean iterating;
+
+    /**
+     * @param keyComparator  Comparator for the keys
+     * @param maxMemoryBytes Maximum (estimated) size of the in-memory buffer, in bytes, before spilling to disk
+     * @param spillDirectory Directory for spill files. If null: java.io.tmpdir is used
+     */
+    public ExternalSorter(@NonNull Comparator<Writable> keyComparator, long maxMemoryBytes, File spillDirectory) {
+        this(keyComparator, maxMemoryBytes, spillDirectory, DEFAULT_MAX_MERGE_FAN_IN);
+    }
+
+    /**
+     * @param keyComparator  Comparator for the keys
+     * @param maxMemoryBytes Maximum (estimated) size of the in-memory buffer, in bytes, before spilling to disk
+     * @param spillDirectory Directory for spill files. If null: java.io.tmpdir is used
+     * @param maxMergeFanIn  Maximum number of runs merged (and hence files open) at once. Must be at least 2
+     */
+    public ExternalSorter(@NonNull Comparator<Writable> keyComparator, long maxMemoryBytes, File spillDirectory,
+                          int maxMergeFanIn) {
+        Preconditions.checkArgument(maxMemoryBytes > 0, "Max memory bytes must be > 0, got %s", maxMemoryBytes);
+        Preconditions.checkArgument(maxMergeFanIn >= 2, "Max merge fan-in must be >= 2, got %s", maxMergeFanIn);
+        this.keyComparator = keyComparator;
+        this.maxMemoryBytes = maxMemoryBytes;
+        this.spillDirectory = spillDirectory;
+        this.maxMergeFanIn = maxMergeFanIn;
+    }
+
+    /**
+     * Add a (key, record) pair to the sorter
+     */
+    public void add(@NonNull Writable key, @NonNull List<Writable> record) throws IOException {
+        Preconditions.checkState(!iterating, "Cannot add values after sortedIterator() has been called");
+        buffer.add(Pair.of(key, record));
+        bufferBytes += estimateSizeBytes(key) + estimateSizeBytes(record);
+        count++;
+        if (bufferBytes > maxMemoryBytes) {
+            spill();
+        }
+    }
+
+    /**
+     * @return Total number of pairs added
+     */
+    public long size() {
+        return count;
+    }
+
+    /**
+     * @return Number of sorted runs spilled to disk so far
+     */
+    public int numSpills() {
+        return numSpills;
+    }
+
+    /**
+     * @return Number of intermediate merge passes performed by {@link #sortedIterator(boolean)}. Zero if the number
+     * of spilled runs did not exceed the maximum merge fan-in
+     */
+    public int numMergePasses() {
+        return numMergePasses;
+    }
+
+    /**
+     * Return an iterator over all pairs, in key order. No more values may be added after calling this method.
+     *
+     * @param keepInMemory If true, and no data has been spilled, the in-memory buffer is iterated directly. If false,
+     *                     any data still in memory is spilled first, so that only one pair per run is held in memory
+     *                     during iteration
+     */
+    public Iterator<Pair<Writable, List<Writable>>> sortedIterator(boolean keepInMemory) throws IOException {
+        Preconditions.checkState(!iterating, "sortedIterator() can only be called once");
+        iterating = true;
+        if (runs.isEmpty() && keepInMemory) {
+            sortBuffer();
+            List<Pair<Writable, List<Writable>>> l = buffer;
+            buffer = null;
+            return l.iterator();
+        }
+
+        if (!buffer.isEmpty()) {
+            spill();
+        }
+        buffer = null;
+
+        while (runs.size() > maxMergeFanIn) {
+            mergePass();
+        }
+
+        merger = new RunMerger(runs);
+        return merger;
+    }
+
+    /**
+     * Merge consecutive groups of (at most maxMergeFanIn) runs into single runs. Merging consecutive runs keeps the
+     * sort stable: ties are broken by run order within each group, and the merged runs stay in insertion order
+     */
+    private void mergePass() throws IOException {
+        List<File> merged = new ArrayList<>();
+        WritableFactory wf = WritableFactory.getInstance();
+        for (int from = 0; from < runs.size(); from += maxMergeFanIn) {
+            List<File> group = runs.subList(from, Math.min(runs.size(), from + maxMergeFanIn));
+            if (group.size() == 1) {
+                merged.add(group.get(0));
+                continue;
+            }
+
+            File f = newRunFile();
+            try (RunMerger m = new RunMerger(group);
+                 DataOutputStream dos = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(f), 1 << 16))) {
+                dos.writeLong(m.total);
+                while (m.hasNext()) {
+                    write(wf, m.next(), dos);
+                }
+            }
+            for (File g : group) {
+                delete(g);
+            }
+            merged.add(f);
+        }
+        log.debug("Merge pass: merged {} runs into {} runs", runs.size(), merged.size());
+        runs.clear();
+        runs.addAll(merged);
+        numMergePasses++;
+    }
+
+    /**
+     * Delete all spill files
+     */
+    @Override
+    public void close() throws IOException {
+        if (merger != null) {
+            merger.close();
+            merger = null;
+        }
+        for (File f : new ArrayList<>(files)) {
+            delete(f);
+        }
+        runs.clear();
+        buffer = null;
+    }
+
+    private File newRunFile() throws IOException {
+        File f = File.createTempFile("datavec_spill_", ".bin", spillDirectory);
+        files.add(f);
+        return f;
+    }
+
+    private void delete(File f) {
+        if (f.exists() && !f.delete()) {
+            log.warn("Could not delete spill file: {}", f.getAbsolutePath());
+        }
+        files.remove(f);
+    }
+
+    private void sortBuffer() {
+        //List.sort is a stable merge sort
+        buffer.sort(new Comparator<Pair<Writable, List<Writable>>>() {
+            @Override
+            public int compare(Pair<Writable, List<Writable>> p1, Pair<Writable, List<Writable>> p2) {
+                return keyComparator.compare(p1.getFirst(), p2.getFirst());
+            }
+        });
+    }
+
+    private void spill() throws IOException {
+        sortBuffer();
+        File f = newRunFile();
+        runs.add(f);
+        numSpills++;
+        WritableFactory wf = WritableFactory.getInstance();
+        try (DataOutputStream dos = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(f), 1 << 16))) {
+            dos.writeLong(buffer.size());
+            for (Pair<Writable, List<Writable>> p : buffer) {
+                write(wf, p, dos);
+            }
+        }
+        log.debug("Spilled {} records ({} bytes estimated) to {}", buffer.size(), bufferBytes, f);
+        buffer = new ArrayList<>();
+        bufferBytes = 0;
+    }
+
+    private static void write(WritableFactory wf, Pair<Writable, List<Writable>> p, DataOutputStream dos) throws IOException {
+        wf.writeWithType(p.getFirst(), dos);
+        List<Writable> record = p.getSecond();
+        dos.writeInt(record.size());
+        for (Writable w : record) {
+            wf.writeWithType(w, dos);
+        }
+    }
+
+    /**
+     * Estimate the in-memory size of a record, in bytes. This is an approximation only, used to decide when to spill
+     */
+    public static long estimateSizeBytes(List<Writable> record) {
+        long bytes = 40 + 8L * record.size();    //List object and its backing array
+        for (Writable w : record) {
+            bytes += estimateSizeBytes(w);
+        }
+        return bytes;
+    }
+
+    /**
+     * Estimate the in-memory size of a single Writable, in bytes
+     */
+    public static long estimateSizeBytes(Writable w) {
+        if (w instanceof Text) {
+            return 56 + ((Text) w).getLength();
+        } else if (w instanceof BytesWritable) {
+            byte[] b = ((BytesWritable) w).getContent();
+            return 40 + (b == null ? 0 : b.length);
+        } else if (w instanceof NDArrayWritable) {
+            INDArray arr = ((NDArrayWritable) w).get();
+            return 128 + (arr == null ? 0 : arr.length() * arr.dataType().width());
+        }
+        return 24;
+    }
+
+    /**
+     * K-way merge of a list of sorted runs. Opens one stream per run
+     */
+    private class RunMerger implements Iterator<Pair<Writable, List<Writable>>>, Closeable {
+        private final PriorityQueue<RunReader> queue;
+        private final List<DataInputStream> streams = new ArrayList<>();
+        private long total;
+
+        private RunMerger(List<File> runFiles) throws IOException {
+            queue = new PriorityQueue<>(Math.max(1, runFiles.size()), new Comparator<RunReader>() {
+                @Override
+                public int compare(RunReader r1, RunReader r2) {
+                    int c = keyComparator.compare(r1.head.getFirst(), r2.head.getFirst());
+                    //Runs are written in insertion order: ties are broken by run index, for a stable sort
+                    return c != 0 ? c : Integer.compare(r1.runIdx, r2.runIdx);
+                }
+            });
+            try {
+                for (int i = 0; i < runFiles.size(); i++) {
+                    DataInputStream dis = new DataInputStream(new BufferedInputStream(new FileInputStream(runFiles.get(i)), 1 << 16));
+                    streams.add(dis);
+                    RunReader r = new RunReader(i, dis);
+                    total += r.remaining;
+                    if (r.advance()) {
+                        queue.add(r);
+                    }
+                }
+            } catch (IOException e) {
+                close();
+                throw e;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !queue.isEmpty();
+        }
+
+        @Override
+        public Pair<Writable, List<Writable>> next() {
+            if (queue.isEmpty()) {
+                throw new NoSuchElementException();
+            }
+            RunReader r = queue.poll();
+            Pair<Writable, List<Writable>> out = r.head;
+            try {
+                if (r.advance()) {
+                    queue.add(r);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Error reading spill file", e);
+            }
+            return out;
+        }
+
+        @Override
+        public void close() throws IOException {
+            for (DataInputStream dis : streams) {
+                dis.close();
+            }
+            streams.clear();
+            queue.clear();
+        }
+    }
+
+    private static class RunReader {
+        private final int runIdx;
+        private final DataInputStream in;
+        private long remaining;
+        private Pair<Writable, List<Writable>> head;
+
+        private RunReader(int runIdx, DataInputStream in) throws IOException {
+            this.runIdx = runIdx;
+            this.in = in;
+            this.remaining = in.readLong();
+        }
+
+        private boolean advance() throws IOException {
+            if (remaining <= 0) {
+                head = null;
+                in.close();
+                return false;
+            }
+            WritableFactory wf = WritableFactory.getInstance();
+            Writable key = wf.readWithType(in);
+            int n = in.readInt();
+            List<Writable> record = new ArrayList<>(n);
+            for (int i = 0; i < n; i++) {
+                record.add(wf.readWithType(in));
+            }
+            head = Pair.of(key, record);
+            remaining--;
+            return true;
+        }
+    }
+}
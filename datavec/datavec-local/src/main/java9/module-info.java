@@ -19,6 +19,7 @@ open module datavec.local {
     exports org.datavec.local.transforms.rank;
     exports org.datavec.local.transforms.reduce;
     exports org.datavec.local.transforms.sequence;
+    exports org.datavec.local.transforms.spill;
     exports org.datavec.local.transforms.transform;
     exports org.datavec.local.transforms.transform.filter;
 }
@@ -25,6 +25,7 @@ import org.apache.spark.api.java.JavaPairRDD;
 import org.apache.spark.api.java.JavaRDD;
 import org.apache.spark.api.java.function.Function;
 import org.apache.spark.api.java.function.Function2;
+import org.datavec.api.transform.CompiledTransformProcess;
 import org.datavec.api.transform.DataAction;
 import org.datavec.api.transform.Transform;
 import org.datavec.api.transform.TransformProcess;
@@ -49,6 +50,7 @@ import org.datavec.spark.transform.rank.UnzipForCalculateSortedRankFunction;
 import org.datavec.spark.transform.reduce.MapToPairForReducerFunction;
 import org.datavec.spark.transform.sequence.*;
 import org.datavec.spark.transform.transform.SequenceSplitFunction;
+import org.datavec.spark.transform.transform.SparkCompiledTransformFunction;
 import org.datavec.spark.transform.transform.SparkTransformFunction;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -180,10 +182,22 @@ public class SparkTransformExecutor {
 
 
         int count = 1;
-        for (DataAction d : dataActions) {
+        for (int i = 0; i < dataActions.size(); i++) {
+            DataAction d = dataActions.get(i);
             //log.info("Starting execution of stage {} of {}", count, dataActions.size());     //
 
-            if (d.getTransform() != null) {
+            if (currentWritables != null && (d.getTransform() != null || d.getFilter() != null)) {
+                //Fuse consecutive transforms and filters, to execute them in a single pass over each record
+                int end = i + 1;
+                while (end < dataActions.size() && (dataActions.get(end).getTransform() != null
+                                || dataActions.get(end).getFilter() != null)) {
+                    end++;
+                }
+                CompiledTransformProcess compiled = CompiledTransformProcess.compile(dataActions.subList(i, end));
+                currentWritables = currentWritables.flatMap(new SparkCompiledTransformFunction(compiled));
+                count += end - i - 1;
+                i = end - 1;
+            } else if (d.getTransform() != null) {
                 Transform t = d.getTransform();
                 if (currentWritables != null) {
                     Function<List<Writable>, List<Writable>> function = new SparkTransformFunction(t);
@@ -0,0 +1,60 @@
+/*
+ *  ******************************************************************************
+ *  *
+ *  *
+ *  * This program and the accompanying materials are made available under the
+ *  * terms of the Apache License, Version 2.0 which is available at
+ *  * https://www.apache.org/licenses/LICENSE-2.0.
+ *  *
+ *  *  See the NOTICE file distributed with this work for additional
+ *  *  information regarding copyright ownership.
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ *  * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ *  * License for the specific language governing permissions and limitations
+ *  * under the License.
+ *  *
+ *  * SPDX-License-Identifier: Apache-2.0
+ *  *****************************************************************************
+ */
+package org.datavec.spark.transform.transform;
+
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.spark.api.java.function.FlatMapFunction;
+import org.datavec.api.transform.CompiledTransformProcess;
+import org.datavec.api.writable.Writable;
+import org.datavec.spark.transform.SparkTransformExecutor;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Executes a sequence of fused transform and filter steps (see {@link CompiledTransformProcess}) in a single pass
+ * over each record. Filtered records (and records that fail, if {@link SparkTransformExecutor#isTryCatch()}) are removed
+ */
+@AllArgsConstructor
+@Slf4j
+public class SparkCompiledTransformFunction implements FlatMapFunction<List<Writable>, List<Writable>> {
+
+    private final CompiledTransformProcess compiled;
+
+    @Override
+    public Iterator<List<Writable>> call(List<Writable> v1) throws Exception {
+        List<Writable> out;
+        if (SparkTransformExecutor.isTryCatch()) {
+            try {
+                out = compiled.execute(v1);
+            } catch (Exception e) {
+                log.warn("Error occurred " + e + " on record " + v1);
+                return Collections.emptyIterator();
+            }
+        } else {
+            out = compiled.execute(v1);
+        }
+        if (out == null)
+            return Collections.emptyIterator(); //Example was filtered out
+        return Collections.singletonList(out).iterator();
+    }
+}
@@ -0,0 +1,590 @@
+/*
+ *  ******************************************************************************
+ *  *
+ *  *
+ *  * This program and the accompanying materials are made available under the
+ *  * terms of the Apache License, Version 2.0 which is available at
+ *  * https://www.apache.org/licenses/LICENSE-2.0.
+ *  *
+ *  *  See the NOTICE file distributed with this work for additional
+ *  *  information regarding copyright ownership.
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ *  * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ *  * License for the specific language governing permissions and limitations
+ *  * under the License.
+ *  *
+ *  * SPDX-License-Identifier: Apache-2.0
+ *  *****************************************************************************
+ */
+package org.deeplearning4j.datasets.datavec;
+
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.datavec.api.conf.Configuration;
+import org.datavec.api.io.WritableConverter;
+import org.datavec.api.records.reader.RecordReader;
+import org.datavec.api.split.CollectionInputSplit;
+import org.datavec.api.split.InputSplit;
+import org.nd4j.common.base.Preconditions;
+import org.nd4j.common.function.Supplier;
+import org.nd4j.linalg.api.memory.MemoryWorkspace;
+import org.nd4j.linalg.api.memory.conf.WorkspaceConfiguration;
+import org.nd4j.linalg.api.memory.enums.AllocationPolicy;
+import org.nd4j.linalg.api.memory.enums.LearningPolicy;
+import org.nd4j.linalg.api.memory.enums.ResetPolicy;
+import org.nd4j.linalg.api.memory.enums.SpillPolicy;
+import org.nd4j.linalg.dataset.DataSet;
+import org.nd4j.linalg.dataset.api.DataSetPreProcessor;
+import org.nd4j.linalg.dataset.api.iterator.DataSetIterator;
+import org.nd4j.linalg.factory.Nd4j;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A multi-threaded version of {@link RecordReaderDataSetIterator}, for use with expensive record readers (image
+ * decoding, JDBC, CSV with heavy transforms, etc).<br>
+ * The input is split into one partition per worker. Each worker thread has its own record reader (created using
+ * the provided factory) and RecordReaderDataSetIterator, and creates DataSets from its partition in parallel with the
+ * other workers (in its own workspace), placing them in a bounded queue.<br>
+ * <br>
+ * Two orderings are supported:<br>
+ * - {@link Ordering#DETERMINISTIC}: minibatches are returned from each worker in turn (round robin), so the output
+ * is the same on every run and epoch - though not the same order as a single RecordReaderDataSetIterator<br>
+ * - {@link Ordering#RELAXED}: minibatches are returned in the order they become available, for maximum throughput<br>
+ * <br>
+ * Note that minibatches are created from one partition only: the last minibatch of each partition may be smaller
+ * than the batch size.<br>
+ * Queue starvation (the number of times, and total time, next() had to wait for a worker) is recorded for each epoch,
+ * and can be used to determine whether data loading is a bottleneck.
+ */
+@Slf4j
+public class ParallelRecordReaderDataSetIterator implements DataSetIterator {
+
+    public enum Ordering {DETERMINISTIC, RELAXED}
+
+    protected final Ordering ordering;
+    protected final int queueSize;
+    protected final boolean useWorkspace;
+    protected final int batchSize;
+    protected final List<RecordReader> readers = new ArrayList<>();
+    protected final List<RecordReaderDataSetIterator> iterators = new ArrayList<>();
+    protected final String workspaceId = "PRRDSI_ITER-" + UUID.randomUUID().toString();
+
+    protected volatile DataSetPreProcessor preProcessor;
+
+    protected BlockingQueue<DataSet>[] queues;
+    protected List<Worker> workers;
+    protected final AtomicBoolean shouldWork = new AtomicBoolean(true);
+    protected volatile RuntimeException throwable;
+    protected final DataSet terminator = new DataSet();
+
+    protected DataSet nextElement;
+    protected boolean[] depleted;
+    protected int numDepleted;
+    protected int nextQueue;
+
+    //Statistics for the current epoch
+    @Getter
+    protected long numBatches;
+    @Getter
+    protected long starvationCount;
+    protected long starvationNanos;
+
+    protected ParallelRecordReaderDataSetIterator(Builder b) {
+        this.ordering = b.ordering;
+        this.queueSize = b.queueSize;
+        this.useWorkspace = b.useWorkspace;
+        this.batchSize = b.batchSize;
+        this.preProcessor = b.preProcessor;
+
+        InputSplit[] partitions = b.partitions != null ? b.partitions : partition(b.split, b.numWorkers);
+        for (InputSplit split : partitions) {
+            RecordReader rr = b.readerFactory.get();
+            try {
+                if (b.conf != null) {
+                    rr.initialize(b.conf, split);
+                } else {
+                    rr.initialize(split);
+                }
+            } catch (IOException e) {
+                throw new RuntimeException("Error initializing record reader", e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(e);
+            }
+
+            RecordReaderDataSetIterator.Builder ib = new RecordReaderDataSetIterator.Builder(rr, b.batchSize)
+                    .writableConverter(b.converter)
+                    .collectMetaData(b.collectMetaData);
+            if (b.regression) {
+                ib.regression(b.labelIndex, b.labelIndexTo);
+            } else if (b.labelIndex >= 0) {
+                ib.classification(b.labelIndex, b.numClasses);
+            }
+            readers.add(rr);
+            iterators.add(ib.build());
+        }
+
+        start();
+    }
+
+    /**
+     * Split the input into (at most) numWorkers partitions of contiguous locations
+     */
+    protected static InputSplit[] partition(InputSplit split, int numWorkers) {
+        URI[] locations = split.locations();
+        if (locations == null || locations.length <= 1 || numWorkers == 1) {
+            if (numWorkers > 1) {
+                log.warn("Input split with {} locations cannot be partitioned: using a single worker. Provide the " +
+                        "partitions directly to use more than one worker", locations == null ? 0 : locations.length);
+            }
+            return new InputSplit[]{split};
+        }
+        int n = Math.min(numWorkers, locations.length);
+        InputSplit[] out = new InputSplit[n];
+        for (int i = 0; i < n; i++) {
+            int from = (int) ((long) locations.length * i / n);
+            int to = (int) ((long) locations.length * (i + 1) / n);
+            out[i] = new CollectionInputSplit(Arrays.copyOfRange(locations, from, to));
+        }
+        return out;
+    }
+
+    @SuppressWarnings("unchecked")
+    protected void start() {
+        int n = iterators.size();
+        queues = new BlockingQueue[n];
+        int wsLimit;
+        if (ordering == Ordering.DETERMINISTIC) {
+            for (int i = 0; i < n; i++) {
+                queues[i] = new ArrayBlockingQueue<>(queueSize);
+            }
+            wsLimit = queueSize + 2;
+        } else {
+            //All workers share one queue
+            BlockingQueue<DataSet> shared = new ArrayBlockingQueue<>(n * queueSize);
+            Arrays.fill(queues, shared);
+            wsLimit = n * queueSize + 2;
+        }
+
+        WorkspaceConfiguration configuration = WorkspaceConfiguration.builder().minSize(10 * 1024L * 1024L)
+                .overallocationLimit(wsLimit).policyReset(ResetPolicy.ENDOFBUFFER_REACHED)
+                .policyLearning(LearningPolicy.FIRST_LOOP).policyAllocation(AllocationPolicy.OVERALLOCATE)
+                .policySpill(SpillPolicy.REALLOCATE).build();
+
+        shouldWork.set(true);
+        throwable = null;
+        nextElement = null;
+        depleted = new boolean[n];
+        numDepleted = 0;
+        nextQueue = 0;
+        numBatches = 0;
+        starvationCount = 0;
+        starvationNanos = 0;
+
+        int deviceId = Nd4j.getAffinityManager().getDeviceForCurrentThread();
+        workers = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            Worker w = new Worker(i, iterators.get(i), queues[i], configuration, deviceId);
+            workers.add(w);
+            w.start();
+        }
+    }
+
+    protected void stop() {
+        shouldWork.set(false);
+        for (Worker w : workers) {
+            w.interrupt();
+        }
+        for (Worker w : workers) {
+            try {
+                w.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(e);
+            }
+        }
+        for (Worker w : workers) {
+            w.destroyWorkspace();
+        }
+        for (BlockingQueue<DataSet> q : queues) {
+            q.clear();
+        }
+    }
+
+    /**
+     * @return Total time (in milliseconds) that next() has spent waiting for a worker to provide a minibatch, in the
+     * current epoch
+     */
+    public long getStarvationTimeMs() {
+        return starvationNanos / 1_000_000;
+    }
+
+    /**
+     * @return Fraction of minibatches (in the current epoch) for which the consumer had to wait for a worker
+     */
+    public double getStarvationFraction() {
+        return numBatches == 0 ? 0.0 : starvationCount / (double) numBatches;
+    }
+
+    /**
+     * @return Number of worker threads (i.e., number of input partitions)
+     */
+    public int getNumWorkers() {
+        return iterators.size();
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (nextElement != null)
+            return true;
+        if (throwable != null)
+            throw throwable;
+
+        int n = queues.length;
+        while (numDepleted < n) {
+            int q;
+            if (ordering == Ordering.DETERMINISTIC) {
+                q = nextQueue;
+                while (depleted[q]) {
+                    q = (q + 1) % n;
+                }
+            } else {
+                q = 0;
+            }
+
+            DataSet ds = queues[q].poll();
+            if (ds == null) {
+                long start = System.nanoTime();
+                try {
+                    ds = queues[q].take();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new RuntimeException(e);
+                }
+                starvationCount++;
+                starvationNanos += System.nanoTime() - start;
+            }
+
+            if (throwable != null)
+                throw throwable;
+
+            if (ds == terminator) {
+                if (ordering == Ordering.DETERMINISTIC)
+                    depleted[q] = true;
+                numDepleted++;
+                continue;
+            }
+
+            nextQueue = (q + 1) % n;
+            nextElement = ds;
+            numBatches++;
+            return true;
+        }
+
+        if (log.isDebugEnabled()) {
+            log.debug("Epoch complete: {} minibatches from {} workers, starvation: {} minibatches, {} ms", numBatches,
+                    n, starvationCount, getStarvationTimeMs());
+        }
+        return false;
+    }
+
+    @Override
+    public DataSet next() {
+        if (!hasNext())
+            throw new NoSuchElementException("No next element");
+        DataSet ds = nextElement;
+        nextElement = null;
+        return ds;
+    }
+
+    @Override
+    public DataSet next(int num) {
+        throw new UnsupportedOperationException("Not supported: batch size is fixed at construction");
+    }
+
+    @Override
+    public int inputColumns() {
+        Preconditions.checkState(hasNext(), "Cannot determine number of input columns: no data");
+        return nextElement.numInputs();
+    }
+
+    @Override
+    public int totalOutcomes() {
+        Preconditions.checkState(hasNext(), "Cannot determine number of outcomes: no data");
+        return nextElement.numOutcomes();
+    }
+
+    @Override
+    public boolean resetSupported() {
+        for (RecordReader rr : readers) {
+            if (!rr.resetSupported())
+                return false;
+        }
+        return true;
+    }
+
+    @Override
+    public boolean asyncSupported() {
+        //Already asynchronous
+        return false;
+    }
+
+    @Override
+    public void reset() {
+        stop();
+        for (RecordReaderDataSetIterator iter : iterators) {
+            iter.reset();
+        }
+        start();
+    }
+
+    /**
+     * Stop all worker threads and close the underlying record readers. This iterator can't be used after shutdown
+     */
+    public void shutdown() {
+        stop();
+        for (RecordReader rr : readers) {
+            try {
+                rr.close();
+            } catch (IOException e) {
+                log.warn("Error closing record reader", e);
+            }
+        }
+    }
+
+    @Override
+    public int batch() {
+        return batchSize;
+    }
+
+    @Override
+    public void setPreProcessor(DataSetPreProcessor preProcessor) {
+        this.preProcessor = preProcessor;
+    }
+
+    @Override
+    public DataSetPreProcessor getPreProcessor() {
+        return preProcessor;
+    }
+
+    @Override
+    public List<String> getLabels() {
+        return readers.get(0).getLabels();
+    }
+
+    @Override
+    public void remove() {
+        throw new UnsupportedOperationException();
+    }
+
+    protected class Worker extends Thread {
+        private final RecordReaderDataSetIterator iterator;
+        private final BlockingQueue<DataSet> queue;
+        private final WorkspaceConfiguration configuration;
+        private final int deviceId;
+        private MemoryWorkspace workspace;
+
+        protected Worker(int idx, RecordReaderDataSetIterator iterator, BlockingQueue<DataSet> queue,
+                         WorkspaceConfiguration configuration, int deviceId) {
+            this.iterator = iterator;
+            this.queue = queue;
+            this.configuration = configuration;
+            this.deviceId = deviceId;
+            setDaemon(true);
+            setName("PRRDSI worker thread " + idx);
+        }
+
+        @Override
+        public void run() {
+            Nd4j.getAffinityManager().unsafeSetDevice(deviceId);
+            try {
+                if (useWorkspace)
+                    workspace = Nd4j.getWorkspaceManager().getWorkspaceForCurrentThread(configuration, workspaceId);
+
+                while (shouldWork.get() && iterator.hasNext()) {
+                    DataSet ds;
+                    if (useWorkspace) {
+                        try (MemoryWorkspace ws = workspace.notifyScopeEntered()) {
+                            ds = nextDataSet();
+                        }
+                    } else {
+                        ds = nextDataSet();
+                    }
+
+                    //Ensure the DataSet has been fully created before handing it to the consumer
+                    Nd4j.getExecutioner().commit();
+                    queue.put(ds);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Throwable t) {
+                throwable = (t instanceof RuntimeException ? (RuntimeException) t : new RuntimeException(t));
+            }
+
+            try {
+                //Always signal the end of this worker's data, including on failure, so the consumer can't block forever
+                queue.put(terminator);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private DataSet nextDataSet() {
+            DataSet ds = iterator.next();
+            DataSetPreProcessor pp = preProcessor;
+            if (pp != null)
+                pp.preProcess(ds);
+            return ds;
+        }
+
+        protected void destroyWorkspace() {
+            if (workspace != null) {
+                workspace.destroyWorkspace(true);
+                workspace = null;
+            }
+        }
+    }
+
+    /**
+     * Builder for ParallelRecordReaderDataSetIterator
+     */
+    public static class Builder {
+        protected final Supplier<RecordReader> readerFactory;
+        protected InputSplit split;
+        protected InputSplit[] partitions;
+        protected Configuration conf;
+        protected final int batchSize;
+        protected int numWorkers = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        protected int queueSize = 4;
+        protected Ordering ordering = Ordering.DETERMINISTIC;
+        protected boolean useWorkspace = true;
+        protected WritableConverter converter;
+        protected int labelIndex = -1;
+        protected int labelIndexTo = -1;
+        protected int numClasses = -1;
+        protected boolean regression = false;
+        protected DataSetPreProcessor preProcessor;
+        protected boolean collectMetaData = false;
+
+        /**
+         * @param readerFactory Factory to create one (uninitialized) record reader per worker
+         * @param split         Input split to read. It will be split into one partition (of locations) per worker
+         * @param batchSize     Minibatch size
+         */
+        public Builder(@NonNull Supplier<RecordReader> readerFactory, @NonNull InputSplit split, int batchSize) {
+            this.readerFactory = readerFactory;
+            this.split = split;
+            this.batchSize = batchSize;
+        }
+
+        /**
+         * Use this constructor for input splits that can't be partitioned by location (for example, database
+         * queries): each partition is read by a separate worker.
+         *
+         * @param readerFactory Factory to create one (uninitialized) record reader per worker
+         * @param partitions    Disjoint partitions of the input data, one per worker
+         * @param batchSize     Minibatch size
+         */
+        public Builder(@NonNull Supplier<RecordReader> readerFactory, @NonNull InputSplit[] partitions, int batchSize) {
+            Preconditions.checkArgument(partitions.length > 0, "At least one partition must be provided");
+            this.readerFactory = readerFactory;
+            this.partitions = partitions;
+            this.batchSize = batchSize;
+        }
+
+        /**
+         * Number of worker threads. Default: half the number of available processors. Ignored if the partitions
+         * are provided directly
+         */
+        public Builder numWorkers(int numWorkers) {
+            Preconditions.checkArgument(numWorkers > 0, "Number of workers must be > 0, got %s", numWorkers);
+            this.numWorkers = numWorkers;
+            return this;
+        }
+
+        /**
+         * Maximum number of prefetched minibatches per worker. Default: 4
+         */
+        public Builder queueSize(int queueSize) {
+            Preconditions.checkArgument(queueSize > 0, "Queue size must be > 0, got %s", queueSize);
+            this.queueSize = queueSize;
+            return this;
+        }
+
+        /**
+         * Order in which minibatches from different workers are returned. Default: {@link Ordering#DETERMINISTIC}
+         */
+        public Builder ordering(@NonNull Ordering ordering) {
+            this.ordering = ordering;
+            return this;
+        }
+
+        /**
+         * Whether workers should create DataSets in a workspace. Default: true
+         */
+        public Builder useWorkspace(boolean useWorkspace) {
+            this.useWorkspace = useWorkspace;
+            return this;
+        }
+
+        /**
+         * Configuration used to initialize each record reader
+         */
+        public Builder configuration(Configuration conf) {
+            this.conf = conf;
+            return this;
+        }
+
+        public Builder writableConverter(WritableConverter converter) {
+            this.converter = converter;
+            return this;
+        }
+
+        /**
+         * See {@link RecordReaderDataSetIterator.Builder#regression(int, int)}
+         */
+        public Builder regression(int labelIndexFrom, int labelIndexTo) {
+            this.labelIndex = labelIndexFrom;
+            this.labelIndexTo = labelIndexTo;
+            this.regression = true;
+            return this;
+        }
+
+        /**
+         * See {@link RecordReaderDataSetIterator.Builder#classification(int, int)}
+         */
+        public Builder classification(int labelIndex, int numClasses) {
+            this.labelIndex = labelIndex;
+            this.labelIndexTo = labelIndex;
+            this.numClasses = numClasses;
+            this.regression = false;
+            return this;
+        }
+
+        /**
+         * Preprocessor, applied by the worker threads
+         */
+        public Builder preProcessor(DataSetPreProcessor preProcessor) {
+            this.preProcessor = preProcessor;
+            return this;
+        }
+
+        public Builder collectMetaData(boolean collectMetaData) {
+            this.collectMetaData = collectMetaData;
+            return this;
+        }
+
+        public ParallelRecordReaderDataSetIterator build() {
+            return new ParallelRecordReaderDataSetIterator(this);
+        }
+    }
+}
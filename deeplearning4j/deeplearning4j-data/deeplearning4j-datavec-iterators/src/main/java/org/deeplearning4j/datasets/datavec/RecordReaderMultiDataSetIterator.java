@@ -35,9 +35,11 @@ import org.datavec.api.util.ndarray.RecordConverter;
 import org.datavec.api.writable.IntWritable;
 import org.datavec.api.writable.NDArrayWritable;
 import org.datavec.api.writable.Writable;
+import org.datavec.api.writable.batch.ColumnarRecordBatch;
 import org.datavec.api.writable.batch.NDArrayRecordBatch;
 import org.deeplearning4j.datasets.datavec.exception.ZeroLengthSequenceException;
 import org.nd4j.common.base.Preconditions;
+import org.nd4j.linalg.api.buffer.DataType;
 import org.nd4j.linalg.api.ndarray.INDArray;
 import org.nd4j.linalg.dataset.api.MultiDataSet;
 import org.nd4j.linalg.dataset.api.MultiDataSetPreProcessor;
@@ -82,8 +84,11 @@ public class RecordReaderMultiDataSetIterator implements MultiDataSetIterator, S
 
     private boolean resetSupported = true;
 
+    private DataType dataType;
+
     private RecordReaderMultiDataSetIterator(Builder builder) {
         this.batchSize = builder.batchSize;
+        this.dataType = builder.dataType != null ? builder.dataType : Nd4j.defaultFloatingPointType();
         this.alignmentMode = builder.alignmentMode;
         this.recordReaders = builder.recordReaders;
         this.sequenceRecordReaders = builder.sequenceRecordReaders;
@@ -136,6 +141,13 @@ public class RecordReaderMultiDataSetIterator implements MultiDataSetIterator, S
                 //Batch case, for efficiency: ImageRecordReader etc
                 List<List<Writable>> batchWritables = rr.next(num);
 
+                if(batchWritables instanceof ColumnarRecordBatch) {
+                    //Arrow, columnar CSV etc case: keep the batch as-is. Each used column range is later converted
+                    //straight to its final array (see convertColumnar), without materializing records
+                    nextRRVals.put(entry.getKey(), batchWritables);
+                    continue;
+                }
+
                 List<INDArray> batch;
                 if(batchWritables instanceof NDArrayRecordBatch) {
                     //ImageRecordReader etc case
@@ -209,6 +221,30 @@ public class RecordReaderMultiDataSetIterator implements MultiDataSetIterator, S
 
     //Filter out the required columns before conversion. This is to avoid trying to convert String etc columns
     private List<List<Writable>> filterRequiredColumns(String readerName, List<List<Writable>> list){
+        boolean[] req = requiredColumns(readerName);
+        if(req == null){
+            //No filtering required
+            return list;
+        }
+
+        List<List<Writable>> out = new ArrayList<>();
+        IntWritable zero = new IntWritable(0);
+        for(List<Writable> l : list){
+            List<Writable> lNew = new ArrayList<>(l.size());
+            for(int i=0; i<l.size(); i++ ){
+                if(i >= req.length || !req[i]){
+                    lNew.add(zero);
+                } else {
+                    lNew.add(l.get(i));
+                }
+            }
+            out.add(lNew);
+        }
+        return out;
+    }
+
+    //Columns of the specified reader that are used by one or more inputs/outputs. Null if the entire reader is used
+    private boolean[] requiredColumns(String readerName){
 
         //Options: (a) entire reader
         //(b) one or more subsets
@@ -236,8 +272,7 @@ public class RecordReaderMultiDataSetIterator implements MultiDataSetIterator, S
         }
 
         if(entireReader){
-            //No filtering required
-            return list;
+            return null;
         } else if(subsetList == null){
             throw new IllegalStateException("Found no usages of reader: " + readerName);
         } else {
@@ -248,21 +283,7 @@ public class RecordReaderMultiDataSetIterator implements MultiDataSetIterator, S
                     req[i] = true;
                 }
             }
-
-            List<List<Writable>> out = new ArrayList<>();
-            IntWritable zero = new IntWritable(0);
-            for(List<Writable> l : list){
-                List<Writable> lNew = new ArrayList<>(l.size());
-                for(int i=0; i<l.size(); i++ ){
-                    if(i >= req.length || !req[i]){
-                        lNew.add(zero);
-                    } else {
-                        lNew.add(l.get(i));
-                    }
-                }
-                out.add(lNew);
-            }
-            return out;
+            return req;
         }
     }
 
@@ -355,7 +376,11 @@ public class RecordReaderMultiDataSetIterator implements MultiDataSetIterator, S
             } else if (nextRRVals.containsKey(d.readerName)) {
                 //Standard reader
                 List<List<Writable>> list = nextRRVals.get(d.readerName);
-                featuresOrLabels[i] = convertWritables(list, minExamples, d);
+                if (list instanceof ColumnarRecordBatch) {
+                    featuresOrLabels[i] = convertColumnar((ColumnarRecordBatch) list, minExamples, d);
+                } else {
+                    featuresOrLabels[i] = convertWritables(list, minExamples, d);
+                }
             } else {
                 //Sequence reader
                 List<List<List<Writable>>> list = nextSeqRRVals.get(d.readerName);
@@ -401,7 +426,30 @@ public class RecordReaderMultiDataSetIterator implements MultiDataSetIterator, S
             return arr;
         }
 
-        //Do one-hot conversion
+        return toOneHot(arr, details);
+    }
+
+    //Single copy: the column range of the subset is converted straight to its final array. Columns that are not
+    //part of the subset are never read. The array never shares memory with the batch, which may be closed later
+    private INDArray convertColumnar(ColumnarRecordBatch batch, int minValues, SubsetDetails details) {
+        int[] columns;
+        if (details.entireReader) {
+            columns = new int[0];   //All columns
+        } else {
+            columns = new int[details.subsetEndInclusive - details.subsetStart + 1];
+            for (int j = 0; j < columns.length; j++) {
+                columns[j] = details.subsetStart + j;
+            }
+        }
+
+        INDArray arr = batch.toArray(dataType, columns);
+        if (arr.size(0) > minValues) {
+            arr = arr.get(NDArrayIndex.interval(0, minValues), NDArrayIndex.all());
+        }
+        return details.oneHot ? toOneHot(arr, details) : arr;
+    }
+
+    private INDArray toOneHot(INDArray arr, SubsetDetails details) {
         if (arr.size(1) != 1) {
             throw new UnsupportedOperationException("Cannot do conversion to one hot using batched reader: "
                             + details.oneHotNumClasses + " output classes, but array.size(1) is " + arr.size(1)
@@ -409,7 +457,7 @@ public class RecordReaderMultiDataSetIterator implements MultiDataSetIterator, S
         }
 
         val n = arr.size(0);
-        INDArray out = Nd4j.create(n, details.oneHotNumClasses);
+        INDArray out = Nd4j.create(dataType, n, details.oneHotNumClasses);
         for (int i = 0; i < n; i++) {
             int v = arr.getInt(i, 0);
             out.putScalar(i, v, 1.0);
@@ -463,12 +511,12 @@ public class RecordReaderMultiDataSetIterator implements MultiDataSetIterator, S
                 INDArray temp = ((NDArrayWritable) list.get(0).get(0)).get();
                 val shape = ArrayUtils.clone(temp.shape());
                 shape[0] = minValues;
-                arr = Nd4j.create(shape);
+                arr = Nd4j.create(dataType, shape);
             } else {
-                arr = Nd4j.create(minValues, countLength(list.get(0)));
+                arr = Nd4j.create(dataType, minValues, countLength(list.get(0)));
             }
         } else if (details.oneHot) {
-            arr = Nd4j.zeros(minValues, details.oneHotNumClasses);
+            arr = Nd4j.zeros(dataType, minValues, details.oneHotNumClasses);
         } else {
             if (details.subsetStart == details.subsetEndInclusive
                             && list.get(0).get(details.subsetStart) instanceof NDArrayWritable) {
@@ -476,11 +524,11 @@ public class RecordReaderMultiDataSetIterator implements MultiDataSetIterator, S
                 INDArray temp = ((NDArrayWritable) list.get(0).get(details.subsetStart)).get();
                 val shape = ArrayUtils.clone(temp.shape());
                 shape[0] = minValues;
-                arr = Nd4j.create(shape);
+                arr = Nd4j.create(dataType, shape);
             } else {
                 //Need to check for multiple NDArrayWritables, or mixed NDArrayWritable + DoubleWritable etc
                 int length = countLength(list.get(0), details.subsetStart, details.subsetEndInclusive);
-                arr = Nd4j.create(minValues, length);
+                arr = Nd4j.create(dataType, minValues, length);
             }
         }
 
@@ -488,7 +536,7 @@ public class RecordReaderMultiDataSetIterator implements MultiDataSetIterator, S
             List<Writable> c = list.get(i);
             if (details.entireReader) {
                 //Convert entire reader contents, without modification
-                INDArray converted = RecordConverter.toArray(Nd4j.defaultFloatingPointType(), c);
+                INDArray converted = RecordConverter.toArray(dataType, c);
                 putExample(arr, converted, i);
             } else if (details.oneHot) {
                 //Convert a single column to a one-hot representation
@@ -786,6 +834,7 @@ public class RecordReaderMultiDataSetIterator implements MultiDataSetIterator, S
 
         private boolean timeSeriesRandomOffset = false;
         private long timeSeriesRandomOffsetSeed = System.currentTimeMillis();
+        private DataType dataType;
 
         /**
          * @param batchSize The batch size for the RecordReaderMultiDataSetIterator
@@ -906,6 +955,17 @@ public class RecordReaderMultiDataSetIterator implements MultiDataSetIterator, S
             return this;
         }
 
+        /**
+         * Data type of the features and labels created from (non-sequence) record readers.
+         * Defaults to {@link Nd4j#defaultFloatingPointType()}
+         *
+         * @param dataType Data type for the arrays
+         */
+        public Builder dataType(DataType dataType) {
+            this.dataType = dataType;
+            return this;
+        }
+
         /**
          * Create the RecordReaderMultiDataSetIterator
          */
@@ -0,0 +1,138 @@
+/*
+ *  ******************************************************************************
+ *  *
+ *  *
+ *  * This program and the accompanying materials are made available under the
+ *  * terms of the Apache License, Version 2.0 which is available at
+ *  * https://www.apache.org/licenses/LICENSE-2.0.
+ *  *
+ *  *  See the NOTICE file distributed with this work for additional
+ *  *  information regarding copyright ownership.
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ *  * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ *  * License for the specific language governing permissions and limitations
+ *  * under the License.
+ *  *
+ *  * SPDX-License-Identifier: Apache-2.0
+ *  *****************************************************************************
+ */
+package org.deeplearning4j.datasets.iterator.sharded;
+
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.Setter;
+import org.nd4j.common.util.MathUtils;
+import org.nd4j.linalg.dataset.api.MultiDataSet;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+/**
+ * Base class for iterating over a sharded dataset written by {@link ShardedDataSetWriter}.<br>
+ * When shuffling is enabled, the order of examples is randomized globally (across all shards) on every reset.
+ *
+ * @param <T> Type of data returned
+ * @param <P> Type of preprocessor
+ */
+public abstract class BaseShardedIterator<T, P> implements Iterator<T>, Closeable {
+
+    private final ShardedDataSetReader reader;
+    protected final int batchSize;
+    protected final Random rng;
+
+    protected int[] order;
+    protected int position;
+
+    @Getter
+    @Setter
+    protected P preProcessor;
+
+    protected BaseShardedIterator(@NonNull File directory, int batchSize, boolean shuffle, long seed) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Batch size must be > 0, got " + batchSize);
+        }
+        try {
+            this.reader = new ShardedDataSetReader(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error opening sharded dataset at " + directory.getAbsolutePath(), e);
+        }
+        this.batchSize = batchSize;
+        this.rng = shuffle ? new Random(seed) : null;
+
+        order = new int[reader.numExamples()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        if (rng != null) {
+            MathUtils.shuffleArray(order, rng);
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        return position < order.length;
+    }
+
+    @Override
+    public T next() {
+        return next(batchSize);
+    }
+
+    public T next(int num) {
+        if (!hasNext()) {
+            throw new NoSuchElementException("No next element");
+        }
+        int end = Math.min(order.length, position + num);
+        MultiDataSet mds = reader.read(order, position, end);
+        position = end;
+        T out = convert(mds);
+        applyPreprocessor(out);
+        return out;
+    }
+
+    @Override
+    public void remove() {
+        throw new UnsupportedOperationException("Not supported");
+    }
+
+    public void reset() {
+        position = 0;
+        if (rng != null) {
+            MathUtils.shuffleArray(order, rng);
+        }
+    }
+
+    public boolean resetSupported() {
+        return true;
+    }
+
+    public boolean asyncSupported() {
+        return true;
+    }
+
+    /**
+     * @return Total number of examples in the dataset
+     */
+    public int numExamples() {
+        return order.length;
+    }
+
+    ShardedDataSetIndex index() {
+        return reader.getIndex();
+    }
+
+    @Override
+    public void close() {
+        reader.close();
+    }
+
+    protected abstract T convert(MultiDataSet mds);
+
+    protected abstract void applyPreprocessor(T toPreProcess);
+}
@@ -0,0 +1,195 @@
+/*
+ *  ******************************************************************************
+ *  *
+ *  *
+ *  * This program and the accompanying materials are made available under the
+ *  * terms of the Apache License, Version 2.0 which is available at
+ *  * https://www.apache.org/licenses/LICENSE-2.0.
+ *  *
+ *  *  See the NOTICE file distributed with this work for additional
+ *  *  information regarding copyright ownership.
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ *  * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ *  * License for the specific language governing permissions and limitations
+ *  * under the License.
+ *  *
+ *  * SPDX-License-Identifier: Apache-2.0
+ *  *****************************************************************************
+ */
+package org.deeplearning4j.datasets.iterator.sharded;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.nd4j.linalg.api.buffer.DataType;
+
+import java.io.*;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Index for a sharded binary dataset, as written by {@link ShardedDataSetWriter}.<br>
+ * The index describes the arrays ("slots") of each example, and the location of each example in the shard files.
+ * Slots are ordered as: features, labels, features masks, labels masks. Every example has the same slots, with the
+ * same data types and per-example shapes, so that examples can be read back into a minibatch with a fixed layout.<br>
+ * Within a shard, each example is stored as the concatenation of the raw ('c' order) data of each present slot,
+ * optionally compressed (per example, so that examples can be read independently).
+ */
+class ShardedDataSetIndex {
+    static final String INDEX_FILE_NAME = "index.bin";
+    static final long MAGIC = 0x444C344A53484152L;     //"DL4JSHAR"
+    static final int VERSION = 1;
+
+    @Getter
+    private final int numFeatures;
+    @Getter
+    private final int numLabels;
+    @Getter
+    private final ByteOrder byteOrder;
+    @Getter
+    private final Slot[] slots;
+    @Getter
+    private final List<Shard> shards;
+
+    ShardedDataSetIndex(int numFeatures, int numLabels, ByteOrder byteOrder, Slot[] slots, List<Shard> shards) {
+        this.numFeatures = numFeatures;
+        this.numLabels = numLabels;
+        this.byteOrder = byteOrder;
+        this.slots = slots;
+        this.shards = shards;
+    }
+
+    /**
+     * Layout of one array of each example. A null slot means the array is absent (for example, no mask arrays)
+     */
+    @AllArgsConstructor
+    @Getter
+    static class Slot {
+        private final DataType dataType;
+        private final long[] exampleShape;
+
+        long exampleLength() {
+            long l = 1;
+            for (long s : exampleShape) {
+                l *= s;
+            }
+            return l;
+        }
+
+        long exampleBytes() {
+            return exampleLength() * dataType.width();
+        }
+
+        @Override
+        public String toString() {
+            return dataType + Arrays.toString(exampleShape);
+        }
+    }
+
+    @AllArgsConstructor
+    @Getter
+    static class Shard {
+        private final String fileName;
+        private final boolean compressed;
+        private final long[] offsets;
+        private final int[] lengths;
+
+        int numExamples() {
+            return offsets.length;
+        }
+    }
+
+    long exampleBytes() {
+        long b = 0;
+        for (Slot s : slots) {
+            if (s != null)
+                b += s.exampleBytes();
+        }
+        return b;
+    }
+
+    int numExamples() {
+        int n = 0;
+        for (Shard s : shards) {
+            n += s.numExamples();
+        }
+        return n;
+    }
+
+    void save(File directory) throws IOException {
+        File f = new File(directory, INDEX_FILE_NAME);
+        try (DataOutputStream dos = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(f)))) {
+            dos.writeLong(MAGIC);
+            dos.writeInt(VERSION);
+            dos.writeBoolean(byteOrder == ByteOrder.BIG_ENDIAN);
+            dos.writeInt(numFeatures);
+            dos.writeInt(numLabels);
+            for (Slot s : slots) {
+                dos.writeBoolean(s != null);
+                if (s != null) {
+                    dos.writeUTF(s.getDataType().name());
+                    dos.writeInt(s.getExampleShape().length);
+                    for (long l : s.getExampleShape()) {
+                        dos.writeLong(l);
+                    }
+                }
+            }
+            dos.writeInt(shards.size());
+            for (Shard s : shards) {
+                dos.writeUTF(s.getFileName());
+                dos.writeBoolean(s.isCompressed());
+                dos.writeInt(s.numExamples());
+                for (int i = 0; i < s.numExamples(); i++) {
+                    dos.writeLong(s.getOffsets()[i]);
+                    dos.writeInt(s.getLengths()[i]);
+                }
+            }
+        }
+    }
+
+    static ShardedDataSetIndex load(File directory) throws IOException {
+        File f = new File(directory, INDEX_FILE_NAME);
+        if (!f.exists()) {
+            throw new FileNotFoundException("No sharded dataset index file (" + INDEX_FILE_NAME + ") found in directory "
+                    + directory.getAbsolutePath());
+        }
+        try (DataInputStream dis = new DataInputStream(new BufferedInputStream(new FileInputStream(f)))) {
+            if (dis.readLong() != MAGIC)
+                throw new IOException("Invalid sharded dataset index file: " + f.getAbsolutePath());
+            int version = dis.readInt();
+            if (version != VERSION)
+                throw new IOException("Unsupported sharded dataset version: " + version + " (supported: " + VERSION + ")");
+            ByteOrder order = dis.readBoolean() ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN;
+            int numFeatures = dis.readInt();
+            int numLabels = dis.readInt();
+            Slot[] slots = new Slot[2 * (numFeatures + numLabels)];
+            for (int i = 0; i < slots.length; i++) {
+                if (dis.readBoolean()) {
+                    DataType dt = DataType.valueOf(dis.readUTF());
+                    long[] shape = new long[dis.readInt()];
+                    for (int j = 0; j < shape.length; j++) {
+                        shape[j] = dis.readLong();
+                    }
+                    slots[i] = new Slot(dt, shape);
+                }
+            }
+            int numShards = dis.readInt();
+            List<Shard> shards = new ArrayList<>(numShards);
+            for (int i = 0; i < numShards; i++) {
+                String name = dis.readUTF();
+                boolean compressed = dis.readBoolean();
+                int n = dis.readInt();
+                long[] offsets = new long[n];
+                int[] lengths = new int[n];
+                for (int j = 0; j < n; j++) {
+                    offsets[j] = dis.readLong();
+                    lengths[j] = dis.readInt();
+                }
+                shards.add(new Shard(name, compressed, offsets, lengths));
+            }
+            return new ShardedDataSetIndex(numFeatures, numLabels, order, slots, shards);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ *  ******************************************************************************
+ *  *
+ *  *
+ *  * This program and the accompanying materials are made available under the
+ *  * terms of the Apache License, Version 2.0 which is available at
+ *  * https://www.apache.org/licenses/LICENSE-2.0.
+ *  *
+ *  *  See the NOTICE file distributed with this work for additional
+ *  *  information regarding copyright ownership.
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ *  * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ *  * License for the specific language governing permissions and limitations
+ *  * under the License.
+ *  *
+ *  * SPDX-License-Identifier: Apache-2.0
+ *  *****************************************************************************
+ */
+package org.deeplearning4j.datasets.iterator.sharded;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.nd4j.linalg.dataset.DataSet;
+import org.nd4j.linalg.dataset.api.DataSetPreProcessor;
+import org.nd4j.linalg.dataset.api.MultiDataSet;
+import org.nd4j.linalg.dataset.api.iterator.DataSetIterator;
+
+import java.io.File;
+import java.util.List;
+
+/**
+ * Iterate over a sharded dataset of DataSets (one features array and one labels array, plus optional masks), as
+ * written by {@link ShardedDataSetWriter}. Minibatches are read directly from the memory-mapped shard files.
+ *
+ * @see ShardedMultiDataSetIterator
+ */
+public class ShardedDataSetIterator extends BaseShardedIterator<DataSet, DataSetPreProcessor> implements DataSetIterator {
+
+    @Getter
+    @Setter
+    private List<String> labels;
+
+    /**
+     * Create an iterator without shuffling
+     *
+     * @param directory Directory containing the sharded dataset
+     * @param batchSize Minibatch size
+     */
+    public ShardedDataSetIterator(File directory, int batchSize) {
+        this(directory, batchSize, false, 0);
+    }
+
+    /**
+     * @param directory Directory containing the sharded dataset
+     * @param batchSize Minibatch size
+     * @param shuffle   If true: randomize the order of the examples (across all shards) on every epoch
+     * @param seed      RNG seed for shuffling
+     */
+    public ShardedDataSetIterator(File directory, int batchSize, boolean shuffle, long seed) {
+        super(directory, batchSize, shuffle, seed);
+        ShardedDataSetIndex idx = index();
+        if (idx.getNumFeatures() != 1 || idx.getNumLabels() != 1) {
+            close();
+            throw new IllegalStateException("Cannot iterate over sharded dataset with " + idx.getNumFeatures() +
+                    " features arrays and " + idx.getNumLabels() + " labels arrays using ShardedDataSetIterator: " +
+                    "use ShardedMultiDataSetIterator instead");
+        }
+    }
+
+    @Override
+    protected DataSet convert(MultiDataSet mds) {
+        return new DataSet(mds.getFeatures(0), mds.getLabels(0), mds.getFeaturesMaskArray(0), mds.getLabelsMaskArray(0));
+    }
+
+    @Override
+    protected void applyPreprocessor(DataSet toPreProcess) {
+        if (preProcessor != null) {
+            preProcessor.preProcess(toPreProcess);
+        }
+    }
+
+    @Override
+    public int inputColumns() {
+        return firstDim(index().getSlots()[0]);
+    }
+
+    @Override
+    public int totalOutcomes() {
+        return firstDim(index().getSlots()[1]);
+    }
+
+    @Override
+    public int batch() {
+        return batchSize;
+    }
+
+    private static int firstDim(ShardedDataSetIndex.Slot slot) {
+        long[] shape = slot.getExampleShape();
+        return shape.length == 0 ? 1 : (int) shape[0];
+    }
+}
@@ -0,0 +1,191 @@
+/*
+ *  ******************************************************************************
+ *  *
+ *  *
+ *  * This program and the accompanying materials are made available under the
+ *  * terms of the Apache License, Version 2.0 which is available at
+ *  * https://www.apache.org/licenses/LICENSE-2.0.
+ *  *
+ *  *  See the NOTICE file distributed with this work for additional
+ *  *  information regarding copyright ownership.
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ *  * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ *  * License for the specific language governing permissions and limitations
+ *  * under the License.
+ *  *
+ *  * SPDX-License-Identifier: Apache-2.0
+ *  *****************************************************************************
+ */
+package org.deeplearning4j.datasets.iterator.sharded;
+
+import lombok.Getter;
+import org.nd4j.linalg.api.concurrency.AffinityManager;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.dataset.api.MultiDataSet;
+import org.nd4j.linalg.factory.Nd4j;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Reads examples from a sharded dataset written by {@link ShardedDataSetWriter}. Shard files are memory mapped, and
+ * examples are copied directly from the mapped files into the (uninitialized) minibatch arrays.<br>
+ * Not thread safe.
+ */
+class ShardedDataSetReader implements Closeable {
+    @Getter
+    private final ShardedDataSetIndex index;
+    private final MappedByteBuffer[] shards;
+    private final int[] shardStart;
+    private final int numExamples;
+    private final int exampleBytes;
+
+    private Inflater inflater;
+    private byte[] compressed;
+    private byte[] inflated;
+
+    ShardedDataSetReader(File directory) throws IOException {
+        this.index = ShardedDataSetIndex.load(directory);
+        if (index.getByteOrder() != ByteOrder.nativeOrder()) {
+            throw new IllegalStateException("Sharded dataset at " + directory.getAbsolutePath() + " was written with "
+                    + index.getByteOrder() + " byte order, but this platform uses " + ByteOrder.nativeOrder());
+        }
+        int n = index.getShards().size();
+        this.shards = new MappedByteBuffer[n];
+        this.shardStart = new int[n];
+        int count = 0;
+        for (int i = 0; i < n; i++) {
+            ShardedDataSetIndex.Shard s = index.getShards().get(i);
+            File f = new File(directory, s.getFileName());
+            //The mapping remains valid after the channel is closed
+            try (FileChannel fc = FileChannel.open(f.toPath(), StandardOpenOption.READ)) {
+                shards[i] = fc.map(FileChannel.MapMode.READ_ONLY, 0, fc.size());
+            }
+            shardStart[i] = count;
+            count += s.numExamples();
+        }
+        this.numExamples = count;
+        this.exampleBytes = (int) index.exampleBytes();
+    }
+
+    int numExamples() {
+        return numExamples;
+    }
+
+    /**
+     * Read the examples order[from], ..., order[to-1] as a single minibatch
+     */
+    MultiDataSet read(int[] order, int from, int to) {
+        ShardedDataSetIndex.Slot[] slots = index.getSlots();
+        int b = to - from;
+        INDArray[] arrays = new INDArray[slots.length];
+        ByteBuffer[] dst = new ByteBuffer[slots.length];
+        for (int i = 0; i < slots.length; i++) {
+            if (slots[i] == null)
+                continue;
+            long[] exampleShape = slots[i].getExampleShape();
+            long[] shape = new long[exampleShape.length + 1];
+            shape[0] = b;
+            System.arraycopy(exampleShape, 0, shape, 1, exampleShape.length);
+            arrays[i] = Nd4j.createUninitialized(slots[i].getDataType(), shape, 'c');
+            dst[i] = arrays[i].data().asNio();
+        }
+
+        for (int e = 0; e < b; e++) {
+            ByteBuffer record = record(order[from + e]);
+            for (int i = 0; i < slots.length; i++) {
+                if (slots[i] == null)
+                    continue;
+                int slotBytes = (int) slots[i].exampleBytes();
+                record.limit(record.position() + slotBytes);
+                dst[i].position(e * slotBytes);
+                dst[i].put(record);
+            }
+        }
+
+        for (INDArray a : arrays) {
+            if (a != null)
+                Nd4j.getAffinityManager().tagLocation(a, AffinityManager.Location.HOST);
+        }
+
+        int nF = index.getNumFeatures();
+        int nL = index.getNumLabels();
+        return new org.nd4j.linalg.dataset.MultiDataSet(
+                Arrays.copyOfRange(arrays, 0, nF),
+                Arrays.copyOfRange(arrays, nF, nF + nL),
+                allNullToNull(Arrays.copyOfRange(arrays, nF + nL, 2 * nF + nL)),
+                allNullToNull(Arrays.copyOfRange(arrays, 2 * nF + nL, 2 * (nF + nL))));
+    }
+
+    private ByteBuffer record(int example) {
+        int s = Arrays.binarySearch(shardStart, example);
+        if (s < 0) {
+            s = -s - 2;
+        } else {
+            //Skip any empty shards with the same start index
+            while (s + 1 < shardStart.length && shardStart[s + 1] == example)
+                s++;
+        }
+        ShardedDataSetIndex.Shard shard = index.getShards().get(s);
+        int idx = example - shardStart[s];
+        int offset = (int) shard.getOffsets()[idx];
+        int length = shard.getLengths()[idx];
+
+        ByteBuffer bb = shards[s].duplicate();
+        bb.position(offset);
+        bb.limit(offset + length);
+        if (!shard.isCompressed())
+            return bb;
+
+        if (inflater == null) {
+            inflater = new Inflater();
+            inflated = new byte[exampleBytes];
+        }
+        if (compressed == null || compressed.length < length)
+            compressed = new byte[length];
+        bb.get(compressed, 0, length);
+        inflater.reset();
+        inflater.setInput(compressed, 0, length);
+        try {
+            int n = 0;
+            while (n < exampleBytes && !inflater.finished()) {
+                int r = inflater.inflate(inflated, n, exampleBytes - n);
+                if (r == 0 && (inflater.needsInput() || inflater.needsDictionary()))
+                    break;
+                n += r;
+            }
+            if (n != exampleBytes)
+                throw new IllegalStateException("Corrupt sharded dataset: expected " + exampleBytes + " bytes for example "
+                        + example + ", got " + n);
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Corrupt sharded dataset: error decompressing example " + example, e);
+        }
+        return ByteBuffer.wrap(inflated, 0, exampleBytes);
+    }
+
+    private static INDArray[] allNullToNull(INDArray[] arrays) {
+        for (INDArray a : arrays) {
+            if (a != null)
+                return arrays;
+        }
+        return null;
+    }
+
+    @Override
+    public void close() {
+        if (inflater != null) {
+            inflater.end();
+            inflater = null;
+        }
+    }
+}
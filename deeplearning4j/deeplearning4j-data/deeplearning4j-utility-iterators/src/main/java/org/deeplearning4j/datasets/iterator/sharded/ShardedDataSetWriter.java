@@ -0,0 +1,309 @@
+/*
+ *  ******************************************************************************
+ *  *
+ *  *
+ *  * This program and the accompanying materials are made available under the
+ *  * terms of the Apache License, Version 2.0 which is available at
+ *  * https://www.apache.org/licenses/LICENSE-2.0.
+ *  *
+ *  *  See the NOTICE file distributed with this work for additional
+ *  *  information regarding copyright ownership.
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ *  * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ *  * License for the specific language governing permissions and limitations
+ *  * under the License.
+ *  *
+ *  * SPDX-License-Identifier: Apache-2.0
+ *  *****************************************************************************
+ */
+package org.deeplearning4j.datasets.iterator.sharded;
+
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.nd4j.common.base.Preconditions;
+import org.nd4j.linalg.api.buffer.DataType;
+import org.nd4j.linalg.api.concurrency.AffinityManager;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.dataset.api.DataSet;
+import org.nd4j.linalg.dataset.api.MultiDataSet;
+import org.nd4j.linalg.dataset.api.iterator.DataSetIterator;
+import org.nd4j.linalg.dataset.api.iterator.MultiDataSetIterator;
+import org.nd4j.linalg.factory.Nd4j;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.Deflater;
+
+/**
+ * Writes DataSets or MultiDataSets to a sharded, indexed binary format, that can be read using
+ * {@link ShardedDataSetIterator} and {@link ShardedMultiDataSetIterator}.<br>
+ * Usage: create the writer, call one of the write methods one or more times (for example, to convert an entire
+ * RecordReaderDataSetIterator in a single pass), then close the writer to write the index file.<br>
+ * <br>
+ * Examples are stored individually (not as minibatches), so the data can be read back with any minibatch size, and
+ * shuffled globally (not only within each minibatch or file). All examples must have the same arrays, with the same
+ * data types and per-example shapes: for example, time series data must be padded to a fixed length.<br>
+ * Examples are split into shard files of at most examplesPerShard examples (and less than 2GB each). Compression, if
+ * enabled, is applied to each example separately so that examples can still be read in any order.
+ */
+@Slf4j
+public class ShardedDataSetWriter implements Closeable {
+    public static final int DEFAULT_EXAMPLES_PER_SHARD = 10000;
+    //Shards are memory mapped when reading, and a single mapping is limited to 2GB
+    private static final long MAX_SHARD_BYTES = Integer.MAX_VALUE;
+
+    public enum Compression {NONE, DEFLATE}
+
+    @Getter
+    private final File directory;
+    private final int examplesPerShard;
+    private final Compression compression;
+
+    private int numFeatures = -1;
+    private int numLabels = -1;
+    private ShardedDataSetIndex.Slot[] slots;
+    private int exampleBytes;
+    private final List<ShardedDataSetIndex.Shard> shards = new ArrayList<>();
+    @Getter
+    private long numExamples;
+
+    private OutputStream shardOut;
+    private String shardName;
+    private long shardBytes;
+    private final List<Long> shardOffsets = new ArrayList<>();
+    private final List<Integer> shardLengths = new ArrayList<>();
+
+    private byte[] record;
+    private byte[] compressed;
+    private Deflater deflater;
+    private boolean closed;
+
+    /**
+     * Create a writer with the default number of examples per shard, and no compression
+     *
+     * @param directory Directory to write the dataset to
+     */
+    public ShardedDataSetWriter(@NonNull File directory) {
+        this(directory, DEFAULT_EXAMPLES_PER_SHARD, Compression.NONE);
+    }
+
+    /**
+     * @param directory        Directory to write the dataset to. Must not already contain a sharded dataset
+     * @param examplesPerShard Maximum number of examples per shard file
+     * @param compression      Compression to use for the examples in each shard
+     */
+    public ShardedDataSetWriter(@NonNull File directory, int examplesPerShard, @NonNull Compression compression) {
+        Preconditions.checkArgument(examplesPerShard > 0, "Examples per shard must be > 0, got %s", examplesPerShard);
+        if (new File(directory, ShardedDataSetIndex.INDEX_FILE_NAME).exists()) {
+            throw new IllegalStateException("Directory already contains a sharded dataset: " + directory.getAbsolutePath());
+        }
+        if (!directory.exists() && !directory.mkdirs()) {
+            throw new IllegalStateException("Could not create directory: " + directory.getAbsolutePath());
+        }
+        this.directory = directory;
+        this.examplesPerShard = examplesPerShard;
+        this.compression = compression;
+    }
+
+    /**
+     * Write all remaining DataSets from the iterator
+     */
+    public void write(@NonNull DataSetIterator iterator) throws IOException {
+        while (iterator.hasNext()) {
+            write(iterator.next());
+        }
+    }
+
+    /**
+     * Write all remaining MultiDataSets from the iterator
+     */
+    public void write(@NonNull MultiDataSetIterator iterator) throws IOException {
+        while (iterator.hasNext()) {
+            write(iterator.next());
+        }
+    }
+
+    /**
+     * Write all examples in the DataSet
+     */
+    public void write(@NonNull DataSet dataSet) throws IOException {
+        writeArrays(1, 1, new INDArray[]{dataSet.getFeatures(), dataSet.getLabels(),
+                dataSet.getFeaturesMaskArray(), dataSet.getLabelsMaskArray()});
+    }
+
+    /**
+     * Write all examples in the MultiDataSet
+     */
+    public void write(@NonNull MultiDataSet dataSet) throws IOException {
+        INDArray[] f = dataSet.getFeatures();
+        INDArray[] l = dataSet.getLabels();
+        INDArray[] fm = dataSet.getFeaturesMaskArrays();
+        INDArray[] lm = dataSet.getLabelsMaskArrays();
+        INDArray[] arrays = new INDArray[2 * (f.length + l.length)];
+        System.arraycopy(f, 0, arrays, 0, f.length);
+        System.arraycopy(l, 0, arrays, f.length, l.length);
+        if (fm != null)
+            System.arraycopy(fm, 0, arrays, f.length + l.length, fm.length);
+        if (lm != null)
+            System.arraycopy(lm, 0, arrays, 2 * f.length + l.length, lm.length);
+        writeArrays(f.length, l.length, arrays);
+    }
+
+    private void writeArrays(int nFeatures, int nLabels, INDArray[] arrays) throws IOException {
+        Preconditions.checkState(!closed, "Writer has been closed");
+        if (slots == null) {
+            initSlots(nFeatures, nLabels, arrays);
+        }
+        validate(nFeatures, nLabels, arrays);
+
+        long n = arrays[0].size(0);
+        ByteBuffer[] buffers = new ByteBuffer[arrays.length];
+        for (int i = 0; i < arrays.length; i++) {
+            if (arrays[i] == null)
+                continue;
+            INDArray a = arrays[i];
+            if (a.isView() || a.ordering() != 'c') {
+                a = a.dup('c');
+            }
+            Nd4j.getAffinityManager().ensureLocation(a, AffinityManager.Location.HOST);
+            buffers[i] = a.data().asNio();
+        }
+
+        for (int ex = 0; ex < n; ex++) {
+            int pos = 0;
+            for (int i = 0; i < slots.length; i++) {
+                if (slots[i] == null)
+                    continue;
+                int slotBytes = (int) slots[i].exampleBytes();
+                ByteBuffer bb = buffers[i];
+                bb.position(ex * slotBytes);
+                bb.get(record, pos, slotBytes);
+                pos += slotBytes;
+            }
+            writeRecord();
+        }
+    }
+
+    private void initSlots(int nFeatures, int nLabels, INDArray[] arrays) {
+        numFeatures = nFeatures;
+        numLabels = nLabels;
+        slots = new ShardedDataSetIndex.Slot[arrays.length];
+        long bytes = 0;
+        for (int i = 0; i < arrays.length; i++) {
+            INDArray a = arrays[i];
+            if (a == null)
+                continue;
+            DataType dt = a.dataType();
+            Preconditions.checkState(dt.isNumerical() || dt == DataType.BOOL, "Only numerical and boolean arrays are " +
+                    "supported, got array with data type %s", dt);
+            slots[i] = new ShardedDataSetIndex.Slot(dt, Arrays.copyOfRange(a.shape(), 1, a.rank()));
+            bytes += slots[i].exampleBytes();
+        }
+        Preconditions.checkState(bytes < MAX_SHARD_BYTES, "Examples are too large: %s bytes per example", bytes);
+        exampleBytes = (int) bytes;
+        record = new byte[exampleBytes];
+    }
+
+    private void validate(int nFeatures, int nLabels, INDArray[] arrays) {
+        if (nFeatures != numFeatures || nLabels != numLabels) {
+            throw new IllegalStateException("All data must have the same number of features and labels arrays: " +
+                    "expected " + numFeatures + " features and " + numLabels + " labels arrays, got " + nFeatures +
+                    " and " + nLabels);
+        }
+        long n = arrays[0].size(0);
+        for (int i = 0; i < arrays.length; i++) {
+            INDArray a = arrays[i];
+            ShardedDataSetIndex.Slot s = slots[i];
+            if ((a == null) != (s == null)) {
+                throw new IllegalStateException("All data must have the same arrays present: array " + i + " (of " +
+                        arrays.length + ") is " + (a == null ? "absent" : "present") + " but was " +
+                        (s == null ? "absent" : "present") + " in the first data written. Order of arrays: features, " +
+                        "labels, features masks, labels masks");
+            }
+            if (a == null)
+                continue;
+            if (a.dataType() != s.getDataType() || !Arrays.equals(Arrays.copyOfRange(a.shape(), 1, a.rank()), s.getExampleShape())) {
+                throw new IllegalStateException("All examples must have the same data type and shape: array " + i +
+                        " expected " + s + " per example, got array with data type " + a.dataType() + " and shape " +
+                        Arrays.toString(a.shape()));
+            }
+            if (a.size(0) != n) {
+                throw new IllegalStateException("All arrays must have the same number of examples: got " + n + " and "
+                        + a.size(0));
+            }
+        }
+    }
+
+    private void writeRecord() throws IOException {
+        long maxRecordBytes = exampleBytes + exampleBytes / 1000 + 64;      //Upper bound, for deflate
+        if (shardOut == null || shardOffsets.size() >= examplesPerShard || shardBytes + maxRecordBytes > MAX_SHARD_BYTES) {
+            finishShard();
+            shardName = String.format("shard-%05d.bin", shards.size());
+            shardOut = new BufferedOutputStream(new FileOutputStream(new File(directory, shardName)));
+        }
+
+        byte[] toWrite = record;
+        int length = exampleBytes;
+        if (compression == Compression.DEFLATE) {
+            if (deflater == null) {
+                deflater = new Deflater(Deflater.BEST_SPEED);
+                compressed = new byte[(int) maxRecordBytes];
+            }
+            deflater.reset();
+            deflater.setInput(record, 0, exampleBytes);
+            deflater.finish();
+            length = 0;
+            while (!deflater.finished()) {
+                if (length == compressed.length)
+                    compressed = Arrays.copyOf(compressed, 2 * compressed.length);
+                length += deflater.deflate(compressed, length, compressed.length - length);
+            }
+            toWrite = compressed;
+        }
+
+        shardOut.write(toWrite, 0, length);
+        shardOffsets.add(shardBytes);
+        shardLengths.add(length);
+        shardBytes += length;
+        numExamples++;
+    }
+
+    private void finishShard() throws IOException {
+        if (shardOut == null)
+            return;
+        shardOut.close();
+        long[] offsets = new long[shardOffsets.size()];
+        int[] lengths = new int[shardLengths.size()];
+        for (int i = 0; i < offsets.length; i++) {
+            offsets[i] = shardOffsets.get(i);
+            lengths[i] = shardLengths.get(i);
+        }
+        shards.add(new ShardedDataSetIndex.Shard(shardName, compression != Compression.NONE, offsets, lengths));
+        shardOut = null;
+        shardBytes = 0;
+        shardOffsets.clear();
+        shardLengths.clear();
+    }
+
+    /**
+     * Finish writing the current shard, and write the index. The dataset can't be read until the writer is closed
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed)
+            return;
+        closed = true;
+        finishShard();
+        if (deflater != null)
+            deflater.end();
+        ShardedDataSetIndex.Slot[] s = (slots == null ? new ShardedDataSetIndex.Slot[0] : slots);
+        new ShardedDataSetIndex(Math.max(0, numFeatures), Math.max(0, numLabels), ByteOrder.nativeOrder(), s, shards).save(directory);
+        log.info("Wrote {} examples in {} shards to {}", numExamples, shards.size(), directory.getAbsolutePath());
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ *  ******************************************************************************
+ *  *
+ *  *
+ *  * This program and the accompanying materials are made available under the
+ *  * terms of the Apache License, Version 2.0 which is available at
+ *  * https://www.apache.org/licenses/LICENSE-2.0.
+ *  *
+ *  *  See the NOTICE file distributed with this work for additional
+ *  *  information regarding copyright ownership.
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ *  * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ *  * License for the specific language governing permissions and limitations
+ *  * under the License.
+ *  *
+ *  * SPDX-License-Identifier: Apache-2.0
+ *  *****************************************************************************
+ */
+package org.deeplearning4j.datasets.iterator.sharded;
+
+import org.nd4j.linalg.dataset.api.MultiDataSet;
+import org.nd4j.linalg.dataset.api.MultiDataSetPreProcessor;
+import org.nd4j.linalg.dataset.api.iterator.MultiDataSetIterator;
+
+import java.io.File;
+
+/**
+ * Iterate over a sharded dataset of MultiDataSets, as written by {@link ShardedDataSetWriter}. Minibatches are read
+ * directly from the memory-mapped shard files.
+ *
+ * @see ShardedDataSetIterator
+ */
+public class ShardedMultiDataSetIterator extends BaseShardedIterator<MultiDataSet, MultiDataSetPreProcessor> implements MultiDataSetIterator {
+
+    /**
+     * Create an iterator without shuffling
+     *
+     * @param directory Directory containing the sharded dataset
+     * @param batchSize Minibatch size
+     */
+    public ShardedMultiDataSetIterator(File directory, int batchSize) {
+        this(directory, batchSize, false, 0);
+    }
+
+    /**
+     * @param directory Directory containing the sharded dataset
+     * @param batchSize Minibatch size
+     * @param shuffle   If true: randomize the order of the examples (across all shards) on every epoch
+     * @param seed      RNG seed for shuffling
+     */
+    public ShardedMultiDataSetIterator(File directory, int batchSize, boolean shuffle, long seed) {
+        super(directory, batchSize, shuffle, seed);
+    }
+
+    @Override
+    protected MultiDataSet convert(MultiDataSet mds) {
+        return mds;
+    }
+
+    @Override
+    protected void applyPreprocessor(MultiDataSet toPreProcess) {
+        if (preProcessor != null) {
+            preProcessor.preProcess(toPreProcess);
+        }
+    }
+}
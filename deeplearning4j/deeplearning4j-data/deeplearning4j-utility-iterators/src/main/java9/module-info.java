@@ -11,6 +11,7 @@ module deeplearning4j.utility.iterators {
     exports org.deeplearning4j.datasets.iterator.file;
     exports org.deeplearning4j.datasets.iterator.loader;
     exports org.deeplearning4j.datasets.iterator.parallel;
+    exports org.deeplearning4j.datasets.iterator.sharded;
     exports org.deeplearning4j.datasets.iterator.utilty;
 
 }
@@ -44,7 +44,9 @@ import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 public class BagOfWordsVectorizer extends BaseTextVectorizer {
 
@@ -100,6 +102,17 @@ public class BagOfWordsVectorizer extends BaseTextVectorizer {
         return input;
     }
 
+    @Override
+    protected Map<Integer, Double> tokenWeights(List<String> tokens) {
+        Map<Integer, Double> weights = new HashMap<>();
+        for (String token : tokens) {
+            int idx = vocabCache.indexOf(token);
+            if (idx >= 0)
+                weights.put(idx, (double) vocabCache.wordFrequency(token));
+        }
+        return weights;
+    }
+
     /**
      * @param input the text to vectorize
      * @param label the label of the text
@@ -32,9 +32,11 @@ import org.deeplearning4j.text.documentiterator.LabelAwareIterator;
 import org.deeplearning4j.text.documentiterator.LabelsSource;
 import org.deeplearning4j.text.invertedindex.InvertedIndex;
 import org.deeplearning4j.text.tokenization.tokenizerfactory.TokenizerFactory;
+import org.nd4j.linalg.api.buffer.DataType;
+import org.nd4j.linalg.factory.Nd4j;
+import org.nd4j.linalg.sparse.CsrMatrix;
 
-import java.util.ArrayList;
-import java.util.Collection;
+import java.util.*;
 
 public abstract class BaseTextVectorizer implements TextVectorizer {
     @Setter
@@ -76,6 +78,66 @@ public abstract class BaseTextVectorizer implements TextVectorizer {
         buildVocab();
     }
 
+    /**
+     * Transforms each text into one row of a sparse CSR matrix with shape [texts.size(), vocabSize].<br>
+     * Each row holds the same values as {@link #transform(String)}, but only the entries for words present in
+     * the text are stored, instead of a dense vector of vocabulary size per text.
+     *
+     * @param texts texts to transform, one document each
+     * @return sparse matrix, one row per text
+     */
+    public CsrMatrix transformSparse(Collection<String> texts) {
+        List<List<String>> documents = new ArrayList<>(texts.size());
+        for (String text : texts) {
+            documents.add(tokenizerFactory.create(text).getTokens());
+        }
+        return transformTokensSparse(documents);
+    }
+
+    /**
+     * Transforms each tokenized document into one row of a sparse CSR matrix with shape [documents.size(), vocabSize].
+     * See {@link #transformSparse(Collection)}
+     *
+     * @param documents tokens of each document
+     * @return sparse matrix, one row per document
+     */
+    public CsrMatrix transformTokensSparse(List<List<String>> documents) {
+        List<Integer> columns = new ArrayList<>();
+        List<Double> values = new ArrayList<>();
+        long[] rowPointers = new long[documents.size() + 1];
+        for (int i = 0; i < documents.size(); i++) {
+            //Sorted by vocab index, so that each CSR row has sorted column indices
+            TreeMap<Integer, Double> weights = new TreeMap<>(tokenWeights(documents.get(i)));
+            for (Map.Entry<Integer, Double> e : weights.entrySet()) {
+                columns.add(e.getKey());
+                values.add(e.getValue());
+            }
+            rowPointers[i + 1] = columns.size();
+        }
+
+        DataType dataType = Nd4j.defaultFloatingPointType();
+        int vocabSize = vocabCache.numWords();
+        if (values.isEmpty()) {
+            return new CsrMatrix(Nd4j.empty(dataType), Nd4j.empty(DataType.INT64), Nd4j.createFromArray(rowPointers), vocabSize);
+        }
+        double[] v = new double[values.size()];
+        long[] c = new long[columns.size()];
+        for (int j = 0; j < v.length; j++) {
+            v[j] = values.get(j);
+            c[j] = columns.get(j);
+        }
+        return new CsrMatrix(Nd4j.createFromArray(v).castTo(dataType), Nd4j.createFromArray(c),
+                Nd4j.createFromArray(rowPointers), vocabSize);
+    }
+
+    /**
+     * Weights of the in-vocabulary words of a single document, as used by {@link #transform(List)}
+     *
+     * @param tokens tokens of the document
+     * @return map of vocab index to weight, for each word of the document that is in the vocabulary
+     */
+    protected abstract Map<Integer, Double> tokenWeights(List<String> tokens);
+
     /**
      * Returns the number of words encountered so far
      *
@@ -142,6 +142,22 @@ public class TfidfVectorizer extends BaseTextVectorizer {
         return ret;
     }
 
+    @Override
+    protected Map<Integer, Double> tokenWeights(List<String> tokens) {
+        Map<String, AtomicLong> counts = new HashMap<>();
+        for (String token : tokens) {
+            counts.computeIfAbsent(token, t -> new AtomicLong(0)).incrementAndGet();
+        }
+
+        Map<Integer, Double> weights = new HashMap<>();
+        for (Map.Entry<String, AtomicLong> e : counts.entrySet()) {
+            int idx = vocabCache.indexOf(e.getKey());
+            if (idx >= 0)
+                weights.put(idx, tfidfWord(e.getKey(), e.getValue().longValue(), tokens.size()));
+        }
+        return weights;
+    }
+
     public double tfidfWord(String word, long wordCount, long documentLength) {
         //log.info("word: {}; TF: {}; IDF: {}", word, tfForWord(wordCount, documentLength), idfForWord(word));
         return MathUtils.tfidf(tfForWord(wordCount, documentLength), idfForWord(word));
@@ -93,6 +93,8 @@ public class ComputationGraphConfiguration implements Serializable, Cloneable {
     protected BackpropType backpropType = BackpropType.Standard;
     protected int tbpttFwdLength = 20;
     protected int tbpttBackLength = 20;
+    //Number of minibatches to accumulate gradients over before applying a parameter update
+    protected int gradientAccumulationSteps = 1;
 
     protected NeuralNetConfiguration defaultConfiguration;
 
@@ -327,6 +329,7 @@ public class ComputationGraphConfiguration implements Serializable, Cloneable {
         conf.backpropType = backpropType;
         conf.tbpttFwdLength = tbpttFwdLength;
         conf.tbpttBackLength = tbpttBackLength;
+        conf.gradientAccumulationSteps = gradientAccumulationSteps;
         conf.defaultConfiguration = defaultConfiguration.clone();
         conf.trainingWorkspaceMode = trainingWorkspaceMode;
         conf.inferenceWorkspaceMode = inferenceWorkspaceMode;
@@ -724,6 +727,7 @@ public class ComputationGraphConfiguration implements Serializable, Cloneable {
         protected BackpropType backpropType = BackpropType.Standard;
         protected int tbpttFwdLength = DEFAULT_TBPTT_LENGTH;
         protected int tbpttBackLength = DEFAULT_TBPTT_LENGTH;
+        protected int gradientAccumulationSteps = 1;
 
         protected Map<String, InputPreProcessor> inputPreProcessors = new LinkedHashMap<>();
 
@@ -752,6 +756,7 @@ public class ComputationGraphConfiguration implements Serializable, Cloneable {
             this.backpropType = clonedConf.getBackpropType();
             this.tbpttFwdLength = clonedConf.getTbpttFwdLength();
             this.tbpttBackLength = clonedConf.getTbpttBackLength();
+            this.gradientAccumulationSteps = clonedConf.getGradientAccumulationSteps();
             this.globalConfiguration = globalConfiguration;
             //this.getGlobalConfiguration().setSeed(clonedConf.getDefaultConfiguration().getSeed());
         }
@@ -811,6 +816,23 @@ public class ComputationGraphConfiguration implements Serializable, Cloneable {
             return this;
         }
 
+        /**
+         * Number of minibatches to accumulate gradients over before a parameter update is applied. Default: 1 (apply
+         * an update after every minibatch).<br>
+         * When set to N > 1, the gradients of N consecutive minibatches (i.e., N calls to fit) are summed and a single
+         * update is then applied, using the total number of examples for minibatch normalization. This gives an effective
+         * minibatch size of N times the actual minibatch size, without the memory cost of the larger minibatch.
+         * Note that the iteration count (and hence learning rate schedules, listeners etc) only advances when an update
+         * is applied.
+         *
+         * @param steps Number of minibatches to accumulate gradients over. Must be >= 1
+         */
+        public GraphBuilder gradientAccumulationSteps(int steps) {
+            Preconditions.checkArgument(steps >= 1, "Gradient accumulation steps must be >= 1, got %s", steps);
+            this.gradientAccumulationSteps = steps;
+            return this;
+        }
+
         /**
          * When doing truncated backpropagation through time (tBPTT): how many steps should we do?<br>
          * Only applicable when doing backpropType(BackpropType.TruncatedBPTT)<br>
@@ -1190,6 +1212,7 @@ public class ComputationGraphConfiguration implements Serializable, Cloneable {
             conf.backpropType = backpropType;
             conf.tbpttBackLength = tbpttBackLength;
             conf.tbpttFwdLength = tbpttFwdLength;
+            conf.gradientAccumulationSteps = gradientAccumulationSteps;
 
             conf.networkInputs = networkInputs;
             conf.networkOutputs = networkOutputs;
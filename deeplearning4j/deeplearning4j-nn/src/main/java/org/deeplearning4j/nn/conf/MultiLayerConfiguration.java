@@ -34,6 +34,7 @@ import org.deeplearning4j.nn.conf.serde.JsonMappers;
 import org.deeplearning4j.nn.weights.IWeightInit;
 import org.deeplearning4j.nn.weights.WeightInit;
 import org.deeplearning4j.util.OutputLayerUtil;
+import org.nd4j.common.base.Preconditions;
 import org.nd4j.linalg.activations.Activation;
 import org.nd4j.linalg.activations.IActivation;
 import org.nd4j.linalg.api.buffer.DataType;
@@ -64,6 +65,8 @@ public class MultiLayerConfiguration implements Serializable, Cloneable {
     protected int tbpttFwdLength = 20;
     protected int tbpttBackLength = 20;
     protected boolean validateOutputLayerConfig = true; //Default to legacy for pre 1.0.0-beta3 networks on deserialization
+    //Number of minibatches to accumulate gradients over before applying a parameter update
+    protected int gradientAccumulationSteps = 1;
 
     @Getter
     @Setter
@@ -478,6 +481,7 @@ public class MultiLayerConfiguration implements Serializable, Cloneable {
         protected boolean validateOutputConfig = true;
         protected boolean validateTbpttConfig = true;
         protected DataType dataType;
+        protected int gradientAccumulationSteps = 1;
         protected boolean overrideNinUponBuild = true;
 
 
@@ -601,6 +605,23 @@ public class MultiLayerConfiguration implements Serializable, Cloneable {
             return this;
         }
 
+        /**
+         * Number of minibatches to accumulate gradients over before a parameter update is applied. Default: 1 (apply
+         * an update after every minibatch).<br>
+         * When set to N > 1, the gradients of N consecutive minibatches (i.e., N calls to fit) are summed and a single
+         * update is then applied, using the total number of examples for minibatch normalization. This gives an effective
+         * minibatch size of N times the actual minibatch size, without the memory cost of the larger minibatch.
+         * Note that the iteration count (and hence learning rate schedules, listeners etc) only advances when an update
+         * is applied.
+         *
+         * @param steps Number of minibatches to accumulate gradients over. Must be >= 1
+         */
+        public Builder gradientAccumulationSteps(int steps) {
+            Preconditions.checkArgument(steps >= 1, "Gradient accumulation steps must be >= 1, got %s", steps);
+            this.gradientAccumulationSteps = steps;
+            return this;
+        }
+
         public Builder setInputType(InputType inputType) {
             this.inputType = inputType;
             return this;
@@ -746,6 +767,7 @@ public class MultiLayerConfiguration implements Serializable, Cloneable {
             conf.backpropType = backpropType;
             conf.tbpttFwdLength = tbpttFwdLength;
             conf.tbpttBackLength = tbpttBackLength;
+            conf.gradientAccumulationSteps = gradientAccumulationSteps;
             conf.trainingWorkspaceMode = trainingWorkspaceMode;
             conf.inferenceWorkspaceMode = inferenceWorkspaceMode;
             conf.cacheMode = cacheMode;
@@ -229,6 +229,12 @@ public class NeuralNetConfiguration implements Serializable, Cloneable {
              return this;
         }
 
+        @Override
+        public ListBuilder gradientAccumulationSteps(int steps) {
+            super.gradientAccumulationSteps(steps);
+            return this;
+        }
+
         @Override
         public ListBuilder confs(List<NeuralNetConfiguration> confs) {
              super.confs(confs);
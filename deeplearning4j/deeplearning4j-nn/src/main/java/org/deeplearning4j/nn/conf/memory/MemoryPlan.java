@@ -0,0 +1,132 @@
+/*
+ *  ******************************************************************************
+ *  *
+ *  *
+ *  * This program and the accompanying materials are made available under the
+ *  * terms of the Apache License, Version 2.0 which is available at
+ *  * https://www.apache.org/licenses/LICENSE-2.0.
+ *  *
+ *  *  See the NOTICE file distributed with this work for additional
+ *  *  information regarding copyright ownership.
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ *  * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ *  * License for the specific language governing permissions and limitations
+ *  * under the License.
+ *  *
+ *  * SPDX-License-Identifier: Apache-2.0
+ *  *****************************************************************************
+ */
+
+package org.deeplearning4j.nn.conf.memory;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.deeplearning4j.nn.conf.CacheMode;
+import org.deeplearning4j.nn.conf.WorkspaceMode;
+import org.nd4j.linalg.api.buffer.DataType;
+import org.nd4j.linalg.api.memory.conf.WorkspaceConfiguration;
+import org.nd4j.linalg.api.memory.enums.AllocationPolicy;
+import org.nd4j.linalg.api.memory.enums.LearningPolicy;
+import org.nd4j.linalg.api.memory.enums.ResetPolicy;
+import org.nd4j.linalg.api.memory.enums.SpillPolicy;
+
+import java.text.DecimalFormat;
+import java.util.Map;
+
+/**
+ * The result of {@link NetworkMemoryPlanner#plan(int, MemoryUseMode)}: the predicted off-heap memory use of a network
+ * for one minibatch size, broken down into memory held outside of workspaces (parameters, gradients, updater state)
+ * and the size of each of the workspaces used by MultiLayerNetwork/ComputationGraph.<br>
+ * All ND4J array data is stored off-heap: on-heap use is limited to the array objects themselves, and is estimated
+ * separately by {@link #getHeapBytes()}.
+ */
+@Data
+@AllArgsConstructor
+public class MemoryPlan {
+
+    private static final DecimalFormat BYTES_FORMAT = new DecimalFormat("#,###");
+
+    private final int minibatchSize;
+    private final MemoryUseMode memoryUseMode;
+    private final WorkspaceMode workspaceMode;
+    private final CacheMode cacheMode;
+    private final DataType dataType;
+    /**
+     * Bytes allocated outside of any workspace: parameters, parameter gradients and updater state. When the workspace
+     * mode is {@link WorkspaceMode#NONE} this also includes all activations and working memory.
+     */
+    private final long detachedBytes;
+    /**
+     * Estimated on-heap memory use of the arrays of the network, see {@link NetworkMemoryPlanner#HEAP_BYTES_PER_ARRAY}.
+     * Not included in {@link #getPeakBytes()}
+     */
+    private final long heapBytes;
+    /**
+     * Predicted size, in bytes, of each workspace (keyed by workspace name). Empty for {@link WorkspaceMode#NONE}
+     */
+    private final Map<String, Long> workspaceBytes;
+
+    /**
+     * @return Sum of the predicted sizes of all workspaces
+     */
+    public long getTotalWorkspaceBytes() {
+        long sum = 0;
+        for (Long l : workspaceBytes.values()) {
+            sum += l;
+        }
+        return sum;
+    }
+
+    /**
+     * @return Predicted peak off-heap memory use, in bytes
+     */
+    public long getPeakBytes() {
+        return detachedBytes + getTotalWorkspaceBytes();
+    }
+
+    /**
+     * Get a workspace configuration for the specified workspace that is pre-sized according to this plan. The
+     * configuration matches the network's own configuration for that workspace (overallocation, spill and reset
+     * policies), except that the workspace is allocated at the predicted size when it is created. It still learns
+     * from the first loop: if the prediction was too small, the workspace is reallocated after the first iteration.
+     *
+     * @param workspaceName Name of the workspace - one of the keys of {@link #getWorkspaceBytes()}
+     * @return Pre-sized workspace configuration
+     */
+    public WorkspaceConfiguration getWorkspaceConfiguration(String workspaceName) {
+        Long bytes = workspaceBytes.get(workspaceName);
+        if (bytes == null) {
+            throw new IllegalArgumentException("No workspace with name \"" + workspaceName + "\" in memory plan. " +
+                    "Workspaces: " + workspaceBytes.keySet());
+        }
+        //Same overallocation as the network workspace configurations: see MultiLayerNetwork/ComputationGraph
+        double overallocation = NetworkMemoryPlanner.WS_ALL_LAYERS_ACT.equals(workspaceName) ? 0.05 : 0.02;
+        return WorkspaceConfiguration.builder()
+                .initialSize(bytes)
+                .overallocationLimit(overallocation)
+                .policyLearning(LearningPolicy.FIRST_LOOP)
+                .policyReset(ResetPolicy.BLOCK_LEFT)
+                .policySpill(SpillPolicy.REALLOCATE)
+                .policyAllocation(AllocationPolicy.OVERALLOCATE)
+                .build();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("----- Memory Plan -----\n")
+                .append("  Minibatch Size:                     ").append(minibatchSize).append("\n")
+                .append("  Memory Use Mode:                    ").append(memoryUseMode).append("\n")
+                .append("  Workspace Mode:                     ").append(workspaceMode).append("\n")
+                .append("  Cache Mode:                         ").append(cacheMode).append("\n")
+                .append("  Data Type:                          ").append(dataType).append("\n")
+                .append("  Detached Memory:                    ").append(BYTES_FORMAT.format(detachedBytes)).append(" bytes\n");
+        for (Map.Entry<String, Long> e : workspaceBytes.entrySet()) {
+            sb.append(String.format("  - %-34s", e.getKey())).append(BYTES_FORMAT.format(e.getValue())).append(" bytes\n");
+        }
+        sb.append("  Peak Memory:                        ").append(BYTES_FORMAT.format(getPeakBytes())).append(" bytes\n")
+                .append("  Heap Memory (estimate):             ").append(BYTES_FORMAT.format(heapBytes)).append(" bytes\n");
+        return sb.toString();
+    }
+}
@@ -0,0 +1,382 @@
+/*
+ *  ******************************************************************************
+ *  *
+ *  *
+ *  * This program and the accompanying materials are made available under the
+ *  * terms of the Apache License, Version 2.0 which is available at
+ *  * https://www.apache.org/licenses/LICENSE-2.0.
+ *  *
+ *  *  See the NOTICE file distributed with this work for additional
+ *  *  information regarding copyright ownership.
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ *  * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ *  * License for the specific language governing permissions and limitations
+ *  * under the License.
+ *  *
+ *  * SPDX-License-Identifier: Apache-2.0
+ *  *****************************************************************************
+ */
+
+package org.deeplearning4j.nn.conf.memory;
+
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.deeplearning4j.nn.conf.CacheMode;
+import org.deeplearning4j.nn.conf.ComputationGraphConfiguration;
+import org.deeplearning4j.nn.conf.MultiLayerConfiguration;
+import org.deeplearning4j.nn.conf.WorkspaceMode;
+import org.deeplearning4j.nn.conf.inputs.InputType;
+import org.nd4j.common.base.Preconditions;
+import org.nd4j.linalg.api.buffer.DataType;
+import org.nd4j.linalg.api.memory.MemoryWorkspace;
+import org.nd4j.linalg.api.memory.MemoryWorkspaceManager;
+import org.nd4j.linalg.factory.Nd4j;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * NetworkMemoryPlanner uses a {@link NetworkMemoryReport} to predict the peak off-heap and (estimated) heap memory use
+ * of a network for a given minibatch size, taking into account how MultiLayerNetwork and ComputationGraph assign arrays
+ * to workspaces for the configured {@link WorkspaceMode}.<br>
+ * It can be used to:<br>
+ * (a) Predict the memory required for training or inference before the network is initialized - {@link #plan(int, MemoryUseMode)}<br>
+ * (b) Find the largest minibatch size that fits within a memory budget - {@link #maxMinibatchSize(long, MemoryUseMode)}<br>
+ * (c) Pre-size the network workspaces for the current thread, so that the first iterations of training do not need
+ * to go through the workspace learning phase and subsequent reallocation - {@link #preallocateWorkspaces(MemoryPlan)}<br>
+ * <br>
+ * Note that the predictions are only as accurate as the underlying layer memory reports: layers that use helpers
+ * (such as cuDNN or MKL-DNN) may use additional working memory that is not accounted for here.
+ */
+@Slf4j
+@Getter
+public class NetworkMemoryPlanner {
+
+    /**
+     * Workspace for working memory for a single layer - see MultiLayerNetwork/ComputationGraph
+     */
+    public static final String WS_LAYER_WORKING_MEM = "WS_LAYER_WORKING_MEM";
+    /**
+     * Workspace for storing all layers' activations during training - see MultiLayerNetwork/ComputationGraph
+     */
+    public static final String WS_ALL_LAYERS_ACT = "WS_ALL_LAYERS_ACT";
+    /**
+     * Alternating workspaces for layer activations (inference) and activation gradients (backprop) - MultiLayerNetwork only
+     */
+    public static final String WS_LAYER_ACT_1 = "WS_LAYER_ACT_1";
+    public static final String WS_LAYER_ACT_2 = "WS_LAYER_ACT_2";
+    /**
+     * Prefix of the ComputationGraph activation (inference) and activation gradient (backprop) workspaces: the graph
+     * opens one workspace per set of simultaneously live arrays, named WS_LAYER_ACT_0, WS_LAYER_ACT_1, etc.
+     */
+    public static final String WS_LAYER_ACT_PREFIX = "WS_LAYER_ACT_";
+
+    /**
+     * Estimated on-heap size of one array: the INDArray object, and the data and shape info buffers with their
+     * pointer and deallocator objects. Array data itself is off-heap
+     */
+    public static final long HEAP_BYTES_PER_ARRAY = 1024;
+
+    private final NetworkMemoryReport report;
+    private final boolean computationGraph;
+    private final WorkspaceMode trainingWorkspaceMode;
+    private final WorkspaceMode inferenceWorkspaceMode;
+    private final CacheMode cacheMode;
+    private final DataType dataType;
+    //ComputationGraph only: network inputs and inputs of each vertex, used to simulate the workspace assignment
+    private final List<String> networkInputs;
+    private final List<String> networkOutputs;
+    private final Map<String, List<String>> vertexInputs;
+
+    /**
+     * Create a memory planner for a MultiLayerNetwork. For ComputationGraph, use
+     * {@link #forConfiguration(ComputationGraphConfiguration, InputType...)}
+     *
+     * @param report                 Memory report for the network
+     * @param trainingWorkspaceMode  Workspace mode used for training
+     * @param inferenceWorkspaceMode Workspace mode used for inference
+     * @param cacheMode              Cache mode used for training
+     * @param dataType               Network data type
+     */
+    public NetworkMemoryPlanner(@NonNull NetworkMemoryReport report, @NonNull WorkspaceMode trainingWorkspaceMode,
+                                @NonNull WorkspaceMode inferenceWorkspaceMode, CacheMode cacheMode,
+                                @NonNull DataType dataType) {
+        this(report, trainingWorkspaceMode, inferenceWorkspaceMode, cacheMode, dataType, null);
+    }
+
+    protected NetworkMemoryPlanner(@NonNull NetworkMemoryReport report, @NonNull WorkspaceMode trainingWorkspaceMode,
+                                   @NonNull WorkspaceMode inferenceWorkspaceMode, CacheMode cacheMode,
+                                   @NonNull DataType dataType, ComputationGraphConfiguration graphConf) {
+        this.report = report;
+        this.computationGraph = ComputationGraphConfiguration.class.equals(report.getModelClass());
+        Preconditions.checkArgument(!computationGraph || graphConf != null, "ComputationGraph memory planners require " +
+                "the graph structure: use NetworkMemoryPlanner.forConfiguration(ComputationGraphConfiguration, InputType...)");
+        this.trainingWorkspaceMode = trainingWorkspaceMode;
+        this.inferenceWorkspaceMode = inferenceWorkspaceMode;
+        this.cacheMode = (cacheMode == null ? CacheMode.NONE : cacheMode);
+        this.dataType = dataType;
+        this.networkInputs = graphConf == null ? null : graphConf.getNetworkInputs();
+        this.networkOutputs = graphConf == null ? null : graphConf.getNetworkOutputs();
+        this.vertexInputs = graphConf == null ? null : graphConf.getVertexInputs();
+    }
+
+    /**
+     * Create a memory planner for the given MultiLayerNetwork configuration, using the workspace modes, cache mode
+     * and data type of that configuration
+     *
+     * @param conf      Network configuration
+     * @param inputType Network input type
+     * @return Memory planner
+     */
+    public static NetworkMemoryPlanner forConfiguration(@NonNull MultiLayerConfiguration conf, @NonNull InputType inputType) {
+        return new NetworkMemoryPlanner(conf.getMemoryReport(inputType), conf.getTrainingWorkspaceMode(),
+                conf.getInferenceWorkspaceMode(), conf.getCacheMode(), conf.getDataType());
+    }
+
+    /**
+     * Create a memory planner for the given ComputationGraph configuration, using the workspace modes, cache mode
+     * and data type of that configuration
+     *
+     * @param conf       Network configuration
+     * @param inputTypes Network input types
+     * @return Memory planner
+     */
+    public static NetworkMemoryPlanner forConfiguration(@NonNull ComputationGraphConfiguration conf, @NonNull InputType... inputTypes) {
+        return new NetworkMemoryPlanner(conf.getMemoryReport(inputTypes), conf.getTrainingWorkspaceMode(),
+                conf.getInferenceWorkspaceMode(), conf.getCacheMode(), conf.getDataType(), conf);
+    }
+
+    /**
+     * Predict the memory use of the network for the given minibatch size
+     *
+     * @param minibatchSize Minibatch size
+     * @param useMode       Training or inference
+     * @return Memory plan
+     */
+    public MemoryPlan plan(int minibatchSize, @NonNull MemoryUseMode useMode) {
+        Preconditions.checkArgument(minibatchSize >= 0, "Minibatch size must be >= 0, got %s", minibatchSize);
+        WorkspaceMode wsMode = (useMode == MemoryUseMode.TRAINING ? trainingWorkspaceMode : inferenceWorkspaceMode);
+        boolean training = useMode == MemoryUseMode.TRAINING;
+
+        long detached = 0;
+        long sumActivations = 0;
+        long maxActivations = 0;
+        long sumActGrad = 0;
+        long maxActGrad = 0;
+        long sumCache = 0;
+        long maxWorking = 0;
+        long numArrays = 0;
+        for (MemoryReport r : report.getLayerAndVertexReports().values()) {
+            for (MemoryType t : MemoryType.values()) {
+                if (bytes(r, t, minibatchSize, useMode) > 0)
+                    numArrays++;
+            }
+
+            detached += bytes(r, MemoryType.PARAMETERS, minibatchSize, useMode);
+            detached += bytes(r, MemoryType.PARAMATER_GRADIENTS, minibatchSize, useMode);
+            detached += bytes(r, MemoryType.UPDATER_STATE, minibatchSize, useMode);
+
+            long act = bytes(r, MemoryType.ACTIVATIONS, minibatchSize, useMode);
+            sumActivations += act;
+            maxActivations = Math.max(maxActivations, act);
+
+            long actGrad = bytes(r, MemoryType.ACTIVATION_GRADIENTS, minibatchSize, useMode);
+            sumActGrad += actGrad;
+            maxActGrad = Math.max(maxActGrad, actGrad);
+
+            sumCache += bytes(r, MemoryType.CACHED_MEMORY_FIXED, minibatchSize, useMode)
+                    + bytes(r, MemoryType.CACHED_MEMORY_VARIABLE, minibatchSize, useMode);
+
+            long working = bytes(r, MemoryType.WORKING_MEMORY_FIXED, minibatchSize, useMode)
+                    + bytes(r, MemoryType.WORKING_MEMORY_VARIABLE, minibatchSize, useMode);
+            maxWorking = Math.max(maxWorking, working);
+        }
+
+        Map<String, Long> ws = new LinkedHashMap<>();
+        if (wsMode == WorkspaceMode.NONE) {
+            //No workspaces: everything is detached, and released only by GC. Assume worst case - nothing is released
+            // within an iteration
+            detached += sumActivations + sumActGrad + sumCache + maxWorking;
+        } else if (training) {
+            //Layer inputs (activations) and FF cache are retained for backprop; updater working memory also goes here
+            ws.put(WS_ALL_LAYERS_ACT, sumActivations + sumCache);
+            ws.put(WS_LAYER_WORKING_MEM, maxWorking);
+            if (computationGraph) {
+                ws.putAll(graphWorkspaces(minibatchSize, useMode, MemoryType.ACTIVATION_GRADIENTS, true));
+            } else {
+                //Epsilons for layer i and i-1 are alive at the same time
+                ws.put(WS_LAYER_ACT_1, maxActGrad);
+                ws.put(WS_LAYER_ACT_2, maxActGrad);
+            }
+        } else {
+            ws.put(WS_LAYER_WORKING_MEM, maxWorking);
+            if (computationGraph) {
+                ws.putAll(graphWorkspaces(minibatchSize, useMode, MemoryType.ACTIVATIONS, false));
+                //Network outputs are returned detached from the workspaces
+                for (String out : networkOutputs) {
+                    MemoryReport r = report.getLayerAndVertexReports().get(out);
+                    if (r != null)
+                        detached += bytes(r, MemoryType.ACTIVATIONS, minibatchSize, useMode);
+                }
+            } else {
+                ws.put(WS_LAYER_ACT_1, maxActivations);
+                ws.put(WS_LAYER_ACT_2, maxActivations);
+            }
+        }
+
+        return new MemoryPlan(minibatchSize, useMode, wsMode, cacheMode, dataType, detached,
+                numArrays * HEAP_BYTES_PER_ARRAY, ws);
+    }
+
+    /**
+     * Simulate the activation (forward pass) or activation gradient (backprop) workspace assignment of
+     * ComputationGraph: vertices are processed in topological order (reverse order for backprop), each taking a free
+     * workspace, or opening a new one. A workspace becomes free once the arrays in it have been consumed by all vertices
+     * that use them. Each workspace is sized for the largest arrays placed in it.
+     */
+    private Map<String, Long> graphWorkspaces(int minibatchSize, MemoryUseMode useMode, MemoryType memoryType,
+                                              boolean backprop) {
+        //Inputs come first in topological order, followed by the vertices in the order of the memory report
+        List<String> order = new ArrayList<>(networkInputs);
+        order.addAll(report.getLayerAndVertexReports().keySet());
+        Map<String, Integer> position = new HashMap<>();
+        for (int i = 0; i < order.size(); i++) {
+            position.put(order.get(i), i);
+        }
+
+        //Step after which the arrays of each vertex are no longer needed: after the last consumer of its activations
+        // (forward pass), or after the earliest of its inputs, which the activation gradients are passed to (backprop)
+        int[] releaseStep = new int[order.size()];
+        Arrays.fill(releaseStep, backprop ? Integer.MAX_VALUE : -1);
+        for (Map.Entry<String, List<String>> e : vertexInputs.entrySet()) {
+            Integer to = position.get(e.getKey());
+            if (to == null || e.getValue() == null)
+                continue;
+            for (String in : e.getValue()) {
+                Integer from = position.get(in);
+                if (from == null)
+                    continue;
+                if (backprop) {
+                    releaseStep[to] = Math.min(releaseStep[to], from);
+                } else {
+                    releaseStep[from] = Math.max(releaseStep[from], to);
+                }
+            }
+        }
+        for (int i = 0; i < releaseStep.length; i++) {
+            if (releaseStep[i] == -1) {
+                releaseStep[i] = order.size() - 1;      //Forward pass: network outputs etc
+            } else if (releaseStep[i] == Integer.MAX_VALUE) {
+                releaseStep[i] = 0;                     //Backprop: network inputs
+            }
+        }
+
+        List<Long> sizes = new ArrayList<>();
+        List<Integer> free = new ArrayList<>();      //Used as a stack, as in ComputationGraph
+        Map<Integer, List<Integer>> releaseAt = new HashMap<>();
+        for (int step = 0; step < order.size(); step++) {
+            int i = backprop ? order.size() - 1 - step : step;
+            String name = order.get(i);
+            boolean isInput = networkInputs.contains(name);
+            if (!(backprop && isInput)) {
+                int wsIdx;
+                if (free.isEmpty()) {
+                    wsIdx = sizes.size();
+                    sizes.add(0L);
+                } else {
+                    wsIdx = free.remove(free.size() - 1);
+                }
+                MemoryReport r = report.getLayerAndVertexReports().get(name);
+                //Network outputs are placed outside of the workspaces during inference
+                long b = (r == null || (!backprop && networkOutputs.contains(name))) ? 0 :
+                        bytes(r, memoryType, minibatchSize, useMode);
+                sizes.set(wsIdx, Math.max(sizes.get(wsIdx), b));
+                releaseAt.computeIfAbsent(releaseStep[i], k -> new ArrayList<>()).add(wsIdx);
+            }
+
+            List<Integer> released = releaseAt.remove(i);
+            if (released != null)
+                free.addAll(released);
+        }
+
+        Map<String, Long> ws = new LinkedHashMap<>();
+        for (int i = 0; i < sizes.size(); i++) {
+            ws.put(WS_LAYER_ACT_PREFIX + i, sizes.get(i));
+        }
+        return ws;
+    }
+
+    /**
+     * Find the largest minibatch size for which the predicted peak memory use does not exceed the specified budget.
+     *
+     * @param budgetBytes Memory budget, in bytes
+     * @param useMode     Training or inference
+     * @return Largest minibatch size that fits in the budget, or 0 if even the minibatch-independent memory (parameters,
+     * updater state etc) exceeds the budget
+     */
+    public int maxMinibatchSize(long budgetBytes, @NonNull MemoryUseMode useMode) {
+        if (plan(1, useMode).getPeakBytes() > budgetBytes) {
+            return 0;
+        }
+
+        //Peak memory is non-decreasing in minibatch size: find an upper bound by doubling, then binary search
+        int lower = 1;
+        int upper = 2;
+        while (plan(upper, useMode).getPeakBytes() <= budgetBytes) {
+            lower = upper;
+            if (upper >= Integer.MAX_VALUE / 2) {
+                return Integer.MAX_VALUE;
+            }
+            upper *= 2;
+        }
+
+        while (upper - lower > 1) {
+            int mid = lower + (upper - lower) / 2;
+            if (plan(mid, useMode).getPeakBytes() <= budgetBytes) {
+                lower = mid;
+            } else {
+                upper = mid;
+            }
+        }
+        return lower;
+    }
+
+    /**
+     * Create the network workspaces for the current thread, sized according to the specified plan. Must be called
+     * from the thread that will be used for training/inference, before the first fit/output call: workspaces that
+     * already exist for the current thread are not modified.<br>
+     * The network uses the workspaces created here instead of creating its own. They are configured like the network
+     * workspaces (see {@link MemoryPlan#getWorkspaceConfiguration(String)}), but allocated at the planned size up front:
+     * if the plan turns out to be too small, they are reallocated after the first iteration.
+     *
+     * @param plan Memory plan, as returned by {@link #plan(int, MemoryUseMode)}
+     */
+    public static void preallocateWorkspaces(@NonNull MemoryPlan plan) {
+        if (plan.getWorkspaceMode() == WorkspaceMode.NONE) {
+            return;
+        }
+        MemoryWorkspaceManager wsm = Nd4j.getWorkspaceManager();
+        for (Map.Entry<String, Long> e : plan.getWorkspaceBytes().entrySet()) {
+            String name = e.getKey();
+            if (e.getValue() <= 0) {
+                continue;
+            }
+            if (wsm.checkIfWorkspaceExists(name)) {
+                log.warn("Workspace {} already exists for current thread - skipping preallocation", name);
+                continue;
+            }
+            MemoryWorkspace ws = wsm.getWorkspaceForCurrentThread(plan.getWorkspaceConfiguration(name), name);
+            log.debug("Preallocated workspace {}: {} bytes", name, ws.getCurrentSize());
+        }
+    }
+
+    private long bytes(MemoryReport r, MemoryType memoryType, int minibatchSize, MemoryUseMode useMode) {
+        return r.getMemoryBytes(memoryType, minibatchSize, useMode, cacheMode, dataType);
+    }
+}
@@ -54,12 +54,14 @@ import org.deeplearning4j.nn.graph.vertex.impl.LayerVertex;
 import org.deeplearning4j.nn.layers.FrozenLayer;
 import org.deeplearning4j.nn.layers.FrozenLayerWithBackprop;
 import org.deeplearning4j.nn.layers.recurrent.BidirectionalLayer;
+import org.deeplearning4j.nn.layers.recurrent.FusedLSTMHelper;
 import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
 import org.deeplearning4j.nn.updater.graph.ComputationGraphUpdater;
 import org.deeplearning4j.nn.workspace.ArrayType;
 import org.deeplearning4j.nn.workspace.LayerWorkspaceMgr;
 import org.deeplearning4j.optimize.Solver;
 import org.deeplearning4j.optimize.api.ConvexOptimizer;
+import org.deeplearning4j.optimize.api.LayerExecutionListener;
 import org.deeplearning4j.optimize.api.TrainingListener;
 import org.deeplearning4j.optimize.solvers.accumulation.GradientsAccumulator;
 import org.nd4j.common.base.Preconditions;
@@ -1078,6 +1080,10 @@ public class ComputationGraph implements Serializable, Model, NeuralNetwork {
             tl.onEpochStart(this);
         }
 
+        if (solver != null) {
+            solver.resetGradientAccumulation();
+        }
+
         boolean destructable = false;
 
         MultiDataSetIterator multiDataSetIterator;
@@ -1100,6 +1106,12 @@ public class ComputationGraph implements Serializable, Model, NeuralNetwork {
         if (destructable)
             ((AsyncMultiDataSetIterator) multiDataSetIterator).shutdown();
 
+        //Apply the last partial group of minibatches when using gradient accumulation
+        if (solver != null) {
+            solver.finishGradientAccumulation(LayerWorkspaceMgr.noWorkspaces());
+            synchronizeIterEpochCounts();
+        }
+
         for (TrainingListener tl : trainingListeners) {
             tl.onEpochEnd(this);
         }
@@ -1887,6 +1899,28 @@ public class ComputationGraph implements Serializable, Model, NeuralNetwork {
     }
 
 
+    private void fireLayerExecutionStart(LayerExecutionListener.Phase phase, GraphVertex vertex, LayerWorkspaceMgr mgr) {
+        if (trainingListeners == null || trainingListeners.isEmpty())
+            return;
+        for (TrainingListener tl : trainingListeners) {
+            if (tl instanceof LayerExecutionListener) {
+                ((LayerExecutionListener) tl).onLayerExecutionStart(this, phase, vertex.getVertexName(),
+                        vertex.hasLayer() ? vertex.getLayer() : null, mgr);
+            }
+        }
+    }
+
+    private void fireLayerExecutionEnd(LayerExecutionListener.Phase phase, GraphVertex vertex, LayerWorkspaceMgr mgr) {
+        if (trainingListeners == null || trainingListeners.isEmpty())
+            return;
+        for (TrainingListener tl : trainingListeners) {
+            if (tl instanceof LayerExecutionListener) {
+                ((LayerExecutionListener) tl).onLayerExecutionEnd(this, phase, vertex.getVertexName(),
+                        vertex.hasLayer() ? vertex.getLayer() : null, mgr);
+            }
+        }
+    }
+
     protected void validateArrayWorkspaces(LayerWorkspaceMgr mgr, INDArray array, ArrayType arrayType, String vertexName, boolean isInputVertex, String op){
         try{
             mgr.validateArrayLocation(arrayType, array, false, isInputVertex);
@@ -1983,6 +2017,7 @@ public class ComputationGraph implements Serializable, Model, NeuralNetwork {
                 if(current.isInputVertex()){
                     out = inputs[vIdx];
                 } else {
+                    fireLayerExecutionStart(LayerExecutionListener.Phase.FORWARD, current, workspaceMgr);
 
                     if(fwdPassType == FwdPassType.STANDARD) {
                         //Standard feed-forward case
@@ -2029,6 +2064,7 @@ public class ComputationGraph implements Serializable, Model, NeuralNetwork {
                     } else {
                         throw new IllegalArgumentException("Unsupported forward pass type for this method: " + fwdPassType);
                     }
+                    fireLayerExecutionEnd(LayerExecutionListener.Phase.FORWARD, current, workspaceMgr);
                     validateArrayWorkspaces(workspaceMgr, out, ArrayType.ACTIVATIONS, vName, false, "Feed forward (inference)");
                 }
                 activations.put(current.getVertexName(), out);
@@ -2144,6 +2180,7 @@ public class ComputationGraph implements Serializable, Model, NeuralNetwork {
                 if(current.isInputVertex()){
                     out = inputs[vIdx];
                 } else {
+                    fireLayerExecutionStart(LayerExecutionListener.Phase.FORWARD, current, workspaceMgr);
 
                     if(fwdPassType == FwdPassType.STANDARD){
                         out = current.doForward(train, workspaceMgr);
@@ -2170,6 +2207,7 @@ public class ComputationGraph implements Serializable, Model, NeuralNetwork {
                     } else {
                         throw new IllegalStateException("FwdPassType not supported for this method: " + fwdPassType);
                     }
+                    fireLayerExecutionEnd(LayerExecutionListener.Phase.FORWARD, current, workspaceMgr);
 
                     validateArrayWorkspaces(workspaceMgr, out, ArrayType.ACTIVATIONS, vName, false, "Feed forward (inference)");
                 }
@@ -2390,6 +2428,7 @@ public class ComputationGraph implements Serializable, Model, NeuralNetwork {
                         out = features[vIdx];
 
                     } else {
+                        fireLayerExecutionStart(LayerExecutionListener.Phase.FORWARD, current, workspaceMgr);
 
                         if (fwdPassType == FwdPassType.STANDARD) {
                             //Standard feed-forward case
@@ -2475,6 +2514,7 @@ public class ComputationGraph implements Serializable, Model, NeuralNetwork {
                         } else {
                             throw new IllegalArgumentException("Unsupported forward pass type for this method: " + fwdPassType);
                         }
+                        fireLayerExecutionEnd(LayerExecutionListener.Phase.FORWARD, current, workspaceMgr);
                         validateArrayWorkspaces(workspaceMgr, out, ArrayType.ACTIVATIONS, vName, false, "Feed forward (inference)");
                     }
 
@@ -2784,7 +2824,9 @@ public class ComputationGraph implements Serializable, Model, NeuralNetwork {
                 Pair<Gradient, INDArray[]> pair;
                 INDArray[] epsilons;
                 try (MemoryWorkspace wsWorkingMem = workspaceMgr.notifyScopeEntered(ArrayType.BP_WORKING_MEM)) {
+                    fireLayerExecutionStart(LayerExecutionListener.Phase.BACKWARD, current, workspaceMgr);
                     pair = current.doBackward(truncatedBPTT, workspaceMgr);
+                    fireLayerExecutionEnd(LayerExecutionListener.Phase.BACKWARD, current, workspaceMgr);
                     epsilons = pair.getSecond();
 
                     //Validate workspace location for the activation gradients:
@@ -3349,6 +3391,8 @@ public class ComputationGraph implements Serializable, Model, NeuralNetwork {
 
         if (this.flattenedParams != null && this.flattenedParams.length() == params.length()) {
             this.flattenedParams.assign(params);
+            //Parameters modified in place: invalidate any copies cached by layer helpers
+            FusedLSTMHelper.invalidateCaches();
             return;
         }
 
@@ -3493,6 +3537,7 @@ public class ComputationGraph implements Serializable, Model, NeuralNetwork {
             INDArray arrNew = paramTable.get(s);
             arrCurrent.assign(arrNew);
         }
+        FusedLSTMHelper.invalidateCaches();
     }
 
     @Override
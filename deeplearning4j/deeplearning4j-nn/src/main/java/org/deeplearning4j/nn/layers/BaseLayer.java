@@ -40,6 +40,7 @@ import org.nd4j.linalg.api.shape.Shape;
 import org.nd4j.linalg.factory.Nd4j;
 import org.nd4j.linalg.indexing.NDArrayIndex;
 import org.nd4j.linalg.learning.regularization.Regularization;
+import org.nd4j.linalg.sparse.SparseMatrix;
 import org.nd4j.common.primitives.Pair;
 
 import java.lang.reflect.Constructor;
@@ -350,6 +351,91 @@ public abstract class BaseLayer<LayerConfT extends org.deeplearning4j.nn.conf.la
         return ret;
     }
 
+    /**
+     * Pre-output for a sparse input of shape [minibatch, nIn]: z = input * W + b, with optional layer normalization.<br>
+     * The sparse input is multiplied with the weights directly (sparse-dense mmul), without being densified. Only valid
+     * for layers with weights of shape [nIn, nOut], such as dense and embedding layers. Input dropout is not supported
+     * for sparse input.
+     *
+     * @return Pair of (pre-output, pre-output before layer normalization)
+     */
+    protected Pair<INDArray, INDArray> preOutputWithPreNorm(SparseMatrix input, boolean training, boolean forBackprop,
+                                                            LayerWorkspaceMgr workspaceMgr) {
+        if (training && layerConf().getIDropout() != null) {
+            throw new UnsupportedOperationException("Input dropout is not supported for sparse input " + layerId());
+        }
+        INDArray W = getParamWithNoise(DefaultParamInitializer.WEIGHT_KEY, training, workspaceMgr);
+        INDArray b = getParamWithNoise(DefaultParamInitializer.BIAS_KEY, training, workspaceMgr);
+        INDArray g = (hasLayerNorm() ? getParam(DefaultParamInitializer.GAIN_KEY) : null);
+
+        if (input.columns() != W.rows()) {
+            throw new DL4JInvalidInputException("Sparse input size (" + input.columns() + " columns; shape = "
+                    + Arrays.toString(input.shape()) + ") is invalid: does not match layer input size (layer # inputs = "
+                    + W.size(0) + ") " + layerId());
+        }
+
+        INDArray ret = workspaceMgr.createUninitialized(ArrayType.ACTIVATIONS, W.dataType(), input.rows(), W.size(1));
+        input.castTo(W.dataType()).mmul(W, ret);
+
+        INDArray preNorm = ret;
+        if(hasLayerNorm()) {
+            preNorm = (forBackprop ? ret.dup(ret.ordering()) : ret);
+            Nd4j.getExecutioner().exec(new LayerNorm(preNorm, g, ret, true, 1));
+        }
+
+        if(hasBias()){
+            ret.addiRowVector(b);
+        }
+
+        if (maskArray != null) {
+            applyMask(ret);
+        }
+
+        return new Pair<>(ret, preNorm);
+    }
+
+    /**
+     * Backprop for a sparse input of shape [minibatch, nIn], as passed to
+     * {@link #preOutputWithPreNorm(SparseMatrix, boolean, boolean, LayerWorkspaceMgr)}.<br>
+     * The weight gradients are computed as input^T * delta, without densifying the input. No epsilon is returned:
+     * sparse input is only supported for the first layer of a network.
+     *
+     * @return Gradients for this layer. The returned epsilon is null
+     */
+    public Pair<Gradient, INDArray> backpropGradient(SparseMatrix input, INDArray epsilon, LayerWorkspaceMgr workspaceMgr) {
+        Pair<INDArray, INDArray> zAndPreNorm = preOutputWithPreNorm(input, true, true, workspaceMgr);
+        INDArray z = zAndPreNorm.getFirst();
+        INDArray preNorm = zAndPreNorm.getSecond();
+        INDArray delta = layerConf().getActivationFn().backprop(z, epsilon).getFirst();
+
+        if (maskArray != null) {
+            applyMask(delta);
+        }
+
+        Gradient ret = new DefaultGradient();
+
+        if(hasBias()){
+            INDArray biasGrad = gradientViews.get(DefaultParamInitializer.BIAS_KEY);
+            delta.sum(biasGrad, 0); //biasGrad is initialized/zeroed first
+            ret.gradientForVariable().put(DefaultParamInitializer.BIAS_KEY, biasGrad);
+        }
+
+        if(hasLayerNorm()) {
+            INDArray g = getParam(DefaultParamInitializer.GAIN_KEY);
+            INDArray dldg = gradientViews.get(DefaultParamInitializer.GAIN_KEY);
+            Nd4j.getExecutioner().exec(new LayerNormBp(preNorm, g, delta, delta, dldg, true, 1));
+            ret.gradientForVariable().put(DefaultParamInitializer.GAIN_KEY, dldg);
+        }
+
+        INDArray weightGrad = gradientViews.get(DefaultParamInitializer.WEIGHT_KEY); //f order
+        input.castTo(delta.dataType()).transposeMmul(delta, weightGrad);
+        ret.gradientForVariable().put(DefaultParamInitializer.WEIGHT_KEY, weightGrad);
+
+        weightNoiseParams.clear();
+
+        return new Pair<>(ret, null);
+    }
+
     @Override
     public double calcRegularizationScore(boolean backpropParamsOnly){
         double scoreSum = 0.0;
@@ -25,6 +25,7 @@ import org.deeplearning4j.nn.layers.BaseLayer;
 import org.nd4j.linalg.api.buffer.DataType;
 import org.nd4j.linalg.api.ndarray.INDArray;
 import org.deeplearning4j.nn.workspace.LayerWorkspaceMgr;
+import org.nd4j.linalg.sparse.SparseMatrix;
 
 /**
  * @author Adam Gibson
@@ -39,6 +40,24 @@ public class DenseLayer extends BaseLayer<org.deeplearning4j.nn.conf.layers.Dens
         throw new UnsupportedOperationException("Not supported");
     }
 
+    /**
+     * Forward pass for a sparse (CSR or COO) input of shape [minibatch, nIn], such as bag-of-words or one-hot
+     * features. The input is not densified: the pre-output is computed with a sparse-dense matrix multiplication.
+     *
+     * @param input        Sparse input
+     * @param training     Train or test mode
+     * @param workspaceMgr Workspace manager
+     * @return Activations, with shape [minibatch, nOut]
+     */
+    public INDArray activate(SparseMatrix input, boolean training, LayerWorkspaceMgr workspaceMgr) {
+        INDArray z = preOutputWithPreNorm(input, training, false, workspaceMgr).getFirst();
+        INDArray ret = layerConf().getActivationFn().getActivation(z, training);
+        if (maskArray != null) {
+            applyMask(ret);
+        }
+        return ret;
+    }
+
     @Override
     public boolean isPretrainLayer() {
         return false;
@@ -35,6 +35,7 @@ import org.nd4j.linalg.api.ndarray.INDArray;
 import org.nd4j.linalg.factory.Nd4j;
 import org.deeplearning4j.nn.workspace.LayerWorkspaceMgr;
 import org.deeplearning4j.nn.workspace.ArrayType;
+import org.nd4j.linalg.sparse.SparseMatrix;
 
 @Slf4j
 public class EmbeddingLayer extends BaseLayer<org.deeplearning4j.nn.conf.layers.EmbeddingLayer> {
@@ -132,6 +133,26 @@ public class EmbeddingLayer extends BaseLayer<org.deeplearning4j.nn.conf.layers.
         return ret;
     }
 
+    /**
+     * Forward pass for a sparse (CSR or COO) input of shape [minibatch, nIn], where each row holds weights over the
+     * nIn embedding indices: the output for each example is the weighted sum of the embeddings of its non-zero
+     * entries (plus bias), computed without densifying the input. A one-hot sparse input gives the same result as
+     * the standard index input.
+     *
+     * @param input        Sparse input
+     * @param training     Train or test mode
+     * @param workspaceMgr Workspace manager
+     * @return Activations, with shape [minibatch, nOut]
+     */
+    public INDArray activate(SparseMatrix input, boolean training, LayerWorkspaceMgr workspaceMgr) {
+        INDArray rows = preOutputWithPreNorm(input, training, false, workspaceMgr).getFirst();
+        INDArray ret = layerConf().getActivationFn().getActivation(rows, training);
+        if (maskArray != null) {
+            ret.muliColumnVector(maskArray.castTo(dataType));
+        }
+        return ret;
+    }
+
     @Override
     public boolean hasBias() {
         return layerConf().hasBias();
@@ -0,0 +1,387 @@
+/*
+ *  ******************************************************************************
+ *  *
+ *  *
+ *  * This program and the accompanying materials are made available under the
+ *  * terms of the Apache License, Version 2.0 which is available at
+ *  * https://www.apache.org/licenses/LICENSE-2.0.
+ *  *
+ *  *  See the NOTICE file distributed with this work for additional
+ *  *  information regarding copyright ownership.
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ *  * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ *  * License for the specific language governing permissions and limitations
+ *  * under the License.
+ *  *
+ *  * SPDX-License-Identifier: Apache-2.0
+ *  *****************************************************************************
+ */
+
+package org.deeplearning4j.nn.layers.recurrent;
+
+import org.deeplearning4j.nn.api.Layer;
+import org.deeplearning4j.nn.conf.NeuralNetConfiguration;
+import org.deeplearning4j.nn.conf.layers.BaseLayer;
+import org.deeplearning4j.nn.gradient.DefaultGradient;
+import org.deeplearning4j.nn.gradient.Gradient;
+import org.deeplearning4j.nn.workspace.ArrayType;
+import org.deeplearning4j.nn.workspace.LayerWorkspaceMgr;
+import org.nd4j.common.primitives.Pair;
+import org.nd4j.linalg.activations.IActivation;
+import org.nd4j.linalg.activations.impl.ActivationHardSigmoid;
+import org.nd4j.linalg.activations.impl.ActivationSigmoid;
+import org.nd4j.linalg.activations.impl.ActivationSoftPlus;
+import org.nd4j.linalg.activations.impl.ActivationSoftSign;
+import org.nd4j.linalg.activations.impl.ActivationTanH;
+import org.nd4j.linalg.api.buffer.DataType;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.api.ops.DynamicCustomOp;
+import org.nd4j.linalg.factory.Nd4j;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.nd4j.linalg.indexing.NDArrayIndex.all;
+import static org.nd4j.linalg.indexing.NDArrayIndex.interval;
+import static org.nd4j.linalg.indexing.NDArrayIndex.point;
+
+/**
+ * CPU {@link LSTMHelper} that runs the whole sequence through the fused {@code lstmLayer} / {@code lstmLayer_bp}
+ * native ops, instead of the per time step loop in {@link LSTMHelpers}.<br>
+ * The op computes the input projection for all time steps with a single gemm and runs the recurrent loop natively,
+ * so no per time step arrays are allocated in the layer workspaces.<br>
+ * The op expects the parameters in a different gate order. For inference, the rearranged parameters are cached and
+ * reused for as long as the layer passes the same parameter arrays. Cached parameters are invalidated by any training
+ * forward pass (as parameters are then updated) and when parameters are set via the network or layer setters. Call
+ * {@link #invalidateCaches()} after modifying parameter arrays in place by other means.<br>
+ * Falls back to the built-in implementation (by returning null) for masked input and for activation functions that
+ * the op does not support.
+ */
+public class FusedLSTMHelper implements LSTMHelper {
+
+    //DL4J gate order along the 4*nOut dimension is [a, f, o, g] - a: block input, g: input gate
+    //The lstmLayer op expects [i, f, c', o] - i.e., DL4J blocks {g, f, a, o}
+    private static final int[] OP_TO_DL4J_GATE = {3, 1, 0, 2};
+
+    //Incremented whenever parameters may have been modified: cached parameters from before then are rearranged again
+    private static final AtomicLong PARAMS_VERSION = new AtomicLong();
+
+    //Inference only: parameters in op gate order, by input weight key (bidirectional layers have two sets of parameters)
+    private final Map<String, OpParams> inferenceParams = new HashMap<>();
+
+    //Instantiated via reflection by the LSTM layers, which pass the layer data type
+    public FusedLSTMHelper(DataType dataType) { }
+
+    /**
+     * Invalidate the parameters cached (in op gate order) for inference, by all instances. Should be called when
+     * parameters have been modified in place
+     */
+    public static void invalidateCaches() {
+        PARAMS_VERSION.incrementAndGet();
+    }
+
+    @Override
+    public boolean checkSupported(IActivation gateActivationFn, IActivation activationFn, boolean hasPeepholeConnections) {
+        return activationToArg(gateActivationFn) >= 0 && activationToArg(activationFn) >= 0;
+    }
+
+    @Override
+    public FwdPassReturn activate(Layer layer, NeuralNetConfiguration conf, IActivation gateActivationFn, INDArray input,
+                                  INDArray recurrentWeights, INDArray inputWeights, INDArray biases, boolean training,
+                                  INDArray prevOutputActivations, INDArray prevMemCellState, boolean forBackprop,
+                                  boolean forwards, String inputWeightKey, INDArray maskArray,
+                                  boolean hasPeepholeConnections, LayerWorkspaceMgr workspaceMgr) {
+        IActivation afn = ((BaseLayer) conf.getLayer()).getActivationFn();
+        if (maskArray != null || input.rank() != 3 || !checkSupported(gateActivationFn, afn, hasPeepholeConnections)) {
+            return null;
+        }
+
+        DataType dataType = input.dataType();
+        long nOut = recurrentWeights.size(0);
+        long miniBatch = input.size(0);
+
+        //Parameters in op gate order. For backprop these are kept (in FwdPassReturn) so they aren't rearranged twice
+        ArrayType paramType = forBackprop ? ArrayType.BP_WORKING_MEM : ArrayType.FF_WORKING_MEM;
+        OpParams opParams;
+        if (training || forBackprop) {
+            //Parameters are updated after this pass
+            inferenceParams.clear();
+            invalidateCaches();
+            opParams = new OpParams(inputWeights, recurrentWeights, biases, hasPeepholeConnections, dataType, paramType, workspaceMgr);
+        } else {
+            opParams = inferenceParams.get(inputWeightKey);
+            if (opParams == null || !opParams.isFor(inputWeights, recurrentWeights, biases, dataType, PARAMS_VERSION.get())) {
+                long version = PARAMS_VERSION.get();
+                opParams = new OpParams(inputWeights, recurrentWeights, biases, hasPeepholeConnections, dataType,
+                        paramType, LayerWorkspaceMgr.noWorkspacesImmutable());
+                opParams.version = version;
+                inferenceParams.put(inputWeightKey, opParams);
+            }
+        }
+        INDArray wx = opParams.wx;
+        INDArray wr = opParams.wr;
+        INDArray b = opParams.b;
+        INDArray wp = opParams.wp;
+
+        INDArray out = workspaceMgr.createUninitialized(ArrayType.ACTIVATIONS, dataType, new long[]{miniBatch, nOut, input.size(2)}, 'f');
+        INDArray lastAct = workspaceMgr.createUninitialized(paramType, dataType, new long[]{miniBatch, nOut}, 'f');
+        INDArray lastMemCell = workspaceMgr.createUninitialized(paramType, dataType, new long[]{miniBatch, nOut}, 'f');
+
+        DynamicCustomOp op = lstmLayerOp("lstmLayer", opInputs(input, wx, wr, b, prevOutputActivations, prevMemCellState, wp),
+                forwards, gateActivationFn, afn, hasPeepholeConnections, true, true);
+        op.addOutputArgument(out, lastAct, lastMemCell);
+        Nd4j.exec(op);
+
+        FwdPassReturn ret = new FwdPassReturn();
+        ret.fwdPassOutput = out;
+        ret.lastAct = lastAct;
+        ret.lastMemCell = lastMemCell;
+        ret.prevAct = prevOutputActivations;
+        ret.prevMemCell = prevMemCellState;
+        if (forBackprop) {
+            ret.fusedInputWeights = wx;
+            ret.fusedRecurrentWeights = wr;
+            ret.fusedBiases = b;
+            ret.fusedPeepholeWeights = wp;
+        }
+        return ret;
+    }
+
+    @Override
+    public Pair<Gradient, INDArray> backpropGradient(NeuralNetConfiguration conf, IActivation gateActivationFn, INDArray input,
+                                                     INDArray recurrentWeights, INDArray inputWeights, INDArray epsilon,
+                                                     boolean truncatedBPTT, int tbpttBackwardLength, FwdPassReturn fwdPass,
+                                                     boolean forwards, String inputWeightKey, String recurrentWeightKey,
+                                                     String biasWeightKey, Map<String, INDArray> gradientViews,
+                                                     INDArray maskArray, boolean hasPeepholeConnections,
+                                                     LayerWorkspaceMgr workspaceMgr) {
+        if (fwdPass.fusedBiases == null) {
+            //Forward pass was done by the built-in implementation - use the matching built-in backprop
+            return null;
+        }
+
+        IActivation afn = ((BaseLayer) conf.getLayer()).getActivationFn();
+        DataType dataType = input.dataType();
+        long nOut = recurrentWeights.size(0);
+        long nIn = inputWeights.size(0);
+        long miniBatch = epsilon.size(0);
+        long tsLength = epsilon.size(2);
+
+        //Truncated BPTT: only the last tbpttBackwardLength steps (in processing order) are backpropagated through.
+        //The state at the start of that window is obtained by running the op forward over the earlier steps
+        long start = 0;
+        long end = tsLength;
+        INDArray hI = fwdPass.prevAct;
+        INDArray cI = fwdPass.prevMemCell;
+        if (truncatedBPTT && tbpttBackwardLength < tsLength) {
+            INDArray earlier;
+            if (forwards) {
+                start = tsLength - tbpttBackwardLength;
+                earlier = input.get(all(), all(), interval(0, start));
+            } else {
+                end = tbpttBackwardLength;
+                earlier = input.get(all(), all(), interval(end, tsLength));
+            }
+
+            INDArray hL = workspaceMgr.createUninitialized(ArrayType.BP_WORKING_MEM, dataType, new long[]{miniBatch, nOut}, 'f');
+            INDArray cL = workspaceMgr.createUninitialized(ArrayType.BP_WORKING_MEM, dataType, new long[]{miniBatch, nOut}, 'f');
+            DynamicCustomOp fwdOp = lstmLayerOp("lstmLayer", opInputs(earlier, fwdPass.fusedInputWeights,
+                    fwdPass.fusedRecurrentWeights, fwdPass.fusedBiases, hI, cI, fwdPass.fusedPeepholeWeights),
+                    forwards, gateActivationFn, afn, hasPeepholeConnections, false, true);
+            fwdOp.addOutputArgument(hL, cL);
+            Nd4j.exec(fwdOp);
+            hI = hL;
+            cI = cL;
+        }
+        boolean fullSequence = start == 0 && end == tsLength;
+        INDArray x = fullSequence ? input : input.get(all(), all(), interval(start, end));
+        INDArray dLdh = fullSequence ? epsilon : epsilon.get(all(), all(), interval(start, end));
+
+        INDArray epsilonNext;
+        INDArray dLdx;
+        if (fullSequence) {
+            epsilonNext = workspaceMgr.createUninitialized(ArrayType.ACTIVATION_GRAD, dataType, new long[]{miniBatch, nIn, tsLength}, 'f');
+            dLdx = epsilonNext;
+        } else {
+            //No gradient flows to the input at time steps outside of the TBPTT window
+            epsilonNext = workspaceMgr.create(ArrayType.ACTIVATION_GRAD, dataType, new long[]{miniBatch, nIn, tsLength}, 'f');
+            dLdx = workspaceMgr.createUninitialized(ArrayType.BP_WORKING_MEM, dataType, new long[]{miniBatch, nIn, end - start}, 'f');
+        }
+        INDArray dLdWx = workspaceMgr.createUninitialized(ArrayType.BP_WORKING_MEM, dataType, new long[]{nIn, 4 * nOut}, 'f');
+        INDArray dLdWr = workspaceMgr.createUninitialized(ArrayType.BP_WORKING_MEM, dataType, new long[]{nOut, 4 * nOut}, 'f');
+        INDArray dLdb = workspaceMgr.createUninitialized(ArrayType.BP_WORKING_MEM, dataType, 4 * nOut);
+        INDArray dLdhI = workspaceMgr.createUninitialized(ArrayType.BP_WORKING_MEM, dataType, new long[]{miniBatch, nOut}, 'f');
+        INDArray dLdcI = workspaceMgr.createUninitialized(ArrayType.BP_WORKING_MEM, dataType, new long[]{miniBatch, nOut}, 'f');
+
+        List<INDArray> inputs = opInputs(x, fwdPass.fusedInputWeights, fwdPass.fusedRecurrentWeights,
+                fwdPass.fusedBiases, hI, cI, fwdPass.fusedPeepholeWeights);
+        inputs.add(dLdh);
+        DynamicCustomOp op = lstmLayerOp("lstmLayer_bp", inputs, forwards, gateActivationFn, afn,
+                hasPeepholeConnections, true, false);
+        op.addOutputArgument(dLdx, dLdWx, dLdWr, dLdb, dLdhI, dLdcI);
+        INDArray dLdWp = null;
+        if (hasPeepholeConnections) {
+            dLdWp = workspaceMgr.createUninitialized(ArrayType.BP_WORKING_MEM, dataType, 3 * nOut);
+            op.addOutputArgument(dLdWp);
+        }
+        Nd4j.exec(op);
+
+        if (!fullSequence) {
+            epsilonNext.get(all(), all(), interval(start, end)).assign(dLdx);
+        }
+
+        INDArray iwGradientsOut = gradientViews.get(inputWeightKey);
+        INDArray rwGradientsOut = gradientViews.get(recurrentWeightKey); //Order: {I,F,O,G,FF,OO,GG}
+        INDArray bGradientsOut = gradientViews.get(biasWeightKey);
+        fromOpGateOrder(dLdWx, iwGradientsOut, nOut);
+        fromOpGateOrder(dLdWr, rwGradientsOut.get(all(), interval(0, 4 * nOut)), nOut);
+        fromOpGateOrder(dLdb, bGradientsOut, nOut);
+        if (hasPeepholeConnections) {
+            rwGradientsOut.get(all(), point(4 * nOut)).assign(dLdWp.get(interval(nOut, 2 * nOut)));
+            rwGradientsOut.get(all(), point(4 * nOut + 1)).assign(dLdWp.get(interval(2 * nOut, 3 * nOut)));
+            rwGradientsOut.get(all(), point(4 * nOut + 2)).assign(dLdWp.get(interval(0, nOut)));
+        }
+
+        Gradient retGradient = new DefaultGradient();
+        retGradient.gradientForVariable().put(inputWeightKey, iwGradientsOut);
+        retGradient.gradientForVariable().put(recurrentWeightKey, rwGradientsOut);
+        retGradient.gradientForVariable().put(biasWeightKey, bGradientsOut);
+
+        return new Pair<>(retGradient, epsilonNext);
+    }
+
+    /**
+     * Layer parameters, rearranged to the op gate order
+     */
+    private static class OpParams {
+        private final INDArray inputWeights;
+        private final INDArray recurrentWeights;
+        private final INDArray biases;
+        private final INDArray wx;
+        private final INDArray wr;
+        private final INDArray b;
+        private final INDArray wp;
+        private long version;
+
+        private OpParams(INDArray inputWeights, INDArray recurrentWeights, INDArray biases, boolean hasPeepholeConnections,
+                         DataType dataType, ArrayType arrayType, LayerWorkspaceMgr workspaceMgr) {
+            this.inputWeights = inputWeights;
+            this.recurrentWeights = recurrentWeights;
+            this.biases = biases;
+            long nOut = recurrentWeights.size(0);
+            wx = workspaceMgr.createUninitialized(arrayType, dataType, new long[]{inputWeights.size(0), 4 * nOut}, 'f');
+            toOpGateOrder(inputWeights, wx, nOut);
+            wr = workspaceMgr.createUninitialized(arrayType, dataType, new long[]{nOut, 4 * nOut}, 'f');
+            toOpGateOrder(recurrentWeights.get(all(), interval(0, 4 * nOut)), wr, nOut);
+            b = workspaceMgr.createUninitialized(arrayType, dataType, 4 * nOut);
+            toOpGateOrder(biases, b, nOut);
+            if (hasPeepholeConnections) {
+                //DL4J: [wFF, wOO, wGG] as the last 3 columns of the recurrent weights; op: [wi, wf, wo]
+                wp = workspaceMgr.createUninitialized(arrayType, dataType, 3 * nOut);
+                wp.get(interval(0, nOut)).assign(recurrentWeights.get(all(), point(4 * nOut + 2)));
+                wp.get(interval(nOut, 2 * nOut)).assign(recurrentWeights.get(all(), point(4 * nOut)));
+                wp.get(interval(2 * nOut, 3 * nOut)).assign(recurrentWeights.get(all(), point(4 * nOut + 1)));
+            } else {
+                wp = null;
+            }
+        }
+
+        private boolean isFor(INDArray inputWeights, INDArray recurrentWeights, INDArray biases, DataType dataType,
+                              long version) {
+            return this.version == version && this.inputWeights == inputWeights
+                    && this.recurrentWeights == recurrentWeights && this.biases == biases && wx.dataType() == dataType;
+        }
+    }
+
+    private static List<INDArray> opInputs(INDArray x, INDArray wx, INDArray wr, INDArray b, INDArray hI, INDArray cI, INDArray wp) {
+        List<INDArray> inputs = new ArrayList<>();
+        inputs.add(x);
+        inputs.add(wx);
+        inputs.add(wr);
+        inputs.add(b);
+        inputs.add(hI);
+        inputs.add(cI);
+        if (wp != null)
+            inputs.add(wp);
+        return inputs;
+    }
+
+    private static DynamicCustomOp lstmLayerOp(String opName, List<INDArray> inputs, boolean forwards,
+                                               IActivation gateActivationFn, IActivation afn,
+                                               boolean hasPeepholeConnections, boolean fullSequence, boolean lastStep) {
+        //DL4J uses the layer activation function for both the block input and the output (cell state) activation
+        int act = activationToArg(afn);
+        return DynamicCustomOp.builder(opName)
+                .addInputs(inputs.toArray(new INDArray[0]))
+                .addIntegerArguments(
+                        2,                                      //Data format: 2 = [bS, nIn, sL], same as DL4J NCW
+                        forwards ? 0 : 1,                       //Direction: 0 = forward, 1 = backward
+                        activationToArg(gateActivationFn),      //Gate activation (i, f, o)
+                        act,                                    //Cell (block input) activation
+                        act)                                    //Output activation
+                .addBooleanArguments(
+                        true,                                   //hasBiases
+                        false,                                  //hasSeqLen
+                        true,                                   //hasInitH
+                        true,                                   //hasInitC
+                        hasPeepholeConnections,                 //hasPH
+                        fullSequence,                           //retFullSeq (for bp: dLdh is provided)
+                        lastStep,                               //retLastH
+                        lastStep)                               //retLastC
+                .addFloatingPointArguments(0.0)                 //Cell clipping: 0 = no clipping
+                .build();
+    }
+
+    private static void toOpGateOrder(INDArray dl4j, INDArray op, long nOut) {
+        for (int i = 0; i < 4; i++) {
+            INDArray to = gate(op, i, nOut);
+            to.assign(gate(dl4j, OP_TO_DL4J_GATE[i], nOut).reshape(to.shape()));
+        }
+    }
+
+    private static void fromOpGateOrder(INDArray op, INDArray dl4j, long nOut) {
+        for (int i = 0; i < 4; i++) {
+            INDArray to = gate(dl4j, OP_TO_DL4J_GATE[i], nOut);
+            to.assign(gate(op, i, nOut).reshape(to.shape()));
+        }
+    }
+
+    private static INDArray gate(INDArray arr, int gate, long nOut) {
+        if (arr.rank() == 1)
+            return arr.get(interval(gate * nOut, (gate + 1) * nOut));
+        return arr.get(all(), interval(gate * nOut, (gate + 1) * nOut));
+    }
+
+    /**
+     * @return The lstmLayer op activation id, or -1 if the activation function isn't supported by the op
+     */
+    private static int activationToArg(IActivation a) {
+        //Only parameter-free activations here: the op takes alpha/beta for the others, DL4J config may differ from op defaults
+        if (a instanceof ActivationTanH)
+            return 0;
+        if (a instanceof ActivationSigmoid)
+            return 2;
+        if (a instanceof ActivationHardSigmoid)
+            return 7;
+        if (a instanceof ActivationSoftSign)
+            return 9;
+        if (a instanceof ActivationSoftPlus)
+            return 10;
+        return -1;
+    }
+
+    @Override
+    public Map<String, Long> helperMemoryUse() {
+        return Collections.emptyMap();
+    }
+
+    @Override
+    public boolean checkSupported() {
+        return true;
+    }
+}
@@ -46,6 +46,11 @@ public class FwdPassReturn {
     //Last 2: needed only for TBPTT
     public INDArray prevAct;
     public INDArray prevMemCell;
+    //Only set when the forward pass was done by FusedLSTMHelper: parameters rearranged to the lstmLayer op gate order
+    public INDArray fusedInputWeights;
+    public INDArray fusedRecurrentWeights;
+    public INDArray fusedBiases;
+    public INDArray fusedPeepholeWeights;
 
     /**
      * This method is OPTIONAL, and written mostly for future use
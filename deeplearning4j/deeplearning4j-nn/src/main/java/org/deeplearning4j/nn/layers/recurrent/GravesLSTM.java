@@ -25,6 +25,8 @@ import org.deeplearning4j.nn.api.MaskState;
 import org.deeplearning4j.nn.conf.CacheMode;
 import org.deeplearning4j.nn.conf.NeuralNetConfiguration;
 import org.deeplearning4j.nn.gradient.Gradient;
+import org.deeplearning4j.nn.layers.HelperUtils;
+import org.deeplearning4j.nn.layers.LayerHelper;
 import org.deeplearning4j.nn.params.GravesLSTMParamInitializer;
 import org.nd4j.common.base.Preconditions;
 import org.nd4j.linalg.api.buffer.DataType;
@@ -38,10 +40,32 @@ public class GravesLSTM extends BaseRecurrentLayer<org.deeplearning4j.nn.conf.la
     public static final String STATE_KEY_PREV_ACTIVATION = "prevAct";
     public static final String STATE_KEY_PREV_MEMCELL = "prevMem";
 
+    protected LSTMHelper helper = null;
     protected FwdPassReturn cachedFwdPass;
 
     public GravesLSTM(NeuralNetConfiguration conf, DataType dataType) {
         super(conf, dataType);
+        initializeHelper();
+    }
+
+    void initializeHelper() {
+        //No CuDNN helper: CuDNN LSTM has no peephole connections
+        helper = HelperUtils.createHelper("",
+                FusedLSTMHelper.class.getName(),
+                LSTMHelper.class, layerConf().getLayerName(), dataType
+        );
+    }
+
+    @Override
+    public void setParams(INDArray params) {
+        super.setParams(params);
+        FusedLSTMHelper.invalidateCaches();
+    }
+
+    @Override
+    public void setParam(String key, INDArray val) {
+        super.setParam(key, val);
+        FusedLSTMHelper.invalidateCaches();
     }
 
     @Override
@@ -86,7 +110,7 @@ public class GravesLSTM extends BaseRecurrentLayer<org.deeplearning4j.nn.conf.la
                         this.conf, this.layerConf().getGateActivationFn(), permuteIfNWC(this.input),
                         recurrentWeights, inputWeights, permuteIfNWC(epsilon), truncatedBPTT, tbpttBackwardLength, fwdPass, true,
                         GravesLSTMParamInitializer.INPUT_WEIGHT_KEY, GravesLSTMParamInitializer.RECURRENT_WEIGHT_KEY,
-                        GravesLSTMParamInitializer.BIAS_KEY, gradientViews, maskArray, true, null,
+                        GravesLSTMParamInitializer.BIAS_KEY, gradientViews, maskArray, true, helper,
                         workspaceMgr, layerConf().isHelperAllowFallback());
 
         weightNoiseParams.clear();
@@ -131,7 +155,7 @@ public class GravesLSTM extends BaseRecurrentLayer<org.deeplearning4j.nn.conf.la
         FwdPassReturn fwd = LSTMHelpers.activateHelper(this, this.conf, this.layerConf().getGateActivationFn(),
                         input, recurrentWeights, inputWeights, biases, training, prevOutputActivations,
                         prevMemCellState, forBackprop || (cacheMode != CacheMode.NONE && training), true,
-                        GravesLSTMParamInitializer.INPUT_WEIGHT_KEY, maskArray, true, null,
+                        GravesLSTMParamInitializer.INPUT_WEIGHT_KEY, maskArray, true, helper,
                         cacheMode, workspaceMgr, layerConf().isHelperAllowFallback());
 
         fwd.fwdPassOutput = permuteIfNWC(fwd.fwdPassOutput);
@@ -193,4 +217,9 @@ public class GravesLSTM extends BaseRecurrentLayer<org.deeplearning4j.nn.conf.la
 
         return outAct;
     }
+
+    @Override
+    public LayerHelper getHelper() {
+        return helper;
+    }
 }
@@ -50,11 +50,23 @@ public class LSTM extends BaseRecurrentLayer<org.deeplearning4j.nn.conf.layers.L
 
     void initializeHelper() {
         helper = HelperUtils.createHelper(CUDNN_LSTM_CLASS_NAME,
-                "",
+                FusedLSTMHelper.class.getName(),
                 LSTMHelper.class, layerConf().getLayerName(), dataType
         );
     }
 
+    @Override
+    public void setParams(INDArray params) {
+        super.setParams(params);
+        FusedLSTMHelper.invalidateCaches();
+    }
+
+    @Override
+    public void setParam(String key, INDArray val) {
+        super.setParam(key, val);
+        FusedLSTMHelper.invalidateCaches();
+    }
+
     @Override
     public Gradient gradient() {
         throw new UnsupportedOperationException(
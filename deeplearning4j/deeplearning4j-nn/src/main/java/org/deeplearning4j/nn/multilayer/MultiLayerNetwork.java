@@ -47,12 +47,14 @@ import org.deeplearning4j.nn.layers.FrozenLayer;
 import org.deeplearning4j.nn.layers.FrozenLayerWithBackprop;
 import org.deeplearning4j.nn.layers.LayerHelper;
 import org.deeplearning4j.nn.layers.recurrent.BidirectionalLayer;
+import org.deeplearning4j.nn.layers.recurrent.FusedLSTMHelper;
 import org.deeplearning4j.nn.layers.wrapper.BaseWrapperLayer;
 import org.deeplearning4j.nn.updater.UpdaterCreator;
 import org.deeplearning4j.nn.workspace.ArrayType;
 import org.deeplearning4j.nn.workspace.LayerWorkspaceMgr;
 import org.deeplearning4j.optimize.Solver;
 import org.deeplearning4j.optimize.api.ConvexOptimizer;
+import org.deeplearning4j.optimize.api.LayerExecutionListener;
 import org.deeplearning4j.optimize.api.TrainingListener;
 import org.deeplearning4j.optimize.solvers.accumulation.GradientsAccumulator;
 import org.deeplearning4j.util.*;
@@ -562,6 +564,7 @@ public class MultiLayerNetwork implements Serializable, Classifier, Layer, Neura
             INDArray toSet = paramTable.get(s);
             curr.assign(toSet);
         }
+        FusedLSTMHelper.invalidateCaches();
     }
 
     /**
@@ -969,6 +972,31 @@ public class MultiLayerNetwork implements Serializable, Classifier, Layer, Neura
     }
 
 
+    private void fireLayerExecutionStart(LayerExecutionListener.Phase phase, int layerIdx, LayerWorkspaceMgr mgr) {
+        if (trainingListeners.isEmpty())
+            return;
+        for (TrainingListener tl : trainingListeners) {
+            if (tl instanceof LayerExecutionListener) {
+                ((LayerExecutionListener) tl).onLayerExecutionStart(this, phase, layerExecutionName(layerIdx), layers[layerIdx], mgr);
+            }
+        }
+    }
+
+    private void fireLayerExecutionEnd(LayerExecutionListener.Phase phase, int layerIdx, LayerWorkspaceMgr mgr) {
+        if (trainingListeners.isEmpty())
+            return;
+        for (TrainingListener tl : trainingListeners) {
+            if (tl instanceof LayerExecutionListener) {
+                ((LayerExecutionListener) tl).onLayerExecutionEnd(this, phase, layerExecutionName(layerIdx), layers[layerIdx], mgr);
+            }
+        }
+    }
+
+    private String layerExecutionName(int layerIdx) {
+        String name = layers[layerIdx].conf().getLayer().getLayerName();
+        return name != null ? name : String.valueOf(layerIdx);
+    }
+
     protected void validateArrayWorkspaces(LayerWorkspaceMgr mgr, INDArray array, ArrayType arrayType, int layerIdx,
                                            boolean isPreprocessor, String op) {
         try{
@@ -1042,11 +1070,14 @@ public class MultiLayerNetwork implements Serializable, Classifier, Layer, Neura
         for( int i = 0; i <= layerIndex; i++) {
             try(MemoryWorkspace wsFFWorking = workspaceMgr.notifyScopeEntered(ArrayType.FF_WORKING_MEM)) {
                 if (getLayerWiseConfigurations().getInputPreProcess(i) != null) {
+                    fireLayerExecutionStart(LayerExecutionListener.Phase.PREPROCESS, i, workspaceMgr);
                     input = getLayerWiseConfigurations().getInputPreProcess(i).preProcess(input, getInputMiniBatchSize(), workspaceMgr);
+                    fireLayerExecutionEnd(LayerExecutionListener.Phase.PREPROCESS, i, workspaceMgr);
                     //Validation: Exception if invalid (bad preprocessor implementation)
                     validateArrayWorkspaces(workspaceMgr, input, ArrayType.ACTIVATIONS, i, true, "Feed forward to layer (inference)");
                 }
 
+                fireLayerExecutionStart(LayerExecutionListener.Phase.FORWARD, i, workspaceMgr);
                 if(fwdPassType == FwdPassType.STANDARD) {
                     input = layers[i].activate(input, train, workspaceMgr);
                 } else if (fwdPassType == FwdPassType.RNN_ACTIVATE_WITH_STORED_STATE) {
@@ -1065,6 +1096,7 @@ public class MultiLayerNetwork implements Serializable, Classifier, Layer, Neura
                 } else {
                     throw new IllegalStateException("Forward pass type not supported for this method: " + fwdPassType);
                 }
+                fireLayerExecutionEnd(LayerExecutionListener.Phase.FORWARD, i, workspaceMgr);
 
                 //Validation: Exception if invalid (bad layer implementation)
                 validateArrayWorkspaces(workspaceMgr, input, ArrayType.ACTIVATIONS, i, false, "Feed forward to layer (inference)");
@@ -1134,7 +1166,9 @@ public class MultiLayerNetwork implements Serializable, Classifier, Layer, Neura
         try(MemoryWorkspace wsFFWorking = workspaceMgr.notifyScopeEntered(ArrayType.FF_WORKING_MEM)) {
             for( int i = 0; i <= layerIndex; i++) {
                 if (getLayerWiseConfigurations().getInputPreProcess(i) != null) {
+                    fireLayerExecutionStart(LayerExecutionListener.Phase.PREPROCESS, i, workspaceMgr);
                     input = getLayerWiseConfigurations().getInputPreProcess(i).preProcess(input, getInputMiniBatchSize(), workspaceMgr);
+                    fireLayerExecutionEnd(LayerExecutionListener.Phase.PREPROCESS, i, workspaceMgr);
                     //Validation: Exception if invalid (bad preprocessor implementation)
                     validateArrayWorkspaces(workspaceMgr, input, ArrayType.ACTIVATIONS, i, true, "Feed forward to layer (training)");
                 }
@@ -1143,6 +1177,7 @@ public class MultiLayerNetwork implements Serializable, Classifier, Layer, Neura
                     log.trace("About to forward pass: {} - {}", i, layers[i].getClass().getSimpleName());
                 }
 
+                fireLayerExecutionStart(LayerExecutionListener.Phase.FORWARD, i, workspaceMgr);
                 if(fwdPassType == FwdPassType.STANDARD) {
                     input = layers[i].activate(input, true, workspaceMgr);
                 } else if(fwdPassType == FwdPassType.RNN_ACTIVATE_WITH_STORED_STATE) {
@@ -1160,6 +1195,7 @@ public class MultiLayerNetwork implements Serializable, Classifier, Layer, Neura
                 } else {
                     throw new IllegalStateException("FwdPassType not supported for this method: " + fwdPassType);
                 }
+                fireLayerExecutionEnd(LayerExecutionListener.Phase.FORWARD, i, workspaceMgr);
 
                 if(input == null) {
                     throw new IllegalStateException("Layer " + i + " returned null activations");
@@ -1296,7 +1332,9 @@ public class MultiLayerNetwork implements Serializable, Classifier, Layer, Neura
                     }
 
                     if (getLayerWiseConfigurations().getInputPreProcess(i) != null) {
+                        fireLayerExecutionStart(LayerExecutionListener.Phase.PREPROCESS, i, mgr);
                         input = getLayerWiseConfigurations().getInputPreProcess(i).preProcess(input, getInputMiniBatchSize(), mgr);
+                        fireLayerExecutionEnd(LayerExecutionListener.Phase.PREPROCESS, i, mgr);
                         //Validation: Exception if invalid (bad preprocessor implementation)
                         validateArrayWorkspaces(mgr, input, ArrayType.ACTIVATIONS, i, true, "Output of layer (inference)");
                     }
@@ -1311,6 +1349,7 @@ public class MultiLayerNetwork implements Serializable, Classifier, Layer, Neura
                         }
                     }
 
+                    fireLayerExecutionStart(LayerExecutionListener.Phase.FORWARD, i, mgr);
                     if (fwdPassType == FwdPassType.STANDARD) {
                         //Standard feed-forward case
                         if(i > 0 && ConvolutionUtils.layerHasConvolutionLayout(layers[i - 1].conf().getLayer())
@@ -1362,6 +1401,7 @@ public class MultiLayerNetwork implements Serializable, Classifier, Layer, Neura
                     } else {
                         throw new IllegalArgumentException("Unsupported forward pass type for this method: " + fwdPassType);
                     }
+                    fireLayerExecutionEnd(LayerExecutionListener.Phase.FORWARD, i, mgr);
                     layers[i].clear();
                     //Validation: Exception if invalid (bad layer implementation)
                     validateArrayWorkspaces(mgr, input, ArrayType.ACTIVATIONS, i, false, "Output of layer (inference)");
@@ -1575,6 +1615,8 @@ public class MultiLayerNetwork implements Serializable, Classifier, Layer, Neura
         if (flattenedParams != null && params.length() == flattenedParams.length()) {
             if (params != flattenedParams) {
                 flattenedParams.assign(params);
+                //Parameters modified in place: invalidate any copies cached by layer helpers
+                FusedLSTMHelper.invalidateCaches();
             }
         } else {
             if (flattenedParams == null)
@@ -1730,6 +1772,9 @@ public class MultiLayerNetwork implements Serializable, Classifier, Layer, Neura
         if (!iter.hasNext() && iter.resetSupported()) {
             iter.reset();
         }
+        if (solver != null) {
+            solver.resetGradientAccumulation();
+        }
         long time1 = System.currentTimeMillis();
         while (iter.hasNext()) {
 
@@ -1774,6 +1819,12 @@ public class MultiLayerNetwork implements Serializable, Classifier, Layer, Neura
             synchronizeIterEpochCounts();
         }
 
+        //Apply the last partial group of minibatches when using gradient accumulation
+        if (solver != null) {
+            solver.finishGradientAccumulation(workspaceMgr);
+            synchronizeIterEpochCounts();
+        }
+
         if (!trainingListeners.isEmpty()) {
             for (TrainingListener tl : trainingListeners) {
                 tl.onEpochEnd(this);
@@ -1993,6 +2044,8 @@ public class MultiLayerNetwork implements Serializable, Classifier, Layer, Neura
 
                     INDArray eps = (i == layers.length - 1 ? epsilon : currPair.getRight());  //eps is null for OutputLayer
 
+                    fireLayerExecutionStart(LayerExecutionListener.Phase.BACKWARD, i, workspaceMgr);
+
                     if (!tbptt) {
                         //Standard case
                         currPair = layers[i].backpropGradient(eps, workspaceMgr);
@@ -2027,6 +2080,7 @@ public class MultiLayerNetwork implements Serializable, Classifier, Layer, Neura
                                     true, "Backprop");
                         }
                     }
+                    fireLayerExecutionEnd(LayerExecutionListener.Phase.BACKWARD, i, workspaceMgr);
 
                     if (i == 0) {
                         if (returnInputActGrad && currPair.getSecond() != null) {
@@ -2824,7 +2878,7 @@ public class MultiLayerNetwork implements Serializable, Classifier, Layer, Neura
     }
 
     /**
-     * Clear the inputs. Clears optimizer state.
+     * Clear the inputs. Clears optimizer state, including any accumulated gradients that have not yet been applied.
      */
     public void clear() {
         for (Layer layer : layers)
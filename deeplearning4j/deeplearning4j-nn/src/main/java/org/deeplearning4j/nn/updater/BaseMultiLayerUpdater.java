@@ -21,12 +21,15 @@
 package org.deeplearning4j.nn.updater;
 
 import lombok.Getter;
+import org.deeplearning4j.nn.api.Layer;
 import org.deeplearning4j.nn.api.Model;
 import org.deeplearning4j.nn.api.Trainable;
 import org.deeplearning4j.nn.api.Updater;
 import org.deeplearning4j.nn.conf.GradientNormalization;
 import org.deeplearning4j.nn.gradient.DefaultGradient;
 import org.deeplearning4j.nn.gradient.Gradient;
+import org.deeplearning4j.optimize.api.LayerExecutionListener;
+import org.deeplearning4j.optimize.api.TrainingListener;
 import org.nd4j.common.base.Preconditions;
 import org.nd4j.linalg.api.memory.MemoryWorkspace;
 import org.nd4j.linalg.api.ndarray.INDArray;
@@ -308,6 +311,7 @@ public abstract class BaseMultiLayerUpdater<T extends Model> implements Updater
             //OK for LayerUpdater as this is part of layerwise pretraining
             workspaceMgr.assertNotOpen(ArrayType.UPDATER_WORKING_MEM, "Updater working memory");
         }
+        Collection<TrainingListener> listeners = getNetworkListeners();
         for (UpdaterBlock ub : updaterBlocks) {
             if (ub.skipDueToPretrainConfig(this instanceof LayerUpdater)) {
                 //Should skip some updater blocks sometimes
@@ -315,6 +319,7 @@ public abstract class BaseMultiLayerUpdater<T extends Model> implements Updater
                 continue;
             }
             try(MemoryWorkspace ws = workspaceMgr.notifyScopeEntered(ArrayType.UPDATER_WORKING_MEM)){
+                notifyUpdaterBlock(listeners, ub, true);
                 if (isExternal) {
                     //RL4J etc type case: calculate gradients in 1 net, update them in another
                     ub.updateExternalGradient(iteration, epoch, gradient.gradient(), getParams());
@@ -322,6 +327,38 @@ public abstract class BaseMultiLayerUpdater<T extends Model> implements Updater
                     //Standard case
                     ub.update(iteration, epoch);
                 }
+                notifyUpdaterBlock(listeners, ub, false);
+            }
+        }
+    }
+
+    /**
+     * @return The training listeners of the network being updated, used to notify any {@link LayerExecutionListener}
+     * instances of updater block execution. May be null
+     */
+    protected Collection<TrainingListener> getNetworkListeners() {
+        return network instanceof Layer ? ((Layer) network).getListeners() : null;
+    }
+
+    private void notifyUpdaterBlock(Collection<TrainingListener> listeners, UpdaterBlock ub, boolean start) {
+        if (listeners == null || listeners.isEmpty())
+            return;
+        String blockName = null;
+        for (TrainingListener tl : listeners) {
+            if (!(tl instanceof LayerExecutionListener))
+                continue;
+            if (blockName == null) {
+                //Name the block after the first and last layers it covers
+                List<UpdaterBlock.ParamState> states = ub.getLayersAndVariablesInBlock();
+                String first = states.get(0).getLayer().getConfig().getLayerName();
+                String last = states.get(states.size() - 1).getLayer().getConfig().getLayerName();
+                blockName = first.equals(last) ? first : first + ".." + last;
+            }
+            LayerExecutionListener l = (LayerExecutionListener) tl;
+            if (start) {
+                l.onLayerExecutionStart(network, LayerExecutionListener.Phase.UPDATE, blockName, null, null);
+            } else {
+                l.onLayerExecutionEnd(network, LayerExecutionListener.Phase.UPDATE, blockName, null, null);
             }
         }
     }
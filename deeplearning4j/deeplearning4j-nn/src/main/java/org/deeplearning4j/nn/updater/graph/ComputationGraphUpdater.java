@@ -25,9 +25,11 @@ import org.deeplearning4j.nn.api.Trainable;
 import org.deeplearning4j.nn.graph.ComputationGraph;
 import org.deeplearning4j.nn.graph.vertex.GraphVertex;
 import org.deeplearning4j.nn.updater.BaseMultiLayerUpdater;
+import org.deeplearning4j.optimize.api.TrainingListener;
 import org.nd4j.linalg.api.ndarray.INDArray;
 
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashMap;
 
 public class ComputationGraphUpdater extends BaseMultiLayerUpdater<ComputationGraph> {
@@ -94,4 +96,9 @@ public class ComputationGraphUpdater extends BaseMultiLayerUpdater<ComputationGr
     protected boolean isMiniBatch() {
         return network.conf().isMiniBatch();
     }
+
+    @Override
+    protected Collection<TrainingListener> getNetworkListeners() {
+        return network.getListeners();
+    }
 }
@@ -25,6 +25,7 @@ import lombok.Getter;
 import lombok.NonNull;
 import lombok.Setter;
 import org.bytedeco.javacpp.Pointer;
+import org.nd4j.linalg.api.buffer.DataType;
 import org.nd4j.linalg.api.memory.conf.WorkspaceConfiguration;
 import org.nd4j.linalg.api.ndarray.INDArray;
 import org.nd4j.linalg.workspace.BaseWorkspaceMgr;
@@ -48,6 +49,13 @@ public class LayerWorkspaceMgr extends BaseWorkspaceMgr<ArrayType> {
     @Setter @Getter
     protected Map<String,Pointer> helperWorkspacePointers;
 
+    /**
+     * Optional map used to record the number of bytes allocated via this workspace manager, by array type.
+     * Null (the default) disables tracking. Used by {@link org.deeplearning4j.optimize.listeners.LayerProfilingListener}
+     */
+    @Setter @Getter
+    protected Map<ArrayType,Long> allocationTracker;
+
     private LayerWorkspaceMgr(){
 
     }
@@ -84,6 +92,43 @@ public class LayerWorkspaceMgr extends BaseWorkspaceMgr<ArrayType> {
         return super.validateArrayLocation(arrayType, array, migrateIfInvalid, exceptionIfDetached);
     }
 
+    @Override
+    public INDArray create(@NonNull ArrayType arrayType, @NonNull DataType dataType, @NonNull long[] shape, @NonNull char order) {
+        INDArray out = super.create(arrayType, dataType, shape, order);
+        recordAllocation(arrayType, out);
+        return out;
+    }
+
+    @Override
+    public INDArray createUninitialized(@NonNull ArrayType arrayType, @NonNull DataType dataType, @NonNull long[] shape, char order) {
+        INDArray out = super.createUninitialized(arrayType, dataType, shape, order);
+        recordAllocation(arrayType, out);
+        return out;
+    }
+
+    @Override
+    public INDArray dup(@NonNull ArrayType arrayType, @NonNull INDArray toDup, char order) {
+        INDArray out = super.dup(arrayType, toDup, order);
+        recordAllocation(arrayType, out);
+        return out;
+    }
+
+    @Override
+    public INDArray castTo(@NonNull ArrayType arrayType, @NonNull DataType dataType, @NonNull INDArray toCast, boolean dupIfCorrectType) {
+        INDArray out = super.castTo(arrayType, dataType, toCast, dupIfCorrectType);
+        if(toCast.dataType() != dataType){
+            //Same data type: any copy is made via dup, which is already recorded
+            recordAllocation(arrayType, out);
+        }
+        return out;
+    }
+
+    protected void recordAllocation(ArrayType arrayType, INDArray array){
+        if(allocationTracker != null && array != null){
+            allocationTracker.merge(arrayType, array.length() * array.dataType().width(), Long::sum);
+        }
+    }
+
     /**
      * Get the pointer to the helper memory. Usually used for CUDNN workspace memory sharing.
      * NOTE: Don't use this method unless you are fully aware of how it is used to manage CuDNN memory!
@@ -49,6 +49,23 @@ public class Solver {
         optimizer.optimize(workspaceMgr);
     }
 
+    /**
+     * Apply any gradients accumulated but not yet applied (see {@link StochasticGradientDescent#finishGradientAccumulation(LayerWorkspaceMgr)}).
+     * No-op if gradient accumulation is not used.
+     */
+    public void finishGradientAccumulation(LayerWorkspaceMgr workspaceMgr) {
+        if (optimizer instanceof StochasticGradientDescent)
+            ((StochasticGradientDescent) optimizer).finishGradientAccumulation(workspaceMgr);
+    }
+
+    /**
+     * Discard any gradients accumulated but not yet applied. No-op if gradient accumulation is not used.
+     */
+    public void resetGradientAccumulation() {
+        if (optimizer instanceof StochasticGradientDescent)
+            ((StochasticGradientDescent) optimizer).resetGradientAccumulation();
+    }
+
     public void initOptimizer() {
         if (optimizer == null) {
             try (MemoryWorkspace ws = Nd4j.getMemoryManager().scopeOutOfWorkspaces()) {
@@ -0,0 +1,68 @@
+/*
+ *  ******************************************************************************
+ *  *
+ *  *
+ *  * This program and the accompanying materials are made available under the
+ *  * terms of the Apache License, Version 2.0 which is available at
+ *  * https://www.apache.org/licenses/LICENSE-2.0.
+ *  *
+ *  *  See the NOTICE file distributed with this work for additional
+ *  *  information regarding copyright ownership.
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ *  * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ *  * License for the specific language governing permissions and limitations
+ *  * under the License.
+ *  *
+ *  * SPDX-License-Identifier: Apache-2.0
+ *  *****************************************************************************
+ */
+
+package org.deeplearning4j.optimize.api;
+
+import org.deeplearning4j.nn.api.Layer;
+import org.deeplearning4j.nn.api.Model;
+import org.deeplearning4j.nn.workspace.LayerWorkspaceMgr;
+
+/**
+ * A {@link TrainingListener} that is additionally notified around the execution of each individual layer, input
+ * preprocessor, graph vertex and updater block of a {@link org.deeplearning4j.nn.multilayer.MultiLayerNetwork} or
+ * {@link org.deeplearning4j.nn.graph.ComputationGraph}.<br>
+ * Calls are always made in start/end pairs on the thread executing the network, unless an exception is thrown during
+ * execution, in which case the end call is not made.<br>
+ * Note that for ComputationGraph, input preprocessors are executed as part of the layer vertex, hence their time is
+ * included in the {@link Phase#FORWARD} and {@link Phase#BACKWARD} events for that vertex.
+ *
+ * @see org.deeplearning4j.optimize.listeners.LayerProfilingListener
+ */
+public interface LayerExecutionListener extends TrainingListener {
+
+    enum Phase {
+        /** Input preprocessor forward pass (MultiLayerNetwork only) */
+        PREPROCESS,
+        /** Layer or vertex forward pass */
+        FORWARD,
+        /** Layer or vertex backward pass, including (for MultiLayerNetwork) the input preprocessor backprop */
+        BACKWARD,
+        /** Application of the updater to one updater block (one or more contiguous layers with the same updater configuration) */
+        UPDATE
+    }
+
+    /**
+     * Called immediately before the execution of a layer, vertex, preprocessor or updater block
+     *
+     * @param model        Network being executed
+     * @param phase        Type of execution
+     * @param name         Name of the layer or vertex. For {@link Phase#UPDATE}, the name of the updater block
+     * @param layer        Layer being executed. Null for non-layer vertices and updater blocks
+     * @param workspaceMgr Workspace manager used for the execution. Null for {@link Phase#UPDATE}
+     */
+    void onLayerExecutionStart(Model model, Phase phase, String name, Layer layer, LayerWorkspaceMgr workspaceMgr);
+
+    /**
+     * Called immediately after the execution of a layer, vertex, preprocessor or updater block. Arguments are the same
+     * as the corresponding {@link #onLayerExecutionStart(Model, Phase, String, Layer, LayerWorkspaceMgr)} call
+     */
+    void onLayerExecutionEnd(Model model, Phase phase, String name, Layer layer, LayerWorkspaceMgr workspaceMgr);
+
+}
@@ -0,0 +1,388 @@
+/*
+ *  ******************************************************************************
+ *  *
+ *  *
+ *  * This program and the accompanying materials are made available under the
+ *  * terms of the Apache License, Version 2.0 which is available at
+ *  * https://www.apache.org/licenses/LICENSE-2.0.
+ *  *
+ *  *  See the NOTICE file distributed with this work for additional
+ *  *  information regarding copyright ownership.
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ *  * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ *  * License for the specific language governing permissions and limitations
+ *  * under the License.
+ *  *
+ *  * SPDX-License-Identifier: Apache-2.0
+ *  *****************************************************************************
+ */
+
+package org.deeplearning4j.optimize.listeners;
+
+import lombok.Data;
+import lombok.NonNull;
+import org.deeplearning4j.nn.api.Layer;
+import org.deeplearning4j.nn.api.Model;
+import org.deeplearning4j.nn.layers.LayerHelper;
+import org.deeplearning4j.nn.workspace.ArrayType;
+import org.deeplearning4j.nn.workspace.LayerWorkspaceMgr;
+import org.deeplearning4j.optimize.api.BaseTrainingListener;
+import org.deeplearning4j.optimize.api.LayerExecutionListener;
+import org.nd4j.autodiff.listeners.profiler.ProfilingListener;
+import org.nd4j.autodiff.listeners.profiler.data.TraceEvent;
+import org.nd4j.autodiff.listeners.profiler.data.TraceEvents;
+import org.nd4j.common.base.Preconditions;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.*;
+
+/**
+ * A listener that profiles the execution of each layer (or graph vertex), input preprocessor and updater block of a
+ * MultiLayerNetwork or ComputationGraph. For each of these it records:<br>
+ * - Forward, backward, preprocessor and updater time<br>
+ * - Bytes allocated through the layer workspace manager, per {@link ArrayType}<br>
+ * - Whether the layer executed with a {@link LayerHelper} (such as the cuDNN or oneDNN helpers) or the built-in
+ *   implementation. Note that a helper may decline a specific call (for example, an unsupported configuration) and fall
+ *   back to the built-in implementation internally; such calls are still attributed to the helper.<br>
+ * <br>
+ * Aggregate statistics are available via {@link #getStats()} and {@link #summary()}; the individual events can be
+ * exported in Chrome trace format via {@link #exportChromeTrace(File)}, for viewing in chrome://tracing or Perfetto.<br>
+ * <br>
+ * Note that asynchronous op execution (CUDA) means that times may be attributed to a later layer than the one that
+ * launched the work, unless the device is synchronized.
+ *
+ * @see ProfilingListener ProfilingListener, for op-level profiling of SameDiff
+ */
+public class LayerProfilingListener extends BaseTrainingListener implements LayerExecutionListener {
+
+    public static final String BUILT_IN = "built-in";
+
+    private final int warmup;
+    private final int maxIterations;
+    private final boolean trackAllocations;
+    private final boolean recordTraceEvents;
+
+    private final long pid;
+    private final Map<String, LayerStats> stats = new LinkedHashMap<>();
+    private final List<TraceEvent> traceEvents = new ArrayList<>();
+    private final ThreadLocal<Deque<Pending>> pending = new ThreadLocal<Deque<Pending>>() {
+        @Override
+        protected Deque<Pending> initialValue() {
+            return new ArrayDeque<>();
+        }
+    };
+    private volatile int iterationCount;
+
+    protected LayerProfilingListener(Builder builder) {
+        this.warmup = builder.warmup;
+        this.maxIterations = builder.maxIterations;
+        this.trackAllocations = builder.trackAllocations;
+        this.recordTraceEvents = builder.recordTraceEvents;
+        this.pid = processId();
+    }
+
+    /**
+     * Create a listener with the default configuration: no warmup, no iteration limit, allocation tracking and
+     * trace event recording enabled
+     */
+    public LayerProfilingListener() {
+        this(new Builder());
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    protected boolean isActive() {
+        int i = iterationCount;
+        return i >= warmup && (maxIterations <= 0 || i < warmup + maxIterations);
+    }
+
+    @Override
+    public void iterationDone(Model model, int iteration, int epoch) {
+        iterationCount++;
+    }
+
+    @Override
+    public void onLayerExecutionStart(Model model, Phase phase, String name, Layer layer, LayerWorkspaceMgr workspaceMgr) {
+        if (!isActive())
+            return;
+
+        Pending p = new Pending(phase, name);
+        if (trackAllocations && workspaceMgr != null && workspaceMgr != LayerWorkspaceMgr.noWorkspacesImmutable()) {
+            //Note: immutable instance is shared, hence we can't attach a tracker to it
+            p.workspaceMgr = workspaceMgr;
+            p.parentTracker = workspaceMgr.getAllocationTracker();
+            p.tracker = new EnumMap<>(ArrayType.class);
+            workspaceMgr.setAllocationTracker(p.tracker);
+        }
+        pending.get().push(p);
+        p.startNanos = System.nanoTime();
+    }
+
+    @Override
+    public void onLayerExecutionEnd(Model model, Phase phase, String name, Layer layer, LayerWorkspaceMgr workspaceMgr) {
+        long endNanos = System.nanoTime();
+        Deque<Pending> stack = pending.get();
+        Pending p = null;
+        while (!stack.isEmpty()) {
+            Pending top = stack.pop();
+            if (top.phase == phase && top.name.equals(name)) {
+                p = top;
+                break;
+            }
+            //Stale entry: an earlier execution threw an exception before its end call
+            top.detach();
+        }
+        if (p == null)
+            return;     //Start wasn't recorded - for example, listener became active mid-execution
+
+        Map<ArrayType, Long> allocated = Collections.emptyMap();
+        if (p.tracker != null) {
+            p.detach();
+            allocated = p.tracker;
+            if (p.parentTracker != null) {
+                //Nested execution (for example: MultiLayerNetwork used as a layer) - also count for the outer layer
+                for (Map.Entry<ArrayType, Long> e : allocated.entrySet()) {
+                    p.parentTracker.merge(e.getKey(), e.getValue(), Long::sum);
+                }
+            }
+        }
+
+        String helper = helperName(layer);
+        long durationNanos = endNanos - p.startNanos;
+        String key = phase + "/" + name;
+        synchronized (this) {
+            LayerStats s = stats.get(key);
+            if (s == null) {
+                s = new LayerStats(name, phase, layer == null ? null : layer.getClass().getSimpleName());
+                stats.put(key, s);
+            }
+            s.record(durationNanos, helper, allocated);
+
+            if (recordTraceEvents) {
+                Map<String, Object> args = new LinkedHashMap<>();
+                if (s.getLayerType() != null)
+                    args.put("layerType", s.getLayerType());
+                if (layer != null)
+                    args.put("helper", helper);
+                for (Map.Entry<ArrayType, Long> e : allocated.entrySet()) {
+                    args.put("bytes_" + e.getKey(), e.getValue());
+                }
+
+                traceEvents.add(TraceEvent.builder()
+                        .name(name)
+                        .categories(Collections.singletonList(phase.toString()))
+                        .ts(p.startNanos / 1000)
+                        .dur(durationNanos / 1000)
+                        .pid(pid)
+                        .tid(Thread.currentThread().getId())
+                        .ph(org.nd4j.autodiff.listeners.profiler.data.Phase.X)
+                        .args(args)
+                        .build());
+            }
+        }
+    }
+
+    protected static String helperName(Layer layer) {
+        if (layer == null)
+            return null;
+        LayerHelper h = layer.getHelper();
+        return h == null ? BUILT_IN : h.getClass().getSimpleName();
+    }
+
+    /**
+     * @return Statistics for each layer/phase combination, in order of first execution
+     */
+    public synchronized List<LayerStats> getStats() {
+        return new ArrayList<>(stats.values());
+    }
+
+    /**
+     * @return A copy of the recorded trace events
+     */
+    public synchronized List<TraceEvent> getTraceEvents() {
+        return new ArrayList<>(traceEvents);
+    }
+
+    /**
+     * Clear all recorded statistics and trace events. Warmup and iteration limits are not reset
+     */
+    public synchronized void reset() {
+        stats.clear();
+        traceEvents.clear();
+    }
+
+    /**
+     * @return The recorded events, as a Chrome trace format JSON string
+     */
+    public synchronized String toChromeTraceJson() {
+        try {
+            return ProfilingListener.jsonMapper().writeValueAsString(new TraceEvents(new ArrayList<>(traceEvents)));
+        } catch (IOException e) {
+            throw new RuntimeException("Error serializing trace events to JSON", e);
+        }
+    }
+
+    /**
+     * Write the recorded events to the specified file in Chrome trace format. Existing files will be overwritten.
+     *
+     * @param file File to write to
+     */
+    public synchronized void exportChromeTrace(@NonNull File file) throws IOException {
+        Preconditions.checkState(recordTraceEvents, "Cannot export Chrome trace: trace event recording is disabled for this listener");
+        ProfilingListener.jsonMapper().writeValue(file, new TraceEvents(new ArrayList<>(traceEvents)));
+    }
+
+    /**
+     * @return A table summarizing the statistics for each layer, sorted by total time (descending)
+     */
+    public synchronized String summary() {
+        List<LayerStats> list = new ArrayList<>(stats.values());
+        list.sort(new Comparator<LayerStats>() {
+            @Override
+            public int compare(LayerStats o1, LayerStats o2) {
+                return Long.compare(o2.getTotalNanos(), o1.getTotalNanos());
+            }
+        });
+
+        long total = 0;
+        for (LayerStats s : list) {
+            total += s.getTotalNanos();
+        }
+
+        StringBuilder sb = new StringBuilder();
+        String format = "%-30s %-10s %-26s %-26s %8s %12s %12s %7s %14s\n";
+        sb.append(String.format(format, "Name", "Phase", "Type", "Helper", "Count", "Total (ms)", "Mean (us)", "%", "Alloc (bytes)"));
+        for (LayerStats s : list) {
+            sb.append(String.format(format, s.getName(), s.getPhase(), s.getLayerType() == null ? "-" : s.getLayerType(),
+                    s.getHelper() == null ? "-" : s.getHelper(), s.getCount(),
+                    String.format("%.3f", s.getTotalNanos() / 1e6), String.format("%.1f", s.meanNanos() / 1e3),
+                    String.format("%.2f", total == 0 ? 0.0 : 100.0 * s.getTotalNanos() / total), s.totalBytesAllocated()));
+        }
+        return sb.toString();
+    }
+
+    private static long processId() {
+        //Format is usually '<pid>@<hostname>' but may differ for some JVMs
+        String jvmName = ManagementFactory.getRuntimeMXBean().getName();
+        int idx = jvmName.indexOf('@');
+        if (idx < 1)
+            return 0;
+        try {
+            return Long.parseLong(jvmName.substring(0, idx));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private static class Pending {
+        private final Phase phase;
+        private final String name;
+        private long startNanos;
+        private LayerWorkspaceMgr workspaceMgr;
+        private Map<ArrayType, Long> tracker;
+        private Map<ArrayType, Long> parentTracker;
+
+        private Pending(Phase phase, String name) {
+            this.phase = phase;
+            this.name = name;
+        }
+
+        private void detach() {
+            if (workspaceMgr != null) {
+                workspaceMgr.setAllocationTracker(parentTracker);
+            }
+        }
+    }
+
+    /**
+     * Aggregate statistics for one layer (or vertex, or updater block) and one {@link Phase}
+     */
+    @Data
+    public static class LayerStats {
+        private final String name;
+        private final Phase phase;
+        private final String layerType;
+        /** Simple class name of the helper used, {@link #BUILT_IN} if no helper was used, or null for non-layer executions */
+        private String helper;
+        private long count;
+        private long totalNanos;
+        private long minNanos = Long.MAX_VALUE;
+        private long maxNanos;
+        private final Map<ArrayType, Long> bytesAllocated = new EnumMap<>(ArrayType.class);
+
+        protected void record(long durationNanos, String helper, Map<ArrayType, Long> allocated) {
+            this.helper = helper;
+            count++;
+            totalNanos += durationNanos;
+            minNanos = Math.min(minNanos, durationNanos);
+            maxNanos = Math.max(maxNanos, durationNanos);
+            for (Map.Entry<ArrayType, Long> e : allocated.entrySet()) {
+                bytesAllocated.merge(e.getKey(), e.getValue(), Long::sum);
+            }
+        }
+
+        public double meanNanos() {
+            return count == 0 ? 0.0 : totalNanos / (double) count;
+        }
+
+        public long totalBytesAllocated() {
+            long sum = 0;
+            for (Long l : bytesAllocated.values()) {
+                sum += l;
+            }
+            return sum;
+        }
+    }
+
+    public static class Builder {
+        private int warmup = 0;
+        private int maxIterations = 0;
+        private boolean trackAllocations = true;
+        private boolean recordTraceEvents = true;
+
+        /**
+         * Number of training iterations to skip before recording. Default: 0
+         */
+        public Builder warmup(int warmup) {
+            Preconditions.checkArgument(warmup >= 0, "Warmup must be >= 0, got %s", warmup);
+            this.warmup = warmup;
+            return this;
+        }
+
+        /**
+         * Maximum number of training iterations to record, after warmup. 0 (default) means no limit.
+         * Note that when trace events are recorded, memory use grows with the number of iterations
+         */
+        public Builder maxIterations(int maxIterations) {
+            Preconditions.checkArgument(maxIterations >= 0, "Max iterations must be >= 0, got %s", maxIterations);
+            this.maxIterations = maxIterations;
+            return this;
+        }
+
+        /**
+         * Whether to record the bytes allocated via the layer workspace manager, per array type. Default: true
+         */
+        public Builder trackAllocations(boolean trackAllocations) {
+            this.trackAllocations = trackAllocations;
+            return this;
+        }
+
+        /**
+         * Whether to keep individual trace events for Chrome trace export, in addition to the aggregate statistics.
+         * Default: true
+         */
+        public Builder recordTraceEvents(boolean recordTraceEvents) {
+            this.recordTraceEvents = recordTraceEvents;
+            return this;
+        }
+
+        public LayerProfilingListener build() {
+            return new LayerProfilingListener(this);
+        }
+    }
+}
@@ -301,6 +301,21 @@ public abstract class BaseOptimizer implements ConvexOptimizer {
         }
     }
 
+    /**
+     * Get the number of minibatches to accumulate gradients over before applying an update, as per
+     * {@link MultiLayerConfiguration#getGradientAccumulationSteps()} or
+     * {@link ComputationGraphConfiguration#getGradientAccumulationSteps()}. Always 1 for other model types.
+     */
+    public static int getGradientAccumulationSteps(Model model) {
+        if (model instanceof MultiLayerNetwork) {
+            return ((MultiLayerNetwork) model).getLayerWiseConfigurations().getGradientAccumulationSteps();
+        } else if (model instanceof ComputationGraph) {
+            return ((ComputationGraph) model).getConfiguration().getGradientAccumulationSteps();
+        } else {
+            return 1;
+        }
+    }
+
     public static void applyConstraints(Model model){
         int iter = getIterationCount(model);
         int epoch = getEpochCount(model);
@@ -39,6 +39,11 @@ import java.util.Collection;
 @Slf4j
 public class StochasticGradientDescent extends BaseOptimizer {
 
+    //Gradient accumulation state: see MultiLayerConfiguration.Builder.gradientAccumulationSteps(int)
+    protected INDArray accumulatedGradients;
+    protected int accumulatedSteps;
+    protected int accumulatedBatchSize;
+    protected double accumulatedScore;
 
     public StochasticGradientDescent(NeuralNetConfiguration conf, StepFunction stepFunction,
                                      Collection<TrainingListener> trainingListeners, Model model) {
@@ -58,10 +63,56 @@ public class StochasticGradientDescent extends BaseOptimizer {
             }
         }
 
-        Pair<Gradient, Double> pair = gradientAndScore(workspaceMgr);
+        Pair<Gradient, Double> pair;
+        int accumulationSteps = BaseOptimizer.getGradientAccumulationSteps(model);
+        if (accumulationSteps > 1) {
+            pair = accumulateGradientAndScore(workspaceMgr, accumulationSteps);
+            if (pair == null) {
+                //Gradient stored for later; no parameter update (or iteration) until all accumulation steps are done
+                return true;
+            }
+        } else {
+            pair = gradientAndScore(workspaceMgr);
+        }
 
-        Gradient gradient = pair.getFirst();
+        applyUpdate(pair.getFirst());
+        return true;
+    }
 
+    /**
+     * Apply any gradients accumulated (as per {@link BaseOptimizer#getGradientAccumulationSteps(Model)}) since the last
+     * parameter update, as a single update over the examples seen so far. Should be called at the end of each epoch,
+     * so that the last (partial) group of minibatches is neither dropped nor carried over into the next epoch.
+     *
+     * @return True if an update was applied, false if there were no pending accumulated gradients
+     */
+    public boolean finishGradientAccumulation(LayerWorkspaceMgr workspaceMgr) {
+        if (accumulatedSteps == 0)
+            return false;
+
+        //All accumulated steps (including the most recent one) are held in the accumulation buffer
+        Gradient gradient = model.gradient();
+        gradient.gradient().assign(accumulatedGradients);
+        int batchSize = accumulatedBatchSize;
+        setAccumulatedScore();
+        resetGradientAccumulation();
+
+        fireGradientCalculation();
+        updateGradientAccordingToParams(gradient, model, batchSize, workspaceMgr);
+        applyUpdate(gradient);
+        return true;
+    }
+
+    /**
+     * Discard any gradients accumulated since the last parameter update.
+     */
+    public void resetGradientAccumulation() {
+        accumulatedSteps = 0;
+        accumulatedBatchSize = 0;
+        accumulatedScore = 0.0;
+    }
+
+    protected void applyUpdate(Gradient gradient) {
         INDArray params = model.params();
         INDArray fullGrad = gradient.gradient();
         fullGrad = fullGrad.reshape(fullGrad.length());
@@ -106,7 +157,74 @@ public class StochasticGradientDescent extends BaseOptimizer {
 
         BaseOptimizer.incrementIterationCount(model, 1);
         applyConstraints(model);
-        return true;
+    }
+
+    /**
+     * As per {@link #gradientAndScore(LayerWorkspaceMgr)}, but accumulating gradients over multiple calls. Backprop
+     * overwrites the network's flattened gradient view on every call, so the gradients of all but the last step are
+     * summed into a single persistent buffer (allocated once, outside of any workspace). On the last step, the buffer
+     * is added directly into the gradient view, and the updater is applied with the total number of examples.
+     * Listeners are notified of the gradient calculation once per update, and the score is the average over all
+     * accumulated examples.
+     *
+     * @return Gradient and score if this was the last accumulation step (and an update should be applied), or null otherwise
+     */
+    protected Pair<Gradient, Double> accumulateGradientAndScore(LayerWorkspaceMgr workspaceMgr, int accumulationSteps) {
+        if (accumulatedSteps == 0)
+            oldScore = score;
+        model.computeGradientAndScore(workspaceMgr);
+
+        Pair<Gradient, Double> pair = model.gradientAndScore();
+        INDArray grad = pair.getFirst().gradient();
+        int batchSize = model.batchSize();
+        accumulatedSteps++;
+        accumulatedBatchSize += batchSize;
+        accumulatedScore += pair.getSecond() * batchSize;
+
+        if (accumulatedSteps < accumulationSteps) {
+            if (accumulatedSteps == 1) {
+                if (accumulatedGradients == null || accumulatedGradients.length() != grad.length()
+                        || accumulatedGradients.dataType() != grad.dataType()) {
+                    try (MemoryWorkspace ws = Nd4j.getMemoryManager().scopeOutOfWorkspaces()) {
+                        accumulatedGradients = Nd4j.createUninitialized(grad.dataType(), grad.shape(), grad.ordering());
+                    }
+                }
+                accumulatedGradients.assign(grad);
+            } else {
+                accumulatedGradients.addi(grad);
+            }
+            return null;
+        }
+
+        if (accumulatedSteps > 1) {
+            grad.addi(accumulatedGradients);
+        }
+        int totalBatchSize = accumulatedBatchSize;
+        setAccumulatedScore();
+        resetGradientAccumulation();
+
+        fireGradientCalculation();
+        updateGradientAccordingToParams(pair.getFirst(), model, totalBatchSize, workspaceMgr);
+        return new Pair<>(pair.getFirst(), score);
+    }
+
+    private void setAccumulatedScore() {
+        score = accumulatedBatchSize > 0 ? accumulatedScore / accumulatedBatchSize : 0.0;
+        if (model instanceof MultiLayerNetwork) {
+            ((MultiLayerNetwork) model).setScore(score);
+        } else if (model instanceof ComputationGraph) {
+            ((ComputationGraph) model).setScore(score);
+        }
+    }
+
+    private void fireGradientCalculation() {
+        if (trainingListeners != null && !trainingListeners.isEmpty()) {
+            try (MemoryWorkspace workspace = Nd4j.getMemoryManager().scopeOutOfWorkspaces()) {
+                for (TrainingListener l : trainingListeners) {
+                    l.onGradientCalculation(model);
+                }
+            }
+        }
     }
 
     @Override
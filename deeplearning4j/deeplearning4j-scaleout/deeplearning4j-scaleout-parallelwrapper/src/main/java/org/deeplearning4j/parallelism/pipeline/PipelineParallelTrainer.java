@@ -0,0 +1,790 @@
+/*
+ *  ******************************************************************************
+ *  *
+ *  *
+ *  * This program and the accompanying materials are made available under the
+ *  * terms of the Apache License, Version 2.0 which is available at
+ *  * https://www.apache.org/licenses/LICENSE-2.0.
+ *  *
+ *  *  See the NOTICE file distributed with this work for additional
+ *  *  information regarding copyright ownership.
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ *  * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ *  * License for the specific language governing permissions and limitations
+ *  * under the License.
+ *  *
+ *  * SPDX-License-Identifier: Apache-2.0
+ *  *****************************************************************************
+ */
+
+package org.deeplearning4j.parallelism.pipeline;
+
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.deeplearning4j.exception.DL4JInvalidConfigException;
+import org.deeplearning4j.nn.api.Layer;
+import org.deeplearning4j.nn.api.layers.IOutputLayer;
+import org.deeplearning4j.nn.conf.BackpropType;
+import org.deeplearning4j.nn.gradient.DefaultGradient;
+import org.deeplearning4j.nn.gradient.Gradient;
+import org.deeplearning4j.nn.graph.ComputationGraph;
+import org.deeplearning4j.nn.graph.vertex.GraphVertex;
+import org.deeplearning4j.nn.graph.vertex.VertexIndices;
+import org.deeplearning4j.nn.graph.vertex.impl.FrozenVertex;
+import org.deeplearning4j.nn.graph.vertex.impl.LayerVertex;
+import org.deeplearning4j.nn.layers.FrozenLayer;
+import org.deeplearning4j.nn.layers.FrozenLayerWithBackprop;
+import org.deeplearning4j.nn.workspace.LayerWorkspaceMgr;
+import org.deeplearning4j.optimize.api.TrainingListener;
+import org.deeplearning4j.optimize.solvers.BaseOptimizer;
+import org.deeplearning4j.optimize.stepfunctions.NegativeGradientStepFunction;
+import org.nd4j.common.base.Preconditions;
+import org.nd4j.common.primitives.Pair;
+import org.nd4j.linalg.api.memory.MemoryWorkspace;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.dataset.adapter.MultiDataSetIteratorAdapter;
+import org.nd4j.linalg.dataset.api.MultiDataSet;
+import org.nd4j.linalg.dataset.api.iterator.DataSetIterator;
+import org.nd4j.linalg.dataset.api.iterator.MultiDataSetIterator;
+import org.nd4j.linalg.factory.Nd4j;
+import org.nd4j.linalg.indexing.INDArrayIndex;
+import org.nd4j.linalg.indexing.NDArrayIndex;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * PipelineParallelTrainer trains a single {@link ComputationGraph} using pipeline (model) parallelism, as an alternative
+ * to the data parallelism of {@link org.deeplearning4j.parallelism.ParallelWrapper} for models that are too large to
+ * replicate once per worker.<br>
+ * <br>
+ * The vertices of the graph (in topological order) are partitioned into a number of contiguous stages, each of which is
+ * executed on its own thread. Each minibatch is split into micro-batches, which flow through the stages: activations
+ * are passed forward to later stages, and activation gradients backward to earlier stages. Gradients are accumulated
+ * over all micro-batches, and a single parameter update is applied per minibatch - hence training is equivalent to
+ * standard (non-pipelined) training with the full minibatch, except for layers whose forward pass depends on the
+ * minibatch as a whole (such as batch normalization statistics, which are computed per micro-batch).<br>
+ * <br>
+ * Each stage stores only the activations it receives from other stages for each in-flight micro-batch. When a stage
+ * executes the backward pass for a micro-batch other than the one it most recently executed the forward pass for, it
+ * first recomputes its forward pass for that micro-batch (activation rematerialization). The RNG is reseeded per
+ * stage and micro-batch so that recomputed dropout masks match the original forward pass.<br>
+ * <br>
+ * Limitations: truncated BPTT, mask arrays and network outputs that are not output layers (external errors) are not
+ * supported. Workspaces are not used by the stage threads.
+ */
+@Slf4j
+public class PipelineParallelTrainer implements AutoCloseable {
+
+    @Getter
+    private final ComputationGraph model;
+    @Getter
+    private final int numStages;
+    @Getter
+    private final int numMicroBatches;
+    @Getter
+    private final PipelineSchedule schedule;
+    private final long seed;
+
+    private final GraphVertex[] vertices;
+    private final int[] topologicalOrder;
+    private final int[] stageOf;                //Stage index for each vertex (by vertex index); -1 for input vertices
+    private final int[][] stageVertices;        //Vertex indices for each stage, in topological order
+    private final int[] networkInputNumber;     //For input vertices: index in network inputs. -1 otherwise
+    private final int[] networkOutputNumber;    //For output layer vertices: index in network outputs. -1 otherwise
+    private final boolean[] crossStageOutput;   //True if vertex output is consumed by a vertex in another stage
+    private final int[][] epsilonFromStages;    //For each vertex: later stages that send activation gradients to it
+    private final int[][] epsilonToProducers;   //For each stage: earlier-stage vertices it sends activation gradients to
+    private final PipelineStageStats[] stats;
+    private final ExecutorService[] stageExecutors;
+    private final NegativeGradientStepFunction stepFunction = new NegativeGradientStepFunction();
+
+    protected PipelineParallelTrainer(Builder builder) {
+        this.model = builder.model;
+        this.numMicroBatches = builder.numMicroBatches;
+        this.schedule = builder.schedule;
+        this.seed = builder.seed != null ? builder.seed : model.getConfiguration().getDefaultConfiguration().getSeed();
+
+        if (model.getConfiguration().getBackpropType() == BackpropType.TruncatedBPTT) {
+            throw new DL4JInvalidConfigException("Pipeline parallel training does not support truncated BPTT");
+        }
+        if (model.getFlattenedGradients() == null) {
+            model.initGradientsView();
+        }
+
+        vertices = model.getVertices();
+        topologicalOrder = model.topologicalSortOrder();
+        List<String> inputs = model.getConfiguration().getNetworkInputs();
+        List<String> outputs = model.getConfiguration().getNetworkOutputs();
+
+        networkInputNumber = new int[vertices.length];
+        networkOutputNumber = new int[vertices.length];
+        Arrays.fill(networkOutputNumber, -1);
+        for (GraphVertex gv : vertices) {
+            int idx = gv.getVertexIndex();
+            networkInputNumber[idx] = gv.isInputVertex() ? inputs.indexOf(gv.getVertexName()) : -1;
+            if (gv.isOutputVertex()) {
+                if (!(outputLayerOf(gv) instanceof IOutputLayer)) {
+                    throw new DL4JInvalidConfigException("Pipeline parallel training requires all network outputs to be " +
+                            "output layers (IOutputLayer). Vertex \"" + gv.getVertexName() + "\" is not an output layer");
+                }
+                networkOutputNumber[idx] = outputs.indexOf(gv.getVertexName());
+            }
+        }
+
+        //Partition the non-input vertices in topological order into contiguous stages
+        List<Integer> ordered = new ArrayList<>();
+        for (int v : topologicalOrder) {
+            if (!vertices[v].isInputVertex()) {
+                ordered.add(v);
+            }
+        }
+        int[] stageStarts = builder.splitBefore != null ? stageStartsFromNames(builder.splitBefore, ordered)
+                : balancedStageStarts(ordered, builder.numStages);
+        numStages = stageStarts.length;
+
+        stageOf = new int[vertices.length];
+        Arrays.fill(stageOf, -1);
+        stageVertices = new int[numStages][];
+        stats = new PipelineStageStats[numStages];
+        for (int s = 0; s < numStages; s++) {
+            int from = stageStarts[s];
+            int to = (s == numStages - 1 ? ordered.size() : stageStarts[s + 1]);
+            stageVertices[s] = new int[to - from];
+            List<String> names = new ArrayList<>();
+            for (int i = from; i < to; i++) {
+                int v = ordered.get(i);
+                stageVertices[s][i - from] = v;
+                stageOf[v] = s;
+                names.add(vertices[v].getVertexName());
+            }
+            stats[s] = new PipelineStageStats(s, names);
+        }
+
+        //Determine cross-stage edges
+        crossStageOutput = new boolean[vertices.length];
+        List<Set<Integer>> epsFrom = new ArrayList<>();
+        List<Set<Integer>> epsTo = new ArrayList<>();
+        for (int i = 0; i < vertices.length; i++) {
+            epsFrom.add(new TreeSet<>());
+        }
+        for (int s = 0; s < numStages; s++) {
+            epsTo.add(new TreeSet<>());
+        }
+        for (GraphVertex gv : vertices) {
+            int consumerStage = stageOf[gv.getVertexIndex()];
+            if (gv.isInputVertex() || gv.getInputVertices() == null) {
+                continue;
+            }
+            for (VertexIndices vi : gv.getInputVertices()) {
+                int p = vi.getVertexIndex();
+                if (stageOf[p] != consumerStage) {
+                    crossStageOutput[p] = true;
+                    if (!vertices[p].isInputVertex()) {
+                        epsFrom.get(p).add(consumerStage);
+                        epsTo.get(consumerStage).add(p);
+                    }
+                }
+            }
+        }
+        epsilonFromStages = new int[vertices.length][];
+        for (int i = 0; i < vertices.length; i++) {
+            epsilonFromStages[i] = toIntArray(epsFrom.get(i));
+        }
+        epsilonToProducers = new int[numStages][];
+        for (int s = 0; s < numStages; s++) {
+            epsilonToProducers[s] = toIntArray(epsTo.get(s));
+        }
+
+        stageExecutors = new ExecutorService[numStages];
+        for (int s = 0; s < numStages; s++) {
+            final int stage = s;
+            stageExecutors[s] = Executors.newSingleThreadExecutor(r -> {
+                Thread t = new Thread(r, "PipelineStage-" + stage);
+                t.setDaemon(true);
+                return t;
+            });
+        }
+
+        if (log.isDebugEnabled()) {
+            for (PipelineStageStats st : stats) {
+                log.debug("Pipeline stage {}: {}", st.getStageIndex(), st.getVertexNames());
+            }
+        }
+    }
+
+    /**
+     * @return Execution statistics for each stage, including time spent idle waiting for other stages
+     */
+    public List<PipelineStageStats> getStageStats() {
+        return Collections.unmodifiableList(Arrays.asList(stats));
+    }
+
+    /**
+     * Reset the execution statistics for all stages
+     */
+    public void resetStageStats() {
+        for (PipelineStageStats s : stats) {
+            s.reset();
+        }
+    }
+
+    /**
+     * Fit the network for one epoch using the given iterator
+     *
+     * @param iterator Training data
+     */
+    public void fit(@NonNull DataSetIterator iterator) {
+        fit(new MultiDataSetIteratorAdapter(iterator));
+    }
+
+    /**
+     * Fit the network for one epoch using the given iterator
+     *
+     * @param iterator Training data
+     */
+    public void fit(@NonNull MultiDataSetIterator iterator) {
+        if (!iterator.hasNext() && iterator.resetSupported()) {
+            iterator.reset();
+        }
+
+        for (TrainingListener tl : model.getListeners()) {
+            tl.onEpochStart(model);
+        }
+
+        while (iterator.hasNext()) {
+            fit(iterator.next());
+        }
+
+        for (TrainingListener tl : model.getListeners()) {
+            tl.onEpochEnd(model);
+        }
+        model.incrementEpochCount();
+    }
+
+    /**
+     * Perform one parameter update using the given minibatch, split into micro-batches
+     *
+     * @param mds Minibatch
+     */
+    public synchronized void fit(@NonNull MultiDataSet mds) {
+        if (mds.hasMaskArrays()) {
+            throw new UnsupportedOperationException("Pipeline parallel training does not support mask arrays");
+        }
+        INDArray[] features = mds.getFeatures();
+        INDArray[] labels = mds.getLabels();
+        long minibatch = features[0].size(0);
+        int nMicro = (int) Math.min(numMicroBatches, minibatch);
+
+        int iteration = BaseOptimizer.getIterationCount(model);
+        int epoch = BaseOptimizer.getEpochCount(model);
+
+        final MicroBatch[] micro = new MicroBatch[nMicro];
+        long start = 0;
+        for (int m = 0; m < nMicro; m++) {
+            long size = minibatch / nMicro + (m < minibatch % nMicro ? 1 : 0);
+            micro[m] = new MicroBatch(slice(features, start, size), slice(labels, start, size), size,
+                    seed + ((long) iteration * nMicro + m) * numStages);
+            start += size;
+        }
+
+        final Gradient[] vertexGradients = new Gradient[vertices.length];
+        final INDArray[] accumulated = new INDArray[vertices.length];
+        final double[] stageScores = new double[numStages];
+
+        List<Future<?>> futures = new ArrayList<>(numStages);
+        for (int s = 0; s < numStages; s++) {
+            final int stage = s;
+            futures.add(stageExecutors[s].submit(() -> {
+                try {
+                    stageScores[stage] = runStage(stage, micro, vertexGradients, accumulated);
+                } catch (Throwable t) {
+                    abort(micro, t);
+                    throw t;
+                }
+                return null;
+            }));
+        }
+
+        Throwable failure = null;
+        for (Future<?> f : futures) {
+            try {
+                f.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Interrupted during pipeline parallel training", e);
+            } catch (ExecutionException e) {
+                if (failure == null || failure instanceof PipelineAbortedException) {
+                    failure = e.getCause();
+                }
+            }
+        }
+        if (failure != null) {
+            for (GraphVertex gv : vertices) {
+                gv.clear();
+            }
+            throw new RuntimeException("Error during pipeline parallel training", failure);
+        }
+
+        //Collect the accumulated gradients into the network's gradient view, in parameter order
+        Gradient gradient = new DefaultGradient(model.getFlattenedGradients());
+        for (int v : topologicalOrder) {
+            GraphVertex gv = vertices[v];
+            if (!gv.hasLayer() || gv.getLayer().numParams() == 0) {
+                continue;
+            }
+            INDArray view = gv.getLayer().getGradientsViewArray();
+            if (accumulated[v] == null) {
+                //No backprop for this layer (frozen, or not connected to any output)
+                view.assign(0);
+                continue;
+            }
+            view.assign(accumulated[v]);
+            Gradient g = vertexGradients[v];
+            for (Map.Entry<String, INDArray> e : g.gradientForVariable().entrySet()) {
+                gradient.setGradientFor(gv.getVertexName() + "_" + e.getKey(), e.getValue(), g.flatteningOrderForVariable(e.getKey()));
+            }
+        }
+
+        double score = 0.0;
+        for (double d : stageScores) {
+            score += d;
+        }
+        score = score / minibatch + model.calcRegularizationScore(true);
+        model.setScore(score);
+        model.setGradient(gradient);
+
+        //Apply the update - as per StochasticGradientDescent
+        model.getUpdater().update(gradient, iteration, epoch, (int) minibatch, LayerWorkspaceMgr.noWorkspaces());
+        INDArray params = model.params();
+        stepFunction.step(params, model.getFlattenedGradients());
+
+        try (MemoryWorkspace ws = Nd4j.getMemoryManager().scopeOutOfWorkspaces()) {
+            for (TrainingListener tl : model.getListeners()) {
+                tl.iterationDone(model, iteration, epoch);
+            }
+        }
+        BaseOptimizer.incrementIterationCount(model, 1);
+        BaseOptimizer.applyConstraints(model);
+
+        for (GraphVertex gv : vertices) {
+            gv.clear();
+        }
+    }
+
+    /**
+     * Execute the forward and backward passes for all micro-batches on the specified stage, according to the schedule
+     *
+     * @return Sum of the (unregularized) output layer scores, multiplied by micro-batch size, for this stage
+     */
+    private double runStage(int s, MicroBatch[] micro, Gradient[] vertexGradients, INDArray[] accumulated) {
+        long start = System.nanoTime();
+        long idleBefore = stats[s].getIdleNanos();
+        PipelineStageStats st = stats[s];
+        LayerWorkspaceMgr mgr = LayerWorkspaceMgr.noWorkspaces(model.getHelperWorkspaces());
+        List<Map<Integer, INDArray>> stageInputs = new ArrayList<>();
+        for (int m = 0; m < micro.length; m++) {
+            stageInputs.add(new HashMap<>());
+        }
+
+        int lastForward = -1;
+        double score = 0.0;
+        try {
+            for (int op : scheduleFor(s, micro.length)) {
+                boolean isForward = op >= 0;
+                int m = isForward ? op : -op - 1;
+                if (isForward) {
+                    forward(s, micro[m], stageInputs.get(m), false, mgr);
+                    st.incrementForward();
+                } else {
+                    if (lastForward != m) {
+                        forward(s, micro[m], stageInputs.get(m), true, mgr);
+                        st.incrementRecompute();
+                    }
+                    score += backward(s, micro[m], mgr, vertexGradients, accumulated);
+                    stageInputs.set(m, null);
+                    st.incrementBackward();
+                }
+                lastForward = m;
+            }
+        } finally {
+            long idle = st.getIdleNanos() - idleBefore;
+            st.addBusy(System.nanoTime() - start - idle);
+        }
+        return score;
+    }
+
+    /**
+     * Schedule for the specified stage, as a sequence of operations: m (m >= 0) for the forward pass of micro-batch m,
+     * and -(m+1) for the backward pass of micro-batch m
+     */
+    protected int[] scheduleFor(int stage, int nMicro) {
+        int[] out = new int[2 * nMicro];
+        int pos = 0;
+        if (schedule == PipelineSchedule.GPIPE) {
+            for (int m = 0; m < nMicro; m++) {
+                out[pos++] = m;
+            }
+            for (int m = nMicro - 1; m >= 0; m--) {
+                out[pos++] = -m - 1;
+            }
+        } else {
+            int warmup = Math.min(numStages - stage - 1, nMicro);
+            int nextFwd = 0;
+            int nextBwd = 0;
+            for (; nextFwd < warmup; nextFwd++) {
+                out[pos++] = nextFwd;
+            }
+            while (nextFwd < nMicro) {
+                out[pos++] = nextFwd++;
+                out[pos++] = -(nextBwd++) - 1;
+            }
+            while (nextBwd < nMicro) {
+                out[pos++] = -(nextBwd++) - 1;
+            }
+        }
+        return out;
+    }
+
+    private void forward(int s, MicroBatch mb, Map<Integer, INDArray> stageInputs, boolean recompute, LayerWorkspaceMgr mgr) {
+        //Reseed so that dropout etc is identical if this forward pass is recomputed before the backward pass
+        Nd4j.getRandom().setSeed(mb.seed + s);
+
+        Map<Integer, INDArray> local = new HashMap<>();
+        for (int v : stageVertices[s]) {
+            GraphVertex gv = vertices[v];
+            VertexIndices[] in = gv.getInputVertices();
+            for (int j = 0; j < in.length; j++) {
+                int p = in[j].getVertexIndex();
+                INDArray arr;
+                if (stageOf[p] == s) {
+                    arr = local.get(p);
+                } else {
+                    arr = stageInputs.get(p);
+                    if (arr == null) {
+                        arr = vertices[p].isInputVertex() ? mb.features[networkInputNumber[p]] : await(mb.activations.get(p), s);
+                        stageInputs.put(p, arr);
+                    }
+                }
+                gv.setInput(j, arr, mgr);
+            }
+
+            if (networkOutputNumber[v] >= 0) {
+                //Output layer: activations not required, only the input (for score and backprop)
+                ((LayerVertex) gv).applyPreprocessorAndSetInput(mgr);
+                continue;
+            }
+
+            INDArray out = gv.doForward(true, mgr);
+            local.put(v, out);
+            if (!recompute && crossStageOutput[v]) {
+                mb.activations.get(v).complete(out);
+            }
+        }
+    }
+
+    private double backward(int s, MicroBatch mb, LayerWorkspaceMgr mgr, Gradient[] vertexGradients, INDArray[] accumulated) {
+        double score = 0.0;
+        Map<Integer, INDArray> localEps = new HashMap<>();
+        Map<Integer, INDArray> toSend = new HashMap<>();
+        int[] verts = stageVertices[s];
+        for (int i = verts.length - 1; i >= 0; i--) {
+            int v = verts[i];
+            GraphVertex gv = vertices[v];
+            boolean frozen = isFrozen(gv);
+
+            if (networkOutputNumber[v] >= 0) {
+                IOutputLayer ol = (IOutputLayer) outputLayerOf(gv);
+                ol.setLabels(mb.labels[networkOutputNumber[v]]);
+                score += ol.computeScore(0.0, true, mgr) * mb.size;
+            } else {
+                INDArray eps = localEps.get(v);
+                for (int b : epsilonFromStages[v]) {
+                    eps = sum(eps, await(mb.epsilons.get(epsilonKey(v, b)), s));
+                }
+                if (eps == null) {
+                    //Not connected to any output (or only via frozen layers) - nothing to backprop
+                    continue;
+                }
+                gv.setEpsilon(eps);
+            }
+
+            if (frozen) {
+                continue;
+            }
+
+            Pair<Gradient, INDArray[]> p = gv.doBackward(false, mgr);
+            if (p.getFirst() != null && gv.hasLayer() && gv.getLayer().numParams() > 0) {
+                vertexGradients[v] = p.getFirst();
+                INDArray view = gv.getLayer().getGradientsViewArray();
+                accumulated[v] = accumulated[v] == null ? view.dup() : accumulated[v].addi(view);
+            }
+
+            INDArray[] epsilons = p.getSecond();
+            VertexIndices[] in = gv.getInputVertices();
+            for (int j = 0; epsilons != null && j < in.length && j < epsilons.length; j++) {
+                int producer = in[j].getVertexIndex();
+                if (epsilons[j] == null || vertices[producer].isInputVertex()) {
+                    continue;
+                }
+                if (stageOf[producer] == s) {
+                    localEps.put(producer, sum(localEps.get(producer), epsilons[j]));
+                } else {
+                    toSend.put(producer, sum(toSend.get(producer), epsilons[j]));
+                }
+            }
+        }
+
+        //Always complete all expected activation gradients (possibly with null) so earlier stages don't block
+        for (int producer : epsilonToProducers[s]) {
+            mb.epsilons.get(epsilonKey(producer, s)).complete(toSend.get(producer));
+        }
+        return score;
+    }
+
+    private INDArray await(CompletableFuture<INDArray> f, int stage) {
+        long start = System.nanoTime();
+        try {
+            return f.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for pipeline stage", e);
+        } catch (ExecutionException e) {
+            throw new PipelineAbortedException(e.getCause());
+        } finally {
+            stats[stage].addIdle(System.nanoTime() - start);
+        }
+    }
+
+    private void abort(MicroBatch[] micro, Throwable t) {
+        for (MicroBatch mb : micro) {
+            for (CompletableFuture<INDArray> f : mb.activations.values()) {
+                f.completeExceptionally(t);
+            }
+            for (CompletableFuture<INDArray> f : mb.epsilons.values()) {
+                f.completeExceptionally(t);
+            }
+        }
+    }
+
+    private long epsilonKey(int producer, int consumerStage) {
+        return (long) producer * numStages + consumerStage;
+    }
+
+    private static INDArray sum(INDArray a, INDArray b) {
+        if (a == null) {
+            return b;
+        }
+        if (b == null) {
+            return a;
+        }
+        //Not in-place: the arrays may be referenced by other vertices
+        return a.add(b);
+    }
+
+    private static INDArray[] slice(INDArray[] arrays, long start, long size) {
+        INDArray[] out = new INDArray[arrays.length];
+        for (int i = 0; i < arrays.length; i++) {
+            INDArray arr = arrays[i];
+            INDArrayIndex[] idx = new INDArrayIndex[arr.rank()];
+            idx[0] = NDArrayIndex.interval(start, start + size);
+            for (int d = 1; d < idx.length; d++) {
+                idx[d] = NDArrayIndex.all();
+            }
+            out[i] = arr.get(idx).dup();
+        }
+        return out;
+    }
+
+    private static Layer outputLayerOf(GraphVertex gv) {
+        if (!gv.hasLayer()) {
+            return null;
+        }
+        Layer l = gv.getLayer();
+        if (l instanceof FrozenLayerWithBackprop) {
+            l = ((FrozenLayerWithBackprop) l).getInsideLayer();
+        }
+        return l;
+    }
+
+    private static boolean isFrozen(GraphVertex gv) {
+        return gv instanceof FrozenVertex || (gv.hasLayer() && gv.getLayer() instanceof FrozenLayer);
+    }
+
+    private static int[] toIntArray(Collection<Integer> c) {
+        int[] out = new int[c.size()];
+        int i = 0;
+        for (Integer x : c) {
+            out[i++] = x;
+        }
+        return out;
+    }
+
+    private int[] stageStartsFromNames(String[] splitBefore, List<Integer> ordered) {
+        int[] out = new int[splitBefore.length + 1];
+        for (int i = 0; i < splitBefore.length; i++) {
+            int pos = -1;
+            for (int j = 0; j < ordered.size(); j++) {
+                if (vertices[ordered.get(j)].getVertexName().equals(splitBefore[i])) {
+                    pos = j;
+                    break;
+                }
+            }
+            if (pos <= 0) {
+                throw new DL4JInvalidConfigException("Invalid pipeline stage split before vertex \"" + splitBefore[i]
+                        + "\": vertex does not exist, is an input vertex, or is the first vertex in topological order");
+            }
+            if (pos <= out[i]) {
+                throw new DL4JInvalidConfigException("Pipeline stage splits must be specified in topological order, " +
+                        "with at least one vertex per stage. Got: " + Arrays.toString(splitBefore));
+            }
+            out[i + 1] = pos;
+        }
+        return out;
+    }
+
+    private int[] balancedStageStarts(List<Integer> ordered, int nStages) {
+        Preconditions.checkState(ordered.size() >= nStages, "Cannot split network with %s non-input vertices into %s pipeline stages",
+                ordered.size(), nStages);
+        //Balance by parameter count; each vertex also has a cost of 1 so that parameterless vertices are spread out
+        long[] cost = new long[ordered.size()];
+        long total = 0;
+        for (int i = 0; i < cost.length; i++) {
+            GraphVertex gv = vertices[ordered.get(i)];
+            cost[i] = 1 + (gv.hasLayer() ? gv.getLayer().numParams() : 0);
+            total += cost[i];
+        }
+
+        int[] starts = new int[nStages];
+        long cumulative = 0;
+        int s = 1;
+        for (int i = 0; i < cost.length && s < nStages; i++) {
+            cumulative += cost[i];
+            int remainingVertices = cost.length - (i + 1);
+            int remainingStages = nStages - s;
+            if (cumulative >= total * s / nStages || remainingVertices == remainingStages) {
+                starts[s++] = i + 1;
+            }
+        }
+        return starts;
+    }
+
+    @Override
+    public void close() {
+        for (ExecutorService es : stageExecutors) {
+            es.shutdownNow();
+        }
+    }
+
+    /**
+     * State for one micro-batch: the data, and the futures used to pass activations and activation gradients between
+     * stages. All futures are created up front, so the maps are only read concurrently.
+     */
+    private class MicroBatch {
+        private final INDArray[] features;
+        private final INDArray[] labels;
+        private final long size;
+        private final long seed;
+        private final Map<Integer, CompletableFuture<INDArray>> activations = new HashMap<>();
+        private final Map<Long, CompletableFuture<INDArray>> epsilons = new HashMap<>();
+
+        private MicroBatch(INDArray[] features, INDArray[] labels, long size, long seed) {
+            this.features = features;
+            this.labels = labels;
+            this.size = size;
+            this.seed = seed;
+            for (int v = 0; v < vertices.length; v++) {
+                if (crossStageOutput[v] && !vertices[v].isInputVertex()) {
+                    activations.put(v, new CompletableFuture<>());
+                }
+            }
+            for (int s = 0; s < numStages; s++) {
+                for (int p : epsilonToProducers[s]) {
+                    epsilons.put(epsilonKey(p, s), new CompletableFuture<>());
+                }
+            }
+        }
+    }
+
+    /**
+     * Thrown by a stage when another stage failed; the original exception is reported instead
+     */
+    private static class PipelineAbortedException extends RuntimeException {
+        private PipelineAbortedException(Throwable cause) {
+            super("Pipeline aborted due to failure in another stage", cause);
+        }
+    }
+
+    public static class Builder {
+        private final ComputationGraph model;
+        private int numStages = 2;
+        private int numMicroBatches = 4;
+        private PipelineSchedule schedule = PipelineSchedule.ONE_F_ONE_B;
+        private String[] splitBefore;
+        private Long seed;
+
+        /**
+         * @param model Initialized ComputationGraph to train
+         */
+        public Builder(@NonNull ComputationGraph model) {
+            this.model = model;
+        }
+
+        /**
+         * Number of pipeline stages (threads). The graph is split automatically into stages with approximately equal
+         * numbers of parameters. Default: 2. Ignored if {@link #splitBefore(String...)} is used
+         *
+         * @param numStages Number of stages, >= 1
+         */
+        public Builder numStages(int numStages) {
+            Preconditions.checkArgument(numStages >= 1, "Number of stages must be >= 1, got %s", numStages);
+            this.numStages = numStages;
+            return this;
+        }
+
+        /**
+         * Manually specify the stage boundaries: a new stage starts at each of the specified vertices (in topological
+         * order). For example, splitBefore("layer3", "layer6") results in 3 stages
+         *
+         * @param vertexNames Names of the first vertex of each stage after the first
+         */
+        public Builder splitBefore(@NonNull String... vertexNames) {
+            this.splitBefore = vertexNames;
+            return this;
+        }
+
+        /**
+         * Number of micro-batches each minibatch is split into. More micro-batches reduce the pipeline bubble (idle
+         * time) at the cost of smaller per-op work. Default: 4
+         *
+         * @param numMicroBatches Number of micro-batches, >= 1
+         */
+        public Builder numMicroBatches(int numMicroBatches) {
+            Preconditions.checkArgument(numMicroBatches >= 1, "Number of micro-batches must be >= 1, got %s", numMicroBatches);
+            this.numMicroBatches = numMicroBatches;
+            return this;
+        }
+
+        /**
+         * Pipeline schedule. Default: {@link PipelineSchedule#ONE_F_ONE_B}
+         */
+        public Builder schedule(@NonNull PipelineSchedule schedule) {
+            this.schedule = schedule;
+            return this;
+        }
+
+        /**
+         * Base seed used to reseed the RNG for each stage and micro-batch. Defaults to the network configuration seed
+         */
+        public Builder seed(long seed) {
+            this.seed = seed;
+            return this;
+        }
+
+        public PipelineParallelTrainer build() {
+            return new PipelineParallelTrainer(this);
+        }
+    }
+}
@@ -0,0 +1,39 @@
+/*
+ *  ******************************************************************************
+ *  *
+ *  *
+ *  * This program and the accompanying materials are made available under the
+ *  * terms of the Apache License, Version 2.0 which is available at
+ *  * https://www.apache.org/licenses/LICENSE-2.0.
+ *  *
+ *  *  See the NOTICE file distributed with this work for additional
+ *  *  information regarding copyright ownership.
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ *  * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ *  * License for the specific language governing permissions and limitations
+ *  * under the License.
+ *  *
+ *  * SPDX-License-Identifier: Apache-2.0
+ *  *****************************************************************************
+ */
+
+package org.deeplearning4j.parallelism.pipeline;
+
+/**
+ * Order in which each pipeline stage executes the forward and backward passes of the micro-batches of a minibatch.
+ */
+public enum PipelineSchedule {
+    /**
+     * GPipe schedule: each stage executes the forward pass for all micro-batches, then the backward pass for all
+     * micro-batches (in reverse order). Simple, but all micro-batches are in flight at once.
+     */
+    GPIPE,
+
+    /**
+     * 1F1B (one forward, one backward) schedule: after a short warm-up, each stage alternates between the forward pass of
+     * one micro-batch and the backward pass of another. Same pipeline bubble as {@link #GPIPE}, but at most
+     * (number of stages) micro-batches are in flight on any stage at once.
+     */
+    ONE_F_ONE_B
+}
@@ -0,0 +1,133 @@
+/*
+ *  ******************************************************************************
+ *  *
+ *  *
+ *  * This program and the accompanying materials are made available under the
+ *  * terms of the Apache License, Version 2.0 which is available at
+ *  * https://www.apache.org/licenses/LICENSE-2.0.
+ *  *
+ *  *  See the NOTICE file distributed with this work for additional
+ *  *  information regarding copyright ownership.
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ *  * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ *  * License for the specific language governing permissions and limitations
+ *  * under the License.
+ *  *
+ *  * SPDX-License-Identifier: Apache-2.0
+ *  *****************************************************************************
+ */
+
+package org.deeplearning4j.parallelism.pipeline;
+
+import lombok.Getter;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Execution statistics for one stage of a {@link PipelineParallelTrainer}. Idle time is the time the stage spent
+ * waiting on activations from earlier stages or activation gradients from later stages - i.e., the pipeline bubble.
+ */
+public class PipelineStageStats {
+
+    @Getter
+    private final int stageIndex;
+    @Getter
+    private final List<String> vertexNames;
+
+    private final AtomicLong busyNanos = new AtomicLong();
+    private final AtomicLong idleNanos = new AtomicLong();
+    private final AtomicLong forwardCount = new AtomicLong();
+    private final AtomicLong recomputeCount = new AtomicLong();
+    private final AtomicLong backwardCount = new AtomicLong();
+
+    public PipelineStageStats(int stageIndex, List<String> vertexNames) {
+        this.stageIndex = stageIndex;
+        this.vertexNames = Collections.unmodifiableList(vertexNames);
+    }
+
+    void addBusy(long nanos) {
+        busyNanos.addAndGet(nanos);
+    }
+
+    void addIdle(long nanos) {
+        idleNanos.addAndGet(nanos);
+    }
+
+    void incrementForward() {
+        forwardCount.incrementAndGet();
+    }
+
+    void incrementRecompute() {
+        recomputeCount.incrementAndGet();
+    }
+
+    void incrementBackward() {
+        backwardCount.incrementAndGet();
+    }
+
+    /**
+     * @return Total time, in nanoseconds, this stage spent executing forward/backward passes
+     */
+    public long getBusyNanos() {
+        return busyNanos.get();
+    }
+
+    /**
+     * @return Total time, in nanoseconds, this stage spent waiting on other stages
+     */
+    public long getIdleNanos() {
+        return idleNanos.get();
+    }
+
+    /**
+     * @return Number of micro-batch forward passes executed by this stage (excluding recomputation)
+     */
+    public long getForwardCount() {
+        return forwardCount.get();
+    }
+
+    /**
+     * @return Number of micro-batch forward passes that had to be recomputed before the backward pass, because another
+     * micro-batch was executed on this stage in between
+     */
+    public long getRecomputeCount() {
+        return recomputeCount.get();
+    }
+
+    /**
+     * @return Number of micro-batch backward passes executed by this stage
+     */
+    public long getBackwardCount() {
+        return backwardCount.get();
+    }
+
+    /**
+     * @return Fraction of the total stage time that was spent idle, between 0 and 1
+     */
+    public double getIdleFraction() {
+        long idle = idleNanos.get();
+        long total = idle + busyNanos.get();
+        return total == 0 ? 0.0 : idle / (double) total;
+    }
+
+    /**
+     * Reset all counters to zero
+     */
+    public void reset() {
+        busyNanos.set(0);
+        idleNanos.set(0);
+        forwardCount.set(0);
+        recomputeCount.set(0);
+        backwardCount.set(0);
+    }
+
+    @Override
+    public String toString() {
+        return "PipelineStageStats(stage=" + stageIndex + ", vertices=" + vertexNames.size() + ", busyMs=" + busyNanos.get() / 1000000
+                + ", idleMs=" + idleNanos.get() / 1000000 + ", idleFraction=" + String.format("%.3f", getIdleFraction())
+                + ", forward=" + forwardCount.get() + ", recompute=" + recomputeCount.get() + ", backward=" + backwardCount.get() + ")";
+    }
+}
@@ -13,5 +13,6 @@ open module deeplearning4j.parallel.wrapper {
     exports org.deeplearning4j.parallelism.inference;
     exports org.deeplearning4j.parallelism.inference.observers;
     exports org.deeplearning4j.parallelism.main;
+    exports org.deeplearning4j.parallelism.pipeline;
     exports org.deeplearning4j.parallelism.trainer;
 }
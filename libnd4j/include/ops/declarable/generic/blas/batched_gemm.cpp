@@ -127,13 +127,13 @@ CUSTOM_OP_IMPL(batched_gemm, -1, -1, false, 0, 9) {
     }
 
     if(transB == 111) {
-      REQUIRE_TRUE(N == vB[e]->sizeAt(1), 0, "BatchedGemm: batch %i, number of B.rows() should be equal to N transB: false", e);
-      REQUIRE_TRUE(K == vA[e]->sizeAt(1) , 0,
+      REQUIRE_TRUE(N == vB[e]->sizeAt(1), 0, "BatchedGemm: batch %i, number of B.columns() should be equal to N transB: false", e);
+      REQUIRE_TRUE(K == vB[e]->sizeAt(0) , 0,
                    "BatchedGemm: batch %i, number of B.rows() should be equal to K transB: false", e);
     } else {
-      REQUIRE_TRUE(N == vB[e]->sizeAt(0), 0, "BatchedGemm: batch %i, number of B.columns() should be equal to N transB: true", e);
-      REQUIRE_TRUE(K == vA[e]->sizeAt(1) , 0,
-                   "BatchedGemm: batch %i, number of B.rows() should be equal to K transB: true", e);
+      REQUIRE_TRUE(N == vB[e]->sizeAt(0), 0, "BatchedGemm: batch %i, number of B.rows() should be equal to N transB: true", e);
+      REQUIRE_TRUE(K == vB[e]->sizeAt(1) , 0,
+                   "BatchedGemm: batch %i, number of B.columns() should be equal to K transB: true", e);
     }
   }
 
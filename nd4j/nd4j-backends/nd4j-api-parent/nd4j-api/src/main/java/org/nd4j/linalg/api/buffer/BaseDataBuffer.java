@@ -33,6 +33,7 @@ import org.nd4j.common.primitives.Triple;
 import org.nd4j.common.util.ArrayUtil;
 import org.nd4j.linalg.api.memory.Deallocator;
 import org.nd4j.linalg.api.memory.MemoryWorkspace;
+import org.nd4j.linalg.api.ops.executioner.OpFence;
 import org.nd4j.linalg.profiler.data.eventlogger.EventLogger;
 import org.nd4j.nativeblas.NativeOpsHolder;
 import org.nd4j.nativeblas.OpaqueDataBuffer;
@@ -95,6 +96,11 @@ public abstract class BaseDataBuffer implements DataBuffer {
 
     protected transient AtomicBoolean referenced = new AtomicBoolean(false);
 
+    // fences of pending asynchronous ops that access this buffer, see OpFence:
+    // the last queued writer, and all queued readers and writers
+    protected transient volatile OpFence pendingWrite;
+    protected transient volatile OpFence pendingAccess;
+
     public BaseDataBuffer() {}
 
     @Override
@@ -107,6 +113,57 @@ public abstract class BaseDataBuffer implements DataBuffer {
      */
     protected abstract void initTypeAndSize();
 
+    /**
+     * Set the fences of the asynchronous ops that currently access this buffer. Java-side reads of this buffer
+     * (and of views of it) only wait for the pending writer, Java-side writes wait for all pending ops.
+     * Used by op executioners that execute ops asynchronously
+     *
+     * @param write  Fence of the last queued op writing this buffer, or null if there is none
+     * @param access Fence of all queued ops reading or writing this buffer, or null to clear
+     */
+    public void setPendingOps(OpFence write, OpFence access) {
+        this.pendingWrite = write;
+        this.pendingAccess = access;
+    }
+
+    public OpFence getPendingWrite() {
+        return pendingWrite;
+    }
+
+    public OpFence getPendingAccess() {
+        return pendingAccess;
+    }
+
+    /**
+     * Wait for the pending asynchronous op writing this buffer (or the buffer this is a view of), if any
+     */
+    protected void awaitPendingWrite() {
+        if (!OpFence.isEnabled())
+            return;
+
+        OpFence fence = pendingWrite;
+        if (fence == null && originalBuffer instanceof BaseDataBuffer)
+            fence = ((BaseDataBuffer) originalBuffer).pendingWrite;
+
+        if (fence != null)
+            fence.await();
+    }
+
+    /**
+     * Wait for all pending asynchronous ops accessing this buffer (or the buffer this is a view of), if any
+     */
+    protected void awaitPendingAccess() {
+        if (!OpFence.isEnabled())
+            return;
+
+        OpFence fence = pendingAccess;
+        if (fence == null && originalBuffer instanceof BaseDataBuffer)
+            fence = ((BaseDataBuffer) originalBuffer).pendingAccess;
+
+        if (fence != null)
+            fence.await();
+    }
+
     @Override
     public OpaqueDataBuffer opaqueBuffer() {
         return ptrDataBuffer;
@@ -247,6 +304,7 @@ public abstract class BaseDataBuffer implements DataBuffer {
     public Pointer pointer() {
         if (released)
             throw new IllegalStateException("You can't use DataBuffer once it was released");
+        awaitPendingWrite();
 
         if (underlyingDataBuffer() != null && underlyingDataBuffer() != this) {
             if (underlyingDataBuffer().wasClosed())
@@ -551,6 +609,7 @@ public abstract class BaseDataBuffer implements DataBuffer {
 
     @Override
     public byte[] asBytes() {
+        awaitPendingWrite();
         //NOTE: DataOutputStream is big endian
         ByteArrayOutputStream bos = new ByteArrayOutputStream();
         DataOutputStream dos = new DataOutputStream(bos);
@@ -715,6 +774,7 @@ public abstract class BaseDataBuffer implements DataBuffer {
 
     @Override
     public float[] asFloat() {
+        awaitPendingWrite();
         if (length >= Integer.MAX_VALUE)
             throw new IllegalArgumentException("Unable to create array of length " + length);
         float[] ret = new float[(int) length];
@@ -725,6 +785,7 @@ public abstract class BaseDataBuffer implements DataBuffer {
 
     @Override
     public double[] asDouble() {
+        awaitPendingWrite();
         if (length >= Integer.MAX_VALUE)
             throw new IllegalArgumentException("Unable to create array of length " + length);
         double[] ret = new double[(int) length];
@@ -735,6 +796,7 @@ public abstract class BaseDataBuffer implements DataBuffer {
 
     @Override
     public int[] asInt() {
+        awaitPendingWrite();
         if (length >= Integer.MAX_VALUE)
             throw new IllegalArgumentException("Unable to create array of length " + length);
         int[] ret = new int[(int) length];
@@ -745,6 +807,7 @@ public abstract class BaseDataBuffer implements DataBuffer {
 
     @Override
     public long[] asLong() {
+        awaitPendingWrite();
         if (length >= Integer.MAX_VALUE)
             throw new IllegalArgumentException("Unable to create array of length " + length);
         long[] ret = new long[(int) length];
@@ -757,6 +820,7 @@ public abstract class BaseDataBuffer implements DataBuffer {
     public double getDouble(long i) {
         if (released)
             throw new IllegalStateException("You can't use DataBuffer once it was released");
+        awaitPendingWrite();
 
         if (indexer == null) {
             throw new IllegalStateException("Indexer must never be null");
@@ -796,6 +860,7 @@ public abstract class BaseDataBuffer implements DataBuffer {
     public long getLong(long i) {
         if (released)
             throw new IllegalStateException("You can't use DataBuffer once it was released");
+        awaitPendingWrite();
 
         switch (dataType()) {
             case FLOAT:
@@ -885,6 +950,7 @@ public abstract class BaseDataBuffer implements DataBuffer {
     public float getFloat(long i) {
         if (released)
             throw new IllegalStateException("You can't use DataBuffer once it was released");
+        awaitPendingWrite();
 
         switch (dataType()) {
             case DOUBLE:
@@ -922,6 +988,7 @@ public abstract class BaseDataBuffer implements DataBuffer {
     public int getInt(long i) {
         if (released)
             throw new IllegalStateException("You can't use DataBuffer once it was released");
+        awaitPendingWrite();
 
         switch (dataType()) {
             case DOUBLE:
@@ -992,6 +1059,7 @@ public abstract class BaseDataBuffer implements DataBuffer {
     public void put(long i, float element) {
         if (released)
             throw new IllegalStateException("You can't use DataBuffer once it was released");
+        awaitPendingAccess();
 
         switch (dataType()) {
             case BOOL:
@@ -1042,6 +1110,7 @@ public abstract class BaseDataBuffer implements DataBuffer {
     public void put(long i, double element) {
         if (released)
             throw new IllegalStateException("You can't use DataBuffer once it was released");
+        awaitPendingAccess();
 
         switch (dataType()) {
             case BOOL:
@@ -1092,6 +1161,7 @@ public abstract class BaseDataBuffer implements DataBuffer {
     public void put(long i, int element) {
         if (released)
             throw new IllegalStateException("You can't use DataBuffer once it was released");
+        awaitPendingAccess();
 
         switch (dataType()) {
             case BOOL:
@@ -1140,6 +1210,7 @@ public abstract class BaseDataBuffer implements DataBuffer {
     public void put(long i, boolean element) {
         if (released)
             throw new IllegalStateException("You can't use DataBuffer once it was released");
+        awaitPendingAccess();
 
         switch (dataType()) {
             case BOOL:
@@ -1188,6 +1259,7 @@ public abstract class BaseDataBuffer implements DataBuffer {
     public void put(long i,long element) {
         if (released)
             throw new IllegalStateException("You can't use DataBuffer once it was released");
+        awaitPendingAccess();
 
         switch (dataType()) {
             case BOOL:
@@ -1238,6 +1310,7 @@ public abstract class BaseDataBuffer implements DataBuffer {
     public void put(float[] element) {
         if (released)
             throw new IllegalStateException("You can't use DataBuffer once it was released");
+        awaitPendingAccess();
 
         switch (dataType()) {
             case BOOL:
@@ -1289,6 +1362,7 @@ public abstract class BaseDataBuffer implements DataBuffer {
     public void put(double[] element) {
         if (released)
             throw new IllegalStateException("You can't use DataBuffer once it was released");
+        awaitPendingAccess();
 
         switch (dataType()) {
             case BOOL:
@@ -1339,6 +1413,7 @@ public abstract class BaseDataBuffer implements DataBuffer {
     public void put(int[] element) {
         if (released)
             throw new IllegalStateException("You can't use DataBuffer once it was released");
+        awaitPendingAccess();
 
         switch (dataType()) {
             case BOOL:
@@ -1387,6 +1462,7 @@ public abstract class BaseDataBuffer implements DataBuffer {
     public void put(boolean[] element) {
         if (released)
             throw new IllegalStateException("You can't use DataBuffer once it was released");
+        awaitPendingAccess();
 
         switch (dataType()) {
             case BOOL:
@@ -1436,6 +1512,7 @@ public abstract class BaseDataBuffer implements DataBuffer {
     public void put(short[] element) {
         if (released)
             throw new IllegalStateException("You can't use DataBuffer once it was released");
+        awaitPendingAccess();
 
         switch (dataType()) {
             case BOOL:
@@ -1485,6 +1562,7 @@ public abstract class BaseDataBuffer implements DataBuffer {
     public void put(byte[] element) {
         if (released)
             throw new IllegalStateException("You can't use DataBuffer once it was released");
+        awaitPendingAccess();
 
         switch (dataType()) {
             case BOOL:
@@ -1533,6 +1611,7 @@ public abstract class BaseDataBuffer implements DataBuffer {
     public void put(long[] element) {
         if (released)
             throw new IllegalStateException("You can't use DataBuffer once it was released");
+        awaitPendingAccess();
 
         switch (dataType()) {
             case BOOL:
@@ -1592,6 +1671,7 @@ public abstract class BaseDataBuffer implements DataBuffer {
     }
 
     protected ByteBuffer wrappedBuffer() {
+        awaitPendingAccess();
         return pointer().asByteBuffer();
     }
 
@@ -1982,6 +2062,7 @@ public abstract class BaseDataBuffer implements DataBuffer {
 
     @Override
     public void write(DataOutputStream out) throws IOException {
+        awaitPendingWrite();
         out.writeUTF(allocationMode.name());
         out.writeLong(length());
         out.writeUTF(dataType().name());
@@ -96,6 +96,16 @@ public abstract class BasicMemoryManager implements MemoryManager {
         //No op for CPU (no cache)
     }
 
+    @Override
+    public NativeBufferPool getBufferPool() {
+        return null;
+    }
+
+    @Override
+    public void setBufferPool(NativeBufferPool pool) {
+        throw new UnsupportedOperationException("This method isn't available for this backend");
+    }
+
     @Override
     public void memcpy(DataBuffer dstBuffer, DataBuffer srcBuffer) {
         val perfD = PerformanceTracker.getInstance().helperStartTransaction();
@@ -151,6 +151,23 @@ public interface MemoryManager {
      */
     void purgeCaches();
 
+    /**
+     * This method returns the pool that off-heap DataBuffer memory is allocated from (outside of workspaces)
+     *
+     * PLEASE NOTE: pooling support depends on specific implementations
+     *
+     * @return the pool, or null if DataBuffer memory isn't pooled
+     */
+    NativeBufferPool getBufferPool();
+
+    /**
+     * This method sets the pool that off-heap DataBuffer memory will be allocated from. Buffers that are already
+     * allocated aren't affected. Set to null to disable pooling.
+     *
+     * @param pool the pool to use, or null
+     */
+    void setBufferPool(NativeBufferPool pool);
+
     /**
      * This method does memcpy  from source buffer to destination buffer
      *
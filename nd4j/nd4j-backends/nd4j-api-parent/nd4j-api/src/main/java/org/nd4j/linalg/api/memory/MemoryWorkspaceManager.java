@@ -217,4 +217,28 @@ public interface MemoryWorkspaceManager {
      * @return True if any workspaces are open for this thread, false otherwise
      */
     boolean anyWorkspaceActiveForCurrentThread();
+
+    /**
+     * This method returns a snapshot of the memory use of all workspaces for current thread:
+     * current, peak and spilled bytes, cycle counts and reallocations
+     *
+     * @return One entry per workspace. Workspaces that don't track metrics (i.e., dummy workspaces) are skipped
+     */
+    List<WorkspaceMetrics> getWorkspaceMetricsForCurrentThread();
+
+    /**
+     * This method returns a snapshot of the memory use of the workspace with a given Id for current thread
+     *
+     * @param id
+     * @return Workspace metrics, or null if no such workspace exists for current thread
+     */
+    WorkspaceMetrics getWorkspaceMetrics(String id);
+
+    /**
+     * This method returns the leak detector used by workspaces of this manager.
+     * The detector is disabled by default, see {@link WorkspaceLeakDetector}
+     *
+     * @return
+     */
+    WorkspaceLeakDetector getLeakDetector();
 }
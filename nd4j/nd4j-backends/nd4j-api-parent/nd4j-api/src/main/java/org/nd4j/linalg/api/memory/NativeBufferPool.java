@@ -0,0 +1,501 @@
+/*
+ *  ******************************************************************************
+ *  *
+ *  *
+ *  * This program and the accompanying materials are made available under the
+ *  * terms of the Apache License, Version 2.0 which is available at
+ *  * https://www.apache.org/licenses/LICENSE-2.0.
+ *  *
+ *  *  See the NOTICE file distributed with this work for additional
+ *  *  information regarding copyright ownership.
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ *  * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ *  * License for the specific language governing permissions and limitations
+ *  * under the License.
+ *  *
+ *  * SPDX-License-Identifier: Apache-2.0
+ *  *****************************************************************************
+ */
+
+package org.nd4j.linalg.api.memory;
+
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import org.bytedeco.javacpp.Pointer;
+import org.nd4j.common.base.Preconditions;
+import org.nd4j.linalg.api.memory.enums.MemoryKind;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Size-class pool for off-heap (host) memory, used for DataBuffer memory allocated outside of workspaces.<br>
+ * <br>
+ * Requests are rounded up to a size class: classes are spaced at 1/4 of each power of two (64, 80, 96, 112, 128, 160,
+ * ... bytes), so at most 20% of a block is unused for requests above the minimum block size. Each size class has a global free list, and each thread has a
+ * small cache of recently freed blocks for the smaller classes, so that the common pattern of allocating and
+ * releasing same-sized arrays on one thread doesn't contend with other threads.<br>
+ * Memory is returned to the pool as soon as an {@link Allocation} is released - when the array is closed, or when its
+ * DataBuffer is garbage collected - and reused by the next request of the same size class, instead of being freed and
+ * allocated again. Unused memory is retained only up to a limit ({@code maxCachedBytes}); beyond it, released blocks
+ * are freed. Blocks larger than {@code maxBlockBytes} are not pooled, and are freed as soon as they are released.<br>
+ * <br>
+ * <b>Stale references:</b> once an array is closed, its memory may immediately back another array. Views of a closed
+ * array (and any other array sharing its buffer) must not be used after the close: reads silently return the data of
+ * whichever array reuses the memory, and writes silently corrupt it - there is no error. To help find such uses, enable
+ * poisoning ({@link #setPoisonReleased(boolean)}, or the {@code org.nd4j.memory.pool.poison} system property): released
+ * blocks are then filled with 0xFF bytes (NaN for floating point types, -1 for integer types) before being reused, so
+ * that stale reads are easy to spot. Poisoning writes every released block, and should be used for debugging only.<br>
+ * <br>
+ * Raw memory is allocated and freed with {@link MemoryManager#allocate(long, MemoryKind, boolean)} and
+ * {@link MemoryManager#release(Pointer, MemoryKind)}. Use {@link #purge()} (or {@link MemoryManager#purgeCaches()}) to
+ * free all unused memory.
+ */
+@Slf4j
+public class NativeBufferPool {
+    private static final int MIN_BLOCK_SHIFT = 6;
+    public static final long MIN_BLOCK_BYTES = 1L << MIN_BLOCK_SHIFT;
+    //Number of size classes per power of two
+    private static final int CLASSES_PER_DOUBLING = 4;
+    //Per-thread cache: maximum number of blocks per size class, and largest cached block size
+    private static final int THREAD_CACHE_BLOCKS = 8;
+    private static final long THREAD_CACHE_MAX_BLOCK_BYTES = 1L << 20;
+    //How often (number of misses) to move the cached blocks of terminated threads to the global free lists
+    private static final int SWEEP_FREQUENCY = 1024;
+    //Poison value for released blocks (if enabled): NaN for floating point types, -1 for integer types
+    public static final byte POISON_BYTE = (byte) 0xFF;
+
+    private final MemoryManager memoryManager;
+    @Getter
+    private final long maxBlockBytes;
+    @Getter
+    private final long maxCachedBytes;
+    private final List<ConcurrentLinkedDeque<Pointer>> freeLists;
+    private final Queue<ThreadCache> threadCaches = new ConcurrentLinkedQueue<>();
+    private final ThreadLocal<ThreadCache> threadCache = new ThreadLocal<>();
+    private final AtomicInteger generation = new AtomicInteger();
+    //Debugging: fill released blocks with POISON_BYTE, so that uses of stale views are easier to detect
+    @Getter @Setter
+    private volatile boolean poisonReleased;
+
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong threadCacheHits = new AtomicLong();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong unpooled = new AtomicLong();
+    private final AtomicLong releases = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong bytesInUse = new AtomicLong();
+    private final AtomicLong bytesRequestedInUse = new AtomicLong();
+    private final AtomicLong bytesCached = new AtomicLong();
+
+    /**
+     * @param memoryManager  Memory manager used to allocate and free the underlying memory
+     * @param maxBlockBytes  Largest block size that is pooled. Larger requests are allocated and freed directly
+     * @param maxCachedBytes Maximum number of bytes of unused memory retained by the pool
+     */
+    public NativeBufferPool(@NonNull MemoryManager memoryManager, long maxBlockBytes, long maxCachedBytes) {
+        Preconditions.checkArgument(maxBlockBytes >= MIN_BLOCK_BYTES, "Maximum block size must be at least %s bytes, got %s",
+                MIN_BLOCK_BYTES, maxBlockBytes);
+        Preconditions.checkArgument(maxCachedBytes >= 0, "Maximum cached bytes must be non-negative, got %s", maxCachedBytes);
+        this.memoryManager = memoryManager;
+        this.maxBlockBytes = maxBlockBytes;
+        this.maxCachedBytes = maxCachedBytes;
+        int numClasses = sizeClass(maxBlockBytes) + 1;
+        this.freeLists = new ArrayList<>(numClasses);
+        for (int i = 0; i < numClasses; i++) {
+            freeLists.add(new ConcurrentLinkedDeque<Pointer>());
+        }
+    }
+
+    /**
+     * Get the index of the smallest size class that can hold the specified number of bytes
+     */
+    public static int sizeClass(long bytes) {
+        if (bytes <= MIN_BLOCK_BYTES) {
+            return 0;
+        }
+        //2^k < bytes <= 2^(k+1), split into CLASSES_PER_DOUBLING steps
+        int k = 63 - Long.numberOfLeadingZeros(bytes - 1);
+        long step = 1L << (k - 2);
+        long sub = (bytes - (1L << k) + step - 1) / step;
+        return (k - MIN_BLOCK_SHIFT) * CLASSES_PER_DOUBLING + (int) sub;
+    }
+
+    /**
+     * Get the block size, in bytes, of the specified size class
+     */
+    public static long sizeClassBytes(int sizeClass) {
+        if (sizeClass == 0) {
+            return MIN_BLOCK_BYTES;
+        }
+        int k = MIN_BLOCK_SHIFT + (sizeClass - 1) / CLASSES_PER_DOUBLING;
+        int sub = (sizeClass - 1) % CLASSES_PER_DOUBLING + 1;
+        return (1L << k) + sub * (1L << (k - 2));
+    }
+
+    /**
+     * Allocate a block of (at least) the specified number of bytes. The contents of the memory are undefined.
+     * The block must be returned with {@link Allocation#release()} once no longer used.
+     *
+     * @param bytes Number of bytes required
+     * @return The allocation
+     */
+    public Allocation allocate(long bytes) {
+        Preconditions.checkArgument(bytes > 0, "Number of bytes must be positive, got %s", bytes);
+        requests.incrementAndGet();
+        if (bytes > maxBlockBytes) {
+            unpooled.incrementAndGet();
+            Pointer p = allocateRaw(bytes);
+            bytesInUse.addAndGet(bytes);
+            bytesRequestedInUse.addAndGet(bytes);
+            return new Allocation(this, p, bytes, bytes, -1);
+        }
+
+        int sizeClass = sizeClass(bytes);
+        long blockBytes = sizeClassBytes(sizeClass);
+        Pointer p = null;
+        if (blockBytes <= THREAD_CACHE_MAX_BLOCK_BYTES) {
+            p = threadCache().poll(sizeClass);
+            if (p != null) {
+                threadCacheHits.incrementAndGet();
+            }
+        }
+        if (p == null) {
+            p = freeLists.get(sizeClass).pollFirst();
+        }
+
+        if (p != null) {
+            hits.incrementAndGet();
+            bytesCached.addAndGet(-blockBytes);
+        } else {
+            if (misses.incrementAndGet() % SWEEP_FREQUENCY == 0) {
+                sweepTerminatedThreads();
+            }
+            p = allocateRaw(blockBytes);
+        }
+        bytesInUse.addAndGet(blockBytes);
+        bytesRequestedInUse.addAndGet(bytes);
+        return new Allocation(this, p, bytes, blockBytes, sizeClass);
+    }
+
+    private Pointer allocateRaw(long bytes) {
+        try {
+            return memoryManager.allocate(bytes, MemoryKind.HOST, false);
+        } catch (OutOfMemoryError e) {
+            //Unused pooled memory may be what's preventing the allocation: free it, and try again
+            if (bytesCached.get() == 0) {
+                throw e;
+            }
+            log.debug("Allocation of {} bytes failed - purging {} bytes of pooled memory and retrying", bytes, bytesCached.get());
+            purge();
+            return memoryManager.allocate(bytes, MemoryKind.HOST, false);
+        }
+    }
+
+    private void freeRaw(Pointer pointer) {
+        memoryManager.release(pointer, MemoryKind.HOST);
+    }
+
+    /**
+     * Return a block to the pool. Called (once) via {@link Allocation#release()}
+     */
+    protected void release(Allocation allocation) {
+        releases.incrementAndGet();
+        long blockBytes = allocation.getBlockBytes();
+        bytesInUse.addAndGet(-blockBytes);
+        bytesRequestedInUse.addAndGet(-allocation.getRequestedBytes());
+        Pointer p = allocation.getPointer();
+        if (allocation.sizeClass < 0) {
+            freeRaw(p);
+            return;
+        }
+
+        if (bytesCached.addAndGet(blockBytes) > maxCachedBytes) {
+            bytesCached.addAndGet(-blockBytes);
+            evictions.incrementAndGet();
+            freeRaw(p);
+            return;
+        }
+
+        if (poisonReleased) {
+            Pointer.memset(p, POISON_BYTE, blockBytes);
+        }
+
+        //Blocks released by the thread that allocated them go to that thread's cache; blocks released by other threads
+        //(such as the deallocator threads) go to the global free lists, so that they are available to all threads
+        if (blockBytes <= THREAD_CACHE_MAX_BLOCK_BYTES && allocation.threadId == Thread.currentThread().getId()
+                && threadCache().offer(allocation.sizeClass, p)) {
+            return;
+        }
+        freeLists.get(allocation.sizeClass).offerFirst(p);
+    }
+
+    /**
+     * Free all unused memory held by the pool. Blocks cached by other threads are freed the next time those threads
+     * use the pool (or when they terminate)
+     */
+    public void purge() {
+        generation.incrementAndGet();
+        sweepTerminatedThreads();
+        ThreadCache tc = threadCache.get();
+        if (tc != null) {
+            tc.checkGeneration();
+        }
+        for (int i = 0; i < freeLists.size(); i++) {
+            long blockBytes = sizeClassBytes(i);
+            Pointer p;
+            while ((p = freeLists.get(i).pollFirst()) != null) {
+                bytesCached.addAndGet(-blockBytes);
+                freeRaw(p);
+            }
+        }
+    }
+
+    private ThreadCache threadCache() {
+        ThreadCache tc = threadCache.get();
+        if (tc == null) {
+            tc = new ThreadCache();
+            threadCache.set(tc);
+            threadCaches.add(tc);
+        }
+        tc.checkGeneration();
+        return tc;
+    }
+
+    /**
+     * Move the blocks cached by threads that have terminated to the global free lists
+     */
+    private void sweepTerminatedThreads() {
+        for (ThreadCache tc : threadCaches) {
+            Thread t = tc.owner.get();
+            //Only the thread that removes the cache from the queue flushes it
+            if ((t == null || !t.isAlive()) && threadCaches.remove(tc)) {
+                tc.flush(false);
+            }
+        }
+    }
+
+    /**
+     * @return Number of allocation requests
+     */
+    public long getRequestCount() {
+        return requests.get();
+    }
+
+    /**
+     * @return Number of allocation requests served with pooled memory (from either a thread cache or the global free lists)
+     */
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    /**
+     * @return Number of allocation requests served from the requesting thread's cache
+     */
+    public long getThreadCacheHitCount() {
+        return threadCacheHits.get();
+    }
+
+    /**
+     * @return Number of poolable allocation requests that required new memory to be allocated
+     */
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    /**
+     * @return Number of allocation requests larger than the maximum block size, which are not pooled
+     */
+    public long getUnpooledCount() {
+        return unpooled.get();
+    }
+
+    /**
+     * @return Number of released blocks that were freed because the pool was full
+     */
+    public long getEvictionCount() {
+        return evictions.get();
+    }
+
+    /**
+     * @return Number of allocations released
+     */
+    public long getReleaseCount() {
+        return releases.get();
+    }
+
+    /**
+     * @return Fraction of poolable allocation requests that were served with pooled memory
+     */
+    public double getHitRate() {
+        long h = hits.get();
+        long total = h + misses.get();
+        return total == 0 ? 0.0 : h / (double) total;
+    }
+
+    /**
+     * @return Number of bytes currently allocated to live allocations (block sizes, not requested sizes)
+     */
+    public long getBytesInUse() {
+        return bytesInUse.get();
+    }
+
+    /**
+     * @return Number of bytes currently requested by live allocations
+     */
+    public long getRequestedBytesInUse() {
+        return bytesRequestedInUse.get();
+    }
+
+    /**
+     * @return Number of bytes of unused memory retained by the pool
+     */
+    public long getCachedBytes() {
+        return bytesCached.get();
+    }
+
+    /**
+     * Internal fragmentation: the fraction of in-use block memory that isn't used by allocations, due to rounding up
+     * to the size classes
+     */
+    public double getInternalFragmentation() {
+        long inUse = bytesInUse.get();
+        return inUse == 0 ? 0.0 : 1.0 - bytesRequestedInUse.get() / (double) inUse;
+    }
+
+    /**
+     * External fragmentation: the fraction of the memory held by the pool (in use or cached) that is cached, i.e., not
+     * currently used by any allocation
+     */
+    public double getExternalFragmentation() {
+        long cached = bytesCached.get();
+        long total = cached + bytesInUse.get();
+        return total == 0 ? 0.0 : cached / (double) total;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("NativeBufferPool(requests=%d, hitRate=%.3f, threadCacheHits=%d, unpooled=%d, evictions=%d, " +
+                        "bytesInUse=%d, requestedBytesInUse=%d, cachedBytes=%d, internalFragmentation=%.3f, externalFragmentation=%.3f)",
+                getRequestCount(), getHitRate(), getThreadCacheHitCount(), getUnpooledCount(), getEvictionCount(),
+                getBytesInUse(), getRequestedBytesInUse(), getCachedBytes(), getInternalFragmentation(), getExternalFragmentation());
+    }
+
+    /**
+     * A block of memory allocated from the pool. Released blocks must not be used anymore: they may be reused by other
+     * allocations immediately (see the class javadoc on stale references)
+     */
+    public static class Allocation {
+        private final NativeBufferPool pool;
+        @Getter
+        private final Pointer pointer;
+        @Getter
+        private final long requestedBytes;
+        @Getter
+        private final long blockBytes;
+        private final int sizeClass;
+        private final long threadId;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        protected Allocation(NativeBufferPool pool, Pointer pointer, long requestedBytes, long blockBytes, int sizeClass) {
+            this.pool = pool;
+            this.pointer = pointer;
+            this.requestedBytes = requestedBytes;
+            this.blockBytes = blockBytes;
+            this.sizeClass = sizeClass;
+            this.threadId = Thread.currentThread().getId();
+        }
+
+        /**
+         * Return the memory to the pool. Only the first call has any effect, so this is safe to call both when an
+         * array is closed and when it is later garbage collected
+         *
+         * @return True if the memory was returned by this call
+         */
+        public boolean release() {
+            if (released.compareAndSet(false, true)) {
+                pool.release(this);
+                return true;
+            }
+            return false;
+        }
+
+        public boolean isReleased() {
+            return released.get();
+        }
+    }
+
+    /**
+     * Per-thread cache of free blocks. Only accessed by its owner thread - or, once the owner has terminated, by the
+     * thread that moves its blocks to the global free lists
+     */
+    private class ThreadCache {
+        private final WeakReference<Thread> owner = new WeakReference<>(Thread.currentThread());
+        private final ArrayDeque<Pointer>[] blocks;
+        private int generationSeen = generation.get();
+
+        @SuppressWarnings("unchecked")
+        private ThreadCache() {
+            blocks = new ArrayDeque[Math.min(freeLists.size(), sizeClass(THREAD_CACHE_MAX_BLOCK_BYTES) + 1)];
+        }
+
+        private Pointer poll(int sizeClass) {
+            ArrayDeque<Pointer> q = blocks[sizeClass];
+            return q == null ? null : q.pollFirst();
+        }
+
+        private boolean offer(int sizeClass, Pointer p) {
+            if (sizeClass >= blocks.length) {
+                return false;
+            }
+            if (blocks[sizeClass] == null) {
+                blocks[sizeClass] = new ArrayDeque<>(THREAD_CACHE_BLOCKS);
+            }
+            if (blocks[sizeClass].size() >= THREAD_CACHE_BLOCKS) {
+                return false;
+            }
+            blocks[sizeClass].offerFirst(p);
+            return true;
+        }
+
+        private void checkGeneration() {
+            int g = generation.get();
+            if (g != generationSeen) {
+                generationSeen = g;
+                flush(true);
+            }
+        }
+
+        /**
+         * Remove all blocks from this cache, either freeing them or moving them to the global free lists
+         */
+        private void flush(boolean free) {
+            for (int i = 0; i < blocks.length; i++) {
+                if (blocks[i] == null) {
+                    continue;
+                }
+                Pointer p;
+                while ((p = blocks[i].pollFirst()) != null) {
+                    if (free) {
+                        bytesCached.addAndGet(-sizeClassBytes(i));
+                        freeRaw(p);
+                    } else {
+                        freeLists.get(i).offerFirst(p);
+                    }
+                }
+            }
+        }
+    }
+}
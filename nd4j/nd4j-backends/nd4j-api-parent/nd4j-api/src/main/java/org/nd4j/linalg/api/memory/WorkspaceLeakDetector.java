@@ -0,0 +1,273 @@
+/*
+ *  ******************************************************************************
+ *  *
+ *  *
+ *  * This program and the accompanying materials are made available under the
+ *  * terms of the Apache License, Version 2.0 which is available at
+ *  * https://www.apache.org/licenses/LICENSE-2.0.
+ *  *
+ *  *  See the NOTICE file distributed with this work for additional
+ *  *  information regarding copyright ownership.
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ *  * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ *  * License for the specific language governing permissions and limitations
+ *  * under the License.
+ *  *
+ *  * SPDX-License-Identifier: Apache-2.0
+ *  *****************************************************************************
+ */
+
+package org.nd4j.linalg.api.memory;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.nd4j.linalg.api.buffer.DataBuffer;
+import org.nd4j.linalg.api.memory.abstracts.Nd4jWorkspace;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Optional leak detector for workspace arrays.<br>
+ * When enabled, every allocation made from a workspace records the stack trace of the code that requested it.
+ * When an array that escaped its workspace scope is later used (either after the workspace was closed, or after it was
+ * closed and reopened - see {@link org.nd4j.linalg.workspace.WorkspaceUtils#assertValidArray(org.nd4j.linalg.api.ndarray.INDArray, String)}),
+ * the allocation site of that array is included in the exception message, and a {@link LeakReport} is retained
+ * for later inspection via {@link #getReports()}.<br>
+ * Allocation sites are only kept for the last {@link #getRetainedGenerations()} generations of each workspace, and
+ * only up to {@link #getMaxSitesPerGeneration()} allocations per generation, to bound memory use.<br>
+ * Recording a stack trace for every allocation is expensive: the detector is disabled by default, and should only be
+ * enabled for debugging. It can be enabled at startup with the
+ * {@link org.nd4j.common.config.ND4JSystemProperties#WORKSPACE_LEAK_DETECTION} system property.
+ */
+public class WorkspaceLeakDetector {
+    public static final int DEFAULT_RETAINED_GENERATIONS = 3;
+    public static final int DEFAULT_MAX_SITES_PER_GENERATION = 100_000;
+    public static final int DEFAULT_MAX_REPORTS = 100;
+
+    private static final String MEMORY_PACKAGE = WorkspaceLeakDetector.class.getPackage().getName();
+
+    private volatile boolean enabled;
+    @Getter
+    private volatile int retainedGenerations = DEFAULT_RETAINED_GENERATIONS;
+    @Getter
+    private volatile int maxSitesPerGeneration = DEFAULT_MAX_SITES_PER_GENERATION;
+    @Getter
+    private volatile int maxReports = DEFAULT_MAX_REPORTS;
+
+    private final Deque<LeakReport> reports = new ConcurrentLinkedDeque<>();
+    private final AtomicLong leaksDetected = new AtomicLong();
+
+    public WorkspaceLeakDetector(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Enable or disable allocation site recording. Arrays allocated while the detector was disabled have no
+     * recorded allocation site
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * @param retainedGenerations Number of workspace generations (most recent first) to keep allocation sites for.
+     *                            Escaping arrays from older generations are still reported, but without an allocation site
+     */
+    public void setRetainedGenerations(int retainedGenerations) {
+        if (retainedGenerations < 1)
+            throw new IllegalArgumentException("Number of retained generations must be >= 1, got " + retainedGenerations);
+        this.retainedGenerations = retainedGenerations;
+    }
+
+    /**
+     * @param maxSitesPerGeneration Maximum number of allocation sites recorded per workspace generation
+     */
+    public void setMaxSitesPerGeneration(int maxSitesPerGeneration) {
+        if (maxSitesPerGeneration < 1)
+            throw new IllegalArgumentException("Maximum number of sites must be >= 1, got " + maxSitesPerGeneration);
+        this.maxSitesPerGeneration = maxSitesPerGeneration;
+    }
+
+    /**
+     * @param maxReports Maximum number of leak reports retained. Oldest reports are discarded first
+     */
+    public void setMaxReports(int maxReports) {
+        if (maxReports < 0)
+            throw new IllegalArgumentException("Maximum number of reports must be >= 0, got " + maxReports);
+        this.maxReports = maxReports;
+        trimReports();
+    }
+
+    /**
+     * Record the use of an array that escaped its workspace scope.
+     *
+     * @param workspace Workspace the array was allocated in
+     * @param data      Buffer of the escaped array
+     * @param outdated  True if the workspace was reopened since the array was allocated, false if the workspace is closed
+     * @return Report for the escaped array
+     */
+    public LeakReport reportEscape(MemoryWorkspace workspace, DataBuffer data, boolean outdated) {
+        AllocationSite site = workspace instanceof Nd4jWorkspace ? ((Nd4jWorkspace) workspace).findAllocationSite(data) : null;
+        LeakReport report = new LeakReport(workspace.getId(), data.getGenerationId(), workspace.getGenerationId(), outdated,
+                site, Thread.currentThread().getName());
+        leaksDetected.incrementAndGet();
+        reports.addLast(report);
+        trimReports();
+        return report;
+    }
+
+    /**
+     * Record the use of an escaped array (see {@link #reportEscape(MemoryWorkspace, DataBuffer, boolean)}) and describe
+     * where it was allocated, for inclusion in an exception message. Returns an empty string if the detector is disabled
+     */
+    public String describeEscape(MemoryWorkspace workspace, DataBuffer data, boolean outdated) {
+        if (!enabled)
+            return "";
+
+        AllocationSite site = reportEscape(workspace, data, outdated).getSite();
+        if (site == null)
+            return "\nAllocation site: unknown (array was allocated before leak detection was enabled, or its record was evicted)";
+        return "\nArray was allocated at:\n" + site.formatStackTrace();
+    }
+
+    /**
+     * @return Leak reports recorded so far, oldest first
+     */
+    public List<LeakReport> getReports() {
+        return new ArrayList<>(reports);
+    }
+
+    /**
+     * @return Total number of escaped arrays detected, including reports that were discarded
+     */
+    public long getLeaksDetected() {
+        return leaksDetected.get();
+    }
+
+    /**
+     * Discard all leak reports, and reset the leak count
+     */
+    public void clear() {
+        reports.clear();
+        leaksDetected.set(0);
+    }
+
+    private void trimReports() {
+        while (reports.size() > maxReports)
+            reports.pollFirst();
+    }
+
+    /**
+     * Location an array was allocated at, within a workspace
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class AllocationSite {
+        private final String workspaceId;
+        private final long generationId;
+        private final long address;
+        private final long bytes;
+        private final String threadName;
+        private final StackTraceElement[] stackTrace;
+
+        public String formatStackTrace() {
+            StringBuilder sb = new StringBuilder();
+            for (StackTraceElement e : stackTrace) {
+                sb.append("\tat ").append(e).append("\n");
+            }
+            return sb.toString();
+        }
+
+        @Override
+        public String toString() {
+            return "AllocationSite(workspace=" + workspaceId + ", generation=" + generationId + ", bytes=" + bytes
+                    + ", thread=" + threadName + ")\n" + formatStackTrace();
+        }
+    }
+
+    /**
+     * Use of an array after it escaped the scope of the workspace it was allocated in
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class LeakReport {
+        private final String workspaceId;
+        private final long arrayGenerationId;
+        private final long workspaceGenerationId;
+        private final boolean outdated;
+        /** Allocation site of the array, or null if unknown */
+        private final AllocationSite site;
+        private final String detectingThread;
+
+        @Override
+        public String toString() {
+            return "LeakReport(workspace=" + workspaceId + ", " + (outdated ? "outdated" : "leaked") + ", arrayGeneration="
+                    + arrayGenerationId + ", workspaceGeneration=" + workspaceGenerationId + ", thread=" + detectingThread
+                    + ")" + (site == null ? "" : "\n" + site.formatStackTrace());
+        }
+    }
+
+    /**
+     * Allocation sites of a single workspace, by generation and address. Owned by the workspace
+     */
+    public static class AllocationSites {
+        private final Map<Long, ConcurrentSkipListMap<Long, AllocationSite>> byGeneration = new ConcurrentHashMap<>();
+
+        public void record(WorkspaceLeakDetector detector, String workspaceId, long generationId, long address, long bytes) {
+            ConcurrentSkipListMap<Long, AllocationSite> sites = byGeneration.get(generationId);
+            if (sites == null) {
+                sites = new ConcurrentSkipListMap<>();
+                byGeneration.put(generationId, sites);
+                long oldest = generationId - detector.getRetainedGenerations();
+                byGeneration.keySet().removeIf(g -> g <= oldest);
+            }
+
+            if (sites.size() >= detector.getMaxSitesPerGeneration())
+                return;
+
+            sites.put(address, new AllocationSite(workspaceId, generationId, address, bytes,
+                    Thread.currentThread().getName(), callerStackTrace()));
+        }
+
+        /**
+         * Find the allocation that contains the given address, in the given generation. Addresses of views point
+         * into their parent allocation, so the closest allocation starting at or before the address is used
+         */
+        public AllocationSite find(long generationId, long address) {
+            ConcurrentSkipListMap<Long, AllocationSite> sites = byGeneration.get(generationId);
+            if (sites == null)
+                return null;
+
+            Map.Entry<Long, AllocationSite> e = sites.floorEntry(address);
+            if (e == null || address >= e.getKey() + e.getValue().getBytes())
+                return null;
+            return e.getValue();
+        }
+
+        public void clear() {
+            byGeneration.clear();
+        }
+
+        private static StackTraceElement[] callerStackTrace() {
+            StackTraceElement[] st = new Throwable().getStackTrace();
+            //Skip the workspace internals, so the trace starts at the code that requested the allocation
+            int first = 0;
+            while (first < st.length - 1 && st[first].getClassName().startsWith(MEMORY_PACKAGE))
+                first++;
+            return Arrays.copyOfRange(st, first, st.length);
+        }
+    }
+}
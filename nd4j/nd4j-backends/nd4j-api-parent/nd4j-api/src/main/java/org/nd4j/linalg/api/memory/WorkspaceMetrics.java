@@ -0,0 +1,83 @@
+/*
+ *  ******************************************************************************
+ *  *
+ *  *
+ *  * This program and the accompanying materials are made available under the
+ *  * terms of the Apache License, Version 2.0 which is available at
+ *  * https://www.apache.org/licenses/LICENSE-2.0.
+ *  *
+ *  *  See the NOTICE file distributed with this work for additional
+ *  *  information regarding copyright ownership.
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ *  * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ *  * License for the specific language governing permissions and limitations
+ *  * under the License.
+ *  *
+ *  * SPDX-License-Identifier: Apache-2.0
+ *  *****************************************************************************
+ */
+
+package org.nd4j.linalg.api.memory;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+/**
+ * Point-in-time snapshot of the memory use of a single workspace, as returned by
+ * {@link MemoryWorkspaceManager#getWorkspaceMetricsForCurrentThread()}.<br>
+ * All sizes are in bytes. "Current" values describe the state of the workspace at the time the snapshot was taken,
+ * "total" values are accumulated over the whole lifetime of the workspace.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class WorkspaceMetrics implements Serializable {
+    /** Workspace ID */
+    private String workspaceId;
+    /** ID of the thread that owns the workspace */
+    private long threadId;
+    /** Whether the workspace scope was open when the snapshot was taken */
+    private boolean scopeActive;
+    /** Workspace generation: incremented every time the workspace scope is entered */
+    private long generationId;
+
+    /** Size of the workspace's main memory block */
+    private long currentSize;
+    /** Largest main memory block this workspace has had */
+    private long peakSize;
+    /** Bytes of the main memory block in use by the current cycle */
+    private long currentOffset;
+
+    /** Bytes allocated during the current cycle (including spilled and pinned allocations) */
+    private long thisCycleBytes;
+    /** Bytes allocated during the last complete cycle */
+    private long lastCycleBytes;
+    /** Bytes allocated during the largest cycle seen so far */
+    private long peakCycleBytes;
+    /** Number of completed cycles (i.e., number of times the workspace scope was closed) */
+    private long cyclesCount;
+
+    /** Bytes currently held in spilled (external) allocations */
+    private long spilledBytes;
+    /** Number of spilled (external) allocations currently held */
+    private int spilledCount;
+    /** Bytes currently held in pinned allocations (circular workspaces only) */
+    private long pinnedBytes;
+    /** Number of pinned allocations currently held (circular workspaces only) */
+    private int pinnedCount;
+    /** Total number of spilled allocations over the workspace's lifetime */
+    private long totalSpillEvents;
+    /** Total bytes of spilled allocations over the workspace's lifetime */
+    private long totalSpilledBytes;
+
+    /** Number of times the main memory block was reallocated after the initial allocation */
+    private long reallocationsCount;
+    /** Size of the main memory block after the last reallocation, or 0 if no reallocation has happened */
+    private long lastReallocationSize;
+}
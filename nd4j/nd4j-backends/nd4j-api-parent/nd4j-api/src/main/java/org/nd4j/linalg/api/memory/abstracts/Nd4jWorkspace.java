@@ -26,9 +26,12 @@ import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 import org.bytedeco.javacpp.BytePointer;
 import org.bytedeco.javacpp.Pointer;
+import org.nd4j.linalg.api.buffer.DataBuffer;
 import org.nd4j.linalg.api.buffer.DataType;
 import org.nd4j.linalg.api.memory.AllocationsTracker;
 import org.nd4j.linalg.api.memory.MemoryWorkspace;
+import org.nd4j.linalg.api.memory.WorkspaceLeakDetector;
+import org.nd4j.linalg.api.memory.WorkspaceMetrics;
 import org.nd4j.linalg.api.memory.conf.WorkspaceConfiguration;
 import org.nd4j.linalg.api.memory.enums.*;
 import org.nd4j.linalg.api.memory.pointers.PagedPointer;
@@ -123,6 +126,17 @@ public abstract class Nd4jWorkspace implements MemoryWorkspace {
 
     protected AtomicLong generationId = new AtomicLong(0);
 
+    // lifetime statistics, these are never reset
+    protected AtomicLong peakSize = new AtomicLong(0);
+    protected AtomicLong blockAllocationsCount = new AtomicLong(0);
+    protected AtomicLong reallocationsCount = new AtomicLong(0);
+    protected AtomicLong lastReallocationSize = new AtomicLong(0);
+    protected AtomicLong totalSpillEvents = new AtomicLong(0);
+    protected AtomicLong totalSpilledBytes = new AtomicLong(0);
+
+    // allocation sites, only populated while the leak detector is enabled
+    protected final WorkspaceLeakDetector.AllocationSites allocationSites = new WorkspaceLeakDetector.AllocationSites();
+
     // this field is used as alignment base for all allocations within this workspace
     public final static int alignmentBase = 32;
 
@@ -314,6 +328,18 @@ public abstract class Nd4jWorkspace implements MemoryWorkspace {
             if (workspaceConfiguration.getMaxSize() > 0 && currentSize.get() > workspaceConfiguration.getMaxSize())
                 currentSize.set(workspaceConfiguration.getMaxSize());
         }
+
+        // init() is called once on creation, and then every time the workspace block gets (re)allocated
+        long size = currentSize.get();
+        if (size > 0) {
+            if (blockAllocationsCount.getAndIncrement() > 0) {
+                reallocationsCount.incrementAndGet();
+                lastReallocationSize.set(size);
+            }
+
+            if (size > peakSize.get())
+                peakSize.set(size);
+        }
     }
 
     public PagedPointer alloc(long requiredMemory, DataType type, boolean initialize) {
@@ -370,7 +396,7 @@ public abstract class Nd4jWorkspace implements MemoryWorkspace {
 
             externalAllocations.add(new PointersPair(pointer, null));
             AllocationsTracker.getInstance().getTracker(id).allocateExternal(type,kind,numElements,requiredMemory);
-            return pointer;
+            return recordAllocationSite(pointer, requiredMemory);
         }
 
         /*
@@ -404,7 +430,7 @@ public abstract class Nd4jWorkspace implements MemoryWorkspace {
             if (initialize)
                 Pointer.memset(ptr, 0, requiredMemory);
 
-            return ptr;
+            return recordAllocationSite(ptr, requiredMemory);
         } else {
             // if current workspace isn't enough - we allocate it separately as spilled (or pinned, in case of circular mode)
 
@@ -430,13 +456,14 @@ public abstract class Nd4jWorkspace implements MemoryWorkspace {
                         AllocationsTracker.getInstance().getTracker(id).allocateSpilled(type,kind,numElements,requiredMemory);
                         AllocationsTracker.getInstance().getTracker(id).allocateExternal(type,kind,numElements,requiredMemory);
                         spilledAllocationsSize.addAndGet(requiredMemory);
+                        recordSpill(requiredMemory);
                         PagedPointer pointer = new PagedPointer(
                                 memoryManager.allocate(requiredMemory, MemoryKind.HOST, initialize),
                                 numElements);
 
                         externalAllocations.add(new PointersPair(pointer, null));
 
-                        return pointer;
+                        return recordAllocationSite(pointer, requiredMemory);
                     } else {
                         pinnedCount.incrementAndGet();
                         AllocationsTracker.getInstance().getTracker(id).allocatePinned(type,kind,numElements,requiredMemory);
@@ -448,7 +475,7 @@ public abstract class Nd4jWorkspace implements MemoryWorkspace {
                         pinnedAllocations.add(new PointersPair(stepsCount.get(), requiredMemory, pointer, null));
 
 
-                        return pointer;
+                        return recordAllocationSite(pointer, requiredMemory);
                     }
                 case FAIL:
                 default: {
@@ -462,6 +489,89 @@ public abstract class Nd4jWorkspace implements MemoryWorkspace {
         // no-op for main page(s), purge for external stuff
     }
 
+    /**
+     * This method updates lifetime spill statistics. Should be called for every spilled (external) allocation
+     *
+     * @param requiredMemory
+     */
+    protected void recordSpill(long requiredMemory) {
+        totalSpillEvents.incrementAndGet();
+        totalSpilledBytes.addAndGet(requiredMemory);
+    }
+
+    /**
+     * This method records where the given allocation was requested from, if the workspace leak detector is enabled.
+     * Circular workspaces are skipped, since their arrays are expected to outlive the scope
+     *
+     * @param pointer
+     * @param requiredMemory
+     * @return the same pointer
+     */
+    protected PagedPointer recordAllocationSite(PagedPointer pointer, long requiredMemory) {
+        if (pointer == null || workspaceType == Type.CIRCULAR)
+            return pointer;
+
+        WorkspaceLeakDetector detector = Nd4j.getWorkspaceManager().getLeakDetector();
+        if (detector.isEnabled())
+            allocationSites.record(detector, id, generationId.get(), pointer.address(), requiredMemory);
+
+        return pointer;
+    }
+
+    /**
+     * This method returns the recorded allocation site of the given buffer, if any.
+     * Sites are only recorded while the workspace leak detector is enabled
+     *
+     * @param buffer buffer allocated in this workspace
+     * @return allocation site, or null if unknown
+     */
+    public WorkspaceLeakDetector.AllocationSite findAllocationSite(@NonNull DataBuffer buffer) {
+        try {
+            return allocationSites.find(buffer.getGenerationId(), buffer.address());
+        } catch (IllegalStateException e) {
+            // buffer was released already
+            return null;
+        }
+    }
+
+    /**
+     * This method returns a snapshot of current memory use of this workspace
+     *
+     * @return
+     */
+    public WorkspaceMetrics getMetrics() {
+        return WorkspaceMetrics.builder()
+                .workspaceId(id)
+                .threadId(threadId)
+                .scopeActive(isOpen.get())
+                .generationId(generationId.get())
+                .currentSize(currentSize.get())
+                .peakSize(peakSize.get())
+                .currentOffset(hostOffset.get())
+                .thisCycleBytes(cycleAllocations.get())
+                .lastCycleBytes(lastCycleAllocations.get())
+                .peakCycleBytes(maxCycle.get())
+                .cyclesCount(cyclesCount.get())
+                .spilledBytes(spilledAllocationsSize.get())
+                .spilledCount(externalCount.get())
+                .pinnedBytes(pinnedAllocationsSize.get())
+                .pinnedCount(pinnedCount.get())
+                .totalSpillEvents(totalSpillEvents.get())
+                .totalSpilledBytes(totalSpilledBytes.get())
+                .reallocationsCount(reallocationsCount.get())
+                .lastReallocationSize(lastReallocationSize.get())
+                .build();
+    }
+
+    /**
+     * This method returns number of times the workspace block was reallocated after initial allocation
+     *
+     * @return
+     */
+    public long getReallocationsCount() {
+        return reallocationsCount.get();
+    }
+
     @Override
     public void initializeWorkspace() {
         // we can reallocate this workspace to larger size if that's needed and allowed by configuration
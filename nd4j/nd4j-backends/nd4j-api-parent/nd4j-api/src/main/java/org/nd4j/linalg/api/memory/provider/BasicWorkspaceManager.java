@@ -25,11 +25,14 @@ import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
 import org.nd4j.linalg.api.memory.MemoryWorkspace;
 import org.nd4j.linalg.api.memory.MemoryWorkspaceManager;
+import org.nd4j.linalg.api.memory.WorkspaceLeakDetector;
+import org.nd4j.linalg.api.memory.WorkspaceMetrics;
 import org.nd4j.linalg.api.memory.abstracts.Nd4jWorkspace;
 import org.nd4j.linalg.api.memory.conf.WorkspaceConfiguration;
 import org.nd4j.linalg.api.memory.enums.*;
 import org.nd4j.linalg.factory.Nd4j;
 import org.nd4j.linalg.api.memory.abstracts.DummyWorkspace;
+import org.nd4j.common.config.ND4JSystemProperties;
 import org.nd4j.common.primitives.SynchronizedObject;
 
 import java.util.ArrayList;
@@ -49,6 +52,10 @@ public abstract class BasicWorkspaceManager implements MemoryWorkspaceManager {
     // default mode is DISABLED, as in: production mode
     protected SynchronizedObject<DebugMode> debugMode = new SynchronizedObject<>(DebugMode.DISABLED);
 
+    // disabled by default, since recording allocation sites is expensive
+    protected final WorkspaceLeakDetector leakDetector =
+            new WorkspaceLeakDetector(Boolean.parseBoolean(System.getProperty(ND4JSystemProperties.WORKSPACE_LEAK_DETECTION, "false")));
+
     public BasicWorkspaceManager() {
         this(WorkspaceConfiguration.builder().initialSize(0).maxSize(0).overallocationLimit(0.3)
                 .policyAllocation(AllocationPolicy.OVERALLOCATE).policyLearning(LearningPolicy.FIRST_LOOP)
@@ -289,6 +296,29 @@ public abstract class BasicWorkspaceManager implements MemoryWorkspaceManager {
         return new ArrayList<>(backingMap.get().values());
     }
 
+    @Override
+    public List<WorkspaceMetrics> getWorkspaceMetricsForCurrentThread() {
+        ensureThreadExistense();
+        List<WorkspaceMetrics> out = new ArrayList<>();
+        for (MemoryWorkspace ws : backingMap.get().values()) {
+            if (ws instanceof Nd4jWorkspace)
+                out.add(((Nd4jWorkspace) ws).getMetrics());
+        }
+        return out;
+    }
+
+    @Override
+    public WorkspaceMetrics getWorkspaceMetrics(@NonNull String id) {
+        ensureThreadExistense();
+        MemoryWorkspace ws = backingMap.get().get(id);
+        return ws instanceof Nd4jWorkspace ? ((Nd4jWorkspace) ws).getMetrics() : null;
+    }
+
+    @Override
+    public WorkspaceLeakDetector getLeakDetector() {
+        return leakDetector;
+    }
+
     @Override
     public boolean anyWorkspaceActiveForCurrentThread(){
         ensureThreadExistense();
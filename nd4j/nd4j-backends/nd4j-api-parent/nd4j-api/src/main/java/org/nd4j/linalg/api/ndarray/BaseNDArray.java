@@ -2899,6 +2899,11 @@ public abstract class BaseNDArray implements INDArray, Iterable {
         return mmul(other, (this.ordering() == 'f' && other.ordering() == 'f' && other.rank() != 1) ? 'f' : 'c');
     }
 
+    @Override
+    public INDArray batchMmul(INDArray other) {
+        return Nd4j.batchMmul(this, other);
+    }
+
     protected INDArray create(int[] shape, char ordering) {
         return Nd4j.create(shape, ordering);
     }
@@ -1239,6 +1239,16 @@ public interface INDArray extends Serializable, AutoCloseable {
      */
     INDArray mmul(INDArray other, char resultOrder);
 
+    /**
+     * Perform a batched matrix multiplication of two stacks of matrices: for a rank 3 array of shape
+     * [batchSize, M, K] and other of shape [batchSize, K, N], the result has shape [batchSize, M, N].<br>
+     * The whole batch is executed as a single native op, see {@link org.nd4j.linalg.factory.Nd4j#batchMmul(INDArray, INDArray, boolean, boolean)}
+     *
+     * @param other the other stack of matrices to perform matrix multiply with
+     * @return the result of the batched matrix multiplication
+     */
+    INDArray batchMmul(INDArray other);
+
     /**
      * Convert this ndarray to a 2d double matrix.
      * Note that THIS SHOULD NOT BE USED FOR SPEED.
@@ -23,6 +23,11 @@ package org.nd4j.linalg.api.ndarray;
 import org.nd4j.linalg.api.buffer.DataType;
 import org.nd4j.common.primitives.Pair;
 import org.nd4j.linalg.api.buffer.DataBuffer;
+import org.nd4j.linalg.api.shape.LongShapeDescriptor;
+import org.nd4j.linalg.cache.DescriptorCache;
+
+import java.util.Collection;
+import java.util.Collections;
 
 public interface ShapeInfoProvider {
     /**
@@ -59,4 +64,31 @@ public interface ShapeInfoProvider {
      * @return
      */
     long getCachedBytes();
+
+    /**
+     * This method returns descriptors of all cached shape information buffers, i.e. the keys that may be used
+     * to pre-populate the cache of another process via {@link #warmUp(Collection)}
+     * @return cached shape descriptors, or empty collection if shape information isn't cached by this implementation
+     */
+    default Collection<LongShapeDescriptor> getCachedDescriptors() {
+        return Collections.emptyList();
+    }
+
+    /**
+     * This method creates shape information buffers for the given descriptors ahead of their first use
+     * @param descriptors shape descriptors, as returned by {@link #getCachedDescriptors()}
+     */
+    default void warmUp(Collection<LongShapeDescriptor> descriptors) {
+        for (LongShapeDescriptor d : descriptors) {
+            createShapeInformation(d.getShape(), d.getStride(), d.getEws(), d.getOrder(), d.getExtras());
+        }
+    }
+
+    /**
+     * This method returns cache hit/miss statistics
+     * @return cache statistics, or null if shape information isn't cached by this implementation
+     */
+    default DescriptorCache.Stats getCacheStats() {
+        return null;
+    }
 }
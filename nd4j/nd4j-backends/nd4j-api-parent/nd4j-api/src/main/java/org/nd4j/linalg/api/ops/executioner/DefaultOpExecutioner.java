@@ -50,6 +50,7 @@ import org.nd4j.linalg.factory.Nd4j;
 import org.nd4j.common.primitives.AtomicBoolean;
 import org.nd4j.common.primitives.Optional;
 import org.nd4j.linalg.profiler.OpProfiler;
+import org.nd4j.linalg.profiler.SamplingProfiler;
 import org.nd4j.linalg.profiler.ProfilerConfig;
 import org.nd4j.common.util.ArrayUtil;
 
@@ -290,14 +291,16 @@ public abstract class DefaultOpExecutioner implements OpExecutioner {
 
                 if (!ws.isScopeActive()) {
                     throw new ND4JIllegalStateException("Op [" + opName + "] X argument uses leaked workspace pointer from workspace ["
-                            + ws.getId() + "]: Workspace the array was defined in is no longer open.\nAll open workspaces: " + allOpenWorkspaces() + "\n" + SCOPE_PANIC_MSG);
+                            + ws.getId() + "]: Workspace the array was defined in is no longer open.\nAll open workspaces: " + allOpenWorkspaces() + "\n" + SCOPE_PANIC_MSG
+                            + Nd4j.getWorkspaceManager().getLeakDetector().describeEscape(ws, array.data(), false));
                 }
 
                 if (ws.getGenerationId() != array.data().getGenerationId())
                     throw new ND4JIllegalStateException("Op [" + opName + "] X argument uses outdated workspace pointer from workspace ["
                             + ws.getId() + "]: Workspace array was defined in has been closed and reopened at least once since array creation. Array WS iteration: " +
                             array.data().getGenerationId() + ". Workspace current iteration: " +
-                            ws.getGenerationId() + "\nAll open workspaces: " + allOpenWorkspaces() + "\n" + SCOPE_PANIC_MSG);
+                            ws.getGenerationId() + "\nAll open workspaces: " + allOpenWorkspaces() + "\n" + SCOPE_PANIC_MSG
+                            + Nd4j.getWorkspaceManager().getLeakDetector().describeEscape(ws, array.data(), true));
             }
         }
     }
@@ -542,6 +545,10 @@ public abstract class DefaultOpExecutioner implements OpExecutioner {
     public void profilingConfigurableHookOut(Op op, OpContext oc, long timeStart) {
         Nd4j.getDeallocatorService().toggleDeallocationBlock(false);
 
+        SamplingProfiler sampler = SamplingProfiler.getInstance();
+        if (sampler.isEnabled())
+            sampler.record(op, oc, timeStart);
+
         if (OpProfiler.getInstance().getConfig() == null) {
             return;
         }
@@ -579,6 +586,10 @@ public abstract class DefaultOpExecutioner implements OpExecutioner {
     public void profilingConfigurableHookOut(CustomOp op, OpContext oc, long timeStart) {
         Nd4j.getDeallocatorService().toggleDeallocationBlock(false);
 
+        SamplingProfiler sampler = SamplingProfiler.getInstance();
+        if (sampler.isEnabled())
+            sampler.record(op, oc, timeStart);
+
         if (OpProfiler.getInstance().getConfig() == null)
             return;
 
@@ -958,6 +969,11 @@ public abstract class DefaultOpExecutioner implements OpExecutioner {
         throw new UnsupportedOperationException("OpContext is available only on native backends");
     }
 
+    @Override
+    public PreparedOp prepare(CustomOp op) {
+        return new PreparedOp(this, op);
+    }
+
     @Override
     public INDArray[] exec(CustomOp op, OpContext context) {
         throw new UnsupportedOperationException();
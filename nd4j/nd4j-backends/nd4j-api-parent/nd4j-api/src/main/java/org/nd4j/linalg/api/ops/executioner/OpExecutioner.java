@@ -434,6 +434,15 @@ public interface OpExecutioner {
      */
     OpContext buildContext();
 
+    /**
+     * This method returns a reusable handle for executing the given CustomOp repeatedly, with the op arguments
+     * and context pre-bound. See {@link PreparedOp} for details
+     *
+     * @param op Op to prepare
+     * @return PreparedOp handle
+     */
+    PreparedOp prepare(CustomOp op);
+
     /**
      *
      * @param array
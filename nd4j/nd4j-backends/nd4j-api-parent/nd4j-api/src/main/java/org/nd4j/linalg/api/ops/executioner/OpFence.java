@@ -0,0 +1,105 @@
+/*
+ *  ******************************************************************************
+ *  *
+ *  *
+ *  * This program and the accompanying materials are made available under the
+ *  * terms of the Apache License, Version 2.0 which is available at
+ *  * https://www.apache.org/licenses/LICENSE-2.0.
+ *  *
+ *  *  See the NOTICE file distributed with this work for additional
+ *  *  information regarding copyright ownership.
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ *  * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ *  * License for the specific language governing permissions and limitations
+ *  * under the License.
+ *  *
+ *  * SPDX-License-Identifier: Apache-2.0
+ *  *****************************************************************************
+ */
+
+package org.nd4j.linalg.api.ops.executioner;
+
+import lombok.NonNull;
+import org.nd4j.linalg.exception.ND4JIllegalStateException;
+
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/**
+ * Synchronization point for ops that are executed asynchronously, by executioners that queue ops instead of running
+ * them on the calling thread.<br>
+ * The executioner attaches fences to each buffer (see {@link org.nd4j.linalg.api.buffer.BaseDataBuffer#setPendingOps(OpFence, OpFence)})
+ * accessed by a queued op. Reads of that buffer from Java wait for the fence of the last queued writer, writes wait for
+ * the fence of all queued readers and writers, so that the results of queued ops are only synchronized when they are
+ * actually read.<br>
+ * Threads that execute queued ops never wait on fences: all dependencies of an op are complete before it is started.
+ */
+public class OpFence {
+    private static final ThreadLocal<Boolean> EXECUTOR_THREAD = new ThreadLocal<>();
+    //Set once an executioner that attaches fences is created, so that buffers skip fence checks otherwise
+    private static volatile boolean enabled;
+
+    private final Future<?> future;
+
+    public OpFence(@NonNull Future<?> future) {
+        this.future = future;
+    }
+
+    /**
+     * Enable fence checks on buffer accesses. Called by executioners that attach fences to buffers
+     */
+    public static void enable() {
+        enabled = true;
+    }
+
+    /**
+     * @return True if fences may be attached to buffers, i.e., if buffer accesses have to check for fences
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Mark the current thread as an op executor thread: fences are ignored on such threads
+     */
+    public static void markExecutorThread() {
+        EXECUTOR_THREAD.set(Boolean.TRUE);
+    }
+
+    /**
+     * @return True if the current thread executes queued ops
+     */
+    public static boolean isExecutorThread() {
+        return EXECUTOR_THREAD.get() != null;
+    }
+
+    public boolean isDone() {
+        return future.isDone();
+    }
+
+    /**
+     * Block until the fenced op(s) are complete. If a fenced op failed, its exception is rethrown
+     */
+    public void await() {
+        if (isExecutorThread())
+            return;
+
+        try {
+            future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ND4JIllegalStateException("Interrupted while waiting for pending ops", e);
+        } catch (ExecutionException e) {
+            Throwable t = e.getCause();
+            while (t instanceof CompletionException && t.getCause() != null)
+                t = t.getCause();
+            if (t instanceof RuntimeException)
+                throw (RuntimeException) t;
+            if (t instanceof Error)
+                throw (Error) t;
+            throw new ND4JIllegalStateException("Pending op failed", t);
+        }
+    }
+}
@@ -0,0 +1,234 @@
+/*
+ *  ******************************************************************************
+ *  *
+ *  *
+ *  * This program and the accompanying materials are made available under the
+ *  * terms of the Apache License, Version 2.0 which is available at
+ *  * https://www.apache.org/licenses/LICENSE-2.0.
+ *  *
+ *  *  See the NOTICE file distributed with this work for additional
+ *  *  information regarding copyright ownership.
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ *  * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ *  * License for the specific language governing permissions and limitations
+ *  * under the License.
+ *  *
+ *  * SPDX-License-Identifier: Apache-2.0
+ *  *****************************************************************************
+ */
+
+package org.nd4j.linalg.api.ops.executioner;
+
+import lombok.Getter;
+import lombok.NonNull;
+import org.nd4j.common.base.Preconditions;
+import org.nd4j.common.primitives.Pair;
+import org.nd4j.linalg.api.buffer.DataBuffer;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.api.ops.CustomOp;
+import org.nd4j.linalg.api.ops.OpContext;
+import org.nd4j.linalg.api.shape.LongShapeDescriptor;
+import org.nd4j.linalg.factory.Nd4j;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Reusable, pre-bound invocation handle for a {@link CustomOp}, created via {@link OpExecutioner#prepare(CustomOp)}.<br>
+ * Executing a custom op via {@link OpExecutioner#exec(CustomOp)} creates a new {@link OpContext} for every call, and
+ * transfers all inputs, outputs and arguments to it. When the same op is executed repeatedly (for example, in a loop
+ * over minibatches), a PreparedOp avoids most of that per-call work:
+ * <ul>
+ *     <li>A single OpContext is kept alive for the lifetime of the handle</li>
+ *     <li>The i/t/b/d arguments of the op are transferred only once, when the handle is created</li>
+ *     <li>Only inputs and outputs that changed since the previous call are rebound</li>
+ *     <li>Output shapes are only calculated when the input shapes or data types change</li>
+ * </ul>
+ * The number of inputs and outputs is fixed for the lifetime of the handle. Op arguments are taken from the op
+ * when the handle is created: changing them later has no effect on the handle.<br>
+ * Note that cached output shapes are keyed on input shapes only: for ops whose output shape depends on the values of
+ * an input array, output arrays should be provided via {@link #exec(INDArray[], INDArray[])}.<br>
+ * PreparedOp instances are not thread safe, and should be closed when no longer required.
+ */
+public class PreparedOp implements AutoCloseable {
+    @Getter
+    private final CustomOp op;
+    private final OpExecutioner executioner;
+    private final OpContext context;
+    private final boolean inplace;
+
+    @Getter
+    private int numInputs;
+    @Getter
+    private int numOutputs = -1;
+
+    private INDArray[] boundInputs;
+    private DataBuffer[] boundInputBuffers;
+    private INDArray[] boundOutputs;
+    private DataBuffer[] boundOutputBuffers;
+
+    private long[][] cachedInputShapes;
+    private LongShapeDescriptor[] cachedOutputShapes;
+    @Getter
+    private long shapeCalculationCount;
+
+    private boolean closed;
+
+    public PreparedOp(@NonNull OpExecutioner executioner, @NonNull CustomOp op) {
+        this.executioner = executioner;
+        this.op = op;
+        this.inplace = op.isInplaceCall();
+        this.context = executioner.buildContext();
+
+        context.markInplace(inplace);
+        context.setBArguments(op.bArgs());
+        context.setIArguments(op.iArgs());
+        context.setTArguments(op.tArgs());
+        context.setDArguments(op.dArgs());
+
+        this.numInputs = op.numInputArguments();
+        if (numInputs > 0)
+            initInputs(numInputs);
+        if (!inplace && op.numOutputArguments() > 0)
+            initOutputs(op.numOutputArguments());
+    }
+
+    /**
+     * Execute the op with the input and output arrays it was prepared with. If the op was prepared without output
+     * arrays, new output arrays are allocated
+     *
+     * @return Output arrays (or the input arrays, for in-place ops)
+     */
+    public INDArray[] exec() {
+        INDArray[] outputs = op.numOutputArguments() > 0 ? op.outputArguments().toArray(new INDArray[0]) : null;
+        return exec(op.inputArguments().toArray(new INDArray[0]), outputs);
+    }
+
+    /**
+     * Execute the op with the specified inputs, allocating new output arrays. The shapes of the outputs are only
+     * recalculated if the shapes or data types of the inputs differ from those of the previous call.
+     *
+     * @param inputs Input arrays
+     * @return Output arrays (or the input arrays, for in-place ops)
+     */
+    public INDArray[] exec(@NonNull INDArray... inputs) {
+        return exec(inputs, null);
+    }
+
+    /**
+     * Execute the op with the specified inputs and outputs.
+     *
+     * @param inputs  Input arrays
+     * @param outputs Output arrays. If null, new output arrays are allocated. Ignored for in-place ops
+     * @return Output arrays (or the input arrays, for in-place ops)
+     */
+    public INDArray[] exec(@NonNull INDArray[] inputs, INDArray[] outputs) {
+        Preconditions.checkState(!closed, "PreparedOp for op %s was already closed", op.opName());
+        if (boundInputs == null)
+            initInputs(inputs.length);
+        Preconditions.checkArgument(inputs.length == numInputs, "Op %s was prepared for %s inputs, got %s",
+                op.opName(), numInputs, inputs.length);
+
+        for (int i = 0; i < inputs.length; i++) {
+            INDArray in = inputs[i];
+            Preconditions.checkArgument(in != null, "Input %s of op %s is null", i, op.opName());
+            if (in != boundInputs[i] || in.data() != boundInputBuffers[i]) {
+                context.setInputArray(i, in);
+                boundInputs[i] = in;
+                boundInputBuffers[i] = in.data();
+            }
+        }
+
+        if (!inplace) {
+            if (outputs == null)
+                outputs = allocateOutputs(inputs);
+
+            if (boundOutputs == null)
+                initOutputs(outputs.length);
+            Preconditions.checkArgument(outputs.length == numOutputs, "Op %s was prepared for %s outputs, got %s",
+                    op.opName(), numOutputs, outputs.length);
+
+            for (int i = 0; i < outputs.length; i++) {
+                INDArray out = outputs[i];
+                Preconditions.checkArgument(out != null, "Output %s of op %s is null", i, op.opName());
+                if (out != boundOutputs[i] || out.data() != boundOutputBuffers[i]) {
+                    context.setOutputArray(i, out);
+                    boundOutputs[i] = out;
+                    boundOutputBuffers[i] = out.data();
+                }
+            }
+        }
+
+        // random ops rely on the RNG state of the calling thread
+        context.setRngStates(Nd4j.getRandom().rootState(), Nd4j.getRandom().nodeState());
+        INDArray[] result = executioner.exec(op, context);
+        Pair<Long, Long> states = context.getRngStates();
+        Nd4j.getRandom().setStates(states.getFirst(), states.getSecond());
+
+        return result;
+    }
+
+    private INDArray[] allocateOutputs(INDArray[] inputs) {
+        if (cachedOutputShapes == null || !sameShapes(inputs)) {
+            List<LongShapeDescriptor> shapes = executioner.calculateOutputShape(op, context);
+            Preconditions.checkState(!shapes.isEmpty(), "Op %s failed to calculate output shape and data types", op.opName());
+            cachedOutputShapes = shapes.toArray(new LongShapeDescriptor[0]);
+            cachedInputShapes = new long[inputs.length][];
+            for (int i = 0; i < inputs.length; i++) {
+                cachedInputShapes[i] = inputs[i].shapeInfoJava().clone();
+            }
+            shapeCalculationCount++;
+        }
+
+        INDArray[] out = new INDArray[cachedOutputShapes.length];
+        for (int i = 0; i < out.length; i++) {
+            out[i] = Nd4j.create(cachedOutputShapes[i], false);
+        }
+        return out;
+    }
+
+    private boolean sameShapes(INDArray[] inputs) {
+        if (cachedInputShapes.length != inputs.length)
+            return false;
+
+        for (int i = 0; i < inputs.length; i++) {
+            // shape info includes the data type and array type flags
+            if (!Arrays.equals(cachedInputShapes[i], inputs[i].shapeInfoJava()))
+                return false;
+        }
+        return true;
+    }
+
+    private void initInputs(int n) {
+        numInputs = n;
+        boundInputs = new INDArray[n];
+        boundInputBuffers = new DataBuffer[n];
+    }
+
+    private void initOutputs(int n) {
+        numOutputs = n;
+        boundOutputs = new INDArray[n];
+        boundOutputBuffers = new DataBuffer[n];
+    }
+
+    /**
+     * @return True if this handle was closed
+     */
+    public boolean isClosed() {
+        return closed;
+    }
+
+    @Override
+    public void close() {
+        if (closed)
+            return;
+
+        closed = true;
+        boundInputs = null;
+        boundOutputs = null;
+        boundInputBuffers = null;
+        boundOutputBuffers = null;
+        context.close();
+    }
+}
@@ -116,7 +116,7 @@ public class BatchMmul extends DynamicCustomOp {
         this.K = transposeB ? (int) lastShape[1]: (int) lastShape[0];
         this.lda = (int) firstShape[0];
         this.ldb = (int) lastShape[0];
-        this.ldc = (int) firstShape[0];
+        this.ldc = this.M;
         addArgs();
         this.alphas = alphas;
         this.betas = betas;
@@ -143,7 +143,7 @@ public class BatchMmul extends DynamicCustomOp {
         this.K = transposeB ? (int) lastShape[1]: (int) lastShape[0];
         this.lda = (int) firstShape[0];
         this.ldb = (int) lastShape[0];
-        this.ldc = (int) firstShape[0];
+        this.ldc = this.M;
         addArgs();
     }
 
@@ -34,8 +34,10 @@ public class LongShapeDescriptor {
     @Getter
     private char order;
 
+    @Getter
     private long offset;
 
+    @Getter
     private long ews;
 
 
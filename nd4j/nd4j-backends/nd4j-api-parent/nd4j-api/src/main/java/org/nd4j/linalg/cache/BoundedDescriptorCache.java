@@ -0,0 +1,123 @@
+/*
+ *  ******************************************************************************
+ *  *
+ *  *
+ *  * This program and the accompanying materials are made available under the
+ *  * terms of the Apache License, Version 2.0 which is available at
+ *  * https://www.apache.org/licenses/LICENSE-2.0.
+ *  *
+ *  *  See the NOTICE file distributed with this work for additional
+ *  *  information regarding copyright ownership.
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ *  * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ *  * License for the specific language governing permissions and limitations
+ *  * under the License.
+ *  *
+ *  * SPDX-License-Identifier: Apache-2.0
+ *  *****************************************************************************
+ */
+
+package org.nd4j.linalg.cache;
+
+import lombok.Getter;
+import org.nd4j.common.base.Preconditions;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * {@link DescriptorCache} holding up to a fixed number of entries.<br>
+ * Once the cache is full, entries are not evicted: values for new keys are created on each request, without being
+ * cached. Cached descriptors are referenced by arrays and ops for their whole lifetime, so evicting them doesn't
+ * release any memory, and replacing them would only cause the working set to be rebuilt repeatedly.<br>
+ * Lookups of cached keys are lock-free.
+ *
+ * @param <K> Key (descriptor) type
+ * @param <V> Cached value type
+ */
+public class BoundedDescriptorCache<K, V> implements DescriptorCache<K, V> {
+    @Getter
+    private final int capacity;
+    private final Map<K, V> cache = new ConcurrentHashMap<>();
+    private final AtomicInteger size = new AtomicInteger(0);
+    private final AtomicLong hits = new AtomicLong(0);
+    private final AtomicLong misses = new AtomicLong(0);
+    private final AtomicLong rejected = new AtomicLong(0);
+
+    /**
+     * @param capacity Maximum number of cached entries
+     */
+    public BoundedDescriptorCache(int capacity) {
+        Preconditions.checkArgument(capacity >= 0, "Capacity must be >= 0, got %s", capacity);
+        this.capacity = capacity;
+    }
+
+    @Override
+    public V getOrCreate(K key, Function<? super K, ? extends V> creator) {
+        V value = cache.get(key);
+        if (value != null) {
+            hits.incrementAndGet();
+            return value;
+        }
+
+        misses.incrementAndGet();
+        if (size.get() >= capacity) {
+            rejected.incrementAndGet();
+            return creator.apply(key);
+        }
+
+        synchronized (this) {
+            value = cache.get(key);
+            if (value != null)
+                return value;
+
+            value = creator.apply(key);
+            if (size.get() < capacity) {
+                cache.put(key, value);
+                size.incrementAndGet();
+                onCached(key, value);
+            } else {
+                rejected.incrementAndGet();
+            }
+            return value;
+        }
+    }
+
+    /**
+     * Called when a newly created value is added to the cache. May be overridden to track the memory
+     * held by the cache
+     *
+     * @param key   Key of the new entry
+     * @param value Value of the new entry
+     */
+    protected void onCached(K key, V value) {
+        //No-op by default
+    }
+
+    @Override
+    public Set<K> keys() {
+        return Collections.unmodifiableSet(cache.keySet());
+    }
+
+    @Override
+    public int size() {
+        return size.get();
+    }
+
+    @Override
+    public synchronized void clear() {
+        cache.clear();
+        size.set(0);
+    }
+
+    @Override
+    public Stats getStats() {
+        return new Stats(hits.get(), misses.get(), rejected.get(), size.get(), capacity);
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ *  ******************************************************************************
+ *  *
+ *  *
+ *  * This program and the accompanying materials are made available under the
+ *  * terms of the Apache License, Version 2.0 which is available at
+ *  * https://www.apache.org/licenses/LICENSE-2.0.
+ *  *
+ *  *  See the NOTICE file distributed with this work for additional
+ *  *  information regarding copyright ownership.
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ *  * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ *  * License for the specific language governing permissions and limitations
+ *  * under the License.
+ *  *
+ *  * SPDX-License-Identifier: Apache-2.0
+ *  *****************************************************************************
+ */
+
+package org.nd4j.linalg.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Concurrent cache of shape and TAD descriptors, used by {@link org.nd4j.linalg.api.ndarray.ShapeInfoProvider}
+ * and {@link TADManager} implementations.<br>
+ * The key set of a populated cache can be saved and used to pre-populate the caches of another process,
+ * see {@link DescriptorCacheSnapshot}.
+ *
+ * @param <K> Key (descriptor) type
+ * @param <V> Cached value type
+ */
+public interface DescriptorCache<K, V> {
+
+    /**
+     * Get the cached value for the given key, creating (and caching, if possible) it if absent
+     *
+     * @param key     Key to get the value for
+     * @param creator Function used to create the value, if it is not cached
+     * @return Cached or newly created value
+     */
+    V getOrCreate(K key, Function<? super K, ? extends V> creator);
+
+    /**
+     * @return Keys of all the cached entries
+     */
+    Set<K> keys();
+
+    /**
+     * @return Number of cached entries
+     */
+    int size();
+
+    /**
+     * Remove all cached entries. Statistics are not reset
+     */
+    void clear();
+
+    /**
+     * @return Hit/miss statistics for this cache
+     */
+    Stats getStats();
+
+    @Data
+    @AllArgsConstructor
+    class Stats {
+        private final long hits;
+        private final long misses;
+        /** Number of created values that were not cached, because the cache was full */
+        private final long rejected;
+        private final int size;
+        private final int capacity;
+
+        public double getHitRate() {
+            long total = hits + misses;
+            return total == 0 ? 0.0 : hits / (double) total;
+        }
+    }
+}
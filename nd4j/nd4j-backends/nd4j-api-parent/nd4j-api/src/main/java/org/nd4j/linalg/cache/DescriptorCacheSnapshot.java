@@ -0,0 +1,177 @@
+/*
+ *  ******************************************************************************
+ *  *
+ *  *
+ *  * This program and the accompanying materials are made available under the
+ *  * terms of the Apache License, Version 2.0 which is available at
+ *  * https://www.apache.org/licenses/LICENSE-2.0.
+ *  *
+ *  *  See the NOTICE file distributed with this work for additional
+ *  *  information regarding copyright ownership.
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ *  * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ *  * License for the specific language governing permissions and limitations
+ *  * under the License.
+ *  *
+ *  * SPDX-License-Identifier: Apache-2.0
+ *  *****************************************************************************
+ */
+
+package org.nd4j.linalg.cache;
+
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.nd4j.linalg.api.shape.LongShapeDescriptor;
+import org.nd4j.linalg.factory.Nd4j;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Snapshot of the keys of the shape information and TAD caches.<br>
+ * Shape information buffers and TADs are otherwise created lazily, on first use, in every new process. A snapshot
+ * taken after warmup (for example, after running a few inference requests) can be used to pre-populate the caches at
+ * startup, either explicitly via {@link #apply()} or by setting the
+ * {@link org.nd4j.common.config.ND4JSystemProperties#DESCRIPTOR_CACHE_SNAPSHOT} system property.<br>
+ * Only the keys are stored: the cached values are recreated by the backend when the snapshot is applied.
+ * Usage:
+ * <pre>
+ * {@code
+ * DescriptorCacheSnapshot.capture().save(file);    //After warmup
+ * DescriptorCacheSnapshot.load(file).apply();      //At startup, in a new process
+ * }
+ * </pre>
+ */
+@Slf4j
+@Getter
+public class DescriptorCacheSnapshot {
+    static final long MAGIC = 0x4E44344A44455343L;     //"ND4JDESC"
+    static final int VERSION = 1;
+
+    private final List<LongShapeDescriptor> shapeDescriptors;
+    private final List<TadDescriptor> tadDescriptors;
+
+    public DescriptorCacheSnapshot(@NonNull Collection<LongShapeDescriptor> shapeDescriptors,
+                                   @NonNull Collection<TadDescriptor> tadDescriptors) {
+        this.shapeDescriptors = new ArrayList<>(shapeDescriptors);
+        this.tadDescriptors = new ArrayList<>(tadDescriptors);
+    }
+
+    /**
+     * Capture the keys currently held by the shape information and TAD caches of the current backend
+     *
+     * @return Snapshot of the cache keys
+     */
+    public static DescriptorCacheSnapshot capture() {
+        return new DescriptorCacheSnapshot(Nd4j.getShapeInfoProvider().getCachedDescriptors(),
+                Nd4j.getExecutioner().getTADManager().getCachedDescriptors());
+    }
+
+    /**
+     * Pre-populate the shape information and TAD caches of the current backend with the keys of this snapshot
+     */
+    public void apply() {
+        Nd4j.getShapeInfoProvider().warmUp(shapeDescriptors);
+        Nd4j.getExecutioner().getTADManager().warmUp(tadDescriptors);
+        log.debug("Pre-populated descriptor caches: {} shape descriptors, {} TAD descriptors", shapeDescriptors.size(),
+                tadDescriptors.size());
+    }
+
+    /**
+     * Save this snapshot to the given file
+     *
+     * @param file File to save to
+     */
+    public void save(@NonNull File file) throws IOException {
+        try (DataOutputStream dos = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+            dos.writeLong(MAGIC);
+            dos.writeInt(VERSION);
+            dos.writeInt(shapeDescriptors.size());
+            for (LongShapeDescriptor d : shapeDescriptors) {
+                writeLongs(dos, d.getShape());
+                writeLongs(dos, d.getStride());
+                dos.writeLong(d.getOffset());
+                dos.writeLong(d.getEws());
+                dos.writeChar(d.getOrder());
+                dos.writeLong(d.getExtras());
+            }
+            dos.writeInt(tadDescriptors.size());
+            for (TadDescriptor d : tadDescriptors) {
+                writeLongs(dos, d.getShape());
+                int[] dimension = d.getDimension();
+                dos.writeInt(dimension == null ? -1 : dimension.length);
+                if (dimension != null) {
+                    for (int i : dimension) {
+                        dos.writeInt(i);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Load a snapshot previously saved with {@link #save(File)}
+     *
+     * @param file File to load from
+     * @return Loaded snapshot
+     */
+    public static DescriptorCacheSnapshot load(@NonNull File file) throws IOException {
+        if (!file.exists())
+            throw new FileNotFoundException("Descriptor cache snapshot file does not exist: " + file.getAbsolutePath());
+
+        try (DataInputStream dis = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (dis.readLong() != MAGIC)
+                throw new IOException("Invalid descriptor cache snapshot file: " + file.getAbsolutePath());
+            int version = dis.readInt();
+            if (version != VERSION)
+                throw new IOException("Unsupported descriptor cache snapshot version: " + version + " (supported: " + VERSION + ")");
+
+            int numShapes = dis.readInt();
+            List<LongShapeDescriptor> shapes = new ArrayList<>(numShapes);
+            for (int i = 0; i < numShapes; i++) {
+                long[] shape = readLongs(dis);
+                long[] stride = readLongs(dis);
+                long offset = dis.readLong();
+                long ews = dis.readLong();
+                char order = dis.readChar();
+                long extras = dis.readLong();
+                shapes.add(new LongShapeDescriptor(shape, stride, offset, ews, order, extras));
+            }
+
+            int numTads = dis.readInt();
+            List<TadDescriptor> tads = new ArrayList<>(numTads);
+            for (int i = 0; i < numTads; i++) {
+                long[] shapeInfo = readLongs(dis);
+                int n = dis.readInt();
+                int[] dimension = null;
+                if (n >= 0) {
+                    dimension = new int[n];
+                    for (int j = 0; j < n; j++) {
+                        dimension[j] = dis.readInt();
+                    }
+                }
+                tads.add(new TadDescriptor(shapeInfo, dimension));
+            }
+            return new DescriptorCacheSnapshot(shapes, tads);
+        }
+    }
+
+    private static void writeLongs(DataOutputStream dos, long[] values) throws IOException {
+        dos.writeInt(values.length);
+        for (long l : values) {
+            dos.writeLong(l);
+        }
+    }
+
+    private static long[] readLongs(DataInputStream dis) throws IOException {
+        long[] out = new long[dis.readInt()];
+        for (int i = 0; i < out.length; i++) {
+            out[i] = dis.readLong();
+        }
+        return out;
+    }
+}
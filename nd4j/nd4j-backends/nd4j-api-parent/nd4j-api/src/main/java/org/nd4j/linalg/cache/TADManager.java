@@ -24,6 +24,9 @@ import org.nd4j.common.primitives.Pair;
 import org.nd4j.linalg.api.buffer.DataBuffer;
 import org.nd4j.linalg.api.ndarray.INDArray;
 
+import java.util.Collection;
+import java.util.Collections;
+
 public interface TADManager {
 
     /**
@@ -47,4 +50,32 @@ public interface TADManager {
      * @return
      */
     long getCachedBytes();
+
+    /**
+     * This method returns descriptors of all cached TADs, i.e. the keys that may be used
+     * to pre-populate the cache of another process via {@link #warmUp(Collection)}
+     *
+     * @return cached TAD descriptors, or empty collection if TADs aren't cached by this implementation
+     */
+    default Collection<TadDescriptor> getCachedDescriptors() {
+        return Collections.emptyList();
+    }
+
+    /**
+     * This method creates and caches TADs for the given descriptors ahead of their first use
+     *
+     * @param descriptors TAD descriptors, as returned by {@link #getCachedDescriptors()}
+     */
+    default void warmUp(Collection<TadDescriptor> descriptors) {
+        //No-op by default
+    }
+
+    /**
+     * This method returns cache hit/miss statistics
+     *
+     * @return cache statistics, or null if TADs aren't cached by this implementation
+     */
+    default DescriptorCache.Stats getCacheStats() {
+        return null;
+    }
 }
@@ -50,6 +50,17 @@ public class TadDescriptor {
     }
 
 
+    /**
+     * Create a descriptor from the shape information of the array, and the dimensions for the TAD
+     * @param shapeInfo the full shape information (as returned by {@link INDArray#shapeInfoJava()})
+     * @param dimension the dimensions for the TAD
+     */
+    public TadDescriptor(long[] shapeInfo, int[] dimension) {
+        this.dimensionLength = dimension == null ? 0 : dimension.length;
+        this.dimension = dimension;
+        this.shape = shapeInfo;
+    }
+
     /**
      * Obtain the values from the shape buffer
      * for the array
@@ -27,9 +27,12 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 public class CachingDataSetIterator implements DataSetIterator {
     private static final Logger log = LoggerFactory.getLogger(DataSetCache.class);
+    private static final Pattern KEY_PATTERN = Pattern.compile("data-set-cache-(.*)-\\d{6,}\\.bin");
 
     private DataSetIterator sourceIterator;
     private DataSetCache cache;
@@ -58,9 +61,25 @@ public class CachingDataSetIterator implements DataSetIterator {
     }
 
     private String makeKey(int index) {
+        return makeKey(namespace, index);
+    }
+
+    /**
+     * @return Cache key of the DataSet with the given index in the given namespace
+     */
+    public static String makeKey(String namespace, int index) {
         return String.format("data-set-cache-%s-%06d.bin", namespace, index);
     }
 
+    /**
+     * @return Namespace of the given cache key, as created by {@link #makeKey(String, int)}, or null if the key was not
+     * created by this iterator
+     */
+    public static String namespaceOf(String key) {
+        Matcher m = KEY_PATTERN.matcher(key);
+        return m.matches() ? m.group(1) : null;
+    }
+
     @Override
     public DataSet next(int num) {
         throw new UnsupportedOperationException();
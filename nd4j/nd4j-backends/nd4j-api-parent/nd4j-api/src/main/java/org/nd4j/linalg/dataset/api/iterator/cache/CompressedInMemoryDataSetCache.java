@@ -0,0 +1,432 @@
+/*
+ *  ******************************************************************************
+ *  *
+ *  *
+ *  * This program and the accompanying materials are made available under the
+ *  * terms of the Apache License, Version 2.0 which is available at
+ *  * https://www.apache.org/licenses/LICENSE-2.0.
+ *  *
+ *  *  See the NOTICE file distributed with this work for additional
+ *  *  information regarding copyright ownership.
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ *  * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ *  * License for the specific language governing permissions and limitations
+ *  * under the License.
+ *  *
+ *  * SPDX-License-Identifier: Apache-2.0
+ *  *****************************************************************************
+ */
+
+package org.nd4j.linalg.dataset.api.iterator.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.nd4j.common.base.Preconditions;
+import org.nd4j.linalg.api.buffer.DataType;
+import org.nd4j.linalg.api.memory.MemoryWorkspace;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.compression.CompressedDataBuffer;
+import org.nd4j.linalg.dataset.DataSet;
+import org.nd4j.linalg.dataset.api.iterator.CachingDataSetIterator;
+import org.nd4j.linalg.factory.Nd4j;
+
+import java.io.Closeable;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * In-memory {@link DataSetCache} that stores the features, labels and mask arrays of each DataSet compressed
+ * (off-heap), using one of the codecs available via {@link Nd4j#getCompressor()}, such as "DEFLATE" (default, fast),
+ * "GZIP" or "NOOP". Optionally, floating point arrays can be stored in half precision (lossy), halving their size
+ * before compression.<br>
+ * When entries are read in the order they were put (as done by {@link org.nd4j.linalg.dataset.api.iterator.CachingDataSetIterator}),
+ * the following entries are decompressed ahead of consumption on a background thread.<br>
+ * The total size of the compressed entries is limited by a byte budget. Once the budget is reached, new entries are not
+ * kept in memory: they are stored in the backing cache (for example, an {@link InFileDataSetCache}) instead, if one is
+ * configured, or dropped otherwise. Note that, for the sequential multi-epoch access pattern of a dataset cache,
+ * this keeps a stable subset of the dataset in memory, whereas evicting least recently used entries would evict every
+ * entry before it is read again. If entries of a namespace were dropped (i.e., no backing cache), that namespace is not
+ * reported as complete. Namespaces are taken from the keys created by {@link CachingDataSetIterator}: a dropped entry
+ * with any other key makes every namespace incomplete.
+ */
+@Slf4j
+public class CompressedInMemoryDataSetCache implements DataSetCache, Closeable {
+    public static final String DEFAULT_COMPRESSION = "DEFLATE";
+    public static final int DEFAULT_PREFETCH = 2;
+
+    private final long maxBytes;
+    private final String compression;
+    private final boolean halfPrecision;
+    private final int prefetch;
+    private final DataSetCache backingCache;
+    private final ExecutorService executor;
+
+    private final Map<String, Entry> cache = new HashMap<>();
+    private final Map<String, Integer> insertionIndex = new HashMap<>();
+    private final List<String> insertionOrder = new ArrayList<>();
+    private final Map<String, Future<DataSet>> prefetched = new HashMap<>();
+    private final Set<String> completeNamespaces = new HashSet<>();
+    //Keys of the entries that were dropped, by namespace (null: unknown namespace)
+    private final Map<String, Set<String>> droppedKeys = new HashMap<>();
+
+    private long usedBytes;
+    private long uncompressedBytes;
+    private long hits;
+    private long misses;
+    private long prefetchHits;
+    private long evictions;
+
+    /**
+     * Create a cache with the default compression, unlimited size and no backing cache
+     */
+    public CompressedInMemoryDataSetCache() {
+        this(new Builder());
+    }
+
+    /**
+     * Create a cache with the default compression and no backing cache
+     *
+     * @param maxBytes Maximum total size of the compressed entries, in bytes
+     */
+    public CompressedInMemoryDataSetCache(long maxBytes) {
+        this(new Builder().maxBytes(maxBytes));
+    }
+
+    protected CompressedInMemoryDataSetCache(Builder builder) {
+        this.maxBytes = builder.maxBytes;
+        this.compression = builder.compression.toUpperCase();
+        this.halfPrecision = builder.halfPrecision;
+        this.prefetch = builder.prefetch;
+        this.backingCache = builder.backingCache;
+        Preconditions.checkArgument(Nd4j.getCompressor().getAvailableCompressors().contains(compression),
+                "Unknown compression algorithm: %s. Available: %s", compression, Nd4j.getCompressor().getAvailableCompressors());
+
+        if (prefetch > 0) {
+            this.executor = Executors.newSingleThreadExecutor(r -> {
+                Thread t = new Thread(r, "CompressedDataSetCache-prefetch");
+                t.setDaemon(true);
+                return t;
+            });
+        } else {
+            this.executor = null;
+        }
+    }
+
+    @Override
+    public synchronized boolean isComplete(String namespace) {
+        if (!completeNamespaces.contains(namespace))
+            return false;
+
+        //Entries that were dropped can only be recovered from the backing cache
+        boolean dropped = droppedKeys.containsKey(namespace) || droppedKeys.containsKey(null);
+        return !dropped || (backingCache != null && backingCache.isComplete(namespace));
+    }
+
+    @Override
+    public synchronized void setComplete(String namespace, boolean value) {
+        if (value) {
+            completeNamespaces.add(namespace);
+        } else {
+            completeNamespaces.remove(namespace);
+        }
+
+        if (backingCache != null)
+            backingCache.setComplete(namespace, value);
+    }
+
+    @Override
+    public DataSet get(String key) {
+        Entry entry;
+        Future<DataSet> future;
+        synchronized (this) {
+            entry = cache.get(key);
+            future = prefetched.remove(key);
+            if (entry == null) {
+                misses++;
+            } else {
+                hits++;
+                if (future != null)
+                    prefetchHits++;
+                schedulePrefetch(key);
+            }
+        }
+
+        if (entry == null)
+            return backingCache == null ? null : backingCache.get(key);
+
+        if (future != null) {
+            try {
+                return future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Interrupted while waiting for prefetched DataSet " + key, e);
+            } catch (ExecutionException e) {
+                throw new RuntimeException("Failed to decompress DataSet " + key, e.getCause());
+            }
+        }
+
+        return decompress(entry);
+    }
+
+    @Override
+    public void put(String key, DataSet dataSet) {
+        Entry entry;
+        try (MemoryWorkspace ws = Nd4j.getMemoryManager().scopeOutOfWorkspaces()) {
+            entry = new Entry(compress(dataSet.getFeatures()), compress(dataSet.getLabels()),
+                    compress(dataSet.getFeaturesMaskArray()), compress(dataSet.getLabelsMaskArray()),
+                    dataSet.getFeatures() == null ? null : dataSet.getFeatures().dataType(),
+                    dataSet.getLabels() == null ? null : dataSet.getLabels().dataType(),
+                    dataSet.getFeaturesMaskArray() == null ? null : dataSet.getFeaturesMaskArray().dataType(),
+                    dataSet.getLabelsMaskArray() == null ? null : dataSet.getLabelsMaskArray().dataType());
+        }
+
+        boolean retained;
+        synchronized (this) {
+            remove(key);
+
+            retained = maxBytes <= 0 || usedBytes + entry.compressedBytes() <= maxBytes;
+            if (retained) {
+                cache.put(key, entry);
+                usedBytes += entry.compressedBytes();
+                uncompressedBytes += entry.uncompressedBytes;
+                if (!insertionIndex.containsKey(key)) {
+                    insertionIndex.put(key, insertionOrder.size());
+                    insertionOrder.add(key);
+                }
+                removeDropped(key);
+            } else {
+                evictions++;
+                droppedKeys.computeIfAbsent(CachingDataSetIterator.namespaceOf(key), k -> new HashSet<>()).add(key);
+                log.debug("Data set cache budget of {} bytes reached: not keeping key {} in memory", maxBytes, key);
+            }
+        }
+
+        if (!retained && backingCache != null)
+            backingCache.put(key, dataSet);
+    }
+
+    @Override
+    public synchronized boolean contains(String key) {
+        return cache.containsKey(key) || (backingCache != null && backingCache.contains(key));
+    }
+
+    /**
+     * Remove the given key from memory (but not from the backing cache)
+     *
+     * @param key Key to remove
+     */
+    public synchronized void remove(String key) {
+        Entry old = cache.remove(key);
+        if (old != null) {
+            usedBytes -= old.compressedBytes();
+            uncompressedBytes -= old.uncompressedBytes;
+        }
+
+        Future<DataSet> f = prefetched.remove(key);
+        if (f != null)
+            f.cancel(false);
+    }
+
+    private void removeDropped(String key) {
+        String namespace = CachingDataSetIterator.namespaceOf(key);
+        Set<String> keys = droppedKeys.get(namespace);
+        if (keys != null && keys.remove(key) && keys.isEmpty())
+            droppedKeys.remove(namespace);
+    }
+
+    /**
+     * @return Statistics for this cache
+     */
+    public synchronized Stats getStats() {
+        return new Stats(cache.size(), usedBytes, uncompressedBytes, maxBytes, hits, misses, prefetchHits, evictions);
+    }
+
+    @Override
+    public synchronized void close() {
+        if (executor != null)
+            executor.shutdownNow();
+        prefetched.clear();
+        cache.clear();
+        usedBytes = 0;
+        uncompressedBytes = 0;
+    }
+
+    //Decompress the entries following the given key (in insertion order) in the background
+    private void schedulePrefetch(String key) {
+        if (executor == null || executor.isShutdown())
+            return;
+
+        Integer idx = insertionIndex.get(key);
+        if (idx == null)
+            return;
+
+        //Discard stale prefetches: entries before the current one won't be read in this pass
+        Iterator<Map.Entry<String, Future<DataSet>>> iter = prefetched.entrySet().iterator();
+        while (iter.hasNext()) {
+            Map.Entry<String, Future<DataSet>> e = iter.next();
+            Integer i = insertionIndex.get(e.getKey());
+            if (i == null || i <= idx || i > idx + prefetch) {
+                e.getValue().cancel(false);
+                iter.remove();
+            }
+        }
+
+        for (int i = idx + 1; i <= idx + prefetch && i < insertionOrder.size(); i++) {
+            String next = insertionOrder.get(i);
+            Entry entry = cache.get(next);
+            if (entry != null && !prefetched.containsKey(next))
+                prefetched.put(next, executor.submit(() -> decompress(entry)));
+        }
+    }
+
+    private INDArray compress(INDArray arr) {
+        if (arr == null || arr.isEmpty())
+            return arr;
+
+        INDArray toCompress = arr;
+        if (halfPrecision && arr.dataType().isFPType() && arr.dataType() != DataType.HALF)
+            toCompress = arr.castTo(DataType.HALF);
+        return Nd4j.getCompressor().compress(toCompress, compression);
+    }
+
+    private static INDArray decompress(INDArray arr, DataType originalType) {
+        if (arr == null || !arr.isCompressed())
+            return arr == null ? null : arr.dup();
+
+        INDArray out = Nd4j.getCompressor().decompress(arr);
+        return out.dataType() == originalType ? out : out.castTo(originalType);
+    }
+
+    private static DataSet decompress(Entry entry) {
+        try (MemoryWorkspace ws = Nd4j.getMemoryManager().scopeOutOfWorkspaces()) {
+            return new DataSet(decompress(entry.features, entry.featuresType), decompress(entry.labels, entry.labelsType),
+                    decompress(entry.featuresMask, entry.featuresMaskType), decompress(entry.labelsMask, entry.labelsMaskType));
+        }
+    }
+
+    private static long compressedBytes(INDArray arr) {
+        if (arr == null)
+            return 0;
+        if (arr.isCompressed())
+            return ((CompressedDataBuffer) arr.data()).getCompressionDescriptor().getCompressedLength();
+        return arr.length() * arr.dataType().width();
+    }
+
+    private static long uncompressedBytes(INDArray arr, DataType type) {
+        return arr == null ? 0 : arr.length() * type.width();
+    }
+
+    private static class Entry {
+        private final INDArray features;
+        private final INDArray labels;
+        private final INDArray featuresMask;
+        private final INDArray labelsMask;
+        private final DataType featuresType;
+        private final DataType labelsType;
+        private final DataType featuresMaskType;
+        private final DataType labelsMaskType;
+        private final long uncompressedBytes;
+
+        private Entry(INDArray features, INDArray labels, INDArray featuresMask, INDArray labelsMask,
+                      DataType featuresType, DataType labelsType, DataType featuresMaskType, DataType labelsMaskType) {
+            this.features = features;
+            this.labels = labels;
+            this.featuresMask = featuresMask;
+            this.labelsMask = labelsMask;
+            this.featuresType = featuresType;
+            this.labelsType = labelsType;
+            this.featuresMaskType = featuresMaskType;
+            this.labelsMaskType = labelsMaskType;
+            this.uncompressedBytes = uncompressedBytes(features, featuresType) + uncompressedBytes(labels, labelsType)
+                    + uncompressedBytes(featuresMask, featuresMaskType) + uncompressedBytes(labelsMask, labelsMaskType);
+        }
+
+        private long compressedBytes() {
+            return CompressedInMemoryDataSetCache.compressedBytes(features) + CompressedInMemoryDataSetCache.compressedBytes(labels)
+                    + CompressedInMemoryDataSetCache.compressedBytes(featuresMask) + CompressedInMemoryDataSetCache.compressedBytes(labelsMask);
+        }
+    }
+
+    /**
+     * Cache statistics
+     */
+    @Data
+    @AllArgsConstructor
+    public static class Stats {
+        private final int entries;
+        private final long usedBytes;
+        private final long uncompressedBytes;
+        private final long maxBytes;
+        private final long hits;
+        private final long misses;
+        private final long prefetchHits;
+        private final long evictions;
+
+        /**
+         * @return Ratio of the uncompressed to the compressed size of the entries held in memory
+         */
+        public double getCompressionRatio() {
+            return usedBytes == 0 ? 1.0 : uncompressedBytes / (double) usedBytes;
+        }
+    }
+
+    public static class Builder {
+        private long maxBytes = 0;
+        private String compression = DEFAULT_COMPRESSION;
+        private boolean halfPrecision = false;
+        private int prefetch = DEFAULT_PREFETCH;
+        private DataSetCache backingCache;
+
+        /**
+         * @param maxBytes Maximum total size of the compressed entries kept in memory, in bytes. 0 (default): no limit
+         */
+        public Builder maxBytes(long maxBytes) {
+            Preconditions.checkArgument(maxBytes >= 0, "Maximum bytes must be >= 0, got %s", maxBytes);
+            this.maxBytes = maxBytes;
+            return this;
+        }
+
+        /**
+         * @param compression Name of the compression algorithm (see {@link org.nd4j.linalg.compression.BasicNDArrayCompressor#getAvailableCompressors()}).
+         *                    Default: {@link #DEFAULT_COMPRESSION}
+         */
+        public Builder compression(@NonNull String compression) {
+            this.compression = compression;
+            return this;
+        }
+
+        /**
+         * @param halfPrecision If true, floating point arrays are stored in half precision before compression (lossy).
+         *                      Arrays are converted back to their original data type when read. Default: false
+         */
+        public Builder halfPrecision(boolean halfPrecision) {
+            this.halfPrecision = halfPrecision;
+            return this;
+        }
+
+        /**
+         * @param prefetch Number of entries to decompress ahead of consumption, in the background. 0 to disable.
+         *                 Default: {@link #DEFAULT_PREFETCH}
+         */
+        public Builder prefetch(int prefetch) {
+            Preconditions.checkArgument(prefetch >= 0, "Prefetch must be >= 0, got %s", prefetch);
+            this.prefetch = prefetch;
+            return this;
+        }
+
+        /**
+         * @param backingCache Cache used for entries that don't fit in the byte budget. May be null
+         */
+        public Builder backingCache(DataSetCache backingCache) {
+            this.backingCache = backingCache;
+            return this;
+        }
+
+        public CompressedInMemoryDataSetCache build() {
+            return new CompressedInMemoryDataSetCache(this);
+        }
+    }
+}
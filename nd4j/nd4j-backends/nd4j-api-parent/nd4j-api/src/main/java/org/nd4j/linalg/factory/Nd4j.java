@@ -66,6 +66,7 @@ import org.nd4j.linalg.api.ops.OpContext;
 import org.nd4j.linalg.api.ops.executioner.DefaultOpExecutioner;
 import org.nd4j.linalg.api.ops.executioner.OpExecutioner;
 import org.nd4j.linalg.api.ops.impl.reduce.Mmul;
+import org.nd4j.linalg.api.ops.impl.reduce.custom.BatchMmul;
 import org.nd4j.linalg.api.ops.impl.scalar.ReplaceNans;
 import org.nd4j.linalg.api.ops.impl.scatter.ScatterUpdate;
 import org.nd4j.linalg.api.ops.impl.shape.Diag;
@@ -86,6 +87,7 @@ import org.nd4j.linalg.api.shape.Shape;
 import org.nd4j.linalg.api.shape.options.ArrayOptionsHelper;
 import org.nd4j.linalg.cache.BasicConstantHandler;
 import org.nd4j.linalg.cache.ConstantHandler;
+import org.nd4j.linalg.cache.DescriptorCacheSnapshot;
 import org.nd4j.linalg.compression.BasicNDArrayCompressor;
 import org.nd4j.linalg.compression.CompressedDataBuffer;
 import org.nd4j.linalg.convolution.ConvolutionInstance;
@@ -931,6 +933,133 @@ public class Nd4j {
         return matmul(a,b, null);
     }
 
+    /**
+     * Batched matrix multiplication: computes op(a[i]) * op(b[i]) for each pair of matrices, where op(x) means
+     * transpose x (or not) depending on the setting of transposeA and transposeB.<br>
+     * All matrices in a must have the same shape, as must all matrices in b. Unlike calling {@link #gemm(INDArray, INDArray, boolean, boolean)}
+     * in a loop, the whole batch is executed as a single native op, in parallel over the batch - which is considerably
+     * faster for large numbers of small matrices.
+     *
+     * @param a          First batch of matrices
+     * @param b          Second batch of matrices
+     * @param transposeA if true: transpose matrices of a before mmul
+     * @param transposeB if true: transpose matrices of b before mmul
+     * @return Results, one c order matrix for each pair of input matrices
+     */
+    public static INDArray[] batchMmul(@NonNull INDArray[] a, @NonNull INDArray[] b, boolean transposeA, boolean transposeB) {
+        Preconditions.checkArgument(a.length > 0 && a.length == b.length, "Batches must be non-empty and have the same length: got %s and %s",
+                a.length, b.length);
+        long[] shapeA = a[0].shape();
+        long[] shapeB = b[0].shape();
+        for (int i = 0; i < a.length; i++) {
+            Preconditions.checkArgument(Arrays.equals(shapeA, a[i].shape()) && Arrays.equals(shapeB, b[i].shape()),
+                    "All matrices in a batch must have the same shape: got a[%s]=%ndShape, a[0]=%ndShape, b[%s]=%ndShape, b[0]=%ndShape",
+                    i, a[i], a[0], i, b[i], b[0]);
+        }
+        Preconditions.checkArgument(shapeA.length == 2 && shapeB.length == 2, "Batched mmul requires rank 2 matrices: got shapes %s and %s",
+                shapeA, shapeB);
+        long inner = transposeA ? shapeA[0] : shapeA[1];
+        Preconditions.checkArgument(inner == (transposeB ? shapeB[1] : shapeB[0]), "Matrix shapes are not compatible for mmul: %s and %s (transposeA=%s, transposeB=%s)",
+                shapeA, shapeB, transposeA, transposeB);
+
+        long[] outShape = {transposeA ? shapeA[1] : shapeA[0], transposeB ? shapeB[0] : shapeB[1]};
+        INDArray[] out = new INDArray[a.length];
+        for (int i = 0; i < out.length; i++) {
+            out[i] = Nd4j.createUninitialized(a[0].dataType(), outShape, 'c');
+        }
+        execBatchMmul(a, b, out, transposeA, transposeB);
+        return out;
+    }
+
+    /**
+     * Batched matrix multiplication of two stacks of matrices: computes op(a[i]) * op(b[i]) for each i, where a and b
+     * are rank 3 arrays of shape [batchSize, rows, columns].<br>
+     * See {@link #batchMmul(INDArray[], INDArray[], boolean, boolean)}
+     *
+     * @param a          First stack of matrices, rank 3
+     * @param b          Second stack of matrices, rank 3
+     * @param transposeA if true: transpose matrices of a before mmul
+     * @param transposeB if true: transpose matrices of b before mmul
+     * @return Result, a rank 3 c order array of shape [batchSize, rows, columns]
+     */
+    public static INDArray batchMmul(@NonNull INDArray a, @NonNull INDArray b, boolean transposeA, boolean transposeB) {
+        Preconditions.checkArgument(a.rank() == 3 && b.rank() == 3, "Batched mmul requires rank 3 arrays: got shapes %ndShape and %ndShape", a, b);
+        Preconditions.checkArgument(a.size(0) == b.size(0), "Arrays must have the same batch size: got shapes %ndShape and %ndShape", a, b);
+        long inner = transposeA ? a.size(1) : a.size(2);
+        Preconditions.checkArgument(inner == (transposeB ? b.size(2) : b.size(1)), "Array shapes are not compatible for mmul: %ndShape and %ndShape (transposeA=%s, transposeB=%s)",
+                a, b, transposeA, transposeB);
+
+        int batchSize = (int) a.size(0);
+        INDArray out = Nd4j.createUninitialized(a.dataType(), new long[]{batchSize, transposeA ? a.size(2) : a.size(1),
+                transposeB ? b.size(1) : b.size(2)}, 'c');
+        if (batchSize == 0)
+            return out;
+
+        INDArray[] as = new INDArray[batchSize];
+        INDArray[] bs = new INDArray[batchSize];
+        INDArray[] outs = new INDArray[batchSize];
+        for (int i = 0; i < batchSize; i++) {
+            as[i] = a.tensorAlongDimension(i, 1, 2);
+            bs[i] = b.tensorAlongDimension(i, 1, 2);
+            outs[i] = out.tensorAlongDimension(i, 1, 2);
+        }
+        execBatchMmul(as, bs, outs, transposeA, transposeB);
+        return out;
+    }
+
+    /**
+     * Batched matrix multiplication of two stacks of matrices, without transposes.<br>
+     * See {@link #batchMmul(INDArray, INDArray, boolean, boolean)}
+     */
+    public static INDArray batchMmul(INDArray a, INDArray b) {
+        return batchMmul(a, b, false, false);
+    }
+
+    /**
+     * Execute the native batched gemm op, writing to c order outputs. The native op works on column major matrices
+     * only, so inputs and outputs are passed as column major views where possible:<br>
+     * - a c order output is the column major view of its transpose, computed as c^T = op(b)^T * op(a)^T<br>
+     * - a c order input is passed as the (column major) view of its transpose, with the transpose flag inverted<br>
+     * Other inputs are copied.
+     */
+    private static void execBatchMmul(INDArray[] a, INDArray[] b, INDArray[] c, boolean transposeA, boolean transposeB) {
+        INDArray[] x = b;
+        INDArray[] y = a;
+        boolean transposeX = !transposeB;
+        boolean transposeY = !transposeA;
+        INDArray[] z = new INDArray[c.length];
+        for (int i = 0; i < c.length; i++) {
+            z[i] = c[i].transpose();
+        }
+
+        boolean xViaTranspose = !isColumnMajor(x[0]) && isColumnMajor(x[0].transpose());
+        boolean yViaTranspose = !isColumnMajor(y[0]) && isColumnMajor(y[0].transpose());
+        INDArray[] xs = new INDArray[x.length];
+        INDArray[] ys = new INDArray[y.length];
+        for (int i = 0; i < x.length; i++) {
+            xs[i] = asColumnMajor(x[i], xViaTranspose);
+            ys[i] = asColumnMajor(y[i], yViaTranspose);
+        }
+
+        DataType dt = a[0].dataType();
+        BatchMmul op = new BatchMmul(Nd4j.scalar(dt, 1.0), Nd4j.scalar(dt, 0.0), xs, ys,
+                transposeX != xViaTranspose, transposeY != yViaTranspose);
+        op.addOutputArgument(z);
+        exec(op);
+    }
+
+    private static boolean isColumnMajor(INDArray m) {
+        return (m.size(0) == 1 || m.stride(0) == 1) && (m.size(1) == 1 || m.stride(1) == m.size(0));
+    }
+
+    private static INDArray asColumnMajor(INDArray m, boolean viaTranspose) {
+        if (viaTranspose) {
+            INDArray t = m.transpose();
+            return isColumnMajor(t) ? t : m.dup('c').transpose();
+        }
+        return isColumnMajor(m) ? m : m.dup('f');
+    }
+
     /**
      * The factory used for creating ndarrays
      *
@@ -5320,6 +5449,18 @@ public class Nd4j {
                 }
             }
 
+            String snapshot = System.getProperty(ND4JSystemProperties.DESCRIPTOR_CACHE_SNAPSHOT);
+            if (snapshot != null) {
+                File snapshotFile = new File(snapshot);
+                if (snapshotFile.exists()) {
+                    try {
+                        DescriptorCacheSnapshot.load(snapshotFile).apply();
+                    } catch (Exception e2) {
+                        logger.warning("Failed to pre-populate descriptor caches from [" + snapshot + "], got exception: " + e2);
+                    }
+                }
+            }
+
             backend.logBackendInit();
         } catch (Exception e) {
             throw new RuntimeException(e);
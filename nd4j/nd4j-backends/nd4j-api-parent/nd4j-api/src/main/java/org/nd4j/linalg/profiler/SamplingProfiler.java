@@ -0,0 +1,319 @@
+/*
+ *  ******************************************************************************
+ *  *
+ *  *
+ *  * This program and the accompanying materials are made available under the
+ *  * terms of the Apache License, Version 2.0 which is available at
+ *  * https://www.apache.org/licenses/LICENSE-2.0.
+ *  *
+ *  *  See the NOTICE file distributed with this work for additional
+ *  *  information regarding copyright ownership.
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ *  * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ *  * License for the specific language governing permissions and limitations
+ *  * under the License.
+ *  *
+ *  * SPDX-License-Identifier: Apache-2.0
+ *  *****************************************************************************
+ */
+
+package org.nd4j.linalg.profiler;
+
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.nd4j.common.base.Preconditions;
+import org.nd4j.common.config.ND4JSystemProperties;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.api.ops.CustomOp;
+import org.nd4j.linalg.api.ops.Op;
+import org.nd4j.linalg.api.ops.OpContext;
+import org.nd4j.linalg.profiler.data.LatencyHistogram;
+import org.nd4j.linalg.profiler.data.OpSample;
+
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Low overhead op profiler, intended to be left enabled in production.<br>
+ * Unlike {@link OpProfiler}, which processes every op execution, this profiler records only 1 in N op executions
+ * on each thread (op name, duration, data type and shape of the first input). Samples are written to per-thread
+ * single-producer buffers without any locking; when sampling is disabled, the cost per op is a single volatile read.
+ * <br>
+ * Samples are collected via {@link #drain()}, which also aggregates them into per-op duration histograms
+ * ({@link #getHistograms()}). Alternatively, samples and histograms can be exported periodically to a
+ * {@link SampleExporter} - for example, to publish them as metrics or JFR events.<br>
+ * If the per-thread buffer is full (i.e., samples are not drained frequently enough), new samples are dropped, see
+ * {@link #getDroppedCount()}.<br>
+ * Sampling can be enabled at startup with the {@link ND4JSystemProperties#SAMPLING_PROFILER_RATE} system property.
+ */
+@Slf4j
+public class SamplingProfiler {
+    public static final int DEFAULT_BUFFER_SIZE = 4096;
+
+    private static final SamplingProfiler INSTANCE = new SamplingProfiler();
+
+    /**
+     * Receives the samples collected by the profiler, see {@link #startExport(SampleExporter, long, TimeUnit)}
+     */
+    public interface SampleExporter {
+        /**
+         * @param histograms Cumulative duration histograms (nanoseconds), by op name
+         * @param samples    Samples recorded since the last export
+         */
+        void export(Map<String, LatencyHistogram> histograms, List<OpSample> samples);
+    }
+
+    private volatile int samplingRate;
+    private volatile int bufferSize = DEFAULT_BUFFER_SIZE;
+
+    private final ThreadLocal<SampleBuffer> buffers = ThreadLocal.withInitial(this::newBuffer);
+    private final List<SampleBuffer> allBuffers = new CopyOnWriteArrayList<>();
+    private final Map<String, LatencyHistogram> histograms = new HashMap<>();
+    private final AtomicLong dropped = new AtomicLong(0);
+
+    private ScheduledExecutorService exportService;
+
+    protected SamplingProfiler() {
+        this.samplingRate = Integer.parseInt(System.getProperty(ND4JSystemProperties.SAMPLING_PROFILER_RATE, "0"));
+        long exportPeriod = Long.parseLong(System.getProperty(ND4JSystemProperties.SAMPLING_PROFILER_EXPORT_PERIOD, "0"));
+        if (samplingRate > 0 && exportPeriod > 0) {
+            startExport((h, s) -> {
+                for (Map.Entry<String, LatencyHistogram> e : new TreeMap<>(h).entrySet()) {
+                    log.info("Op [{}] duration (ns): {}", e.getKey(), e.getValue());
+                }
+            }, exportPeriod, TimeUnit.SECONDS);
+        }
+    }
+
+    public static SamplingProfiler getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Set the sampling rate: 1 in samplingRate op executions is recorded, on each thread
+     *
+     * @param samplingRate Sampling rate. 0 to disable sampling
+     */
+    public void setSamplingRate(int samplingRate) {
+        Preconditions.checkArgument(samplingRate >= 0, "Sampling rate must be >= 0, got %s", samplingRate);
+        this.samplingRate = samplingRate;
+    }
+
+    public int getSamplingRate() {
+        return samplingRate;
+    }
+
+    public boolean isEnabled() {
+        return samplingRate > 0;
+    }
+
+    /**
+     * Set the maximum number of samples buffered per thread, between calls to {@link #drain()}.
+     * Only applies to threads that haven't recorded any sample yet
+     *
+     * @param bufferSize Buffer size, in number of samples
+     */
+    public void setBufferSize(int bufferSize) {
+        Preconditions.checkArgument(bufferSize > 0, "Buffer size must be > 0, got %s", bufferSize);
+        this.bufferSize = bufferSize;
+    }
+
+    /**
+     * @return Number of samples dropped because the per-thread buffer was full
+     */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    /**
+     * Record the execution of the given op, if it is sampled
+     *
+     * @param op        Op that was executed
+     * @param oc        Op context used for execution, may be null
+     * @param timeStart Time at which the execution started, as returned by {@link System#nanoTime()}
+     */
+    public void record(Op op, OpContext oc, long timeStart) {
+        int rate = samplingRate;
+        if (rate <= 0)
+            return;
+
+        SampleBuffer buffer = buffers.get();
+        if (++buffer.counter < rate)
+            return;
+        buffer.counter = 0;
+
+        INDArray first = oc != null ? firstArray(oc.getInputArrays()) : op.x();
+        record(buffer, op.opName(), first, timeStart);
+    }
+
+    /**
+     * Record the execution of the given op, if it is sampled
+     *
+     * @param op        Op that was executed
+     * @param oc        Op context used for execution, may be null
+     * @param timeStart Time at which the execution started, as returned by {@link System#nanoTime()}
+     */
+    public void record(CustomOp op, OpContext oc, long timeStart) {
+        int rate = samplingRate;
+        if (rate <= 0)
+            return;
+
+        SampleBuffer buffer = buffers.get();
+        if (++buffer.counter < rate)
+            return;
+        buffer.counter = 0;
+
+        INDArray first = firstArray(oc != null ? oc.getInputArrays() : op.inputArguments());
+        record(buffer, op.opName(), first, timeStart);
+    }
+
+    private void record(SampleBuffer buffer, String opName, INDArray first, long timeStart) {
+        long duration = System.nanoTime() - timeStart;
+        OpSample sample = new OpSample(opName, duration, first == null ? null : first.dataType(),
+                first == null ? null : first.shape(), System.currentTimeMillis());
+        if (!buffer.offer(sample))
+            dropped.incrementAndGet();
+    }
+
+    private static INDArray firstArray(List<INDArray> arrays) {
+        return arrays == null || arrays.isEmpty() ? null : arrays.get(0);
+    }
+
+    /**
+     * Collect the samples recorded on all threads since the last call, and add them to the per-op histograms
+     *
+     * @return Samples recorded since the last call
+     */
+    public synchronized List<OpSample> drain() {
+        List<OpSample> out = new ArrayList<>();
+        for (SampleBuffer b : allBuffers) {
+            int before = out.size();
+            b.drainTo(out);
+            //Buffers of terminated threads won't receive any new samples
+            if (out.size() == before && !b.owner.isAlive())
+                allBuffers.remove(b);
+        }
+
+        for (OpSample s : out) {
+            histograms.computeIfAbsent(s.getOpName(), k -> new LatencyHistogram()).recordValue(s.getDurationNanos());
+        }
+        return out;
+    }
+
+    /**
+     * Get the duration histograms (in nanoseconds) of all samples collected so far, by op name. Pending samples
+     * are collected first, see {@link #drain()}
+     *
+     * @return Copy of the histograms
+     */
+    public synchronized Map<String, LatencyHistogram> getHistograms() {
+        drain();
+        return copyHistograms();
+    }
+
+    private Map<String, LatencyHistogram> copyHistograms() {
+        Map<String, LatencyHistogram> out = new HashMap<>();
+        for (Map.Entry<String, LatencyHistogram> e : histograms.entrySet()) {
+            out.put(e.getKey(), e.getValue().copy());
+        }
+        return out;
+    }
+
+    /**
+     * Discard all pending samples and histograms
+     */
+    public synchronized void reset() {
+        drain();
+        histograms.clear();
+        dropped.set(0);
+    }
+
+    /**
+     * Periodically export the collected samples and histograms to the given exporter, on a background thread.
+     * Any previously started export is stopped
+     *
+     * @param exporter Exporter to use
+     * @param period   Export period
+     * @param unit     Unit of the export period
+     */
+    public synchronized void startExport(@NonNull SampleExporter exporter, long period, @NonNull TimeUnit unit) {
+        Preconditions.checkArgument(period > 0, "Export period must be > 0, got %s", period);
+        stopExport();
+        exportService = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "SamplingProfiler-export");
+            t.setDaemon(true);
+            return t;
+        });
+        exportService.scheduleAtFixedRate(() -> {
+            List<OpSample> samples;
+            Map<String, LatencyHistogram> h;
+            synchronized (SamplingProfiler.this) {
+                samples = drain();
+                h = copyHistograms();
+            }
+            try {
+                exporter.export(h, samples);
+            } catch (Throwable t) {
+                log.warn("Sampling profiler export failed", t);
+            }
+        }, period, period, unit);
+    }
+
+    /**
+     * Stop the periodic export started by {@link #startExport(SampleExporter, long, TimeUnit)}, if any
+     */
+    public synchronized void stopExport() {
+        if (exportService != null) {
+            exportService.shutdownNow();
+            exportService = null;
+        }
+    }
+
+    private SampleBuffer newBuffer() {
+        SampleBuffer b = new SampleBuffer(Thread.currentThread(), bufferSize);
+        allBuffers.add(b);
+        return b;
+    }
+
+    /**
+     * Single producer (owner thread), single consumer (drain, under the profiler's lock) ring buffer
+     */
+    private static class SampleBuffer {
+        private final Thread owner;
+        private final OpSample[] slots;
+        private final AtomicLong writeSeq = new AtomicLong(0);
+        private final AtomicLong readSeq = new AtomicLong(0);
+        //Number of executions since the last sample; only accessed by the owner thread
+        private int counter;
+
+        private SampleBuffer(Thread owner, int size) {
+            this.owner = owner;
+            this.slots = new OpSample[size];
+        }
+
+        private boolean offer(OpSample sample) {
+            long w = writeSeq.get();
+            if (w - readSeq.get() >= slots.length)
+                return false;
+            slots[(int) (w % slots.length)] = sample;
+            writeSeq.lazySet(w + 1);
+            return true;
+        }
+
+        private void drainTo(List<OpSample> out) {
+            long r = readSeq.get();
+            long w = writeSeq.get();
+            for (; r < w; r++) {
+                int idx = (int) (r % slots.length);
+                out.add(slots[idx]);
+                slots[idx] = null;
+            }
+            readSeq.lazySet(r);
+        }
+    }
+}
@@ -0,0 +1,170 @@
+/*
+ *  ******************************************************************************
+ *  *
+ *  *
+ *  * This program and the accompanying materials are made available under the
+ *  * terms of the Apache License, Version 2.0 which is available at
+ *  * https://www.apache.org/licenses/LICENSE-2.0.
+ *  *
+ *  *  See the NOTICE file distributed with this work for additional
+ *  *  information regarding copyright ownership.
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ *  * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ *  * License for the specific language governing permissions and limitations
+ *  * under the License.
+ *  *
+ *  * SPDX-License-Identifier: Apache-2.0
+ *  *****************************************************************************
+ */
+
+package org.nd4j.linalg.profiler.data;
+
+import org.nd4j.common.base.Preconditions;
+
+import java.util.Arrays;
+
+/**
+ * Histogram of non-negative long values (typically, durations in nanoseconds) with bounded relative error, using
+ * the log-linear bucketing of HdrHistogram: values are grouped into power-of-two ranges, each divided into a fixed
+ * number of linear sub-buckets. With the default 7 bits of precision, values are recorded with a relative error
+ * below 1/64 (~1.6%), over the whole long range, using a fixed amount of memory.<br>
+ * This class is not thread safe.
+ */
+public class LatencyHistogram {
+    public static final int DEFAULT_PRECISION_BITS = 7;
+
+    private final int precisionBits;
+    private final int subBucketCount;
+    private final int subBucketHalfCount;
+    private final long[] counts;
+
+    private long totalCount;
+    private long sum;
+    private long min = Long.MAX_VALUE;
+    private long max;
+
+    public LatencyHistogram() {
+        this(DEFAULT_PRECISION_BITS);
+    }
+
+    /**
+     * @param precisionBits Number of bits of precision: values are recorded with a relative error below
+     *                      2^-(precisionBits-1)
+     */
+    public LatencyHistogram(int precisionBits) {
+        Preconditions.checkArgument(precisionBits >= 2 && precisionBits <= 16, "Precision bits must be between 2 and 16, got %s", precisionBits);
+        this.precisionBits = precisionBits;
+        this.subBucketCount = 1 << precisionBits;
+        this.subBucketHalfCount = subBucketCount / 2;
+        int maxBucket = 63 - (precisionBits - 1);
+        this.counts = new long[maxBucket * subBucketHalfCount + subBucketCount];
+    }
+
+    /**
+     * Record a value
+     *
+     * @param value Value to record. Negative values are recorded as 0
+     */
+    public void recordValue(long value) {
+        if (value < 0)
+            value = 0;
+        counts[indexFor(value)]++;
+        totalCount++;
+        sum += value;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+    }
+
+    /**
+     * Add all values recorded by the other histogram to this histogram
+     *
+     * @param other Histogram to add. Must have the same precision
+     */
+    public void add(LatencyHistogram other) {
+        Preconditions.checkArgument(other.precisionBits == precisionBits, "Histograms have different precision: %s vs. %s",
+                precisionBits, other.precisionBits);
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] += other.counts[i];
+        }
+        totalCount += other.totalCount;
+        sum += other.sum;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+
+    /**
+     * @return Copy of this histogram
+     */
+    public LatencyHistogram copy() {
+        LatencyHistogram out = new LatencyHistogram(precisionBits);
+        out.add(this);
+        return out;
+    }
+
+    public void reset() {
+        Arrays.fill(counts, 0);
+        totalCount = 0;
+        sum = 0;
+        min = Long.MAX_VALUE;
+        max = 0;
+    }
+
+    public long getTotalCount() {
+        return totalCount;
+    }
+
+    public long getMin() {
+        return totalCount == 0 ? 0 : min;
+    }
+
+    public long getMax() {
+        return max;
+    }
+
+    public double getMean() {
+        return totalCount == 0 ? 0.0 : sum / (double) totalCount;
+    }
+
+    /**
+     * Get the value at the given percentile: the highest value (within the precision of the histogram) such that
+     * the given percentage of recorded values are less or equal to it
+     *
+     * @param percentile Percentile, between 0 and 100
+     * @return Value at the percentile, or 0 if no values were recorded
+     */
+    public long getValueAtPercentile(double percentile) {
+        Preconditions.checkArgument(percentile >= 0 && percentile <= 100, "Percentile must be between 0 and 100, got %s", percentile);
+        if (totalCount == 0)
+            return 0;
+
+        long countAtPercentile = Math.max(1, (long) Math.ceil(percentile / 100.0 * totalCount));
+        long cumulative = 0;
+        for (int i = 0; i < counts.length; i++) {
+            cumulative += counts[i];
+            if (cumulative >= countAtPercentile)
+                return Math.min(highestEquivalentValue(i), max);
+        }
+        return max;
+    }
+
+    private int indexFor(long value) {
+        int msb = 63 - Long.numberOfLeadingZeros(value | (subBucketCount - 1));
+        int bucket = msb - (precisionBits - 1);
+        int subBucket = (int) (value >>> bucket);
+        return bucket * subBucketHalfCount + subBucket;
+    }
+
+    private long highestEquivalentValue(int index) {
+        int bucket = index < subBucketCount ? 0 : (index - subBucketCount) / subBucketHalfCount + 1;
+        long subBucket = index - (long) bucket * subBucketHalfCount;
+        return ((subBucket + 1) << bucket) - 1;
+    }
+
+    @Override
+    public String toString() {
+        return "LatencyHistogram(count=" + totalCount + ", min=" + getMin() + ", mean=" + String.format("%.1f", getMean())
+                + ", p50=" + getValueAtPercentile(50) + ", p90=" + getValueAtPercentile(90) + ", p99=" + getValueAtPercentile(99)
+                + ", max=" + max + ")";
+    }
+}
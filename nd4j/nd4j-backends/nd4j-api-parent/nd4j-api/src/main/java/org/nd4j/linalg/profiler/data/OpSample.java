@@ -0,0 +1,41 @@
+/*
+ *  ******************************************************************************
+ *  *
+ *  *
+ *  * This program and the accompanying materials are made available under the
+ *  * terms of the Apache License, Version 2.0 which is available at
+ *  * https://www.apache.org/licenses/LICENSE-2.0.
+ *  *
+ *  *  See the NOTICE file distributed with this work for additional
+ *  *  information regarding copyright ownership.
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ *  * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ *  * License for the specific language governing permissions and limitations
+ *  * under the License.
+ *  *
+ *  * SPDX-License-Identifier: Apache-2.0
+ *  *****************************************************************************
+ */
+
+package org.nd4j.linalg.profiler.data;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.nd4j.linalg.api.buffer.DataType;
+
+/**
+ * Single op execution recorded by the {@link org.nd4j.linalg.profiler.SamplingProfiler}
+ */
+@Data
+@AllArgsConstructor
+public class OpSample {
+    private final String opName;
+    private final long durationNanos;
+    /** Data type of the first input, or null if the op has no inputs */
+    private final DataType dataType;
+    /** Shape of the first input, or null if the op has no inputs */
+    private final long[] shape;
+    /** Time at which the op execution finished, as returned by {@link System#currentTimeMillis()} */
+    private final long timestamp;
+}
@@ -0,0 +1,129 @@
+/*
+ *  ******************************************************************************
+ *  *
+ *  *
+ *  * This program and the accompanying materials are made available under the
+ *  * terms of the Apache License, Version 2.0 which is available at
+ *  * https://www.apache.org/licenses/LICENSE-2.0.
+ *  *
+ *  *  See the NOTICE file distributed with this work for additional
+ *  *  information regarding copyright ownership.
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ *  * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ *  * License for the specific language governing permissions and limitations
+ *  * under the License.
+ *  *
+ *  * SPDX-License-Identifier: Apache-2.0
+ *  *****************************************************************************
+ */
+
+package org.nd4j.linalg.sparse;
+
+import lombok.NonNull;
+import org.nd4j.common.base.Preconditions;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.api.ops.impl.shape.Gather;
+import org.nd4j.linalg.factory.Nd4j;
+
+/**
+ * Sparse matrix in coordinate (COO) format.<br>
+ * Stores the value, row index and column index of each non-zero entry, in any order. Duplicate entries are summed.
+ * COO is the simplest format to build incrementally; use {@link #toCsr()} for repeated row gathers.
+ */
+public class CooMatrix extends SparseMatrix {
+
+    private final INDArray rowIndices;
+    private final INDArray columnIndices;
+
+    /**
+     * @param values        Non-zero values. Floating point vector of length nnz
+     * @param rowIndices    Row index of each value. Integer vector of length nnz
+     * @param columnIndices Column index of each value. Integer vector of length nnz
+     * @param rows          Number of rows of the matrix
+     * @param columns       Number of columns of the matrix
+     */
+    public CooMatrix(@NonNull INDArray values, @NonNull INDArray rowIndices, @NonNull INDArray columnIndices,
+                     long rows, long columns) {
+        super(values, rows, columns);
+        this.rowIndices = toIndexArray(rowIndices, "Row indices");
+        this.columnIndices = toIndexArray(columnIndices, "Column indices");
+        Preconditions.checkArgument(length(this.rowIndices) == nnz() && length(this.columnIndices) == nnz(),
+                "Number of row indices (%s) and column indices (%s) must equal number of values (%s)",
+                length(this.rowIndices), length(this.columnIndices), nnz());
+    }
+
+    @Override
+    public SparseFormat getFormat() {
+        return SparseFormat.COO;
+    }
+
+    @Override
+    public INDArray rowIndices() {
+        return rowIndices;
+    }
+
+    @Override
+    public INDArray columnIndices() {
+        return columnIndices;
+    }
+
+    @Override
+    public CooMatrix withValues(@NonNull INDArray values) {
+        Preconditions.checkArgument(length(values) == nnz(),
+                "Expected %s values (one per stored entry), got %s", nnz(), length(values));
+        return new CooMatrix(values, rowIndices, columnIndices, rows, columns);
+    }
+
+    /**
+     * Gather the specified rows. The entries are grouped by row first, so for repeated gathers it is more efficient
+     * to convert the matrix once with {@link #toCsr()}
+     */
+    @Override
+    public CooMatrix getRows(@NonNull long... rows) {
+        return toCsr().getRows(rows).toCoo();
+    }
+
+    /**
+     * Convert to CSR format. Entries are grouped by row with a (stable) counting sort, in O(nnz + rows)
+     */
+    @Override
+    public CsrMatrix toCsr() {
+        Preconditions.checkState(rows < Integer.MAX_VALUE && nnz() <= Integer.MAX_VALUE,
+                "Cannot convert matrix with %s rows and %s entries to CSR format", rows, nnz());
+        long[] rowPointers = new long[(int) rows + 1];
+        if (nnz() == 0) {
+            return new CsrMatrix(values, columnIndices, Nd4j.createFromArray(rowPointers), columns);
+        }
+
+        long[] r = rowIndices.toLongVector();
+        for (long row : r) {
+            Preconditions.checkState(row >= 0 && row < rows, "Invalid row index %s for matrix with %s rows", row, rows);
+            rowPointers[(int) row + 1]++;
+        }
+        for (int i = 0; i < rows; i++) {
+            rowPointers[i + 1] += rowPointers[i];
+        }
+
+        long[] next = rowPointers.clone();
+        long[] permutation = new long[r.length];
+        for (int j = 0; j < r.length; j++) {
+            permutation[(int) next[(int) r[j]]++] = j;
+        }
+
+        INDArray idx = Nd4j.createFromArray(permutation);
+        INDArray v = Nd4j.exec(new Gather(values, idx, 0))[0];
+        INDArray c = Nd4j.exec(new Gather(columnIndices, idx, 0))[0];
+        return new CsrMatrix(v, c, Nd4j.createFromArray(rowPointers), columns);
+    }
+
+    @Override
+    public CooMatrix toCoo() {
+        return this;
+    }
+
+    @Override
+    public long bytes() {
+        return nnz() * (dataType().width() + 16L);
+    }
+}
@@ -0,0 +1,193 @@
+/*
+ *  ******************************************************************************
+ *  *
+ *  *
+ *  * This program and the accompanying materials are made available under the
+ *  * terms of the Apache License, Version 2.0 which is available at
+ *  * https://www.apache.org/licenses/LICENSE-2.0.
+ *  *
+ *  *  See the NOTICE file distributed with this work for additional
+ *  *  information regarding copyright ownership.
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ *  * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ *  * License for the specific language governing permissions and limitations
+ *  * under the License.
+ *  *
+ *  * SPDX-License-Identifier: Apache-2.0
+ *  *****************************************************************************
+ */
+
+package org.nd4j.linalg.sparse;
+
+import lombok.Getter;
+import lombok.NonNull;
+import org.nd4j.common.base.Preconditions;
+import org.nd4j.linalg.api.buffer.DataType;
+import org.nd4j.linalg.api.memory.MemoryWorkspace;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.api.ops.impl.shape.Gather;
+import org.nd4j.linalg.factory.Nd4j;
+
+/**
+ * Sparse matrix in compressed sparse row (CSR) format.<br>
+ * Stores the values and column indices of the non-zero entries ordered by row, and a row pointer vector of length
+ * rows+1: the entries of row i are at positions [rowPointers[i], rowPointers[i+1]) of the values and column index
+ * vectors. Column indices within a row don't need to be sorted; duplicate entries are summed.<br>
+ * Row gathers ({@link #getRows(long...)}) only touch the selected rows, which makes this the preferred format for
+ * minibatches of sparse features.
+ */
+public class CsrMatrix extends SparseMatrix {
+
+    private final INDArray columnIndices;
+    @Getter
+    private final INDArray rowPointers;
+    //Row index of each entry, expanded from the row pointers on first use
+    private transient INDArray rowIndices;
+
+    /**
+     * @param values        Non-zero values, ordered by row. Floating point vector of length nnz
+     * @param columnIndices Column index of each value. Integer vector of length nnz
+     * @param rowPointers   Row pointers: non-decreasing integer vector of length rows+1, starting at 0 and ending at nnz
+     * @param columns       Number of columns of the matrix
+     */
+    public CsrMatrix(@NonNull INDArray values, @NonNull INDArray columnIndices, @NonNull INDArray rowPointers, long columns) {
+        super(values, length(rowPointers) - 1, columns);
+        this.columnIndices = toIndexArray(columnIndices, "Column indices");
+        this.rowPointers = toIndexArray(rowPointers, "Row pointers");
+        Preconditions.checkArgument(length(this.columnIndices) == nnz(),
+                "Number of column indices (%s) must equal number of values (%s)", length(this.columnIndices), nnz());
+        Preconditions.checkArgument(this.rowPointers.getLong(0) == 0 && this.rowPointers.getLong(rows) == nnz(),
+                "Row pointers must start at 0 and end at nnz (%s), got [%s, ..., %s]", nnz(),
+                this.rowPointers.getLong(0), this.rowPointers.getLong(rows));
+    }
+
+    /**
+     * Create a CSR matrix from the non-zero entries of a dense matrix
+     *
+     * @param dense Dense matrix (rank 2, floating point)
+     */
+    public static CsrMatrix fromDense(@NonNull INDArray dense) {
+        Preconditions.checkArgument(dense.rank() == 2, "Expected rank 2 array, got array with shape %ndShape", dense);
+        Preconditions.checkArgument(dense.dataType().isFPType(),
+                "Expected floating point array, got %s", dense.dataType());
+        long rows = dense.size(0);
+        long columns = dense.size(1);
+        double[] data = dense.castTo(DataType.DOUBLE).reshape('c', dense.length()).toDoubleVector();
+
+        int nnz = 0;
+        for (double d : data) {
+            if (d != 0.0)
+                nnz++;
+        }
+
+        double[] values = new double[nnz];
+        long[] columnIndices = new long[nnz];
+        long[] rowPointers = new long[(int) rows + 1];
+        int k = 0;
+        for (int i = 0; i < rows; i++) {
+            for (int j = 0; j < columns; j++) {
+                double d = data[(int) (i * columns + j)];
+                if (d != 0.0) {
+                    values[k] = d;
+                    columnIndices[k++] = j;
+                }
+            }
+            rowPointers[i + 1] = k;
+        }
+
+        if (nnz == 0) {
+            return new CsrMatrix(Nd4j.empty(dense.dataType()), Nd4j.empty(DataType.INT64),
+                    Nd4j.createFromArray(rowPointers), columns);
+        }
+        return new CsrMatrix(Nd4j.createFromArray(values).castTo(dense.dataType()), Nd4j.createFromArray(columnIndices),
+                Nd4j.createFromArray(rowPointers), columns);
+    }
+
+    @Override
+    public SparseFormat getFormat() {
+        return SparseFormat.CSR;
+    }
+
+    @Override
+    public INDArray columnIndices() {
+        return columnIndices;
+    }
+
+    @Override
+    public INDArray rowIndices() {
+        if (rowIndices == null) {
+            long nnz = nnz();
+            Preconditions.checkState(nnz <= Integer.MAX_VALUE,
+                    "Cannot expand row indices for more than Integer.MAX_VALUE entries: %s", nnz);
+            long[] ptr = rowPointers.toLongVector();
+            long[] r = new long[(int) nnz];
+            for (int i = 0; i < rows; i++) {
+                for (long j = ptr[i]; j < ptr[i + 1]; j++) {
+                    r[(int) j] = i;
+                }
+            }
+            //Cached for the lifetime of this matrix: must not be allocated in a workspace
+            try (MemoryWorkspace ws = Nd4j.getWorkspaceManager().scopeOutOfWorkspaces()) {
+                rowIndices = nnz == 0 ? Nd4j.empty(DataType.INT64) : Nd4j.createFromArray(r);
+            }
+        }
+        return rowIndices;
+    }
+
+    @Override
+    public CsrMatrix withValues(@NonNull INDArray values) {
+        Preconditions.checkArgument(length(values) == nnz(),
+                "Expected %s values (one per stored entry), got %s", nnz(), length(values));
+        CsrMatrix ret = new CsrMatrix(values, columnIndices, rowPointers, columns);
+        ret.rowIndices = rowIndices;
+        return ret;
+    }
+
+    @Override
+    public CsrMatrix getRows(@NonNull long... rows) {
+        long[] ptr = rowPointers.toLongVector();
+        long[] newPtr = new long[rows.length + 1];
+        for (int k = 0; k < rows.length; k++) {
+            long r = rows[k];
+            Preconditions.checkArgument(r >= 0 && r < this.rows,
+                    "Invalid row index %s: must be in range 0 to %s inclusive", r, this.rows - 1);
+            newPtr[k + 1] = newPtr[k] + ptr[(int) r + 1] - ptr[(int) r];
+        }
+
+        long total = newPtr[rows.length];
+        if (total == 0) {
+            return new CsrMatrix(Nd4j.empty(dataType()), Nd4j.empty(DataType.INT64), Nd4j.createFromArray(newPtr), columns);
+        }
+        Preconditions.checkArgument(total <= Integer.MAX_VALUE,
+                "Cannot gather more than Integer.MAX_VALUE entries: %s", total);
+
+        long[] positions = new long[(int) total];
+        int p = 0;
+        for (long r : rows) {
+            for (long j = ptr[(int) r]; j < ptr[(int) r + 1]; j++) {
+                positions[p++] = j;
+            }
+        }
+
+        INDArray idx = Nd4j.createFromArray(positions);
+        INDArray v = Nd4j.exec(new Gather(values, idx, 0))[0];
+        INDArray c = Nd4j.exec(new Gather(columnIndices, idx, 0))[0];
+        return new CsrMatrix(v, c, Nd4j.createFromArray(newPtr), columns);
+    }
+
+    @Override
+    public CsrMatrix toCsr() {
+        return this;
+    }
+
+    @Override
+    public CooMatrix toCoo() {
+        return new CooMatrix(values, rowIndices(), columnIndices, rows, columns);
+    }
+
+    @Override
+    public long bytes() {
+        return nnz() * (dataType().width() + 8L) + (rows + 1) * 8L;
+    }
+}
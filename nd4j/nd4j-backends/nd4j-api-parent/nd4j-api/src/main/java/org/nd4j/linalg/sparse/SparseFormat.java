@@ -0,0 +1,38 @@
+/*
+ *  ******************************************************************************
+ *  *
+ *  *
+ *  * This program and the accompanying materials are made available under the
+ *  * terms of the Apache License, Version 2.0 which is available at
+ *  * https://www.apache.org/licenses/LICENSE-2.0.
+ *  *
+ *  *  See the NOTICE file distributed with this work for additional
+ *  *  information regarding copyright ownership.
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ *  * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ *  * License for the specific language governing permissions and limitations
+ *  * under the License.
+ *  *
+ *  * SPDX-License-Identifier: Apache-2.0
+ *  *****************************************************************************
+ */
+
+package org.nd4j.linalg.sparse;
+
+/**
+ * Storage layout of a {@link SparseMatrix}
+ */
+public enum SparseFormat {
+    /**
+     * Compressed sparse row: values and column indices of the non-zero entries ordered by row, plus a row pointer
+     * array of length rows+1, such that the entries of row i are at positions [rowPointers[i], rowPointers[i+1]).
+     * Efficient for row gathers and sparse-dense matrix multiplication
+     */
+    CSR,
+    /**
+     * Coordinate list: values, row indices and column indices of the non-zero entries, in any order. Duplicate
+     * entries are summed. Efficient for incremental construction
+     */
+    COO
+}
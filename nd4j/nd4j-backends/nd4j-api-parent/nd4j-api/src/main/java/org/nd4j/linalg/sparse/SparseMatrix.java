@@ -0,0 +1,375 @@
+/*
+ *  ******************************************************************************
+ *  *
+ *  *
+ *  * This program and the accompanying materials are made available under the
+ *  * terms of the Apache License, Version 2.0 which is available at
+ *  * https://www.apache.org/licenses/LICENSE-2.0.
+ *  *
+ *  *  See the NOTICE file distributed with this work for additional
+ *  *  information regarding copyright ownership.
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ *  * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ *  * License for the specific language governing permissions and limitations
+ *  * under the License.
+ *  *
+ *  * SPDX-License-Identifier: Apache-2.0
+ *  *****************************************************************************
+ */
+
+package org.nd4j.linalg.sparse;
+
+import lombok.Getter;
+import lombok.NonNull;
+import org.nd4j.common.base.Preconditions;
+import org.nd4j.linalg.api.buffer.DataType;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.api.ops.impl.scatter.ScatterNdAdd;
+import org.nd4j.linalg.api.ops.impl.shape.Gather;
+import org.nd4j.linalg.api.ops.impl.shape.GatherNd;
+import org.nd4j.linalg.api.ops.impl.transforms.segment.UnsortedSegmentSum;
+import org.nd4j.linalg.factory.Nd4j;
+
+import java.util.Arrays;
+import java.util.function.UnaryOperator;
+
+/**
+ * A sparse matrix (rank 2), storing only its non-zero entries.<br>
+ * The non-zero values are stored in a vector INDArray, and their positions in INT64 index vectors, with the layout
+ * given by {@link #getFormat()} (see {@link CsrMatrix} and {@link CooMatrix}). Memory use is therefore proportional to
+ * the number of non-zero entries, instead of rows * columns as for a dense array.<br>
+ * Sparse-dense operations are executed with native ops (gather, segment sum, scatter) over the non-zero entries only,
+ * without densifying the sparse matrix: for example {@link #mmul(INDArray)} costs O(nnz * columns(other)) instead of
+ * O(rows * columns * columns(other)).<br>
+ * Sparse matrices are immutable: operations return new matrices or dense arrays.
+ */
+public abstract class SparseMatrix {
+
+    protected final long rows;
+    protected final long columns;
+    @Getter
+    protected final INDArray values;
+
+    protected SparseMatrix(@NonNull INDArray values, long rows, long columns) {
+        Preconditions.checkArgument(rows >= 0 && columns >= 0, "Invalid sparse matrix shape: [%s, %s]", rows, columns);
+        Preconditions.checkArgument(values.isEmpty() || values.isVectorOrScalar(),
+                "Values must be a vector, got array with shape %ndShape", values);
+        Preconditions.checkArgument(values.dataType().isFPType(),
+                "Values must be a floating point array, got %s", values.dataType());
+        this.values = values.isEmpty() || values.rank() == 1 ? values : values.reshape(values.length());
+        this.rows = rows;
+        this.columns = columns;
+    }
+
+    /**
+     * @return Storage layout of this matrix
+     */
+    public abstract SparseFormat getFormat();
+
+    /**
+     * @return Row index of each stored entry, as an INT64 vector of length {@link #nnz()}
+     */
+    public abstract INDArray rowIndices();
+
+    /**
+     * @return Column index of each stored entry, as an INT64 vector of length {@link #nnz()}
+     */
+    public abstract INDArray columnIndices();
+
+    /**
+     * Create a matrix with the same sparsity pattern (and format) as this matrix, but with different values
+     *
+     * @param values New values, one per stored entry
+     */
+    public abstract SparseMatrix withValues(INDArray values);
+
+    /**
+     * Gather the specified rows into a new sparse matrix of shape [rows.length, columns()], in the same format as this
+     * matrix. Rows may be repeated, and may be in any order
+     *
+     * @param rows Indices of the rows to gather
+     */
+    public abstract SparseMatrix getRows(long... rows);
+
+    /**
+     * @return This matrix in CSR format. Returns this matrix if it is already a CSR matrix
+     */
+    public abstract CsrMatrix toCsr();
+
+    /**
+     * @return This matrix in COO format. Returns this matrix if it is already a COO matrix
+     */
+    public abstract CooMatrix toCoo();
+
+    /**
+     * @return Number of stored (non-zero) entries
+     */
+    public long nnz() {
+        return values.isEmpty() ? 0 : values.length();
+    }
+
+    /**
+     * @return Number of rows
+     */
+    public long rows() {
+        return rows;
+    }
+
+    /**
+     * @return Number of columns
+     */
+    public long columns() {
+        return columns;
+    }
+
+    /**
+     * @return Shape of the matrix: [rows, columns]
+     */
+    public long[] shape() {
+        return new long[]{rows, columns};
+    }
+
+    /**
+     * @return Data type of the values
+     */
+    public DataType dataType() {
+        return values.dataType();
+    }
+
+    /**
+     * @return Fraction of the entries that are stored: nnz / (rows * columns)
+     */
+    public double density() {
+        return rows == 0 || columns == 0 ? 0.0 : nnz() / ((double) rows * columns);
+    }
+
+    /**
+     * @return Number of bytes used by the values and indices of this matrix
+     */
+    public abstract long bytes();
+
+    /**
+     * @return This matrix with the values cast to the specified type. Returns this matrix if the type is unchanged
+     */
+    public SparseMatrix castTo(@NonNull DataType dataType) {
+        if (dataType == dataType())
+            return this;
+        return withValues(values.castTo(dataType));
+    }
+
+    /**
+     * Convert this matrix to a dense 'c' order array of shape [rows, columns]. Duplicate entries are summed
+     */
+    public INDArray toDense() {
+        INDArray out = Nd4j.zeros(dataType(), rows, columns);
+        if (nnz() == 0)
+            return out;
+        return Nd4j.exec(new ScatterNdAdd(out, coordinates(), values))[0];
+    }
+
+    /**
+     * Sparse-dense matrix multiplication: this * other
+     *
+     * @param other Dense matrix, with shape [columns(), n] and the same data type as this matrix
+     * @return Dense result, with shape [rows(), n]
+     */
+    public INDArray mmul(INDArray other) {
+        return mmul(other, false, null);
+    }
+
+    /**
+     * Sparse-dense matrix multiplication into the specified array: result = this * other
+     *
+     * @param other  Dense matrix, with shape [columns(), n] and the same data type as this matrix
+     * @param result Array to store the result in, with shape [rows(), n]
+     * @return The result array
+     */
+    public INDArray mmul(INDArray other, @NonNull INDArray result) {
+        return mmul(other, false, result);
+    }
+
+    /**
+     * Sparse-dense matrix multiplication with this matrix transposed: this^T * other. The transpose is not
+     * materialized
+     *
+     * @param other Dense matrix, with shape [rows(), n] and the same data type as this matrix
+     * @return Dense result, with shape [columns(), n]
+     */
+    public INDArray transposeMmul(INDArray other) {
+        return mmul(other, true, null);
+    }
+
+    /**
+     * Sparse-dense matrix multiplication with this matrix transposed, into the specified array: result = this^T * other
+     *
+     * @param other  Dense matrix, with shape [rows(), n] and the same data type as this matrix
+     * @param result Array to store the result in, with shape [columns(), n]
+     * @return The result array
+     */
+    public INDArray transposeMmul(INDArray other, @NonNull INDArray result) {
+        return mmul(other, true, result);
+    }
+
+    /**
+     * Dense-sparse matrix multiplication: other * this. Computed as (this^T * other^T)^T
+     *
+     * @param other Dense matrix, with shape [m, rows()] and the same data type as this matrix
+     * @return Dense result, with shape [m, columns()]
+     */
+    public INDArray rmmul(INDArray other) {
+        Preconditions.checkArgument(other.rank() == 2, "Expected rank 2 array, got array with shape %ndShape", other);
+        return mmul(other.transpose(), true, null).transpose();
+    }
+
+    /**
+     * Gather, scale, segment-sum: each stored entry (i, j, v) adds v * other[j, :] to row i of the result (or
+     * v * other[i, :] to row j, when transposed). Work and temporary memory are proportional to nnz * other.columns()
+     */
+    protected INDArray mmul(@NonNull INDArray other, boolean transposeThis, INDArray result) {
+        long inner = transposeThis ? rows : columns;
+        long outRows = transposeThis ? columns : rows;
+        Preconditions.checkArgument(other.rank() == 2 && other.size(0) == inner,
+                "Cannot multiply sparse matrix with shape %s%s by array with shape %ndShape: expected [%s, n] array",
+                Arrays.toString(shape()), (transposeThis ? "^T" : ""), other, inner);
+        Preconditions.checkArgument(other.dataType() == dataType(),
+                "Data types must match: sparse matrix is %s, dense array is %s", dataType(), other.dataType());
+        Preconditions.checkArgument(outRows <= Integer.MAX_VALUE,
+                "Output with more than Integer.MAX_VALUE rows is not supported: %s", outRows);
+        if (result != null) {
+            Preconditions.checkArgument(result.rank() == 2 && result.size(0) == outRows && result.size(1) == other.size(1),
+                    "Result array must have shape [%s, %s], got %ndShape", outRows, other.size(1), result);
+        }
+
+        if (nnz() == 0) {
+            if (result == null)
+                return Nd4j.zeros(dataType(), outRows, other.size(1));
+            return result.assign(0);
+        }
+
+        INDArray gatherIdx = transposeThis ? rowIndices() : columnIndices();
+        INDArray segmentIdx = transposeThis ? columnIndices() : rowIndices();
+
+        INDArray gathered = Nd4j.exec(new Gather(other, gatherIdx, 0))[0];
+        gathered.muliColumnVector(values.reshape(values.length(), 1));
+
+        UnsortedSegmentSum op = new UnsortedSegmentSum(gathered, segmentIdx, (int) outRows);
+        if (result != null)
+            op.addOutputArgument(result);
+        return Nd4j.exec(op)[0];
+    }
+
+    /**
+     * Elementwise (Hadamard) product with a dense array of the same shape. Only the stored entries are evaluated, so
+     * the result has the same sparsity pattern as this matrix
+     *
+     * @param other Dense array with shape [rows(), columns()]
+     */
+    public SparseMatrix mul(@NonNull INDArray other) {
+        checkSameShape(other);
+        if (nnz() == 0)
+            return this;
+        INDArray atEntries = Nd4j.exec(new GatherNd(other.castTo(dataType()), coordinates()))[0];
+        return withValues(values.mul(atEntries));
+    }
+
+    /**
+     * Multiply all values by a scalar
+     */
+    public SparseMatrix mul(Number scalar) {
+        return withValues(values.mul(scalar));
+    }
+
+    /**
+     * Divide all values by a scalar
+     */
+    public SparseMatrix div(Number scalar) {
+        return withValues(values.div(scalar));
+    }
+
+    /**
+     * Add this matrix to a dense array of the same shape. The result is dense; other is not modified
+     *
+     * @param other Dense array with shape [rows(), columns()]
+     * @return Dense result: this + other
+     */
+    public INDArray add(@NonNull INDArray other) {
+        checkSameShape(other);
+        INDArray dense = other.castTo(dataType());
+        if (nnz() == 0)
+            return dense.dup();
+        return Nd4j.exec(new ScatterNdAdd(dense, coordinates(), values))[0];
+    }
+
+    /**
+     * Apply an elementwise function to the stored values, for example {@code m.transform(Transforms::sqrt)}.<br>
+     * Note that the function is only applied to the stored entries: it should map 0 to 0 (such as abs, sqrt, tanh or
+     * sign), otherwise the result differs from applying the function to the dense matrix
+     *
+     * @param fn Function to apply. It must return a new array with the same shape as its input
+     */
+    public SparseMatrix transform(@NonNull UnaryOperator<INDArray> fn) {
+        if (nnz() == 0)
+            return this;
+        return withValues(fn.apply(values));
+    }
+
+    /**
+     * Sum along the specified dimension, as a dense vector: row sums (length rows()) for dimension 1, column sums
+     * (length columns()) for dimension 0
+     */
+    public INDArray sum(int dimension) {
+        Preconditions.checkArgument(dimension == 0 || dimension == 1, "Dimension must be 0 or 1, got %s", dimension);
+        long length = dimension == 0 ? columns : rows;
+        Preconditions.checkArgument(length <= Integer.MAX_VALUE,
+                "Output with more than Integer.MAX_VALUE elements is not supported: %s", length);
+        if (nnz() == 0)
+            return Nd4j.zeros(dataType(), length);
+        INDArray segmentIdx = dimension == 0 ? columnIndices() : rowIndices();
+        return Nd4j.exec(new UnsortedSegmentSum(values, segmentIdx, (int) length))[0];
+    }
+
+    /**
+     * Create a sparse matrix from the non-zero entries of a dense matrix
+     *
+     * @param dense  Dense matrix (rank 2, floating point)
+     * @param format Format of the returned matrix
+     */
+    public static SparseMatrix fromDense(@NonNull INDArray dense, @NonNull SparseFormat format) {
+        Preconditions.checkArgument(dense.rank() == 2, "Expected rank 2 array, got array with shape %ndShape", dense);
+        CsrMatrix csr = CsrMatrix.fromDense(dense);
+        return format == SparseFormat.CSR ? csr : csr.toCoo();
+    }
+
+    /**
+     * @return [nnz, 2] INT64 array with the (row, column) coordinates of each stored entry, as used by the nd ops
+     */
+    protected INDArray coordinates() {
+        long nnz = nnz();
+        return Nd4j.hstack(rowIndices().reshape(nnz, 1), columnIndices().reshape(nnz, 1));
+    }
+
+    protected void checkSameShape(INDArray other) {
+        Preconditions.checkArgument(other.rank() == 2 && other.size(0) == rows && other.size(1) == columns,
+                "Expected array with shape [%s, %s], got array with shape %ndShape", rows, columns, other);
+    }
+
+    protected static INDArray toIndexArray(INDArray indices, String name) {
+        Preconditions.checkArgument(indices.isEmpty() || indices.isVectorOrScalar(),
+                "%s must be a vector, got array with shape %ndShape", name, indices);
+        Preconditions.checkArgument(indices.dataType().isIntType(),
+                "%s must be an integer array, got %s", name, indices.dataType());
+        INDArray out = indices.dataType() == DataType.INT64 ? indices : indices.castTo(DataType.INT64);
+        return out.isEmpty() || out.rank() == 1 ? out : out.reshape(out.length());
+    }
+
+    protected static long length(INDArray vector) {
+        return vector.isEmpty() ? 0 : vector.length();
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "(shape=[" + rows + ", " + columns + "], nnz=" + nnz()
+                + ", dataType=" + dataType() + ")";
+    }
+}
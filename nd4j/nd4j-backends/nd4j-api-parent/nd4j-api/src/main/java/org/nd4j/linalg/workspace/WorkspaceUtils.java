@@ -117,13 +117,15 @@ public class WorkspaceUtils {
 
             if (!ws.isScopeActive()) {
                 throw new ND4JWorkspaceException( (msg == null ? "" : msg + ": ") + "Array uses leaked workspace pointer " +
-                        "from workspace " + ws.getId() + "\nAll open workspaces: " + allOpenWorkspaces());
+                        "from workspace " + ws.getId() + "\nAll open workspaces: " + allOpenWorkspaces() +
+                        Nd4j.getWorkspaceManager().getLeakDetector().describeEscape(ws, array.data(), false));
             }
 
             if (ws.getGenerationId() != array.data().getGenerationId()) {
                 throw new ND4JWorkspaceException( (msg == null ? "" : msg + ": ") + "Array outdated workspace pointer " +
                         "from workspace " + ws.getId() + " (array generation " + array.data().getGenerationId() +
-                        ", current workspace generation " + ws.getGenerationId()  + ")\nAll open workspaces: " + allOpenWorkspaces());
+                        ", current workspace generation " + ws.getGenerationId()  + ")\nAll open workspaces: " + allOpenWorkspaces() +
+                        Nd4j.getWorkspaceManager().getLeakDetector().describeEscape(ws, array.data(), true));
             }
         }
     }
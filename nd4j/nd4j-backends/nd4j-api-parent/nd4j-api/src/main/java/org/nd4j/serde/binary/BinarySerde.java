@@ -21,13 +21,18 @@
 package org.nd4j.serde.binary;
 
 import lombok.extern.slf4j.Slf4j;
+import lombok.NonNull;
 import lombok.val;
-import org.bytedeco.javacpp.BytePointer;
+import org.bytedeco.javacpp.*;
+import org.nd4j.common.base.Preconditions;
+import org.nd4j.common.util.ArrayUtil;
 import org.nd4j.linalg.api.buffer.DataBuffer;
 import org.nd4j.linalg.api.buffer.DataType;
 import org.nd4j.linalg.api.concurrency.AffinityManager;
 import org.nd4j.linalg.api.ndarray.INDArray;
 import org.nd4j.linalg.api.shape.Shape;
+import org.nd4j.linalg.api.shape.options.ArrayOptionsHelper;
+import org.nd4j.linalg.api.shape.options.ArrayType;
 import org.nd4j.linalg.compression.CompressedDataBuffer;
 import org.nd4j.linalg.compression.CompressionDescriptor;
 import org.nd4j.linalg.exception.ND4JArraySizeException;
@@ -44,6 +49,10 @@ import java.nio.channels.WritableByteChannel;
 
 @Slf4j
 public class BinarySerde {
+    /**
+     * Size of the frame header: number of arrays (int) and frame length in bytes (int)
+     */
+    public static final int FRAME_HEADER_LENGTH = 8;
 
     /**
      * Create an ndarray
@@ -337,4 +346,173 @@ public class BinarySerde {
             return Nd4j.getDataBufferFactory().createLong(result);
         }
     }
+
+    /**
+     * Returns the number of bytes required to write the given arrays as a single frame via
+     * {@link #writeFrame(ByteBuffer, INDArray...)}
+     *
+     * @param arrays the arrays to compute the frame size for
+     * @return the frame size in bytes (always a multiple of 8)
+     */
+    public static int frameSizeFor(@NonNull INDArray... arrays) {
+        long size = FRAME_HEADER_LENGTH;
+        for (INDArray arr : arrays) {
+            size += frameEntrySizeFor(arr);
+        }
+        if (size > Integer.MAX_VALUE)
+            throw new ND4JArraySizeException();
+        return (int) size;
+    }
+
+    private static long frameEntrySizeFor(INDArray arr) {
+        Preconditions.checkArgument(arr != null, "Unable to write null arrays to a frame");
+        Preconditions.checkArgument(!arr.isCompressed(), "Compressed arrays can't be written to a frame");
+        Preconditions.checkArgument(arr.dataType() != DataType.UTF8, "UTF8 arrays can't be written to a frame");
+        //2 ints (rank, data type) + shape information + data, padded so that the next entry is 8 byte aligned
+        long dataLength = arr.isEmpty() ? 0 : arr.length() * arr.dataType().width();
+        return 8 + 8L * Shape.shapeInfoLength(arr.rank()) + align(dataLength);
+    }
+
+    private static long align(long length) {
+        return (length + 7) & ~7L;
+    }
+
+    /**
+     * Write the given arrays as a single frame to the target buffer, starting at its current position.
+     * The position of the target buffer is advanced past the frame.<br>
+     * Frame layout:
+     * 4 bytes int for the number of arrays
+     * 4 bytes int for the frame length (in bytes, including the header)
+     * for each array: rank, data type, shape buffer and data buffer (same layout as {@link #toByteBuffer(INDArray)}),
+     * padded to a multiple of 8 bytes<br>
+     * The header of each array is written field by field, and its data with a single bulk copy. Views are
+     * duplicated first.
+     *
+     * @param target the buffer to write to. Must have at least {@link #frameSizeFor(INDArray...)} bytes remaining
+     * @param arrays the arrays to write
+     * @return the number of bytes written
+     */
+    public static int writeFrame(@NonNull ByteBuffer target, @NonNull INDArray... arrays) {
+        int frameSize = frameSizeFor(arrays);
+        Preconditions.checkArgument(target.remaining() >= frameSize, "Not enough space in target buffer: frame requires %s bytes, %s remaining",
+                frameSize, target.remaining());
+
+        // ensure we send data to host memory
+        Nd4j.getExecutioner().commit();
+
+        ByteBuffer out = target.duplicate().order(ByteOrder.nativeOrder());
+        int start = out.position();
+        out.putInt(arrays.length);
+        out.putInt(frameSize);
+        for (INDArray arr : arrays) {
+            if (arr.isView())
+                arr = arr.dup(arr.ordering());
+
+            out.putInt(arr.rank());
+            out.putInt(arr.dataType().ordinal());
+            long[] shapeInfo = arr.shapeInfoJava();
+            int shapeInfoLength = Shape.shapeInfoLength(arr.rank());
+            for (int i = 0; i < shapeInfoLength; i++) {
+                out.putLong(shapeInfo[i]);
+            }
+
+            if (!arr.isEmpty()) {
+                Nd4j.getAffinityManager().ensureLocation(arr, AffinityManager.Location.HOST);
+                int dataLength = (int) (arr.length() * arr.dataType().width());
+                ByteBuffer data = arr.data().pointer().asByteBuffer();
+                ((Buffer) data).position(0);
+                ((Buffer) data).limit(dataLength);
+                out.put(data);
+                ((Buffer) out).position(out.position() + (int) (align(dataLength) - dataLength));
+            }
+        }
+
+        ((Buffer) target).position(start + frameSize);
+        return frameSize;
+    }
+
+    /**
+     * Read a frame written by {@link #writeFrame(ByteBuffer, INDArray...)}, starting at the current position of the
+     * source buffer. The position of the source buffer is advanced past the frame.<br>
+     * For direct buffers, the returned arrays are views of the source buffer memory (no data is copied): they are
+     * only valid as long as the source buffer is alive and the frame is not overwritten, and modifying them modifies
+     * the source buffer. Arrays read from heap buffers are copied.
+     *
+     * @param source the buffer to read from
+     * @return the arrays of the frame
+     */
+    public static INDArray[] readFrame(@NonNull ByteBuffer source) {
+        ByteBuffer in = source.duplicate().order(ByteOrder.nativeOrder());
+        int start = in.position();
+        int numArrays = in.getInt();
+        int frameSize = in.getInt();
+        if (numArrays < 0 || frameSize < FRAME_HEADER_LENGTH || frameSize > source.remaining())
+            throw new IllegalStateException("Invalid frame header: " + numArrays + " arrays, " + frameSize + " bytes. Corrupt serialization?");
+
+        INDArray[] result = new INDArray[numArrays];
+        for (int a = 0; a < numArrays; a++) {
+            int rank = in.getInt();
+            if (rank < 0)
+                throw new IllegalStateException("Found negative integer. Corrupt serialization?");
+            DataType type = DataType.values()[in.getInt()];
+            long[] shapeInfo = new long[Shape.shapeInfoLength(rank)];
+            for (int i = 0; i < shapeInfo.length; i++) {
+                shapeInfo[i] = in.getLong();
+            }
+
+            long[] shape = Shape.shape(shapeInfo);
+            if (ArrayOptionsHelper.arrayType(shapeInfo) == ArrayType.EMPTY) {
+                result[a] = rank == 0 ? Nd4j.empty(type) : Nd4j.create(type, shape);
+                continue;
+            }
+
+            long length = ArrayUtil.prodLong(shape);
+            int dataLength = (int) (length * type.width());
+            ByteBuffer slice = in.duplicate();
+            ((Buffer) slice).limit(in.position() + dataLength);
+            slice = slice.slice().order(ByteOrder.nativeOrder());
+            ((Buffer) in).position(in.position() + (int) align(dataLength));
+
+            DataBuffer buffer;
+            if (slice.isDirect()) {
+                buffer = Nd4j.createBuffer(pointerFor(slice, type), length, type);
+            } else {
+                buffer = Nd4j.createBuffer(type, length, false);
+                ByteBuffer data = buffer.pointer().asByteBuffer();
+                ((Buffer) data).position(0);
+                data.put(slice);
+            }
+            result[a] = Nd4j.create(buffer, shape, Shape.stride(shapeInfo), 0, Shape.order(shapeInfo), type);
+        }
+
+        ((Buffer) source).position(start + frameSize);
+        return result;
+    }
+
+    private static Pointer pointerFor(ByteBuffer bb, DataType type) {
+        switch (type) {
+            case DOUBLE:
+                return new DoublePointer(bb.asDoubleBuffer());
+            case FLOAT:
+                return new FloatPointer(bb.asFloatBuffer());
+            case LONG:
+            case UINT64:
+                return new LongPointer(bb.asLongBuffer());
+            case INT:
+            case UINT32:
+                return new IntPointer(bb.asIntBuffer());
+            case HALF:
+            case BFLOAT16:
+            case SHORT:
+            case UINT16:
+                return new ShortPointer(bb.asShortBuffer());
+            case BOOL:
+                return new BooleanPointer(new BytePointer(bb));
+            case BYTE:
+            case UBYTE:
+                return new BytePointer(bb);
+            default:
+                throw new UnsupportedOperationException("Unable to read arrays of type " + type + " from a frame");
+        }
+    }
 }
@@ -0,0 +1,159 @@
+/*
+ *  ******************************************************************************
+ *  *
+ *  *
+ *  * This program and the accompanying materials are made available under the
+ *  * terms of the Apache License, Version 2.0 which is available at
+ *  * https://www.apache.org/licenses/LICENSE-2.0.
+ *  *
+ *  *  See the NOTICE file distributed with this work for additional
+ *  *  information regarding copyright ownership.
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ *  * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ *  * License for the specific language governing permissions and limitations
+ *  * under the License.
+ *  *
+ *  * SPDX-License-Identifier: Apache-2.0
+ *  *****************************************************************************
+ */
+
+package org.nd4j.serde.binary;
+
+import lombok.Getter;
+import lombok.NonNull;
+import org.nd4j.common.base.Preconditions;
+import org.nd4j.linalg.api.ndarray.INDArray;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Off-heap ring buffer for streaming arrays between a producer and a consumer thread, without per-array allocations.<br>
+ * The producer writes batches of arrays as frames (see {@link BinarySerde#writeFrame(ByteBuffer, INDArray...)}) into a
+ * single direct buffer; the consumer reads them back as views of the ring buffer memory (no data is copied), and
+ * releases each frame once it is done with its arrays. Frames are never split: if a frame doesn't fit before the end
+ * of the buffer, the writer skips to the start of the buffer.<br>
+ * Arrays returned by {@link #poll()} are only valid until their frame is released: after that, the memory may be
+ * overwritten by the producer at any time.<br>
+ * This class supports a single producer thread and a single consumer thread (which may be the same thread).
+ */
+public class BinarySerdeRingBuffer {
+    //Frame header value (number of arrays) marking the unused space at the end of the buffer
+    private static final int WRAP_MARKER = -1;
+
+    private final ByteBuffer buffer;
+    @Getter
+    private final int capacity;
+
+    //Monotonic byte counters: the index in the buffer is the counter modulo the capacity
+    private final AtomicLong writePosition = new AtomicLong();
+    private final AtomicLong releasePosition = new AtomicLong();
+    //Only accessed by the consumer thread
+    private long readPosition;
+
+    /**
+     * @param capacity Capacity of the ring buffer, in bytes. Rounded up to a multiple of 8
+     */
+    public BinarySerdeRingBuffer(int capacity) {
+        Preconditions.checkArgument(capacity > 0, "Capacity must be positive, got %s", capacity);
+        this.capacity = (capacity + 7) & ~7;
+        this.buffer = ByteBuffer.allocateDirect(this.capacity).order(ByteOrder.nativeOrder());
+    }
+
+    /**
+     * Write the given arrays as a single frame, if there is enough free space in the buffer
+     *
+     * @param arrays Arrays to write
+     * @return True if the frame was written, false if there's not enough free space (i.e., the consumer
+     * has to release frames first)
+     */
+    public boolean offer(@NonNull INDArray... arrays) {
+        int frameSize = BinarySerde.frameSizeFor(arrays);
+        Preconditions.checkArgument(frameSize <= capacity, "Frame size (%s bytes) exceeds ring buffer capacity (%s bytes)",
+                frameSize, capacity);
+
+        long write = writePosition.get();
+        int index = (int) (write % capacity);
+        int tail = capacity - index;
+        long required = tail < frameSize ? tail + frameSize : frameSize;
+        if (write + required - releasePosition.get() > capacity)
+            return false;
+
+        if (tail < frameSize) {
+            buffer.putInt(index, WRAP_MARKER);
+            write += tail;
+            index = 0;
+        }
+
+        ByteBuffer target = buffer.duplicate();
+        ((Buffer) target).position(index);
+        BinarySerde.writeFrame(target, arrays);
+        //Publish the frame to the consumer
+        writePosition.set(write + frameSize);
+        return true;
+    }
+
+    /**
+     * Read the next frame, if any. The arrays of the frame are views of the ring buffer memory, and are only
+     * valid until the frame is released via {@link Frame#close()}. Frames must be released in the order they
+     * were read.
+     *
+     * @return The next frame, or null if no frame is available
+     */
+    public Frame poll() {
+        long start = readPosition;
+        if (start == writePosition.get())
+            return null;
+
+        long read = start;
+        int index = (int) (read % capacity);
+        if (buffer.getInt(index) == WRAP_MARKER) {
+            read += capacity - index;
+            index = 0;
+        }
+
+        ByteBuffer source = buffer.duplicate();
+        ((Buffer) source).position(index);
+        INDArray[] arrays = BinarySerde.readFrame(source);
+        readPosition = read + (source.position() - index);
+        return new Frame(arrays, start, readPosition);
+    }
+
+    /**
+     * @return Number of bytes written but not yet released
+     */
+    public long usedBytes() {
+        return writePosition.get() - releasePosition.get();
+    }
+
+    /**
+     * Frame of arrays read from the ring buffer. Closing the frame releases its memory, so that it can be reused
+     * by the producer.
+     */
+    public class Frame implements AutoCloseable {
+        @Getter
+        private final INDArray[] arrays;
+        private final long start;
+        private final long end;
+        private boolean released;
+
+        private Frame(INDArray[] arrays, long start, long end) {
+            this.arrays = arrays;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        public void close() {
+            if (released)
+                return;
+
+            Preconditions.checkState(releasePosition.get() == start, "Frames must be released in the order they were read");
+            releasePosition.set(end);
+            released = true;
+        }
+    }
+}
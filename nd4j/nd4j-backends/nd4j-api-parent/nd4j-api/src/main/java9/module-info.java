@@ -213,6 +213,7 @@ open module nd4j.api {
     exports org.nd4j.linalg.profiler.data;
     exports org.nd4j.linalg.profiler.data.primitives;
     exports org.nd4j.linalg.schedule;
+    exports org.nd4j.linalg.sparse;
     exports org.nd4j.linalg.string;
     exports org.nd4j.linalg.util;
     exports org.nd4j.linalg.workspace;
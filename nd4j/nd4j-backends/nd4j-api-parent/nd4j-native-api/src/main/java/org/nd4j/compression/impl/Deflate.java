@@ -0,0 +1,147 @@
+/*
+ *  ******************************************************************************
+ *  *
+ *  *
+ *  * This program and the accompanying materials are made available under the
+ *  * terms of the Apache License, Version 2.0 which is available at
+ *  * https://www.apache.org/licenses/LICENSE-2.0.
+ *  *
+ *  *  See the NOTICE file distributed with this work for additional
+ *  *  information regarding copyright ownership.
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ *  * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ *  * License for the specific language governing permissions and limitations
+ *  * under the License.
+ *  *
+ *  * SPDX-License-Identifier: Apache-2.0
+ *  *****************************************************************************
+ */
+
+package org.nd4j.compression.impl;
+
+import org.bytedeco.javacpp.BytePointer;
+import org.bytedeco.javacpp.Pointer;
+import org.nd4j.linalg.api.buffer.DataBuffer;
+import org.nd4j.linalg.api.buffer.DataType;
+import org.nd4j.linalg.api.buffer.DataTypeEx;
+import org.nd4j.linalg.compression.CompressedDataBuffer;
+import org.nd4j.linalg.compression.CompressionDescriptor;
+import org.nd4j.linalg.compression.CompressionType;
+import org.nd4j.linalg.exception.ND4JArraySizeException;
+import org.nd4j.linalg.factory.Nd4j;
+
+import java.io.ByteArrayOutputStream;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Lossless compressor using raw DEFLATE at the fastest compression level.<br>
+ * Unlike {@link Gzip}, the buffer contents are compressed as raw bytes (no per-element serialization and no
+ * stream headers), which makes this compressor considerably faster for both compression and decompression,
+ * at a slightly lower compression ratio.
+ */
+public class Deflate extends AbstractCompressor {
+    private static final int CHUNK_SIZE = 64 * 1024;
+
+    /**
+     * This method returns compression descriptor. It should be unique for any compressor implementation
+     *
+     * @return
+     */
+    @Override
+    public String getDescriptor() {
+        return "DEFLATE";
+    }
+
+    /**
+     * This method returns compression opType provided by specific NDArrayCompressor implementation
+     *
+     * @return
+     */
+    @Override
+    public CompressionType getCompressionType() {
+        return CompressionType.LOSSLESS;
+    }
+
+    @Override
+    public DataBuffer decompress(DataBuffer buffer, DataType dataType) {
+        CompressedDataBuffer compressed = (CompressedDataBuffer) buffer;
+        CompressionDescriptor descriptor = compressed.getCompressionDescriptor();
+
+        byte[] input = new byte[(int) descriptor.getCompressedLength()];
+        BytePointer pointer = (BytePointer) compressed.addressPointer();
+        pointer.position(0).get(input);
+
+        byte[] raw = new byte[(int) descriptor.getOriginalLength()];
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(input);
+            int offset = 0;
+            while (offset < raw.length && !inflater.finished()) {
+                int n = inflater.inflate(raw, offset, raw.length - offset);
+                if (n == 0 && inflater.needsInput())
+                    throw new IllegalStateException("Unexpected end of compressed data");
+                offset += n;
+            }
+        } catch (DataFormatException e) {
+            throw new RuntimeException(e);
+        } finally {
+            inflater.end();
+        }
+
+        DataBuffer result = Nd4j.createBuffer(descriptor.getOriginalDataType(), descriptor.getNumberOfElements(), false);
+        new BytePointer(result.addressPointer()).position(0).put(raw);
+        return result;
+    }
+
+    @Override
+    public DataBuffer compress(DataBuffer buffer) {
+        long length = buffer.length() * buffer.getElementSize();
+        if (length > Integer.MAX_VALUE)
+            throw new ND4JArraySizeException();
+
+        byte[] raw = new byte[(int) length];
+        new BytePointer(buffer.addressPointer()).position(0).get(raw);
+
+        CompressionDescriptor descriptor = new CompressionDescriptor(buffer, this);
+        return compress(raw, descriptor);
+    }
+
+    private CompressedDataBuffer compress(byte[] raw, CompressionDescriptor descriptor) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        ByteArrayOutputStream bos = new ByteArrayOutputStream(Math.max(64, raw.length / 2));
+        try {
+            deflater.setInput(raw);
+            deflater.finish();
+            byte[] chunk = new byte[Math.min(CHUNK_SIZE, Math.max(64, raw.length))];
+            while (!deflater.finished()) {
+                int n = deflater.deflate(chunk);
+                bos.write(chunk, 0, n);
+            }
+        } finally {
+            deflater.end();
+        }
+
+        byte[] bytes = bos.toByteArray();
+        descriptor.setCompressedLength(bytes.length);
+        return new CompressedDataBuffer(new BytePointer(bytes), descriptor);
+    }
+
+    @Override
+    protected CompressedDataBuffer compressPointer(DataTypeEx srcType, Pointer srcPointer, int length,
+                                                   int elementSize) {
+        byte[] raw = new byte[length * elementSize];
+        new BytePointer(srcPointer).position(0).get(raw);
+
+        CompressionDescriptor descriptor = new CompressionDescriptor();
+        descriptor.setCompressionType(getCompressionType());
+        descriptor.setCompressionAlgorithm(getDescriptor());
+        descriptor.setOriginalLength(raw.length);
+        descriptor.setOriginalElementSize(elementSize);
+        descriptor.setNumberOfElements(length);
+        descriptor.setOriginalDataType(srcType == DataTypeEx.DOUBLE ? DataType.DOUBLE : DataType.FLOAT);
+        return compress(raw, descriptor);
+    }
+}
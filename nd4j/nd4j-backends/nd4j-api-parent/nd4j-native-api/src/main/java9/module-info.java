@@ -10,6 +10,6 @@ open module nd4j.cpu.api {
     exports org.nd4j.rng;
     exports org.nd4j.rng.deallocator;
     exports org.nd4j.storage;
-    provides org.nd4j.linalg.compression.NDArrayCompressor with org.nd4j.compression.impl.Gzip, org.nd4j.compression.impl.NoOp;
+    provides org.nd4j.linalg.compression.NDArrayCompressor with org.nd4j.compression.impl.Deflate, org.nd4j.compression.impl.Gzip, org.nd4j.compression.impl.NoOp;
     provides org.nd4j.systeminfo.GPUInfoProvider with org.nd4j.nativeblas.NativeOpsGPUInfoProvider;
 }
@@ -23,7 +23,9 @@ package org.nd4j.linalg.cpu.nativecpu;
 import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
 import org.bytedeco.javacpp.Pointer;
+import org.nd4j.common.config.ND4JSystemProperties;
 import org.nd4j.linalg.api.memory.AllocationsTracker;
+import org.nd4j.linalg.api.memory.NativeBufferPool;
 import org.nd4j.linalg.api.memory.enums.AllocationKind;
 import org.nd4j.linalg.api.memory.enums.MemoryKind;
 import org.nd4j.linalg.api.ndarray.INDArray;
@@ -35,6 +37,22 @@ import java.util.Map;
 
 @Slf4j
 public class CpuMemoryManager extends BasicMemoryManager {
+    private static final long DEFAULT_POOL_MAX_BLOCK_BYTES = 64L * 1024 * 1024;
+    private static final long DEFAULT_POOL_MAX_CACHED_BYTES = 1024L * 1024 * 1024;
+
+    private volatile NativeBufferPool bufferPool;
+
+    public CpuMemoryManager() {
+        if (Boolean.parseBoolean(System.getProperty(ND4JSystemProperties.NATIVE_BUFFER_POOL_ENABLED, "false"))) {
+            long maxCached = Pointer.maxPhysicalBytes() > 0 ? Pointer.maxPhysicalBytes() / 8 : DEFAULT_POOL_MAX_CACHED_BYTES;
+            maxCached = Long.parseLong(System.getProperty(ND4JSystemProperties.NATIVE_BUFFER_POOL_MAX_CACHED_BYTES, String.valueOf(maxCached)));
+            long maxBlock = Long.parseLong(System.getProperty(ND4JSystemProperties.NATIVE_BUFFER_POOL_MAX_BLOCK_BYTES, String.valueOf(DEFAULT_POOL_MAX_BLOCK_BYTES)));
+            bufferPool = new NativeBufferPool(this, maxBlock, maxCached);
+            bufferPool.setPoisonReleased(Boolean.parseBoolean(System.getProperty(ND4JSystemProperties.NATIVE_BUFFER_POOL_POISON, "false")));
+            log.info("Native buffer pool enabled: max block size {} bytes, max cached {} bytes", maxBlock, maxCached);
+        }
+    }
+
     /**
      * This method returns
      * PLEASE NOTE: Cache options depend on specific implementations
@@ -81,6 +99,30 @@ public class CpuMemoryManager extends BasicMemoryManager {
         super.collect(arrays);
     }
 
+    /**
+     * This method returns the pool used for DataBuffer memory. Pooling is disabled (null) by default: it is enabled by
+     * setting the {@link ND4JSystemProperties#NATIVE_BUFFER_POOL_ENABLED} system property, or via {@link #setBufferPool(NativeBufferPool)}
+     */
+    @Override
+    public NativeBufferPool getBufferPool() {
+        return bufferPool;
+    }
+
+    @Override
+    public void setBufferPool(NativeBufferPool pool) {
+        this.bufferPool = pool;
+    }
+
+    /**
+     * This method frees all unused memory held by the DataBuffer memory pool, if any
+     */
+    @Override
+    public void purgeCaches() {
+        NativeBufferPool pool = bufferPool;
+        if (pool != null)
+            pool.purge();
+    }
+
     /**
      * Nd4j-native backend doesn't use periodic GC. This method will always return false.
      *
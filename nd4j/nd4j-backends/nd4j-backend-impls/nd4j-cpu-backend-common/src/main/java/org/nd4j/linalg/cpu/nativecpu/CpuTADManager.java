@@ -21,30 +21,60 @@
 package org.nd4j.linalg.cpu.nativecpu;
 
 import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
 import lombok.val;
+import org.bytedeco.javacpp.IntPointer;
+import org.bytedeco.javacpp.LongPointer;
+import org.nd4j.common.config.ND4JSystemProperties;
 import org.nd4j.linalg.api.buffer.DataBuffer;
+import org.nd4j.linalg.api.memory.MemoryWorkspace;
 import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.cache.BoundedDescriptorCache;
 import org.nd4j.linalg.cache.ConstantHandler;
+import org.nd4j.linalg.cache.DescriptorCache;
 import org.nd4j.linalg.cache.TADManager;
 import org.nd4j.linalg.cache.TadDescriptor;
+import org.nd4j.linalg.cpu.nativecpu.buffer.LongBuffer;
 import org.nd4j.linalg.factory.Nd4j;
 import org.nd4j.common.primitives.Pair;
 import org.nd4j.nativeblas.NativeOps;
+import org.nd4j.nativeblas.OpaqueTadPack;
 
 import java.util.Arrays;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.Collection;
 import java.util.concurrent.atomic.AtomicLong;
 
+@Slf4j
 public class CpuTADManager implements TADManager {
-    private Map<TadDescriptor, Pair<DataBuffer, DataBuffer>> cache = new ConcurrentHashMap<>();
+    private static final int DEFAULT_MAX_ENTRIES = 1000;
+
+    private DescriptorCache<TadDescriptor, Pair<DataBuffer, DataBuffer>> cache;
     private AtomicLong bytes = new AtomicLong(0);
+    private NativeOps nativeOps;
 
     public CpuTADManager() {
-        //
+        int capacity = Integer.parseInt(System.getProperty(ND4JSystemProperties.TAD_CACHE_CAPACITY,
+                String.valueOf(DEFAULT_MAX_ENTRIES)));
+        this.cache = new BoundedDescriptorCache<TadDescriptor, Pair<DataBuffer, DataBuffer>>(capacity) {
+            @Override
+            protected void onCached(TadDescriptor key, Pair<DataBuffer, DataBuffer> value) {
+                bytes.addAndGet((value.getFirst().length() + value.getSecond().length()) * 8);
+            }
+        };
     }
 
     public void init(@NonNull NativeOps nativeOps, @NonNull ConstantHandler constantHandler) {
+        this.nativeOps = nativeOps;
+    }
+
+    /**
+     * Replace the cache used for TADs. Entries of the current cache are discarded
+     *
+     * @param cache Cache to use
+     */
+    public void setCache(@NonNull DescriptorCache<TadDescriptor, Pair<DataBuffer, DataBuffer>> cache) {
+        this.cache = cache;
+        bytes.set(0);
     }
 
     /**
@@ -52,7 +82,8 @@ public class CpuTADManager implements TADManager {
      */
     @Override
     public void purgeBuffers() {
-        cache = new ConcurrentHashMap<>();
+        cache.clear();
+        bytes.set(0);
     }
 
     @Override
@@ -63,12 +94,52 @@ public class CpuTADManager implements TADManager {
         if (dimension == null)
             dimension = new int[] {Integer.MAX_VALUE};
 
-        val pack = Nd4j.getExecutioner().tadShapeInfoAndOffsets(array, dimension);
+        TadDescriptor descriptor = new TadDescriptor(array.shapeInfoJava(), dimension.clone());
+        return cache.getOrCreate(descriptor, d -> {
+            val pack = Nd4j.getExecutioner().tadShapeInfoAndOffsets(array, d.getDimension());
+            return new Pair<>(pack.getTadShapeInfo(), pack.getTadOffsets());
+        });
+    }
+
+    @Override
+    public Collection<TadDescriptor> getCachedDescriptors() {
+        return cache.keys();
+    }
 
-        // now we need to copy this buffer to either device global memory or device cache
+    @Override
+    public void warmUp(Collection<TadDescriptor> descriptors) {
+        for (TadDescriptor d : descriptors) {
+            try {
+                cache.getOrCreate(d, this::createTad);
+            } catch (Exception e) {
+                log.warn("Failed to create TAD for descriptor {}", d, e);
+            }
+        }
+    }
+
+    @Override
+    public DescriptorCache.Stats getCacheStats() {
+        return cache.getStats();
+    }
+
+    /**
+     * Create the TAD for the given descriptor, without an array to create it for
+     */
+    private Pair<DataBuffer, DataBuffer> createTad(TadDescriptor descriptor) {
+        DataBuffer shapeInfo;
+        try (MemoryWorkspace ws = Nd4j.getMemoryManager().scopeOutOfWorkspaces()) {
+            shapeInfo = Nd4j.createBuffer(descriptor.getShape());
+        }
 
-        return new Pair<>(pack.getTadShapeInfo(), pack.getTadOffsets());
+        int[] dimension = descriptor.getDimension();
+        OpaqueTadPack pack = nativeOps.tadOnlyShapeInfo((LongPointer) shapeInfo.addressPointer(), new IntPointer(dimension), dimension.length);
+        if (nativeOps.lastErrorCode() != 0)
+            throw new RuntimeException(nativeOps.lastErrorMessage());
 
+        val tadShape = new LongBuffer(nativeOps.getPrimaryShapeInfo(pack), nativeOps.getShapeInfoLength(pack));
+        val tadOffsets = new LongBuffer(nativeOps.getPrimaryOffsets(pack), nativeOps.getNumberOfTads(pack));
+        nativeOps.deleteTadPack(pack);
+        return new Pair<>(tadShape, tadOffsets);
     }
 
     @Override
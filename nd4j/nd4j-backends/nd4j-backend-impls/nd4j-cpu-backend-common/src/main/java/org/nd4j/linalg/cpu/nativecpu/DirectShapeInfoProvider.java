@@ -20,6 +20,7 @@
 
 package org.nd4j.linalg.cpu.nativecpu;
 
+import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
 import org.nd4j.linalg.api.buffer.DataType;
 import org.nd4j.linalg.api.memory.AllocationsTracker;
@@ -29,17 +30,38 @@ import org.nd4j.linalg.api.shape.options.ArrayOptionsHelper;
 import org.nd4j.common.primitives.Pair;
 import org.nd4j.linalg.api.buffer.DataBuffer;
 import org.nd4j.linalg.api.ndarray.BaseShapeInfoProvider;
-import org.nd4j.linalg.api.shape.ShapeDescriptor;
+import org.nd4j.linalg.cache.BoundedDescriptorCache;
+import org.nd4j.linalg.cache.DescriptorCache;
+import org.nd4j.common.config.ND4JSystemProperties;
 
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.Collection;
 
 @Slf4j
 public class DirectShapeInfoProvider extends BaseShapeInfoProvider {
-    private Map<LongShapeDescriptor, Pair<DataBuffer, long[]>> longCache = new ConcurrentHashMap<>();
-    private AtomicInteger counter = new AtomicInteger(0);
-    private static final int MAX_ENTRIES = 1000;
+    private static final int DEFAULT_MAX_ENTRIES = 1000;
+    private DescriptorCache<LongShapeDescriptor, Pair<DataBuffer, long[]>> longCache;
+
+    public DirectShapeInfoProvider() {
+        int capacity = Integer.parseInt(System.getProperty(ND4JSystemProperties.SHAPE_INFO_CACHE_CAPACITY,
+                String.valueOf(DEFAULT_MAX_ENTRIES)));
+        this.longCache = new BoundedDescriptorCache<LongShapeDescriptor, Pair<DataBuffer, long[]>>(capacity) {
+            @Override
+            protected void onCached(LongShapeDescriptor key, Pair<DataBuffer, long[]> value) {
+                value.getFirst().setConstant(true);
+                bytes.addAndGet(value.getFirst().length() * 8 * 2);
+                AllocationsTracker.getInstance().markAllocated(AllocationKind.CONSTANT, 0, value.getFirst().length() * 8 * 2);
+            }
+        };
+    }
+
+    /**
+     * Replace the cache used for shape information buffers. Entries of the current cache are discarded
+     *
+     * @param cache Cache to use
+     */
+    public void setCache(@NonNull DescriptorCache<LongShapeDescriptor, Pair<DataBuffer, long[]>> cache) {
+        this.longCache = cache;
+    }
 
     public Pair<DataBuffer, long[]> createShapeInformation(long[] shape, long[] stride,  long elementWiseStride, char order, DataType dataType) {
         long extras = 0;
@@ -55,27 +77,18 @@ public class DirectShapeInfoProvider extends BaseShapeInfoProvider {
             elementWiseStride = 0;
 
         LongShapeDescriptor descriptor = new LongShapeDescriptor(shape, stride, 0, elementWiseStride, order, extras);
-        if (!longCache.containsKey(descriptor)) {
-            if (counter.get() < MAX_ENTRIES) {
-                synchronized (this) {
-                    if (!longCache.containsKey(descriptor)) {
-                        counter.incrementAndGet();
-                        Pair<DataBuffer, long[]> buffer = super.createShapeInformation(shape, stride, elementWiseStride, order, extras);
-                        buffer.getFirst().setConstant(true);
-                        longCache.put(descriptor, buffer);
+        final long ews = elementWiseStride;
+        return longCache.getOrCreate(descriptor, d -> super.createShapeInformation(shape, stride, ews, order, extras));
+    }
 
-                        bytes.addAndGet(buffer.getFirst().length() * 8 * 2);
-                        AllocationsTracker.getInstance().markAllocated(AllocationKind.CONSTANT,0, buffer.getFirst().length() * 8 * 2);
-                        return buffer;
-                    } else
-                        return longCache.get(descriptor);
-                }
-            } else {
-                return super.createShapeInformation(shape, stride, elementWiseStride, order, extras);
-            }
-        }
+    @Override
+    public Collection<LongShapeDescriptor> getCachedDescriptors() {
+        return longCache.keys();
+    }
 
-        return longCache.get(descriptor);
+    @Override
+    public DescriptorCache.Stats getCacheStats() {
+        return longCache.getStats();
     }
 
     @Override
@@ -31,6 +31,7 @@ import org.nd4j.linalg.api.buffer.util.AllocUtil;
 import org.nd4j.linalg.api.memory.Deallocatable;
 import org.nd4j.linalg.api.memory.Deallocator;
 import org.nd4j.linalg.api.memory.MemoryWorkspace;
+import org.nd4j.linalg.api.memory.NativeBufferPool;
 import org.nd4j.linalg.api.memory.pointers.PagedPointer;
 import org.nd4j.linalg.factory.Nd4j;
 import org.nd4j.nativeblas.OpaqueDataBuffer;
@@ -43,6 +44,8 @@ public abstract class BaseCpuDataBuffer extends BaseDataBuffer implements Deallo
 
     protected transient Pointer addressPointer;
     private transient final long instanceId = Nd4j.getDeallocatorService().nextValue();
+    //Memory from the MemoryManager's buffer pool, if the buffer was allocated from it
+    protected transient NativeBufferPool.Allocation pooledAllocation;
 
     public final static long BASE_CPU_DATA_BUFFER_OFFSET = RandomUtils.nextLong();
 
@@ -65,6 +68,27 @@ public abstract class BaseCpuDataBuffer extends BaseDataBuffer implements Deallo
         return deallocator;
     }
 
+    /**
+     * @return the pooled memory backing this buffer, or null if this buffer wasn't allocated from the buffer pool
+     */
+    public NativeBufferPool.Allocation getPooledAllocation() {
+        return pooledAllocation;
+    }
+
+    /**
+     * Allocate the native buffer for a (non-workspace) buffer: from the MemoryManager's buffer pool if pooling is
+     * enabled, otherwise directly
+     */
+    protected OpaqueDataBuffer allocateOpaqueBuffer(long length, DataType dataType) {
+        NativeBufferPool pool = Nd4j.getMemoryManager().getBufferPool();
+        long bytes = length * dataType.width();
+        if (pool == null || bytes <= 0)
+            return OpaqueDataBuffer.allocateDataBuffer(length, dataType, false);
+
+        pooledAllocation = pool.allocate(bytes);
+        return OpaqueDataBuffer.externalizedDataBuffer(length, dataType, pooledAllocation.getPointer(), null);
+    }
+
     public OpaqueDataBuffer getOpaqueDataBuffer() {
         if (released)
             throw new IllegalStateException("You can't use DataBuffer once it was released");
@@ -94,7 +118,7 @@ public abstract class BaseCpuDataBuffer extends BaseDataBuffer implements Deallo
         this.elementSize = (byte) elementSize;
 
         if (dataType() != DataType.UTF8)
-            ptrDataBuffer = OpaqueDataBuffer.allocateDataBuffer(length, dataType(), false);
+            ptrDataBuffer = allocateOpaqueBuffer(length, dataType());
 
         if (dataType() == DataType.DOUBLE) {
             pointer = new PagedPointer(ptrDataBuffer.primaryBuffer(), length).asDoublePointer();
@@ -289,7 +313,7 @@ public abstract class BaseCpuDataBuffer extends BaseDataBuffer implements Deallo
             throw new IllegalArgumentException("Unable to create a buffer of length <= 0");
 
         if (dataType() != DataType.UTF8)
-            ptrDataBuffer = OpaqueDataBuffer.allocateDataBuffer(length, dataType(), false).retainReference();
+            ptrDataBuffer = allocateOpaqueBuffer(length, dataType()).retainReference();
 
         if (dataType() == DataType.DOUBLE) {
             pointer = new PagedPointer(ptrDataBuffer.primaryBuffer(), length).asDoublePointer();
@@ -451,8 +475,13 @@ public abstract class BaseCpuDataBuffer extends BaseDataBuffer implements Deallo
     }
 
     @Override
-    public synchronized Pointer addressPointer() {
+    public Pointer addressPointer() {
+        //Wait outside of the monitor: threads executing queued ops access the pointer as well
+        awaitPendingWrite();
+        return cachedAddressPointer();
+    }
 
+    private synchronized Pointer cachedAddressPointer() {
         if(addressPointer  != null)
             return addressPointer;
         //possible with empty buffers
@@ -874,6 +903,9 @@ public abstract class BaseCpuDataBuffer extends BaseDataBuffer implements Deallo
     @Override
     protected void release() {
         ptrDataBuffer.closeBuffer();
+        // pooled memory is returned to the pool right away, so that it can be reused
+        if (pooledAllocation != null)
+            pooledAllocation.release();
         super.release();
     }
 
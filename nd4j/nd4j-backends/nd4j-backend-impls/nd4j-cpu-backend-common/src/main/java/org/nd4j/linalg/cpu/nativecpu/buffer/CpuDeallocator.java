@@ -22,6 +22,7 @@ package org.nd4j.linalg.cpu.nativecpu.buffer;
 
 import lombok.extern.slf4j.Slf4j;
 import org.nd4j.linalg.api.memory.Deallocator;
+import org.nd4j.linalg.api.memory.NativeBufferPool;
 import org.nd4j.linalg.factory.Nd4j;
 import org.nd4j.linalg.profiler.data.eventlogger.EventLogger;
 import org.nd4j.linalg.profiler.data.eventlogger.EventType;
@@ -33,11 +34,13 @@ import org.nd4j.nativeblas.OpaqueDataBuffer;
 @Slf4j
 public class CpuDeallocator implements Deallocator {
     private final transient OpaqueDataBuffer opaqueDataBuffer;
+    private final transient NativeBufferPool.Allocation pooledAllocation;
     private LogEvent logEvent;
     private boolean isConstant;
 
     public CpuDeallocator(BaseCpuDataBuffer buffer) {
         opaqueDataBuffer = buffer.getOpaqueDataBuffer();
+        pooledAllocation = buffer.getPooledAllocation();
         isConstant = buffer.isConstant();
 
         if(EventLogger.getInstance().isEnabled()) {
@@ -69,6 +72,10 @@ public class CpuDeallocator implements Deallocator {
         }
 
         NativeOpsHolder.getInstance().getDeviceNativeOps().deleteDataBuffer(opaqueDataBuffer);
+
+        // no-op if the memory was already returned when the buffer was closed
+        if (pooledAllocation != null)
+            pooledAllocation.release();
     }
 
     @Override
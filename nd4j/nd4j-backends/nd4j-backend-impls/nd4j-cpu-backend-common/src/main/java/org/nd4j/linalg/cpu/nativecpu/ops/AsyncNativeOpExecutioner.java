@@ -0,0 +1,504 @@
+/*
+ *  ******************************************************************************
+ *  *
+ *  *
+ *  * This program and the accompanying materials are made available under the
+ *  * terms of the Apache License, Version 2.0 which is available at
+ *  * https://www.apache.org/licenses/LICENSE-2.0.
+ *  *
+ *  *  See the NOTICE file distributed with this work for additional
+ *  *  information regarding copyright ownership.
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ *  * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ *  * License for the specific language governing permissions and limitations
+ *  * under the License.
+ *  *
+ *  * SPDX-License-Identifier: Apache-2.0
+ *  *****************************************************************************
+ */
+
+package org.nd4j.linalg.cpu.nativecpu.ops;
+
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.nd4j.common.base.Preconditions;
+import org.nd4j.common.config.ND4JSystemProperties;
+import org.nd4j.linalg.api.buffer.BaseDataBuffer;
+import org.nd4j.linalg.api.buffer.DataBuffer;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.api.ndarray.INDArrayStatistics;
+import org.nd4j.linalg.api.ops.*;
+import org.nd4j.linalg.api.ops.aggregates.Aggregate;
+import org.nd4j.linalg.api.ops.aggregates.Batch;
+import org.nd4j.linalg.api.ops.executioner.GridExecutioner;
+import org.nd4j.linalg.api.ops.executioner.OpFence;
+import org.nd4j.linalg.api.ops.impl.scatter.ScatterUpdate;
+import org.nd4j.linalg.api.rng.Random;
+import org.nd4j.linalg.api.shape.LongShapeDescriptor;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Asynchronous variant of {@link NativeOpExecutioner}.<br>
+ * Element-wise ops (transform, scalar, broadcast and pairwise ops, and custom ops) with preallocated outputs are not
+ * executed on the calling thread. Instead, they are queued together with their dependencies on earlier queued ops
+ * (read-after-write, write-after-read and write-after-write on the same underlying buffer), and executed on a small pool
+ * of executor threads. Independent ops run concurrently; dependent ops run in submission order.<br>
+ * The caller only waits for queued ops when results are needed:
+ * <ul>
+ *     <li>Reading or writing a buffer from Java (getDouble, put, toString, etc.) waits for the queued ops that access it</li>
+ *     <li>Any op that can't be queued (reductions, random ops, ops without preallocated outputs, ops executed with an
+ *     {@link OpContext}, etc.) waits for all ops queued by the current thread first</li>
+ *     <li>{@link #commit()} (also called when closing a workspace or an array) waits for all ops queued by the current thread</li>
+ * </ul>
+ * Errors of queued ops are rethrown when their results are synchronized.<br>
+ * Ops are queued per submitting thread: arrays written by queued ops of one thread must be committed by that thread
+ * before they are used in ops submitted by other threads.<br>
+ * To use this executioner, set the {@code opexec} system property to the name of this class. The number of executor
+ * threads and the maximum queue length are configured via {@link ND4JSystemProperties#ASYNC_EXECUTIONER_THREADS} and
+ * {@link ND4JSystemProperties#ASYNC_EXECUTIONER_QUEUE_LENGTH}.
+ */
+@Slf4j
+public class AsyncNativeOpExecutioner extends NativeOpExecutioner implements GridExecutioner {
+    public static final int DEFAULT_THREADS = 2;
+    public static final int DEFAULT_MAX_QUEUE_LENGTH = 128;
+
+    private static final String RANDOM_OPS_PACKAGE = "org.nd4j.linalg.api.ops.random.";
+
+    @Getter
+    protected final int numThreads;
+    @Getter
+    protected final int maxQueueLength;
+    protected final ExecutorService executor;
+    protected final ThreadLocal<OpQueue> queues = ThreadLocal.withInitial(OpQueue::new);
+
+    protected final AtomicLong asyncCounter = new AtomicLong(0);
+
+    public AsyncNativeOpExecutioner() {
+        this(Integer.parseInt(System.getProperty(ND4JSystemProperties.ASYNC_EXECUTIONER_THREADS, String.valueOf(DEFAULT_THREADS))),
+                Integer.parseInt(System.getProperty(ND4JSystemProperties.ASYNC_EXECUTIONER_QUEUE_LENGTH, String.valueOf(DEFAULT_MAX_QUEUE_LENGTH))));
+    }
+
+    /**
+     * @param numThreads     Number of threads used to execute queued ops
+     * @param maxQueueLength Maximum number of pending ops per submitting thread
+     */
+    public AsyncNativeOpExecutioner(int numThreads, int maxQueueLength) {
+        Preconditions.checkArgument(numThreads > 0, "Number of threads must be positive, got %s", numThreads);
+        Preconditions.checkArgument(maxQueueLength > 0, "Maximum queue length must be positive, got %s", maxQueueLength);
+        this.numThreads = numThreads;
+        this.maxQueueLength = maxQueueLength;
+        OpFence.enable();
+
+        AtomicInteger threadCounter = new AtomicInteger(0);
+        this.executor = Executors.newFixedThreadPool(numThreads, r -> {
+            Thread t = new Thread(() -> {
+                OpFence.markExecutorThread();
+                r.run();
+            }, "AsyncNativeOpExecutioner-" + threadCounter.getAndIncrement());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * @return Number of ops that were queued for asynchronous execution so far
+     */
+    public long getAsyncExecutionCount() {
+        return asyncCounter.get();
+    }
+
+    @Override
+    public INDArray exec(Op op) {
+        return exec(op, null);
+    }
+
+    @Override
+    public INDArray exec(Op op, OpContext opContext) {
+        if (opContext == null && canQueue(op)) {
+            enqueue(op.opName(), legacyInputs(op), new INDArray[] {op.z()}, () -> super.exec(op, null));
+            return op.z();
+        }
+
+        sync();
+        return super.exec(op, opContext);
+    }
+
+    @Override
+    public INDArray exec(ScalarOp op, OpContext oc) {
+        if (oc == null && canQueue(op)) {
+            enqueue(op.opName(), legacyInputs(op), new INDArray[] {op.z()}, () -> super.exec(op, null));
+            return op.z();
+        }
+
+        sync();
+        return super.exec(op, oc);
+    }
+
+    @Override
+    public INDArray exec(BroadcastOp op, OpContext oc) {
+        if (oc == null && canQueue(op)) {
+            enqueue(op.opName(), legacyInputs(op), new INDArray[] {op.z()}, () -> super.exec(op, null));
+            return op.z();
+        }
+
+        sync();
+        return super.exec(op, oc);
+    }
+
+    @Override
+    public INDArray[] exec(@NonNull CustomOp op) {
+        if (canQueue(op)) {
+            INDArray[] inputs = op.inputArguments().toArray(new INDArray[0]);
+            // in-place ops write to their inputs
+            INDArray[] outputs = op.isInplaceCall() && op.numOutputArguments() == 0 ? inputs
+                    : op.outputArguments().toArray(new INDArray[0]);
+            enqueue(op.opName(), inputs, outputs, () -> super.exec(op));
+            return outputs;
+        }
+
+        sync();
+        return super.exec(op);
+    }
+
+    @Override
+    public INDArray[] exec(CustomOp op, @NonNull OpContext context) {
+        sync();
+        return super.exec(op, context);
+    }
+
+    @Override
+    public INDArray exec(ReduceOp op, OpContext oc) {
+        sync();
+        return super.exec(op, oc);
+    }
+
+    @Override
+    public INDArray exec(IndexAccumulation op, OpContext oc) {
+        sync();
+        return super.exec(op, oc);
+    }
+
+    @Override
+    public INDArray exec(RandomOp op, OpContext oc, Random rng) {
+        sync();
+        return super.exec(op, oc, rng);
+    }
+
+    @Override
+    public <T extends Aggregate> void exec(Batch<T> batch) {
+        sync();
+        super.exec(batch);
+    }
+
+    @Override
+    public void exec(List<Aggregate> batch) {
+        sync();
+        super.exec(batch);
+    }
+
+    @Override
+    public void exec(Aggregate op) {
+        sync();
+        super.exec(op);
+    }
+
+    @Override
+    public List<LongShapeDescriptor> calculateOutputShape(@NonNull CustomOp op, OpContext opContext) {
+        // some ops derive their output shape from the content of their inputs
+        sync();
+        return super.calculateOutputShape(op, opContext);
+    }
+
+    @Override
+    public Map<String, INDArray> executeGraph(long id, @NonNull Map<String, INDArray> map, @NonNull Map<String, Integer> reverseMap) {
+        sync();
+        return super.executeGraph(id, map, reverseMap);
+    }
+
+    @Override
+    public void scatterUpdate(ScatterUpdate.UpdateOp op, @NonNull INDArray array, @NonNull INDArray indices, @NonNull INDArray updates, @NonNull int[] axis) {
+        sync();
+        super.scatterUpdate(op, array, indices, updates, axis);
+    }
+
+    @Override
+    public INDArrayStatistics inspectArray(INDArray array) {
+        sync();
+        return super.inspectArray(array);
+    }
+
+    @Override
+    public INDArray thresholdEncode(INDArray input, double threshold, Integer boundary) {
+        sync();
+        return super.thresholdEncode(input, threshold, boundary);
+    }
+
+    @Override
+    public INDArray thresholdDecode(INDArray encoded, INDArray target) {
+        sync();
+        return super.thresholdDecode(encoded, target);
+    }
+
+    @Override
+    public long bitmapEncode(INDArray indArray, INDArray target, double threshold) {
+        sync();
+        return super.bitmapEncode(indArray, target, threshold);
+    }
+
+    @Override
+    public INDArray bitmapDecode(INDArray encoded, INDArray target) {
+        sync();
+        return super.bitmapDecode(encoded, target);
+    }
+
+    @Override
+    public String getString(DataBuffer buffer, long index) {
+        sync();
+        return super.getString(buffer, index);
+    }
+
+    /**
+     * All queued ops are submitted to the executor threads as soon as their dependencies are complete,
+     * so there is nothing to flush: this method is a no-op
+     */
+    @Override
+    public void flushQueue() {
+        // no-op
+    }
+
+    /**
+     * This method blocks until all ops queued by the current thread are complete.
+     * If any of them failed, the first failure is rethrown
+     */
+    @Override
+    public void flushQueueBlocking() {
+        if (OpFence.isExecutorThread())
+            return;
+
+        OpQueue queue = queues.get();
+        if (queue.pending.isEmpty())
+            return;
+
+        List<CompletableFuture<Void>> pending = new ArrayList<>(queue.pending);
+        Map<DataBuffer, BufferState> buffers = new IdentityHashMap<>(queue.buffers);
+        queue.pending.clear();
+        queue.buffers.clear();
+
+        Throwable failure = null;
+        for (CompletableFuture<Void> f : pending) {
+            try {
+                f.join();
+            } catch (CompletionException e) {
+                if (failure == null)
+                    failure = e.getCause() != null ? e.getCause() : e;
+            }
+        }
+
+        // everything is complete: fences are no longer needed
+        for (Map.Entry<DataBuffer, BufferState> e : buffers.entrySet()) {
+            BaseDataBuffer b = (BaseDataBuffer) e.getKey();
+            if (b.getPendingAccess() == e.getValue().accessFence)
+                b.setPendingOps(null, null);
+        }
+
+        if (failure instanceof RuntimeException)
+            throw (RuntimeException) failure;
+        if (failure instanceof Error)
+            throw (Error) failure;
+        if (failure != null)
+            throw new RuntimeException("Queued op execution failed", failure);
+    }
+
+    @Override
+    public int getQueueLength() {
+        int count = 0;
+        for (CompletableFuture<Void> f : queues.get().pending) {
+            if (!f.isDone())
+                count++;
+        }
+        return count;
+    }
+
+    /**
+     * Aggregates are executed immediately, after all pending ops of the current thread
+     */
+    @Override
+    public void aggregate(Aggregate op) {
+        exec(op);
+    }
+
+    @Override
+    public void aggregate(Aggregate op, long key) {
+        exec(op);
+    }
+
+    @Override
+    public void push() {
+        flushQueue();
+    }
+
+    @Override
+    public void commit() {
+        flushQueueBlocking();
+    }
+
+    /**
+     * Wait for all ops queued by the current thread, before executing an op synchronously
+     */
+    protected void sync() {
+        flushQueueBlocking();
+    }
+
+    protected boolean canQueue(Op op) {
+        if (OpFence.isExecutorThread() || op instanceof RandomOp
+                || !(op instanceof TransformOp || op instanceof ScalarOp || op instanceof BroadcastOp))
+            return false;
+
+        // outputs must be preallocated: allocating them on executor threads would bypass the caller's workspace
+        if (op.x() == null || op.z() == null || op.x().isEmpty() || op.z().isEmpty())
+            return false;
+
+        return isQueueableBuffer(op.x()) && isQueueableBuffer(op.y()) && isQueueableBuffer(op.z());
+    }
+
+    protected boolean canQueue(CustomOp op) {
+        if (OpFence.isExecutorThread() || op instanceof UserDefinedCustomOp)
+            return false;
+
+        // random ops have to use the RNG of the calling thread
+        if (op.getClass().getName().startsWith(RANDOM_OPS_PACKAGE))
+            return false;
+
+        if (op.numOutputArguments() == 0 && !op.isInplaceCall())
+            return false;
+
+        for (INDArray arr : op.inputArguments()) {
+            if (arr == null || !isQueueableBuffer(arr))
+                return false;
+        }
+
+        for (INDArray arr : op.outputArguments()) {
+            if (arr == null || !isQueueableBuffer(arr))
+                return false;
+        }
+
+        return true;
+    }
+
+    private static boolean isQueueableBuffer(INDArray arr) {
+        return arr == null || arr.isEmpty() || arr.data() instanceof BaseDataBuffer;
+    }
+
+    private static INDArray[] legacyInputs(Op op) {
+        if (op instanceof ScalarOp && ((ScalarOp) op).scalar() != null)
+            return new INDArray[] {op.x(), op.y(), ((ScalarOp) op).scalar()};
+        return new INDArray[] {op.x(), op.y()};
+    }
+
+    /**
+     * Root buffer of the given array: views share the same root buffer as the array they were created from
+     */
+    private static DataBuffer rootOf(INDArray arr) {
+        if (arr == null || arr.isEmpty())
+            return null;
+
+        DataBuffer b = arr.data();
+        DataBuffer original = b.originalDataBuffer();
+        return original != null ? original : b;
+    }
+
+    protected void enqueue(String opName, INDArray[] inputs, INDArray[] outputs, Runnable task) {
+        OpQueue queue = queues.get();
+        if (queue.pending.size() >= maxQueueLength)
+            flushQueueBlocking();
+
+        Set<DataBuffer> readRoots = Collections.newSetFromMap(new IdentityHashMap<>());
+        Set<DataBuffer> writeRoots = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (INDArray arr : outputs) {
+            DataBuffer root = rootOf(arr);
+            if (root != null)
+                writeRoots.add(root);
+        }
+        for (INDArray arr : inputs) {
+            DataBuffer root = rootOf(arr);
+            if (root != null && !writeRoots.contains(root))
+                readRoots.add(root);
+        }
+
+        List<CompletableFuture<Void>> deps = new ArrayList<>();
+        for (DataBuffer root : readRoots) {
+            BufferState state = queue.buffers.get(root);
+            if (state != null && state.lastWrite != null)
+                deps.add(state.lastWrite);
+        }
+        for (DataBuffer root : writeRoots) {
+            BufferState state = queue.buffers.get(root);
+            if (state != null) {
+                if (state.lastWrite != null)
+                    deps.add(state.lastWrite);
+                deps.addAll(state.reads);
+            }
+        }
+
+        Runnable wrapped = () -> {
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                throw new RuntimeException("Queued op [" + opName + "] execution failed", e);
+            }
+        };
+
+        CompletableFuture<Void> future = deps.isEmpty() ? CompletableFuture.runAsync(wrapped, executor)
+                : CompletableFuture.allOf(deps.toArray(new CompletableFuture[0])).thenRunAsync(wrapped, executor);
+
+        for (DataBuffer root : readRoots) {
+            BufferState state = queue.buffers.computeIfAbsent(root, k -> new BufferState());
+            state.reads.add(future);
+            // Java-side writes have to wait for all pending readers, Java-side reads only for the last writer
+            state.access = state.access == null || state.access.isDone() ? future : CompletableFuture.allOf(state.access, future);
+            state.accessFence = new OpFence(state.access);
+            ((BaseDataBuffer) root).setPendingOps(state.writeFence, state.accessFence);
+        }
+        for (DataBuffer root : writeRoots) {
+            BufferState state = queue.buffers.computeIfAbsent(root, k -> new BufferState());
+            // this op depends on all earlier accesses, so its completion implies theirs
+            state.lastWrite = future;
+            state.reads.clear();
+            state.access = future;
+            state.writeFence = new OpFence(future);
+            state.accessFence = state.writeFence;
+            ((BaseDataBuffer) root).setPendingOps(state.writeFence, state.accessFence);
+        }
+
+        queue.pending.add(future);
+        asyncCounter.incrementAndGet();
+    }
+
+    /**
+     * Ops queued by a single submitting thread
+     */
+    protected static class OpQueue {
+        protected final List<CompletableFuture<Void>> pending = new ArrayList<>();
+        protected final Map<DataBuffer, BufferState> buffers = new IdentityHashMap<>();
+    }
+
+    /**
+     * Pending accesses of queued ops to a single root buffer
+     */
+    protected static class BufferState {
+        protected CompletableFuture<Void> lastWrite;
+        protected final List<CompletableFuture<Void>> reads = new ArrayList<>();
+        protected CompletableFuture<?> access;
+        protected OpFence writeFence;
+        protected OpFence accessFence;
+    }
+}
@@ -223,6 +223,7 @@ public class CudaWorkspace extends Nd4jWorkspace {
 
                 if (!trimmer) {
                     spilledAllocationsSize.addAndGet(requiredMemory);
+                    recordSpill(requiredMemory);
                     AllocationsTracker.getInstance().getTracker(id).allocateSpilled(type,kind,numElements,requiredMemory);
                 } else {
                     pinnedAllocationsSize.addAndGet(requiredMemory);
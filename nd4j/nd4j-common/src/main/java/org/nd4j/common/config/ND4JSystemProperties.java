@@ -245,6 +245,85 @@ public class ND4JSystemProperties {
      */
     public final static String UDF_NAME_SPACES = "org.nd4j.linalg.api.ops.udf.packages";
 
+    /**
+     * Whether off-heap memory for DataBuffers (outside of workspaces) should be allocated from a size-class pool,
+     * so that it can be reused as soon as arrays are closed or garbage collected. Only supported on the CPU backend.
+     * Default: false
+     */
+    public final static String NATIVE_BUFFER_POOL_ENABLED = "org.nd4j.memory.pool.enabled";
+
+    /**
+     * Maximum number of bytes of unused memory retained by the native buffer pool (see {@link #NATIVE_BUFFER_POOL_ENABLED}).
+     * Memory returned to the pool beyond this limit is freed immediately. Default: 1/8 of the maximum physical bytes
+     * (as per JavaCPP's maxPhysicalBytes)
+     */
+    public final static String NATIVE_BUFFER_POOL_MAX_CACHED_BYTES = "org.nd4j.memory.pool.maxcachedbytes";
+
+    /**
+     * Largest block size (in bytes) served from the native buffer pool. Larger buffers are allocated and freed directly.
+     * Default: 64MB
+     */
+    public final static String NATIVE_BUFFER_POOL_MAX_BLOCK_BYTES = "org.nd4j.memory.pool.maxblockbytes";
+
+    /**
+     * Debugging option for the native buffer pool (see {@link #NATIVE_BUFFER_POOL_ENABLED}): if true, memory returned to
+     * the pool is filled with 0xFF bytes, so that use of views of closed arrays (which may alias other arrays' data) is
+     * easier to detect. Default: false
+     */
+    public final static String NATIVE_BUFFER_POOL_POISON = "org.nd4j.memory.pool.poison";
+
+    /**
+     * Whether the workspace leak detector should be enabled on startup. When enabled, workspaces record the stack trace
+     * of every allocation, and arrays that are used after escaping their workspace scope are reported together with
+     * the location they were allocated at. This is expensive, and should only be used for debugging.<br>
+     * May also be toggled at runtime via {@code Nd4j.getWorkspaceManager().getLeakDetector().setEnabled(boolean)}.<br>
+     * Default: false
+     */
+    public final static String WORKSPACE_LEAK_DETECTION = "org.nd4j.workspace.leakdetection";
+
+    /**
+     * Number of threads used by the asynchronous CPU op executioner ({@code AsyncNativeOpExecutioner}) to run queued
+     * ops. Independent ops are executed concurrently on these threads. Default: 2
+     */
+    public final static String ASYNC_EXECUTIONER_THREADS = "org.nd4j.executioner.async.threads";
+
+    /**
+     * Maximum number of ops that may be pending in the asynchronous CPU op executioner's queue, per thread. When the
+     * queue is full, the submitting thread blocks until all pending ops are complete. Default: 128
+     */
+    public final static String ASYNC_EXECUTIONER_QUEUE_LENGTH = "org.nd4j.executioner.async.queuelength";
+
+    /**
+     * Maximum number of shape information buffers cached by the shape info provider. Once the cache is full, new shape
+     * information buffers are created without being cached. Default: 1000
+     */
+    public final static String SHAPE_INFO_CACHE_CAPACITY = "org.nd4j.cache.shapeinfo.capacity";
+
+    /**
+     * Maximum number of tensor along dimension (TAD) descriptors cached by the TAD manager. Once the cache is full, new
+     * TADs are created without being cached. Default: 1000
+     */
+    public final static String TAD_CACHE_CAPACITY = "org.nd4j.cache.tad.capacity";
+
+    /**
+     * Path of a descriptor cache snapshot file, as written by {@code DescriptorCacheSnapshot.save(File)}. If set, and
+     * the file exists, the shape info and TAD caches are pre-populated from this file when ND4J is initialized, instead
+     * of being populated lazily on first use. Not set by default.
+     */
+    public final static String DESCRIPTOR_CACHE_SNAPSHOT = "org.nd4j.cache.snapshot";
+
+    /**
+     * Sampling rate of the sampling op profiler ({@code SamplingProfiler}): if set to N > 0, 1 in N op executions are
+     * recorded, on each thread. 0 disables sampling. Default: 0
+     */
+    public final static String SAMPLING_PROFILER_RATE = "org.nd4j.profiler.sampling.rate";
+
+    /**
+     * If set to a value > 0 (and sampling is enabled via {@link #SAMPLING_PROFILER_RATE}), the per-op duration
+     * histograms of the sampling op profiler are logged with this period, in seconds. Default: 0 (not logged)
+     */
+    public final static String SAMPLING_PROFILER_EXPORT_PERIOD = "org.nd4j.profiler.sampling.exportperiod";
+
 
     private ND4JSystemProperties() {
     }
@@ -21,11 +21,13 @@
 package org.nd4j.aeron.ipc;
 
 import org.agrona.DirectBuffer;
+import org.agrona.MutableDirectBuffer;
 import org.agrona.concurrent.UnsafeBuffer;
 import org.nd4j.common.primitives.Pair;
 import org.nd4j.linalg.api.ndarray.INDArray;
 import org.nd4j.serde.binary.BinarySerde;
 
+import java.nio.Buffer;
 import java.nio.ByteBuffer;
 
 public class AeronNDArraySerde extends BinarySerde {
@@ -92,4 +94,60 @@ public class AeronNDArraySerde extends BinarySerde {
 
 
 
+    /**
+     * Write the given arrays as a single frame (see {@link BinarySerde#writeFrame(ByteBuffer, INDArray...)})
+     * directly to the given buffer, without allocating an intermediate buffer when the
+     * destination is backed by a {@link ByteBuffer} or a byte array
+     * @param buffer the buffer to write to
+     * @param offset the offset in the buffer to write the frame at
+     * @param arrays the arrays to write
+     * @return the number of bytes written
+     */
+    public static int writeFrame(MutableDirectBuffer buffer, int offset, INDArray... arrays) {
+        ByteBuffer target = wrapperFor(buffer, offset);
+        if (target != null)
+            return writeFrame(target, arrays);
+
+        //buffer wraps a raw memory address
+        ByteBuffer temp = ByteBuffer.allocateDirect(frameSizeFor(arrays));
+        int length = writeFrame(temp, arrays);
+        buffer.putBytes(offset, temp, 0, length);
+        return length;
+    }
+
+    /**
+     * Read a frame of arrays (see {@link BinarySerde#readFrame(ByteBuffer)}) from the given buffer.
+     * If the buffer is backed by a direct {@link ByteBuffer}, the arrays are views of the buffer memory (no data is
+     * copied): they are only valid as long as the buffer content is. Note that Aeron reuses the buffers passed to
+     * fragment handlers, so arrays have to be copied (or consumed) before the fragment handler returns.
+     * @param buffer the buffer to read from
+     * @param offset the offset of the frame in the buffer
+     * @return the arrays of the frame
+     */
+    public static INDArray[] toArrays(DirectBuffer buffer, int offset) {
+        ByteBuffer source = wrapperFor(buffer, offset);
+        if (source != null)
+            return readFrame(source);
+
+        //buffer wraps a raw memory address
+        byte[] bytes = new byte[buffer.capacity() - offset];
+        buffer.getBytes(offset, bytes);
+        return readFrame(ByteBuffer.wrap(bytes));
+    }
+
+    private static ByteBuffer wrapperFor(DirectBuffer buffer, int offset) {
+        ByteBuffer bb;
+        if (buffer.byteBuffer() != null)
+            bb = buffer.byteBuffer().duplicate();
+        else if (buffer.byteArray() != null)
+            bb = ByteBuffer.wrap(buffer.byteArray());
+        else
+            return null;
+
+        int start = buffer.wrapAdjustment() + offset;
+        ((Buffer) bb).limit(buffer.wrapAdjustment() + buffer.capacity());
+        ((Buffer) bb).position(start);
+        return bb;
+    }
+
 }
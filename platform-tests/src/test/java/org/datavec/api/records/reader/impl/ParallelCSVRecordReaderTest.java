@@ -0,0 +1,225 @@
+/*
+ *  ******************************************************************************
+ *  *
+ *  *
+ *  * This program and the accompanying materials are made available under the
+ *  * terms of the Apache License, Version 2.0 which is available at
+ *  * https://www.apache.org/licenses/LICENSE-2.0.
+ *  *
+ *  *  See the NOTICE file distributed with this work for additional
+ *  *  information regarding copyright ownership.
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ *  * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ *  * License for the specific language governing permissions and limitations
+ *  * under the License.
+ *  *
+ *  * SPDX-License-Identifier: Apache-2.0
+ *  *****************************************************************************
+ */
+package org.datavec.api.records.reader.impl;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.datavec.api.records.Record;
+import org.datavec.api.records.metadata.RecordMetaData;
+import org.datavec.api.records.reader.RecordReader;
+import org.datavec.api.records.reader.impl.csv.CSVRecordReader;
+import org.datavec.api.records.reader.impl.csv.ParallelCSVRecordReader;
+import org.datavec.api.split.FileSplit;
+import org.datavec.api.transform.schema.Schema;
+import org.datavec.api.writable.*;
+import org.datavec.api.writable.batch.PrimitiveColumnarRecordBatch;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.nd4j.common.io.ClassPathResource;
+import org.nd4j.common.tests.BaseND4JTest;
+import org.nd4j.common.tests.tags.TagNames;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Parallel CSV Record Reader Test")
+@Tag(TagNames.JAVA_ONLY)
+@Tag(TagNames.FILE_IO)
+class ParallelCSVRecordReaderTest extends BaseND4JTest {
+
+    private static Schema irisSchema() {
+        return new Schema.Builder()
+                .addColumnsDouble("sl", "sw", "pl", "pw")
+                .addColumnInteger("label")
+                .build();
+    }
+
+    @Test
+    @DisplayName("Test Matches CSVRecordReader")
+    void testMatchesCSVRecordReader() throws Exception {
+        File f = new ClassPathResource("datavec-api/iris.dat").getFile();
+
+        RecordReader expRR = new CSVRecordReader();
+        expRR.initialize(new FileSplit(f));
+        List<List<Writable>> exp = new ArrayList<>();
+        while (expRR.hasNext()) {
+            exp.add(expRR.next());
+        }
+
+        //Small chunks: most ranges start and end part way through a line
+        for (int chunkSize : new int[]{97, 256, 1 << 20}) {
+            RecordReader rr = new ParallelCSVRecordReader(irisSchema(), 0, ',', '"', 3, chunkSize);
+            rr.initialize(new FileSplit(f));
+            for (int epoch = 0; epoch < 2; epoch++) {
+                int count = 0;
+                while (rr.hasNext()) {
+                    List<Writable> act = rr.next();
+                    List<Writable> e = exp.get(count++);
+                    assertEquals(e.size(), act.size());
+                    for (int j = 0; j < e.size(); j++) {
+                        assertEquals(e.get(j).toDouble(), act.get(j).toDouble(), 0.0, "chunkSize=" + chunkSize);
+                    }
+                    assertTrue(act.get(4) instanceof IntWritable);
+                }
+                assertEquals(150, count);
+                rr.reset();
+            }
+            rr.close();
+        }
+    }
+
+    @Test
+    @DisplayName("Test Next Batch")
+    void testNextBatch() throws Exception {
+        File f = new ClassPathResource("datavec-api/iris.dat").getFile();
+        ParallelCSVRecordReader rr = new ParallelCSVRecordReader(irisSchema(), 0, ',', '"', 2, 300);
+        rr.initialize(new FileSplit(f));
+        assertTrue(rr.batchesSupported());
+
+        int total = 0;
+        List<Integer> sizes = new ArrayList<>();
+        while (rr.hasNext()) {
+            List<List<Writable>> batch = rr.next(32);
+            assertTrue(batch instanceof PrimitiveColumnarRecordBatch);
+            assertArrayEquals(new long[]{batch.size(), 5}, ((PrimitiveColumnarRecordBatch) batch).toArray(
+                    org.nd4j.linalg.api.buffer.DataType.FLOAT).shape());
+            sizes.add(batch.size());
+            total += batch.size();
+        }
+        assertEquals(150, total);
+        assertEquals(Arrays.asList(32, 32, 32, 32, 22), sizes);
+        rr.close();
+    }
+
+    @Test
+    @DisplayName("Test Parsing")
+    void testParsing(@TempDir Path testDir) throws Exception {
+        Schema schema = new Schema.Builder()
+                .addColumnString("s")
+                .addColumnDouble("d")
+                .addColumnFloat("f")
+                .addColumnLong("l")
+                .addColumnBoolean("b")
+                .addColumnCategorical("c", "x", "y")
+                .build();
+
+        String content = "header line\r\n" +
+                "\"a,b\",1.5,2.25,-3,true,x\r\n" +
+                "\r\n" +
+                "\"say \"\"hi\"\"\", -1e-3 ,0.1,9223372036854775807,false,y\r\n" +
+                "plain,1234567890.123456789,3.4028235E38,0,TRUE,x\n" +
+                "last, 2.5e2 ,-0.0,+42,false,y";
+        File f = testDir.resolve("test.csv").toFile();
+        FileUtils.writeStringToFile(f, content, StandardCharsets.UTF_8);
+
+        List<List<Writable>> exp = Arrays.asList(
+                Arrays.<Writable>asList(new Text("a,b"), new DoubleWritable(1.5), new FloatWritable(2.25f), new LongWritable(-3),
+                        new BooleanWritable(true), new Text("x")),
+                Arrays.<Writable>asList(new Text("say \"hi\""), new DoubleWritable(-1e-3), new FloatWritable(0.1f),
+                        new LongWritable(Long.MAX_VALUE), new BooleanWritable(false), new Text("y")),
+                Arrays.<Writable>asList(new Text("plain"), new DoubleWritable(1234567890.123456789), new FloatWritable(3.4028235E38f),
+                        new LongWritable(0), new BooleanWritable(true), new Text("x")),
+                Arrays.<Writable>asList(new Text("last"), new DoubleWritable(250.0), new FloatWritable(-0.0f),
+                        new LongWritable(42), new BooleanWritable(false), new Text("y")));
+
+        for (int chunkSize : new int[]{1, 7, 1 << 20}) {
+            ParallelCSVRecordReader rr = new ParallelCSVRecordReader(schema, 1, ',', '"', 4, chunkSize);
+            rr.initialize(new FileSplit(f));
+            List<List<Writable>> act = new ArrayList<>();
+            List<RecordMetaData> meta = new ArrayList<>();
+            while (rr.hasNext()) {
+                Record r = rr.nextRecord();
+                act.add(r.getRecord());
+                meta.add(r.getMetaData());
+            }
+            assertEquals(exp, act, "chunkSize=" + chunkSize);
+
+            //Line numbers include the header and empty lines
+            assertEquals("test.csv line 3", meta.get(1).getLocation());
+            List<Record> loaded = rr.loadFromMetaData(meta);
+            for (int i = 0; i < exp.size(); i++) {
+                assertEquals(exp.get(i), loaded.get(i).getRecord());
+            }
+            rr.close();
+        }
+    }
+
+    @Test
+    @DisplayName("Test Long Lines")
+    void testLongLines(@TempDir Path testDir) throws Exception {
+        //Lines much longer than the mapped tail past each range: the mapping must be extended to parse them
+        Schema schema = new Schema.Builder().addColumnInteger("i").addColumnString("s").build();
+        StringBuilder sb = new StringBuilder();
+        List<String> strings = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            String str = StringUtils.repeat((char) ('a' + i), (i + 1) * 150_000);
+            strings.add(str);
+            sb.append(i).append(",").append(str).append("\n");
+        }
+        File f = testDir.resolve("long.csv").toFile();
+        FileUtils.writeStringToFile(f, sb.toString(), StandardCharsets.UTF_8);
+
+        for (int chunkSize : new int[]{1000, 100_000, 1 << 20}) {
+            ParallelCSVRecordReader rr = new ParallelCSVRecordReader(schema, 0, ',', '"', 3, chunkSize);
+            rr.initialize(new FileSplit(f));
+            int count = 0;
+            while (rr.hasNext()) {
+                List<Writable> l = rr.next();
+                assertEquals(count, l.get(0).toInt(), "chunkSize=" + chunkSize);
+                assertEquals(strings.get(count), l.get(1).toString(), "chunkSize=" + chunkSize);
+                count++;
+            }
+            assertEquals(5, count, "chunkSize=" + chunkSize);
+            rr.close();
+        }
+    }
+
+    @Test
+    @DisplayName("Test Invalid Values")
+    void testInvalidValues(@TempDir Path testDir) throws Exception {
+        Schema schema = new Schema.Builder().addColumnInteger("i").addColumnDouble("d").build();
+        File f = testDir.resolve("test.csv").toFile();
+
+        FileUtils.writeStringToFile(f, "1,2.0\n1.5,3.0\n", StandardCharsets.UTF_8);
+        ParallelCSVRecordReader rr = new ParallelCSVRecordReader(schema);
+        rr.initialize(new FileSplit(f));
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> {
+            while (rr.hasNext()) {
+                rr.next();
+            }
+        });
+        assertTrue(e.getMessage().contains("\"1.5\""), e.getMessage());
+        rr.close();
+
+        FileUtils.writeStringToFile(f, "1,2.0,3\n", StandardCharsets.UTF_8);
+        ParallelCSVRecordReader rr2 = new ParallelCSVRecordReader(schema);
+        rr2.initialize(new FileSplit(f));
+        assertThrows(IllegalStateException.class, rr2::next);
+        rr2.close();
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ *  ******************************************************************************
+ *  *
+ *  *
+ *  * This program and the accompanying materials are made available under the
+ *  * terms of the Apache License, Version 2.0 which is available at
+ *  * https://www.apache.org/licenses/LICENSE-2.0.
+ *  *
+ *  *  See the NOTICE file distributed with this work for additional
+ *  *  information regarding copyright ownership.
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ *  * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ *  * License for the specific language governing permissions and limitations
+ *  * under the License.
+ *  *
+ *  * SPDX-License-Identifier: Apache-2.0
+ *  *****************************************************************************
+ */
+package org.datavec.api.transform;
+
+import org.datavec.api.transform.condition.ConditionOp;
+import org.datavec.api.transform.condition.column.DoubleColumnCondition;
+import org.datavec.api.transform.schema.Schema;
+import org.datavec.api.writable.*;
+import org.datavec.api.writable.batch.ColumnarRecordBatch;
+import org.datavec.api.writable.batch.PrimitiveColumnarRecordBatch;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.nd4j.common.tests.BaseND4JTest;
+import org.nd4j.common.tests.tags.TagNames;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Tag(TagNames.JAVA_ONLY)
+public class TestCompiledTransformProcess extends BaseND4JTest {
+
+    private static Schema schema() {
+        return new Schema.Builder()
+                .addColumnString("s")
+                .addColumnInteger("i")
+                .addColumnsDouble("d", "e")
+                .build();
+    }
+
+    private static List<List<Writable>> data(int n) {
+        Random r = new Random(12345);
+        List<List<Writable>> out = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            out.add(Arrays.<Writable>asList(new Text("s" + i), new IntWritable(r.nextInt(100)),
+                    new DoubleWritable(r.nextDouble()), new DoubleWritable(r.nextDouble())));
+        }
+        return out;
+    }
+
+    @Test
+    public void testCompiledMatchesTransformProcess() {
+        TransformProcess tp = new TransformProcess.Builder(schema())
+                .doubleMathOp("d", MathOp.Multiply, 2.0)
+                .integerMathOp("i", MathOp.Add, 1)
+                .renameColumn("d", "d2")
+                .filter(new DoubleColumnCondition("e", ConditionOp.LessThan, 0.25))
+                .doubleMathOp("e", MathOp.Subtract, 1.0)
+                .duplicateColumn("i", "iCopy")
+                .removeColumns("s")
+                .reorderColumns("e", "iCopy")
+                .convertToString("i")
+                .build();
+        CompiledTransformProcess compiled = tp.compile();
+        assertEquals(tp.getFinalSchema(), compiled.getFinalSchema());
+
+        List<List<Writable>> in = data(500);
+        int count = 0;
+        for (List<Writable> l : in) {
+            List<Writable> exp = tp.execute(l);
+            assertEquals(exp, compiled.execute(l));
+            if (exp != null)
+                count++;
+        }
+        assertTrue(count > 0 && count < in.size());
+
+        PrimitiveColumnarRecordBatch batch = PrimitiveColumnarRecordBatch.fromRecords(schema(), in);
+        ColumnarRecordBatch exp = tp.executeColumnar(batch);
+        ColumnarRecordBatch act = compiled.executeColumnar(batch);
+        assertEquals(tp.getFinalSchema().getColumnNames(), act.getSchema().getColumnNames());
+        assertEquals(new ArrayList<>(exp), new ArrayList<>(act));
+    }
+
+    @Test
+    public void testFusionAndRedundantStepRemoval() {
+        TransformProcess tp = new TransformProcess.Builder(schema())
+                .doubleMathOp("d", MathOp.Multiply, 2.0)
+                .integerMathOp("i", MathOp.Add, 1)
+                .doubleMathOp("e", MathOp.Add, 1.0)
+                .renameColumn("d", "d2")
+                .removeColumns("e")
+                .reorderColumns("d2", "i")
+                .build();
+
+        //Expect: one in-place step for the "d" and "i" transforms ("e" is removed, so isn't calculated),
+        // and one projection for the rename/remove/reorder steps
+        CompiledTransformProcess compiled = tp.compile();
+        assertEquals(2, compiled.numSteps(), compiled.toString());
+
+        for (List<Writable> l : data(100)) {
+            assertEquals(tp.execute(l), compiled.execute(l));
+        }
+
+        //Rename only: no steps remain
+        TransformProcess rename = new TransformProcess.Builder(schema())
+                .renameColumn("s", "s2")
+                .build();
+        CompiledTransformProcess c2 = rename.compile();
+        assertEquals(0, c2.numSteps());
+        List<List<Writable>> in = data(10);
+        assertEquals(in.get(0), c2.execute(in.get(0)));
+        ColumnarRecordBatch out = c2.executeColumnar(PrimitiveColumnarRecordBatch.fromRecords(schema(), in));
+        assertEquals(Arrays.asList("s2", "i", "d", "e"), out.getSchema().getColumnNames());
+        assertEquals(in, new ArrayList<>(out));
+    }
+
+    @Test
+    public void testCannotCompileSequenceOps() {
+        TransformProcess tp = new TransformProcess.Builder(schema())
+                .removeColumns("e")
+                .convertToSequence()
+                .build();
+        assertFalse(CompiledTransformProcess.canCompile(tp.getActionList()));
+        assertThrows(IllegalStateException.class, tp::compile);
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ *  ******************************************************************************
+ *  *
+ *  *
+ *  * This program and the accompanying materials are made available under the
+ *  * terms of the Apache License, Version 2.0 which is available at
+ *  * https://www.apache.org/licenses/LICENSE-2.0.
+ *  *
+ *  *  See the NOTICE file distributed with this work for additional
+ *  *  information regarding copyright ownership.
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ *  * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ *  * License for the specific language governing permissions and limitations
+ *  * under the License.
+ *  *
+ *  * SPDX-License-Identifier: Apache-2.0
+ *  *****************************************************************************
+ */
+
+package org.datavec.api.writable;
+
+import org.datavec.api.transform.ColumnType;
+import org.datavec.api.transform.MathOp;
+import org.datavec.api.transform.TransformProcess;
+import org.datavec.api.transform.condition.ConditionOp;
+import org.datavec.api.transform.condition.column.DoubleColumnCondition;
+import org.datavec.api.transform.filter.ConditionFilter;
+import org.datavec.api.transform.schema.Schema;
+import org.datavec.api.transform.transform.doubletransform.MinMaxNormalizer;
+import org.datavec.api.writable.batch.ColumnarRecordBatch;
+import org.datavec.api.writable.batch.PrimitiveColumnarRecordBatch;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.nd4j.common.tests.BaseND4JTest;
+import org.nd4j.common.tests.tags.TagNames;
+import org.nd4j.linalg.api.buffer.DataType;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+import org.nd4j.linalg.indexing.NDArrayIndex;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Tag(TagNames.JAVA_ONLY)
+public class TestPrimitiveColumnarRecordBatch extends BaseND4JTest {
+
+    private static Schema schema() {
+        return new Schema.Builder()
+                .addColumnDouble("d")
+                .addColumnInteger("i")
+                .addColumnCategorical("c", "a", "b")
+                .addColumnString("s")
+                .addColumnLong("l")
+                .build();
+    }
+
+    private static List<List<Writable>> records() {
+        List<List<Writable>> l = new ArrayList<>();
+        for( int i = 0; i < 10; i++) {
+            l.add(Arrays.<Writable>asList(new DoubleWritable(i / 2.0), new IntWritable(i), new Text(i % 2 == 0 ? "a" : "b"),
+                    new Text("s" + i), new LongWritable(100L * i)));
+        }
+        return l;
+    }
+
+    @Test
+    public void testFromRecordsRoundTrip() {
+        Schema schema = schema();
+        List<List<Writable>> records = records();
+
+        PrimitiveColumnarRecordBatch batch = PrimitiveColumnarRecordBatch.fromRecords(schema, records);
+        assertEquals(10, batch.size());
+        assertEquals(5, batch.numColumns());
+        assertTrue(batch.getColumnData(0) instanceof double[]);
+        assertTrue(batch.getColumnData(1) instanceof int[]);
+        assertTrue(batch.getColumnData(2) instanceof String[]);
+        assertTrue(batch.getColumnData(4) instanceof long[]);
+
+        for( int i = 0; i < records.size(); i++) {
+            assertEquals(records.get(i), batch.get(i));
+        }
+        assertEquals(records, new ArrayList<>(batch));
+        assertSame(batch, PrimitiveColumnarRecordBatch.fromRecords(schema, batch));
+    }
+
+    @Test
+    public void testToArray() {
+        PrimitiveColumnarRecordBatch batch = PrimitiveColumnarRecordBatch.fromRecords(schema(), records());
+
+        INDArray arr = batch.toArray(DataType.FLOAT, 0, 1, 4);
+        assertEquals(DataType.FLOAT, arr.dataType());
+        assertArrayEquals(new long[]{10, 3}, arr.shape());
+        for( int i = 0; i < 10; i++) {
+            assertEquals(i / 2.0, arr.getDouble(i, 0), 1e-6);
+            assertEquals(i, arr.getDouble(i, 1), 1e-6);
+            assertEquals(100.0 * i, arr.getDouble(i, 2), 1e-6);
+        }
+
+        INDArray all = batch.selectColumns(0, 1).toArray(DataType.DOUBLE);
+        INDArray exp = Nd4j.create(new double[]{0, 0, 0.5, 1}, new long[]{2, 2}, DataType.DOUBLE);
+        assertEquals(exp, all.get(NDArrayIndex.interval(0, 2), NDArrayIndex.all()));
+    }
+
+    @Test
+    public void testExecuteColumnarMatchesRowWise() {
+        Schema schema = schema();
+        List<List<Writable>> records = records();
+
+        TransformProcess tp = new TransformProcess.Builder(schema)
+                .transform(new MinMaxNormalizer("d", 0, 4.5))
+                .doubleMathOp("d", MathOp.Multiply, 2.0)
+                .removeColumns("s")
+                .categoricalToInteger("c")                  //No columnar implementation: row-wise fallback
+                .filter(new ConditionFilter(new DoubleColumnCondition("d", ConditionOp.GreaterThan, 1.5)))
+                .build();
+
+        List<List<Writable>> expected = new ArrayList<>();
+        for(List<Writable> l : records) {
+            List<Writable> out = tp.execute(l);
+            if(out != null) {
+                expected.add(out);
+            }
+        }
+
+        ColumnarRecordBatch out = tp.executeColumnar(PrimitiveColumnarRecordBatch.fromRecords(schema, records));
+        assertEquals(tp.getFinalSchema(), out.getSchema());
+        assertEquals(expected.size(), out.size());
+        for( int i = 0; i < expected.size(); i++) {
+            List<Writable> e = expected.get(i);
+            List<Writable> a = out.get(i);
+            assertEquals(e.size(), a.size());
+            for( int j = 0; j < e.size(); j++) {
+                assertEquals(e.get(j).toDouble(), a.get(j).toDouble(), 1e-9);
+            }
+        }
+        assertEquals(ColumnType.Integer, out.getSchema().getType(1));
+    }
+}
@@ -24,7 +24,10 @@ import lombok.val;
 import org.apache.arrow.memory.BufferAllocator;
 import org.apache.arrow.memory.RootAllocator;
 import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.Float8Vector;
+import org.apache.arrow.vector.IntVector;
 import org.apache.arrow.vector.TimeStampMilliVector;
+import org.apache.arrow.vector.VarCharVector;
 import org.apache.arrow.vector.VectorSchemaRoot;
 import org.apache.arrow.vector.VectorUnloader;
 import org.apache.arrow.vector.ipc.ArrowFileWriter;
@@ -48,6 +51,7 @@ import org.junit.jupiter.api.io.TempDir;
 import org.nd4j.common.primitives.Pair;
 import org.nd4j.common.tests.BaseND4JTest;
 import org.nd4j.common.tests.tags.TagNames;
+import org.nd4j.linalg.api.buffer.DataType;
 import org.nd4j.linalg.api.ndarray.INDArray;
 import org.nd4j.linalg.factory.Nd4j;
 
@@ -400,6 +404,44 @@ class ArrowConverterTest extends BaseND4JTest {
         assertEquals(now.getTime(), timeStampMilliVector.get(0));
     }
 
+    @Test
+    @DisplayName("Test To Array View")
+    void testToArrayView() {
+        double[] d = {1.0, 2.0, 3.0, 4.0, 5.0};
+        int[] i = {1, 2, 3, 4, 5};
+        Float8Vector doubles = ArrowConverter.vectorFor(bufferAllocator, "col-0", d);
+        IntVector ints = ArrowConverter.vectorFor(bufferAllocator, "col-1", i);
+
+        INDArray view = ArrowConverter.toArrayView(doubles, 1, 3);
+        assertEquals(Nd4j.createFromArray(2.0, 3.0, 4.0).reshape(3, 1), view);
+        //View shares memory with the Arrow vector
+        doubles.set(2, 10.0);
+        assertEquals(10.0, view.getDouble(1), 0.0);
+        doubles.set(2, 3.0);
+
+        INDArray intView = ArrowConverter.toArrayView(ints, 0, 5);
+        assertEquals(DataType.INT, intView.dataType());
+        assertEquals(Nd4j.createFromArray(i).reshape(5, 1), intView);
+
+        Schema schema = new Schema.Builder().addColumnDouble("col-0").addColumnInteger("col-1").build();
+        ArrowWritableRecordBatch batch = new ArrowWritableRecordBatch(Arrays.<FieldVector>asList(doubles, ints), schema, 1, 3);
+        INDArray expected = Nd4j.createFromArray(new double[][]{{2, 2}, {3, 3}, {4, 4}});
+        assertEquals(expected, ArrowConverter.toArray(batch, DataType.DOUBLE));
+        assertEquals(expected.getColumn(1, true).castTo(DataType.FLOAT), ArrowConverter.toArray(batch, DataType.FLOAT, 1));
+        //toArray always copies, also for a single column; toArrayView doesn't
+        INDArray copy = ArrowConverter.toArray(batch, DataType.DOUBLE, 0);
+        copy.muli(0);
+        assertEquals(3.0, doubles.get(2), 0.0);
+        assertEquals(expected.getColumn(0, true), ArrowConverter.toArrayView(batch, 0));
+
+        //Nulls and unsupported vector types can't be viewed, but still convert via the element-wise path
+        ints.setNull(4);
+        assertNull(ArrowConverter.toArrayView(ints, 0, 5));
+        assertNotNull(ArrowConverter.toArrayView(ints, 0, 4));
+        VarCharVector strings = ArrowConverter.vectorFor(bufferAllocator, "col-2", new String[]{"1", "2"});
+        assertNull(ArrowConverter.toArrayView(strings, 0, 2));
+    }
+
     @Test
     @DisplayName("Test Record Reader Meta Data")
     void testRecordReaderMetaData() throws Exception {
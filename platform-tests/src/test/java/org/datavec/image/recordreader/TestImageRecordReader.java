@@ -37,6 +37,8 @@ import org.datavec.api.writable.NDArrayWritable;
 import org.datavec.api.writable.Writable;
 import org.datavec.api.writable.batch.NDArrayRecordBatch;
 import org.datavec.image.recordreader.ImageRecordReader;
+import org.datavec.image.transform.FlipImageTransform;
+import org.datavec.image.transform.ImageTransform;
 import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
@@ -52,7 +54,9 @@ import java.net.URI;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Random;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -555,5 +559,67 @@ public class TestImageRecordReader {
             assertArrayEquals(new long[]{1, 32, 32, 3}, arr.shape());
         }
     }
-}
 
+    @Test
+    public void testParallelDecode(@TempDir Path testDir) throws Exception {
+        File f0 = testDir.toFile();
+        new ClassPathResource("datavec-data-image/testimages/").copyDirectory(f0);
+        FileSplit fs = new FileSplit(f0);
+
+        ImageRecordReader serial = new ImageRecordReader(32, 32, 3, new ParentPathLabelGenerator(), new FlipImageTransform(1));
+        serial.initialize(fs);
+        List<List<Writable>> expSingle = new ArrayList<>();
+        Map<File,List<Writable>> expByFile = new HashMap<>();
+        while (serial.hasNext()) {
+            List<Writable> l = serial.next();
+            expSingle.add(l);
+            expByFile.put(serial.getCurrentFile(), l);
+        }
+        serial.reset();
+        List<List<Writable>> expBatch = serial.next(4);
+        serial.reset();
+        serial.next();
+        List<List<Writable>> expMixedBatch = serial.next(4);
+        assertEquals(6, expSingle.size());
+
+        for (boolean factory : new boolean[]{false, true}) {
+            ImageRecordReader parallel = new ImageRecordReader(32, 32, 3, new ParentPathLabelGenerator(), new FlipImageTransform(1));
+            parallel.setNumDecodeThreads(3);
+            if (factory) {
+                parallel.setImageTransformFactory(() -> new FlipImageTransform(1));
+            }
+            parallel.initialize(fs);
+
+            //Ordered output, single records
+            List<List<Writable>> actSingle = new ArrayList<>();
+            while (parallel.hasNext()) {
+                actSingle.add(parallel.next());
+            }
+            assertEquals(expSingle, actSingle);
+
+            //Batches: decoded directly into the batch array
+            parallel.reset();
+            assertEquals(new ArrayList<>(expBatch), new ArrayList<>(parallel.next(4)));
+
+            //Mixed: some images are already in progress when the batch is requested
+            parallel.reset();
+            assertEquals(expSingle.get(0), parallel.next());
+            List<List<Writable>> batch = parallel.next(4);
+            assertEquals(new ArrayList<>(expMixedBatch), new ArrayList<>(batch));
+            assertEquals(expSingle.get(5), parallel.next());
+            assertFalse(parallel.hasNext());
+
+            //Unordered output: same images, possibly in a different order
+            parallel.reset();
+            parallel.setOrderedOutput(false);
+            int count = 0;
+            while (parallel.hasNext()) {
+                List<Writable> l = parallel.next();
+                assertEquals(expByFile.get(parallel.getCurrentFile()), l);
+                count++;
+            }
+            assertEquals(6, count);
+            parallel.close();
+        }
+    }
+}
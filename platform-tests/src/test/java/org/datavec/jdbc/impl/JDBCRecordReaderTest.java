@@ -29,8 +29,10 @@ import org.datavec.api.records.listener.impl.LogRecordListener;
 import org.datavec.api.records.metadata.RecordMetaData;
 import org.datavec.api.records.metadata.RecordMetaDataLine;
 import org.datavec.api.writable.*;
+import org.datavec.api.writable.batch.PrimitiveColumnarRecordBatch;
 import org.datavec.jdbc.records.metadata.RecordMetaDataJdbc;
 import org.datavec.jdbc.records.reader.impl.jdbc.JDBCRecordReader;
+import org.datavec.jdbc.split.JdbcRangeSplit;
 import org.junit.jupiter.api.*;
 import org.junit.jupiter.api.io.TempDir;
 import org.nd4j.common.tests.tags.TagNames;
@@ -41,8 +43,11 @@ import java.nio.file.Path;
 import java.sql.Connection;
 import java.sql.ResultSet;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -227,6 +232,94 @@ public class JDBCRecordReaderTest {
         });
     }
 
+    @Test
+    @DisplayName("Test Next Batch Columnar")
+    void testNextBatchColumnar() throws Exception {
+        TestDb.buildPointsTable(conn, 25);
+        try (JDBCRecordReader reader = new JDBCRecordReader("SELECT * FROM Points ORDER BY id", dataSource)) {
+            reader.setResultSetType(ResultSet.TYPE_FORWARD_ONLY);
+            reader.setFetchSize(10);
+            reader.setColumnarBatches(true);
+            reader.initialize(null);
+            assertTrue(reader.batchesSupported());
+            List<List<Writable>> all = new ArrayList<>();
+            while (reader.hasNext()) {
+                List<List<Writable>> batch = reader.next(10);
+                assertTrue(batch instanceof PrimitiveColumnarRecordBatch);
+                all.addAll(new ArrayList<>(batch));
+            }
+            assertEquals(25, all.size());
+            for (int i = 0; i < 25; i++) {
+                assertEquals(Arrays.asList(new IntWritable(i + 1), new DoubleWritable((i + 1) / 2.0), new Text("p" + (i + 1))), all.get(i));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Test Next Batch Columnar Disabled By Default")
+    void testNextBatchColumnarDisabled() throws Exception {
+        TestDb.buildPointsTable(conn, 5);
+        try (JDBCRecordReader reader = new JDBCRecordReader("SELECT * FROM Points ORDER BY id", dataSource)) {
+            reader.initialize(null);
+            assertFalse(reader.batchesSupported());
+            List<List<Writable>> batch = reader.next(10);
+            assertFalse(batch instanceof PrimitiveColumnarRecordBatch);
+            assertEquals(5, batch.size());
+            assertEquals(new IntWritable(5), batch.get(4).get(0));
+        }
+    }
+
+    @Test
+    @DisplayName("Test Next Batch With Nulls")
+    void testNextBatchWithNulls() throws Exception {
+        TestDb.buildPointsTable(conn, 5);
+        conn.createStatement().execute("UPDATE Points SET x = NULL WHERE id = 3");
+        try (JDBCRecordReader reader = new JDBCRecordReader("SELECT * FROM Points ORDER BY id", dataSource)) {
+            reader.setColumnarBatches(true);
+            reader.initialize(null);
+            List<List<Writable>> batch = reader.next(10);
+            assertFalse(batch instanceof PrimitiveColumnarRecordBatch);
+            assertEquals(5, batch.size());
+            assertEquals(new DoubleWritable(1.0), batch.get(1).get(1));
+            assertEquals(NullWritable.class, batch.get(2).get(1).getClass());
+            assertEquals(new IntWritable(5), batch.get(4).get(0));
+            assertFalse(reader.hasNext());
+        }
+    }
+
+    @Test
+    @DisplayName("Test Range Partitions")
+    void testRangePartitions() throws Exception {
+        TestDb.buildPointsTable(conn, 100);
+        String query = "SELECT * FROM Points";
+        JdbcRangeSplit[] splits = JdbcRangeSplit.partition(dataSource, query, "id", 3);
+        assertEquals(3, splits.length);
+        assertEquals(1, splits[0].getLower());
+        assertEquals(100, splits[2].getUpper());
+        assertTrue(splits[2].isUpperInclusive());
+
+        Set<Integer> seen = new HashSet<>();
+        for (JdbcRangeSplit split : splits) {
+            try (JDBCRecordReader reader = new JDBCRecordReader(query, dataSource)) {
+                reader.initialize(split);
+                int count = 0;
+                while (reader.hasNext()) {
+                    for (List<Writable> record : reader.next(16)) {
+                        int id = record.get(0).toInt();
+                        assertTrue(id >= split.getLower() && id <= split.getUpper());
+                        assertTrue(seen.add(id));
+                        count++;
+                    }
+                }
+                assertTrue(count > 0);
+            }
+        }
+        assertEquals(100, seen.size());
+
+        //Fewer values than partitions
+        assertEquals(2, JdbcRangeSplit.partition("id", 5, 6, 4).length);
+    }
+
     @Test
     @DisplayName("Test Read All Types")
     void testReadAllTypes() throws Exception {
@@ -266,6 +359,13 @@ public class JDBCRecordReaderTest {
             // bigint to long
             assertEquals(LongWritable.class, item.get(14).getClass());
         }
+        try (JDBCRecordReader reader = new JDBCRecordReader("SELECT * FROM AllTypes", dataSource)) {
+            reader.setColumnarBatches(true);
+            reader.initialize(null);
+            List<Writable> item = reader.next(1).get(0);
+            // real to float, as per the row-wise path
+            assertEquals(FloatWritable.class, item.get(8).getClass());
+        }
     }
 
     @Test
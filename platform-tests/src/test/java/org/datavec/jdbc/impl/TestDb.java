@@ -35,6 +35,10 @@ public class TestDb {
                 stmt.execute("DROP TABLE AllTypes");
             } catch (SQLException ex) {
             }
+            try {
+                stmt.execute("DROP TABLE Points");
+            } catch (SQLException ex) {
+            }
         } catch (SQLException ex) {
             System.out.println("ERROR: " + ex.getMessage());
             ex.printStackTrace();
@@ -65,6 +69,17 @@ public class TestDb {
         }
     }
 
+    /**
+     * Creates the Points table, with numRows rows (id, x, name) = (i, i / 2.0, "p" + i) for i in [1, numRows]
+     */
+    public static void buildPointsTable(Connection conn, int numRows) throws SQLException {
+        Statement stmt = conn.createStatement();
+        stmt.execute("CREATE TABLE Points (id INTEGER NOT NULL PRIMARY KEY, x DOUBLE, name VARCHAR(10))");
+        for (int i = 1; i <= numRows; i++) {
+            stmt.execute("INSERT INTO Points VALUES (" + i + ", " + (i / 2.0) + ", 'p" + i + "')");
+        }
+    }
+
     public static void buildAllTypesTable(Connection conn) {
         try {
             Statement stmt = conn.createStatement();
@@ -21,12 +21,17 @@
 package org.datavec.local.transforms.analysis;
 
 import org.datavec.api.records.reader.RecordReader;
+import org.datavec.api.records.reader.impl.collection.CollectionRecordReader;
 import org.datavec.api.records.reader.impl.csv.CSVRecordReader;
 import org.datavec.api.split.FileSplit;
 import org.datavec.api.transform.analysis.DataAnalysis;
 import org.datavec.api.transform.analysis.columns.NumericalColumnAnalysis;
+import org.datavec.api.transform.analysis.columns.StringAnalysis;
 import org.datavec.api.transform.schema.Schema;
 import org.datavec.api.util.ndarray.RecordConverter;
+import org.datavec.api.writable.DoubleWritable;
+import org.datavec.api.writable.IntWritable;
+import org.datavec.api.writable.Text;
 import org.datavec.api.writable.Writable;
 import org.datavec.local.transforms.AnalyzeLocal;
 import org.junit.jupiter.api.Tag;
@@ -36,10 +41,9 @@ import org.nd4j.common.tests.tags.TagNames;
 import org.nd4j.linalg.api.buffer.DataType;
 import org.nd4j.linalg.api.ndarray.INDArray;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.*;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.*;
 @Tag(TagNames.FILE_IO)
 @Tag(TagNames.JAVA_ONLY)
 public class TestAnalyzeLocal {
@@ -81,4 +85,63 @@ public class TestAnalyzeLocal {
 
     }
 
+    @Test
+    public void testAnalysisParallel() throws Exception {
+        Schema s = new Schema.Builder()
+                .addColumnInteger("int")
+                .addColumnDouble("double")
+                .addColumnString("str")
+                .build();
+
+        Random r = new Random(12345);
+        List<List<Writable>> data = new ArrayList<>();
+        Set<Integer> uniqueInts = new HashSet<>();
+        Set<String> uniqueStrings = new HashSet<>();
+        for (int i = 0; i < 20000; i++) {
+            int v = r.nextInt(1000);
+            String str = "s" + r.nextInt(5000);
+            uniqueInts.add(v);
+            uniqueStrings.add(str);
+            data.add(Arrays.<Writable>asList(new IntWritable(v), new DoubleWritable(r.nextGaussian()), new Text(str)));
+        }
+
+        DataAnalysis exact = AnalyzeLocal.analyze(s, new CollectionRecordReader(data), 20);
+        DataAnalysis parallel = AnalyzeLocal.analyze(s, new CollectionRecordReader(data), 20, 4);
+
+        for (int i = 0; i < 2; i++) {
+            NumericalColumnAnalysis e = (NumericalColumnAnalysis) exact.getColumnAnalysis().get(i);
+            NumericalColumnAnalysis p = (NumericalColumnAnalysis) parallel.getColumnAnalysis().get(i);
+            assertEquals(e.getCountTotal(), p.getCountTotal());
+            assertEquals(e.getMinDouble(), p.getMinDouble(), 0.0);
+            assertEquals(e.getMaxDouble(), p.getMaxDouble(), 0.0);
+            assertEquals(e.getMean(), p.getMean(), 1e-6);
+            assertEquals(e.getSampleStdev(), p.getSampleStdev(), 1e-6);
+            assertEquals(e.getCountMinValue(), p.getCountMinValue());
+            assertEquals(e.getCountMaxValue(), p.getCountMaxValue());
+            assertEquals(e.getDigest().quantile(0.5), p.getDigest().quantile(0.5), 0.05 * e.getSampleStdev());
+            assertArrayEquals(e.getHistogramBuckets(), p.getHistogramBuckets(), 1e-9);
+            assertHistogramClose(e.getHistogramBucketCounts(), p.getHistogramBucketCounts(), e.getCountTotal());
+        }
+
+        NumericalColumnAnalysis intCol = (NumericalColumnAnalysis) parallel.getColumnAnalysis().get(0);
+        assertNull(((NumericalColumnAnalysis) exact.getColumnAnalysis().get(0)).getCountUnique());
+        assertEquals(uniqueInts.size(), intCol.getCountUnique(), 0.05 * uniqueInts.size());
+
+        StringAnalysis e = (StringAnalysis) exact.getColumnAnalysis().get(2);
+        StringAnalysis p = (StringAnalysis) parallel.getColumnAnalysis().get(2);
+        assertEquals(e.getCountTotal(), p.getCountTotal());
+        assertEquals(e.getMinLength(), p.getMinLength());
+        assertEquals(e.getMaxLength(), p.getMaxLength());
+        assertEquals(e.getMeanLength(), p.getMeanLength(), 1e-6);
+        assertEquals(uniqueStrings.size(), p.getCountUnique(), 0.05 * uniqueStrings.size());
+        assertEquals(e.getCountTotal(), Arrays.stream(p.getHistogramBucketCounts()).sum());
+    }
+
+    private static void assertHistogramClose(long[] exact, long[] approx, long total) {
+        assertEquals(exact.length, approx.length);
+        assertEquals(total, Arrays.stream(approx).sum());
+        for (int i = 0; i < exact.length; i++) {
+            assertEquals(exact[i], approx[i], 0.01 * total, "Bucket " + i);
+        }
+    }
 }
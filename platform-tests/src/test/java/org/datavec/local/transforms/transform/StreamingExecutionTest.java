@@ -0,0 +1,262 @@
+/*
+ *  ******************************************************************************
+ *  *
+ *  *
+ *  * This program and the accompanying materials are made available under the
+ *  * terms of the Apache License, Version 2.0 which is available at
+ *  * https://www.apache.org/licenses/LICENSE-2.0.
+ *  *
+ *  *  See the NOTICE file distributed with this work for additional
+ *  *  information regarding copyright ownership.
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ *  * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ *  * License for the specific language governing permissions and limitations
+ *  * under the License.
+ *  *
+ *  * SPDX-License-Identifier: Apache-2.0
+ *  *****************************************************************************
+ */
+package org.datavec.local.transforms.transform;
+
+import org.datavec.api.transform.MathOp;
+import org.datavec.api.transform.ReduceOp;
+import org.datavec.api.transform.TransformProcess;
+import org.datavec.api.transform.condition.ConditionOp;
+import org.datavec.api.transform.condition.column.DoubleColumnCondition;
+import org.datavec.api.transform.join.Join;
+import org.datavec.api.transform.reduce.Reducer;
+import org.datavec.api.transform.schema.Schema;
+import org.datavec.api.transform.sequence.comparator.NumericalColumnComparator;
+import org.datavec.api.writable.*;
+import org.datavec.api.writable.comparator.DoubleWritableComparator;
+import org.datavec.local.transforms.LocalTransformExecutor;
+import org.datavec.local.transforms.StreamingLocalTransformExecutor;
+import org.datavec.local.transforms.spill.ExternalSorter;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.nd4j.common.primitives.Pair;
+import org.nd4j.common.tests.tags.NativeTag;
+import org.nd4j.common.tests.tags.TagNames;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Streaming Execution Test")
+@Tag(TagNames.FILE_IO)
+@NativeTag
+class StreamingExecutionTest {
+
+    private static Schema schema() {
+        return new Schema.Builder()
+                .addColumnInteger("id")
+                .addColumnString("key")
+                .addColumnDouble("value")
+                .build();
+    }
+
+    private static List<List<Writable>> data(int n) {
+        Random r = new Random(12345);
+        List<List<Writable>> out = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            out.add(Arrays.<Writable>asList(new IntWritable(i), new Text("key" + r.nextInt(20)), new DoubleWritable(r.nextDouble())));
+        }
+        return out;
+    }
+
+    private static StreamingLocalTransformExecutor executor(File spillDir) {
+        //Small memory limit: forces data to be spilled to disk
+        return StreamingLocalTransformExecutor.builder()
+                .numThreads(4)
+                .batchSize(37)
+                .maxMemoryBytes(16 * 1024)
+                .spillDirectory(spillDir)
+                .build();
+    }
+
+    private static List<String> sortedStrings(Collection<?> c) {
+        List<String> out = new ArrayList<>();
+        for (Object o : c) {
+            out.add(o.toString());
+        }
+        Collections.sort(out);
+        return out;
+    }
+
+    @Test
+    @DisplayName("Test Stateless Steps Preserve Order")
+    void testStateless(@TempDir Path testDir) {
+        List<List<Writable>> in = data(5000);
+        TransformProcess tp = new TransformProcess.Builder(schema())
+                .doubleMathOp("value", MathOp.Multiply, 10.0)
+                .filter(new DoubleColumnCondition("value", ConditionOp.LessThan, 5.0))
+                .removeColumns("key")
+                .build();
+
+        List<List<Writable>> exp = new ArrayList<>();
+        for (List<Writable> l : in) {
+            List<Writable> out = tp.execute(l);
+            if (out != null) {
+                exp.add(out);
+            }
+        }
+
+        final List<List<Writable>> act = new ArrayList<>();
+        executor(testDir.toFile()).execute(in.iterator(), tp, act::add);
+        assertEquals(exp, act);
+    }
+
+    @Test
+    @DisplayName("Test Reduce With Spill")
+    void testReduce(@TempDir Path testDir) {
+        List<List<Writable>> in = data(3000);
+        TransformProcess tp = new TransformProcess.Builder(schema())
+                .reduce(new Reducer.Builder(ReduceOp.Sum).keyColumns("key").countColumns("id").build())
+                .build();
+
+        List<List<Writable>> exp = LocalTransformExecutor.execute(in, tp);
+        final List<List<Writable>> act = new ArrayList<>();
+        executor(testDir.toFile()).execute(in.iterator(), tp, act::add);
+        assertEquals(20, act.size());
+        assertEquals(sortedStrings(exp), sortedStrings(act));
+
+        //Spill files are removed once execution completes
+        assertEquals(0, testDir.toFile().listFiles().length);
+    }
+
+    @Test
+    @DisplayName("Test Convert To Sequence And Rank With Spill")
+    void testConvertToSequence(@TempDir Path testDir) {
+        List<List<Writable>> in = data(2000);
+        TransformProcess tp = new TransformProcess.Builder(schema())
+                .convertToSequence("key", new NumericalColumnComparator("value"))
+                .build();
+
+        List<List<List<Writable>>> exp = LocalTransformExecutor.executeToSequence(in, tp);
+        final List<List<List<Writable>>> act = new ArrayList<>();
+        executor(testDir.toFile()).executeToSequence(in.iterator(), tp, act::add);
+        assertEquals(sortedStrings(exp), sortedStrings(act));
+
+        TransformProcess rank = new TransformProcess.Builder(schema())
+                .calculateSortedRank("rank", "value", new DoubleWritableComparator())
+                .build();
+        final List<List<Writable>> ranked = new ArrayList<>();
+        executor(testDir.toFile()).execute(in.iterator(), rank, ranked::add);
+        assertEquals(in.size(), ranked.size());
+        for (int i = 0; i < ranked.size(); i++) {
+            assertEquals(i, ranked.get(i).get(3).toLong());
+            if (i > 0) {
+                assertTrue(ranked.get(i - 1).get(2).toDouble() <= ranked.get(i).get(2).toDouble());
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Test Join With Spill")
+    void testJoin(@TempDir Path testDir) {
+        Schema customers = new Schema.Builder().addColumnLong("customerID").addColumnString("name").build();
+        Schema purchases = new Schema.Builder().addColumnLong("purchaseID").addColumnLong("customerID").addColumnDouble("amount").build();
+
+        List<List<Writable>> left = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            left.add(Arrays.<Writable>asList(new LongWritable(i), new Text("customer" + i)));
+        }
+        Random r = new Random(12345);
+        List<List<Writable>> right = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            right.add(Arrays.<Writable>asList(new LongWritable(i), new LongWritable(r.nextInt(400)), new DoubleWritable(i / 10.0)));
+        }
+
+        for (Join.JoinType jt : Join.JoinType.values()) {
+            Join join = new Join.Builder(jt).setJoinColumns("customerID").setSchemas(customers, purchases).build();
+            List<List<Writable>> exp = LocalTransformExecutor.executeJoin(join, left, right);
+            final List<List<Writable>> act = new ArrayList<>();
+            executor(testDir.toFile()).executeJoin(join, left.iterator(), right.iterator(), act::add);
+            assertEquals(sortedStrings(exp), sortedStrings(act), jt.toString());
+        }
+    }
+
+    @Test
+    @DisplayName("Test External Sorter Stable")
+    void testExternalSorterStable(@TempDir Path testDir) throws Exception {
+        List<Pair<Writable, List<Writable>>> exp = new ArrayList<>();
+        try (ExternalSorter sorter = new ExternalSorter(new Comparator<Writable>() {
+            @Override
+            public int compare(Writable o1, Writable o2) {
+                return Integer.compare(o1.toInt(), o2.toInt());
+            }
+        }, 2048, testDir.toFile())) {
+            for (int i = 0; i < 1000; i++) {
+                Writable key = new IntWritable(i % 7);
+                List<Writable> value = Collections.<Writable>singletonList(new IntWritable(i));
+                sorter.add(key, value);
+                exp.add(Pair.of(key, value));
+            }
+            assertTrue(sorter.numSpills() > 1);
+
+            //Stable sort: within each key, values remain in insertion order
+            exp.sort(new Comparator<Pair<Writable, List<Writable>>>() {
+                @Override
+                public int compare(Pair<Writable, List<Writable>> p1, Pair<Writable, List<Writable>> p2) {
+                    return Integer.compare(p1.getFirst().toInt(), p2.getFirst().toInt());
+                }
+            });
+            Iterator<Pair<Writable, List<Writable>>> iter = sorter.sortedIterator(false);
+            for (Pair<Writable, List<Writable>> p : exp) {
+                assertTrue(iter.hasNext());
+                Pair<Writable, List<Writable>> act = iter.next();
+                assertEquals(p.getFirst(), act.getFirst());
+                assertEquals(p.getSecond(), act.getSecond());
+            }
+            assertFalse(iter.hasNext());
+        }
+        assertEquals(0, testDir.toFile().listFiles().length);
+    }
+
+    @Test
+    @DisplayName("Test External Sorter Multi Pass Merge")
+    void testExternalSorterMultiPassMerge(@TempDir Path testDir) throws Exception {
+        int fanIn = 4;
+        Random r = new Random(12345);
+        List<Pair<Writable, List<Writable>>> exp = new ArrayList<>();
+        try (ExternalSorter sorter = new ExternalSorter(new Comparator<Writable>() {
+            @Override
+            public int compare(Writable o1, Writable o2) {
+                return Integer.compare(o1.toInt(), o2.toInt());
+            }
+        }, 256, testDir.toFile(), fanIn)) {
+            for (int i = 0; i < 1000; i++) {
+                Writable key = new IntWritable(r.nextInt(50));
+                List<Writable> value = Collections.<Writable>singletonList(new IntWritable(i));
+                sorter.add(key, value);
+                exp.add(Pair.of(key, value));
+            }
+            assertTrue(sorter.numSpills() > fanIn * fanIn, String.valueOf(sorter.numSpills()));
+
+            Iterator<Pair<Writable, List<Writable>>> iter = sorter.sortedIterator(false);
+            assertTrue(sorter.numMergePasses() > 1);
+            //Intermediate runs are deleted after each pass: at most fanIn runs remain for the final merge
+            assertTrue(testDir.toFile().listFiles().length <= fanIn);
+
+            exp.sort(new Comparator<Pair<Writable, List<Writable>>>() {
+                @Override
+                public int compare(Pair<Writable, List<Writable>> p1, Pair<Writable, List<Writable>> p2) {
+                    return Integer.compare(p1.getFirst().toInt(), p2.getFirst().toInt());
+                }
+            });
+            for (Pair<Writable, List<Writable>> p : exp) {
+                assertTrue(iter.hasNext());
+                Pair<Writable, List<Writable>> act = iter.next();
+                assertEquals(p.getFirst(), act.getFirst());
+                assertEquals(p.getSecond(), act.getSecond());
+            }
+            assertFalse(iter.hasNext());
+        }
+        assertEquals(0, testDir.toFile().listFiles().length);
+    }
+}
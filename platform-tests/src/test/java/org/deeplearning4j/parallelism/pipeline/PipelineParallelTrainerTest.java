@@ -0,0 +1,124 @@
+/*
+ *  ******************************************************************************
+ *  *
+ *  *
+ *  * This program and the accompanying materials are made available under the
+ *  * terms of the Apache License, Version 2.0 which is available at
+ *  * https://www.apache.org/licenses/LICENSE-2.0.
+ *  *
+ *  *  See the NOTICE file distributed with this work for additional
+ *  *  information regarding copyright ownership.
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ *  * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ *  * License for the specific language governing permissions and limitations
+ *  * under the License.
+ *  *
+ *  * SPDX-License-Identifier: Apache-2.0
+ *  *****************************************************************************
+ */
+
+package org.deeplearning4j.parallelism.pipeline;
+
+import org.deeplearning4j.BaseDL4JTest;
+import org.deeplearning4j.nn.conf.ComputationGraphConfiguration;
+import org.deeplearning4j.nn.conf.NeuralNetConfiguration;
+import org.deeplearning4j.nn.conf.graph.MergeVertex;
+import org.deeplearning4j.nn.conf.layers.DenseLayer;
+import org.deeplearning4j.nn.conf.layers.OutputLayer;
+import org.deeplearning4j.nn.graph.ComputationGraph;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.nd4j.common.tests.tags.NativeTag;
+import org.nd4j.common.tests.tags.TagNames;
+import org.nd4j.linalg.activations.Activation;
+import org.nd4j.linalg.api.buffer.DataType;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.dataset.MultiDataSet;
+import org.nd4j.linalg.factory.Nd4j;
+import org.nd4j.linalg.learning.config.Sgd;
+import org.nd4j.linalg.lossfunctions.LossFunctions;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@NativeTag
+@Tag(TagNames.DL4J_OLD_API)
+public class PipelineParallelTrainerTest extends BaseDL4JTest {
+
+    private static ComputationGraph getNet() {
+        ComputationGraphConfiguration conf = new NeuralNetConfiguration.Builder()
+                .dataType(DataType.DOUBLE)
+                .seed(12345)
+                .updater(new Sgd(0.1))
+                .activation(Activation.TANH)
+                .graphBuilder()
+                .addInputs("in")
+                .layer("d0", new DenseLayer.Builder().nIn(4).nOut(6).build(), "in")
+                .layer("d1", new DenseLayer.Builder().nIn(6).nOut(5).build(), "d0")
+                .layer("d2", new DenseLayer.Builder().nIn(6).nOut(5).build(), "d0")
+                .addVertex("merge", new MergeVertex(), "d1", "d2")
+                .layer("d3", new DenseLayer.Builder().nIn(10).nOut(5).build(), "merge")
+                .layer("out", new OutputLayer.Builder().nIn(5).nOut(3).activation(Activation.SOFTMAX)
+                        .lossFunction(LossFunctions.LossFunction.MCXENT).build(), "d3")
+                .setOutputs("out")
+                .build();
+
+        ComputationGraph net = new ComputationGraph(conf);
+        net.init();
+        return net;
+    }
+
+    @Test
+    public void testMatchesStandardTraining() {
+        for (PipelineSchedule schedule : PipelineSchedule.values()) {
+            for (int nStages : new int[]{1, 2, 3}) {
+                ComputationGraph standard = getNet();
+                ComputationGraph pipelined = getNet();
+                assertEquals(standard.params(), pipelined.params());
+
+                Nd4j.getRandom().setSeed(12345);
+                INDArray f = Nd4j.rand(DataType.DOUBLE, 12, 4);
+                INDArray l = Nd4j.zeros(DataType.DOUBLE, 12, 3);
+                for (int i = 0; i < 12; i++) {
+                    l.putScalar(i, i % 3, 1.0);
+                }
+                MultiDataSet mds = new MultiDataSet(f, l);
+
+                try (PipelineParallelTrainer trainer = new PipelineParallelTrainer.Builder(pipelined)
+                        .numStages(nStages)
+                        .numMicroBatches(4)
+                        .schedule(schedule)
+                        .build()) {
+                    assertEquals(nStages, trainer.getNumStages());
+
+                    for (int iter = 0; iter < 3; iter++) {
+                        standard.fit(mds);
+                        trainer.fit(mds);
+
+                        String msg = schedule + " - " + nStages + " stages, iteration " + iter;
+                        assertTrue(standard.params().equalsWithEps(pipelined.params(), 1e-8), msg);
+                        assertEquals(standard.score(), pipelined.score(), 1e-8, msg);
+                    }
+                    assertEquals(3, pipelined.getIterationCount());
+
+                    for (PipelineStageStats st : trainer.getStageStats()) {
+                        assertEquals(12, st.getForwardCount());
+                        assertEquals(12, st.getBackwardCount());
+                        assertTrue(st.getIdleFraction() >= 0.0 && st.getIdleFraction() <= 1.0);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testSplitBefore() {
+        ComputationGraph net = getNet();
+        try (PipelineParallelTrainer trainer = new PipelineParallelTrainer.Builder(net)
+                .splitBefore("d2", "out")
+                .build()) {
+            assertEquals(3, trainer.getNumStages());
+            assertEquals("out", trainer.getStageStats().get(2).getVertexNames().get(0));
+        }
+    }
+}
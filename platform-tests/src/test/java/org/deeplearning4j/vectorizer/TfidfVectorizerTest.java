@@ -48,6 +48,7 @@ import org.nd4j.common.util.SerializationUtils;
 import org.nd4j.linalg.api.ndarray.INDArray;
 import org.nd4j.linalg.dataset.DataSet;
 import org.nd4j.linalg.exception.ND4JIllegalStateException;
+import org.nd4j.linalg.sparse.CsrMatrix;
 
 import java.io.File;
 import java.nio.file.Files;
@@ -120,6 +121,11 @@ public class TfidfVectorizerTest extends BaseDL4JTest {
         assertEquals(0.119, vector.getDouble(vocabCache.tokenFor("3").getIndex()), 0.001);
         assertEquals(0, vector.getDouble(vocabCache.tokenFor("file.").getIndex()), 0.001);
 
+        CsrMatrix sparse = vectorizer.transformSparse(Arrays.asList("This is 3 file.", "This is a sentence."));
+        assertArrayEquals(new long[]{2, vocabCache.numWords()}, sparse.shape());
+        assertEquals(vector, sparse.getRows(0).toDense());
+        assertEquals(vectorizer.transform("This is a sentence."), sparse.getRows(1).toDense());
+
 
 
         DataSet dataSet = vectorizer.vectorize("This is 3 file.", "label3");
@@ -0,0 +1,161 @@
+/*
+ *  ******************************************************************************
+ *  *
+ *  *
+ *  * This program and the accompanying materials are made available under the
+ *  * terms of the Apache License, Version 2.0 which is available at
+ *  * https://www.apache.org/licenses/LICENSE-2.0.
+ *  *
+ *  *  See the NOTICE file distributed with this work for additional
+ *  *  information regarding copyright ownership.
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ *  * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ *  * License for the specific language governing permissions and limitations
+ *  * under the License.
+ *  *
+ *  * SPDX-License-Identifier: Apache-2.0
+ *  *****************************************************************************
+ */
+package org.eclipse.deeplearning4j.dl4jcore.datasets.datavec;
+
+import org.apache.commons.io.FileUtils;
+import org.datavec.api.records.reader.impl.csv.CSVRecordReader;
+import org.datavec.api.split.FileSplit;
+import org.datavec.api.split.InputSplit;
+import org.deeplearning4j.BaseDL4JTest;
+import org.deeplearning4j.datasets.datavec.ParallelRecordReaderDataSetIterator;
+import org.deeplearning4j.datasets.datavec.RecordReaderDataSetIterator;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.nd4j.common.tests.tags.NativeTag;
+import org.nd4j.common.tests.tags.TagNames;
+import org.nd4j.linalg.api.buffer.DataType;
+import org.nd4j.linalg.dataset.DataSet;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@NativeTag
+@Tag(TagNames.FILE_IO)
+@Tag(TagNames.NDARRAY_ETL)
+public class ParallelRecordReaderDataSetIteratorTest extends BaseDL4JTest {
+
+    @Override
+    public DataType getDataType() {
+        return DataType.FLOAT;
+    }
+
+    private static File writeCsvFiles(File dir, int numFiles, int linesPerFile) throws Exception {
+        int count = 0;
+        for (int i = 0; i < numFiles; i++) {
+            StringBuilder sb = new StringBuilder();
+            for (int j = 0; j < linesPerFile; j++) {
+                sb.append(count).append(",").append(count * 0.5).append(",").append(count % 3).append("\n");
+                count++;
+            }
+            FileUtils.writeStringToFile(new File(dir, String.format("file_%03d.csv", i)), sb.toString(), StandardCharsets.UTF_8);
+        }
+        return dir;
+    }
+
+    private static List<Integer> exampleIds(List<DataSet> batches) {
+        List<Integer> out = new ArrayList<>();
+        for (DataSet ds : batches) {
+            for (int i = 0; i < ds.numExamples(); i++) {
+                out.add(ds.getFeatures().getInt(i, 0));
+            }
+        }
+        return out;
+    }
+
+    private static List<DataSet> collect(ParallelRecordReaderDataSetIterator iter) {
+        List<DataSet> out = new ArrayList<>();
+        while (iter.hasNext()) {
+            out.add(iter.next());
+        }
+        return out;
+    }
+
+    @Test
+    public void testDeterministic(@TempDir Path testDir) throws Exception {
+        File dir = writeCsvFiles(testDir.toFile(), 8, 13);
+        InputSplit split = new FileSplit(dir);
+
+        RecordReaderDataSetIterator serial = new RecordReaderDataSetIterator.Builder(new CSVRecordReader(), 5)
+                .classification(2, 3).build();
+        ((CSVRecordReader) serial.getRecordReader()).initialize(split);
+        Map<Integer, DataSet> expected = new HashMap<>();
+        while (serial.hasNext()) {
+            for (DataSet ds : serial.next().asList()) {
+                expected.put(ds.getFeatures().getInt(0, 0), ds);
+            }
+        }
+        assertEquals(104, expected.size());
+
+        ParallelRecordReaderDataSetIterator iter = new ParallelRecordReaderDataSetIterator.Builder(CSVRecordReader::new, split, 5)
+                .classification(2, 3)
+                .numWorkers(3)
+                .queueSize(2)
+                .build();
+        assertEquals(3, iter.getNumWorkers());
+        assertEquals(2, iter.inputColumns());
+        assertEquals(3, iter.totalOutcomes());
+
+        List<DataSet> epoch1 = collect(iter);
+        List<Integer> ids1 = exampleIds(epoch1);
+        assertEquals(104, ids1.size());
+        assertEquals(expected.keySet(), new HashSet<>(ids1));
+        for (DataSet batch : epoch1) {
+            for (DataSet ds : batch.asList()) {
+                DataSet exp = expected.get(ds.getFeatures().getInt(0, 0));
+                assertEquals(exp.getFeatures(), ds.getFeatures());
+                assertEquals(exp.getLabels(), ds.getLabels());
+            }
+        }
+        assertEquals(epoch1.size(), iter.getNumBatches());
+        assertTrue(iter.getStarvationCount() <= iter.getNumBatches());
+
+        //Deterministic ordering: same order on every epoch
+        iter.reset();
+        assertEquals(ids1, exampleIds(collect(iter)));
+        assertFalse(iter.hasNext());
+        iter.shutdown();
+    }
+
+    @Test
+    public void testRelaxed(@TempDir Path testDir) throws Exception {
+        File dir = writeCsvFiles(testDir.toFile(), 5, 20);
+
+        ParallelRecordReaderDataSetIterator iter = new ParallelRecordReaderDataSetIterator.Builder(CSVRecordReader::new, new FileSplit(dir), 7)
+                .classification(2, 3)
+                .numWorkers(4)
+                .ordering(ParallelRecordReaderDataSetIterator.Ordering.RELAXED)
+                .build();
+
+        for (int epoch = 0; epoch < 3; epoch++) {
+            List<Integer> ids = exampleIds(collect(iter));
+            assertEquals(100, ids.size());
+            assertEquals(100, new HashSet<>(ids).size());
+            iter.reset();
+        }
+        iter.shutdown();
+    }
+
+    @Test
+    public void testWorkerFailure(@TempDir Path testDir) throws Exception {
+        File dir = writeCsvFiles(testDir.toFile(), 4, 10);
+        //Label index out of range for the number of classes: workers fail when converting records
+        ParallelRecordReaderDataSetIterator iter = new ParallelRecordReaderDataSetIterator.Builder(CSVRecordReader::new, new FileSplit(dir), 5)
+                .classification(2, 2)
+                .numWorkers(2)
+                .build();
+        assertThrows(RuntimeException.class, () -> collect(iter));
+        iter.shutdown();
+    }
+}
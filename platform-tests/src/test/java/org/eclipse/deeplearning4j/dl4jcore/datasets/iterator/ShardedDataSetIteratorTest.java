@@ -0,0 +1,169 @@
+/*
+ *  ******************************************************************************
+ *  *
+ *  *
+ *  * This program and the accompanying materials are made available under the
+ *  * terms of the Apache License, Version 2.0 which is available at
+ *  * https://www.apache.org/licenses/LICENSE-2.0.
+ *  *
+ *  *  See the NOTICE file distributed with this work for additional
+ *  *  information regarding copyright ownership.
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ *  * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ *  * License for the specific language governing permissions and limitations
+ *  * under the License.
+ *  *
+ *  * SPDX-License-Identifier: Apache-2.0
+ *  *****************************************************************************
+ */
+
+package org.eclipse.deeplearning4j.dl4jcore.datasets.iterator;
+
+import org.deeplearning4j.BaseDL4JTest;
+import org.deeplearning4j.datasets.iterator.sharded.ShardedDataSetIterator;
+import org.deeplearning4j.datasets.iterator.sharded.ShardedDataSetWriter;
+import org.deeplearning4j.datasets.iterator.sharded.ShardedMultiDataSetIterator;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.nd4j.common.tests.tags.NativeTag;
+import org.nd4j.common.tests.tags.TagNames;
+import org.nd4j.linalg.api.buffer.DataType;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.dataset.DataSet;
+import org.nd4j.linalg.dataset.api.MultiDataSet;
+import org.nd4j.linalg.factory.Nd4j;
+import org.nd4j.linalg.indexing.NDArrayIndex;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@NativeTag
+@Tag(TagNames.FILE_IO)
+@Tag(TagNames.NDARRAY_ETL)
+public class ShardedDataSetIteratorTest extends BaseDL4JTest {
+
+    @Test
+    public void testRoundTrip(@TempDir Path testDir) throws Exception {
+        for (ShardedDataSetWriter.Compression c : ShardedDataSetWriter.Compression.values()) {
+            File dir = new File(testDir.toFile(), c.name());
+            DataSet all = new DataSet(Nd4j.rand(DataType.FLOAT, 25, 4), Nd4j.rand(DataType.FLOAT, 25, 3));
+
+            try (ShardedDataSetWriter w = new ShardedDataSetWriter(dir, 7, c)) {
+                //Views (row subsets) should be handled correctly
+                for (int i = 0; i < 25; i += 10) {
+                    int end = Math.min(25, i + 10);
+                    w.write(new DataSet(all.getFeatures().get(NDArrayIndex.interval(i, end)),
+                            all.getLabels().get(NDArrayIndex.interval(i, end))));
+                }
+            }
+            //25 examples, 7 per shard
+            assertEquals(4, dir.listFiles((d, n) -> n.startsWith("shard-")).length);
+
+            ShardedDataSetIterator iter = new ShardedDataSetIterator(dir, 10);
+            assertEquals(25, iter.numExamples());
+            assertEquals(4, iter.inputColumns());
+            assertEquals(3, iter.totalOutcomes());
+            List<DataSet> batches = new ArrayList<>();
+            while (iter.hasNext()) {
+                batches.add(iter.next());
+            }
+            assertEquals(3, batches.size());
+            assertEquals(5, batches.get(2).numExamples());
+            DataSet merged = DataSet.merge(batches);
+            assertEquals(all.getFeatures(), merged.getFeatures());
+            assertEquals(all.getLabels(), merged.getLabels());
+
+            //Second epoch should be identical
+            iter.reset();
+            assertEquals(batches.get(0), iter.next());
+            iter.close();
+        }
+    }
+
+    @Test
+    public void testMasksAndShuffle(@TempDir Path testDir) throws Exception {
+        File dir = testDir.toFile();
+        int n = 20;
+        INDArray f = Nd4j.rand(DataType.FLOAT, n, 3, 5);
+        INDArray l = Nd4j.rand(DataType.DOUBLE, n, 2, 5);
+        INDArray fm = Nd4j.rand(DataType.FLOAT, n, 5);
+        INDArray lm = Nd4j.rand(DataType.FLOAT, n, 5);
+        //Mark each example uniquely, for comparing after shuffling
+        for (int i = 0; i < n; i++) {
+            f.putScalar(i, 0, 0, i);
+        }
+
+        try (ShardedDataSetWriter w = new ShardedDataSetWriter(dir, 6, ShardedDataSetWriter.Compression.DEFLATE)) {
+            w.write(new DataSet(f, l, fm, lm));
+        }
+
+        ShardedDataSetIterator iter = new ShardedDataSetIterator(dir, 8, true, 12345);
+        List<Integer> epoch1 = new ArrayList<>();
+        List<Integer> epoch2 = new ArrayList<>();
+        for (List<Integer> epoch : Arrays.asList(epoch1, epoch2)) {
+            iter.reset();
+            while (iter.hasNext()) {
+                DataSet ds = iter.next();
+                assertEquals(DataType.DOUBLE, ds.getLabels().dataType());
+                for (int i = 0; i < ds.numExamples(); i++) {
+                    int idx = ds.getFeatures().getInt(i, 0, 0);
+                    epoch.add(idx);
+                    assertEquals(f.get(NDArrayIndex.point(idx)), ds.getFeatures().get(NDArrayIndex.point(i)));
+                    assertEquals(l.get(NDArrayIndex.point(idx)), ds.getLabels().get(NDArrayIndex.point(i)));
+                    assertEquals(fm.getRow(idx), ds.getFeaturesMaskArray().getRow(i));
+                    assertEquals(lm.getRow(idx), ds.getLabelsMaskArray().getRow(i));
+                }
+            }
+        }
+        iter.close();
+
+        //Each epoch should contain all examples exactly once, in a different order
+        assertEquals(new HashSet<>(epoch1), new HashSet<>(epoch2));
+        assertEquals(n, new HashSet<>(epoch1).size());
+        assertNotEquals(epoch1, epoch2);
+    }
+
+    @Test
+    public void testMultiDataSet(@TempDir Path testDir) throws Exception {
+        File dir = testDir.toFile();
+        MultiDataSet mds = new org.nd4j.linalg.dataset.MultiDataSet(
+                new INDArray[]{Nd4j.rand(DataType.FLOAT, 10, 3), Nd4j.rand(DataType.FLOAT, 10, 2, 2)},
+                new INDArray[]{Nd4j.rand(DataType.FLOAT, 10, 1)},
+                new INDArray[]{null, Nd4j.ones(DataType.FLOAT, 10, 2)},
+                null);
+
+        try (ShardedDataSetWriter w = new ShardedDataSetWriter(dir)) {
+            w.write(mds);
+        }
+
+        ShardedMultiDataSetIterator iter = new ShardedMultiDataSetIterator(dir, 10);
+        MultiDataSet out = iter.next();
+        assertFalse(iter.hasNext());
+        assertEquals(mds.getFeatures(0), out.getFeatures(0));
+        assertEquals(mds.getFeatures(1), out.getFeatures(1));
+        assertEquals(mds.getLabels(0), out.getLabels(0));
+        assertNull(out.getFeaturesMaskArray(0));
+        assertEquals(mds.getFeaturesMaskArray(1), out.getFeaturesMaskArray(1));
+        assertNull(out.getLabelsMaskArrays());
+        iter.close();
+
+        //Multiple inputs can't be read as a DataSet
+        assertThrows(IllegalStateException.class, () -> new ShardedDataSetIterator(dir, 10));
+    }
+
+    @Test
+    public void testInconsistentShapes(@TempDir Path testDir) throws Exception {
+        try (ShardedDataSetWriter w = new ShardedDataSetWriter(testDir.toFile())) {
+            w.write(new DataSet(Nd4j.rand(DataType.FLOAT, 2, 3), Nd4j.rand(DataType.FLOAT, 2, 1)));
+            assertThrows(IllegalStateException.class,
+                    () -> w.write(new DataSet(Nd4j.rand(DataType.FLOAT, 2, 4), Nd4j.rand(DataType.FLOAT, 2, 1))));
+            assertThrows(IllegalStateException.class,
+                    () -> w.write(new DataSet(Nd4j.rand(DataType.DOUBLE, 2, 3), Nd4j.rand(DataType.FLOAT, 2, 1))));
+        }
+    }
+}
@@ -27,20 +27,28 @@ import org.deeplearning4j.nn.conf.MultiLayerConfiguration;
 import org.deeplearning4j.nn.conf.NeuralNetConfiguration;
 import org.deeplearning4j.nn.conf.layers.DenseLayer;
 import org.deeplearning4j.nn.conf.layers.OutputLayer;
+import org.deeplearning4j.nn.gradient.Gradient;
 import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
 import org.deeplearning4j.nn.weights.WeightInit;
+import org.deeplearning4j.nn.workspace.LayerWorkspaceMgr;
 import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
+import org.nd4j.common.primitives.Pair;
 import org.nd4j.common.tests.tags.NativeTag;
 import org.nd4j.common.tests.tags.TagNames;
 import org.nd4j.linalg.activations.Activation;
+import org.nd4j.linalg.api.buffer.DataType;
 import org.nd4j.linalg.api.ndarray.INDArray;
 import org.nd4j.linalg.dataset.DataSet;
 import org.nd4j.linalg.dataset.api.iterator.DataSetIterator;
 import org.nd4j.linalg.factory.Nd4j;
+import org.nd4j.linalg.indexing.BooleanIndexing;
+import org.nd4j.linalg.indexing.conditions.Conditions;
 import org.nd4j.linalg.learning.config.Sgd;
 import org.nd4j.linalg.lossfunctions.LossFunctions;
+import org.nd4j.linalg.sparse.CsrMatrix;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import org.junit.jupiter.api.DisplayName;
 
 @DisplayName("Dense Test")
@@ -67,6 +75,38 @@ class DenseTest extends BaseDL4JTest {
         assertEquals(3, layer.getParam("b").size(0));
     }
 
+    @Test
+    @DisplayName("Test Dense Sparse Input")
+    void testDenseSparseInput() {
+        Nd4j.getRandom().setSeed(12345);
+        DenseLayer build = new DenseLayer.Builder().nIn(20).nOut(4).activation(Activation.TANH).build();
+        NeuralNetConfiguration conf = new NeuralNetConfiguration.Builder().dataType(DataType.DOUBLE).layer(build).build();
+        long numParams = conf.getLayer().initializer().numParams(conf);
+        INDArray params = Nd4j.rand(DataType.DOUBLE, 1, numParams);
+        org.deeplearning4j.nn.layers.feedforward.dense.DenseLayer layer =
+                (org.deeplearning4j.nn.layers.feedforward.dense.DenseLayer) conf.getLayer().instantiate(conf, null, 0, params, true, DataType.DOUBLE);
+        layer.setBackpropGradientsViewArray(Nd4j.create(DataType.DOUBLE, 1, numParams));
+
+        INDArray dense = Nd4j.rand(DataType.DOUBLE, 8, 20);
+        BooleanIndexing.replaceWhere(dense, 0.0, Conditions.lessThan(0.8));
+        CsrMatrix sparse = CsrMatrix.fromDense(dense);
+        INDArray epsilon = Nd4j.rand(DataType.DOUBLE, 8, 4);
+        LayerWorkspaceMgr mgr = LayerWorkspaceMgr.noWorkspaces();
+
+        INDArray expOut = layer.activate(dense, false, mgr).dup();
+        Gradient expGrad = layer.backpropGradient(epsilon, mgr).getFirst();
+        INDArray expW = expGrad.getGradientFor("W").dup();
+        INDArray expB = expGrad.getGradientFor("b").dup();
+        layer.clear();
+
+        assertEquals(expOut, layer.activate(sparse, false, mgr));
+        assertEquals(expOut, layer.activate(sparse.toCoo(), false, mgr));
+        Pair<Gradient, INDArray> p = layer.backpropGradient(sparse, epsilon, mgr);
+        assertNull(p.getSecond());
+        assertEquals(expW, p.getFirst().getGradientFor("W"));
+        assertEquals(expB, p.getFirst().getGradientFor("b"));
+    }
+
     @Test
     @DisplayName("Test MLP Multi Layer Pretrain")
     void testMLPMultiLayerPretrain() {
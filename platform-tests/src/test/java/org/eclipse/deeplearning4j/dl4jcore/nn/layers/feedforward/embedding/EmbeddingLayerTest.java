@@ -33,12 +33,14 @@ import org.deeplearning4j.nn.conf.layers.EmbeddingLayer;
 import org.deeplearning4j.nn.conf.layers.EmbeddingSequenceLayer;
 import org.deeplearning4j.nn.conf.preprocessor.FeedForwardToRnnPreProcessor;
 import org.deeplearning4j.nn.conf.preprocessor.RnnToFeedForwardPreProcessor;
+import org.deeplearning4j.nn.gradient.Gradient;
 import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
 import org.deeplearning4j.nn.params.DefaultParamInitializer;
 import org.deeplearning4j.nn.weights.WeightInit;
 import org.deeplearning4j.nn.weights.embeddings.EmbeddingInitializer;
 import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
+import org.nd4j.common.primitives.Pair;
 import org.nd4j.common.tests.tags.NativeTag;
 import org.nd4j.common.tests.tags.TagNames;
 import org.nd4j.linalg.activations.Activation;
@@ -48,6 +50,8 @@ import org.nd4j.linalg.api.ndarray.INDArray;
 import org.nd4j.linalg.factory.Nd4j;
 import org.nd4j.linalg.learning.config.Sgd;
 import org.nd4j.linalg.lossfunctions.LossFunctions;
+import org.nd4j.linalg.sparse.CsrMatrix;
+import org.deeplearning4j.nn.workspace.LayerWorkspaceMgr;
 
 import java.util.List;
 import java.util.Map;
@@ -374,6 +378,47 @@ class EmbeddingLayerTest extends BaseDL4JTest {
         }
     }
 
+    @Test
+    @DisplayName("Test Embedding Sparse Input")
+    void testEmbeddingSparseInput() {
+        // One-hot CSR input should give the same activations and gradients as the equivalent index input
+        Nd4j.getRandom().setSeed(12345);
+        int nClassesIn = 10;
+        int batchSize = 6;
+        EmbeddingLayer build = new EmbeddingLayer.Builder().hasBias(true).nIn(nClassesIn).nOut(5).activation(Activation.TANH).build();
+        NeuralNetConfiguration conf = new NeuralNetConfiguration.Builder().dataType(DataType.DOUBLE).layer(build).build();
+        long numParams = conf.getLayer().initializer().numParams(conf);
+        INDArray params = Nd4j.rand(DataType.DOUBLE, 1, numParams);
+        org.deeplearning4j.nn.layers.feedforward.embedding.EmbeddingLayer layer =
+                (org.deeplearning4j.nn.layers.feedforward.embedding.EmbeddingLayer) conf.getLayer().instantiate(conf, null, 0, params, true, DataType.DOUBLE);
+        layer.setBackpropGradientsViewArray(Nd4j.create(DataType.DOUBLE, 1, numParams));
+
+        INDArray indices = Nd4j.create(DataType.DOUBLE, batchSize, 1);
+        INDArray columnIndices = Nd4j.create(DataType.LONG, batchSize);
+        Random r = new Random(12345);
+        for (int i = 0; i < batchSize; i++) {
+            int classIdx = r.nextInt(nClassesIn);
+            indices.putScalar(i, classIdx);
+            columnIndices.putScalar(i, classIdx);
+        }
+        CsrMatrix sparse = new CsrMatrix(Nd4j.ones(DataType.DOUBLE, batchSize), columnIndices,
+                Nd4j.arange(0, batchSize + 1).castTo(DataType.LONG), nClassesIn);
+        INDArray epsilon = Nd4j.rand(DataType.DOUBLE, batchSize, 5);
+        LayerWorkspaceMgr mgr = LayerWorkspaceMgr.noWorkspaces();
+
+        INDArray expOut = layer.activate(indices, false, mgr).dup();
+        Gradient expGrad = layer.backpropGradient(epsilon, mgr).getFirst();
+        INDArray expW = expGrad.getGradientFor("W").dup();
+        INDArray expB = expGrad.getGradientFor("b").dup();
+        layer.clear();
+
+        assertEquals(expOut, layer.activate(sparse, false, mgr));
+        Pair<Gradient, INDArray> p = layer.backpropGradient(sparse, epsilon, mgr);
+        assertNull(p.getSecond());
+        assertEquals(expW, p.getFirst().getGradientFor("W"));
+        assertEquals(expB, p.getFirst().getGradientFor("b"));
+    }
+
     @Test
     @DisplayName("Test W 2 V Inits")
     void testW2VInits() {
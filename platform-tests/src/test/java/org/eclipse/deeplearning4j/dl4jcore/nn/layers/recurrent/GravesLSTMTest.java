@@ -31,6 +31,7 @@ import org.deeplearning4j.nn.layers.recurrent.GravesLSTM;
 import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
 import org.deeplearning4j.nn.params.GravesLSTMParamInitializer;
 import org.deeplearning4j.nn.workspace.LayerWorkspaceMgr;
+import org.eclipse.deeplearning4j.dl4jcore.TestUtils;
 import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
 import org.nd4j.common.tests.tags.NativeTag;
@@ -140,6 +141,8 @@ class GravesLSTMTest extends BaseDL4JTest {
         val numParams = conf.getLayer().initializer().numParams(conf);
         INDArray params = Nd4j.create(1, numParams);
         GravesLSTM lstm = (GravesLSTM) conf.getLayer().instantiate(conf, null, 0, params, true, params.dataType());
+        // Per time step arrays are only produced by the built-in implementation
+        TestUtils.removeHelper(lstm);
         INDArray input = Nd4j.rand(new int[] { miniBatchSize, nIn, timeSeriesLength });
         lstm.setInput(input, LayerWorkspaceMgr.noWorkspaces());
         Method actHelper = GravesLSTM.class.getDeclaredMethod("activateHelper", boolean.class, INDArray.class, INDArray.class, boolean.class, LayerWorkspaceMgr.class);
@@ -0,0 +1,187 @@
+/*
+ *  ******************************************************************************
+ *  *
+ *  *
+ *  * This program and the accompanying materials are made available under the
+ *  * terms of the Apache License, Version 2.0 which is available at
+ *  * https://www.apache.org/licenses/LICENSE-2.0.
+ *  *
+ *  *  See the NOTICE file distributed with this work for additional
+ *  *  information regarding copyright ownership.
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ *  * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ *  * License for the specific language governing permissions and limitations
+ *  * under the License.
+ *  *
+ *  * SPDX-License-Identifier: Apache-2.0
+ *  *****************************************************************************
+ */
+
+package org.eclipse.deeplearning4j.dl4jcore.nn.layers.recurrent;
+
+import org.deeplearning4j.BaseDL4JTest;
+import org.deeplearning4j.nn.conf.BackpropType;
+import org.deeplearning4j.nn.conf.MultiLayerConfiguration;
+import org.deeplearning4j.nn.conf.NeuralNetConfiguration;
+import org.deeplearning4j.nn.conf.layers.GravesLSTM;
+import org.deeplearning4j.nn.conf.layers.LSTM;
+import org.deeplearning4j.nn.conf.layers.Layer;
+import org.deeplearning4j.nn.conf.layers.RnnOutputLayer;
+import org.deeplearning4j.nn.layers.recurrent.FusedLSTMHelper;
+import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.eclipse.deeplearning4j.dl4jcore.LayerHelperValidationUtil;
+import org.eclipse.deeplearning4j.dl4jcore.TestUtils;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.nd4j.common.tests.tags.NativeTag;
+import org.nd4j.common.tests.tags.TagNames;
+import org.nd4j.linalg.activations.Activation;
+import org.nd4j.linalg.api.buffer.DataType;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.dataset.DataSet;
+import org.nd4j.linalg.factory.Nd4j;
+import org.nd4j.linalg.learning.config.Sgd;
+import org.nd4j.linalg.lossfunctions.LossFunctions;
+
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+@NativeTag
+@Tag(TagNames.DL4J_OLD_API)
+public class TestFusedLSTMHelper extends BaseDL4JTest {
+
+    private static final int N_IN = 5;
+    private static final int LAYER_SIZE = 6;
+    private static final int N_OUT = 3;
+
+    @Test
+    public void testFusedHelperVsBuiltIn() {
+        assumeTrue(isCpu());
+
+        Nd4j.getRandom().setSeed(12345);
+        INDArray features = Nd4j.rand(DataType.DOUBLE, 4, N_IN, 7);
+        INDArray labels = TestUtils.randomOneHotTimeSeries(4, N_OUT, 7, 12345).castTo(DataType.DOUBLE);
+
+        Layer[] layers = {
+                new LSTM.Builder().nIn(N_IN).nOut(LAYER_SIZE).activation(Activation.TANH).build(),
+                new LSTM.Builder().nIn(N_IN).nOut(LAYER_SIZE).activation(Activation.SOFTSIGN)
+                        .gateActivationFunction(Activation.HARDSIGMOID).build(),
+                new GravesLSTM.Builder().nIn(N_IN).nOut(LAYER_SIZE).activation(Activation.TANH).build()
+        };
+
+        for (Layer l : layers) {
+            MultiLayerNetwork net = new MultiLayerNetwork(config(l, false));
+            net.init();
+
+            Class<?> layerClass = l instanceof GravesLSTM ? org.deeplearning4j.nn.layers.recurrent.GravesLSTM.class
+                    : org.deeplearning4j.nn.layers.recurrent.LSTM.class;
+            assertTrue(net.getLayer(0).getHelper() instanceof FusedLSTMHelper);
+
+            LayerHelperValidationUtil.TestCase tc = LayerHelperValidationUtil.TestCase.builder()
+                    .testName(l.getClass().getSimpleName() + " - " + ((org.deeplearning4j.nn.conf.layers.BaseLayer) l).getActivationFn())
+                    .allowHelpersForClasses(Collections.<Class<?>>singletonList(layerClass))
+                    .testForward(true)
+                    .testScore(true)
+                    .testBackward(true)
+                    .features(features)
+                    .labels(labels)
+                    .build();
+
+            LayerHelperValidationUtil.validateMLN(net, tc);
+        }
+    }
+
+    @Test
+    public void testFusedHelperTbptt() throws Exception {
+        assumeTrue(isCpu());
+
+        Nd4j.getRandom().setSeed(12345);
+        //Backward length < forward length: fused helper needs to recover the state at the start of the window
+        DataSet ds = new DataSet(Nd4j.rand(DataType.DOUBLE, 3, N_IN, 12),
+                TestUtils.randomOneHotTimeSeries(3, N_OUT, 12, 12345).castTo(DataType.DOUBLE));
+
+        for (boolean graves : new boolean[]{false, true}) {
+            Layer l = graves ? new GravesLSTM.Builder().nIn(N_IN).nOut(LAYER_SIZE).activation(Activation.TANH).build()
+                    : new LSTM.Builder().nIn(N_IN).nOut(LAYER_SIZE).activation(Activation.TANH).build();
+            MultiLayerConfiguration conf = config(l, true);
+
+            MultiLayerNetwork withHelper = new MultiLayerNetwork(conf);
+            withHelper.init();
+            MultiLayerNetwork builtIn = new MultiLayerNetwork(conf.clone());
+            builtIn.init();
+            builtIn.setParams(withHelper.params().dup());
+            TestUtils.removeHelpers(builtIn.getLayers());
+            assertTrue(withHelper.getLayer(0).getHelper() instanceof FusedLSTMHelper);
+
+            withHelper.fit(ds);
+            builtIn.fit(ds);
+
+            INDArray p1 = builtIn.params();
+            INDArray p2 = withHelper.params();
+            double maxDiff = p1.sub(p2).amaxNumber().doubleValue();
+            assertTrue(maxDiff < 1e-8, "Graves=" + graves + " - max param difference after TBPTT fit: " + maxDiff);
+            assertEquals(builtIn.score(), withHelper.score(), 1e-8);
+        }
+    }
+
+    @Test
+    public void testFusedHelperInferenceCache() {
+        assumeTrue(isCpu());
+
+        Nd4j.getRandom().setSeed(12345);
+        DataSet ds = new DataSet(Nd4j.rand(DataType.DOUBLE, 3, N_IN, 5),
+                TestUtils.randomOneHotTimeSeries(3, N_OUT, 5, 12345).castTo(DataType.DOUBLE));
+
+        for (boolean graves : new boolean[]{false, true}) {
+            Layer l = graves ? new GravesLSTM.Builder().nIn(N_IN).nOut(LAYER_SIZE).activation(Activation.TANH).build()
+                    : new LSTM.Builder().nIn(N_IN).nOut(LAYER_SIZE).activation(Activation.TANH).build();
+            MultiLayerConfiguration conf = config(l, false);
+
+            MultiLayerNetwork withHelper = new MultiLayerNetwork(conf);
+            withHelper.init();
+            MultiLayerNetwork builtIn = new MultiLayerNetwork(conf.clone());
+            builtIn.init();
+            builtIn.setParams(withHelper.params().dup());
+            TestUtils.removeHelpers(builtIn.getLayers());
+
+            //Cached parameters (in op gate order) must not be reused after the parameters change
+            for (int i = 0; i < 3; i++) {
+                assertTrue(builtIn.output(ds.getFeatures()).equalsWithEps(withHelper.output(ds.getFeatures()), 1e-8),
+                        "Graves=" + graves + ", step " + i);
+                assertTrue(builtIn.output(ds.getFeatures()).equalsWithEps(withHelper.output(ds.getFeatures()), 1e-8),
+                        "Graves=" + graves + ", step " + i);
+                if (i == 0) {
+                    withHelper.fit(ds);
+                    builtIn.fit(ds);
+                } else if (i == 1) {
+                    INDArray newParams = Nd4j.rand(DataType.DOUBLE, 1, withHelper.numParams());
+                    withHelper.setParams(newParams);
+                    builtIn.setParams(newParams);
+                }
+            }
+        }
+    }
+
+    private static MultiLayerConfiguration config(Layer lstm, boolean tbptt) {
+        NeuralNetConfiguration.ListBuilder b = new NeuralNetConfiguration.Builder()
+                .dataType(DataType.DOUBLE)
+                .seed(12345)
+                .updater(new Sgd(0.1))
+                .list()
+                .layer(lstm)
+                .layer(new RnnOutputLayer.Builder().nIn(LAYER_SIZE).nOut(N_OUT).activation(Activation.SOFTMAX)
+                        .lossFunction(LossFunctions.LossFunction.MCXENT).build());
+        if (tbptt) {
+            b.backpropType(BackpropType.TruncatedBPTT).tBPTTForwardLength(6).tBPTTBackwardLength(3);
+        }
+        return b.build();
+    }
+
+    private static boolean isCpu() {
+        return "CPU".equalsIgnoreCase(Nd4j.getExecutioner().getEnvironmentInformation().getProperty("backend"));
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ *  ******************************************************************************
+ *  *
+ *  *
+ *  * This program and the accompanying materials are made available under the
+ *  * terms of the Apache License, Version 2.0 which is available at
+ *  * https://www.apache.org/licenses/LICENSE-2.0.
+ *  *
+ *  *  See the NOTICE file distributed with this work for additional
+ *  *  information regarding copyright ownership.
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ *  * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ *  * License for the specific language governing permissions and limitations
+ *  * under the License.
+ *  *
+ *  * SPDX-License-Identifier: Apache-2.0
+ *  *****************************************************************************
+ */
+
+package org.eclipse.deeplearning4j.dl4jcore.nn.misc;
+
+import org.deeplearning4j.BaseDL4JTest;
+import org.deeplearning4j.datasets.iterator.utilty.ListDataSetIterator;
+import org.deeplearning4j.nn.conf.ComputationGraphConfiguration;
+import org.deeplearning4j.nn.conf.MultiLayerConfiguration;
+import org.deeplearning4j.nn.conf.NeuralNetConfiguration;
+import org.deeplearning4j.nn.conf.layers.DenseLayer;
+import org.deeplearning4j.nn.conf.layers.OutputLayer;
+import org.deeplearning4j.nn.graph.ComputationGraph;
+import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.nd4j.common.tests.tags.NativeTag;
+import org.nd4j.common.tests.tags.TagNames;
+import org.nd4j.linalg.activations.Activation;
+import org.nd4j.linalg.api.buffer.DataType;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.dataset.DataSet;
+import org.nd4j.linalg.factory.Nd4j;
+import org.nd4j.linalg.indexing.NDArrayIndex;
+import org.nd4j.linalg.learning.config.Adam;
+import org.nd4j.linalg.lossfunctions.LossFunctions;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@NativeTag
+@Tag(TagNames.DL4J_OLD_API)
+public class TestGradientAccumulation extends BaseDL4JTest {
+
+    private static MultiLayerConfiguration getConf(int accumulationSteps) {
+        return new NeuralNetConfiguration.Builder()
+                .dataType(DataType.DOUBLE)
+                .activation(Activation.TANH)
+                .updater(new Adam(0.01))
+                .seed(12345)
+                .list()
+                .gradientAccumulationSteps(accumulationSteps)
+                .layer(new DenseLayer.Builder().nIn(5).nOut(8).build())
+                .layer(new OutputLayer.Builder().nIn(8).nOut(3).activation(Activation.IDENTITY)
+                        .lossFunction(LossFunctions.LossFunction.MSE).build())
+                .build();
+    }
+
+    @Test
+    public void testGradientAccumulationMLN() {
+        MultiLayerNetwork full = new MultiLayerNetwork(getConf(1));
+        full.init();
+        MultiLayerNetwork accum = new MultiLayerNetwork(getConf(3));
+        accum.init();
+        assertEquals(full.params(), accum.params());
+
+        MultiLayerConfiguration fromJson = MultiLayerConfiguration.fromJson(accum.getLayerWiseConfigurations().toJson());
+        assertEquals(3, fromJson.getGradientAccumulationSteps());
+
+        Nd4j.getRandom().setSeed(12345);
+        for (int iter = 0; iter < 3; iter++) {
+            INDArray f = Nd4j.rand(DataType.DOUBLE, 12, 5);
+            INDArray l = Nd4j.rand(DataType.DOUBLE, 12, 3);
+
+            full.fit(f, l);
+
+            INDArray before = accum.params().dup();
+            for (int i = 0; i < 3; i++) {
+                accum.fit(f.get(NDArrayIndex.interval(4 * i, 4 * i + 4), NDArrayIndex.all()),
+                        l.get(NDArrayIndex.interval(4 * i, 4 * i + 4), NDArrayIndex.all()));
+                if (i < 2) {
+                    //No update until all accumulation steps are done
+                    assertEquals(before, accum.params());
+                }
+            }
+            assertNotEquals(before, accum.params());
+            assertTrue(full.params().equalsWithEps(accum.params(), 1e-10));
+        }
+
+        assertEquals(3, full.getIterationCount());
+        assertEquals(3, accum.getIterationCount());
+    }
+
+    @Test
+    public void testGradientAccumulationEpochEnd() {
+        MultiLayerNetwork full = new MultiLayerNetwork(getConf(1));
+        full.init();
+        MultiLayerNetwork accum = new MultiLayerNetwork(getConf(3));
+        accum.init();
+
+        Nd4j.getRandom().setSeed(12345);
+        INDArray f = Nd4j.rand(DataType.DOUBLE, 20, 5);
+        INDArray l = Nd4j.rand(DataType.DOUBLE, 20, 3);
+        DataSet ds = new DataSet(f, l);
+
+        for (int epoch = 0; epoch < 2; epoch++) {
+            //5 minibatches of 4 with 3 accumulation steps: one full group, then a partial group of 2 applied at epoch end
+            full.fit(f.get(NDArrayIndex.interval(0, 12), NDArrayIndex.all()), l.get(NDArrayIndex.interval(0, 12), NDArrayIndex.all()));
+            full.fit(f.get(NDArrayIndex.interval(12, 20), NDArrayIndex.all()), l.get(NDArrayIndex.interval(12, 20), NDArrayIndex.all()));
+
+            accum.fit(new ListDataSetIterator<>(ds.asList(), 4));
+
+            assertTrue(full.params().equalsWithEps(accum.params(), 1e-10));
+            assertEquals(full.score(), accum.score(), 1e-10);
+            assertEquals(2 * (epoch + 1), accum.getIterationCount());
+            assertEquals(epoch + 1, accum.getEpochCount());
+        }
+    }
+
+    @Test
+    public void testGradientAccumulationCG() {
+        ComputationGraph full = getGraph(1);
+        ComputationGraph accum = getGraph(2);
+        assertEquals(full.params(), accum.params());
+        assertEquals(2, ComputationGraphConfiguration.fromJson(accum.getConfiguration().toJson()).getGradientAccumulationSteps());
+
+        Nd4j.getRandom().setSeed(12345);
+        for (int iter = 0; iter < 3; iter++) {
+            INDArray f = Nd4j.rand(DataType.DOUBLE, 10, 5);
+            INDArray l = Nd4j.rand(DataType.DOUBLE, 10, 3);
+
+            full.fit(new INDArray[]{f}, new INDArray[]{l});
+            for (int i = 0; i < 2; i++) {
+                accum.fit(new INDArray[]{f.get(NDArrayIndex.interval(5 * i, 5 * i + 5), NDArrayIndex.all())},
+                        new INDArray[]{l.get(NDArrayIndex.interval(5 * i, 5 * i + 5), NDArrayIndex.all())});
+            }
+            assertTrue(full.params().equalsWithEps(accum.params(), 1e-10));
+        }
+        assertEquals(3, accum.getIterationCount());
+    }
+
+    private static ComputationGraph getGraph(int accumulationSteps) {
+        ComputationGraphConfiguration conf = new NeuralNetConfiguration.Builder()
+                .dataType(DataType.DOUBLE)
+                .activation(Activation.TANH)
+                .updater(new Adam(0.01))
+                .seed(12345)
+                .graphBuilder()
+                .gradientAccumulationSteps(accumulationSteps)
+                .addInputs("in")
+                .layer("0", new DenseLayer.Builder().nIn(5).nOut(8).build(), "in")
+                .layer("out", new OutputLayer.Builder().nIn(8).nOut(3).activation(Activation.IDENTITY)
+                        .lossFunction(LossFunctions.LossFunction.MSE).build(), "0")
+                .setOutputs("out")
+                .build();
+        ComputationGraph net = new ComputationGraph(conf);
+        net.init();
+        return net;
+    }
+}
@@ -31,9 +31,12 @@ import org.deeplearning4j.nn.conf.graph.rnn.DuplicateToTimeSeriesVertex;
 import org.deeplearning4j.nn.conf.graph.rnn.LastTimeStepVertex;
 import org.deeplearning4j.nn.conf.inputs.InputType;
 import org.deeplearning4j.nn.conf.layers.*;
+import org.deeplearning4j.nn.conf.WorkspaceMode;
+import org.deeplearning4j.nn.conf.memory.MemoryPlan;
 import org.deeplearning4j.nn.conf.memory.MemoryReport;
 import org.deeplearning4j.nn.conf.memory.MemoryType;
 import org.deeplearning4j.nn.conf.memory.MemoryUseMode;
+import org.deeplearning4j.nn.conf.memory.NetworkMemoryPlanner;
 import org.deeplearning4j.nn.conf.preprocessor.FeedForwardToCnnPreProcessor;
 import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
@@ -41,6 +44,9 @@ import org.nd4j.common.tests.tags.NativeTag;
 import org.nd4j.common.tests.tags.TagNames;
 import org.nd4j.linalg.activations.Activation;
 import org.nd4j.linalg.api.buffer.DataType;
+import org.nd4j.linalg.api.memory.conf.WorkspaceConfiguration;
+import org.nd4j.linalg.api.memory.enums.AllocationPolicy;
+import org.nd4j.linalg.api.memory.enums.LearningPolicy;
 import org.nd4j.linalg.api.ndarray.INDArray;
 import org.nd4j.linalg.factory.Nd4j;
 import org.nd4j.common.io.ClassPathResource;
@@ -53,6 +59,7 @@ import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 @NativeTag
 @Tag(TagNames.DL4J_OLD_API)
 @Tag(TagNames.WORKSPACES)
@@ -274,4 +281,75 @@ public class TestMemoryReports extends BaseDL4JTest {
 
         conf.getMemoryReport(InputType.convolutional(17,19,19));
     }
+
+    @Test
+    public void testMemoryPlanner() {
+        MultiLayerConfiguration conf = new NeuralNetConfiguration.Builder()
+                        .trainingWorkspaceMode(WorkspaceMode.ENABLED).inferenceWorkspaceMode(WorkspaceMode.ENABLED)
+                        .list()
+                        .layer(new DenseLayer.Builder().nIn(10).nOut(20).build())
+                        .layer(new OutputLayer.Builder().nIn(20).nOut(5).build())
+                        .build();
+
+        NetworkMemoryPlanner planner = NetworkMemoryPlanner.forConfiguration(conf, InputType.feedForward(10));
+
+        MemoryPlan train = planner.plan(32, MemoryUseMode.TRAINING);
+        MemoryPlan inf = planner.plan(32, MemoryUseMode.INFERENCE);
+
+        //Params, gradients and updater state are outside of workspaces
+        long numParams = (10 * 20 + 20) + (20 * 5 + 5);
+        assertEquals(numParams * 4, inf.getDetachedBytes());
+        assertTrue(train.getDetachedBytes() >= 2 * numParams * 4);
+
+        //Inference: activations alternate between two workspaces, each sized for the largest layer activations
+        assertEquals(32 * 20 * 4, (long) inf.getWorkspaceBytes().get(NetworkMemoryPlanner.WS_LAYER_ACT_1));
+        assertEquals(32 * 20 * 4, (long) inf.getWorkspaceBytes().get(NetworkMemoryPlanner.WS_LAYER_ACT_2));
+        //Training: all layer activations retained
+        assertEquals(32 * (20 + 5) * 4, (long) train.getWorkspaceBytes().get(NetworkMemoryPlanner.WS_ALL_LAYERS_ACT));
+        assertTrue(train.getPeakBytes() > inf.getPeakBytes());
+
+        //Max minibatch size for a budget: should fit, and minibatch + 1 should not
+        long budget = planner.plan(100, MemoryUseMode.TRAINING).getPeakBytes();
+        int maxMb = planner.maxMinibatchSize(budget, MemoryUseMode.TRAINING);
+        assertTrue(maxMb >= 100);
+        assertTrue(planner.plan(maxMb, MemoryUseMode.TRAINING).getPeakBytes() <= budget);
+        assertTrue(planner.plan(maxMb + 1, MemoryUseMode.TRAINING).getPeakBytes() > budget);
+        assertEquals(0, planner.maxMinibatchSize(1, MemoryUseMode.TRAINING));
+
+        //No workspaces: everything is detached
+        conf.setTrainingWorkspaceMode(WorkspaceMode.NONE);
+        MemoryPlan noWs = NetworkMemoryPlanner.forConfiguration(conf, InputType.feedForward(10)).plan(32, MemoryUseMode.TRAINING);
+        assertTrue(noWs.getWorkspaceBytes().isEmpty());
+        assertEquals(noWs.getDetachedBytes(), noWs.getPeakBytes());
+    }
+
+    @Test
+    public void testMemoryPlannerGraph() {
+        ComputationGraphConfiguration conf = new NeuralNetConfiguration.Builder()
+                        .trainingWorkspaceMode(WorkspaceMode.ENABLED).inferenceWorkspaceMode(WorkspaceMode.ENABLED)
+                        .graphBuilder().addInputs("in")
+                        .addLayer("d0", new DenseLayer.Builder().nIn(10).nOut(20).build(), "in")
+                        .addLayer("d1", new DenseLayer.Builder().nIn(20).nOut(30).build(), "d0")
+                        .addLayer("out", new OutputLayer.Builder().nIn(30).nOut(5).build(), "d1")
+                        .setOutputs("out").build();
+
+        NetworkMemoryPlanner planner = NetworkMemoryPlanner.forConfiguration(conf, InputType.feedForward(10));
+        MemoryPlan inf = planner.plan(32, MemoryUseMode.INFERENCE);
+
+        //Activations of consecutive vertices alternate between WS_LAYER_ACT_0 and WS_LAYER_ACT_1, as in ComputationGraph
+        assertEquals(32 * 30 * 4, (long) inf.getWorkspaceBytes().get(NetworkMemoryPlanner.WS_LAYER_ACT_PREFIX + 0));
+        assertEquals(32 * 20 * 4, (long) inf.getWorkspaceBytes().get(NetworkMemoryPlanner.WS_LAYER_ACT_PREFIX + 1));
+        assertEquals(3, inf.getWorkspaceBytes().size());     //Two activation workspaces, plus working memory
+        assertTrue(inf.getHeapBytes() > 0);
+
+        MemoryPlan train = planner.plan(32, MemoryUseMode.TRAINING);
+        assertTrue(train.getWorkspaceBytes().containsKey(NetworkMemoryPlanner.WS_LAYER_ACT_PREFIX + 0));
+        assertTrue(train.getWorkspaceBytes().containsKey(NetworkMemoryPlanner.WS_LAYER_ACT_PREFIX + 1));
+        assertEquals(32 * (20 + 30 + 5) * 4, (long) train.getWorkspaceBytes().get(NetworkMemoryPlanner.WS_ALL_LAYERS_ACT));
+
+        //Pre-sized workspaces keep learning, so that an undersized plan is corrected after the first iteration
+        WorkspaceConfiguration wsConf = train.getWorkspaceConfiguration(NetworkMemoryPlanner.WS_ALL_LAYERS_ACT);
+        assertEquals(LearningPolicy.FIRST_LOOP, wsConf.getPolicyLearning());
+        assertEquals(AllocationPolicy.OVERALLOCATE, wsConf.getPolicyAllocation());
+    }
 }
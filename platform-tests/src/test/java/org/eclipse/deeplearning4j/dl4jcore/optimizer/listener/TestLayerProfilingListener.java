@@ -0,0 +1,164 @@
+/*
+ *  ******************************************************************************
+ *  *
+ *  *
+ *  * This program and the accompanying materials are made available under the
+ *  * terms of the Apache License, Version 2.0 which is available at
+ *  * https://www.apache.org/licenses/LICENSE-2.0.
+ *  *
+ *  *  See the NOTICE file distributed with this work for additional
+ *  *  information regarding copyright ownership.
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ *  * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ *  * License for the specific language governing permissions and limitations
+ *  * under the License.
+ *  *
+ *  * SPDX-License-Identifier: Apache-2.0
+ *  *****************************************************************************
+ */
+
+package org.eclipse.deeplearning4j.dl4jcore.optimizer.listener;
+
+import org.deeplearning4j.BaseDL4JTest;
+import org.deeplearning4j.datasets.iterator.impl.IrisDataSetIterator;
+import org.deeplearning4j.nn.conf.ComputationGraphConfiguration;
+import org.deeplearning4j.nn.conf.MultiLayerConfiguration;
+import org.deeplearning4j.nn.conf.NeuralNetConfiguration;
+import org.deeplearning4j.nn.conf.layers.DenseLayer;
+import org.deeplearning4j.nn.conf.layers.OutputLayer;
+import org.deeplearning4j.nn.graph.ComputationGraph;
+import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.deeplearning4j.nn.workspace.ArrayType;
+import org.deeplearning4j.optimize.api.LayerExecutionListener;
+import org.deeplearning4j.optimize.listeners.LayerProfilingListener;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.nd4j.autodiff.listeners.profiler.ProfilingListener;
+import org.nd4j.autodiff.listeners.profiler.data.TraceEvent;
+import org.nd4j.autodiff.listeners.profiler.data.TraceEvents;
+import org.nd4j.common.tests.tags.NativeTag;
+import org.nd4j.common.tests.tags.TagNames;
+import org.nd4j.linalg.activations.Activation;
+import org.nd4j.linalg.learning.config.Adam;
+import org.nd4j.linalg.lossfunctions.LossFunctions;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@NativeTag
+@Tag(TagNames.DL4J_OLD_API)
+public class TestLayerProfilingListener extends BaseDL4JTest {
+
+    @Override
+    public long getTimeoutMilliseconds() {
+        return 90000L;
+    }
+
+    @Test
+    public void testMultiLayerNetwork(@TempDir Path tempDir) throws Exception {
+        MultiLayerConfiguration conf = new NeuralNetConfiguration.Builder()
+                .updater(new Adam(1e-2))
+                .list()
+                .layer(new DenseLayer.Builder().name("dense").nIn(4).nOut(8).activation(Activation.TANH).build())
+                .layer(new OutputLayer.Builder().name("out").nIn(8).nOut(3).activation(Activation.SOFTMAX)
+                        .lossFunction(LossFunctions.LossFunction.MCXENT).build())
+                .build();
+        MultiLayerNetwork net = new MultiLayerNetwork(conf);
+        net.init();
+
+        LayerProfilingListener l = LayerProfilingListener.builder().warmup(1).build();
+        net.setListeners(l);
+
+        //150 examples, minibatch 50 -> 3 iterations, first is warmup
+        net.fit(new IrisDataSetIterator(50, 150));
+
+        //Output layer forward pass is done as part of its backprop during training, hence only recorded as BACKWARD
+        Map<String, LayerProfilingListener.LayerStats> byKey = toMap(l.getStats());
+        LayerProfilingListener.LayerStats fwd = byKey.get(LayerExecutionListener.Phase.FORWARD + "/dense");
+        assertNotNull(fwd);
+        assertEquals(2, fwd.getCount());
+        assertTrue(fwd.getTotalNanos() > 0);
+        assertNotNull(fwd.getHelper());
+        assertNull(byKey.get(LayerExecutionListener.Phase.FORWARD + "/out"));
+        for (String name : new String[]{"dense", "out"}) {
+            LayerProfilingListener.LayerStats bwd = byKey.get(LayerExecutionListener.Phase.BACKWARD + "/" + name);
+            assertNotNull(bwd, name);
+            assertEquals(2, bwd.getCount(), name);
+        }
+
+        //Dense layer: 50x8 activations per forward pass, in the activations workspace
+        LayerProfilingListener.LayerStats denseFwd = byKey.get(LayerExecutionListener.Phase.FORWARD + "/dense");
+        long width = net.params().dataType().width();
+        assertEquals(2L * 50 * 8 * width, (long) denseFwd.getBytesAllocated().get(ArrayType.ACTIVATIONS));
+
+        boolean sawUpdate = false;
+        for (LayerProfilingListener.LayerStats s : l.getStats()) {
+            if (s.getPhase() == LayerExecutionListener.Phase.UPDATE) {
+                sawUpdate = true;
+                assertEquals(2, s.getCount());
+                assertNull(s.getHelper());
+            }
+        }
+        assertTrue(sawUpdate);
+
+        String summary = l.summary();
+        assertTrue(summary.contains("dense"), summary);
+
+        File f = tempDir.resolve("trace.json").toFile();
+        l.exportChromeTrace(f);
+        TraceEvents events = ProfilingListener.jsonMapper().readValue(f, TraceEvents.class);
+        assertEquals(l.getTraceEvents().size(), events.getTraceEvents().size());
+        assertFalse(events.getTraceEvents().isEmpty());
+        for (TraceEvent te : events.getTraceEvents()) {
+            assertNotNull(te.getName());
+            assertNotNull(te.getDur());
+            assertEquals(1, te.getCategories().size());
+        }
+    }
+
+    @Test
+    public void testComputationGraph() {
+        ComputationGraphConfiguration conf = new NeuralNetConfiguration.Builder()
+                .updater(new Adam(1e-2))
+                .graphBuilder()
+                .addInputs("in")
+                .addLayer("dense", new DenseLayer.Builder().nIn(4).nOut(8).activation(Activation.TANH).build(), "in")
+                .addLayer("out", new OutputLayer.Builder().nIn(8).nOut(3).activation(Activation.SOFTMAX)
+                        .lossFunction(LossFunctions.LossFunction.MCXENT).build(), "dense")
+                .setOutputs("out")
+                .build();
+        ComputationGraph net = new ComputationGraph(conf);
+        net.init();
+
+        LayerProfilingListener l = LayerProfilingListener.builder().maxIterations(2).build();
+        net.setListeners(l);
+        net.fit(new IrisDataSetIterator(50, 150));
+
+        Map<String, LayerProfilingListener.LayerStats> byKey = toMap(l.getStats());
+        assertEquals(2, byKey.get(LayerExecutionListener.Phase.FORWARD + "/dense").getCount());
+        for (String name : new String[]{"dense", "out"}) {
+            assertEquals(2, byKey.get(LayerExecutionListener.Phase.BACKWARD + "/" + name).getCount(), name);
+        }
+        //Input vertices aren't executed, hence aren't recorded
+        assertNull(byKey.get(LayerExecutionListener.Phase.FORWARD + "/in"));
+
+        l.reset();
+        assertTrue(l.getStats().isEmpty());
+        assertTrue(l.getTraceEvents().isEmpty());
+    }
+
+    private static Map<String, LayerProfilingListener.LayerStats> toMap(List<LayerProfilingListener.LayerStats> stats) {
+        Map<String, LayerProfilingListener.LayerStats> out = new HashMap<>();
+        for (LayerProfilingListener.LayerStats s : stats) {
+            out.put(s.getPhase() + "/" + s.getName(), s);
+        }
+        return out;
+    }
+}
@@ -34,6 +34,7 @@ import org.nd4j.linalg.api.ndarray.INDArray;
 import org.nd4j.linalg.dimensionalityreduction.PCA;
 import org.nd4j.linalg.factory.Nd4j;
 import org.nd4j.linalg.factory.Nd4jBackend;
+import org.nd4j.linalg.indexing.NDArrayIndex;
 
 import java.util.ArrayList;
 import java.util.Collections;
@@ -297,4 +298,63 @@ public class BlasTests extends BaseNd4jTestWithBackends {
     public char ordering() {
         return 'c';
     }
+
+    @ParameterizedTest
+    @MethodSource("org.nd4j.linalg.BaseNd4jTestWithBackends#configs")
+    public void testBatchMmulStack(Nd4jBackend backend) {
+        Nd4j.getRandom().setSeed(12345);
+        for (DataType dt : new DataType[]{DataType.FLOAT, DataType.DOUBLE}) {
+            for (boolean tA : new boolean[]{false, true}) {
+                for (boolean tB : new boolean[]{false, true}) {
+                    int batch = 17, m = 3, k = 5, n = 4;
+                    INDArray a = tA ? Nd4j.rand(dt, batch, k, m) : Nd4j.rand(dt, batch, m, k);
+                    INDArray b = tB ? Nd4j.rand(dt, batch, n, k) : Nd4j.rand(dt, batch, k, n);
+
+                    INDArray out = Nd4j.batchMmul(a, b, tA, tB);
+                    assertArrayEquals(new long[]{batch, m, n}, out.shape());
+                    for (int i = 0; i < batch; i++) {
+                        INDArray ai = a.tensorAlongDimension(i, 1, 2);
+                        INDArray bi = b.tensorAlongDimension(i, 1, 2);
+                        INDArray exp = Nd4j.gemm(ai.dup(), bi.dup(), tA, tB);
+                        assertEquals(exp, out.tensorAlongDimension(i, 1, 2), "tA=" + tA + ", tB=" + tB + ", i=" + i);
+                    }
+                }
+            }
+        }
+
+        INDArray a = Nd4j.rand(DataType.FLOAT, 8, 2, 3);
+        INDArray b = Nd4j.rand(DataType.FLOAT, 8, 3, 6);
+        assertEquals(Nd4j.batchMmul(a, b), a.batchMmul(b));
+    }
+
+    @ParameterizedTest
+    @MethodSource("org.nd4j.linalg.BaseNd4jTestWithBackends#configs")
+    public void testBatchMmulList(Nd4jBackend backend) {
+        Nd4j.getRandom().setSeed(12345);
+        int batch = 10;
+        INDArray[] a = new INDArray[batch];
+        INDArray[] b = new INDArray[batch];
+        for (int i = 0; i < batch; i++) {
+            //Mixed layouts: c order, f order and (non-contiguous) views
+            a[i] = i % 3 == 0 ? Nd4j.rand(DataType.FLOAT, 'f', 4, 7) : Nd4j.rand(DataType.FLOAT, 4, 7);
+            b[i] = i % 2 == 0 ? Nd4j.rand(DataType.FLOAT, 7, 10).get(NDArrayIndex.all(), NDArrayIndex.interval(0, 5))
+                    : Nd4j.rand(DataType.FLOAT, 7, 5);
+        }
+
+        INDArray[] out = Nd4j.batchMmul(a, b, false, false);
+        assertEquals(batch, out.length);
+        for (int i = 0; i < batch; i++) {
+            assertEquals(a[i].mmul(b[i]), out[i]);
+        }
+    }
+
+    @ParameterizedTest
+    @MethodSource("org.nd4j.linalg.BaseNd4jTestWithBackends#configs")
+    public void testBatchMmulValidation(Nd4jBackend backend) {
+        INDArray a = Nd4j.rand(DataType.FLOAT, 4, 2, 3);
+        assertThrows(IllegalArgumentException.class, () -> Nd4j.batchMmul(a, Nd4j.rand(DataType.FLOAT, 4, 4, 3)));
+        assertThrows(IllegalArgumentException.class, () -> Nd4j.batchMmul(a, Nd4j.rand(DataType.FLOAT, 5, 3, 3)));
+        assertThrows(IllegalArgumentException.class, () -> Nd4j.batchMmul(new INDArray[]{Nd4j.rand(DataType.FLOAT, 2, 3), Nd4j.rand(DataType.FLOAT, 3, 3)},
+                new INDArray[]{Nd4j.rand(DataType.FLOAT, 3, 3), Nd4j.rand(DataType.FLOAT, 3, 3)}, false, false));
+    }
 }
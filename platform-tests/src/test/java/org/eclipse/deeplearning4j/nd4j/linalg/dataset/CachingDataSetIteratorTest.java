@@ -35,9 +35,12 @@ import org.nd4j.linalg.dataset.api.DataSetPreProcessor;
 import org.nd4j.linalg.dataset.api.iterator.CachingDataSetIterator;
 import org.nd4j.linalg.dataset.api.iterator.DataSetIterator;
 import org.nd4j.linalg.dataset.api.iterator.SamplingDataSetIterator;
+import org.nd4j.linalg.dataset.api.iterator.cache.CompressedInMemoryDataSetCache;
 import org.nd4j.linalg.dataset.api.iterator.cache.DataSetCache;
 import org.nd4j.linalg.dataset.api.iterator.cache.InFileDataSetCache;
 import org.nd4j.linalg.dataset.api.iterator.cache.InMemoryDataSetCache;
+import org.nd4j.linalg.api.buffer.DataType;
+import org.nd4j.linalg.api.ndarray.INDArray;
 import org.nd4j.linalg.factory.Nd4j;
 import org.nd4j.linalg.factory.Nd4jBackend;
 
@@ -76,6 +79,119 @@ public class CachingDataSetIteratorTest extends BaseNd4jTestWithBackends {
         FileUtils.deleteDirectory(cacheDir.toFile());
     }
 
+    @ParameterizedTest
+    @MethodSource("org.nd4j.linalg.BaseNd4jTestWithBackends#configs")
+    public void testCompressedInMemory(Nd4jBackend backend) {
+        try (CompressedInMemoryDataSetCache cache = new CompressedInMemoryDataSetCache()) {
+            runDataSetTest(cache);
+
+            CompressedInMemoryDataSetCache.Stats stats = cache.getStats();
+            assertEquals(5, stats.getEntries());
+            assertTrue(stats.getCompressionRatio() > 1.0, stats.toString());
+            assertTrue(stats.getPrefetchHits() > 0, stats.toString());
+        }
+    }
+
+    @ParameterizedTest
+    @MethodSource("org.nd4j.linalg.BaseNd4jTestWithBackends#configs")
+    public void testCompressedInMemoryRoundTrip(Nd4jBackend backend) {
+        Nd4j.getRandom().setSeed(12345);
+        INDArray f = Nd4j.rand(DataType.DOUBLE, 8, 3, 5);
+        INDArray l = Nd4j.rand(DataType.FLOAT, 8, 2, 5);
+        INDArray fm = Nd4j.ones(DataType.FLOAT, 8, 5);
+        DataSet ds = new DataSet(f, l, fm, null);
+
+        for (String codec : new String[]{"DEFLATE", "GZIP"}) {
+            try (CompressedInMemoryDataSetCache cache = new CompressedInMemoryDataSetCache.Builder()
+                    .compression(codec).prefetch(0).build()) {
+                cache.put("key", ds);
+                DataSet out = cache.get("key");
+                assertEquals(f, out.getFeatures());
+                assertEquals(l, out.getLabels());
+                assertEquals(fm, out.getFeaturesMaskArray());
+                assertNull(out.getLabelsMaskArray());
+            }
+        }
+
+        //Half precision: lossy, but original data types are restored
+        try (CompressedInMemoryDataSetCache cache = new CompressedInMemoryDataSetCache.Builder().halfPrecision(true).build()) {
+            cache.put("key", ds);
+            DataSet out = cache.get("key");
+            assertEquals(DataType.DOUBLE, out.getFeatures().dataType());
+            assertEquals(DataType.FLOAT, out.getLabels().dataType());
+            assertTrue(f.equalsWithEps(out.getFeatures(), 1e-2));
+            assertTrue(l.equalsWithEps(out.getLabels(), 1e-2));
+            CompressedInMemoryDataSetCache.Stats stats = cache.getStats();
+            assertEquals(f.length() * 8 + l.length() * 4 + fm.length() * 4, stats.getUncompressedBytes());
+            assertTrue(stats.getUsedBytes() < stats.getUncompressedBytes() / 2, stats.toString());
+        }
+    }
+
+    @ParameterizedTest
+    @MethodSource("org.nd4j.linalg.BaseNd4jTestWithBackends#configs")
+    public void testCompressedInMemoryBudget(Nd4jBackend backend) throws IOException {
+        Nd4j.getRandom().setSeed(12345);
+        DataSet[] data = new DataSet[10];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = new DataSet(Nd4j.rand(DataType.FLOAT, 16, 32), Nd4j.rand(DataType.FLOAT, 16, 4));
+        }
+
+        //Random data doesn't compress: budget for approximately 4 entries
+        long budget = 4 * (16 * 32 + 16 * 4) * 4 + 1024;
+        try (CompressedInMemoryDataSetCache cache = new CompressedInMemoryDataSetCache(budget)) {
+            for (int i = 0; i < data.length; i++) {
+                cache.put("key" + i, data[i]);
+            }
+            cache.setComplete("ns", true);
+
+            CompressedInMemoryDataSetCache.Stats stats = cache.getStats();
+            assertTrue(stats.getUsedBytes() <= budget, stats.toString());
+            assertTrue(stats.getEvictions() > 0, stats.toString());
+            assertEquals(data.length, stats.getEntries() + stats.getEvictions());
+            //Dropped entries without a backing cache: can't report as complete
+            assertFalse(cache.isComplete("ns"));
+            assertTrue(cache.contains("key0"));
+            assertFalse(cache.contains("key9"));
+            assertNull(cache.get("key9"));
+        }
+
+        //Dropped entries only make their own namespace incomplete
+        try (CompressedInMemoryDataSetCache cache = new CompressedInMemoryDataSetCache(budget)) {
+            for (int i = 0; i < 2; i++) {
+                cache.put(CachingDataSetIterator.makeKey("test", i), data[i]);
+            }
+            cache.setComplete("test", true);
+            for (int i = 0; i < data.length; i++) {
+                cache.put(CachingDataSetIterator.makeKey("train", i), data[i]);
+            }
+            cache.setComplete("train", true);
+
+            assertTrue(cache.getStats().getEvictions() > 0);
+            assertTrue(cache.isComplete("test"));
+            assertFalse(cache.isComplete("train"));
+        }
+
+        Path cacheDir = Files.createTempDirectory("nd4j-compressed-data-set-cache-test");
+        try (CompressedInMemoryDataSetCache cache = new CompressedInMemoryDataSetCache.Builder()
+                .maxBytes(budget).backingCache(new InFileDataSetCache(cacheDir)).build()) {
+            for (int i = 0; i < data.length; i++) {
+                cache.put("key" + i, data[i]);
+            }
+            cache.setComplete("ns", true);
+            assertTrue(cache.isComplete("ns"));
+
+            //Two passes, as for multiple epochs: all entries are available, from memory or from the backing cache
+            for (int epoch = 0; epoch < 2; epoch++) {
+                for (int i = 0; i < data.length; i++) {
+                    assertTrue(cache.contains("key" + i));
+                    assertEquals(data[i], cache.get("key" + i));
+                }
+            }
+        } finally {
+            FileUtils.deleteDirectory(cacheDir.toFile());
+        }
+    }
+
     private void runDataSetTest(DataSetCache cache) {
         int rows = 500;
         int inputColumns = 100;
@@ -0,0 +1,185 @@
+/*
+ *  ******************************************************************************
+ *  *
+ *  *
+ *  * This program and the accompanying materials are made available under the
+ *  * terms of the Apache License, Version 2.0 which is available at
+ *  * https://www.apache.org/licenses/LICENSE-2.0.
+ *  *
+ *  *  See the NOTICE file distributed with this work for additional
+ *  *  information regarding copyright ownership.
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ *  * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ *  * License for the specific language governing permissions and limitations
+ *  * under the License.
+ *  *
+ *  * SPDX-License-Identifier: Apache-2.0
+ *  *****************************************************************************
+ */
+
+package org.eclipse.deeplearning4j.nd4j.linalg.memory;
+
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+import org.bytedeco.javacpp.FloatPointer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.parallel.Execution;
+import org.junit.jupiter.api.parallel.ExecutionMode;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.nd4j.common.tests.tags.NativeTag;
+import org.nd4j.common.tests.tags.TagNames;
+import org.nd4j.linalg.BaseNd4jTestWithBackends;
+import org.nd4j.linalg.api.buffer.DataType;
+import org.nd4j.linalg.api.memory.NativeBufferPool;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+import org.nd4j.linalg.factory.Nd4jBackend;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+@Slf4j
+@NativeTag
+@Tag(TagNames.WORKSPACES)
+@Execution(ExecutionMode.SAME_THREAD)
+public class NativeBufferPoolTests extends BaseNd4jTestWithBackends {
+
+    @AfterEach
+    public void tearDown() {
+        if (Nd4j.getBackend().getEnvironment().isCPU())
+            Nd4j.getMemoryManager().setBufferPool(null);
+    }
+
+    @Test
+    public void testSizeClasses() {
+        assertEquals(0, NativeBufferPool.sizeClass(1));
+        assertEquals(0, NativeBufferPool.sizeClass(64));
+        assertEquals(64, NativeBufferPool.sizeClassBytes(0));
+        long prev = 0;
+        for (int i = 0; i < 60; i++) {
+            long size = NativeBufferPool.sizeClassBytes(i);
+            assertTrue(size > prev);
+            assertEquals(i, NativeBufferPool.sizeClass(size));
+            assertEquals(i + 1, NativeBufferPool.sizeClass(size + 1));
+            //Blocks are at most 25% larger than the requested size
+            assertTrue(size + 1 > 0.8 * NativeBufferPool.sizeClassBytes(i + 1));
+            prev = size;
+        }
+    }
+
+    @ParameterizedTest
+    @MethodSource("org.nd4j.linalg.BaseNd4jTestWithBackends#configs")
+    public void testReuse(Nd4jBackend backend) throws Exception {
+        assumeTrue(Nd4j.getBackend().getEnvironment().isCPU());
+        NativeBufferPool pool = new NativeBufferPool(Nd4j.getMemoryManager(), 1024 * 1024, 16 * 1024 * 1024);
+
+        val a1 = pool.allocate(1000);
+        assertEquals(1024, a1.getBlockBytes());
+        long address = a1.getPointer().address();
+        assertTrue(a1.release());
+        assertFalse(a1.release());
+        assertEquals(1024, pool.getCachedBytes());
+
+        //Same size class, same thread: served from the thread cache
+        val a2 = pool.allocate(900);
+        assertEquals(address, a2.getPointer().address());
+        assertEquals(1, pool.getHitCount());
+        assertEquals(1, pool.getThreadCacheHitCount());
+        assertEquals(0, pool.getCachedBytes());
+        assertEquals(1024, pool.getBytesInUse());
+        assertEquals(900, pool.getRequestedBytesInUse());
+        assertEquals(1.0 - 900 / 1024.0, pool.getInternalFragmentation(), 1e-6);
+
+        //Released by another thread: goes to the global free list, available to all threads
+        Thread t = new Thread(a2::release);
+        t.start();
+        t.join();
+        AtomicReference<Long> otherAddress = new AtomicReference<>();
+        t = new Thread(() -> {
+            val a3 = pool.allocate(1024);
+            otherAddress.set(a3.getPointer().address());
+            a3.release();
+        });
+        t.start();
+        t.join();
+        assertEquals(address, (long) otherAddress.get());
+        assertEquals(2, pool.getHitCount());
+        //Nothing in use, one block cached
+        assertEquals(1.0, pool.getExternalFragmentation(), 1e-6);
+
+        //Larger than the maximum block size: not pooled
+        val big = pool.allocate(2 * 1024 * 1024);
+        assertEquals(1, pool.getUnpooledCount());
+        big.release();
+
+        pool.purge();
+        assertEquals(0, pool.getCachedBytes());
+        assertEquals(0, pool.getBytesInUse());
+        log.info(pool.toString());
+    }
+
+    @ParameterizedTest
+    @MethodSource("org.nd4j.linalg.BaseNd4jTestWithBackends#configs")
+    public void testMaxCachedBytes(Nd4jBackend backend) {
+        assumeTrue(Nd4j.getBackend().getEnvironment().isCPU());
+        NativeBufferPool pool = new NativeBufferPool(Nd4j.getMemoryManager(), 1024 * 1024, 4096);
+        val a1 = pool.allocate(4096);
+        val a2 = pool.allocate(4096);
+        a1.release();
+        a2.release();
+        assertEquals(4096, pool.getCachedBytes());
+        assertEquals(1, pool.getEvictionCount());
+        pool.purge();
+    }
+
+    @ParameterizedTest
+    @MethodSource("org.nd4j.linalg.BaseNd4jTestWithBackends#configs")
+    public void testPoisonReleased(Nd4jBackend backend) {
+        assumeTrue(Nd4j.getBackend().getEnvironment().isCPU());
+        NativeBufferPool pool = new NativeBufferPool(Nd4j.getMemoryManager(), 1024 * 1024, 16 * 1024 * 1024);
+        pool.setPoisonReleased(true);
+
+        val a1 = pool.allocate(400);
+        FloatPointer fp = new FloatPointer(a1.getPointer());
+        fp.put(0, 1.0f);
+        assertTrue(a1.release());
+        //A stale pointer into the released block now reads the poison value, instead of (silently) the previous data
+        assertTrue(Float.isNaN(fp.get(0)));
+
+        //Reused memory must still be zeroed for create()
+        Nd4j.getMemoryManager().setBufferPool(pool);
+        try (INDArray reused = Nd4j.create(DataType.FLOAT, 10, 10)) {
+            assertEquals(0.0, reused.sumNumber().doubleValue(), 0.0);
+        }
+        assertTrue(pool.getHitCount() >= 1);
+        pool.purge();
+    }
+
+    @ParameterizedTest
+    @MethodSource("org.nd4j.linalg.BaseNd4jTestWithBackends#configs")
+    public void testArraysFromPool(Nd4jBackend backend) {
+        assumeTrue(Nd4j.getBackend().getEnvironment().isCPU());
+        NativeBufferPool pool = new NativeBufferPool(Nd4j.getMemoryManager(), 1024 * 1024, 16 * 1024 * 1024);
+        Nd4j.getMemoryManager().setBufferPool(pool);
+
+        for (int i = 0; i < 10; i++) {
+            try (INDArray arr = Nd4j.create(DataType.FLOAT, 10, 10)) {
+                //Reused memory must still be zeroed for create()
+                assertEquals(0.0, arr.sumNumber().doubleValue(), 0.0);
+                arr.addi(i);
+                assertEquals(100.0 * i, arr.sumNumber().doubleValue(), 1e-3);
+            }
+        }
+        //Only the first array required new memory: all others reused it
+        assertTrue(pool.getHitCount() >= 9);
+
+        Nd4j.getMemoryManager().purgeCaches();
+        assertEquals(0, pool.getCachedBytes());
+    }
+}
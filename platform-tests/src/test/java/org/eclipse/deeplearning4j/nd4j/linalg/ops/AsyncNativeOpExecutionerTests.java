@@ -0,0 +1,197 @@
+/*
+ *  ******************************************************************************
+ *  *
+ *  *
+ *  * This program and the accompanying materials are made available under the
+ *  * terms of the Apache License, Version 2.0 which is available at
+ *  * https://www.apache.org/licenses/LICENSE-2.0.
+ *  *
+ *  *  See the NOTICE file distributed with this work for additional
+ *  *  information regarding copyright ownership.
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ *  * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ *  * License for the specific language governing permissions and limitations
+ *  * under the License.
+ *  *
+ *  * SPDX-License-Identifier: Apache-2.0
+ *  *****************************************************************************
+ */
+
+package org.eclipse.deeplearning4j.nd4j.linalg.ops;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.nd4j.common.tests.tags.NativeTag;
+import org.nd4j.common.tests.tags.TagNames;
+import org.nd4j.linalg.BaseNd4jTestWithBackends;
+import org.nd4j.linalg.api.buffer.BaseDataBuffer;
+import org.nd4j.linalg.api.buffer.DataType;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.api.ops.executioner.GridExecutioner;
+import org.nd4j.linalg.api.ops.executioner.OpExecutioner;
+import org.nd4j.linalg.api.ops.impl.reduce.same.Sum;
+import org.nd4j.linalg.api.ops.impl.scalar.ScalarAdd;
+import org.nd4j.linalg.api.ops.impl.scalar.ScalarMultiplication;
+import org.nd4j.linalg.api.ops.impl.transforms.pairwise.arithmetic.AddOp;
+import org.nd4j.linalg.api.ops.impl.transforms.strict.Tanh;
+import org.nd4j.linalg.factory.Nd4j;
+import org.nd4j.linalg.factory.Nd4jBackend;
+import org.nd4j.linalg.indexing.NDArrayIndex;
+import org.nd4j.linalg.ops.transforms.Transforms;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+@NativeTag
+@Tag(TagNames.MULTI_THREADED)
+public class AsyncNativeOpExecutionerTests extends BaseNd4jTestWithBackends {
+    private static final String EXECUTIONER_CLASS = "org.nd4j.linalg.cpu.nativecpu.ops.AsyncNativeOpExecutioner";
+
+    private OpExecutioner executioner;
+
+    @AfterEach
+    public void tearDown() {
+        if (executioner != null)
+            executioner.commit();
+    }
+
+    private OpExecutioner asyncExecutioner(Nd4jBackend backend) throws Exception {
+        assumeTrue(backend.getEnvironment().isCPU());
+        //Created via reflection: this class is only available with the CPU backend
+        executioner = (OpExecutioner) Class.forName(EXECUTIONER_CLASS).getConstructor(int.class, int.class).newInstance(2, 16);
+        return executioner;
+    }
+
+    @ParameterizedTest
+    @MethodSource("org.nd4j.linalg.BaseNd4jTestWithBackends#configs")
+    public void testDependentChain(Nd4jBackend backend) throws Exception {
+        OpExecutioner exec = asyncExecutioner(backend);
+
+        INDArray x = Nd4j.linspace(1, 100, 100, DataType.DOUBLE);
+        INDArray z = Nd4j.create(DataType.DOUBLE, 100);
+        INDArray out = Nd4j.create(DataType.DOUBLE, 100);
+
+        exec.exec(new ScalarAdd(x, null, z, 1.0));
+        exec.exec(new ScalarMultiplication(z, null, z, 2.0));
+        exec.exec(new AddOp(new INDArray[]{z, x}, new INDArray[]{out}));
+        exec.exec(new Tanh(out, out));
+
+        //Reading the result waits for all queued ops that write it
+        INDArray exp = Transforms.tanh(x.add(1.0).muli(2.0).addi(x), false);
+        assertValuesEqual(exp, out);
+    }
+
+    @ParameterizedTest
+    @MethodSource("org.nd4j.linalg.BaseNd4jTestWithBackends#configs")
+    public void testWriteAfterRead(Nd4jBackend backend) throws Exception {
+        OpExecutioner exec = asyncExecutioner(backend);
+
+        INDArray x = Nd4j.linspace(1, 1000, 1000, DataType.FLOAT);
+        INDArray y = Nd4j.create(DataType.FLOAT, 1000);
+
+        //Second op overwrites the input of the first one: it must not start before the first one is complete
+        exec.exec(new ScalarAdd(x, null, y, 1.0));
+        exec.exec(new ScalarMultiplication(x, null, x, 0.0));
+
+        assertValuesEqual(Nd4j.linspace(2, 1001, 1000, DataType.FLOAT), y);
+        assertValuesEqual(Nd4j.zeros(DataType.FLOAT, 1000), x);
+    }
+
+    @ParameterizedTest
+    @MethodSource("org.nd4j.linalg.BaseNd4jTestWithBackends#configs")
+    public void testReadFences(Nd4jBackend backend) throws Exception {
+        OpExecutioner exec = asyncExecutioner(backend);
+
+        INDArray x = Nd4j.linspace(1, 1000, 1000, DataType.FLOAT);
+        INDArray y = Nd4j.create(DataType.FLOAT, 1000);
+        exec.exec(new ScalarAdd(x, null, y, 1.0));
+
+        //Java-side reads of the input don't wait for queued readers, writes do
+        BaseDataBuffer in = (BaseDataBuffer) x.data();
+        assertNull(in.getPendingWrite());
+        assertNotNull(in.getPendingAccess());
+        assertEquals(1.0, x.getDouble(0), 1e-6);
+
+        BaseDataBuffer out = (BaseDataBuffer) y.data();
+        assertNotNull(out.getPendingWrite());
+        assertSame(out.getPendingWrite(), out.getPendingAccess());
+
+        x.putScalar(0, 5.0);
+        assertValuesEqual(Nd4j.linspace(2, 1001, 1000, DataType.FLOAT), y);
+    }
+
+    @ParameterizedTest
+    @MethodSource("org.nd4j.linalg.BaseNd4jTestWithBackends#configs")
+    public void testSerialization(Nd4jBackend backend) throws Exception {
+        OpExecutioner exec = asyncExecutioner(backend);
+
+        INDArray x = Nd4j.linspace(1, 1000, 1000, DataType.DOUBLE);
+        INDArray z = Nd4j.create(DataType.DOUBLE, 1000);
+        exec.exec(new ScalarAdd(x, null, z, 1.0));
+
+        //Serialization waits for the queued op writing the array
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        Nd4j.write(z, new DataOutputStream(baos));
+        INDArray restored = Nd4j.read(new DataInputStream(new ByteArrayInputStream(baos.toByteArray())));
+        assertValuesEqual(Nd4j.linspace(2, 1001, 1000, DataType.DOUBLE), restored);
+    }
+
+    @ParameterizedTest
+    @MethodSource("org.nd4j.linalg.BaseNd4jTestWithBackends#configs")
+    public void testViews(Nd4jBackend backend) throws Exception {
+        OpExecutioner exec = asyncExecutioner(backend);
+
+        INDArray arr = Nd4j.zeros(DataType.DOUBLE, 4, 5);
+        INDArray row = arr.get(NDArrayIndex.point(2), NDArrayIndex.all());
+        exec.exec(new ScalarAdd(row, null, row, 3.0));
+
+        //Reading the parent array waits for ops writing its views
+        assertEquals(3.0, arr.getDouble(2, 4), 1e-6);
+        assertEquals(3.0, arr.getDouble(2, 0), 1e-6);
+        assertEquals(0.0, arr.getDouble(1, 4), 1e-6);
+    }
+
+    @ParameterizedTest
+    @MethodSource("org.nd4j.linalg.BaseNd4jTestWithBackends#configs")
+    public void testCommitAndSyncFallback(Nd4jBackend backend) throws Exception {
+        OpExecutioner exec = asyncExecutioner(backend);
+        GridExecutioner grid = (GridExecutioner) exec;
+
+        INDArray[] arrs = new INDArray[40];
+        for (int i = 0; i < arrs.length; i++) {
+            arrs[i] = Nd4j.create(DataType.FLOAT, 256);
+            exec.exec(new ScalarAdd(arrs[i], null, arrs[i], i));
+        }
+
+        //Reductions are executed synchronously, after all queued ops
+        INDArray sum = exec.exec(new Sum(arrs[arrs.length - 1]));
+        assertEquals(256.0 * (arrs.length - 1), sum.getDouble(0), 1e-3);
+
+        exec.commit();
+        assertEquals(0, grid.getQueueLength());
+        for (int i = 0; i < arrs.length; i++) {
+            assertEquals(Nd4j.valueArrayOf(new long[]{256}, (float) i), arrs[i]);
+        }
+    }
+
+    //Element-wise comparison via getDouble: the arrays are compared from Java, without executing ops on Nd4j.getExecutioner()
+    private static void assertValuesEqual(INDArray exp, INDArray act) {
+        assertArrayEquals(exp.shape(), act.shape());
+        for (long i = 0; i < exp.length(); i++) {
+            assertEquals(exp.getDouble(i), act.getDouble(i), 1e-5, "Value at index " + i);
+        }
+    }
+
+    @Override
+    public char ordering() {
+        return 'c';
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ *  ******************************************************************************
+ *  *
+ *  *
+ *  * This program and the accompanying materials are made available under the
+ *  * terms of the Apache License, Version 2.0 which is available at
+ *  * https://www.apache.org/licenses/LICENSE-2.0.
+ *  *
+ *  *  See the NOTICE file distributed with this work for additional
+ *  *  information regarding copyright ownership.
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ *  * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ *  * License for the specific language governing permissions and limitations
+ *  * under the License.
+ *  *
+ *  * SPDX-License-Identifier: Apache-2.0
+ *  *****************************************************************************
+ */
+
+package org.eclipse.deeplearning4j.nd4j.linalg.ops;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.nd4j.common.tests.tags.NativeTag;
+import org.nd4j.common.tests.tags.TagNames;
+import org.nd4j.linalg.BaseNd4jTestWithBackends;
+import org.nd4j.linalg.api.buffer.DataType;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.api.ops.executioner.PreparedOp;
+import org.nd4j.linalg.api.ops.impl.reduce.Mmul;
+import org.nd4j.linalg.api.ops.impl.transforms.custom.SoftMax;
+import org.nd4j.linalg.api.ops.impl.transforms.pairwise.arithmetic.AddOp;
+import org.nd4j.linalg.factory.Nd4j;
+import org.nd4j.linalg.factory.Nd4jBackend;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@NativeTag
+@Tag(TagNames.CUSTOM_FUNCTIONALITY)
+public class PreparedOpTests extends BaseNd4jTestWithBackends {
+
+    @ParameterizedTest
+    @MethodSource("org.nd4j.linalg.BaseNd4jTestWithBackends#configs")
+    public void testRepeatedExecution(Nd4jBackend backend) {
+        try (PreparedOp add = Nd4j.getExecutioner().prepare(new AddOp())) {
+            for (int i = 0; i < 5; i++) {
+                INDArray x = Nd4j.rand(DataType.FLOAT, 3, 4);
+                INDArray y = Nd4j.rand(DataType.FLOAT, 3, 4);
+                INDArray[] out = add.exec(x, y);
+                assertEquals(1, out.length);
+                assertEquals(x.add(y), out[0]);
+            }
+            //Output shapes are only calculated once for unchanged input shapes
+            assertEquals(1, add.getShapeCalculationCount());
+
+            INDArray x = Nd4j.rand(DataType.DOUBLE, 2, 5);
+            INDArray y = Nd4j.rand(DataType.DOUBLE, 2, 5);
+            assertEquals(x.add(y), add.exec(x, y)[0]);
+            assertEquals(2, add.getShapeCalculationCount());
+        }
+    }
+
+    @ParameterizedTest
+    @MethodSource("org.nd4j.linalg.BaseNd4jTestWithBackends#configs")
+    public void testPreallocatedOutputs(Nd4jBackend backend) {
+        INDArray a = Nd4j.rand(DataType.FLOAT, 32, 32);
+        INDArray b = Nd4j.rand(DataType.FLOAT, 32, 32);
+        INDArray out = Nd4j.create(DataType.FLOAT, 32, 32);
+
+        try (PreparedOp mmul = Nd4j.getExecutioner().prepare(new Mmul(a, b))) {
+            INDArray[] res = mmul.exec(new INDArray[]{a, b}, new INDArray[]{out});
+            assertSame(out, res[0]);
+            assertEquals(a.mmul(b), out);
+
+            //Same output array, changed input contents
+            b.assign(1.0);
+            mmul.exec(new INDArray[]{a, b}, new INDArray[]{out});
+            assertEquals(a.mmul(b), out);
+            assertEquals(0, mmul.getShapeCalculationCount());
+        }
+    }
+
+    @ParameterizedTest
+    @MethodSource("org.nd4j.linalg.BaseNd4jTestWithBackends#configs")
+    public void testArgumentsArePreBound(Nd4jBackend backend) {
+        INDArray in = Nd4j.rand(DataType.DOUBLE, 4, 6);
+        try (PreparedOp softmax = Nd4j.getExecutioner().prepare(new SoftMax(in, null, 0))) {
+            INDArray exp = Nd4j.exec(new SoftMax(in, null, 0))[0];
+            assertEquals(exp, softmax.exec()[0]);
+
+            INDArray in2 = Nd4j.rand(DataType.DOUBLE, 4, 6);
+            INDArray exp2 = Nd4j.exec(new SoftMax(in2, null, 0))[0];
+            assertEquals(exp2, softmax.exec(in2)[0]);
+            assertEquals(Nd4j.ones(DataType.DOUBLE, 6), exp2.sum(0));
+        }
+    }
+
+    @ParameterizedTest
+    @MethodSource("org.nd4j.linalg.BaseNd4jTestWithBackends#configs")
+    public void testValidation(Nd4jBackend backend) {
+        PreparedOp add = Nd4j.getExecutioner().prepare(new AddOp());
+        add.exec(Nd4j.ones(3), Nd4j.ones(3));
+        assertThrows(IllegalArgumentException.class, () -> add.exec(Nd4j.ones(3)));
+
+        add.close();
+        assertTrue(add.isClosed());
+        assertThrows(IllegalStateException.class, () -> add.exec(Nd4j.ones(3), Nd4j.ones(3)));
+    }
+
+    @Override
+    public char ordering() {
+        return 'c';
+    }
+}
@@ -0,0 +1,200 @@
+/*
+ *  ******************************************************************************
+ *  *
+ *  *
+ *  * This program and the accompanying materials are made available under the
+ *  * terms of the Apache License, Version 2.0 which is available at
+ *  * https://www.apache.org/licenses/LICENSE-2.0.
+ *  *
+ *  *  See the NOTICE file distributed with this work for additional
+ *  *  information regarding copyright ownership.
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ *  * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ *  * License for the specific language governing permissions and limitations
+ *  * under the License.
+ *  *
+ *  * SPDX-License-Identifier: Apache-2.0
+ *  *****************************************************************************
+ */
+
+package org.eclipse.deeplearning4j.nd4j.linalg.profiling;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.parallel.Execution;
+import org.junit.jupiter.api.parallel.ExecutionMode;
+import org.junit.jupiter.api.parallel.Isolated;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.nd4j.common.tests.tags.NativeTag;
+import org.nd4j.linalg.BaseNd4jTestWithBackends;
+import org.nd4j.linalg.api.buffer.DataType;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.api.ops.impl.transforms.strict.Log;
+import org.nd4j.linalg.factory.Nd4j;
+import org.nd4j.linalg.factory.Nd4jBackend;
+import org.nd4j.linalg.profiler.SamplingProfiler;
+import org.nd4j.linalg.profiler.data.LatencyHistogram;
+import org.nd4j.linalg.profiler.data.OpSample;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@NativeTag
+@Isolated
+@Execution(ExecutionMode.SAME_THREAD)
+public class SamplingProfilerTests extends BaseNd4jTestWithBackends {
+
+    @Override
+    public char ordering() {
+        return 'c';
+    }
+
+    @BeforeEach
+    public void setUp() {
+        SamplingProfiler.getInstance().setSamplingRate(0);
+        SamplingProfiler.getInstance().reset();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        SamplingProfiler.getInstance().stopExport();
+        SamplingProfiler.getInstance().setSamplingRate(0);
+        SamplingProfiler.getInstance().reset();
+    }
+
+    @ParameterizedTest
+    @MethodSource("org.nd4j.linalg.BaseNd4jTestWithBackends#configs")
+    public void testSampleAll(Nd4jBackend backend) {
+        SamplingProfiler profiler = SamplingProfiler.getInstance();
+        INDArray arr = Nd4j.rand(DataType.FLOAT, 3, 4).addi(1.0);
+
+        profiler.setSamplingRate(1);
+        for (int i = 0; i < 10; i++) {
+            Nd4j.exec(new Log(arr, arr.ulike()));
+        }
+        profiler.setSamplingRate(0);
+
+        List<OpSample> samples = new ArrayList<>();
+        for (OpSample s : profiler.drain()) {
+            if ("log".equals(s.getOpName()))
+                samples.add(s);
+        }
+        assertEquals(10, samples.size());
+        for (OpSample s : samples) {
+            assertEquals(DataType.FLOAT, s.getDataType());
+            assertArrayEquals(new long[]{3, 4}, s.getShape());
+            assertTrue(s.getDurationNanos() >= 0);
+        }
+
+        //Already drained, but histograms are cumulative
+        assertTrue(profiler.drain().isEmpty());
+        Map<String, LatencyHistogram> histograms = profiler.getHistograms();
+        assertEquals(10, histograms.get("log").getTotalCount());
+    }
+
+    @ParameterizedTest
+    @MethodSource("org.nd4j.linalg.BaseNd4jTestWithBackends#configs")
+    public void testSamplingRate(Nd4jBackend backend) {
+        SamplingProfiler profiler = SamplingProfiler.getInstance();
+        INDArray arr = Nd4j.rand(DataType.DOUBLE, 5).addi(1.0);
+
+        profiler.setSamplingRate(10);
+        for (int i = 0; i < 100; i++) {
+            Nd4j.exec(new Log(arr, arr.ulike()));
+        }
+        profiler.setSamplingRate(0);
+
+        //1 in 10 executions, per thread: exactly 10 samples of 100 executions
+        long count = profiler.drain().stream().filter(s -> "log".equals(s.getOpName())).count();
+        assertEquals(10, count);
+    }
+
+    @ParameterizedTest
+    @MethodSource("org.nd4j.linalg.BaseNd4jTestWithBackends#configs")
+    public void testDisabledAndBufferFull(Nd4jBackend backend) throws Exception {
+        SamplingProfiler profiler = SamplingProfiler.getInstance();
+        INDArray arr = Nd4j.rand(DataType.FLOAT, 5).addi(1.0);
+
+        Nd4j.exec(new Log(arr, arr.ulike()));
+        assertTrue(profiler.drain().isEmpty());
+
+        //New thread, with a small buffer: samples beyond the buffer size are dropped until drained
+        profiler.setBufferSize(4);
+        profiler.setSamplingRate(1);
+        try {
+            Thread t = new Thread(() -> {
+                for (int i = 0; i < 10; i++) {
+                    Nd4j.exec(new Log(arr, arr.ulike()));
+                }
+            });
+            t.start();
+            t.join();
+        } finally {
+            profiler.setSamplingRate(0);
+            profiler.setBufferSize(SamplingProfiler.DEFAULT_BUFFER_SIZE);
+        }
+
+        assertEquals(4, profiler.drain().size());
+        assertEquals(6, profiler.getDroppedCount());
+    }
+
+    @ParameterizedTest
+    @MethodSource("org.nd4j.linalg.BaseNd4jTestWithBackends#configs")
+    public void testExport(Nd4jBackend backend) throws Exception {
+        SamplingProfiler profiler = SamplingProfiler.getInstance();
+        INDArray arr = Nd4j.rand(DataType.FLOAT, 5).addi(1.0);
+
+        CountDownLatch latch = new CountDownLatch(1);
+        List<OpSample> exported = new ArrayList<>();
+        profiler.startExport((h, s) -> {
+            synchronized (exported) {
+                exported.addAll(s);
+            }
+            if (h.containsKey("log"))
+                latch.countDown();
+        }, 10, TimeUnit.MILLISECONDS);
+
+        profiler.setSamplingRate(1);
+        Nd4j.exec(new Log(arr, arr.ulike()));
+        profiler.setSamplingRate(0);
+
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+        profiler.stopExport();
+        synchronized (exported) {
+            assertTrue(exported.stream().anyMatch(s -> "log".equals(s.getOpName())));
+        }
+    }
+
+    @ParameterizedTest
+    @MethodSource("org.nd4j.linalg.BaseNd4jTestWithBackends#configs")
+    public void testHistogram(Nd4jBackend backend) {
+        LatencyHistogram h = new LatencyHistogram();
+        for (int i = 1; i <= 10000; i++) {
+            h.recordValue(i * 1000L);
+        }
+
+        assertEquals(10000, h.getTotalCount());
+        assertEquals(1000, h.getMin());
+        assertEquals(10_000_000, h.getMax());
+        assertEquals(5_000_500.0, h.getMean(), 1e-6);
+        //Relative error bounded by 1/64
+        assertEquals(5_000_000, h.getValueAtPercentile(50), 5_000_000 / 64.0);
+        assertEquals(9_900_000, h.getValueAtPercentile(99), 9_900_000 / 64.0);
+        assertEquals(10_000_000, h.getValueAtPercentile(100));
+
+        LatencyHistogram h2 = new LatencyHistogram();
+        h2.recordValue(0);
+        h2.recordValue(Long.MAX_VALUE);
+        h.add(h2);
+        assertEquals(10002, h.getTotalCount());
+        assertEquals(0, h.getMin());
+        assertEquals(Long.MAX_VALUE, h.getMax());
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ *  ******************************************************************************
+ *  *
+ *  *
+ *  * This program and the accompanying materials are made available under the
+ *  * terms of the Apache License, Version 2.0 which is available at
+ *  * https://www.apache.org/licenses/LICENSE-2.0.
+ *  *
+ *  *  See the NOTICE file distributed with this work for additional
+ *  *  information regarding copyright ownership.
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ *  * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ *  * License for the specific language governing permissions and limitations
+ *  * under the License.
+ *  *
+ *  * SPDX-License-Identifier: Apache-2.0
+ *  *****************************************************************************
+ */
+
+package org.eclipse.deeplearning4j.nd4j.linalg.serde;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.nd4j.common.tests.tags.NativeTag;
+import org.nd4j.common.tests.tags.TagNames;
+import org.nd4j.linalg.BaseNd4jTestWithBackends;
+import org.nd4j.linalg.api.buffer.DataType;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+import org.nd4j.linalg.factory.Nd4jBackend;
+import org.nd4j.linalg.indexing.NDArrayIndex;
+import org.nd4j.serde.binary.BinarySerde;
+import org.nd4j.serde.binary.BinarySerdeRingBuffer;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Tag(TagNames.NDARRAY_SERDE)
+@NativeTag
+public class BinarySerdeFrameTests extends BaseNd4jTestWithBackends {
+
+    @ParameterizedTest
+    @MethodSource("org.nd4j.linalg.BaseNd4jTestWithBackends#configs")
+    public void testFrameRoundTrip(Nd4jBackend backend) {
+        INDArray[] arrays = new INDArray[]{
+                Nd4j.rand(DataType.FLOAT, 3, 5),
+                Nd4j.linspace(1, 7, 7, DataType.DOUBLE),
+                Nd4j.createFromArray(true, false, true),
+                Nd4j.createFromArray(1, 2, 3).castTo(DataType.SHORT),
+                Nd4j.rand(DataType.DOUBLE, 4, 6).get(NDArrayIndex.interval(1, 3), NDArrayIndex.all()),
+                Nd4j.rand(DataType.FLOAT, 3, 4).permute(1, 0),
+                Nd4j.scalar(5L),
+                Nd4j.empty(DataType.FLOAT)
+        };
+
+        int size = BinarySerde.frameSizeFor(arrays);
+        assertEquals(0, size % 8);
+        ByteBuffer direct = ByteBuffer.allocateDirect(size + 16);
+        direct.position(8);
+        assertEquals(size, BinarySerde.writeFrame(direct, arrays));
+        assertEquals(8 + size, direct.position());
+
+        direct.position(8);
+        INDArray[] back = BinarySerde.readFrame(direct);
+        assertEquals(8 + size, direct.position());
+        assertEquals(arrays.length, back.length);
+        for (int i = 0; i < arrays.length; i++) {
+            assertEquals(arrays[i], back[i], "Array " + i);
+        }
+
+        //Direct buffers: arrays are views of the buffer
+        back[0].assign(3.0);
+        direct.position(8);
+        assertEquals(Nd4j.valueArrayOf(new long[]{3, 5}, 3.0f), BinarySerde.readFrame(direct)[0]);
+
+        //Heap buffers: arrays are copied
+        ByteBuffer heap = ByteBuffer.allocate(size);
+        BinarySerde.writeFrame(heap, arrays);
+        heap.rewind();
+        back = BinarySerde.readFrame(heap);
+        for (int i = 0; i < arrays.length; i++) {
+            assertEquals(arrays[i], back[i], "Array " + i);
+        }
+    }
+
+    @ParameterizedTest
+    @MethodSource("org.nd4j.linalg.BaseNd4jTestWithBackends#configs")
+    public void testSingleArrayEntryCompatibility(Nd4jBackend backend) {
+        INDArray arr = Nd4j.rand(DataType.FLOAT, 4, 4);
+        ByteBuffer buffer = ByteBuffer.allocateDirect(BinarySerde.frameSizeFor(arr));
+        BinarySerde.writeFrame(buffer, arr);
+        //Each frame entry uses the same layout as BinarySerde.toByteBuffer
+        assertEquals(arr, BinarySerde.toArray(buffer, BinarySerde.FRAME_HEADER_LENGTH));
+    }
+
+    @ParameterizedTest
+    @MethodSource("org.nd4j.linalg.BaseNd4jTestWithBackends#configs")
+    public void testRingBuffer(Nd4jBackend backend) {
+        INDArray arr = Nd4j.rand(DataType.FLOAT, 10, 10);
+        int frameSize = BinarySerde.frameSizeFor(arr, arr);
+        BinarySerdeRingBuffer ring = new BinarySerdeRingBuffer(frameSize * 3 + frameSize / 2);
+
+        assertNull(ring.poll());
+        for (int round = 0; round < 10; round++) {
+            INDArray a = arr.add(round);
+            INDArray b = arr.mul(round);
+            assertTrue(ring.offer(a, b));
+            assertTrue(ring.offer(b, a));
+
+            BinarySerdeRingBuffer.Frame f1 = ring.poll();
+            BinarySerdeRingBuffer.Frame f2 = ring.poll();
+            assertNotNull(f1);
+            assertNotNull(f2);
+            assertEquals(a, f1.getArrays()[0]);
+            assertEquals(b, f1.getArrays()[1]);
+            assertEquals(b, f2.getArrays()[0]);
+            assertEquals(a, f2.getArrays()[1]);
+            assertNull(ring.poll());
+            f1.close();
+            f2.close();
+        }
+        assertEquals(0, ring.usedBytes());
+
+        //Full buffer: frames have to be released before more can be written
+        int written = 0;
+        while (ring.offer(arr, arr))
+            written++;
+        assertEquals(3, written);
+        BinarySerdeRingBuffer.Frame f = ring.poll();
+        BinarySerdeRingBuffer.Frame f2 = ring.poll();
+        assertThrows(IllegalStateException.class, f2::close);
+        f.close();
+        f2.close();
+        assertTrue(ring.offer(arr, arr));
+    }
+
+    @Override
+    public char ordering() {
+        return 'c';
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ *  ******************************************************************************
+ *  *
+ *  *
+ *  * This program and the accompanying materials are made available under the
+ *  * terms of the Apache License, Version 2.0 which is available at
+ *  * https://www.apache.org/licenses/LICENSE-2.0.
+ *  *
+ *  *  See the NOTICE file distributed with this work for additional
+ *  *  information regarding copyright ownership.
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ *  * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ *  * License for the specific language governing permissions and limitations
+ *  * under the License.
+ *  *
+ *  * SPDX-License-Identifier: Apache-2.0
+ *  *****************************************************************************
+ */
+
+package org.eclipse.deeplearning4j.nd4j.linalg.shape;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.nd4j.common.primitives.Pair;
+import org.nd4j.common.tests.tags.NativeTag;
+import org.nd4j.common.tests.tags.TagNames;
+import org.nd4j.linalg.BaseNd4jTestWithBackends;
+import org.nd4j.linalg.api.buffer.DataBuffer;
+import org.nd4j.linalg.api.buffer.DataType;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.cache.BoundedDescriptorCache;
+import org.nd4j.linalg.cache.DescriptorCache;
+import org.nd4j.linalg.cache.DescriptorCacheSnapshot;
+import org.nd4j.linalg.cache.TADManager;
+import org.nd4j.linalg.cache.TadDescriptor;
+import org.nd4j.linalg.factory.Nd4j;
+import org.nd4j.linalg.factory.Nd4jBackend;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+@NativeTag
+@Tag(TagNames.NDARRAY_INDEXING)
+public class DescriptorCacheTests extends BaseNd4jTestWithBackends {
+
+    @Override
+    public char ordering() {
+        return 'c';
+    }
+
+    @ParameterizedTest
+    @MethodSource("org.nd4j.linalg.BaseNd4jTestWithBackends#configs")
+    public void testBoundedCache(Nd4jBackend backend) {
+        AtomicInteger created = new AtomicInteger();
+        BoundedDescriptorCache<Integer, String> cache = new BoundedDescriptorCache<>(2);
+
+        assertEquals("0", cache.getOrCreate(0, k -> String.valueOf(created.getAndIncrement())));
+        assertEquals("0", cache.getOrCreate(0, k -> String.valueOf(created.getAndIncrement())));
+        assertEquals("1", cache.getOrCreate(1, k -> String.valueOf(created.getAndIncrement())));
+        //Full: values for new keys are created, but not cached
+        assertEquals("2", cache.getOrCreate(2, k -> String.valueOf(created.getAndIncrement())));
+        assertEquals("3", cache.getOrCreate(2, k -> String.valueOf(created.getAndIncrement())));
+        assertEquals("1", cache.getOrCreate(1, k -> String.valueOf(created.getAndIncrement())));
+
+        DescriptorCache.Stats stats = cache.getStats();
+        assertEquals(2, stats.getHits());
+        assertEquals(4, stats.getMisses());
+        assertEquals(2, stats.getRejected());
+        assertEquals(2, stats.getSize());
+        assertEquals(2, stats.getCapacity());
+        assertEquals(new HashSet<>(Arrays.asList(0, 1)), cache.keys());
+
+        cache.clear();
+        assertEquals(0, cache.size());
+        assertEquals("4", cache.getOrCreate(0, k -> String.valueOf(created.getAndIncrement())));
+    }
+
+    @ParameterizedTest
+    @MethodSource("org.nd4j.linalg.BaseNd4jTestWithBackends#configs")
+    public void testTadCacheMetrics(Nd4jBackend backend) {
+        TADManager tadManager = Nd4j.getExecutioner().getTADManager();
+        assumeTrue(tadManager.getCacheStats() != null, "TAD manager doesn't cache TADs");
+
+        INDArray arr = Nd4j.rand(DataType.FLOAT, 7, 11, 13);
+        long hitsBefore = tadManager.getCacheStats().getHits();
+        Pair<DataBuffer, DataBuffer> first = tadManager.getTADOnlyShapeInfo(arr, 2, 0);
+        Pair<DataBuffer, DataBuffer> second = tadManager.getTADOnlyShapeInfo(arr.dup(), 0, 2);
+        assertSame(first, second);
+        assertTrue(tadManager.getCacheStats().getHits() > hitsBefore);
+        assertTrue(tadManager.getCachedDescriptors().contains(new TadDescriptor(arr.shapeInfoJava(), new int[]{0, 2})));
+
+        //Results must be the same as without cache
+        assertEquals(arr.sum(0, 2), arr.dup().sum(0, 2));
+    }
+
+    @ParameterizedTest
+    @MethodSource("org.nd4j.linalg.BaseNd4jTestWithBackends#configs")
+    public void testSnapshotWarmStart(Nd4jBackend backend, @TempDir Path testDir) throws Exception {
+        TADManager tadManager = Nd4j.getExecutioner().getTADManager();
+        assumeTrue(tadManager.getCacheStats() != null, "TAD manager doesn't cache TADs");
+
+        INDArray arr = Nd4j.rand(DataType.DOUBLE, 5, 9, 3);
+        Pair<DataBuffer, DataBuffer> expected = tadManager.getTADOnlyShapeInfo(arr, 1);
+        long[] expShape = expected.getFirst().asLong();
+        long[] expOffsets = expected.getSecond().asLong();
+
+        File f = new File(testDir.toFile(), "descriptors.bin");
+        DescriptorCacheSnapshot snapshot = DescriptorCacheSnapshot.capture();
+        snapshot.save(f);
+
+        DescriptorCacheSnapshot loaded = DescriptorCacheSnapshot.load(f);
+        assertEquals(snapshot.getShapeDescriptors(), loaded.getShapeDescriptors());
+        assertEquals(snapshot.getTadDescriptors(), loaded.getTadDescriptors());
+        assertFalse(loaded.getShapeDescriptors().isEmpty());
+
+        //Simulate a new process: TADs are created from the snapshot, before being requested for any array
+        tadManager.purgeBuffers();
+        assertTrue(tadManager.getCachedDescriptors().isEmpty());
+        loaded.apply();
+        assertEquals(new HashSet<>(loaded.getTadDescriptors()), new HashSet<>(tadManager.getCachedDescriptors()));
+
+        long hitsBefore = tadManager.getCacheStats().getHits();
+        Pair<DataBuffer, DataBuffer> warm = tadManager.getTADOnlyShapeInfo(arr, 1);
+        assertEquals(hitsBefore + 1, tadManager.getCacheStats().getHits());
+        assertArrayEquals(expShape, warm.getFirst().asLong());
+        assertArrayEquals(expOffsets, warm.getSecond().asLong());
+    }
+}
@@ -0,0 +1,213 @@
+/*
+ *  ******************************************************************************
+ *  *
+ *  *
+ *  * This program and the accompanying materials are made available under the
+ *  * terms of the Apache License, Version 2.0 which is available at
+ *  * https://www.apache.org/licenses/LICENSE-2.0.
+ *  *
+ *  *  See the NOTICE file distributed with this work for additional
+ *  *  information regarding copyright ownership.
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ *  * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ *  * License for the specific language governing permissions and limitations
+ *  * under the License.
+ *  *
+ *  * SPDX-License-Identifier: Apache-2.0
+ *  *****************************************************************************
+ */
+package org.eclipse.deeplearning4j.nd4j.linalg.sparse;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.nd4j.common.tests.tags.NativeTag;
+import org.nd4j.linalg.BaseNd4jTestWithBackends;
+import org.nd4j.linalg.api.buffer.DataType;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+import org.nd4j.linalg.factory.Nd4jBackend;
+import org.nd4j.linalg.indexing.NDArrayIndex;
+import org.nd4j.linalg.ops.transforms.Transforms;
+import org.nd4j.linalg.sparse.CooMatrix;
+import org.nd4j.linalg.sparse.CsrMatrix;
+import org.nd4j.linalg.sparse.SparseFormat;
+import org.nd4j.linalg.sparse.SparseMatrix;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@NativeTag
+public class SparseMatrixTests extends BaseNd4jTestWithBackends {
+
+    @Override
+    public char ordering() {
+        return 'c';
+    }
+
+    private static INDArray sparseDense() {
+        //Rows 1 and 3 are empty
+        return Nd4j.createFromArray(new double[][]{
+                {1, 0, 0, 2, 0},
+                {0, 0, 0, 0, 0},
+                {0, -3, 0, 0, 4},
+                {0, 0, 0, 0, 0},
+                {5, 0, 6, 0, 0}});
+    }
+
+    @ParameterizedTest
+    @MethodSource("org.nd4j.linalg.BaseNd4jTestWithBackends#configs")
+    public void testFromDenseRoundTrip(Nd4jBackend backend) {
+        INDArray dense = sparseDense();
+        for (SparseFormat format : SparseFormat.values()) {
+            SparseMatrix m = SparseMatrix.fromDense(dense, format);
+            assertEquals(format, m.getFormat());
+            assertEquals(6, m.nnz());
+            assertArrayEquals(new long[]{5, 5}, m.shape());
+            assertEquals(DataType.DOUBLE, m.dataType());
+            assertEquals(dense, m.toDense());
+            assertEquals(dense, m.toCsr().toDense());
+            assertEquals(dense, m.toCoo().toDense());
+        }
+
+        CsrMatrix csr = CsrMatrix.fromDense(dense);
+        assertArrayEquals(new long[]{0, 2, 2, 4, 4, 6}, csr.getRowPointers().toLongVector());
+        assertArrayEquals(new long[]{0, 3, 1, 4, 0, 2}, csr.columnIndices().toLongVector());
+        assertArrayEquals(new long[]{0, 0, 2, 2, 4, 4}, csr.rowIndices().toLongVector());
+
+        CsrMatrix empty = CsrMatrix.fromDense(Nd4j.zeros(DataType.FLOAT, 3, 4));
+        assertEquals(0, empty.nnz());
+        assertEquals(Nd4j.zeros(DataType.FLOAT, 3, 4), empty.toDense());
+    }
+
+    @ParameterizedTest
+    @MethodSource("org.nd4j.linalg.BaseNd4jTestWithBackends#configs")
+    public void testMmul(Nd4jBackend backend) {
+        Nd4j.getRandom().setSeed(12345);
+        INDArray dense = sparseDense();
+        INDArray other = Nd4j.rand(DataType.DOUBLE, 5, 7);
+        INDArray other2 = Nd4j.rand(DataType.DOUBLE, 3, 5);
+
+        for (SparseFormat format : SparseFormat.values()) {
+            SparseMatrix m = SparseMatrix.fromDense(dense, format);
+            assertEquals(dense.mmul(other), m.mmul(other));
+            assertEquals(dense.transpose().mmul(other), m.transposeMmul(other));
+            assertEquals(other2.mmul(dense), m.rmmul(other2));
+
+            INDArray result = Nd4j.valueArrayOf(new long[]{5, 7}, 100.0, DataType.DOUBLE);
+            assertSame(result, m.mmul(other, result));
+            assertEquals(dense.mmul(other), result);
+
+            //f order and view operands
+            assertEquals(dense.mmul(other.dup('f')), m.mmul(other.dup('f')));
+            INDArray view = Nd4j.rand(DataType.DOUBLE, 10, 7).get(NDArrayIndex.interval(2, 7), NDArrayIndex.all());
+            assertEquals(dense.mmul(view), m.mmul(view));
+        }
+
+        CsrMatrix empty = CsrMatrix.fromDense(Nd4j.zeros(DataType.DOUBLE, 5, 5));
+        assertEquals(Nd4j.zeros(DataType.DOUBLE, 5, 7), empty.mmul(other));
+
+        SparseMatrix m = SparseMatrix.fromDense(dense, SparseFormat.CSR);
+        assertThrows(IllegalArgumentException.class, () -> m.mmul(Nd4j.rand(DataType.DOUBLE, 4, 7)));
+        assertThrows(IllegalArgumentException.class, () -> m.mmul(Nd4j.rand(DataType.FLOAT, 5, 7)));
+    }
+
+    @ParameterizedTest
+    @MethodSource("org.nd4j.linalg.BaseNd4jTestWithBackends#configs")
+    public void testGetRows(Nd4jBackend backend) {
+        INDArray dense = sparseDense();
+        long[] rows = {4, 1, 2, 4, 0};
+        INDArray expected = Nd4j.pullRows(dense, 1, new int[]{4, 1, 2, 4, 0});
+
+        for (SparseFormat format : SparseFormat.values()) {
+            SparseMatrix m = SparseMatrix.fromDense(dense, format);
+            SparseMatrix gathered = m.getRows(rows);
+            assertEquals(format, gathered.getFormat());
+            assertArrayEquals(new long[]{5, 5}, gathered.shape());
+            assertEquals(8, gathered.nnz());
+            assertEquals(expected, gathered.toDense());
+
+            SparseMatrix emptyRows = m.getRows(1, 3);
+            assertEquals(0, emptyRows.nnz());
+            assertEquals(Nd4j.zeros(DataType.DOUBLE, 2, 5), emptyRows.toDense());
+
+            assertThrows(IllegalArgumentException.class, () -> m.getRows(5));
+        }
+    }
+
+    @ParameterizedTest
+    @MethodSource("org.nd4j.linalg.BaseNd4jTestWithBackends#configs")
+    public void testElementwise(Nd4jBackend backend) {
+        Nd4j.getRandom().setSeed(12345);
+        INDArray dense = sparseDense();
+        INDArray other = Nd4j.rand(DataType.DOUBLE, 5, 5);
+
+        for (SparseFormat format : SparseFormat.values()) {
+            SparseMatrix m = SparseMatrix.fromDense(dense, format);
+
+            SparseMatrix hadamard = m.mul(other);
+            assertEquals(m.nnz(), hadamard.nnz());
+            assertEquals(dense.mul(other), hadamard.toDense());
+
+            assertEquals(dense.mul(2.5), m.mul(2.5).toDense());
+            assertEquals(dense.div(2.0), m.div(2.0).toDense());
+            assertEquals(Transforms.abs(dense), m.transform(Transforms::abs).toDense());
+
+            INDArray otherCopy = other.dup();
+            assertEquals(dense.add(other), m.add(other));
+            assertEquals(otherCopy, other);
+
+            assertEquals(dense.sum(0), m.sum(0));
+            assertEquals(dense.sum(1), m.sum(1));
+
+            assertEquals(dense.castTo(DataType.FLOAT), m.castTo(DataType.FLOAT).toDense());
+        }
+    }
+
+    @ParameterizedTest
+    @MethodSource("org.nd4j.linalg.BaseNd4jTestWithBackends#configs")
+    public void testCoo(Nd4jBackend backend) {
+        //Unordered entries, with a duplicate at (0, 1)
+        CooMatrix coo = new CooMatrix(
+                Nd4j.createFromArray(3.0f, 1.0f, 2.0f, 4.0f),
+                Nd4j.createFromArray(2, 0, 0, 1),
+                Nd4j.createFromArray(2, 1, 1, 0),
+                3, 3);
+        INDArray expected = Nd4j.createFromArray(new float[][]{
+                {0, 3, 0},
+                {4, 0, 0},
+                {0, 0, 3}});
+
+        assertEquals(DataType.INT64, coo.rowIndices().dataType());
+        assertEquals(expected, coo.toDense());
+
+        CsrMatrix csr = coo.toCsr();
+        assertArrayEquals(new long[]{0, 2, 3, 4}, csr.getRowPointers().toLongVector());
+        assertArrayEquals(new long[]{0, 0, 1, 2}, csr.rowIndices().toLongVector());
+        assertEquals(expected, csr.toDense());
+
+        INDArray other = Nd4j.rand(DataType.FLOAT, 3, 4);
+        assertEquals(expected.mmul(other), coo.mmul(other));
+        assertEquals(expected.mmul(other), csr.mmul(other));
+
+        assertTrue(coo.bytes() > 0);
+        assertEquals(4.0 / 9.0, coo.density(), 1e-9);
+    }
+
+    @ParameterizedTest
+    @MethodSource("org.nd4j.linalg.BaseNd4jTestWithBackends#configs")
+    public void testValidation(Nd4jBackend backend) {
+        INDArray values = Nd4j.createFromArray(1.0, 2.0);
+        //Column index count != value count
+        assertThrows(IllegalArgumentException.class, () -> new CsrMatrix(values, Nd4j.createFromArray(0L),
+                Nd4j.createFromArray(0L, 2L), 3));
+        //Row pointers don't end at nnz
+        assertThrows(IllegalArgumentException.class, () -> new CsrMatrix(values, Nd4j.createFromArray(0L, 1L),
+                Nd4j.createFromArray(0L, 1L), 3));
+        //Non-integer indices
+        assertThrows(IllegalArgumentException.class, () -> new CooMatrix(values, Nd4j.createFromArray(0.0, 1.0),
+                Nd4j.createFromArray(0L, 1L), 2, 2));
+        //Non-floating point values
+        assertThrows(IllegalArgumentException.class, () -> new CooMatrix(Nd4j.createFromArray(1, 2),
+                Nd4j.createFromArray(0L, 1L), Nd4j.createFromArray(0L, 1L), 2, 2));
+    }
+}
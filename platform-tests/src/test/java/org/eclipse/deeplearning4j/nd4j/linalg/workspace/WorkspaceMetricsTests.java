@@ -0,0 +1,234 @@
+/*
+ *  ******************************************************************************
+ *  *
+ *  *
+ *  * This program and the accompanying materials are made available under the
+ *  * terms of the Apache License, Version 2.0 which is available at
+ *  * https://www.apache.org/licenses/LICENSE-2.0.
+ *  *
+ *  *  See the NOTICE file distributed with this work for additional
+ *  *  information regarding copyright ownership.
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ *  * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ *  * License for the specific language governing permissions and limitations
+ *  * under the License.
+ *  *
+ *  * SPDX-License-Identifier: Apache-2.0
+ *  *****************************************************************************
+ */
+
+package org.eclipse.deeplearning4j.nd4j.linalg.workspace;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.parallel.Execution;
+import org.junit.jupiter.api.parallel.ExecutionMode;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.nd4j.common.tests.tags.NativeTag;
+import org.nd4j.common.tests.tags.TagNames;
+import org.nd4j.linalg.BaseNd4jTestWithBackends;
+import org.nd4j.linalg.api.buffer.DataType;
+import org.nd4j.linalg.api.memory.MemoryWorkspace;
+import org.nd4j.linalg.api.memory.WorkspaceLeakDetector;
+import org.nd4j.linalg.api.memory.WorkspaceMetrics;
+import org.nd4j.linalg.api.memory.abstracts.Nd4jWorkspace;
+import org.nd4j.linalg.api.memory.conf.WorkspaceConfiguration;
+import org.nd4j.linalg.api.memory.enums.AllocationPolicy;
+import org.nd4j.linalg.api.memory.enums.LearningPolicy;
+import org.nd4j.linalg.api.memory.enums.SpillPolicy;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+import org.nd4j.linalg.factory.Nd4jBackend;
+import org.nd4j.linalg.indexing.NDArrayIndex;
+import org.nd4j.linalg.workspace.ND4JWorkspaceException;
+import org.nd4j.linalg.workspace.WorkspaceUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Slf4j
+@Tag(TagNames.WORKSPACES)
+@NativeTag
+@Execution(ExecutionMode.SAME_THREAD)
+public class WorkspaceMetricsTests extends BaseNd4jTestWithBackends {
+
+    @BeforeEach
+    public void setUp() {
+        Nd4j.getWorkspaceManager().getLeakDetector().clear();
+    }
+
+    @AfterEach
+    public void shutdown() {
+        Nd4j.getMemoryManager().setCurrentWorkspace(null);
+        Nd4j.getWorkspaceManager().destroyAllWorkspacesForCurrentThread();
+        Nd4j.getWorkspaceManager().getLeakDetector().setEnabled(false);
+        Nd4j.getWorkspaceManager().getLeakDetector().clear();
+    }
+
+    @ParameterizedTest
+    @MethodSource("org.nd4j.linalg.BaseNd4jTestWithBackends#configs")
+    public void testCyclesAndSpills(Nd4jBackend backend) {
+        WorkspaceConfiguration conf = WorkspaceConfiguration.builder().initialSize(0)
+                .policyAllocation(AllocationPolicy.STRICT).policyLearning(LearningPolicy.FIRST_LOOP)
+                .policySpill(SpillPolicy.EXTERNAL).build();
+
+        long reqMemory;
+
+        //First cycle: workspace has no memory yet, so everything is spilled
+        try (Nd4jWorkspace ws = (Nd4jWorkspace) Nd4j.getWorkspaceManager().getAndActivateWorkspace(conf, "WS_METRICS")) {
+            INDArray array = Nd4j.create(DataType.DOUBLE, 100);
+            reqMemory = ws.requiredMemoryPerArray(array);
+
+            WorkspaceMetrics m = Nd4j.getWorkspaceManager().getWorkspaceMetrics("WS_METRICS");
+            assertTrue(m.isScopeActive());
+            assertEquals(0, m.getCurrentSize());
+            assertEquals(1, m.getSpilledCount());
+            assertEquals(reqMemory, m.getSpilledBytes());
+            assertEquals(reqMemory, m.getThisCycleBytes());
+        }
+
+        WorkspaceMetrics m = Nd4j.getWorkspaceManager().getWorkspaceMetrics("WS_METRICS");
+        assertFalse(m.isScopeActive());
+        assertEquals(1, m.getCyclesCount());
+        assertEquals(reqMemory, m.getPeakCycleBytes());
+        assertEquals(reqMemory, m.getLastCycleBytes());
+        assertEquals(reqMemory, m.getCurrentSize());
+        assertEquals(reqMemory, m.getPeakSize());
+        assertEquals(1, m.getTotalSpillEvents());
+        assertEquals(reqMemory, m.getTotalSpilledBytes());
+        assertEquals(0, m.getReallocationsCount());
+
+        //Second cycle: the learned workspace is large enough, no more spills
+        try (MemoryWorkspace ws = Nd4j.getWorkspaceManager().getAndActivateWorkspace(conf, "WS_METRICS")) {
+            Nd4j.create(DataType.DOUBLE, 100);
+
+            m = Nd4j.getWorkspaceManager().getWorkspaceMetrics("WS_METRICS");
+            assertEquals(reqMemory, m.getCurrentOffset());
+            assertEquals(0, m.getSpilledCount());
+        }
+
+        m = Nd4j.getWorkspaceManager().getWorkspaceMetrics("WS_METRICS");
+        assertEquals(2, m.getCyclesCount());
+        assertEquals(1, m.getTotalSpillEvents());
+
+        List<WorkspaceMetrics> all = Nd4j.getWorkspaceManager().getWorkspaceMetricsForCurrentThread();
+        assertEquals(1, all.size());
+        assertEquals("WS_METRICS", all.get(0).getWorkspaceId());
+        assertNull(Nd4j.getWorkspaceManager().getWorkspaceMetrics("WS_DOES_NOT_EXIST"));
+    }
+
+    @ParameterizedTest
+    @MethodSource("org.nd4j.linalg.BaseNd4jTestWithBackends#configs")
+    public void testReallocations(Nd4jBackend backend) {
+        WorkspaceConfiguration conf = WorkspaceConfiguration.builder().initialSize(0)
+                .policyAllocation(AllocationPolicy.STRICT).policyLearning(LearningPolicy.FIRST_LOOP)
+                .policySpill(SpillPolicy.REALLOCATE).build();
+
+        try (MemoryWorkspace ws = Nd4j.getWorkspaceManager().getAndActivateWorkspace(conf, "WS_REALLOC")) {
+            Nd4j.create(DataType.DOUBLE, 10);
+        }
+        assertEquals(0, Nd4j.getWorkspaceManager().getWorkspaceMetrics("WS_REALLOC").getReallocationsCount());
+
+        //Larger than the learned size: spilled, and then the workspace is reallocated on close
+        long reqMemory;
+        try (Nd4jWorkspace ws = (Nd4jWorkspace) Nd4j.getWorkspaceManager().getAndActivateWorkspace(conf, "WS_REALLOC")) {
+            reqMemory = ws.requiredMemoryPerArray(Nd4j.create(DataType.DOUBLE, 1000));
+        }
+
+        WorkspaceMetrics m = Nd4j.getWorkspaceManager().getWorkspaceMetrics("WS_REALLOC");
+        assertEquals(1, m.getReallocationsCount());
+        assertEquals(reqMemory, m.getLastReallocationSize());
+        assertEquals(reqMemory, m.getCurrentSize());
+        assertEquals(reqMemory, m.getPeakSize());
+        assertEquals(2, m.getTotalSpillEvents());
+    }
+
+    @ParameterizedTest
+    @MethodSource("org.nd4j.linalg.BaseNd4jTestWithBackends#configs")
+    public void testLeakDetector(Nd4jBackend backend) {
+        WorkspaceLeakDetector detector = Nd4j.getWorkspaceManager().getLeakDetector();
+        detector.setEnabled(true);
+
+        WorkspaceConfiguration conf = WorkspaceConfiguration.builder().initialSize(1024 * 1024)
+                .policyAllocation(AllocationPolicy.STRICT).policyLearning(LearningPolicy.NONE)
+                .policySpill(SpillPolicy.EXTERNAL).build();
+
+        INDArray leaked = allocateEscaping(conf);
+
+        //Workspace is closed
+        try {
+            WorkspaceUtils.assertValidArray(leaked, "leaked");
+            fail("Exception should be thrown");
+        } catch (ND4JWorkspaceException e) {
+            assertTrue(e.getMessage().contains("Array was allocated at"), e.getMessage());
+            assertTrue(e.getMessage().contains("allocateEscaping"), e.getMessage());
+        }
+
+        //Workspace was reopened since allocation
+        try (MemoryWorkspace ws = Nd4j.getWorkspaceManager().getAndActivateWorkspace(conf, "WS_LEAK")) {
+            Nd4j.create(DataType.DOUBLE, 10);
+            WorkspaceUtils.assertValidArray(leaked, "outdated");
+            fail("Exception should be thrown");
+        } catch (ND4JWorkspaceException e) {
+            assertTrue(e.getMessage().contains("allocateEscaping"), e.getMessage());
+        }
+
+        List<WorkspaceLeakDetector.LeakReport> reports = detector.getReports();
+        assertEquals(2, reports.size());
+        assertEquals(2, detector.getLeaksDetected());
+        assertFalse(reports.get(0).isOutdated());
+        assertTrue(reports.get(1).isOutdated());
+        for (WorkspaceLeakDetector.LeakReport r : reports) {
+            assertEquals("WS_LEAK", r.getWorkspaceId());
+            assertNotNull(r.getSite());
+            assertEquals(((Nd4jWorkspace) Nd4j.getWorkspaceManager().getWorkspaceForCurrentThread("WS_LEAK"))
+                    .requiredMemoryPerArray(leaked), r.getSite().getBytes());
+        }
+
+        //Views resolve to the allocation of their parent array
+        detector.clear();
+        INDArray view;
+        try (MemoryWorkspace ws = Nd4j.getWorkspaceManager().getAndActivateWorkspace(conf, "WS_LEAK")) {
+            view = Nd4j.create(DataType.DOUBLE, 10).get(NDArrayIndex.interval(5, 10));
+        }
+        try {
+            WorkspaceUtils.assertValidArray(view, "view");
+            fail("Exception should be thrown");
+        } catch (ND4JWorkspaceException e) {
+            assertNotNull(detector.getReports().get(0).getSite());
+        }
+    }
+
+    @ParameterizedTest
+    @MethodSource("org.nd4j.linalg.BaseNd4jTestWithBackends#configs")
+    public void testLeakDetectorDisabled(Nd4jBackend backend) {
+        WorkspaceConfiguration conf = WorkspaceConfiguration.builder().initialSize(1024 * 1024)
+                .policyAllocation(AllocationPolicy.STRICT).policyLearning(LearningPolicy.NONE)
+                .policySpill(SpillPolicy.EXTERNAL).build();
+
+        INDArray leaked = allocateEscaping(conf);
+        try {
+            WorkspaceUtils.assertValidArray(leaked, "leaked");
+            fail("Exception should be thrown");
+        } catch (ND4JWorkspaceException e) {
+            assertFalse(e.getMessage().contains("Array was allocated at"), e.getMessage());
+        }
+        assertTrue(Nd4j.getWorkspaceManager().getLeakDetector().getReports().isEmpty());
+    }
+
+    private static INDArray allocateEscaping(WorkspaceConfiguration conf) {
+        try (MemoryWorkspace ws = Nd4j.getWorkspaceManager().getAndActivateWorkspace(conf, "WS_LEAK")) {
+            return Nd4j.create(DataType.DOUBLE, 10);
+        }
+    }
+
+    @Override
+    public char ordering() {
+        return 'c';
+    }
+}